@@ -27,6 +27,7 @@ import boofcv.alg.descriptor.UtilFeature;
 import boofcv.alg.distort.ImageDistort;
 import boofcv.alg.distort.PixelTransformHomography_F32;
 import boofcv.alg.distort.impl.DistortSupport;
+import boofcv.alg.feature.associate.UtilAssociate;
 import boofcv.alg.interpolate.InterpolatePixelS;
 import boofcv.core.image.border.BorderType;
 import boofcv.factory.feature.associate.FactoryAssociation;
@@ -100,8 +101,10 @@ public class ExampleImageStitching {
 		associate.setDestination(descB);
 		associate.associate();
 
-		// create a list of AssociatedPairs that tell the model matcher how a feature moved
+		// create a list of AssociatedPairs that tell the model matcher how a feature moved.  Sorted with the
+		// best matches first so that adaptive RANSAC will try them first
 		FastQueue<AssociatedIndex> matches = associate.getMatches();
+		UtilAssociate.sortByFitScore(matches, associate.getScoreType());
 		List<AssociatedPair> pairs = new ArrayList<>();
 
 		for( int i = 0; i < matches.size(); i++ ) {
@@ -154,8 +157,10 @@ public class ExampleImageStitching {
 		AssociateDescription<BrightFeature> associate = FactoryAssociation.greedy(scorer,2,true);
 
 		// fit the images using a homography.  This works well for rotations and distant objects.
+		ConfigRansac configRansac = new ConfigRansac(60,3);
+		configRansac.adaptive = true;
 		ModelMatcher<Homography2D_F64,AssociatedPair> modelMatcher =
-				FactoryMultiViewRobust.homographyRansac(null,new ConfigRansac(60,3));
+				FactoryMultiViewRobust.homographyRansac(null,configRansac);
 
 		Homography2D_F64 H = computeTransform(inputA, inputB, detDesc, associate, modelMatcher);
 
@@ -23,6 +23,7 @@ import boofcv.abst.feature.associate.ScoreAssociation;
 import boofcv.abst.feature.detdesc.DetectDescribePoint;
 import boofcv.abst.geo.TriangulateTwoViewsCalibrated;
 import boofcv.alg.distort.LensDistortionOps;
+import boofcv.alg.feature.associate.UtilAssociate;
 import boofcv.factory.feature.associate.FactoryAssociation;
 import boofcv.factory.feature.detdesc.FactoryDetectDescribe;
 import boofcv.factory.geo.*;
@@ -557,6 +558,8 @@ public class ExampleMultiviewSceneReconstruction {
 		associate.associate();
 
 		FastQueue<AssociatedIndex> matches = associate.getMatches();
+		// best matches first, which is what adaptive RANSAC expects
+		UtilAssociate.sortByFitScore(matches, associate.getScoreType());
 
 		// create the associated pair for motion estimation
 		FastQueue<Point2D_F64> pixelsA = imagePixels.get(imageA);
@@ -26,6 +26,7 @@ import boofcv.abst.geo.Estimate1ofEpipolar;
 import boofcv.abst.geo.fitting.DistanceFromModelResidual;
 import boofcv.abst.geo.fitting.GenerateEpipolarMatrix;
 import boofcv.abst.geo.fitting.ModelManagerEpipolarMatrix;
+import boofcv.alg.feature.associate.UtilAssociate;
 import boofcv.alg.geo.f.FundamentalResidualSampson;
 import boofcv.examples.features.ExampleAssociatePoints;
 import boofcv.factory.feature.associate.FactoryAssociation;
@@ -150,6 +151,8 @@ public class ExampleFundamentalMatrix {
 
 		List<AssociatedPair> matches = new ArrayList<>();
 		FastQueue<AssociatedIndex> matchIndexes = associate.getMatches();
+		// best matches first, which is what adaptive RANSAC expects
+		UtilAssociate.sortByFitScore(matchIndexes, associate.getScoreType());
 
 		for( int i = 0; i < matchIndexes.size; i++ ) {
 			AssociatedIndex a = matchIndexes.get(i);
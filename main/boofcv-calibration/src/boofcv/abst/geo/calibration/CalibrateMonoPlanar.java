@@ -22,9 +22,12 @@ import boofcv.alg.geo.calibration.CalibrationObservation;
 import boofcv.alg.geo.calibration.CalibrationPlanarGridZhang99;
 import boofcv.alg.geo.calibration.Zhang99OptimizationFunction;
 import boofcv.alg.geo.calibration.Zhang99ParamAll;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeObjectConsumer;
 import boofcv.struct.calib.CameraPinholeRadial;
 import boofcv.struct.image.GrayF32;
 import georegression.struct.point.Point2D_F64;
+import org.ddogleg.struct.FastQueue;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -49,6 +52,17 @@ import java.util.List;
  * </p>
  *
  * <p>
+ * For on-line calibration {@link #processIncremental} can be called after images are added or removed.  The
+ * previous estimate is used as the starting point, avoiding the need to solve from scratch each time.
+ * </p>
+ *
+ * <p>
+ * Images can also be added in batches using {@link #addImages}.  If concurrent processing is turned on then the
+ * calibration target is detected in several images at once, with each thread using its own detector, and the
+ * non-linear refinement processes views concurrently.
+ * </p>
+ *
+ * <p>
  * <b>Most 3D operations in BoofCV assume that the image coordinate system is right handed and the +Z axis is
  * pointing out of the camera.</b>  In standard image coordinate the origin (0,0) is at the top left corner with +x going
  * to the right and +y going down, then if it is right handed +z will be out of the image.  <b>However some times
@@ -75,6 +89,9 @@ public class CalibrateMonoPlanar {
 
 	public boolean verbose = false;
 
+	// If true then images and views are processed concurrently
+	protected boolean concurrent = false;
+
 	// shape of the image
 	private int widthImg;
 	private int heightImg;
@@ -102,6 +119,7 @@ public class CalibrateMonoPlanar {
 	{
 		zhang99 = new CalibrationPlanarGridZhang99(
 				detector.getLayout(),assumeZeroSkew,numRadialParam,includeTangential);
+		zhang99.setConcurrent(concurrent);
 	}
 
 	/**
@@ -109,6 +127,7 @@ public class CalibrateMonoPlanar {
 	 */
 	public void reset() {
 		observations = new ArrayList<>();
+		foundZhang = null;
 		errors = null;
 		heightImg = widthImg = 0;
 	}
@@ -121,13 +140,7 @@ public class CalibrateMonoPlanar {
 	 * @return true if a target was detected in the image or not
 	 */
 	public boolean addImage( GrayF32 image ) {
-
-		if( widthImg == 0 ) {
-			widthImg = image.width;
-			heightImg = image.height;
-		} else if( widthImg != image.width || heightImg != image.height ) {
-			throw new IllegalArgumentException("All images must have the same shape");
-		}
+		checkShape(image);
 
 		if( !detector.process(image) )
 			return false;
@@ -137,11 +150,101 @@ public class CalibrateMonoPlanar {
 		}
 	}
 
+	/**
+	 * Adds several views of the calibration target and processes them.  Observations are added in the same
+	 * order as the images.  If concurrent then each thread uses its own detector created by the factory,
+	 * otherwise the detector passed in to the constructor is used.
+	 *
+	 * @param images Images of a calibration target
+	 * @param factory Creates detectors which are equivalent to the one passed in to the constructor
+	 * @return For each image, true if a target was detected in the image or not
+	 */
+	public boolean[] addImages( List<GrayF32> images , DetectorFactory factory ) {
+		CalibrationObservation[] found = detect(images, factory);
+
+		boolean[] success = new boolean[found.length];
+		for( int i = 0; i < found.length; i++ ) {
+			if( found[i] != null ) {
+				observations.add(found[i]);
+				success[i] = true;
+			}
+		}
+		return success;
+	}
+
+	/**
+	 * Detects the calibration target inside each image without adding the results
+	 *
+	 * @return Observations for each image or null if the target was not detected
+	 */
+	CalibrationObservation[] detect( final List<GrayF32> images , final DetectorFactory factory ) {
+		for( int i = 0; i < images.size(); i++ ) {
+			checkShape(images.get(i));
+		}
+
+		final CalibrationObservation[] found = new CalibrationObservation[images.size()];
+		if( concurrent ) {
+			FastQueue<DetectorFiducialCalibration> detectors = new FastQueue<DetectorFiducialCalibration>(
+					DetectorFiducialCalibration.class,true) {
+				@Override
+				protected DetectorFiducialCalibration createInstance() {
+					return factory.create();
+				}
+			};
+			BoofConcurrency.loopBlocks(0, images.size(), detectors,
+					new IntRangeObjectConsumer<DetectorFiducialCalibration>() {
+				@Override
+				public void accept(DetectorFiducialCalibration d, int index0, int index1) {
+					detect(d, images, found, index0, index1);
+				}
+			});
+		} else {
+			detect(detector, images, found, 0, images.size());
+		}
+		return found;
+	}
+
+	private static void detect( DetectorFiducialCalibration detector , List<GrayF32> images ,
+								CalibrationObservation[] found , int index0 , int index1 ) {
+		for( int i = index0; i < index1; i++ ) {
+			if( detector.process(images.get(i)) )
+				found[i] = detector.getDetectedPoints();
+		}
+	}
+
+	private void checkShape( GrayF32 image ) {
+		if( widthImg == 0 ) {
+			widthImg = image.width;
+			heightImg = image.height;
+		} else if( widthImg != image.width || heightImg != image.height ) {
+			throw new IllegalArgumentException("All images must have the same shape");
+		}
+	}
+
 	/**
 	 * Removes the most recently added image
 	 */
 	public void removeLatestImage() {
-		observations.remove( observations.size() - 1 );
+		removeImage( observations.size() - 1 );
+	}
+
+	/**
+	 * Removes the specified image.  If the image was included in the most recent estimate then its view is
+	 * removed from the estimate too, allowing {@link #processIncremental()} to be called.
+	 *
+	 * @param index Index of the image in the order that they were successfully added
+	 */
+	public void removeImage( int index ) {
+		observations.remove( index );
+
+		if( foundZhang != null && index < foundZhang.views.length ) {
+			Zhang99ParamAll.View[] views = new Zhang99ParamAll.View[foundZhang.views.length-1];
+			Zhang99ParamAll reduced = foundZhang.copy();
+			System.arraycopy(reduced.views,0,views,0,index);
+			System.arraycopy(reduced.views,index+1,views,index,views.length-index);
+			reduced.views = views;
+			foundZhang = reduced;
+		}
 	}
 
 	/**
@@ -155,6 +258,28 @@ public class CalibrateMonoPlanar {
 			throw new RuntimeException("Zhang99 algorithm failed!");
 		}
 
+		return computeResults();
+	}
+
+	/**
+	 * Same as {@link #process()} but the non-linear refinement is started from the most recent estimate.  Only
+	 * images which have been added since then need to be initialized, making it suitable for updating the
+	 * calibration each time an image is added or removed.  If there is no previous estimate then
+	 * {@link #process()} is called.
+	 */
+	public CameraPinholeRadial processIncremental() {
+		if( zhang99 == null )
+			throw new IllegalArgumentException("Please call configure first.");
+		if( foundZhang == null || foundZhang.views.length == 0 )
+			return process();
+		if( !zhang99.processIncremental(observations, foundZhang) ) {
+			throw new RuntimeException("Zhang99 algorithm failed!");
+		}
+
+		return computeResults();
+	}
+
+	private CameraPinholeRadial computeResults() {
 		foundZhang = zhang99.getOptimized();
 
 		errors = computeErrors(observations, foundZhang,detector.getLayout());
@@ -166,6 +291,20 @@ public class CalibrateMonoPlanar {
 		return foundIntrinsic;
 	}
 
+	public boolean isConcurrent() {
+		return concurrent;
+	}
+
+	/**
+	 * If true then images passed to {@link #addImages} and the views in non-linear refinement are processed
+	 * concurrently.  Results are identical to processing with a single thread.
+	 */
+	public void setConcurrent( boolean concurrent ) {
+		this.concurrent = concurrent;
+		if( zhang99 != null )
+			zhang99.setConcurrent(concurrent);
+	}
+
 	public void printStatistics() {
 		printErrors(errors);
 	}
@@ -255,4 +394,11 @@ public class CalibrateMonoPlanar {
 	public CameraPinholeRadial getIntrinsic() {
 		return foundIntrinsic;
 	}
+
+	/**
+	 * Creates a new instance of the target detector.  Used to give each thread its own detector.
+	 */
+	public interface DetectorFactory {
+		DetectorFiducialCalibration create();
+	}
 }
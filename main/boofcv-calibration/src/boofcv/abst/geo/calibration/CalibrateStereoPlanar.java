@@ -18,6 +18,7 @@
 
 package boofcv.abst.geo.calibration;
 
+import boofcv.alg.geo.calibration.CalibrationObservation;
 import boofcv.alg.geo.calibration.Zhang99ParamAll;
 import boofcv.struct.calib.CameraPinholeRadial;
 import boofcv.struct.calib.StereoParameters;
@@ -118,6 +119,49 @@ public class CalibrateStereoPlanar {
 		return true;
 	}
 
+	/**
+	 * Adds several pairs of images that observed the same target.  Pairs are added in order and only if the
+	 * target was detected in both images.
+	 *
+	 * @see CalibrateMonoPlanar#addImages
+	 *
+	 * @param left Images of left target.
+	 * @param right Images of right target.
+	 * @param factory Creates detectors which are equivalent to the one passed in to the constructor
+	 * @return For each pair, true if a target was detected in both images
+	 */
+	public boolean[] addPairs( List<GrayF32> left , List<GrayF32> right ,
+							   CalibrateMonoPlanar.DetectorFactory factory ) {
+		if( left.size() != right.size() )
+			throw new IllegalArgumentException("Number of left and right images must be the same");
+
+		CalibrationObservation[] foundLeft = calibLeft.detect(left, factory);
+		CalibrationObservation[] foundRight = calibRight.detect(right, factory);
+
+		boolean[] success = new boolean[left.size()];
+		for( int i = 0; i < success.length; i++ ) {
+			if( foundLeft[i] != null && foundRight[i] != null ) {
+				calibLeft.observations.add(foundLeft[i]);
+				calibRight.observations.add(foundRight[i]);
+				success[i] = true;
+			}
+		}
+		return success;
+	}
+
+	/**
+	 * If true then images and views are processed concurrently.  Results are identical to processing with a
+	 * single thread.
+	 */
+	public void setConcurrent( boolean concurrent ) {
+		calibLeft.setConcurrent(concurrent);
+		calibRight.setConcurrent(concurrent);
+	}
+
+	public boolean isConcurrent() {
+		return calibLeft.isConcurrent();
+	}
+
 	/**
 	 * Compute stereo calibration parameters
 	 *
@@ -18,14 +18,15 @@
 
 package boofcv.alg.geo.calibration;
 
+import boofcv.alg.geo.PerspectiveOps;
 import georegression.geometry.ConvertRotation3D_F64;
 import georegression.struct.point.Point2D_F64;
 import georegression.struct.se.Se3_F64;
-import org.ddogleg.optimization.FactoryOptimization;
 import org.ddogleg.optimization.UnconstrainedLeastSquares;
 import org.ejml.data.DMatrixRMaj;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -43,6 +44,12 @@ import java.util.List;
  * </p>
  *
  * <p>
+ * Calibration can be performed incrementally by calling {@link #processIncremental} with the previous estimate.
+ * The linear initialization is skipped and the non-linear refinement is started from the previous estimate,
+ * which converges much faster when only a few views have been added or removed.
+ * </p>
+ *
+ * <p>
  * A listener can be provide that will give status updates and allows requests for early termination.  If a request
  * for early termination is made then a RuntimeException will be thrown.
  * </p>
@@ -65,8 +72,9 @@ public class CalibrationPlanarGridZhang99 {
 	// contains found parameters
 	private Zhang99ParamAll optimized;
 
-	// optimization algorithm
+	// optimization algorithm.  If null then the sparse optimizer is used
 	private UnconstrainedLeastSquares optimizer;
+	private Zhang99OptimizationSparse sparse = new Zhang99OptimizationSparse();
 
 	// provides information on calibration status
 	private Listener listener;
@@ -127,6 +135,53 @@ public class CalibrationPlanarGridZhang99 {
 		return true;
 	}
 
+	/**
+	 * Processes observed calibration point coordinates and computes camera intrinsic and extrinsic
+	 * parameters using a previous estimate as the starting point.  The previous estimate must contain one view
+	 * for each of the first observations.  Views after those are new and are initialized by decomposing their
+	 * homography using the previous calibration matrix.
+	 *
+	 * @param observations Set of observed grid locations in pixel coordinates.
+	 * @param previous Previous estimate of the parameters.  Not modified.
+	 * @return true if successful and false if it failed
+	 */
+	public boolean processIncremental( List<CalibrationObservation> observations , Zhang99ParamAll previous ) {
+		if( previous.views.length > observations.size() )
+			throw new IllegalArgumentException("More views in the previous estimate than observations");
+		if( previous.assumeZeroSkew != optimized.assumeZeroSkew ||
+				previous.radial.length != optimized.radial.length ||
+				previous.includeTangential != optimized.includeTangential )
+			throw new IllegalArgumentException("Previous estimate has a different model");
+
+		// copy before modifying optimized since they might be the same instance
+		Zhang99ParamAll initial = previous.copy();
+		int numPrevious = previous.views.length;
+
+		optimized.setNumberOfViews(observations.size());
+
+		status("Initializing New Views");
+		initial.views = Arrays.copyOf(initial.views, observations.size());
+		if( numPrevious < observations.size() ) {
+			DMatrixRMaj K = PerspectiveOps.calibrationMatrix(initial.a,initial.b,initial.c,initial.x0,initial.y0);
+			decomposeH.setCalibrationMatrix(K);
+
+			for( int i = numPrevious; i < observations.size(); i++ ) {
+				if( !computeHomography.computeHomography(observations.get(i)) )
+					return false;
+
+				Se3_F64 m = decomposeH.decompose(computeHomography.getHomography());
+
+				Zhang99ParamAll.View v = new Zhang99ParamAll.View();
+				v.T = m.getT();
+				ConvertRotation3D_F64.matrixToRodrigues(m.getR(), v.rotation);
+				initial.views[i] = v;
+			}
+		}
+
+		status("Non-linear refinement");
+		return optimizedParam(observations,layout,initial,optimized,optimizer);
+	}
+
 	/**
 	 * Find an initial estimate for calibration parameters using linear techniques.
 	 */
@@ -178,7 +233,7 @@ public class CalibrationPlanarGridZhang99 {
 	 * @param grid Location of calibration points on calibration target
 	 * @param initial Initial estimate of calibration parameters.
 	 * @param found The refined calibration parameters.
-	 * @param optimizer Algorithm used to optimize parameters
+	 * @param optimizer Algorithm used to optimize parameters. If null then {@link Zhang99OptimizationSparse} is used.
 	 */
 	public boolean optimizedParam( List<CalibrationObservation> observations ,
 								   List<Point2D_F64> grid ,
@@ -186,16 +241,26 @@ public class CalibrationPlanarGridZhang99 {
 								   Zhang99ParamAll found ,
 								   UnconstrainedLeastSquares optimizer )
 	{
-		if( optimizer == null ) {
-//			optimizer = FactoryOptimization.leastSquaresTrustRegion(1,
-//					RegionStepType.DOG_LEG_FTF,true);
-			optimizer = FactoryOptimization.leastSquaresLM(1e-3,true);
-//			optimizer = FactoryOptimization.leastSquareLevenberg(1e-3);
-		}
-
 		double model[] = new double[ initial.numParameters() ];
 		initial.convertToParam(model);
 
+		if( optimizer == null ) {
+			sparse.configure(initial.createNew(), grid, observations);
+			sparse.initialize(model,1e-10,1e-25*observations.size());
+
+			for( int i = 0; i < 500; i++ ) {
+				if( sparse.iterate() ) {
+					break;
+				} else {
+					if( i % 25 == 0 )
+						status("Progress "+(100*i/500.0)+"%");
+				}
+			}
+
+			found.setFromParam(sparse.getParameters());
+			return true;
+		}
+
 		Zhang99OptimizationFunction func = new Zhang99OptimizationFunction(
 				initial.createNew(), grid,observations);
 
@@ -289,6 +354,18 @@ public class CalibrationPlanarGridZhang99 {
 		this.optimizer = optimizer;
 	}
 
+	/**
+	 * If true then the sparse optimizer will process views concurrently.  Results are identical to processing
+	 * with a single thread.
+	 */
+	public void setConcurrent( boolean concurrent ) {
+		sparse.setConcurrent(concurrent);
+	}
+
+	public boolean isConcurrent() {
+		return sparse.isConcurrent();
+	}
+
 	public Zhang99ParamAll getOptimized() {
 		return optimized;
 	}
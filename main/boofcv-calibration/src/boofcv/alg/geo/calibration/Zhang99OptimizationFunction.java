@@ -96,36 +96,46 @@ public class Zhang99OptimizationFunction implements FunctionNtoM {
 	public void process( Zhang99ParamAll param , double []residuals ) {
 		int index = 0;
 		for( int indexView = 0; indexView < param.views.length; indexView++ ) {
+			index = processView(param, indexView, residuals, index);
+		}
+	}
 
-			Zhang99ParamAll.View v = param.views[indexView];
+	/**
+	 * Computes the residuals for a single view
+	 *
+	 * @param index Index of the view's first residual
+	 * @return Index after the view's last residual
+	 */
+	int processView( Zhang99ParamAll param , int indexView , double []residuals , int index ) {
+		Zhang99ParamAll.View v = param.views[indexView];
 
-			ConvertRotation3D_F64.rodriguesToMatrix(v.rotation,se.getR());
-			se.T = v.T;
+		ConvertRotation3D_F64.rodriguesToMatrix(v.rotation,se.getR());
+		se.T = v.T;
 
-			CalibrationObservation viewSet = observations.get(indexView);
+		CalibrationObservation viewSet = observations.get(indexView);
 
-			for( int i = 0; i < viewSet.size(); i++ ) {
+		for( int i = 0; i < viewSet.size(); i++ ) {
 
-				int gridIndex = viewSet.get(i).index;
-				Point2D_F64 obs = viewSet.get(i);
+			int gridIndex = viewSet.get(i).index;
+			Point2D_F64 obs = viewSet.get(i);
 
-				// Put the point in the camera's reference frame
-				SePointOps_F64.transform(se,grid.get(gridIndex), cameraPt);
+			// Put the point in the camera's reference frame
+			SePointOps_F64.transform(se,grid.get(gridIndex), cameraPt);
 
-				// normalized image coordinates
-				normPt.x = cameraPt.x/ cameraPt.z;
-				normPt.y = cameraPt.y/ cameraPt.z;
+			// normalized image coordinates
+			normPt.x = cameraPt.x/ cameraPt.z;
+			normPt.y = cameraPt.y/ cameraPt.z;
 
-				// apply distortion
-				CalibrationPlanarGridZhang99.applyDistortion(normPt, param.radial, param.t1, param.t2);
+			// apply distortion
+			CalibrationPlanarGridZhang99.applyDistortion(normPt, param.radial, param.t1, param.t2);
 
-				// convert to pixel coordinates
-				double x = param.a * normPt.x + param.c * normPt.y + param.x0;
-				double y = param.b * normPt.y + param.y0;
+			// convert to pixel coordinates
+			double x = param.a * normPt.x + param.c * normPt.y + param.x0;
+			double y = param.b * normPt.y + param.y0;
 
-				residuals[index++] = x-obs.x;
-				residuals[index++] = y-obs.y;
-			}
+			residuals[index++] = x-obs.x;
+			residuals[index++] = y-obs.y;
 		}
+		return index;
 	}
 }
@@ -123,51 +123,86 @@ public class Zhang99OptimizationJacobian implements FunctionNtoMxN {
 		for( int indexView = 0; indexView < observationSets.size(); indexView++ ) {
 			CalibrationObservation set = observationSets.get(indexView);
 
-			// extract rotation and translation parameters
-			double rodX = input[index++];
-			double rodY = input[index++];
-			double rodZ = input[index++];
-			double tranX = input[index++];
-			double tranY = input[index++];
-			double tranZ = input[index++];
-
-			rodrigues.setParamVector(rodX,rodY,rodZ);
-			rodJacobian.process(rodX,rodY,rodZ);
-
-			ConvertRotation3D_F64.rodriguesToMatrix(rodrigues, se.getR());
-			se.T.set(tranX, tranY, tranZ);
+			setView(input, index);
+			index += 6;
 
 			for( int i = 0; i < set.size(); i++ , indexPoint++ ) {
 				int gridIndex = set.points.get(i).index;
 
 				// index = (function index)*numParam
-				indexJacX = (2*indexPoint     )*numParam;
-				indexJacY = (2*indexPoint + 1 )*numParam;
+				computeGradient(gridIndex, output, (2*indexPoint)*numParam, (2*indexPoint + 1)*numParam,
+						indexView*6);
+			}
+		}
+	}
 
-				// Put the point in the camera's reference frame
-				SePointOps_F64.transform(se, grid.get(gridIndex), cameraPt);
+	/**
+	 * Sets the intrinsic camera parameters
+	 *
+	 * @return index of the first view parameter
+	 */
+	int setIntrinsic( double[] input ) {
+		return param.setFromParam(input);
+	}
 
-				// normalized pixel coordinates
-				normPt.x = cameraPt.x/ cameraPt.z;
-				normPt.y = cameraPt.y/ cameraPt.z;
+	/**
+	 * Sets the view which is being processed
+	 *
+	 * @param input parameters
+	 * @param index Index of the view's first parameter
+	 */
+	void setView( double[] input , int index ) {
+		// extract rotation and translation parameters
+		double rodX = input[index++];
+		double rodY = input[index++];
+		double rodZ = input[index++];
+		double tranX = input[index++];
+		double tranY = input[index++];
+		double tranZ = input[index];
+
+		rodrigues.setParamVector(rodX,rodY,rodZ);
+		rodJacobian.process(rodX,rodY,rodZ);
+
+		ConvertRotation3D_F64.rodriguesToMatrix(rodrigues, se.getR());
+		se.T.set(tranX, tranY, tranZ);
+	}
+
+	/**
+	 * Computes the gradient of a single observation in the current view.  The gradient for the intrinsic
+	 * parameters is written first, followed by the view's parameters after skipping viewOffset elements.
+	 *
+	 * @param gridIndex Index of the observed calibration point
+	 * @param output Storage for the gradient
+	 * @param indexX Index of the x-coordinate's first element in output
+	 * @param indexY Index of the y-coordinate's first element in output
+	 * @param viewOffset Number of elements between the intrinsic parameters and the view's parameters
+	 */
+	void computeGradient( int gridIndex , double[] output , int indexX , int indexY , int viewOffset ) {
+		indexJacX = indexX;
+		indexJacY = indexY;
 
-				// apply distortion to the normalized coordinate
-				dnormPt.set(normPt);
-				CalibrationPlanarGridZhang99.applyDistortion(dnormPt, param.radial, param.t1, param.t2);
+		// Put the point in the camera's reference frame
+		SePointOps_F64.transform(se, grid.get(gridIndex), cameraPt);
 
-				calibrationGradient(dnormPt,output);
-				distortGradient(normPt,output);
+		// normalized pixel coordinates
+		normPt.x = cameraPt.x/ cameraPt.z;
+		normPt.y = cameraPt.y/ cameraPt.z;
 
-				indexJacX += indexView*6;
-				indexJacY += indexView*6;
+		// apply distortion to the normalized coordinate
+		dnormPt.set(normPt);
+		CalibrationPlanarGridZhang99.applyDistortion(dnormPt, param.radial, param.t1, param.t2);
 
-				rodriguesGradient(rodJacobian.Rx,grid.get(gridIndex),cameraPt, normPt,output);
-				rodriguesGradient(rodJacobian.Ry,grid.get(gridIndex),cameraPt, normPt,output);
-				rodriguesGradient(rodJacobian.Rz,grid.get(gridIndex),cameraPt, normPt,output);
+		calibrationGradient(dnormPt,output);
+		distortGradient(normPt,output);
 
-				translateGradient(cameraPt, normPt,output);
-			}
-		}
+		indexJacX += viewOffset;
+		indexJacY += viewOffset;
+
+		rodriguesGradient(rodJacobian.Rx,grid.get(gridIndex),cameraPt, normPt,output);
+		rodriguesGradient(rodJacobian.Ry,grid.get(gridIndex),cameraPt, normPt,output);
+		rodriguesGradient(rodJacobian.Rz,grid.get(gridIndex),cameraPt, normPt,output);
+
+		translateGradient(cameraPt, normPt,output);
 	}
 
 	/**
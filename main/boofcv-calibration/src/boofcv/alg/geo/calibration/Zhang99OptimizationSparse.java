@@ -0,0 +1,619 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.geo.calibration;
+
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeConsumer;
+import boofcv.concurrency.IntRangeObjectConsumer;
+import georegression.struct.point.Point2D_F64;
+import org.ddogleg.struct.FastQueue;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.factory.LinearSolverFactory_DDRM;
+import org.ejml.interfaces.linsol.LinearSolver;
+
+import java.util.List;
+
+/**
+ * <p>
+ * Levenberg-Marquardt optimization of {@link Zhang99ParamAll} which takes advantage of the problem's sparse
+ * structure.  The Jacobian is composed of a dense block for the intrinsic camera parameters and one 6 column block
+ * for each view, with each observation only depending on the intrinsic parameters and its own view.  Only the
+ * non-zero blocks are computed and stored.  Each step is found by eliminating the view parameters with the Schur
+ * complement, which reduces the linear system to the size of the intrinsic parameters.  Computations and memory
+ * scale linearly with the number of views, instead of quadratically like the dense solution.
+ * </p>
+ *
+ * <p>
+ * Residuals, the Jacobian, and the normal equations can be computed concurrently across views.  Results are identical
+ * to processing with a single thread since per-view results are always merged in view order.  Damping is updated
+ * using the gain ratio, as described in [1].
+ * </p>
+ *
+ * <p>
+ * [1] K. Madsen and H. B. Nielsen and O. Tingleff, "Methods for Non-Linear Least Squares Problems (2nd ed.)"
+ * Informatics and Mathematical Modelling, Technical University of Denmark
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class Zhang99OptimizationSparse {
+
+	// description of the problem
+	Zhang99ParamAll template;
+	List<Point2D_F64> grid;
+	List<CalibrationObservation> observations;
+
+	// number of intrinsic parameters, views, and total parameters
+	int numIntrinsic;
+	int numViews;
+	int numParam;
+	// index of the first observation in each view.  numViews+1 elements
+	int viewObsStart[] = new int[0];
+
+	// residuals for each observation.  (x,y) interleaved
+	double residuals[] = new double[0];
+	// Jacobian of each residual with respect to the intrinsic parameters. numIntrinsic columns
+	double jacIntrinsic[] = new double[0];
+	// Jacobian of each residual with respect to its view's parameters. 6 columns
+	double jacView[] = new double[0];
+
+	// normal equations. U = A^T*A, V = B^T*B, W = A^T*B where A and B are the intrinsic and view blocks
+	DMatrixRMaj U = new DMatrixRMaj(1,1);
+	DMatrixRMaj gradI = new DMatrixRMaj(1,1);
+	double V[] = new double[0];
+	double W[] = new double[0];
+	double gradV[] = new double[0];
+	// contribution of each view to U and gradI.  Summed in view order so that results are deterministic
+	double partialU[] = new double[0];
+	double partialG[] = new double[0];
+
+	// inverse of each damped V block and each view's contribution to the reduced system
+	double Vinv[] = new double[0];
+	double reducedS[] = new double[0];
+	double reducedR[] = new double[0];
+
+	// reduced system S*a = r
+	DMatrixRMaj S = new DMatrixRMaj(1,1);
+	DMatrixRMaj stepI = new DMatrixRMaj(1,1);
+	DMatrixRMaj rhs = new DMatrixRMaj(1,1);
+	LinearSolver<DMatrixRMaj> solverS;
+
+	// If true then views are processed concurrently
+	boolean concurrent = false;
+
+	// state of the optimization
+	double param[] = new double[0];
+	double candidate[] = new double[0];
+	double step[] = new double[0];
+	double cost;
+	double lambda;
+	double nu;
+	double ftol, gtol;
+	boolean jacobianValid;
+
+	// initial value of the damping parameter
+	double initialDamping = 1e-3;
+
+	// per-thread storage.  Recreated each time the problem changes
+	Workspace workspace;
+	FastQueue<Workspace> workspaces;
+
+	/**
+	 * Specifies the problem being optimized
+	 *
+	 * @param template Describes the model being optimized. Effectively specifies the number of target views
+	 * and radial terms
+	 * @param grid Location of points on the calibration grid.  z=0
+	 * @param observations calibration point observation pixel coordinates
+	 */
+	public void configure( Zhang99ParamAll template ,
+						   List<Point2D_F64> grid ,
+						   List<CalibrationObservation> observations ) {
+		if( template.views.length != observations.size() )
+			throw new IllegalArgumentException("For each view there should be one observation");
+
+		this.template = template;
+		this.grid = grid;
+		this.observations = observations;
+
+		numIntrinsic = new Zhang99ParamCamera(template.assumeZeroSkew,
+				template.radial.length,template.includeTangential).numParameters();
+		numViews = observations.size();
+		numParam = template.numParameters();
+
+		viewObsStart = new int[numViews+1];
+		for (int i = 0; i < numViews; i++) {
+			viewObsStart[i+1] = viewObsStart[i] + observations.get(i).size();
+		}
+		int numObs = viewObsStart[numViews];
+
+		int p = numIntrinsic;
+		residuals = new double[numObs*2];
+		jacIntrinsic = new double[numObs*2*p];
+		jacView = new double[numObs*2*6];
+
+		U.reshape(p,p);
+		gradI.reshape(p,1);
+		V = new double[numViews*36];
+		W = new double[numViews*p*6];
+		gradV = new double[numViews*6];
+		partialU = new double[numViews*p*p];
+		partialG = new double[numViews*p];
+
+		Vinv = new double[numViews*36];
+		reducedS = new double[numViews*p*p];
+		reducedR = new double[numViews*p];
+
+		S.reshape(p,p);
+		stepI.reshape(p,1);
+		rhs.reshape(p,1);
+		solverS = LinearSolverFactory_DDRM.chol(p);
+
+		param = new double[numParam];
+		candidate = new double[numParam];
+		step = new double[numParam];
+
+		// workspaces depend on the problem
+		workspace = new Workspace();
+		workspaces = new FastQueue<Workspace>(Workspace.class,true) {
+			@Override
+			protected Workspace createInstance() {
+				return new Workspace();
+			}
+		};
+	}
+
+	/**
+	 * Initializes the optimization.
+	 *
+	 * @param initial Initial parameters.  Encoded the same way as {@link Zhang99ParamAll#convertToParam}
+	 * @param ftol Stop when the relative change in the cost is less than this
+	 * @param gtol Stop when the largest element in the gradient is less than or equal to this
+	 */
+	public void initialize( double initial[] , double ftol , double gtol ) {
+		System.arraycopy(initial,0,param,0,numParam);
+		this.ftol = ftol;
+		this.gtol = gtol;
+
+		process(param, true);
+		jacobianValid = true;
+		cost = 0.5*computeErrorSq();
+		lambda = initialDamping;
+		nu = 2;
+	}
+
+	/**
+	 * Performs a single Levenberg-Marquardt iteration.
+	 *
+	 * @return true if it has converged and false if not
+	 */
+	public boolean iterate() {
+		if( cost == 0 )
+			return true;
+
+		if( !jacobianValid ) {
+			process(param, true);
+			jacobianValid = true;
+		}
+		computeNormalEquations();
+
+		if( gradientNormInf() <= gtol )
+			return true;
+
+		// increase the damping until a step which reduces the cost is found
+		while( true ) {
+			if( solve(lambda, step) ) {
+				for( int i = 0; i < numParam; i++ ) {
+					candidate[i] = param[i] + step[i];
+				}
+				process(candidate, false);
+				double costCandidate = 0.5*computeErrorSq();
+				double predicted = predictedReduction(lambda, step);
+
+				if( costCandidate < cost && predicted > 0 ) {
+					double ratio = (cost - costCandidate)/predicted;
+					boolean converged = cost - costCandidate <= ftol*cost;
+
+					double tmp[] = param; param = candidate; candidate = tmp;
+					cost = costCandidate;
+					jacobianValid = false;
+
+					double a = 2*ratio - 1;
+					lambda *= Math.max(1.0/3.0, 1 - a*a*a);
+					nu = 2;
+					return converged;
+				}
+			}
+
+			lambda *= nu;
+			nu *= 2;
+			// no step can reduce the cost any more
+			if( lambda > 1e16 )
+				return true;
+		}
+	}
+
+	/**
+	 * Computes the residuals and optionally the Jacobian for the specified parameters
+	 *
+	 * @param input Parameters
+	 * @param computeJacobian If true then the Jacobian is computed too
+	 */
+	public void process( final double input[] , final boolean computeJacobian ) {
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, numViews, workspaces, new IntRangeObjectConsumer<Workspace>() {
+				@Override
+				public void accept(Workspace w, int index0, int index1) {
+					process(w, input, computeJacobian, index0, index1);
+				}
+			});
+		} else {
+			process(workspace, input, computeJacobian, 0, numViews);
+		}
+	}
+
+	private void process( Workspace w , double input[] , boolean computeJacobian , int view0 , int view1 ) {
+		final int p = numIntrinsic;
+
+		w.param.setFromParam(input);
+		for( int view = view0; view < view1; view++ ) {
+			w.function.processView(w.param, view, residuals, viewObsStart[view]*2);
+		}
+
+		if( !computeJacobian )
+			return;
+
+		int indexFirstView = w.jacobian.setIntrinsic(input);
+		double grad[] = w.gradient;
+		for( int view = view0; view < view1; view++ ) {
+			w.jacobian.setView(input, indexFirstView + view*6);
+
+			CalibrationObservation set = observations.get(view);
+			for( int i = 0; i < set.size(); i++ ) {
+				int obs = viewObsStart[view] + i;
+				w.jacobian.computeGradient(set.get(i).index, grad, 0, p+6, 0);
+
+				System.arraycopy(grad,0,jacIntrinsic,obs*2*p,p);
+				System.arraycopy(grad,p+6,jacIntrinsic,(obs*2+1)*p,p);
+				System.arraycopy(grad,p,jacView,obs*12,6);
+				System.arraycopy(grad,2*p+6,jacView,obs*12+6,6);
+			}
+		}
+	}
+
+	/**
+	 * Computes the normal equations and gradient from the most recently computed Jacobian and residuals
+	 */
+	public void computeNormalEquations() {
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, numViews, new IntRangeConsumer() {
+				@Override
+				public void accept(int index0, int index1) {
+					computeNormalEquations(index0, index1);
+				}
+			});
+		} else {
+			computeNormalEquations(0, numViews);
+		}
+
+		// sum up the contribution from each view in order
+		final int p = numIntrinsic;
+		U.zero();
+		gradI.zero();
+		for( int view = 0; view < numViews; view++ ) {
+			for( int i = 0; i < p*p; i++ ) {
+				U.data[i] += partialU[view*p*p + i];
+			}
+			for( int i = 0; i < p; i++ ) {
+				gradI.data[i] += partialG[view*p + i];
+			}
+		}
+	}
+
+	private void computeNormalEquations( int view0 , int view1 ) {
+		final int p = numIntrinsic;
+
+		for( int view = view0; view < view1; view++ ) {
+			int offU = view*p*p;
+			int offG = view*p;
+			int offV = view*36;
+			int offW = view*p*6;
+			int offGV = view*6;
+
+			for( int i = 0; i < p*p; i++ ) partialU[offU+i] = 0;
+			for( int i = 0; i < p; i++ ) partialG[offG+i] = 0;
+			for( int i = 0; i < 36; i++ ) V[offV+i] = 0;
+			for( int i = 0; i < p*6; i++ ) W[offW+i] = 0;
+			for( int i = 0; i < 6; i++ ) gradV[offGV+i] = 0;
+
+			for( int row = viewObsStart[view]*2; row < viewObsStart[view+1]*2; row++ ) {
+				int indexA = row*p;
+				int indexB = row*6;
+				double r = residuals[row];
+
+				for( int i = 0; i < p; i++ ) {
+					double a = jacIntrinsic[indexA+i];
+					if( a == 0 )
+						continue;
+					// only the upper triangle, the lower is filled in below
+					for( int j = i; j < p; j++ ) {
+						partialU[offU+i*p+j] += a*jacIntrinsic[indexA+j];
+					}
+					for( int j = 0; j < 6; j++ ) {
+						W[offW+i*6+j] += a*jacView[indexB+j];
+					}
+					partialG[offG+i] += a*r;
+				}
+				for( int i = 0; i < 6; i++ ) {
+					double b = jacView[indexB+i];
+					for( int j = i; j < 6; j++ ) {
+						V[offV+i*6+j] += b*jacView[indexB+j];
+					}
+					gradV[offGV+i] += b*r;
+				}
+			}
+
+			for( int i = 0; i < p; i++ ) {
+				for( int j = 0; j < i; j++ ) {
+					partialU[offU+i*p+j] = partialU[offU+j*p+i];
+				}
+			}
+			for( int i = 0; i < 6; i++ ) {
+				for( int j = 0; j < i; j++ ) {
+					V[offV+i*6+j] = V[offV+j*6+i];
+				}
+			}
+		}
+	}
+
+	/**
+	 * Solves for the step with the specified amount of damping.  The diagonal elements of J<sup>T</sup>*J are
+	 * multiplied by (1 + lambda).
+	 *
+	 * @param lambda Levenberg-Marquardt damping parameter
+	 * @param step (Output) Step for all the parameters.  Same order as the parameters
+	 * @return true if successful or false if the system is singular
+	 */
+	public boolean solve( final double lambda , final double[] step ) {
+		final int p = numIntrinsic;
+
+		// eliminate the view parameters from each view
+		final boolean[] success = new boolean[]{true};
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, numViews, workspaces, new IntRangeObjectConsumer<Workspace>() {
+				@Override
+				public void accept(Workspace w, int index0, int index1) {
+					if( !computeReducedSystem(w, lambda, index0, index1) )
+						success[0] = false;
+				}
+			});
+		} else {
+			success[0] = computeReducedSystem(workspace, lambda, 0, numViews);
+		}
+		if( !success[0] )
+			return false;
+
+		// S = U - sum W*inv(V)*W^T  and  r = -gI + sum W*inv(V)*gV
+		S.set(U);
+		for( int i = 0; i < p; i++ ) {
+			S.data[i*p+i] *= 1.0 + lambda;
+			rhs.data[i] = -gradI.data[i];
+		}
+		for( int view = 0; view < numViews; view++ ) {
+			for( int i = 0; i < p*p; i++ ) {
+				S.data[i] -= reducedS[view*p*p + i];
+			}
+			for( int i = 0; i < p; i++ ) {
+				rhs.data[i] += reducedR[view*p + i];
+			}
+		}
+
+		if( !solverS.setA(S) )
+			return false;
+		solverS.solve(rhs, stepI);
+		for( int i = 0; i < p; i++ ) {
+			if( Double.isNaN(stepI.data[i]) || Double.isInfinite(stepI.data[i]))
+				return false;
+			step[i] = stepI.data[i];
+		}
+
+		// find the step for each view using back substitution
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, numViews, workspaces, new IntRangeObjectConsumer<Workspace>() {
+				@Override
+				public void accept(Workspace w, int index0, int index1) {
+					backSubstitution(w, step, index0, index1);
+				}
+			});
+		} else {
+			backSubstitution(workspace, step, 0, numViews);
+		}
+
+		return true;
+	}
+
+	/**
+	 * Inverts each view's damped V block and computes its contribution to the reduced system
+	 */
+	private boolean computeReducedSystem( Workspace w , double lambda , int view0 , int view1 ) {
+		final int p = numIntrinsic;
+		double Y[] = w.Y;
+
+		for( int view = view0; view < view1; view++ ) {
+			int offV = view*36;
+			int offW = view*p*6;
+
+			System.arraycopy(V,offV,w.block.data,0,36);
+			for( int i = 0; i < 6; i++ ) {
+				w.block.data[i*7] *= 1.0 + lambda;
+			}
+			if( !w.blockSolver.setA(w.block) )
+				return false;
+			w.blockSolver.invert(w.blockInv);
+			System.arraycopy(w.blockInv.data,0,Vinv,offV,36);
+
+			// Y = W*inv(V)
+			for( int i = 0; i < p; i++ ) {
+				for( int j = 0; j < 6; j++ ) {
+					double sum = 0;
+					for( int k = 0; k < 6; k++ ) {
+						sum += W[offW+i*6+k]*w.blockInv.data[k*6+j];
+					}
+					Y[i*6+j] = sum;
+				}
+			}
+
+			// S_v = Y*W^T  and r_v = Y*gV
+			int offS = view*p*p;
+			for( int i = 0; i < p; i++ ) {
+				for( int j = 0; j < p; j++ ) {
+					double sum = 0;
+					for( int k = 0; k < 6; k++ ) {
+						sum += Y[i*6+k]*W[offW+j*6+k];
+					}
+					reducedS[offS+i*p+j] = sum;
+				}
+				double sum = 0;
+				for( int k = 0; k < 6; k++ ) {
+					sum += Y[i*6+k]*gradV[view*6+k];
+				}
+				reducedR[view*p+i] = sum;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * b = inv(V)*(-gV - W^T*a)
+	 */
+	private void backSubstitution( Workspace w , double step[] , int view0 , int view1 ) {
+		final int p = numIntrinsic;
+		double tmp[] = w.tmp;
+
+		for( int view = view0; view < view1; view++ ) {
+			int offW = view*p*6;
+			for( int j = 0; j < 6; j++ ) {
+				double sum = -gradV[view*6+j];
+				for( int i = 0; i < p; i++ ) {
+					sum -= W[offW+i*6+j]*step[i];
+				}
+				tmp[j] = sum;
+			}
+			int offStep = p + view*6;
+			for( int i = 0; i < 6; i++ ) {
+				double sum = 0;
+				for( int j = 0; j < 6; j++ ) {
+					sum += Vinv[view*36+i*6+j]*tmp[j];
+				}
+				step[offStep+i] = sum;
+			}
+		}
+	}
+
+	/**
+	 * Predicted reduction in the cost function 0.5*|r|<sup>2</sup> from the linear model for the step which
+	 * was just computed.
+	 */
+	public double predictedReduction( double lambda , double[] step ) {
+		// 0.5*step^T*(lambda*D*step - g)
+		final int p = numIntrinsic;
+		double sum = 0;
+		for( int i = 0; i < p; i++ ) {
+			double d = U.data[i*p+i];
+			double s = step[i];
+			sum += s*(lambda*d*s - gradI.data[i]);
+		}
+		for( int view = 0; view < numViews; view++ ) {
+			for( int i = 0; i < 6; i++ ) {
+				double d = V[view*36+i*7];
+				double s = step[p+view*6+i];
+				sum += s*(lambda*d*s - gradV[view*6+i]);
+			}
+		}
+		return 0.5*sum;
+	}
+
+	/**
+	 * Sum of the residuals squared
+	 */
+	public double computeErrorSq() {
+		double sum = 0;
+		for( int i = 0; i < residuals.length; i++ ) {
+			sum += residuals[i]*residuals[i];
+		}
+		return sum;
+	}
+
+	/**
+	 * Largest absolute value of an element in the gradient
+	 */
+	public double gradientNormInf() {
+		double max = 0;
+		for( int i = 0; i < numIntrinsic; i++ )
+			max = Math.max(max, Math.abs(gradI.data[i]));
+		for( int i = 0; i < numViews*6; i++ )
+			max = Math.max(max, Math.abs(gradV[i]));
+		return max;
+	}
+
+	/**
+	 * Returns the current best estimate of the parameters
+	 */
+	public double[] getParameters() {
+		return param;
+	}
+
+	/**
+	 * Returns the cost, 0.5*sum of residuals squared, for the current parameters
+	 */
+	public double getCost() {
+		return cost;
+	}
+
+	public boolean isConcurrent() {
+		return concurrent;
+	}
+
+	/**
+	 * If true then views are processed concurrently.  Results are identical to processing with a single thread.
+	 */
+	public void setConcurrent(boolean concurrent) {
+		this.concurrent = concurrent;
+	}
+
+	/**
+	 * Storage for each thread
+	 */
+	class Workspace {
+		Zhang99ParamAll param = template.createNew();
+		Zhang99OptimizationFunction function = new Zhang99OptimizationFunction(param, grid, observations);
+		Zhang99OptimizationJacobian jacobian = new Zhang99OptimizationJacobian(template.assumeZeroSkew,
+				template.radial.length, template.includeTangential, observations, grid);
+		// gradient of the x and y residuals for a single observation
+		double gradient[] = new double[2*(numIntrinsic+6)];
+		// Y = W*inv(V)
+		double Y[] = new double[numIntrinsic*6];
+		double tmp[] = new double[6];
+
+		// used to invert the V blocks
+		DMatrixRMaj block = new DMatrixRMaj(6,6);
+		DMatrixRMaj blockInv = new DMatrixRMaj(6,6);
+		LinearSolver<DMatrixRMaj> blockSolver = LinearSolverFactory_DDRM.chol(6);
+	}
+}
@@ -21,6 +21,7 @@ package boofcv.abst.geo.calibration;
 import boofcv.abst.fiducial.calib.CalibrationDetectorSquareGrid;
 import boofcv.alg.distort.LensDistortionOps;
 import boofcv.alg.geo.calibration.CalibrationObservation;
+import boofcv.concurrency.BoofConcurrency;
 import boofcv.struct.calib.CameraPinholeRadial;
 import boofcv.struct.distort.Point2Transform2_F64;
 import boofcv.struct.image.GrayF32;
@@ -37,6 +38,8 @@ import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 /**
  * @author Peter Abeles
@@ -92,6 +95,113 @@ public class TestCalibrateMonoPlanar {
 		assertEquals(intrinsic.t2,found.t2,1e-5);
 	}
 
+	/**
+	 * Add images a few at a time and remove one, updating the estimate after each change
+	 */
+	@Test
+	public void processIncremental() {
+		FakeDetector detector = new FakeDetector();
+		CalibrateMonoPlanar alg = new CalibrateMonoPlanar(detector);
+		alg.configure(true,2,true);
+
+		for (int i = 0; i < 3; i++) {
+			alg.addImage(blank);
+		}
+		checkIntrinsic(alg.processIncremental());
+		assertEquals(3,alg.getZhangParam().views.length);
+
+		for (int i = 3; i < targetToCamera.size(); i++) {
+			alg.addImage(blank);
+		}
+		checkIntrinsic(alg.processIncremental());
+		assertEquals(5,alg.getZhangParam().views.length);
+
+		alg.removeImage(1);
+		assertEquals(4,alg.getZhangParam().views.length);
+		checkIntrinsic(alg.processIncremental());
+		assertEquals(4,alg.getZhangParam().views.length);
+	}
+
+	private void checkIntrinsic( CameraPinholeRadial found ) {
+		assertEquals(intrinsic.fx,found.fx,1e-3);
+		assertEquals(intrinsic.fy,found.fy,1e-3);
+		assertEquals(intrinsic.cx,found.cx,1e-3);
+		assertEquals(intrinsic.cy,found.cy,1e-3);
+		assertEquals(intrinsic.skew,found.skew,1e-3);
+
+		assertEquals(intrinsic.radial[0],found.radial[0],1e-5);
+		assertEquals(intrinsic.radial[1],found.radial[1],1e-5);
+
+		assertEquals(intrinsic.t1,found.t1,1e-5);
+		assertEquals(intrinsic.t2,found.t2,1e-5);
+	}
+
+	/**
+	 * Add all the images at once and detect the targets concurrently.  One image has no target in it.
+	 */
+	@Test
+	public void addImages_concurrent() {
+		int original = BoofConcurrency.getMaxThreads();
+		try {
+			BoofConcurrency.setMaxThreads(3);
+
+			List<GrayF32> images = new ArrayList<>();
+			for (int i = 0; i < targetToCamera.size(); i++) {
+				// the detector looks up which view to render from the image
+				GrayF32 image = blank.createSameShape();
+				image.set(0,0,i);
+				images.add(image);
+			}
+			GrayF32 noTarget = blank.createSameShape();
+			noTarget.set(0,0,-1);
+			images.add(2,noTarget);
+
+			CalibrateMonoPlanar alg = new CalibrateMonoPlanar(new ImageDetector());
+			alg.setConcurrent(true);
+			alg.configure(true,2,true);
+
+			boolean[] success = alg.addImages(images, new CalibrateMonoPlanar.DetectorFactory() {
+				@Override
+				public DetectorFiducialCalibration create() {
+					return new ImageDetector();
+				}
+			});
+
+			assertEquals(images.size(),success.length);
+			for (int i = 0; i < success.length; i++) {
+				assertEquals(i != 2, success[i]);
+			}
+			assertFalse(success[2]);
+			assertTrue(success[3]);
+
+			CameraPinholeRadial found = alg.process();
+
+			assertEquals(intrinsic.fx,found.fx,1e-3);
+			assertEquals(intrinsic.fy,found.fy,1e-3);
+			assertEquals(intrinsic.cx,found.cx,1e-3);
+			assertEquals(intrinsic.cy,found.cy,1e-3);
+			assertEquals(intrinsic.radial[0],found.radial[0],1e-5);
+			assertEquals(intrinsic.radial[1],found.radial[1],1e-5);
+			assertEquals(intrinsic.t1,found.t1,1e-5);
+			assertEquals(intrinsic.t2,found.t2,1e-5);
+		} finally {
+			BoofConcurrency.setMaxThreads(original);
+		}
+	}
+
+	/**
+	 * Selects the view based on the value of the first pixel.  Negative values have no target.
+	 */
+	private class ImageDetector extends FakeDetector {
+		@Override
+		public boolean process(GrayF32 input) {
+			count = (int)input.get(0,0);
+			if( count < 0 )
+				return false;
+			return super.process(input);
+		}
+	}
+
 	private class FakeDetector implements DetectorFiducialCalibration {
 
 		int count = 0;
@@ -69,6 +69,33 @@ public class TestCalibrationPlanarGridZhang99 {
 		checkIntrinsicOnly(expected, found,0.01,0.1,0.1);
 	}
 
+	/**
+	 * Start from a previous estimate which only has some of the views
+	 */
+	@Test
+	public void processIncremental() {
+		List<Point2D_F64> grid = GenericCalibrationGrid.standardLayout();
+		Zhang99ParamAll expected = GenericCalibrationGrid.createStandardParam(true,2,true,5,rand);
+		List<CalibrationObservation> observations = GenericCalibrationGrid.createObservations(expected,grid);
+
+		// previous estimate is slightly off and is missing the last two views
+		Zhang99ParamAll previous = new Zhang99ParamAll(true,2,true,3);
+		double param[] = new double[expected.numParameters()];
+		expected.convertToParam(param);
+		previous.setFromParam(param);
+		previous.a *= 1.01;
+		previous.x0 += 2;
+		previous.radial[0] *= 0.9;
+
+		CalibrationPlanarGridZhang99 alg = new CalibrationPlanarGridZhang99(grid,true,2,true);
+		assertTrue(alg.processIncremental(observations,previous));
+
+		Zhang99ParamAll found = alg.getOptimized();
+		assertEquals(5,found.views.length);
+		assertEquals(3,previous.views.length);
+		checkIntrinsicOnly(expected, found,0.01,0.1,0.1);
+	}
+
 	/**
 	 * See how well it computes an initial guess at the parameters given perfect inputs
 	 */
@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.geo.calibration;
+
+import boofcv.concurrency.BoofConcurrency;
+import georegression.struct.point.Point2D_F64;
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestZhang99OptimizationSparse {
+
+	Random rand = new Random(234);
+
+	List<Point2D_F64> grid = GenericCalibrationGrid.standardLayout();
+
+	/**
+	 * Compare the step against one found by solving the dense normal equations
+	 */
+	@Test
+	public void solve_compareToDense() {
+		solve_compareToDense(true,false);
+		solve_compareToDense(false,true);
+	}
+
+	private void solve_compareToDense( boolean assumeZeroSkew , boolean includeTangential ) {
+		Zhang99ParamAll expected = GenericCalibrationGrid.createStandardParam(assumeZeroSkew,2,includeTangential,4,rand);
+		List<CalibrationObservation> observations = GenericCalibrationGrid.createObservations(expected,grid);
+		Zhang99ParamAll initial = addNoise(expected);
+
+		double param[] = new double[initial.numParameters()];
+		initial.convertToParam(param);
+
+		Zhang99OptimizationSparse alg = new Zhang99OptimizationSparse();
+		alg.configure(initial.createNew(),grid,observations);
+		alg.process(param,true);
+		alg.computeNormalEquations();
+
+		double lambda = 0.1;
+		double found[] = new double[param.length];
+		assertTrue(alg.solve(lambda,found));
+
+		// dense solution
+		Zhang99OptimizationFunction func = new Zhang99OptimizationFunction(initial.createNew(),grid,observations);
+		Zhang99OptimizationJacobian jacobian = new Zhang99OptimizationJacobian(assumeZeroSkew,
+				initial.radial.length,includeTangential,observations,grid);
+
+		int N = func.getNumOfInputsN();
+		int M = func.getNumOfOutputsM();
+		DMatrixRMaj J = new DMatrixRMaj(M,N);
+		DMatrixRMaj r = new DMatrixRMaj(M,1);
+		func.process(param,r.data);
+		jacobian.process(param,J.data);
+
+		DMatrixRMaj H = new DMatrixRMaj(N,N);
+		DMatrixRMaj g = new DMatrixRMaj(N,1);
+		CommonOps_DDRM.multTransA(J,J,H);
+		CommonOps_DDRM.multTransA(J,r,g);
+
+		assertEquals(CommonOps_DDRM.elementMaxAbs(g),alg.gradientNormInf(),UtilEjml.TEST_F64*CommonOps_DDRM.elementMaxAbs(g));
+
+		for( int i = 0; i < N; i++ ) {
+			H.data[i*N+i] *= 1 + lambda;
+		}
+		CommonOps_DDRM.scale(-1,g);
+		DMatrixRMaj step = new DMatrixRMaj(N,1);
+		assertTrue(CommonOps_DDRM.solve(H,g,step));
+
+		for( int i = 0; i < N; i++ ) {
+			assertEquals(step.data[i],found[i],1e-6*(1+Math.abs(step.data[i])));
+		}
+	}
+
+	/**
+	 * Optimize from a noisy initial estimate and see if it converges to the true parameters
+	 */
+	@Test
+	public void optimize() {
+		Zhang99ParamAll expected = GenericCalibrationGrid.createStandardParam(true,2,true,4,rand);
+		List<CalibrationObservation> observations = GenericCalibrationGrid.createObservations(expected,grid);
+		Zhang99ParamAll initial = addNoise(expected);
+
+		Zhang99ParamAll found = optimize(initial, observations, false);
+
+		assertEquals(expected.a,found.a,1e-4*Math.abs(expected.a));
+		assertEquals(expected.b,found.b,1e-4*Math.abs(expected.b));
+		assertEquals(expected.x0,found.x0,1e-4*Math.abs(expected.x0));
+		assertEquals(expected.y0,found.y0,1e-4*Math.abs(expected.y0));
+		assertEquals(expected.radial[0],found.radial[0],1e-4);
+		assertEquals(expected.radial[1],found.radial[1],1e-4);
+		assertEquals(expected.t1,found.t1,1e-4);
+		assertEquals(expected.t2,found.t2,1e-4);
+	}
+
+	/**
+	 * Results should be identical when processed concurrently
+	 */
+	@Test
+	public void concurrent() {
+		int original = BoofConcurrency.getMaxThreads();
+		try {
+			BoofConcurrency.setMaxThreads(3);
+
+			Zhang99ParamAll expected = GenericCalibrationGrid.createStandardParam(true,2,true,7,rand);
+			List<CalibrationObservation> observations = GenericCalibrationGrid.createObservations(expected,grid);
+			Zhang99ParamAll initial = addNoise(expected);
+
+			double single[] = new double[initial.numParameters()];
+			double multi[] = new double[initial.numParameters()];
+			optimize(initial, observations, false).convertToParam(single);
+			optimize(initial, observations, true).convertToParam(multi);
+
+			assertArrayEquals(single,multi,0);
+		} finally {
+			BoofConcurrency.setMaxThreads(original);
+		}
+	}
+
+	private Zhang99ParamAll optimize( Zhang99ParamAll initial , List<CalibrationObservation> observations ,
+									  boolean concurrent ) {
+		double param[] = new double[initial.numParameters()];
+		initial.convertToParam(param);
+
+		Zhang99OptimizationSparse alg = new Zhang99OptimizationSparse();
+		alg.setConcurrent(concurrent);
+		alg.configure(initial.createNew(),grid,observations);
+		alg.initialize(param,1e-12,1e-25);
+
+		for( int i = 0; i < 200 && !alg.iterate(); i++ ) {}
+
+		Zhang99ParamAll found = initial.createNew();
+		found.setFromParam(alg.getParameters());
+		return found;
+	}
+
+	private Zhang99ParamAll addNoise( Zhang99ParamAll expected ) {
+		Zhang99ParamAll initial = expected.copy();
+		initial.a += rand.nextDouble()*0.01*Math.abs(initial.a);
+		initial.b += rand.nextDouble()*0.01*Math.abs(initial.b);
+		initial.x0 += rand.nextDouble()*0.01*Math.abs(initial.x0);
+		initial.y0 += rand.nextDouble()*0.01*Math.abs(initial.y0);
+		for( int i = 0; i < expected.radial.length; i++ ) {
+			initial.radial[i] = rand.nextGaussian()*expected.radial[i]*0.1;
+		}
+		for( Zhang99ParamAll.View v : initial.views ) {
+			v.T.x += rand.nextGaussian()*0.01;
+			v.T.y += rand.nextGaussian()*0.01;
+		}
+		return initial;
+	}
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.segmentation.slic;
+
+import boofcv.alg.misc.GImageMiscOps;
+import boofcv.factory.segmentation.ConfigSlic;
+import boofcv.factory.segmentation.FactorySegmentationAlg;
+import boofcv.misc.PerformerBase;
+import boofcv.misc.ProfileOperation;
+import boofcv.struct.image.*;
+
+import java.util.Random;
+
+/**
+ * Compares the speed of single threaded and concurrent SLIC on each supported image type
+ *
+ * @author Peter Abeles
+ */
+public class BenchmarkSegmentSlic {
+
+	static final long TEST_TIME = 1000;
+	static Random rand = new Random(234234);
+
+	final static int width = 640;
+	final static int height = 480;
+
+	static GrayS32 output = new GrayS32(width,height);
+
+	public static class Slic<T extends ImageBase<T>> extends PerformerBase {
+		SegmentSlic<T> alg;
+		T input;
+		String name;
+
+		public Slic(ImageType<T> imageType , boolean concurrent ) {
+			ConfigSlic config = new ConfigSlic(800);
+			config.concurrent = concurrent;
+			alg = FactorySegmentationAlg.slic(config, imageType);
+			input = imageType.createImage(width, height);
+			GImageMiscOps.fillUniform(input, rand, 0, 200);
+			name = imageType.toString()+(concurrent ? " concurrent" : "");
+		}
+
+		@Override
+		public void process() {
+			alg.process(input,output);
+		}
+
+		@Override
+		public String getName() {
+			return name;
+		}
+	}
+
+	public static void main( String args[] ) {
+		ImageType types[] = new ImageType[]{
+				ImageType.single(GrayU8.class),ImageType.single(GrayF32.class),
+				ImageType.pl(3,GrayU8.class),ImageType.pl(3,GrayF32.class)};
+
+		for( ImageType type : types ) {
+			ProfileOperation.printOpsPerSec(new Slic(type,false), TEST_TIME);
+			ProfileOperation.printOpsPerSec(new Slic(type,true), TEST_TIME);
+		}
+	}
+}
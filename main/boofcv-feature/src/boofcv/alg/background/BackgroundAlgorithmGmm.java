@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.background;
+
+/**
+ * <p>
+ * Background model in which each pixel is modeled as a mixture of Gaussian distributions, which allows it to
+ * model multi-modal backgrounds, e.g. swaying trees or water.  The mixture is updated online using the approach
+ * described in [1], where the number of Gaussians in each pixel is automatically selected.  Each Gaussian has
+ * a single variance which is shared across all bands.
+ * </p>
+ *
+ * <p>
+ * Internally the mixture of every pixel is stored in a single packed float array.  The mixture of a single pixel
+ * occupies a fixed number of elements, so no memory is allocated after the first frame.  See
+ * {@link BackgroundGmmCommon} for the layout.
+ * </p>
+ *
+ * <p>Tuning Parameters:</p>
+ * <ul>
+ * <li><b>learningPeriod:</b> Specifies how fast it will adapt.  Learning rate is 1/learningPeriod.  Try 1000</li>
+ * <li><b>decay:</b> Weight decay which prunes Gaussians that are rarely observed.  0 to 1.  Try 0.001</li>
+ * <li><b>maxGaussians:</b> Maximum number of Gaussians in a pixel's mixture.  Try 10</li>
+ * <li><b>maxDistance:</b> Maximum Mahalanobis distance squared for a pixel to be considered part of a Gaussian.
+ * Try 9 for 3 standard deviations.</li>
+ * <li><b>backgroundRatio:</b> The most significant Gaussians whose total weight reaches this value describe the
+ * background.  A pixel which matches one of them is background.  Try 0.9.</li>
+ * <li><b>initialVariance:</b> The variance assigned to a new Gaussian.  Try 100</li>
+ * </ul>
+ *
+ * <p>
+ * [1] Zivkovic, Zoran. "Improved adaptive Gaussian mixture model for background subtraction."
+ * Pattern Recognition, 2004. ICPR 2004.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public interface BackgroundAlgorithmGmm {
+
+	/**
+	 * Returns the learning period
+	 * @return learning period
+	 */
+	float getLearningPeriod();
+
+	/**
+	 * Specifies the learning period.  Learning rate is 1/period.
+	 * @param period Learning period.  &ge; 1
+	 */
+	void setLearningPeriod(float period);
+
+	float getDecay();
+
+	void setDecay(float decay);
+
+	float getMaxDistance();
+
+	void setMaxDistance(float maxDistance);
+
+	float getBackgroundRatio();
+
+	void setBackgroundRatio(float backgroundRatio);
+
+	float getInitialVariance();
+
+	void setInitialVariance(float initialVariance);
+
+	/**
+	 * Maximum number of Gaussians in a mixture.  Specified in the constructor.
+	 */
+	int getMaxGaussians();
+}
@@ -0,0 +1,373 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.background;
+
+/**
+ * <p>
+ * Common code for all implementations of {@link BackgroundAlgorithmGmm}.  Updates and classifies the mixture of
+ * a single pixel.  The functions only read and write to the arrays which are passed in, so it can be safely
+ * called by multiple threads at once as long as they are processing different pixels.
+ * </p>
+ *
+ * <p>
+ * The mixture for each pixel is stored in {@link #modelStride} consecutive elements of a float array.
+ * Each Gaussian is stored in {@link #gaussianStride} elements as [weight, variance, mean[0], ... mean[N-1]],
+ * where N is the number of bands.  Gaussians are sorted by weight in descending order.  A weight of zero
+ * indicates that the Gaussian, and all the ones after it, are not in use.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class BackgroundGmmCommon {
+	// learning rate.  1/learningPeriod
+	protected float learningRate;
+	// how quickly Gaussians which are rarely observed are pruned
+	protected float decay;
+	// maximum number of Gaussians in each pixel
+	protected int maxGaussians;
+	// Maximum Mahalanobis distance squared for a pixel to match a Gaussian
+	protected float maxDistance = 9;
+	// the most significant Gaussians whose total weight reaches this value are considered background
+	protected float backgroundRatio = 0.9f;
+	// variance assigned to a new Gaussian
+	protected float initialVariance = 100;
+
+	// value of a pixel which has no background model
+	public byte unknownValue = 0;
+
+	// number of bands in the input image
+	protected int numBands;
+	// number of elements used to describe a single Gaussian
+	protected int gaussianStride;
+	// number of elements used to describe a pixel's mixture
+	protected int modelStride;
+
+	/**
+	 * Configures the model
+	 *
+	 * @param learningPeriod Learning rate is 1/learningPeriod.  &ge; 1
+	 * @param decay Weight decay.  0 &le; decay &le; 1
+	 * @param maxGaussians Maximum number of Gaussians in each pixel.  &ge; 1
+	 * @param numBands Number of bands in the input image
+	 */
+	public BackgroundGmmCommon(float learningPeriod, float decay, int maxGaussians, int numBands) {
+		if( maxGaussians < 1 )
+			throw new IllegalArgumentException("Must have at least one Gaussian");
+
+		setLearningPeriod(learningPeriod);
+		setDecay(decay);
+		this.maxGaussians = maxGaussians;
+		this.numBands = numBands;
+
+		this.gaussianStride = 2 + numBands;
+		this.modelStride = maxGaussians*gaussianStride;
+	}
+
+	/**
+	 * Updates the mixture of a pixel in a single band image.
+	 *
+	 * @param pixelValue Value of the pixel in the input image
+	 * @param model Array containing the packed model
+	 * @param modelIndex Index of the first element in the pixel's mixture
+	 */
+	public void updateMixture( float pixelValue , float[] model , int modelIndex ) {
+		final int end = modelIndex + modelStride;
+		final float minusLearn = 1.0f - learningRate;
+		final float decayRate = learningRate*decay;
+
+		int matched = -1;
+		int last = modelIndex;
+		float sumWeight = 0;
+
+		int index = modelIndex;
+		for( ; index < end && model[index] > 0; index += gaussianStride ) {
+			float weight = minusLearn*model[index] - decayRate;
+			boolean hit = false;
+
+			if( matched < 0 ) {
+				float variance = model[index+1];
+				float diff = pixelValue - model[index+2];
+				float distanceSq = diff*diff;
+
+				if( distanceSq <= maxDistance*variance ) {
+					weight += learningRate;
+					float rate = learningRate/weight;
+					model[index+1] = variance + rate*(distanceSq - variance);
+					model[index+2] += rate*diff;
+					hit = true;
+				}
+			}
+
+			// a matched Gaussian is only the match if it survives.  Otherwise a new Gaussian is added
+			if( weight > 0 ) {
+				if( last != index ) {
+					System.arraycopy(model, index, model, last, gaussianStride);
+				}
+				if( hit )
+					matched = last;
+				model[last] = weight;
+				sumWeight += weight;
+				last += gaussianStride;
+			}
+		}
+
+		// mark pruned Gaussians as not being used
+		for (int i = last; i < index; i += gaussianStride) {
+			model[i] = 0;
+		}
+
+		if( matched < 0 ) {
+			// replace the least significant Gaussian if the mixture is full
+			if( last >= end ) {
+				last = end - gaussianStride;
+				sumWeight -= model[last];
+			}
+			model[last] = learningRate;
+			model[last+1] = initialVariance;
+			model[last+2] = pixelValue;
+			sumWeight += learningRate;
+			matched = last;
+		}
+
+		normalizeAndSort(model, modelIndex, end, sumWeight, matched);
+	}
+
+	/**
+	 * Updates the mixture of a pixel in a multi-band image.
+	 *
+	 * @param pixelValue Value of each band in the input image
+	 * @param model Array containing the packed model
+	 * @param modelIndex Index of the first element in the pixel's mixture
+	 */
+	public void updateMixture( float[] pixelValue , float[] model , int modelIndex ) {
+		final int end = modelIndex + modelStride;
+		final float minusLearn = 1.0f - learningRate;
+		final float decayRate = learningRate*decay;
+
+		int matched = -1;
+		int last = modelIndex;
+		float sumWeight = 0;
+
+		int index = modelIndex;
+		for( ; index < end && model[index] > 0; index += gaussianStride ) {
+			float weight = minusLearn*model[index] - decayRate;
+			boolean hit = false;
+
+			if( matched < 0 ) {
+				float variance = model[index+1];
+				float distanceSq = distanceSq(pixelValue, model, index+2);
+
+				if( distanceSq <= maxDistance*variance ) {
+					weight += learningRate;
+					float rate = learningRate/weight;
+					model[index+1] = variance + rate*(distanceSq - variance);
+					for (int band = 0; band < numBands; band++) {
+						model[index+2+band] += rate*(pixelValue[band] - model[index+2+band]);
+					}
+					hit = true;
+				}
+			}
+
+			// a matched Gaussian is only the match if it survives.  Otherwise a new Gaussian is added
+			if( weight > 0 ) {
+				if( last != index ) {
+					System.arraycopy(model, index, model, last, gaussianStride);
+				}
+				if( hit )
+					matched = last;
+				model[last] = weight;
+				sumWeight += weight;
+				last += gaussianStride;
+			}
+		}
+
+		// mark pruned Gaussians as not being used
+		for (int i = last; i < index; i += gaussianStride) {
+			model[i] = 0;
+		}
+
+		if( matched < 0 ) {
+			// replace the least significant Gaussian if the mixture is full
+			if( last >= end ) {
+				last = end - gaussianStride;
+				sumWeight -= model[last];
+			}
+			model[last] = learningRate;
+			model[last+1] = initialVariance;
+			System.arraycopy(pixelValue, 0, model, last+2, numBands);
+			sumWeight += learningRate;
+			matched = last;
+		}
+
+		normalizeAndSort(model, modelIndex, end, sumWeight, matched);
+	}
+
+	/**
+	 * Normalizes the weights so that they sum to one and moves the matched Gaussian so that the mixture is
+	 * sorted by weight.  Only the matched Gaussian's weight can have increased relative to the others.
+	 */
+	private void normalizeAndSort( float[] model , int modelIndex , int end , float sumWeight , int matched ) {
+		for (int i = modelIndex; i < end && model[i] > 0; i += gaussianStride) {
+			model[i] /= sumWeight;
+		}
+
+		while( matched > modelIndex && model[matched] > model[matched-gaussianStride] ) {
+			int prev = matched - gaussianStride;
+			for (int i = 0; i < gaussianStride; i++) {
+				float tmp = model[prev+i];
+				model[prev+i] = model[matched+i];
+				model[matched+i] = tmp;
+			}
+			matched = prev;
+		}
+	}
+
+	/**
+	 * Classifies a pixel in a single band image using its mixture.  As in {@link BackgroundAlgorithmGmm}, the background is described by the
+	 * B most significant Gaussians, where B is the smallest number whose total weight exceeds the background ratio.
+	 * A pixel is background if it matches one of them.  When several Gaussians have a similar weight, e.g. swaying
+	 * trees, they are all part of the background even if none of them has a large weight by itself.
+	 *
+	 * @param pixelValue Value of the pixel in the input image
+	 * @param model Array containing the packed model
+	 * @param modelIndex Index of the first element in the pixel's mixture
+	 * @return 0 = background, 1 = foreground, or {@link #unknownValue} if the pixel has no model
+	 */
+	public byte checkBackground( float pixelValue , float[] model , int modelIndex ) {
+		if( model[modelIndex] <= 0 )
+			return unknownValue;
+
+		final int end = modelIndex + modelStride;
+		float cumulative = 0;
+		for (int index = modelIndex; index < end; index += gaussianStride) {
+			float weight = model[index];
+			// the remaining Gaussians are either not in use or not part of the background
+			if( weight <= 0 || cumulative > backgroundRatio )
+				break;
+
+			float diff = pixelValue - model[index+2];
+			if( diff*diff <= maxDistance*model[index+1] ) {
+				return 0;
+			}
+			cumulative += weight;
+		}
+		return 1;
+	}
+
+	/**
+	 * Classifies a pixel in a multi-band image using its mixture.  See {@link #checkBackground(float, float[], int)}.
+	 *
+	 * @param pixelValue Value of each band in the input image
+	 * @param model Array containing the packed model
+	 * @param modelIndex Index of the first element in the pixel's mixture
+	 * @return 0 = background, 1 = foreground, or {@link #unknownValue} if the pixel has no model
+	 */
+	public byte checkBackground( float[] pixelValue , float[] model , int modelIndex ) {
+		if( model[modelIndex] <= 0 )
+			return unknownValue;
+
+		final int end = modelIndex + modelStride;
+		float cumulative = 0;
+		for (int index = modelIndex; index < end; index += gaussianStride) {
+			float weight = model[index];
+			// the remaining Gaussians are either not in use or not part of the background
+			if( weight <= 0 || cumulative > backgroundRatio )
+				break;
+
+			if( distanceSq(pixelValue, model, index+2) <= maxDistance*model[index+1] ) {
+				return 0;
+			}
+			cumulative += weight;
+		}
+		return 1;
+	}
+
+	/**
+	 * Euclidean distance squared between the pixel and the mean
+	 */
+	private float distanceSq( float[] pixelValue , float[] model , int meanIndex ) {
+		float sum = 0;
+		for (int band = 0; band < numBands; band++) {
+			float diff = pixelValue[band] - model[meanIndex+band];
+			sum += diff*diff;
+		}
+		return sum;
+	}
+
+	public float getLearningPeriod() {
+		return 1.0f/learningRate;
+	}
+
+	public void setLearningPeriod(float period) {
+		if( period < 1 )
+			throw new IllegalArgumentException("Learning period must be at least one");
+		this.learningRate = 1.0f/period;
+	}
+
+	public float getDecay() {
+		return decay;
+	}
+
+	public void setDecay(float decay) {
+		// a larger decay could prune a Gaussian which was just matched
+		if( decay < 0 || decay > 1 )
+			throw new IllegalArgumentException("Decay must be 0 <= decay <= 1");
+		this.decay = decay;
+	}
+
+	public float getMaxDistance() {
+		return maxDistance;
+	}
+
+	public void setMaxDistance(float maxDistance) {
+		this.maxDistance = maxDistance;
+	}
+
+	public float getBackgroundRatio() {
+		return backgroundRatio;
+	}
+
+	public void setBackgroundRatio(float backgroundRatio) {
+		this.backgroundRatio = backgroundRatio;
+	}
+
+	public float getInitialVariance() {
+		return initialVariance;
+	}
+
+	public void setInitialVariance(float initialVariance) {
+		this.initialVariance = initialVariance;
+	}
+
+	public int getMaxGaussians() {
+		return maxGaussians;
+	}
+
+	public int getNumBands() {
+		return numBands;
+	}
+
+	public int getModelStride() {
+		return modelStride;
+	}
+
+	public int getGaussianStride() {
+		return gaussianStride;
+	}
+}
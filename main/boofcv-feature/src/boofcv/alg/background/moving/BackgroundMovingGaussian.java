@@ -28,6 +28,11 @@ import georegression.struct.InvertibleTransform;
 /**
  * <p>Implementation of {@link BackgroundAlgorithmGaussian} for moving images.</p>
  *
+ * <p>
+ * Rows in the background and in the segmented image are independent of each other and can be processed
+ * concurrently, see {@link #setConcurrent}.  Each thread is given its own copy of the transform and interpolators.
+ * </p>
+ *
  * @see BackgroundAlgorithmGaussian
  * @see BackgroundModelMoving
  *
@@ -55,6 +60,9 @@ public abstract class BackgroundMovingGaussian<T extends ImageBase<T>, Motion ex
 
 	protected float minimumDifference = 0;
 
+	// If true then rows in the image are processed concurrently
+	protected boolean concurrent = false;
+
 	/**
 	 * See class documentation for parameters definitions.
 	 * @param learnRate Specifies how quickly the background is updated Try 0.05
@@ -73,6 +81,18 @@ public abstract class BackgroundMovingGaussian<T extends ImageBase<T>, Motion ex
 		this.threshold = threshold;
 	}
 
+	public boolean isConcurrent() {
+		return concurrent;
+	}
+
+	/**
+	 * If true then rows in the image will be processed concurrently.  Results are identical to processing
+	 * with a single thread.
+	 */
+	public void setConcurrent(boolean concurrent) {
+		this.concurrent = concurrent;
+	}
+
 	@Override
 	public float getInitialVariance() {
 		return initialVariance;
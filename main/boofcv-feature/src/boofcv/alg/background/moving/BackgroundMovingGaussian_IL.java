@@ -21,6 +21,8 @@ package boofcv.alg.background.moving;
 import boofcv.alg.interpolate.InterpolatePixelMB;
 import boofcv.alg.interpolate.InterpolationType;
 import boofcv.alg.misc.GImageMiscOps;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeObjectConsumer;
 import boofcv.core.image.FactoryGImageMultiBand;
 import boofcv.core.image.GImageMultiBand;
 import boofcv.core.image.border.BorderType;
@@ -31,6 +33,8 @@ import boofcv.struct.image.ImageInterleaved;
 import boofcv.struct.image.ImageType;
 import boofcv.struct.image.InterleavedF32;
 import georegression.struct.InvertibleTransform;
+import georegression.struct.point.Point2D_F32;
+import org.ddogleg.struct.FastQueue;
 
 /**
  * Implementation of {@link BackgroundMovingGaussian} for {@link ImageInterleaved}.
@@ -41,20 +45,20 @@ public class BackgroundMovingGaussian_IL<T extends ImageInterleaved<T>, Motion e
 		extends BackgroundMovingGaussian<T,Motion>
 {
 
-	// interpolates the input image
-	protected InterpolatePixelMB<T> interpolateInput;
-	// interpolates the background image
-	protected InterpolatePixelMB<InterleavedF32> interpolationBG;
+	// type of interpolation used on the background
+	protected InterpolationType interpType;
 
 	// wrappers which provide abstraction across image types
 	protected GImageMultiBand inputWrapper;
-	// storage for multi-band pixel values
-	protected float[] pixelBG;
-	protected float[] pixelInput;
 
 	// background is composed of bands*2 channels.  even = mean, odd = variance
 	InterleavedF32 background;
 
+	// storage used when processed by a single thread
+	protected Workspace workspace;
+	// storage for each thread
+	protected FastQueue<Workspace> workspaces;
+
 	/**
 	 * Configurations background removal.
 	 *
@@ -72,19 +76,19 @@ public class BackgroundMovingGaussian_IL<T extends ImageInterleaved<T>, Motion e
 	{
 		super(learnRate, threshold, transform, imageType);
 
+		this.interpType = interpType;
 		int numBands = imageType.getNumBands();
 
-		this.interpolateInput = FactoryInterpolation.createPixelMB(0, 255,
-				InterpolationType.BILINEAR, BorderType.EXTENDED, imageType);
-
 		background = new InterleavedF32(1,1,2*numBands);
-		this.interpolationBG = FactoryInterpolation.createPixelMB(
-				0, 255, interpType, BorderType.EXTENDED, ImageType.il(numBands*2, InterleavedF32.class));
-		this.interpolationBG.setImage(background);
 		inputWrapper = FactoryGImageMultiBand.create(imageType);
 
-		pixelBG = new float[2*numBands];
-		pixelInput = new float[numBands];
+		workspace = new Workspace();
+		workspaces = new FastQueue<Workspace>((Class)Workspace.class,true) {
+			@Override
+			protected Workspace createInstance() {
+				return new Workspace();
+			}
+		};
 	}
 
 	@Override
@@ -105,9 +109,25 @@ public class BackgroundMovingGaussian_IL<T extends ImageInterleaved<T>, Motion e
 	}
 
 	@Override
-	protected void updateBackground(int x0, int y0, int x1, int y1, T frame) {
-		transform.setModel(worldToCurrent);
-		interpolateInput.setImage(frame);
+	protected void updateBackground(final int x0, int y0, final int x1, int y1, final T frame) {
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(y0, y1, workspaces, new IntRangeObjectConsumer<Workspace>() {
+				@Override
+				public void accept(Workspace workspace, int y0, int y1) {
+					updateRows(workspace, x0, y0, x1, y1, frame);
+				}
+			});
+		} else {
+			updateRows(workspace, x0, y0, x1, y1, frame);
+		}
+	}
+
+	private void updateRows( Workspace w , int x0, int y0, int x1, int y1, T frame ) {
+		w.transform.setModel(worldToCurrent);
+		w.interpolateInput.setImage(frame);
+
+		Point2D_F32 work = w.work;
+		float[] pixelInput = w.pixelInput;
 
 		float minusLearn = 1.0f - learnRate;
 
@@ -116,10 +136,10 @@ public class BackgroundMovingGaussian_IL<T extends ImageInterleaved<T>, Motion e
 		for (int y = y0; y < y1; y++) {
 			int indexBG = background.startIndex + y*background.stride + x0*background.numBands;
 			for (int x = x0; x < x1; x++, indexBG += numBands*2 ) {
-				transform.compute(x,y,work);
+				w.transform.compute(x,y,work);
 
 				if( work.x >= 0 && work.x < frame.width && work.y >= 0 && work.y < frame.height) {
-					interpolateInput.get(work.x,work.y,pixelInput);
+					w.interpolateInput.get(work.x,work.y,pixelInput);
 
 					for (int band = 0; band < numBands; band++) {
 						int indexBG_band = indexBG + band*2;
@@ -143,22 +163,41 @@ public class BackgroundMovingGaussian_IL<T extends ImageInterleaved<T>, Motion e
 	}
 
 	@Override
-	protected void _segment(Motion currentToWorld, T frame, GrayU8 segmented) {
-		transform.setModel(currentToWorld);
+	protected void _segment(final Motion currentToWorld, final T frame, final GrayU8 segmented) {
 		inputWrapper.wrap(frame);
 
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, frame.height, workspaces, new IntRangeObjectConsumer<Workspace>() {
+				@Override
+				public void accept(Workspace workspace, int y0, int y1) {
+					segmentRows(workspace, currentToWorld, frame, segmented, y0, y1);
+				}
+			});
+		} else {
+			segmentRows(workspace, currentToWorld, frame, segmented, 0, frame.height);
+		}
+	}
+
+	private void segmentRows( Workspace w , Motion currentToWorld, T frame, GrayU8 segmented , int y0 , int y1 ) {
+		w.transform.setModel(currentToWorld);
+		w.interpolationBG.setImage(background);
+
+		Point2D_F32 work = w.work;
+		float[] pixelBG = w.pixelBG;
+		float[] pixelInput = w.pixelInput;
+
 		final int numBands = background.getNumBands()/2;
 		float adjustedMinimumDifference = minimumDifference*numBands;
 
-		for (int y = 0; y < frame.height; y++) {
+		for (int y = y0; y < y1; y++) {
 			int indexFrame = frame.startIndex + y*frame.stride;
 			int indexSegmented = segmented.startIndex + y*segmented.stride;
 
 			for (int x = 0; x < frame.width; x++, indexFrame += numBands , indexSegmented++ ) {
-				transform.compute(x,y,work);
+				w.transform.compute(x,y,work);
 
 				escapeIf:if( work.x >= 0 && work.x < background.width && work.y >= 0 && work.y < background.height) {
-					interpolationBG.get(work.x,work.y,pixelBG);
+					w.interpolationBG.get(work.x,work.y,pixelBG);
 					inputWrapper.getF(indexFrame,pixelInput);
 
 					float mahalanobis = 0;
@@ -200,4 +239,23 @@ public class BackgroundMovingGaussian_IL<T extends ImageInterleaved<T>, Motion e
 			}
 		}
 	}
+
+	/**
+	 * Data which can't be shared between threads
+	 */
+	protected class Workspace {
+		// applies the motion model
+		Point2Transform2Model_F32<Motion> transform = BackgroundMovingGaussian_IL.this.transform.copy();
+		// interpolates the input image
+		InterpolatePixelMB<T> interpolateInput = FactoryInterpolation.createPixelMB(0, 255,
+				InterpolationType.BILINEAR, BorderType.EXTENDED, imageType);
+		// interpolates the background image
+		InterpolatePixelMB<InterleavedF32> interpolationBG = FactoryInterpolation.createPixelMB(
+				0, 255, interpType, BorderType.EXTENDED, ImageType.il(imageType.getNumBands()*2, InterleavedF32.class));
+		// storage for transformed coordinate
+		Point2D_F32 work = new Point2D_F32();
+		// storage for multi-band pixel values
+		float[] pixelBG = new float[2*imageType.getNumBands()];
+		float[] pixelInput = new float[imageType.getNumBands()];
+	}
 }
@@ -22,6 +22,8 @@ import boofcv.alg.interpolate.InterpolatePixelMB;
 import boofcv.alg.interpolate.InterpolatePixelS;
 import boofcv.alg.interpolate.InterpolationType;
 import boofcv.alg.misc.GImageMiscOps;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeObjectConsumer;
 import boofcv.core.image.FactoryGImageGray;
 import boofcv.core.image.GImageGray;
 import boofcv.core.image.border.BorderType;
@@ -29,6 +31,8 @@ import boofcv.factory.interpolate.FactoryInterpolation;
 import boofcv.struct.distort.Point2Transform2Model_F32;
 import boofcv.struct.image.*;
 import georegression.struct.InvertibleTransform;
+import georegression.struct.point.Point2D_F32;
+import org.ddogleg.struct.FastQueue;
 
 /**
  * Implementation of {@link BackgroundMovingGaussian} for {@link ImageGray}.
@@ -38,20 +42,20 @@ import georegression.struct.InvertibleTransform;
 public class BackgroundMovingGaussian_SB <T extends ImageGray<T>, Motion extends InvertibleTransform<Motion>>
 		extends BackgroundMovingGaussian<T,Motion>
 {
-
-	// interpolates the input image
-	protected InterpolatePixelS<T> interpolateInput;
-	// interpolates the background image
-	protected InterpolatePixelMB<Planar<GrayF32>> interpolationBG;
+	// type of interpolation used on the background
+	protected InterpolationType interpType;
 
 	// wrappers which provide abstraction across image types
 	protected GImageGray inputWrapper;
-	// storage for multi-band pixel values
-	protected float[] pixelBG = new float[2];
 
 	// background is composed of two channels.  0 = mean, 1 = variance
 	Planar<GrayF32> background = new Planar<>(GrayF32.class,1,1,2);
 
+	// storage used when processed by a single thread
+	protected Workspace workspace;
+	// storage for each thread
+	protected FastQueue<Workspace> workspaces;
+
 	/**
 	 * Configurations background removal.
 	 *
@@ -68,12 +72,16 @@ public class BackgroundMovingGaussian_SB <T extends ImageGray<T>, Motion extends
 	{
 		super(learnRate, threshold, transform, ImageType.single(imageType));
 
-		this.interpolateInput = FactoryInterpolation.bilinearPixelS(imageType, BorderType.EXTENDED);
-
-		this.interpolationBG = FactoryInterpolation.createPixelMB(
-				0, 255, interpType, BorderType.EXTENDED, ImageType.pl(2, GrayF32.class));
-		this.interpolationBG.setImage(background);
+		this.interpType = interpType;
 		inputWrapper = FactoryGImageGray.create(imageType);
+
+		workspace = new Workspace();
+		workspaces = new FastQueue<Workspace>((Class)Workspace.class,true) {
+			@Override
+			protected Workspace createInstance() {
+				return new Workspace();
+			}
+		};
 	}
 
 	@Override
@@ -96,22 +104,37 @@ public class BackgroundMovingGaussian_SB <T extends ImageGray<T>, Motion extends
 	}
 
 	@Override
-	protected void updateBackground(int x0, int y0, int x1, int y1, T frame) {
-		transform.setModel(worldToCurrent);
-		interpolateInput.setImage(frame);
+	protected void updateBackground(final int x0, int y0, final int x1, int y1, final T frame) {
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(y0, y1, workspaces, new IntRangeObjectConsumer<Workspace>() {
+				@Override
+				public void accept(Workspace workspace, int y0, int y1) {
+					updateRows(workspace, x0, y0, x1, y1, frame);
+				}
+			});
+		} else {
+			updateRows(workspace, x0, y0, x1, y1, frame);
+		}
+	}
+
+	private void updateRows( Workspace w , int x0, int y0, int x1, int y1, T frame ) {
+		w.transform.setModel(worldToCurrent);
+		w.interpolateInput.setImage(frame);
 
 		float minusLearn = 1.0f - learnRate;
 
 		GrayF32 backgroundMean = background.getBand(0);
 		GrayF32 backgroundVar = background.getBand(1);
 
+		Point2D_F32 work = w.work;
+
 		for (int y = y0; y < y1; y++) {
 			int indexBG = background.startIndex + y*background.stride + x0;
 			for (int x = x0; x < x1; x++, indexBG++ ) {
-				transform.compute(x,y,work);
+				w.transform.compute(x,y,work);
 
 				if( work.x >= 0 && work.x < frame.width && work.y >= 0 && work.y < frame.height) {
-					float inputValue = interpolateInput.get(work.x,work.y);
+					float inputValue = w.interpolateInput.get(work.x,work.y);
 					float meanBG = backgroundMean.data[indexBG];
 					float varianceBG = backgroundVar.data[indexBG];
 
@@ -129,19 +152,37 @@ public class BackgroundMovingGaussian_SB <T extends ImageGray<T>, Motion extends
 	}
 
 	@Override
-	protected void _segment(Motion currentToWorld, T frame, GrayU8 segmented) {
-		transform.setModel(currentToWorld);
+	protected void _segment(final Motion currentToWorld, final T frame, final GrayU8 segmented) {
 		inputWrapper.wrap(frame);
 
-		for (int y = 0; y < frame.height; y++) {
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, frame.height, workspaces, new IntRangeObjectConsumer<Workspace>() {
+				@Override
+				public void accept(Workspace workspace, int y0, int y1) {
+					segmentRows(workspace, currentToWorld, frame, segmented, y0, y1);
+				}
+			});
+		} else {
+			segmentRows(workspace, currentToWorld, frame, segmented, 0, frame.height);
+		}
+	}
+
+	private void segmentRows( Workspace w , Motion currentToWorld, T frame, GrayU8 segmented , int y0 , int y1 ) {
+		w.transform.setModel(currentToWorld);
+		w.interpolationBG.setImage(background);
+
+		Point2D_F32 work = w.work;
+		float[] pixelBG = w.pixelBG;
+
+		for (int y = y0; y < y1; y++) {
 			int indexFrame = frame.startIndex + y*frame.stride;
 			int indexSegmented = segmented.startIndex + y*segmented.stride;
 
 			for (int x = 0; x < frame.width; x++, indexFrame++ , indexSegmented++ ) {
-				transform.compute(x,y,work);
+				w.transform.compute(x,y,work);
 
 				if( work.x >= 0 && work.x < background.width && work.y >= 0 && work.y < background.height) {
-					interpolationBG.get(work.x,work.y,pixelBG);
+					w.interpolationBG.get(work.x,work.y,pixelBG);
 					float pixelFrame = inputWrapper.getF(indexFrame);
 
 					float meanBG = pixelBG[0];
@@ -169,4 +210,22 @@ public class BackgroundMovingGaussian_SB <T extends ImageGray<T>, Motion extends
 			}
 		}
 	}
+
+	/**
+	 * Data which can't be shared between threads
+	 */
+	protected class Workspace {
+		// applies the motion model
+		Point2Transform2Model_F32<Motion> transform = BackgroundMovingGaussian_SB.this.transform.copy();
+		// interpolates the input image
+		InterpolatePixelS<T> interpolateInput = FactoryInterpolation.bilinearPixelS(
+				imageType.getImageClass(), BorderType.EXTENDED);
+		// interpolates the background image
+		InterpolatePixelMB<Planar<GrayF32>> interpolationBG = FactoryInterpolation.createPixelMB(
+				0, 255, interpType, BorderType.EXTENDED, ImageType.pl(2, GrayF32.class));
+		// storage for transformed coordinate
+		Point2D_F32 work = new Point2D_F32();
+		// storage for multi-band pixel values
+		float[] pixelBG = new float[2];
+	}
 }
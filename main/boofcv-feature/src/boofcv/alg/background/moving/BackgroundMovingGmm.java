@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.background.moving;
+
+import boofcv.alg.background.BackgroundAlgorithmGmm;
+import boofcv.alg.background.BackgroundGmmCommon;
+import boofcv.alg.background.BackgroundModelMoving;
+import boofcv.struct.distort.Point2Transform2Model_F32;
+import boofcv.struct.image.ImageBase;
+import boofcv.struct.image.ImageType;
+import georegression.struct.InvertibleTransform;
+
+import java.util.Arrays;
+
+/**
+ * <p>Implementation of {@link BackgroundAlgorithmGmm} for moving images.</p>
+ *
+ * <p>
+ * The mixture of every pixel in the background is stored in a single float array, see {@link BackgroundGmmCommon}.
+ * A mixture can't be interpolated, so when segmenting the nearest background pixel is used.  Rows can be
+ * processed concurrently, see {@link #setConcurrent}.
+ * </p>
+ *
+ * @see BackgroundAlgorithmGmm
+ * @see BackgroundModelMoving
+ *
+ * @author Peter Abeles
+ */
+public abstract class BackgroundMovingGmm<T extends ImageBase<T>, Motion extends InvertibleTransform<Motion>>
+		extends BackgroundModelMoving<T,Motion> implements BackgroundAlgorithmGmm
+{
+	// updates and classifies the mixture of a single pixel
+	protected BackgroundGmmCommon common;
+
+	// packed mixture model for every pixel in the background
+	protected float[] model = new float[0];
+
+	// If true then rows in the image are processed concurrently
+	protected boolean concurrent = false;
+
+	/**
+	 * See class documentation for parameters definitions.
+	 *
+	 * @param learningPeriod Specifies how fast it will adapt.  Learning rate is 1/period.  Try 1000
+	 * @param decay Weight decay used to prune Gaussians.  Try 0.001
+	 * @param maxGaussians Maximum number of Gaussians in a pixel.  Try 10
+	 * @param transform Used to convert pixel coordinates
+	 * @param imageType Type of input image
+	 */
+	public BackgroundMovingGmm(float learningPeriod, float decay, int maxGaussians,
+							   Point2Transform2Model_F32<Motion> transform, ImageType<T> imageType) {
+		super(transform, imageType);
+
+		common = new BackgroundGmmCommon(learningPeriod, decay, maxGaussians, imageType.getNumBands());
+	}
+
+	@Override
+	public void initialize(int backgroundWidth, int backgroundHeight, Motion homeToWorld) {
+		int N = backgroundWidth*backgroundHeight*common.getModelStride();
+		if( model.length < N ) {
+			model = new float[N];
+		}
+
+		this.homeToWorld.set(homeToWorld);
+		this.homeToWorld.invert(worldToHome);
+
+		this.backgroundWidth = backgroundWidth;
+		this.backgroundHeight = backgroundHeight;
+
+		reset();
+	}
+
+	@Override
+	public void reset() {
+		Arrays.fill(model, 0, backgroundWidth*backgroundHeight*common.getModelStride(), 0);
+	}
+
+	public boolean isConcurrent() {
+		return concurrent;
+	}
+
+	/**
+	 * If true then rows in the image will be processed concurrently.  Results are identical to processing
+	 * with a single thread.
+	 */
+	public void setConcurrent(boolean concurrent) {
+		this.concurrent = concurrent;
+	}
+
+	@Override
+	public float getLearningPeriod() {
+		return common.getLearningPeriod();
+	}
+
+	@Override
+	public void setLearningPeriod(float period) {
+		common.setLearningPeriod(period);
+	}
+
+	@Override
+	public float getDecay() {
+		return common.getDecay();
+	}
+
+	@Override
+	public void setDecay(float decay) {
+		common.setDecay(decay);
+	}
+
+	@Override
+	public float getMaxDistance() {
+		return common.getMaxDistance();
+	}
+
+	@Override
+	public void setMaxDistance(float maxDistance) {
+		common.setMaxDistance(maxDistance);
+	}
+
+	@Override
+	public float getBackgroundRatio() {
+		return common.getBackgroundRatio();
+	}
+
+	@Override
+	public void setBackgroundRatio(float backgroundRatio) {
+		common.setBackgroundRatio(backgroundRatio);
+	}
+
+	@Override
+	public float getInitialVariance() {
+		return common.getInitialVariance();
+	}
+
+	@Override
+	public void setInitialVariance(float initialVariance) {
+		common.setInitialVariance(initialVariance);
+	}
+
+	@Override
+	public int getMaxGaussians() {
+		return common.getMaxGaussians();
+	}
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.background.moving;
+
+import boofcv.alg.interpolate.InterpolatePixelS;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeObjectConsumer;
+import boofcv.core.image.FactoryGImageGray;
+import boofcv.core.image.GImageGray;
+import boofcv.core.image.border.BorderType;
+import boofcv.factory.interpolate.FactoryInterpolation;
+import boofcv.struct.distort.Point2Transform2Model_F32;
+import boofcv.struct.image.GrayU8;
+import boofcv.struct.image.ImageGray;
+import boofcv.struct.image.ImageType;
+import georegression.struct.InvertibleTransform;
+import georegression.struct.point.Point2D_F32;
+import org.ddogleg.struct.FastQueue;
+
+/**
+ * Implementation of {@link BackgroundMovingGmm} for {@link ImageGray}.
+ *
+ * @author Peter Abeles
+ */
+public class BackgroundMovingGmm_SB<T extends ImageGray<T>, Motion extends InvertibleTransform<Motion>>
+		extends BackgroundMovingGmm<T,Motion>
+{
+	// wrappers which provide abstraction across image types
+	protected GImageGray inputWrapper;
+
+	// storage used when processed by a single thread
+	protected Workspace workspace;
+	// storage for each thread
+	protected FastQueue<Workspace> workspaces;
+
+	/**
+	 * Configures background model
+	 *
+	 * @param learningPeriod Specifies how fast it will adapt.  Learning rate is 1/period.  Try 1000
+	 * @param decay Weight decay used to prune Gaussians.  Try 0.001
+	 * @param maxGaussians Maximum number of Gaussians in a pixel.  Try 10
+	 * @param transform Used to apply motion model
+	 * @param imageType Type of input image.
+	 */
+	public BackgroundMovingGmm_SB(float learningPeriod, float decay, int maxGaussians,
+								  Point2Transform2Model_F32<Motion> transform, Class<T> imageType)
+	{
+		super(learningPeriod, decay, maxGaussians, transform, ImageType.single(imageType));
+
+		inputWrapper = FactoryGImageGray.create(imageType);
+
+		workspace = new Workspace();
+		workspaces = new FastQueue<Workspace>((Class)Workspace.class,true) {
+			@Override
+			protected Workspace createInstance() {
+				return new Workspace();
+			}
+		};
+	}
+
+	@Override
+	protected void updateBackground(final int x0, int y0, final int x1, int y1, final T frame) {
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(y0, y1, workspaces, new IntRangeObjectConsumer<Workspace>() {
+				@Override
+				public void accept(Workspace workspace, int y0, int y1) {
+					updateRows(workspace, x0, y0, x1, y1, frame);
+				}
+			});
+		} else {
+			updateRows(workspace, x0, y0, x1, y1, frame);
+		}
+	}
+
+	private void updateRows( Workspace w , int x0, int y0, int x1, int y1, T frame ) {
+		w.transform.setModel(worldToCurrent);
+		w.interpolateInput.setImage(frame);
+
+		final int modelStride = common.getModelStride();
+		Point2D_F32 work = w.work;
+
+		for (int y = y0; y < y1; y++) {
+			int indexModel = (y*backgroundWidth + x0)*modelStride;
+			for (int x = x0; x < x1; x++, indexModel += modelStride ) {
+				w.transform.compute(x,y,work);
+
+				if( work.x >= 0 && work.x < frame.width && work.y >= 0 && work.y < frame.height) {
+					common.updateMixture(w.interpolateInput.get(work.x,work.y), model, indexModel);
+				}
+			}
+		}
+	}
+
+	@Override
+	protected void _segment(final Motion currentToWorld, final T frame, final GrayU8 segmented) {
+		common.unknownValue = unknownValue;
+		inputWrapper.wrap(frame);
+
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, frame.height, workspaces, new IntRangeObjectConsumer<Workspace>() {
+				@Override
+				public void accept(Workspace workspace, int y0, int y1) {
+					segmentRows(workspace, currentToWorld, frame, segmented, y0, y1);
+				}
+			});
+		} else {
+			segmentRows(workspace, currentToWorld, frame, segmented, 0, frame.height);
+		}
+	}
+
+	private void segmentRows( Workspace w , Motion currentToWorld, T frame, GrayU8 segmented , int y0 , int y1 ) {
+		w.transform.setModel(currentToWorld);
+
+		final int modelStride = common.getModelStride();
+		Point2D_F32 work = w.work;
+
+		for (int y = y0; y < y1; y++) {
+			int indexFrame = frame.startIndex + y*frame.stride;
+			int indexSegmented = segmented.startIndex + y*segmented.stride;
+
+			for (int x = 0; x < frame.width; x++, indexFrame++ , indexSegmented++ ) {
+				w.transform.compute(x,y,work);
+
+				if( work.x >= 0 && work.x < backgroundWidth && work.y >= 0 && work.y < backgroundHeight) {
+					// mixtures can't be interpolated so use the nearest pixel
+					int indexModel = ((int)work.y*backgroundWidth + (int)work.x)*modelStride;
+					segmented.data[indexSegmented] =
+							common.checkBackground(inputWrapper.getF(indexFrame), model, indexModel);
+				} else {
+					// there is no background here.  Just mark it as not moving to avoid false positives
+					segmented.data[indexSegmented] = unknownValue;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Data which can't be shared between threads
+	 */
+	protected class Workspace {
+		// applies the motion model
+		Point2Transform2Model_F32<Motion> transform = BackgroundMovingGmm_SB.this.transform.copy();
+		// interpolates the input image
+		InterpolatePixelS<T> interpolateInput = FactoryInterpolation.bilinearPixelS(
+				imageType.getImageClass(), BorderType.EXTENDED);
+		// storage for transformed coordinate
+		Point2D_F32 work = new Point2D_F32();
+	}
+}
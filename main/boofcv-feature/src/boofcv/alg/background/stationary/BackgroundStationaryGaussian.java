@@ -18,14 +18,28 @@
 
 package boofcv.alg.background.stationary;
 
+import boofcv.alg.InputSanityCheck;
 import boofcv.alg.background.BackgroundAlgorithmGaussian;
 import boofcv.alg.background.BackgroundModelStationary;
+import boofcv.alg.misc.ImageMiscOps;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeObjectConsumer;
+import boofcv.struct.image.GrayU8;
 import boofcv.struct.image.ImageBase;
 import boofcv.struct.image.ImageType;
+import org.ddogleg.struct.FastQueue;
+import org.ddogleg.struct.GrowQueue_F32;
 
 /**
  * <p>Implementation of {@link BackgroundAlgorithmGaussian} for stationary images.</p>
  *
+ * <p>
+ * The model is stored in two float arrays, one for the mean and one for the variance, instead of images.  Each row
+ * of the input image is first copied into a float buffer so that the update and segment inner loops only
+ * operate on primitive arrays.  Rows are independent and can be processed concurrently, see {@link #setConcurrent}.
+ * {@link #segmentAndUpdate} segments and updates the model in a single pass through the image.
+ * </p>
+ *
  * @see BackgroundAlgorithmGaussian
  * @see BackgroundModelStationary
  *
@@ -34,6 +48,11 @@ import boofcv.struct.image.ImageType;
 public abstract class BackgroundStationaryGaussian<T extends ImageBase<T>>
 		extends BackgroundModelStationary<T> implements BackgroundAlgorithmGaussian
 {
+	// operations which can be applied to each row
+	private static final int OP_UPDATE = 0;
+	private static final int OP_SEGMENT = 1;
+	private static final int OP_BOTH = 2;
+
 	/**
 	 * Specifies how fast it will adapt. 0 to 1, inclusive.  0 = static  1.0 = instant.
 	 */
@@ -53,6 +72,17 @@ public abstract class BackgroundStationaryGaussian<T extends ImageBase<T>>
 
 	protected float minimumDifference = 0;
 
+	// shape of the background model.  zero if the model has not been initialized yet
+	protected int modelWidth, modelHeight;
+
+	// If true then rows in the image are processed concurrently
+	protected boolean concurrent = false;
+
+	// storage for an input row when processed by a single thread
+	private GrowQueue_F32 buffer = new GrowQueue_F32();
+	// storage for an input row for each thread
+	private FastQueue<GrowQueue_F32> buffers = new FastQueue<>(GrowQueue_F32.class, true);
+
 	/**
 	 * See class documentation for parameters definitions.
 	 * @param learnRate Specifies how quickly the background is updated Try 0.05
@@ -69,6 +99,128 @@ public abstract class BackgroundStationaryGaussian<T extends ImageBase<T>>
 		this.threshold = threshold;
 	}
 
+	@Override
+	public void reset() {
+		modelWidth = modelHeight = 0;
+	}
+
+	@Override
+	public void updateBackground( T frame ) {
+		if( modelWidth == 0 ) {
+			initializeModel(frame);
+			modelWidth = frame.width;
+			modelHeight = frame.height;
+			return;
+		}
+		checkModelShape(frame);
+		process(frame, null, OP_UPDATE);
+	}
+
+	@Override
+	public void segment( T frame , GrayU8 segmented ) {
+		if( modelWidth == 0 ) {
+			ImageMiscOps.fill(segmented, unknownValue);
+			return;
+		}
+		InputSanityCheck.checkSameShape(frame, segmented);
+		checkModelShape(frame);
+		process(frame, segmented, OP_SEGMENT);
+	}
+
+	/**
+	 * Segments the frame using the current model and then updates the model with the frame.  The output is
+	 * identical to calling {@link #segment} followed by {@link #updateBackground} but each pixel in the image
+	 * and the model is only read once.
+	 */
+	@Override
+	public void segmentAndUpdate( T frame , GrayU8 segmented ) {
+		if( modelWidth == 0 ) {
+			ImageMiscOps.fill(segmented, unknownValue);
+			updateBackground(frame);
+			return;
+		}
+		InputSanityCheck.checkSameShape(frame, segmented);
+		checkModelShape(frame);
+		process(frame, segmented, OP_BOTH);
+	}
+
+	private void process( final T frame , final GrayU8 segmented , final int operation ) {
+		setInputImage(frame);
+
+		final int length = frame.width*(imageType.getNumBands()+1);
+
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, frame.height, buffers, new IntRangeObjectConsumer<GrowQueue_F32>() {
+				@Override
+				public void accept(GrowQueue_F32 buffer, int y0, int y1) {
+					buffer.resize(length);
+					processRows(frame, segmented, operation, y0, y1, buffer.data);
+				}
+			});
+		} else {
+			buffer.resize(length);
+			processRows(frame, segmented, operation, 0, frame.height, buffer.data);
+		}
+	}
+
+	private void processRows( T frame , GrayU8 segmented , int operation , int y0 , int y1 , float[] buffer ) {
+		switch( operation ) {
+			case OP_UPDATE: updateRows(frame, y0, y1, buffer); break;
+			case OP_SEGMENT: segmentRows(frame, segmented, y0, y1, buffer); break;
+			default: segmentAndUpdateRows(frame, segmented, y0, y1, buffer); break;
+		}
+	}
+
+	private void checkModelShape( T frame ) {
+		if( frame.width != modelWidth || frame.height != modelHeight )
+			throw new IllegalArgumentException("Input image shape doesn't match the background model. "+
+					frame.width+"x"+frame.height+" vs "+modelWidth+"x"+modelHeight);
+	}
+
+	/**
+	 * Declares the model and initializes it using the first frame.  The mean is set to the frame and the
+	 * variance to the initial variance.
+	 */
+	protected abstract void initializeModel( T frame );
+
+	/**
+	 * Specifies the input image before rows are processed.  Must be safe to read from multiple threads after.
+	 */
+	protected abstract void setInputImage( T frame );
+
+	/**
+	 * Updates the model for the specified rows
+	 *
+	 * @param buffer Storage for the row.  Length is at least width*(numBands+1).
+	 */
+	protected abstract void updateRows( T frame , int y0 , int y1 , float[] buffer );
+
+	/**
+	 * Segments the specified rows
+	 *
+	 * @param buffer Storage for the row.  Length is at least width*(numBands+1).
+	 */
+	protected abstract void segmentRows( T frame , GrayU8 segmented , int y0 , int y1 , float[] buffer );
+
+	/**
+	 * Segments the specified rows and then updates the model in the same pass
+	 *
+	 * @param buffer Storage for the row.  Length is at least width*(numBands+1).
+	 */
+	protected abstract void segmentAndUpdateRows( T frame , GrayU8 segmented , int y0 , int y1 , float[] buffer );
+
+	public boolean isConcurrent() {
+		return concurrent;
+	}
+
+	/**
+	 * If true then rows in the image will be processed concurrently.  Results are identical to processing
+	 * with a single thread.
+	 */
+	public void setConcurrent(boolean concurrent) {
+		this.concurrent = concurrent;
+	}
+
 	@Override
 	public float getInitialVariance() {
 		return initialVariance;
@@ -18,17 +18,15 @@
 
 package boofcv.alg.background.stationary;
 
-import boofcv.alg.InputSanityCheck;
-import boofcv.alg.misc.ImageMiscOps;
 import boofcv.core.image.FactoryGImageMultiBand;
 import boofcv.core.image.GImageMultiBand;
 import boofcv.struct.image.GrayU8;
 import boofcv.struct.image.ImageInterleaved;
 import boofcv.struct.image.ImageType;
-import boofcv.struct.image.InterleavedF32;
 
 /**
- * Implementation of {@link BackgroundStationaryGaussian} for {@link ImageInterleaved}.
+ * Implementation of {@link BackgroundStationaryGaussian} for {@link ImageInterleaved}.  The model is
+ * interleaved the same way as the input image, i.e. mean[(y*width + x)*numBands + band].
  *
  * @author Peter Abeles
  */
@@ -38,14 +36,13 @@ public class BackgroundStationaryGaussian_IL<T extends ImageInterleaved<T>>
 
 	// wrappers which provide abstraction across image types
 	protected GImageMultiBand inputWrapper;
-	protected GImageMultiBand bgWrapper;
 
-	// storage for multi-band pixel values
-	protected float[] inputPixel;
-	protected float[] bgPixel;
+	// background model.  mean and variance of each pixel in each band
+	protected float[] mean = new float[0];
+	protected float[] variance = new float[0];
 
-	// background is composed of bands*2 channels.  even = mean, odd = variance
-	InterleavedF32 background;
+	// number of bands in the input image
+	protected int numBands;
 
 	/**
 	 * Configurations background removal.
@@ -60,126 +57,144 @@ public class BackgroundStationaryGaussian_IL<T extends ImageInterleaved<T>>
 	{
 		super(learnRate, threshold, imageType);
 
-		int numBands = imageType.getNumBands();
-
-		background = new InterleavedF32(1,1,2*numBands);
-		bgWrapper = FactoryGImageMultiBand.create(background.getImageType());
-		bgWrapper.wrap(background);
-
+		numBands = imageType.getNumBands();
 		inputWrapper = FactoryGImageMultiBand.create(imageType);
-
-		inputPixel = new float[numBands];
-		bgPixel = new float[numBands*2];
 	}
 
 	@Override
-	public void reset() {
-		background.reshape(1,1);
+	protected void initializeModel(T frame) {
+		int N = frame.width*frame.height*numBands;
+		if( mean.length < N ) {
+			mean = new float[N];
+			variance = new float[N];
+		}
+
+		setInputImage(frame);
+		int indexBG = 0;
+		for (int y = 0; y < frame.height; y++) {
+			int indexInput = frame.startIndex + y*frame.stride;
+			int end = indexBG + frame.width*numBands;
+			while( indexBG < end ) {
+				mean[indexBG] = inputWrapper.getF(indexInput++);
+				variance[indexBG++] = initialVariance;
+			}
+		}
 	}
 
 	@Override
-	public void updateBackground( T frame) {
+	protected void setInputImage(T frame) {
 		inputWrapper.wrap(frame);
+	}
 
-		if( background.width == 1 ) {
-			background.reshape(frame.width, frame.height);
-
-			for (int y = 0; y < frame.height; y++) {
-				for (int x = 0; x < frame.width; x++) {
-					inputWrapper.get(x,y,inputPixel);
-					for (int i = 0; i < frame.numBands; i++) {
-						bgPixel[i*2] = inputPixel[i];
-						bgPixel[i*2+1] = initialVariance;
-					}
-					bgWrapper.set(x,y,bgPixel);
-				}
-			}
-			return;
-		} else {
-			InputSanityCheck.checkSameShape(background, frame);
+	/**
+	 * Copies a row in the input image into the buffer
+	 */
+	private void loadRow( T frame , int y , float[] buffer ) {
+		int indexInput = frame.startIndex + y*frame.stride;
+		int length = frame.width*numBands;
+		for (int i = 0; i < length; i++) {
+			buffer[i] = inputWrapper.getF(indexInput++);
 		}
+	}
 
-		int numBands = background.getNumBands()/2;
-		float minusLearn = 1.0f - learnRate;
-
-		int indexBG = 0;
-		for (int y = 0; y < background.height; y++) {
-			int indexInput = frame.startIndex + y*frame.stride;
-			int end = indexInput + frame.width*numBands;
-			while( indexInput < end ) {
-				inputWrapper.getF(indexInput, inputPixel);
-
-				for (int band = 0; band < numBands; band++) {
+	@Override
+	protected void updateRows(T frame, int y0, int y1, float[] buffer) {
+		final float minusLearn = 1.0f - learnRate;
+		final int length = frame.width*numBands;
 
-					float inputValue = inputPixel[band];
-					float meanBG = background.data[indexBG];
-					float varianceBG = background.data[indexBG+1];
+		for (int y = y0; y < y1; y++) {
+			loadRow(frame, y, buffer);
 
-					float diff = meanBG-inputValue;
-					background.data[indexBG++] = minusLearn*meanBG + learnRate*inputValue;
-					background.data[indexBG++] = minusLearn*varianceBG + learnRate*diff*diff;
-				}
+			int indexBG = y*length;
+			for (int i = 0; i < length; i++, indexBG++) {
+				float inputValue = buffer[i];
+				float meanBG = mean[indexBG];
 
-				indexInput += frame.numBands;
+				float diff = meanBG-inputValue;
+				mean[indexBG] = minusLearn*meanBG + learnRate*inputValue;
+				variance[indexBG] = minusLearn*variance[indexBG] + learnRate*diff*diff;
 			}
 		}
 	}
 
 	@Override
-	public void segment( T frame, GrayU8 segmented) {
-		if( background.width == 1 ) {
-			ImageMiscOps.fill(segmented, unknownValue);
-			return;
-		}
-		inputWrapper.wrap(frame);
-
-		final int numBands = background.getNumBands()/2;
+	protected void segmentRows(T frame, GrayU8 segmented, int y0, int y1, float[] buffer) {
+		final int length = frame.width*numBands;
 
-		float adjustedMinimumDifference = minimumDifference*numBands;
+		for (int y = y0; y < y1; y++) {
+			loadRow(frame, y, buffer);
 
-		int indexBG = 0;
-		for (int y = 0; y < frame.height; y++) {
-			int indexInput = frame.startIndex + y*frame.stride;
-			int indexSegmented = segmented.startIndex + y*segmented.stride;
+			// replace the input values with the difference from the mean
+			int indexBG = y*length;
+			for (int i = 0; i < length; i++, indexBG++) {
+				buffer[i] = mean[indexBG] - buffer[i];
+			}
 
-			int end = indexInput + frame.width*frame.numBands;
-			while( indexInput < end ) {
-				inputWrapper.getF(indexInput, inputPixel);
+			classifyRow(frame, segmented, y, y*length, buffer);
+		}
+	}
 
-				float mahalanobis = 0;
-				for (int band = 0; band < numBands; band++) {
+	@Override
+	protected void segmentAndUpdateRows(T frame, GrayU8 segmented, int y0, int y1, float[] buffer) {
+		final float minusLearn = 1.0f - learnRate;
+		final int length = frame.width*numBands;
+
+		for (int y = y0; y < y1; y++) {
+			loadRow(frame, y, buffer);
+
+			// segmentation uses the model before it's updated, so save the variance in the buffer's extra space
+			// while the mean is replaced with the difference
+			int indexBG = y*length;
+			for (int i = 0; i < length; i++, indexBG++) {
+				float inputValue = buffer[i];
+				float meanBG = mean[indexBG];
+				float diff = meanBG-inputValue;
+				buffer[i] = diff;
+				mean[indexBG] = minusLearn*meanBG + learnRate*inputValue;
+			}
 
-					int indexBG_band = indexBG + band*2;
+			classifyRow(frame, segmented, y, y*length, buffer);
 
-					float meanBG = background.data[indexBG_band];
-					float varBG  = background.data[indexBG_band+1];
+			indexBG = y*length;
+			for (int i = 0; i < length; i++, indexBG++) {
+				float diff = buffer[i];
+				variance[indexBG] = minusLearn*variance[indexBG] + learnRate*diff*diff;
+			}
+		}
+	}
 
-					float diff = meanBG - inputPixel[band];
-					mahalanobis += diff * diff / varBG;
-				}
+	/**
+	 * Classifies each pixel in the row using the difference between the mean and the input, which has been
+	 * written into the buffer, and the current variance.
+	 *
+	 * @param indexBG Index of the first element in the row inside the model
+	 */
+	private void classifyRow( T frame , GrayU8 segmented , int y , int indexBG , float[] buffer ) {
+		final float adjustedMinimumDifference = minimumDifference*numBands;
+
+		int indexBuffer = 0;
+		int indexSegmented = segmented.startIndex + y*segmented.stride;
+		for (int x = 0; x < frame.width; x++, indexSegmented++ ) {
+			float mahalanobis = 0;
+			for (int band = 0; band < numBands; band++) {
+				float diff = buffer[indexBuffer + band];
+				mahalanobis += diff*diff/variance[indexBG + band];
+			}
 
-				if (mahalanobis <= threshold) {
-					segmented.data[indexSegmented] = 0;
-				} else {
-					if( minimumDifference == 0) {
-						segmented.data[indexSegmented] = 1;
-					} else {
-						float sumAbsDiff = 0;
-						for (int band = 0; band < numBands; band++) {
-							int indexBG_band = indexBG + band*2;
-							sumAbsDiff += Math.abs(background.data[indexBG_band] - inputPixel[band]);
-						}
-						if (sumAbsDiff >= adjustedMinimumDifference)
-							segmented.data[indexSegmented] = 1;
-						else
-							segmented.data[indexSegmented] = 0;
-					}
+			if( mahalanobis <= threshold ) {
+				segmented.data[indexSegmented] = 0;
+			} else if( minimumDifference == 0 ) {
+				segmented.data[indexSegmented] = 1;
+			} else {
+				float sumAbsDiff = 0;
+				for (int band = 0; band < numBands; band++) {
+					sumAbsDiff += Math.abs(buffer[indexBuffer + band]);
 				}
-
-				indexInput     += frame.numBands;
-				indexSegmented += 1;
-				indexBG        += background.numBands;
+				segmented.data[indexSegmented] = (byte)(sumAbsDiff >= adjustedMinimumDifference ? 1 : 0);
 			}
+
+			indexBuffer += numBands;
+			indexBG += numBands;
 		}
 	}
 }
@@ -18,16 +18,17 @@
 
 package boofcv.alg.background.stationary;
 
-import boofcv.alg.InputSanityCheck;
-import boofcv.alg.misc.GImageMiscOps;
-import boofcv.alg.misc.ImageMiscOps;
-import boofcv.core.image.FactoryGImageMultiBand;
-import boofcv.core.image.GConvertImage;
-import boofcv.core.image.GImageMultiBand;
-import boofcv.struct.image.*;
+import boofcv.core.image.FactoryGImageGray;
+import boofcv.core.image.GImageGray;
+import boofcv.struct.image.GrayU8;
+import boofcv.struct.image.ImageGray;
+import boofcv.struct.image.ImageType;
+import boofcv.struct.image.Planar;
 
 /**
- * Implementation of {@link BackgroundStationaryGaussian} for {@link Planar}.
+ * Implementation of {@link BackgroundStationaryGaussian} for {@link Planar}.  The model is stored one band
+ * after another, i.e. mean[band*width*height + y*width + x], which allows each band to be processed with
+ * a simple loop.
  *
  * @author Peter Abeles
  */
@@ -35,15 +36,15 @@ public class BackgroundStationaryGaussian_PL<T extends ImageGray<T>>
 		extends BackgroundStationaryGaussian<Planar<T>>
 {
 
-	// wrappers which provide abstraction across image types
-	protected GImageMultiBand inputWrapper;
-	protected GImageMultiBand bgWrapper;
+	// wrappers which provide abstraction across image types.  One for each band
+	protected GImageGray[] bandWrappers;
 
-	// storage for multi-band pixel values
-	protected float[] inputPixel;
+	// background model.  mean and variance of each pixel in each band
+	protected float[] mean = new float[0];
+	protected float[] variance = new float[0];
 
-	// background is composed of bands*2 channels.  even = mean, odd = variance
-	Planar<GrayF32> background;
+	// number of bands in the input image
+	protected int numBands;
 
 	/**
 	 * Configurations background removal.
@@ -58,123 +59,183 @@ public class BackgroundStationaryGaussian_PL<T extends ImageGray<T>>
 	{
 		super(learnRate, threshold, imageType);
 
-		int numBands = imageType.getNumBands();
+		numBands = imageType.getNumBands();
 
-		background = new Planar<>(GrayF32.class,1,1,2*numBands);
-		bgWrapper = FactoryGImageMultiBand.create(background.getImageType());
-		bgWrapper.wrap(background);
+		bandWrappers = new GImageGray[numBands];
+		for (int i = 0; i < numBands; i++) {
+			bandWrappers[i] = FactoryGImageGray.create(imageType.getImageClass());
+		}
+	}
 
-		inputWrapper = FactoryGImageMultiBand.create(imageType);
+	@Override
+	protected void initializeModel(Planar<T> frame) {
+		int N = frame.width*frame.height;
+		if( mean.length < N*numBands ) {
+			mean = new float[N*numBands];
+			variance = new float[N*numBands];
+		}
 
-		inputPixel = new float[numBands];
+		setInputImage(frame);
+		for (int band = 0; band < numBands; band++) {
+			GImageGray wrapper = bandWrappers[band];
+			for (int y = 0; y < frame.height; y++) {
+				int indexInput = frame.startIndex + y*frame.stride;
+				int indexBG = band*N + y*frame.width;
+				for (int x = 0; x < frame.width; x++) {
+					mean[indexBG] = wrapper.getF(indexInput++);
+					variance[indexBG++] = initialVariance;
+				}
+			}
+		}
 	}
 
 	@Override
-	public void reset() {
-		background.reshape(1,1);
+	protected void setInputImage(Planar<T> frame) {
+		for (int band = 0; band < numBands; band++) {
+			bandWrappers[band].wrap(frame.getBand(band));
+		}
 	}
 
-	@Override
-	public void updateBackground( Planar<T> frame) {
-		if( background.width == 1 ) {
-			background.reshape(frame.width, frame.height);
-			// initialize the mean to the current image and the initial variance is whatever it is set to
-			for (int band = 0; band < background.getNumBands(); band += 2) {
-				GConvertImage.convert(frame.getBand(band / 2), background.getBand(band));
-				GImageMiscOps.fill(background.getBand(band + 1), initialVariance);
+	/**
+	 * Copies a row from each band in the input image into the buffer.  buffer[band*width + x]
+	 */
+	private void loadRow( Planar<T> frame , int y , float[] buffer ) {
+		for (int band = 0; band < numBands; band++) {
+			GImageGray wrapper = bandWrappers[band];
+			int indexInput = frame.startIndex + y*frame.stride;
+			int indexBuffer = band*frame.width;
+			for (int x = 0; x < frame.width; x++) {
+				buffer[indexBuffer++] = wrapper.getF(indexInput++);
 			}
-			return;
-		} else {
-			InputSanityCheck.checkSameShape(background, frame);
 		}
+	}
 
-		inputWrapper.wrap(frame);
-
-		int numBands = background.getNumBands()/2;
-		float minusLearn = 1.0f - learnRate;
-
-
-		int indexBG = 0;
-		for (int y = 0; y < background.height; y++) {
-			int indexInput = frame.startIndex + y*frame.stride;
-			int end = indexInput + frame.width;
-			while( indexInput < end ) {
-				inputWrapper.getF(indexInput, inputPixel);
+	@Override
+	protected void updateRows(Planar<T> frame, int y0, int y1, float[] buffer) {
+		final float minusLearn = 1.0f - learnRate;
+		final int width = frame.width;
+		final int N = width*frame.height;
 
-				for (int band = 0; band < numBands; band++) {
-					GrayF32 backgroundMean = background.getBand(band*2);
-					GrayF32 backgroundVar = background.getBand(band*2+1);
+		for (int y = y0; y < y1; y++) {
+			loadRow(frame, y, buffer);
 
-					float inputValue = inputPixel[band];
-					float meanBG = backgroundMean.data[indexBG];
-					float varianceBG = backgroundVar.data[indexBG];
+			for (int band = 0; band < numBands; band++) {
+				int indexBG = band*N + y*width;
+				int indexBuffer = band*width;
+				for (int x = 0; x < width; x++, indexBG++) {
+					float inputValue = buffer[indexBuffer + x];
+					float meanBG = mean[indexBG];
 
 					float diff = meanBG-inputValue;
-					backgroundMean.data[indexBG] = minusLearn*meanBG + learnRate*inputValue;
-					backgroundVar.data[indexBG] = minusLearn*varianceBG + learnRate*diff*diff;
+					mean[indexBG] = minusLearn*meanBG + learnRate*inputValue;
+					variance[indexBG] = minusLearn*variance[indexBG] + learnRate*diff*diff;
 				}
-
-				indexInput++;
-				indexBG++;
 			}
 		}
 	}
 
 	@Override
-	public void segment(Planar<T> frame, GrayU8 segmented) {
-		if( background.width == 1 ) {
-			ImageMiscOps.fill(segmented, unknownValue);
-			return;
+	protected void segmentRows(Planar<T> frame, GrayU8 segmented, int y0, int y1, float[] buffer) {
+		for (int y = y0; y < y1; y++) {
+			loadRow(frame, y, buffer);
+			computeMahalanobis(frame, y, buffer);
+			classifyRow(frame, segmented, y, buffer);
 		}
-		inputWrapper.wrap(frame);
-
-		final int numBands = background.getNumBands()/2;
-
-		float adjustedMinimumDifference = minimumDifference*numBands;
+	}
 
-		int indexBG = 0;
-		for (int y = 0; y < frame.height; y++) {
-			int indexInput = frame.startIndex + y*frame.stride;
-			int indexSegmented = segmented.startIndex + y*segmented.stride;
+	@Override
+	protected void segmentAndUpdateRows(Planar<T> frame, GrayU8 segmented, int y0, int y1, float[] buffer) {
+		final float minusLearn = 1.0f - learnRate;
+		final int width = frame.width;
+		final int N = width*frame.height;
+		final int indexDistance = numBands*width;
 
-			int end = indexInput + frame.width;
-			while( indexInput < end ) {
-				inputWrapper.getF(indexInput, inputPixel);
+		for (int y = y0; y < y1; y++) {
+			loadRow(frame, y, buffer);
 
-				float mahalanobis = 0;
-				for (int band = 0; band < numBands; band++) {
+			for (int x = 0; x < width; x++) {
+				buffer[indexDistance + x] = 0;
+			}
 
-					GrayF32 backgroundMean = background.getBand(band*2);
-					GrayF32 backgroundVar = background.getBand(band*2+1);
+			// segmentation needs the model before it's updated so compute the distance as it's updated
+			for (int band = 0; band < numBands; band++) {
+				int indexBG = band*N + y*width;
+				int indexBuffer = band*width;
+				for (int x = 0; x < width; x++, indexBG++) {
+					float inputValue = buffer[indexBuffer + x];
+					float meanBG = mean[indexBG];
+					float varianceBG = variance[indexBG];
 
-					float meanBG = backgroundMean.data[indexBG];
-					float varBG = backgroundVar.data[indexBG];
+					float diff = meanBG-inputValue;
+					buffer[indexDistance + x] += diff*diff/varianceBG;
 
-					float diff = meanBG - inputPixel[band];
-					mahalanobis += diff * diff / varBG;
+					mean[indexBG] = minusLearn*meanBG + learnRate*inputValue;
+					variance[indexBG] = minusLearn*varianceBG + learnRate*diff*diff;
+					// save the difference in case it's needed to check the minimum difference
+					buffer[indexBuffer + x] = diff;
 				}
+			}
 
-				if (mahalanobis <= threshold) {
+			int indexSegmented = segmented.startIndex + y*segmented.stride;
+			for (int x = 0; x < width; x++, indexSegmented++) {
+				if( buffer[indexDistance + x] <= threshold ) {
 					segmented.data[indexSegmented] = 0;
+				} else if( minimumDifference == 0 ) {
+					segmented.data[indexSegmented] = 1;
 				} else {
-					if( minimumDifference == 0) {
-						segmented.data[indexSegmented] = 1;
-					} else {
-						float sumAbsDiff = 0;
-						for (int band = 0; band < numBands; band++) {
-							GrayF32 backgroundMean = background.getBand(band*2);
-							sumAbsDiff += Math.abs(backgroundMean.data[indexBG] - inputPixel[band]);
-						}
-						if (sumAbsDiff >= adjustedMinimumDifference)
-							segmented.data[indexSegmented] = 1;
-						else
-							segmented.data[indexSegmented] = 0;
+					float sumAbsDiff = 0;
+					for (int band = 0; band < numBands; band++) {
+						sumAbsDiff += Math.abs(buffer[band*width + x]);
 					}
+					segmented.data[indexSegmented] = (byte)(sumAbsDiff >= minimumDifference*numBands ? 1 : 0);
 				}
+			}
+		}
+	}
 
-				indexInput++;
-				indexSegmented++;
-				indexBG++;
+	/**
+	 * Computes the Mahalanobis distance for each pixel in the row.  Results are written after the input row.
+	 */
+	private void computeMahalanobis( Planar<T> frame , int y , float[] buffer ) {
+		final int width = frame.width;
+		final int N = width*frame.height;
+		final int indexDistance = numBands*width;
+
+		for (int x = 0; x < width; x++) {
+			buffer[indexDistance + x] = 0;
+		}
+
+		for (int band = 0; band < numBands; band++) {
+			int indexBG = band*N + y*width;
+			int indexBuffer = band*width;
+			for (int x = 0; x < width; x++, indexBG++) {
+				float diff = mean[indexBG] - buffer[indexBuffer + x];
+				buffer[indexDistance + x] += diff*diff/variance[indexBG];
+			}
+		}
+	}
+
+	/**
+	 * Uses the distance and input pixel values to decide if a pixel is background or not
+	 */
+	private void classifyRow( Planar<T> frame , GrayU8 segmented , int y , float[] buffer ) {
+		final int width = frame.width;
+		final int N = width*frame.height;
+		final int indexDistance = numBands*width;
+		final float adjustedMinimumDifference = minimumDifference*numBands;
+
+		int indexSegmented = segmented.startIndex + y*segmented.stride;
+		for (int x = 0; x < width; x++, indexSegmented++) {
+			if( buffer[indexDistance + x] <= threshold ) {
+				segmented.data[indexSegmented] = 0;
+			} else if( minimumDifference == 0 ) {
+				segmented.data[indexSegmented] = 1;
+			} else {
+				float sumAbsDiff = 0;
+				for (int band = 0; band < numBands; band++) {
+					sumAbsDiff += Math.abs(mean[band*N + y*width + x] - buffer[band*width + x]);
+				}
+				segmented.data[indexSegmented] = (byte)(sumAbsDiff >= adjustedMinimumDifference ? 1 : 0);
 			}
 		}
 	}
@@ -18,17 +18,14 @@
 
 package boofcv.alg.background.stationary;
 
-import boofcv.alg.InputSanityCheck;
-import boofcv.alg.background.moving.BackgroundMovingGaussian;
-import boofcv.alg.misc.GImageMiscOps;
-import boofcv.alg.misc.ImageMiscOps;
 import boofcv.core.image.FactoryGImageGray;
-import boofcv.core.image.GConvertImage;
 import boofcv.core.image.GImageGray;
-import boofcv.struct.image.*;
+import boofcv.struct.image.GrayU8;
+import boofcv.struct.image.ImageGray;
+import boofcv.struct.image.ImageType;
 
 /**
- * Implementation of {@link BackgroundMovingGaussian} for {@link ImageGray}.
+ * Implementation of {@link BackgroundStationaryGaussian} for {@link ImageGray}.
  *
  * @author Peter Abeles
  */
@@ -38,8 +35,9 @@ public class BackgroundStationaryGaussian_SB<T extends ImageGray<T>>
 	// wrappers which provide abstraction across image types
 	protected GImageGray inputWrapper;
 
-	// background is composed of two channels.  0 = mean, 1 = variance
-	Planar<GrayF32> background = new Planar<>(GrayF32.class,1,1,2);
+	// background model.  mean and variance of each pixel in row-major order
+	protected float[] mean = new float[0];
+	protected float[] variance = new float[0];
 
 	/**
 	 * Configurations background removal.
@@ -56,88 +54,114 @@ public class BackgroundStationaryGaussian_SB<T extends ImageGray<T>>
 	}
 
 	@Override
-	public void reset() {
-		background.reshape(1,1);
-	}
+	protected void initializeModel(T frame) {
+		int N = frame.width*frame.height;
+		if( mean.length < N ) {
+			mean = new float[N];
+			variance = new float[N];
+		}
 
-	@Override
-	public void updateBackground( T frame) {
-		if( background.width == 1 ) {
-			background.reshape(frame.width, frame.height);
-			GConvertImage.convert(frame, background.getBand(0));
-			GImageMiscOps.fill(background.getBand(1),initialVariance);
-			return;
-		} else {
-			InputSanityCheck.checkSameShape(background, frame);
+		inputWrapper.wrap(frame);
+		for (int y = 0; y < frame.height; y++) {
+			int indexInput = frame.startIndex + y*frame.stride;
+			int indexBG = y*frame.width;
+			for (int x = 0; x < frame.width; x++) {
+				mean[indexBG] = inputWrapper.getF(indexInput++);
+				variance[indexBG++] = initialVariance;
+			}
 		}
+	}
 
+	@Override
+	protected void setInputImage(T frame) {
 		inputWrapper.wrap(frame);
+	}
 
-		float minusLearn = 1.0f - learnRate;
+	/**
+	 * Copies a row from the input image into the buffer
+	 */
+	private void loadRow( T frame , int y , float[] row ) {
+		int indexInput = frame.startIndex + y*frame.stride;
+		for (int x = 0; x < frame.width; x++) {
+			row[x] = inputWrapper.getF(indexInput++);
+		}
+	}
 
-		GrayF32 backgroundMean = background.getBand(0);
-		GrayF32 backgroundVar = background.getBand(1);
+	@Override
+	protected void updateRows(T frame, int y0, int y1, float[] buffer) {
+		final float minusLearn = 1.0f - learnRate;
+		final int width = frame.width;
 
-		int indexBG = 0;
-		for (int y = 0; y < background.height; y++) {
-			int indexInput = frame.startIndex + y*frame.stride;
+		for (int y = y0; y < y1; y++) {
+			loadRow(frame, y, buffer);
 
-			int end = indexInput + frame.width;
-			while( indexInput < end ) {
-				float inputValue = inputWrapper.getF(indexInput);
-				float meanBG = backgroundMean.data[indexBG];
-				float varianceBG = backgroundVar.data[indexBG];
+			int indexBG = y*width;
+			for (int x = 0; x < width; x++, indexBG++) {
+				float inputValue = buffer[x];
+				float meanBG = mean[indexBG];
 
 				float diff = meanBG-inputValue;
-				backgroundMean.data[indexBG] = minusLearn*meanBG + learnRate*inputValue;
-				backgroundVar.data[indexBG] = minusLearn*varianceBG + learnRate*diff*diff;
-
-				indexBG++;
-				indexInput++;
+				mean[indexBG] = minusLearn*meanBG + learnRate*inputValue;
+				variance[indexBG] = minusLearn*variance[indexBG] + learnRate*diff*diff;
 			}
 		}
 	}
 
 	@Override
-	public void segment( T frame, GrayU8 segmented) {
-		if( background.width == 1 ) {
-			ImageMiscOps.fill(segmented, unknownValue);
-			return;
-		}
-		InputSanityCheck.checkSameShape(background,frame,segmented);
-		inputWrapper.wrap(frame);
+	protected void segmentRows(T frame, GrayU8 segmented, int y0, int y1, float[] buffer) {
+		final int width = frame.width;
 
-		GrayF32 backgroundMean = background.getBand(0);
-		GrayF32 backgroundVar = background.getBand(1);
+		for (int y = y0; y < y1; y++) {
+			loadRow(frame, y, buffer);
 
-		int indexBG = 0;
-		for (int y = 0; y < frame.height; y++) {
-			int indexInput = frame.startIndex + y*frame.stride;
+			int indexBG = y*width;
 			int indexSegmented = segmented.startIndex + y*segmented.stride;
+			for (int x = 0; x < width; x++, indexBG++, indexSegmented++) {
+				segmented.data[indexSegmented] = classify(mean[indexBG]-buffer[x], variance[indexBG]);
+			}
+		}
+	}
 
-			int end = indexInput + frame.width;
-			while( indexInput < end ) {
-				float pixelFrame = inputWrapper.getF(indexInput);
+	@Override
+	protected void segmentAndUpdateRows(T frame, GrayU8 segmented, int y0, int y1, float[] buffer) {
+		final float minusLearn = 1.0f - learnRate;
+		final int width = frame.width;
 
-				float meanBG = backgroundMean.data[indexBG];
-				float varBG = backgroundVar.data[indexBG];
+		for (int y = y0; y < y1; y++) {
+			loadRow(frame, y, buffer);
 
-				float diff = meanBG - pixelFrame;
-				float chisq = diff*diff/varBG;
+			int indexBG = y*width;
+			int indexSegmented = segmented.startIndex + y*segmented.stride;
+			for (int x = 0; x < width; x++, indexBG++, indexSegmented++) {
+				float inputValue = buffer[x];
+				float meanBG = mean[indexBG];
+				float varianceBG = variance[indexBG];
 
-				if (chisq <= threshold) {
-					segmented.data[indexSegmented] = 0;
-				} else {
-					if( diff >= minimumDifference || -diff >= minimumDifference )
-						segmented.data[indexSegmented] = 1;
-					else
-						segmented.data[indexSegmented] = 0;
-				}
+				float diff = meanBG-inputValue;
+				segmented.data[indexSegmented] = classify(diff, varianceBG);
 
-				indexInput++;
-				indexSegmented++;
-				indexBG++;
+				mean[indexBG] = minusLearn*meanBG + learnRate*inputValue;
+				variance[indexBG] = minusLearn*varianceBG + learnRate*diff*diff;
 			}
 		}
 	}
+
+	/**
+	 * Decides if a pixel is background (0) or foreground (1)
+	 *
+	 * @param diff difference between the mean and the pixel's value
+	 * @param varBG variance of the background
+	 */
+	private byte classify( float diff , float varBG ) {
+		float chisq = diff*diff/varBG;
+
+		if (chisq <= threshold) {
+			return 0;
+		} else {
+			if( diff >= minimumDifference || -diff >= minimumDifference )
+				return 1;
+			else
+				return 0;
+		}
+	}
 }
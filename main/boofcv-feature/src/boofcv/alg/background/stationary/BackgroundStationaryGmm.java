@@ -0,0 +1,272 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.background.stationary;
+
+import boofcv.alg.InputSanityCheck;
+import boofcv.alg.background.BackgroundAlgorithmGmm;
+import boofcv.alg.background.BackgroundGmmCommon;
+import boofcv.alg.background.BackgroundModelStationary;
+import boofcv.alg.misc.ImageMiscOps;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeObjectConsumer;
+import boofcv.struct.image.GrayU8;
+import boofcv.struct.image.ImageBase;
+import boofcv.struct.image.ImageType;
+import org.ddogleg.struct.FastQueue;
+import org.ddogleg.struct.GrowQueue_F32;
+
+import java.util.Arrays;
+
+/**
+ * <p>Implementation of {@link BackgroundAlgorithmGmm} for stationary images.</p>
+ *
+ * <p>
+ * The mixture of every pixel is stored in a single float array, see {@link BackgroundGmmCommon}.  The array is
+ * only declared when the image shape changes.  Rows are independent and can be processed concurrently,
+ * see {@link #setConcurrent}.
+ * </p>
+ *
+ * @see BackgroundAlgorithmGmm
+ * @see BackgroundModelStationary
+ *
+ * @author Peter Abeles
+ */
+public abstract class BackgroundStationaryGmm<T extends ImageBase<T>>
+		extends BackgroundModelStationary<T> implements BackgroundAlgorithmGmm
+{
+	// operations which can be applied to each row
+	private static final int OP_UPDATE = 0;
+	private static final int OP_SEGMENT = 1;
+	private static final int OP_BOTH = 2;
+
+	// updates and classifies the mixture of a single pixel
+	protected BackgroundGmmCommon common;
+
+	// packed mixture model for every pixel in the image
+	protected float[] model = new float[0];
+
+	// shape of the background model.  zero if the model has not been initialized yet
+	protected int modelWidth, modelHeight;
+
+	// If true then rows in the image are processed concurrently
+	protected boolean concurrent = false;
+
+	// storage for a pixel when processed by a single thread
+	private GrowQueue_F32 pixel = new GrowQueue_F32();
+	// storage for a pixel for each thread
+	private FastQueue<GrowQueue_F32> pixels = new FastQueue<>(GrowQueue_F32.class, true);
+
+	/**
+	 * See class documentation for parameters definitions.
+	 *
+	 * @param learningPeriod Specifies how fast it will adapt.  Learning rate is 1/period.  Try 1000
+	 * @param decay Weight decay used to prune Gaussians.  Try 0.001
+	 * @param maxGaussians Maximum number of Gaussians in a pixel.  Try 10
+	 * @param imageType Type of input image
+	 */
+	public BackgroundStationaryGmm(float learningPeriod, float decay, int maxGaussians, ImageType<T> imageType) {
+		super(imageType);
+
+		common = new BackgroundGmmCommon(learningPeriod, decay, maxGaussians, imageType.getNumBands());
+	}
+
+	@Override
+	public void reset() {
+		modelWidth = modelHeight = 0;
+	}
+
+	@Override
+	public void updateBackground( T frame ) {
+		if( modelWidth == 0 ) {
+			declareModel(frame);
+		} else {
+			checkModelShape(frame);
+		}
+		process(frame, null, OP_UPDATE);
+	}
+
+	@Override
+	public void segment( T frame , GrayU8 segmented ) {
+		if( modelWidth == 0 ) {
+			ImageMiscOps.fill(segmented, unknownValue);
+			return;
+		}
+		InputSanityCheck.checkSameShape(frame, segmented);
+		checkModelShape(frame);
+		process(frame, segmented, OP_SEGMENT);
+	}
+
+	/**
+	 * Segments the frame using the current model and then updates the model with the frame.  The output is
+	 * identical to calling {@link #segment} followed by {@link #updateBackground} but only a single pass is
+	 * made through the image and the model.
+	 */
+	@Override
+	public void segmentAndUpdate( T frame , GrayU8 segmented ) {
+		if( modelWidth == 0 ) {
+			ImageMiscOps.fill(segmented, unknownValue);
+			updateBackground(frame);
+			return;
+		}
+		InputSanityCheck.checkSameShape(frame, segmented);
+		checkModelShape(frame);
+		process(frame, segmented, OP_BOTH);
+	}
+
+	/**
+	 * Declares the model for the frame's shape and marks every Gaussian as unused
+	 */
+	private void declareModel( T frame ) {
+		int N = frame.width*frame.height*common.getModelStride();
+		if( model.length < N ) {
+			model = new float[N];
+		} else {
+			Arrays.fill(model, 0, N, 0);
+		}
+		modelWidth = frame.width;
+		modelHeight = frame.height;
+	}
+
+	private void process( final T frame , final GrayU8 segmented , final int operation ) {
+		common.unknownValue = unknownValue;
+		setInputImage(frame);
+
+		final int length = imageType.getNumBands();
+
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, frame.height, pixels, new IntRangeObjectConsumer<GrowQueue_F32>() {
+				@Override
+				public void accept(GrowQueue_F32 pixel, int y0, int y1) {
+					pixel.resize(length);
+					processRows(frame, segmented, operation, y0, y1, pixel.data);
+				}
+			});
+		} else {
+			pixel.resize(length);
+			processRows(frame, segmented, operation, 0, frame.height, pixel.data);
+		}
+	}
+
+	private void processRows( T frame , GrayU8 segmented , int operation , int y0 , int y1 , float[] pixel ) {
+		switch( operation ) {
+			case OP_UPDATE: updateRows(frame, y0, y1, pixel); break;
+			case OP_SEGMENT: segmentRows(frame, segmented, y0, y1, pixel); break;
+			default: segmentAndUpdateRows(frame, segmented, y0, y1, pixel); break;
+		}
+	}
+
+	private void checkModelShape( T frame ) {
+		if( frame.width != modelWidth || frame.height != modelHeight )
+			throw new IllegalArgumentException("Input image shape doesn't match the background model. "+
+					frame.width+"x"+frame.height+" vs "+modelWidth+"x"+modelHeight);
+	}
+
+	/**
+	 * Specifies the input image before rows are processed.  Must be safe to read from multiple threads after.
+	 */
+	protected abstract void setInputImage( T frame );
+
+	/**
+	 * Updates the model for the specified rows
+	 *
+	 * @param pixel Storage for a single pixel.  Length is the number of bands.
+	 */
+	protected abstract void updateRows( T frame , int y0 , int y1 , float[] pixel );
+
+	/**
+	 * Segments the specified rows
+	 *
+	 * @param pixel Storage for a single pixel.  Length is the number of bands.
+	 */
+	protected abstract void segmentRows( T frame , GrayU8 segmented , int y0 , int y1 , float[] pixel );
+
+	/**
+	 * Segments each pixel in the specified rows and then updates its model
+	 *
+	 * @param pixel Storage for a single pixel.  Length is the number of bands.
+	 */
+	protected abstract void segmentAndUpdateRows( T frame , GrayU8 segmented , int y0 , int y1 , float[] pixel );
+
+	public boolean isConcurrent() {
+		return concurrent;
+	}
+
+	/**
+	 * If true then rows in the image will be processed concurrently.  Results are identical to processing
+	 * with a single thread.
+	 */
+	public void setConcurrent(boolean concurrent) {
+		this.concurrent = concurrent;
+	}
+
+	@Override
+	public float getLearningPeriod() {
+		return common.getLearningPeriod();
+	}
+
+	@Override
+	public void setLearningPeriod(float period) {
+		common.setLearningPeriod(period);
+	}
+
+	@Override
+	public float getDecay() {
+		return common.getDecay();
+	}
+
+	@Override
+	public void setDecay(float decay) {
+		common.setDecay(decay);
+	}
+
+	@Override
+	public float getMaxDistance() {
+		return common.getMaxDistance();
+	}
+
+	@Override
+	public void setMaxDistance(float maxDistance) {
+		common.setMaxDistance(maxDistance);
+	}
+
+	@Override
+	public float getBackgroundRatio() {
+		return common.getBackgroundRatio();
+	}
+
+	@Override
+	public void setBackgroundRatio(float backgroundRatio) {
+		common.setBackgroundRatio(backgroundRatio);
+	}
+
+	@Override
+	public float getInitialVariance() {
+		return common.getInitialVariance();
+	}
+
+	@Override
+	public void setInitialVariance(float initialVariance) {
+		common.setInitialVariance(initialVariance);
+	}
+
+	@Override
+	public int getMaxGaussians() {
+		return common.getMaxGaussians();
+	}
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.background.stationary;
+
+import boofcv.core.image.FactoryGImageGray;
+import boofcv.core.image.GImageGray;
+import boofcv.struct.image.GrayU8;
+import boofcv.struct.image.ImageGray;
+import boofcv.struct.image.ImageType;
+
+/**
+ * Implementation of {@link BackgroundStationaryGmm} for {@link ImageGray}.
+ *
+ * @author Peter Abeles
+ */
+public class BackgroundStationaryGmm_SB<T extends ImageGray<T>>
+		extends BackgroundStationaryGmm<T>
+{
+	// wrappers which provide abstraction across image types
+	protected GImageGray inputWrapper;
+
+	/**
+	 * Configures background model
+	 *
+	 * @param learningPeriod Specifies how fast it will adapt.  Learning rate is 1/period.  Try 1000
+	 * @param decay Weight decay used to prune Gaussians.  Try 0.001
+	 * @param maxGaussians Maximum number of Gaussians in a pixel.  Try 10
+	 * @param imageType Type of input image.
+	 */
+	public BackgroundStationaryGmm_SB(float learningPeriod, float decay, int maxGaussians, Class<T> imageType) {
+		super(learningPeriod, decay, maxGaussians, ImageType.single(imageType));
+
+		inputWrapper = FactoryGImageGray.create(imageType);
+	}
+
+	@Override
+	protected void setInputImage(T frame) {
+		inputWrapper.wrap(frame);
+	}
+
+	@Override
+	protected void updateRows(T frame, int y0, int y1, float[] pixel) {
+		final int modelStride = common.getModelStride();
+
+		for (int y = y0; y < y1; y++) {
+			int indexInput = frame.startIndex + y*frame.stride;
+			int indexModel = y*frame.width*modelStride;
+			for (int x = 0; x < frame.width; x++, indexModel += modelStride) {
+				common.updateMixture(inputWrapper.getF(indexInput++), model, indexModel);
+			}
+		}
+	}
+
+	@Override
+	protected void segmentRows(T frame, GrayU8 segmented, int y0, int y1, float[] pixel) {
+		final int modelStride = common.getModelStride();
+
+		for (int y = y0; y < y1; y++) {
+			int indexInput = frame.startIndex + y*frame.stride;
+			int indexSegmented = segmented.startIndex + y*segmented.stride;
+			int indexModel = y*frame.width*modelStride;
+			for (int x = 0; x < frame.width; x++, indexModel += modelStride) {
+				segmented.data[indexSegmented++] =
+						common.checkBackground(inputWrapper.getF(indexInput++), model, indexModel);
+			}
+		}
+	}
+
+	@Override
+	protected void segmentAndUpdateRows(T frame, GrayU8 segmented, int y0, int y1, float[] pixel) {
+		final int modelStride = common.getModelStride();
+
+		for (int y = y0; y < y1; y++) {
+			int indexInput = frame.startIndex + y*frame.stride;
+			int indexSegmented = segmented.startIndex + y*segmented.stride;
+			int indexModel = y*frame.width*modelStride;
+			for (int x = 0; x < frame.width; x++, indexModel += modelStride) {
+				float value = inputWrapper.getF(indexInput++);
+				segmented.data[indexSegmented++] = common.checkBackground(value, model, indexModel);
+				common.updateMixture(value, model, indexModel);
+			}
+		}
+	}
+}
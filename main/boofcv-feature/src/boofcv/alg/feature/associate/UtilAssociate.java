@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.associate;
+
+import boofcv.struct.feature.AssociatedIndex;
+import boofcv.struct.feature.MatchScoreType;
+import org.ddogleg.struct.FastQueue;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Functions for manipulating the output of association
+ *
+ * @author Peter Abeles
+ */
+public class UtilAssociate {
+
+	/**
+	 * Sorts the matches from best to worst fit score.  Matches with the same score keep their relative order.
+	 * Robust estimators which sample from the best matches first, such as RansacProsacSprt, expect their input
+	 * in this order.
+	 *
+	 * @param matches (Input/Output) List of matches which is sorted
+	 * @param type How the fit score should be interpreted
+	 */
+	public static void sortByFitScore( FastQueue<AssociatedIndex> matches , final MatchScoreType type ) {
+		Arrays.sort(matches.data, 0, matches.size, new Comparator<AssociatedIndex>() {
+			@Override
+			public int compare(AssociatedIndex a, AssociatedIndex b) {
+				// compareTo() is positive when the first score is better
+				return type.compareTo(b.fitScore, a.fitScore);
+			}
+		});
+	}
+}
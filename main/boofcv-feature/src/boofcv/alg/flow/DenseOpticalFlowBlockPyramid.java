@@ -19,12 +19,15 @@
 package boofcv.alg.flow;
 
 import boofcv.alg.InputSanityCheck;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeObjectConsumer;
 import boofcv.core.image.GeneralizedImageOps;
 import boofcv.struct.flow.ImageFlow;
 import boofcv.struct.image.GrayF32;
 import boofcv.struct.image.GrayU8;
 import boofcv.struct.image.ImageGray;
 import boofcv.struct.pyramid.ImagePyramid;
+import org.ddogleg.struct.FastQueue;
 
 import java.util.Arrays;
 
@@ -51,10 +54,19 @@ import java.util.Arrays;
  * score the edges of objects is handled better.
  * </p>
  *
+ * <p>
+ * The search for each region is independent and can optionally be done concurrently, see {@link #setConcurrent}.
+ * To reduce computations further the search can be restricted to regions on a sparse grid, with the flow between
+ * grid points found using bilinear interpolation, see {@link #setGridSpacing}.
+ * </p>
+ *
  * @author Peter Abeles
  */
 public abstract class DenseOpticalFlowBlockPyramid<T extends ImageGray<T>> {
 
+	// value assigned to a region's score when it was skipped because there was no hint from the previous layer
+	private static final float SKIPPED = -1;
+
 	// the maximum displacement it will search
 	protected int searchRadius;
 	// radius of the square region it is searching with
@@ -76,6 +88,21 @@ public abstract class DenseOpticalFlowBlockPyramid<T extends ImageGray<T>> {
 	// fit score for each pixel
 	protected float scores[] = new float[0];
 
+	// flow and score found for the region centered at each pixel or grid point
+	protected ImageFlow flowRegion = new ImageFlow(1,1);
+	protected float scoresRegion[] = new float[0];
+
+	// If true the search for each region will be done concurrently
+	protected boolean concurrent = false;
+	// Spacing between regions which are searched. 1 = every pixel
+	protected int gridSpacing = 1;
+
+	// type of image being processed
+	protected Class<T> imageType;
+
+	// per-thread storage for the search
+	protected FastQueue<Workspace> workspaces;
+
 	/**
 	 * Configures the search.
 	 *
@@ -88,11 +115,19 @@ public abstract class DenseOpticalFlowBlockPyramid<T extends ImageGray<T>> {
 										int maxPerPixelError, Class<T> imageType) {
 		this.searchRadius = searchRadius;
 		this.regionRadius = regionRadius;
+		this.imageType = imageType;
 
 		int w = regionRadius*2+1;
 		maxError = maxPerPixelError*w*w;
 
 		template = GeneralizedImageOps.createSingleBand(imageType,w, w);
+
+		workspaces = new FastQueue<Workspace>((Class)Workspace.class,true) {
+			@Override
+			protected Workspace createInstance() {
+				return new Workspace();
+			}
+		};
 	}
 
 	/**
@@ -113,62 +148,13 @@ public abstract class DenseOpticalFlowBlockPyramid<T extends ImageGray<T>> {
 
 			flowCurrLayer.reshape(prev.width, prev.height);
 
-			int N = prev.width*prev.height;
-			if( scores.length < N )
-				scores = new float[N];
-			// mark all the scores as being very large so that if it has not been processed its score
-			// will be set inside of checkNeighbors.
-			Arrays.fill(scores,0,N,Float.MAX_VALUE);
-
-			int x1 = prev.width-regionRadius;
-			int y1 = prev.height-regionRadius;
-
-			if( i == numLayers-1 ) {
-				// the top most layer in the pyramid has no hint
-				for( int y = regionRadius; y < y1; y++ ) {
-					for( int x = regionRadius; x < x1; x++ ) {
-						extractTemplate(x,y,prev);
-						float score = findFlow(x,y,curr,tmp);
-
-						if( tmp.isValid() )
-							checkNeighbors(x,y,tmp, flowCurrLayer,score);
-						else
-							flowCurrLayer.unsafe_get(x, y).markInvalid();
-					}
-				}
+			// the top most layer in the pyramid has no hint
+			double scale = i == numLayers-1 ? 0 : pyramidPrev.getScale(i+1)/pyramidPrev.getScale(i);
+
+			if( gridSpacing <= 1 ) {
+				processLayerDense(prev, curr, scale);
 			} else {
-				// for all the other layers use the hint of the previous layer to start its search
-				double scale = pyramidPrev.getScale(i+1)/pyramidPrev.getScale(i);
-				for( int y = regionRadius; y < y1; y++ ) {
-					for( int x = regionRadius; x < x1; x++ ) {
-						// grab the flow in higher level pyramid
-						ImageFlow.D p = flowPrevLayer.get((int)(x/scale),(int)(y/scale));
-						if( !p.isValid() )
-							continue;
-
-						// get the template around the current point in this layer
-						extractTemplate(x,y,prev);
-
-						// add the flow from the higher layer (adjusting for scale and rounding) as the start of
-						// this search
-						int deltaX = (int)(p.x*scale+0.5);
-						int deltaY = (int)(p.y*scale+0.5);
-
-						int startX = x + deltaX;
-						int startY = y + deltaY;
-
-						float score = findFlow(startX,startY,curr,tmp);
-
-						// find flow only does it relative to the starting point
-						tmp.x += deltaX;
-						tmp.y += deltaY;
-
-						if( tmp.isValid() )
-							checkNeighbors(x,y,tmp, flowCurrLayer,score);
-						else
-							flowCurrLayer.unsafe_get(x,y).markInvalid();
-					}
-				}
+				processLayerGrid(prev, curr, scale);
 			}
 
 			// swap the flow images
@@ -178,11 +164,143 @@ public abstract class DenseOpticalFlowBlockPyramid<T extends ImageGray<T>> {
 		}
 	}
 
+	/**
+	 * Searches for the flow of a region centered at every pixel. Once all the searches are finished the flow is
+	 * assigned to each pixel from the best region which contains it.
+	 *
+	 * @param scale Scale factor between this layer and the previous one. If zero then there is no previous layer.
+	 */
+	protected void processLayerDense( T prev , T curr , double scale ) {
+		int N = prev.width*prev.height;
+		if( scores.length < N )
+			scores = new float[N];
+		if( scoresRegion.length < N )
+			scoresRegion = new float[N];
+		// mark all the scores as being very large so that if it has not been processed its score
+		// will be set inside of checkNeighbors.
+		Arrays.fill(scores,0,N,Float.MAX_VALUE);
+
+		flowRegion.reshape(prev.width, prev.height);
+
+		int x0 = regionRadius, x1 = prev.width-regionRadius;
+		int y0 = regionRadius, y1 = prev.height-regionRadius;
+
+		// the search is the expensive part and each region is independent
+		searchRegions(prev, curr, scale, x0, y0, x1, y1, 1);
+
+		// assign flow to pixels in the same order as the search so that the results are independent of threading
+		for( int y = y0; y < y1; y++ ) {
+			for( int x = x0; x < x1; x++ ) {
+				int index = y*prev.width + x;
+				float score = scoresRegion[index];
+				if( score == SKIPPED )
+					continue;
+
+				ImageFlow.D f = flowRegion.data[index];
+				if( f.isValid() )
+					checkNeighbors(x,y,f, flowCurrLayer,score);
+				else
+					flowCurrLayer.unsafe_get(x,y).markInvalid();
+			}
+		}
+	}
+
+	/**
+	 * Only searches for the flow of regions centered on a sparse grid. The flow for each pixel is then found
+	 * using bilinear interpolation between grid points.
+	 *
+	 * @param scale Scale factor between this layer and the previous one. If zero then there is no previous layer.
+	 */
+	protected void processLayerGrid( T prev , T curr , double scale ) {
+		int x1 = prev.width-regionRadius;
+		int y1 = prev.height-regionRadius;
+
+		int gridWidth = UtilDenseOpticalFlow.gridLength(regionRadius, x1, gridSpacing);
+		int gridHeight = UtilDenseOpticalFlow.gridLength(regionRadius, y1, gridSpacing);
+
+		int N = gridWidth*gridHeight;
+		if( scoresRegion.length < N )
+			scoresRegion = new float[N];
+
+		flowRegion.reshape(gridWidth, gridHeight);
+
+		searchRegions(prev, curr, scale, 0, 0, gridWidth, gridHeight, gridSpacing);
+
+		for (int i = 0; i < N; i++) {
+			if( scoresRegion[i] == SKIPPED )
+				flowRegion.data[i].markInvalid();
+		}
+
+		UtilDenseOpticalFlow.upsampleGrid(flowRegion, regionRadius, gridSpacing, flowCurrLayer);
+	}
+
+	/**
+	 * Computes the flow for each region inside the specified bounds. Region (x,y) is centered at pixel
+	 * (x*spacing + offset, y*spacing + offset), where the offset is zero for a spacing of 1 and the region radius
+	 * otherwise. Results are written into {@link #flowRegion} and {@link #scoresRegion}.
+	 */
+	protected void searchRegions( final T prev , final T curr , final double scale ,
+								  final int x0 , int y0 , final int x1 , int y1 , final int spacing ) {
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(y0, y1, workspaces, new IntRangeObjectConsumer<Workspace>() {
+				@Override
+				public void accept(Workspace w, int y0, int y1) {
+					searchRegions(prev, curr, scale, x0, y0, x1, y1, spacing, w.template, w.flow);
+				}
+			});
+		} else {
+			searchRegions(prev, curr, scale, x0, y0, x1, y1, spacing, template, tmp);
+		}
+	}
+
+	private void searchRegions( T prev , T curr , double scale ,
+								int x0 , int y0 , int x1 , int y1 , int spacing ,
+								T template , ImageFlow.D tmp ) {
+		int offset = spacing == 1 ? 0 : regionRadius;
+
+		for( int y = y0; y < y1; y++ ) {
+			int cy = y*spacing + offset;
+			int index = y*flowRegion.width + x0;
+			for( int x = x0; x < x1; x++ , index++ ) {
+				int cx = x*spacing + offset;
+
+				int deltaX = 0, deltaY = 0;
+				if( scale != 0 ) {
+					// grab the flow in higher level pyramid
+					ImageFlow.D p = flowPrevLayer.get((int)(cx/scale),(int)(cy/scale));
+					if( !p.isValid() ) {
+						scoresRegion[index] = SKIPPED;
+						continue;
+					}
+
+					// add the flow from the higher layer (adjusting for scale and rounding) as the start of
+					// this search
+					deltaX = (int)(p.x*scale+0.5);
+					deltaY = (int)(p.y*scale+0.5);
+				}
+
+				// get the template around the current point in this layer
+				extractTemplate(cx,cy,prev,template);
+
+				float score = findFlow(cx+deltaX,cy+deltaY,curr,template,tmp);
+
+				ImageFlow.D f = flowRegion.data[index];
+				if( tmp.isValid() ) {
+					// find flow only does it relative to the starting point
+					f.set(tmp.x+deltaX, tmp.y+deltaY);
+				} else {
+					f.markInvalid();
+				}
+				scoresRegion[index] = score;
+			}
+		}
+	}
+
 	/**
 	 * Performs an exhaustive search centered around (cx,cy) for the region in 'curr' which is the best
 	 * match for the template.  Results are written into 'flow'
 	 */
-	protected float findFlow( int cx , int cy , T curr , ImageFlow.D flow ) {
+	protected float findFlow( int cx , int cy , T curr , T template , ImageFlow.D flow ) {
 		float bestScore = Float.MAX_VALUE;
 		int bestFlowX=0,bestFlowY=0;
 
@@ -197,7 +315,7 @@ public abstract class DenseOpticalFlowBlockPyramid<T extends ImageGray<T>> {
 			int y = cy+i;
 			for( int j = startX; j <= endX; j++ ) {
 				int x = cx+j;
-				float error = computeError(x,y,curr);
+				float error = computeError(x,y,curr,template);
 				if( error < bestScore ) {
 					bestScore = error;
 					bestFlowX = j;
@@ -253,12 +371,12 @@ public abstract class DenseOpticalFlowBlockPyramid<T extends ImageGray<T>> {
 	/**
 	 * Extracts a square template from the image 'prev' center at cx and cy
 	 */
-	protected abstract void extractTemplate( int cx , int cy , T prev );
+	protected abstract void extractTemplate( int cx , int cy , T prev , T template );
 
 	/**
 	 * Computes the error between the template and a region in 'curr' centered at cx,cy
 	 */
-	protected abstract float computeError( int cx , int cy , T curr );
+	protected abstract float computeError( int cx , int cy , T curr , T template );
 
 	/**
 	 * Returns the found optical flow
@@ -277,7 +395,7 @@ public abstract class DenseOpticalFlowBlockPyramid<T extends ImageGray<T>> {
 		}
 
 		@Override
-		protected void extractTemplate( int cx , int cy , GrayU8 prev ) {
+		protected void extractTemplate( int cx , int cy , GrayU8 prev , GrayU8 template ) {
 			int index = 0;
 			for( int i = -regionRadius; i <= regionRadius; i++ ) {
 				int indexPrev = prev.startIndex + prev.stride*(i+cy) + cx-regionRadius;
@@ -288,7 +406,7 @@ public abstract class DenseOpticalFlowBlockPyramid<T extends ImageGray<T>> {
 		}
 
 		@Override
-		protected float computeError( int cx , int cy , GrayU8 curr ) {
+		protected float computeError( int cx , int cy , GrayU8 curr , GrayU8 template ) {
 			int index = 0;
 			int error = 0;
 			for( int i = -regionRadius; i <= regionRadius; i++ ) {
@@ -313,7 +431,7 @@ public abstract class DenseOpticalFlowBlockPyramid<T extends ImageGray<T>> {
 		}
 
 		@Override
-		protected void extractTemplate( int cx , int cy , GrayF32 prev ) {
+		protected void extractTemplate( int cx , int cy , GrayF32 prev , GrayF32 template ) {
 			int index = 0;
 			for( int i = -regionRadius; i <= regionRadius; i++ ) {
 				int indexPrev = prev.startIndex + prev.stride*(i+cy) + cx-regionRadius;
@@ -324,7 +442,7 @@ public abstract class DenseOpticalFlowBlockPyramid<T extends ImageGray<T>> {
 		}
 
 		@Override
-		protected float computeError( int cx , int cy , GrayF32 curr ) {
+		protected float computeError( int cx , int cy , GrayF32 curr , GrayF32 template ) {
 			int index = 0;
 			float error = 0;
 			for( int i = -regionRadius; i <= regionRadius; i++ ) {
@@ -346,4 +464,39 @@ public abstract class DenseOpticalFlowBlockPyramid<T extends ImageGray<T>> {
 	public int getRegionRadius() {
 		return regionRadius;
 	}
+
+	public boolean isConcurrent() {
+		return concurrent;
+	}
+
+	/**
+	 * If true then the search for each region's flow is split across multiple threads. The found flow is
+	 * identical to the single threaded case.
+	 */
+	public void setConcurrent(boolean concurrent) {
+		this.concurrent = concurrent;
+	}
+
+	public int getGridSpacing() {
+		return gridSpacing;
+	}
+
+	/**
+	 * Specifies the spacing between regions which are searched. If 1 then a region centered at every pixel is
+	 * searched. If greater than 1 then only regions on a sparse grid are searched and the flow at each pixel is
+	 * found using bilinear interpolation. A spacing of 2 requires 1/4 of the work and 4 requires 1/16.
+	 */
+	public void setGridSpacing(int gridSpacing) {
+		if( gridSpacing < 1 )
+			throw new IllegalArgumentException("Grid spacing must be at least 1");
+		this.gridSpacing = gridSpacing;
+	}
+
+	/**
+	 * Storage used by a single thread while searching
+	 */
+	protected class Workspace {
+		T template = GeneralizedImageOps.createSingleBand(imageType,2*regionRadius+1, 2*regionRadius+1);
+		ImageFlow.D flow = new ImageFlow.D();
+	}
 }
@@ -32,8 +32,10 @@ import java.util.Arrays;
  * Computes the dense optical flow using {@link KltTracker}.  A feature is computed from each pixel in the prev
  * image and it is tracked into the curr image. The flow assigned to a pixel is the template with the lowest error
  * which overlaps it.  In other words, a pixel is assigned the flow with the lowest error with in 'radius' pixels
- * of it.  A pixel is marked as invalid if all tracks around the pixel fail.
+ * of it.  A pixel is marked as invalid if all tracks around the pixel fail.  If the grid spacing is more than one
+ * then only templates on a sparse grid are tracked and the flow is interpolated between grid points.
  *
+ * @see DenseOpticalFlowKlt_MT
  * @author Peter Abeles
  */
 public class DenseOpticalFlowKlt<I extends ImageGray<I>, D extends ImageGray<D>> {
@@ -48,8 +50,17 @@ public class DenseOpticalFlowKlt<I extends ImageGray<I>, D extends ImageGray<D>>
 	// goodness of fit for each template
 	float scores[] = new float[1];
 
+	// flow and tracking error for the template centered at each pixel or grid point
+	protected ImageFlow flowRegion = new ImageFlow(1,1);
+	protected float scoresRegion[] = new float[1];
+
+	// Spacing between templates which are tracked. 1 = every pixel
+	protected int gridSpacing = 1;
+
 	// size of template
-	private int regionRadius;
+	protected int regionRadius;
+	// number of layers in the pyramid
+	protected int numLayers;
 	// image shape
 	private int width,height;
 
@@ -57,6 +68,7 @@ public class DenseOpticalFlowKlt<I extends ImageGray<I>, D extends ImageGray<D>>
 		this.tracker = tracker;
 		feature = new PyramidKltFeature(numLayers,radius);
 		this.regionRadius = radius;
+		this.numLayers = numLayers;
 	}
 
 	public void process( ImagePyramid<I> prev, D[] prevDerivX, D[] prevDerivY,
@@ -65,33 +77,92 @@ public class DenseOpticalFlowKlt<I extends ImageGray<I>, D extends ImageGray<D>>
 		this.width = output.width;
 		this.height = output.height;
 
+		if( gridSpacing > 1 ) {
+			processGrid(prev, prevDerivX, prevDerivY, curr, output);
+			return;
+		}
+
 		// initialize and set the score for each pixel to be very high
 		int N = width*height;
 		if( scores.length < N)
 			scores = new float[N];
+		if( scoresRegion.length < N )
+			scoresRegion = new float[N];
 		Arrays.fill(scores,0,N,Float.MAX_VALUE);
 
 		for (int i = 0; i < N; i++) {
 			output.data[i].markInvalid();
 		}
 
+		flowRegion.reshape(width, height);
+		trackRegions(prev, prevDerivX, prevDerivY, curr, 0, height, 1);
+
+		// assign flow in the same order it was tracked so that the results are independent of threading
 		for( int y = 0; y < output.height; y++ ) {
 			for( int x = 0; x < output.width; x++ ) {
+				int index = y*output.width+x;
+				ImageFlow.D f = flowRegion.data[index];
+				if( !f.isValid() )
+					continue;
+				float score = scoresRegion[index];
+				// bias the result to prefer the central template
+				scores[index] = score*MAGIC_ADJUSTMENT;
+				output.data[index].set(f);
+				// see if this flow should be assigned to any of its neighbors
+				checkNeighbors(x, y, score, f.x, f.y, output);
+			}
+		}
+	}
+
+	/**
+	 * Only tracks templates centered on a sparse grid then computes the flow at each pixel using bilinear
+	 * interpolation.
+	 */
+	protected void processGrid( ImagePyramid<I> prev, D[] prevDerivX, D[] prevDerivY,
+								ImagePyramid<I> curr , ImageFlow output ) {
+		int gridWidth = UtilDenseOpticalFlow.gridLength(0, width, gridSpacing);
+		int gridHeight = UtilDenseOpticalFlow.gridLength(0, height, gridSpacing);
+
+		int N = gridWidth*gridHeight;
+		if( scoresRegion.length < N )
+			scoresRegion = new float[N];
+
+		flowRegion.reshape(gridWidth, gridHeight);
+		trackRegions(prev, prevDerivX, prevDerivY, curr, 0, gridHeight, gridSpacing);
+
+		UtilDenseOpticalFlow.upsampleGrid(flowRegion, 0, gridSpacing, output);
+	}
+
+	/**
+	 * Tracks the templates in the specified rows of {@link #flowRegion}. Template (x,y) is centered at pixel
+	 * (x*spacing,y*spacing).
+	 */
+	protected void trackRegions( ImagePyramid<I> prev, D[] prevDerivX, D[] prevDerivY,
+								 ImagePyramid<I> curr , int y0 , int y1 , int spacing ) {
+		trackRegions(prev, prevDerivX, prevDerivY, curr, y0, y1, spacing, tracker, feature);
+	}
+
+	protected void trackRegions( ImagePyramid<I> prev, D[] prevDerivX, D[] prevDerivY,
+								 ImagePyramid<I> curr , int y0 , int y1 , int spacing ,
+								 PyramidKltTracker<I,D> tracker , PyramidKltFeature feature ) {
+		for( int y = y0; y < y1; y++ ) {
+			int cy = y*spacing;
+			int index = y*flowRegion.width;
+			for( int x = 0; x < flowRegion.width; x++ , index++ ) {
+				int cx = x*spacing;
+				ImageFlow.D f = flowRegion.data[index];
+				f.markInvalid();
 
 				tracker.setImage(prev,prevDerivX,prevDerivY);
-				feature.setPosition(x,y);
+				feature.setPosition(cx,cy);
 
 				if( tracker.setDescription(feature) ) {
 					// derivX and derivY are not used, but can't be null for setImage()
 					tracker.setImage(curr);
 					KltTrackFault fault = tracker.track(feature);
 					if( fault == KltTrackFault.SUCCESS ) {
-						float score = tracker.getError();
-						// bias the result to prefer the central template
-						scores[y*output.width+x] = score*MAGIC_ADJUSTMENT;
-						output.get(x,y).set(feature.x-x,feature.y-y);
-						// see if this flow should be assigned to any of its neighbors
-						checkNeighbors(x, y, score, feature.x-x,feature.y-y, output);
+						scoresRegion[index] = tracker.getError();
+						f.set(feature.x-cx,feature.y-cy);
 					}
 				}
 			}
@@ -129,4 +200,19 @@ public class DenseOpticalFlowKlt<I extends ImageGray<I>, D extends ImageGray<D>>
 			}
 		}
 	}
+
+	public int getGridSpacing() {
+		return gridSpacing;
+	}
+
+	/**
+	 * Specifies the spacing between templates which are tracked. If 1 then a template centered at every pixel is
+	 * tracked. If greater than 1 then only templates on a sparse grid are tracked and the flow at each pixel is
+	 * found using bilinear interpolation. A spacing of 2 requires 1/4 of the work and 4 requires 1/16.
+	 */
+	public void setGridSpacing(int gridSpacing) {
+		if( gridSpacing < 1 )
+			throw new IllegalArgumentException("Grid spacing must be at least 1");
+		this.gridSpacing = gridSpacing;
+	}
 }
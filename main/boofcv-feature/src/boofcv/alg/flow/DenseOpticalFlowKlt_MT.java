@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.flow;
+
+import boofcv.alg.tracker.klt.KltConfig;
+import boofcv.alg.tracker.klt.PyramidKltFeature;
+import boofcv.alg.tracker.klt.PyramidKltTracker;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeObjectConsumer;
+import boofcv.factory.tracker.FactoryTrackerAlg;
+import boofcv.struct.image.ImageGray;
+import boofcv.struct.pyramid.ImagePyramid;
+import org.ddogleg.struct.FastQueue;
+
+/**
+ * Concurrent implementation of {@link DenseOpticalFlowKlt}.  Rows of templates are split between threads and
+ * each thread has its own {@link PyramidKltTracker}.  The found flow is identical to the single threaded version.
+ *
+ * @author Peter Abeles
+ */
+public class DenseOpticalFlowKlt_MT<I extends ImageGray<I>, D extends ImageGray<D>>
+		extends DenseOpticalFlowKlt<I,D>
+{
+	// tracker and feature for each thread
+	private FastQueue<Workspace> workspaces;
+
+	/**
+	 * Configures the tracker
+	 *
+	 * @param config Configuration for the low level KLT tracker which is used by each thread
+	 * @param numLayers Number of layers in the pyramid
+	 * @param radius Radius of square template
+	 * @param inputType Type of input image
+	 * @param derivType Type of derivative image
+	 */
+	public DenseOpticalFlowKlt_MT(final KltConfig config, int numLayers, int radius,
+								  final Class<I> inputType , final Class<D> derivType ) {
+		super(FactoryTrackerAlg.kltPyramid(config, inputType, derivType), numLayers, radius);
+
+		workspaces = new FastQueue<Workspace>((Class)Workspace.class,true) {
+			@Override
+			protected Workspace createInstance() {
+				Workspace w = new Workspace();
+				w.tracker = FactoryTrackerAlg.kltPyramid(config, inputType, derivType);
+				w.feature = new PyramidKltFeature(DenseOpticalFlowKlt_MT.this.numLayers, regionRadius);
+				return w;
+			}
+		};
+	}
+
+	@Override
+	protected void trackRegions(final ImagePyramid<I> prev, final D[] prevDerivX, final D[] prevDerivY,
+								final ImagePyramid<I> curr, int y0, int y1, final int spacing) {
+		BoofConcurrency.loopBlocks(y0, y1, workspaces, new IntRangeObjectConsumer<Workspace>() {
+			@Override
+			public void accept(Workspace w, int y0, int y1) {
+				trackRegions(prev, prevDerivX, prevDerivY, curr, y0, y1, spacing, w.tracker, w.feature);
+			}
+		});
+	}
+
+	/**
+	 * Storage used by a single thread
+	 */
+	private class Workspace {
+		PyramidKltTracker<I,D> tracker;
+		PyramidKltFeature feature;
+	}
+}
@@ -23,6 +23,7 @@ import boofcv.alg.transform.pyramid.PyramidFloatGaussianScale;
 import boofcv.alg.transform.pyramid.PyramidFloatScale;
 import boofcv.core.image.border.BorderType;
 import boofcv.factory.interpolate.FactoryInterpolation;
+import boofcv.struct.flow.ImageFlow;
 import boofcv.struct.image.ImageGray;
 import boofcv.struct.pyramid.PyramidFloat;
 
@@ -118,4 +119,73 @@ public class UtilDenseOpticalFlow {
 			return new PyramidFloatScale<>(interp, scaleFactors, imageType);
 		}
 	}
+
+	/**
+	 * Number of grid points with the specified spacing which lie inside of [start,endExclusive)
+	 */
+	public static int gridLength( int start , int endExclusive , int spacing ) {
+		if( endExclusive <= start )
+			return 0;
+		return (endExclusive - start + spacing - 1)/spacing;
+	}
+
+	/**
+	 * <p>
+	 * Computes a dense flow field from flow which was only found on a sparse grid using bilinear interpolation.
+	 * Grid point (i,j) is located at pixel (offset + i*spacing, offset + j*spacing).  Pixels outside of the grid
+	 * are assigned the value of the closest grid point.
+	 * </p>
+	 *
+	 * <p>
+	 * Invalid grid points are ignored and the weights of the remaining points are normalized.  If all the grid
+	 * points which contribute to a pixel are invalid then the pixel is marked as invalid.
+	 * </p>
+	 *
+	 * @param grid (Input) Flow computed at each grid point
+	 * @param offset Location of the first grid point along each axis
+	 * @param spacing Distance in pixels between grid points
+	 * @param output (Output) Dense flow.  Must already be the desired shape.
+	 */
+	public static void upsampleGrid( ImageFlow grid , int offset , int spacing , ImageFlow output ) {
+		if( grid.width == 0 || grid.height == 0 ) {
+			output.invalidateAll();
+			return;
+		}
+
+		for (int y = 0; y < output.height; y++) {
+			float gy = Math.max(0, Math.min(grid.height - 1, (y - offset)/(float)spacing));
+			int y0 = (int)gy;
+			int y1 = Math.min(y0+1, grid.height - 1);
+			float ay = gy - y0;
+
+			int indexOut = y*output.width;
+			for (int x = 0; x < output.width; x++, indexOut++) {
+				float gx = Math.max(0, Math.min(grid.width - 1, (x - offset)/(float)spacing));
+				int x0 = (int)gx;
+				int x1 = Math.min(x0+1, grid.width - 1);
+				float ax = gx - x0;
+
+				ImageFlow.D f00 = grid.data[y0*grid.width + x0];
+				ImageFlow.D f10 = grid.data[y0*grid.width + x1];
+				ImageFlow.D f01 = grid.data[y1*grid.width + x0];
+				ImageFlow.D f11 = grid.data[y1*grid.width + x1];
+
+				float sumX = 0, sumY = 0, sumW = 0;
+				float w = (1.0f - ax)*(1.0f - ay);
+				if( w > 0 && f00.isValid() ) { sumX += w*f00.x; sumY += w*f00.y; sumW += w; }
+				w = ax*(1.0f - ay);
+				if( w > 0 && f10.isValid() ) { sumX += w*f10.x; sumY += w*f10.y; sumW += w; }
+				w = (1.0f - ax)*ay;
+				if( w > 0 && f01.isValid() ) { sumX += w*f01.x; sumY += w*f01.y; sumW += w; }
+				w = ax*ay;
+				if( w > 0 && f11.isValid() ) { sumX += w*f11.x; sumY += w*f11.y; sumW += w; }
+
+				ImageFlow.D f = output.data[indexOut];
+				if( sumW > 0 )
+					f.set(sumX/sumW, sumY/sumW);
+				else
+					f.markInvalid();
+			}
+		}
+	}
 }
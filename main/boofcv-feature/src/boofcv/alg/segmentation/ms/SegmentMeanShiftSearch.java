@@ -18,13 +18,20 @@
 
 package boofcv.alg.segmentation.ms;
 
+import boofcv.alg.misc.ImageMiscOps;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeObjectConsumer;
+import boofcv.struct.feature.ColorQueue_F32;
 import boofcv.struct.image.GrayS32;
 import boofcv.struct.image.ImageBase;
 import boofcv.struct.image.ImageType;
+import georegression.struct.point.Point2D_F32;
 import georegression.struct.point.Point2D_I32;
 import org.ddogleg.struct.FastQueue;
 import org.ddogleg.struct.GrowQueue_I32;
 
+import java.util.Arrays;
+
 /**
  * <p>
  * Performs the search step in mean-shift image segmentation [1].  The mode of a pixel is the point at which mean-shift
@@ -48,6 +55,15 @@ import org.ddogleg.struct.GrowQueue_I32;
  * </p>
  *
  * <p>
+ * The search can be run concurrently by setting {@link #setConcurrent(boolean)}.  The image is broken up into
+ * blocks of rows and each block is searched by a different thread with its own list of modes.  After all the
+ * blocks have been searched their modes are merged, in block order, into the output lists.  When the fast
+ * approximation is turned off the output is identical to running on a single thread.  When it is turned on
+ * a trajectory is only used to label pixels inside the block it started in, so the results will vary slightly
+ * with the number of threads.
+ * </p>
+ *
+ * <p>
  * NOTES:
  * <ul>
  * <li>Spacial distance is normalized by dividing the found Euclidean distance squared by the maximum possible
@@ -111,8 +127,13 @@ public abstract class SegmentMeanShiftSearch<T extends ImageBase<T>> {
 	// The input image
 	protected T image;
 
-	// mode of mean-shift
-	protected float modeX, modeY;
+	// If true then blocks of rows will be searched concurrently
+	protected boolean concurrent = false;
+
+	// Workspace used when processing with a single thread.  Uses the interpolation passed in to the constructor
+	protected Workspace workspace;
+	// Workspace for each thread when processing concurrently.  Declared the first time it's needed
+	protected FastQueue<Workspace> workspaces;
 
 	/**
 	 * Configures mean-shift segmentation
@@ -162,6 +183,158 @@ public abstract class SegmentMeanShiftSearch<T extends ImageBase<T>> {
 	 */
 	public abstract void process( T image );
 
+	/**
+	 * Runs mean-shift starting at every pixel in the image then merges the results into the output lists.
+	 * If concurrent then blocks of rows are searched by different threads.
+	 *
+	 * @param image Input image
+	 */
+	protected void searchImage( final T image ) {
+		// initialize data structures
+		this.image = image;
+
+		modeLocation.reset();
+		modeColor.reset();
+		modeMemberCount.reset();
+
+		pixelToMode.reshape(image.width, image.height);
+		quickMode.reshape(image.width, image.height);
+		// mark as -1 so it knows which pixels have been assigned a mode already and can skip them
+		ImageMiscOps.fill(pixelToMode, -1);
+		// mark all pixels are not being a mode
+		ImageMiscOps.fill(quickMode,-1);
+
+		if( concurrent ) {
+			if( workspaces == null ) {
+				workspaces = new FastQueue<Workspace>((Class)Workspace.class,true) {
+					@Override
+					protected Workspace createInstance() {
+						return createWorkspace();
+					}
+				};
+			}
+			BoofConcurrency.loopBlocks(0, image.height, workspaces, new IntRangeObjectConsumer<Workspace>() {
+				@Override
+				public void accept(Workspace w, int row0, int row1) {
+					w.setImage(image);
+					searchRows(w, row0, row1);
+				}
+			});
+			// blocks are merged in order so that the modes are in the same order as a single thread would find them
+			for( int i = 0; i < workspaces.size; i++ ) {
+				mergeModes(workspaces.get(i));
+			}
+		} else {
+			workspace.setImage(image);
+			searchRows(workspace, 0, image.height);
+			mergeModes(workspace);
+		}
+	}
+
+	/**
+	 * Runs mean-shift starting at every pixel inside the specified rows.  Modes are saved inside the workspace
+	 * and pixels are labeled using the index of the mode in the workspace.
+	 *
+	 * @param row0 First row.  Inclusive.
+	 * @param row1 Last row.  Exclusive.
+	 */
+	protected void searchRows( Workspace w , int row0 , int row1 ) {
+		w.reset(row0, row1);
+
+		// use mean shift to find the peak of each pixel in the image
+		int indexImg = row0*image.width;
+		for( int y = row0; y < row1; y++ ) {
+			for( int x = 0; x < image.width; x++ , indexImg++ ) {
+				if( pixelToMode.data[indexImg] != -1 ) {
+					int peakIndex = pixelToMode.data[indexImg];
+					w.modeMemberCount.data[peakIndex]++;
+					continue;
+				}
+
+				findPeak(w, x, y);
+
+				// convert mean-shift location into pixel index
+				int modeX = (int)(w.modeX +0.5f);
+				int modeY = (int)(w.modeY +0.5f);
+
+				int modePixelIndex = modeY*image.width + modeX;
+
+				// get index in the list of peaks
+				int modeIndex = w.pixelToLocalMode[modePixelIndex];
+				// If the mode is new add it to the list
+				if( modeIndex < 0 ) {
+					modeIndex = w.modeLocation.size();
+					w.modeLocation.grow().set(modeX, modeY);
+					w.modePixelIndex.add(modePixelIndex);
+					// Save the peak's color
+					w.getMeanColor(w.modeColor.grow());
+					// Mark the mode
+					w.pixelToLocalMode[modePixelIndex] = modeIndex;
+					// Set the initial count to zero. This will be incremented when it is traversed later on
+					w.modeMemberCount.add(0);
+				}
+
+				// add this pixel to the membership list
+				w.modeMemberCount.data[modeIndex]++;
+
+				// Add all pixels it traversed through to the membership of this mode
+				// This is an approximate of mean-shift
+				for( int i = 0; i < w.history.size; i++ ) {
+					Point2D_F32 p = w.history.get(i);
+					int px = (int)(p.x+0.5f);
+					int py = (int)(p.y+0.5f);
+
+					// rows outside of this block belong to a different thread
+					if( py < row0 || py >= row1 )
+						continue;
+
+					int index = pixelToMode.getIndex(px,py);
+					if( pixelToMode.data[index] == -1 ) {
+						pixelToMode.data[index] = modeIndex;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Adds the modes found in a block to the output lists and relabels the block's pixels using the output index
+	 */
+	protected void mergeModes( Workspace w ) {
+		w.localToGlobal.resize(w.modeLocation.size);
+
+		for( int i = 0; i < w.modeLocation.size; i++ ) {
+			int modePixelIndex = w.modePixelIndex.data[i];
+
+			int modeIndex = quickMode.data[modePixelIndex];
+			if( modeIndex < 0 ) {
+				modeIndex = modeLocation.size();
+				modeLocation.grow().set(w.modeLocation.get(i));
+				System.arraycopy(w.modeColor.get(i),0,modeColor.grow(),0,w.modeColor.get(i).length);
+				quickMode.data[modePixelIndex] = modeIndex;
+				modeMemberCount.add(0);
+			}
+			modeMemberCount.data[modeIndex] += w.modeMemberCount.data[i];
+			w.localToGlobal.data[i] = modeIndex;
+		}
+
+		int index0 = w.row0*image.width;
+		int index1 = w.row1*image.width;
+		for( int i = index0; i < index1; i++ ) {
+			pixelToMode.data[i] = w.localToGlobal.data[pixelToMode.data[i]];
+		}
+	}
+
+	/**
+	 * Runs mean-shift starting at the specified pixel.  The location of the mode is saved in the workspace.
+	 */
+	protected abstract void findPeak( Workspace w , int x , int y );
+
+	/**
+	 * Creates a workspace for a thread with its own interpolation
+	 */
+	protected abstract Workspace createWorkspace();
+
 	/**
 	 * Returns the Euclidean distance squared between the two vectors
 	 */
@@ -221,4 +394,80 @@ public abstract class SegmentMeanShiftSearch<T extends ImageBase<T>> {
 	}
 
 	public abstract ImageType<T> getImageType();
+
+	public boolean isConcurrent() {
+		return concurrent;
+	}
+
+	/**
+	 * If true then blocks of rows will be searched concurrently.
+	 */
+	public void setConcurrent(boolean concurrent) {
+		this.concurrent = concurrent;
+	}
+
+	/**
+	 * Storage used while searching a block of rows.  Each thread has its own workspace
+	 */
+	protected abstract class Workspace {
+		// rows in the image being searched.  [row0, row1)
+		protected int row0, row1;
+
+		// Mean-shift trajectory history
+		protected FastQueue<Point2D_F32> history = new FastQueue<>(Point2D_F32.class, true);
+
+		// mode of mean-shift
+		protected float modeX, modeY;
+
+		// modes found inside the block.  Location, color, number of members, and pixel index
+		protected FastQueue<Point2D_I32> modeLocation = new FastQueue<>(Point2D_I32.class, true);
+		protected FastQueue<float[]> modeColor;
+		protected GrowQueue_I32 modeMemberCount = new GrowQueue_I32();
+		protected GrowQueue_I32 modePixelIndex = new GrowQueue_I32();
+
+		// look up table from the pixel index of a mode to its index in this block.  -1 if not a mode.
+		// Modes can be outside the block's rows so it covers the entire image
+		protected int[] pixelToLocalMode = new int[0];
+
+		// converts the index of a mode in this block into the index in the output lists
+		protected GrowQueue_I32 localToGlobal = new GrowQueue_I32();
+
+		protected Workspace( int numBands ) {
+			modeColor = new ColorQueue_F32(numBands);
+		}
+
+		protected void reset( int row0 , int row1 ) {
+			this.row0 = row0;
+			this.row1 = row1;
+
+			// only the pixels which were marked as modes need to be cleared
+			for( int i = 0; i < modePixelIndex.size; i++ ) {
+				pixelToLocalMode[modePixelIndex.data[i]] = -1;
+			}
+			int numPixels = image.width*image.height;
+			if( pixelToLocalMode.length < numPixels ) {
+				pixelToLocalMode = new int[numPixels];
+				Arrays.fill(pixelToLocalMode, -1);
+			}
+
+			modeLocation.reset();
+			modeColor.reset();
+			modeMemberCount.reset();
+			modePixelIndex.reset();
+		}
+
+		/**
+		 * Returns true if the pixel is inside the rows being searched
+		 */
+		protected boolean isInside( int y ) {
+			return y >= row0 && y < row1;
+		}
+
+		protected abstract void setImage( T image );
+
+		/**
+		 * Copies the mean color of the most recent mean-shift search
+		 */
+		protected abstract void getMeanColor( float[] color );
+	}
 }
@@ -19,7 +19,6 @@
 package boofcv.alg.segmentation.ms;
 
 import boofcv.alg.interpolate.InterpolatePixelMB;
-import boofcv.alg.misc.ImageMiscOps;
 import boofcv.struct.feature.ColorQueue_F32;
 import boofcv.struct.image.ImageMultiBand;
 import boofcv.struct.image.ImageType;
@@ -41,14 +40,6 @@ public class SegmentMeanShiftSearchColor<T extends ImageMultiBand<T>> extends Se
 	// Interpolation routine used to get sub-pixel samples
 	protected InterpolatePixelMB<T> interpolate;
 
-	// storage for interpolated pixel value
-	protected float[] pixelColor;
-	protected float[] meanColor;
-	protected float[] sumColor;
-
-	// Mean-shift trajectory history
-	protected FastQueue<Point2D_F32> history = new FastQueue<>(Point2D_F32.class, true);
-
 	ImageType<T> imageType;
 
 	public SegmentMeanShiftSearchColor(int maxIterations, float convergenceTol,
@@ -58,14 +49,12 @@ public class SegmentMeanShiftSearchColor<T extends ImageMultiBand<T>> extends Se
 									   ImageType<T> imageType) {
 		super(maxIterations,convergenceTol,radiusX,radiusY,maxColorDistance,fast);
 		this.interpolate = interpolate;
-		this.pixelColor = new float[ imageType.getNumBands() ];
-		this.meanColor = new float[ imageType.getNumBands() ];
-		this.sumColor = new float[ imageType.getNumBands() ];
 		this.imageType = imageType;
 
 		final int numBands = imageType.getNumBands();
 
 		modeColor = new ColorQueue_F32(numBands);
+		workspace = new WorkspaceColor(interpolate);
 	}
 
 	/**
@@ -75,77 +64,32 @@ public class SegmentMeanShiftSearchColor<T extends ImageMultiBand<T>> extends Se
 	 */
 	@Override
 	public void process( T image ) {
-		// initialize data structures
-		this.image = image;
-
-		modeLocation.reset();
-		modeColor.reset();
-		modeMemberCount.reset();
-
-		interpolate.setImage(image);
-
-		pixelToMode.reshape(image.width, image.height);
-		quickMode.reshape(image.width, image.height);
-		// mark as -1 so it knows which pixels have been assigned a mode already and can skip them
-		ImageMiscOps.fill(pixelToMode, -1);
-		// mark all pixels are not being a mode
-		ImageMiscOps.fill(quickMode,-1);
-
-		// use mean shift to find the peak of each pixel in the image
-		int indexImg = 0;
-		for( int y = 0; y < image.height; y++ ) {
-			for( int x = 0; x < image.width; x++ , indexImg++ ) {
-				if( pixelToMode.data[indexImg] != -1 ) {
-					int peakIndex = pixelToMode.data[indexImg];
-					modeMemberCount.data[peakIndex]++;
-					continue;
-				}
-
-				interpolate.get(x, y, meanColor);
-				findPeak(x,y, meanColor);
-
-				// convert mean-shift location into pixel index
-				int modeX = (int)(this.modeX +0.5f);
-				int modeY = (int)(this.modeY +0.5f);
-
-				int modePixelIndex = modeY*image.width + modeX;
-
-				// get index in the list of peaks
-				int modeIndex = quickMode.data[modePixelIndex];
-				// If the mode is new add it to the list
-				if( modeIndex < 0 ) {
-					modeIndex = this.modeLocation.size();
-					this.modeLocation.grow().set(modeX, modeY);
-					// Save the peak's color
-					savePeakColor(meanColor);
-					// Mark the mode in the segment image
-					quickMode.data[modePixelIndex] = modeIndex;
-					// Set the initial count to zero. This will be incremented when it is traversed later on
-					modeMemberCount.add(0);
-				}
+		searchImage(image);
+	}
 
-				// add this pixel to the membership list
-				modeMemberCount.data[modeIndex]++;
+	@Override
+	public ImageType<T> getImageType() {
+		return imageType;
+	}
 
-				// Add all pixels it traversed through to the membership of this mode
-				// This is an approximate of mean-shift
-				for( int i = 0; i < history.size; i++ ) {
-					Point2D_F32 p = history.get(i);
-					int px = (int)(p.x+0.5f);
-					int py = (int)(p.y+0.5f);
+	/**
+	 * Creates the interpolation used by each thread when processing concurrently.  A copy of the
+	 * interpolation passed into the constructor, so that it has the same type and border.
+	 */
+	protected InterpolatePixelMB<T> createInterpolate() {
+		return interpolate.copy();
+	}
 
-					int index = pixelToMode.getIndex(px,py);
-					if( pixelToMode.data[index] == -1 ) {
-						pixelToMode.data[index] = modeIndex;
-					}
-				}
-			}
-		}
+	@Override
+	protected Workspace createWorkspace() {
+		return new WorkspaceColor(createInterpolate());
 	}
 
 	@Override
-	public ImageType<T> getImageType() {
-		return imageType;
+	protected void findPeak( Workspace w , int x , int y ) {
+		WorkspaceColor wc = (WorkspaceColor)w;
+		wc.interpolate.get(x, y, wc.meanColor);
+		findPeak(wc, x, y, wc.meanColor);
 	}
 
 	/**
@@ -153,7 +97,11 @@ public class SegmentMeanShiftSearchColor<T extends ImageMultiBand<T>> extends Se
 	 *
 	 * @param meanColor The color value which mean-shift is trying to find a region which minimises it
 	 */
-	protected void findPeak( float cx , float cy , float[] meanColor ) {
+	protected void findPeak( WorkspaceColor w , float cx , float cy , float[] meanColor ) {
+		InterpolatePixelMB<T> interpolate = w.interpolate;
+		FastQueue<Point2D_F32> history = w.history;
+		float[] pixelColor = w.pixelColor;
+		float[] sumColor = w.sumColor;
 
 		history.reset();
 		history.grow().set(cx,cy);
@@ -228,14 +176,17 @@ public class SegmentMeanShiftSearchColor<T extends ImageMultiBand<T>> extends Se
 				int px = (int)(peakX+0.5f);
 				int py = (int)(peakY+0.5f);
 
-				int index = pixelToMode.getIndex(px,py);
-				int modeIndex = pixelToMode.data[index];
-				if( modeIndex != -1 ) {
-					// it already knows the solution so stop searching
-					Point2D_I32 modeP = modeLocation.get(modeIndex);
-					this.modeX = modeP.x;
-					this.modeY = modeP.y;
-					return;
+				// only pixels in this thread's rows can be looked at
+				if( w.isInside(py) ) {
+					int index = pixelToMode.getIndex(px, py);
+					int modeIndex = pixelToMode.data[index];
+					if( modeIndex != -1 ) {
+						// it already knows the solution so stop searching
+						Point2D_I32 modeP = w.modeLocation.get(modeIndex);
+						w.modeX = modeP.x;
+						w.modeY = modeP.y;
+						return;
+					}
 				}
 			}
 
@@ -251,8 +202,8 @@ public class SegmentMeanShiftSearchColor<T extends ImageMultiBand<T>> extends Se
 			}
 		}
 
-		this.modeX = cx;
-		this.modeY = cy;
+		w.modeX = cx;
+		w.modeY = cy;
 	}
 
 	protected static void meanColor( float[] sum, float[] mean , float total ) {
@@ -267,10 +218,34 @@ public class SegmentMeanShiftSearchColor<T extends ImageMultiBand<T>> extends Se
 		}
 	}
 
-	protected void savePeakColor( float[] a ) {
-		float[] b = modeColor.grow();
-		for( int i = 0; i < a.length; i++ ) {
-			b[i] = a[i];
+	/**
+	 * Workspace with its own interpolation and color storage
+	 */
+	protected class WorkspaceColor extends Workspace {
+		// Interpolation routine used to get sub-pixel samples
+		protected InterpolatePixelMB<T> interpolate;
+
+		// storage for interpolated pixel value
+		protected float[] pixelColor;
+		protected float[] meanColor;
+		protected float[] sumColor;
+
+		protected WorkspaceColor(InterpolatePixelMB<T> interpolate) {
+			super(imageType.getNumBands());
+			this.interpolate = interpolate;
+			this.pixelColor = new float[ imageType.getNumBands() ];
+			this.meanColor = new float[ imageType.getNumBands() ];
+			this.sumColor = new float[ imageType.getNumBands() ];
+		}
+
+		@Override
+		protected void setImage(T image) {
+			interpolate.setImage(image);
+		}
+
+		@Override
+		protected void getMeanColor(float[] color) {
+			System.arraycopy(meanColor, 0, color, 0, meanColor.length);
 		}
 	}
 }
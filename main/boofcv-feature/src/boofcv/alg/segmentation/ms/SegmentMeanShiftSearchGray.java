@@ -19,7 +19,6 @@
 package boofcv.alg.segmentation.ms;
 
 import boofcv.alg.interpolate.InterpolatePixelS;
-import boofcv.alg.misc.ImageMiscOps;
 import boofcv.struct.feature.ColorQueue_F32;
 import boofcv.struct.image.ImageGray;
 import boofcv.struct.image.ImageType;
@@ -39,11 +38,6 @@ public class SegmentMeanShiftSearchGray<T extends ImageGray<T>> extends SegmentM
 	// Interpolation routine used to get sub-pixel samples
 	protected InterpolatePixelS<T> interpolate;
 
-	protected float meanGray;
-
-	// Mean-shift trajectory history
-	protected FastQueue<Point2D_F32> history = new FastQueue<>(Point2D_F32.class, true);
-
 	public SegmentMeanShiftSearchGray(int maxIterations, float convergenceTol,
 									  InterpolatePixelS<T> interpolate,
 									  int radiusX , int radiusY , float maxColorDistance,
@@ -52,6 +46,7 @@ public class SegmentMeanShiftSearchGray<T extends ImageGray<T>> extends SegmentM
 		this.interpolate = interpolate;
 
 		modeColor = new ColorQueue_F32(1);
+		workspace = new WorkspaceGray(interpolate);
 	}
 
 	/**
@@ -61,77 +56,31 @@ public class SegmentMeanShiftSearchGray<T extends ImageGray<T>> extends SegmentM
 	 */
 	@Override
 	public void process( T image ) {
-		// initialize data structures
-		this.image = image;
-
-		modeLocation.reset();
-		modeColor.reset();
-		modeMemberCount.reset();
-
-		interpolate.setImage(image);
-
-		pixelToMode.reshape(image.width, image.height);
-		quickMode.reshape(image.width, image.height);
-		// mark as -1 so it knows which pixels have been assigned a mode already and can skip them
-		ImageMiscOps.fill(pixelToMode, -1);
-		// mark all pixels are not being a mode
-		ImageMiscOps.fill(quickMode,-1);
-
-		// use mean shift to find the peak of each pixel in the image
-		int indexImg = 0;
-		for( int y = 0; y < image.height; y++ ) {
-			for( int x = 0; x < image.width; x++ , indexImg++) {
-				if( pixelToMode.data[indexImg] != -1 ) {
-					int peakIndex = pixelToMode.data[indexImg];
-					modeMemberCount.data[peakIndex]++;
-					continue;
-				}
-
-				float meanColor = interpolate.get(x, y);
-				findPeak(x,y, meanColor);
-
-				// convert mean-shift location into pixel index
-				int modeX = (int)(this.modeX +0.5f);
-				int modeY = (int)(this.modeY +0.5f);
-
-				int modePixelIndex = modeY*image.width + modeX;
-
-				// get index in the list of peaks
-				int modeIndex = quickMode.data[modePixelIndex];
-				// If the mode is new add it to the list
-				if( modeIndex < 0 ) {
-					modeIndex = this.modeLocation.size();
-					this.modeLocation.grow().set(modeX, modeY);
-					// Save the peak's color
-					modeColor.grow()[0] = meanGray;
-					// Mark the mode in the segment image
-					quickMode.data[modePixelIndex] = modeIndex;
-					// Set the initial count to zero. This will be incremented when it is traversed later on
-					modeMemberCount.add(0);
-				}
+		searchImage(image);
+	}
 
-				// add this pixel to the membership list
-				modeMemberCount.data[modeIndex]++;
+	@Override
+	public ImageType<T> getImageType() {
+		return interpolate.getImageType();
+	}
 
-				// Add all pixels it traversed through to the membership of this mode
-				// This is an approximate of mean-shift
-				for( int i = 0; i < history.size; i++ ) {
-					Point2D_F32 p = history.get(i);
-					int px = (int)(p.x+0.5f);
-					int py = (int)(p.y+0.5f);
+	/**
+	 * Creates the interpolation used by each thread when processing concurrently.  A copy of the
+	 * interpolation passed into the constructor, so that it has the same type and border.
+	 */
+	protected InterpolatePixelS<T> createInterpolate() {
+		return interpolate.copy();
+	}
 
-					int index = pixelToMode.getIndex(px,py);
-					if( pixelToMode.data[index] == -1 ) {
-						pixelToMode.data[index] = modeIndex;
-					}
-				}
-			}
-		}
+	@Override
+	protected Workspace createWorkspace() {
+		return new WorkspaceGray(createInterpolate());
 	}
 
 	@Override
-	public ImageType<T> getImageType() {
-		return interpolate.getImageType();
+	protected void findPeak( Workspace w , int x , int y ) {
+		WorkspaceGray wg = (WorkspaceGray)w;
+		findPeak(wg, x, y, wg.interpolate.get(x, y));
 	}
 
 	/**
@@ -139,7 +88,9 @@ public class SegmentMeanShiftSearchGray<T extends ImageGray<T>> extends SegmentM
 	 *
 	 * @param gray The color value which mean-shift is trying to find a region which minimises it
 	 */
-	protected void findPeak( float cx , float cy , float gray ) {
+	protected void findPeak( WorkspaceGray w , float cx , float cy , float gray ) {
+		InterpolatePixelS<T> interpolate = w.interpolate;
+		FastQueue<Point2D_F32> history = w.history;
 
 		history.reset();
 		history.grow().set(cx,cy);
@@ -214,14 +165,17 @@ public class SegmentMeanShiftSearchGray<T extends ImageGray<T>> extends SegmentM
 				int px = (int)(peakX+0.5f);
 				int py = (int)(peakY+0.5f);
 
-				int index = pixelToMode.getIndex(px,py);
-				int modeIndex = pixelToMode.data[index];
-				if( modeIndex != -1 ) {
-					// it already knows the solution so stop searching
-					Point2D_I32 modeP = modeLocation.get(modeIndex);
-					this.modeX = modeP.x;
-					this.modeY = modeP.y;
-					return;
+				// only pixels in this thread's rows can be looked at
+				if( w.isInside(py) ) {
+					int index = pixelToMode.getIndex(px, py);
+					int modeIndex = pixelToMode.data[index];
+					if( modeIndex != -1 ) {
+						// it already knows the solution so stop searching
+						Point2D_I32 modeP = w.modeLocation.get(modeIndex);
+						w.modeX = modeP.x;
+						w.modeY = modeP.y;
+						return;
+					}
 				}
 			}
 
@@ -236,8 +190,33 @@ public class SegmentMeanShiftSearchGray<T extends ImageGray<T>> extends SegmentM
 			}
 		}
 
-		this.modeX = cx;
-		this.modeY = cy;
-		this.meanGray = gray;
+		w.modeX = cx;
+		w.modeY = cy;
+		w.meanGray = gray;
+	}
+
+	/**
+	 * Workspace with its own interpolation
+	 */
+	protected class WorkspaceGray extends Workspace {
+		// Interpolation routine used to get sub-pixel samples
+		protected InterpolatePixelS<T> interpolate;
+
+		protected float meanGray;
+
+		protected WorkspaceGray(InterpolatePixelS<T> interpolate) {
+			super(1);
+			this.interpolate = interpolate;
+		}
+
+		@Override
+		protected void setImage(T image) {
+			interpolate.setImage(image);
+		}
+
+		@Override
+		protected void getMeanColor(float[] color) {
+			color[0] = meanGray;
+		}
 	}
 }
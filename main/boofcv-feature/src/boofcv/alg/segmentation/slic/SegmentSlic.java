@@ -22,6 +22,9 @@ import boofcv.alg.InputSanityCheck;
 import boofcv.alg.segmentation.ComputeRegionMeanColor;
 import boofcv.alg.segmentation.ms.ClusterLabeledImage;
 import boofcv.alg.segmentation.ms.MergeSmallRegions;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeConsumer;
+import boofcv.concurrency.IntRangeObjectConsumer;
 import boofcv.factory.segmentation.FactorySegmentationAlg;
 import boofcv.struct.ConnectRule;
 import boofcv.struct.feature.ColorQueue_F32;
@@ -29,6 +32,7 @@ import boofcv.struct.image.GrayS32;
 import boofcv.struct.image.ImageBase;
 import boofcv.struct.image.ImageType;
 import org.ddogleg.struct.FastQueue;
+import org.ddogleg.struct.GrowQueue_F32;
 import org.ddogleg.struct.GrowQueue_I32;
 
 import java.util.Arrays;
@@ -56,6 +60,14 @@ import java.util.Arrays;
  * </p>
  *
  * <p>
+ * Each pixel's weight for a cluster depends on the distance to every cluster near it.  Instead of saving a list
+ * of clusters for each pixel only the sum of distances, the number of clusters, and the closest cluster are saved.
+ * When a cluster is updated the distance is recomputed.  This uses a constant amount of memory per pixel and
+ * allows the assignment step to be processed concurrently by rows and the update step by clusters, without
+ * changing the results. See {@link #setConcurrent(boolean)}.
+ * </p>
+ *
+ * <p>
  * [1] Radhakrishna Achanta, Appu Shaji, Kevin Smith, Aurelien Lucchi, Pascal Fua, and Sabine Süsstrunk,
  * SLIC Superpixels, EPFL Technical Report no. 149300, June 2010.
  * </p>
@@ -82,7 +94,7 @@ public abstract class SegmentSlic<T extends ImageBase<T>> {
 	// Space between superpixel centers.  S in the paper
 	protected int gridInterval;
 	// Adjustment to spacial distance.  Computed from m and gridInterval
-	private float adjustSpacial;
+	protected float adjustSpacial;
 
 	// The image being processed
 	protected T input;
@@ -99,9 +111,23 @@ public abstract class SegmentSlic<T extends ImageBase<T>> {
 	// ensures that all pixels in segment are connected
 	protected ClusterLabeledImage segment;
 
-	// storage for clusters and pixel information
+	// storage for clusters
 	protected FastQueue<Cluster> clusters;
-	protected FastQueue<Pixel> pixels = new FastQueue<>(Pixel.class, true);
+
+	// K-means information for each pixel.  Index = y*width + x
+	// sum of distances to all the clusters which are near the pixel
+	protected GrowQueue_F32 pixelSumDistance = new GrowQueue_F32();
+	// number of clusters which are near the pixel
+	protected GrowQueue_I32 pixelCount = new GrowQueue_I32();
+	// ID of the closest cluster.  -1 if there are none
+	protected GrowQueue_I32 pixelBestCluster = new GrowQueue_I32();
+	// distance to the closest cluster
+	protected GrowQueue_F32 pixelBestDistance = new GrowQueue_F32();
+
+	// If true then the k-means steps will be processed concurrently
+	protected boolean concurrent = false;
+	// storage for the color sum of a cluster.  One for each thread
+	private FastQueue<GrowQueue_F32> workColor = new FastQueue<>(GrowQueue_F32.class, true);
 
 	// type of input image
 	protected ImageType<T> imageType;
@@ -168,7 +194,11 @@ public abstract class SegmentSlic<T extends ImageBase<T>> {
 	 */
 	protected void initalize(T input) {
 		this.input = input;
-		pixels.resize(input.width * input.height);
+		int N = input.width * input.height;
+		pixelSumDistance.resize(N);
+		pixelCount.resize(N);
+		pixelBestCluster.resize(N);
+		pixelBestDistance.resize(N);
 		initialSegments.reshape(input.width, input.height);
 
 		// number of usable pixels that cluster centers can be placed in
@@ -263,9 +293,32 @@ public abstract class SegmentSlic<T extends ImageBase<T>> {
 	 * Computes how far away each cluster is from each pixel.  Expectation step.
 	 */
 	protected void computeClusterDistance() {
-		for( int i = 0; i < pixels.size; i++ ) {
-			pixels.data[i].reset();
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, input.height, new IntRangeConsumer() {
+				@Override
+				public void accept(int y0, int y1) {
+					computeClusterDistance(y0, y1);
+				}
+			});
+		} else {
+			computeClusterDistance(0, input.height);
 		}
+	}
+
+	/**
+	 * Computes the distance of clusters from pixels inside the specified rows.  Clusters are always processed
+	 * in the same order, so the results don't depend on how the rows are split up.
+	 *
+	 * @param rowStart First row.  Inclusive.
+	 * @param rowEnd Last row.  Exclusive.
+	 */
+	protected void computeClusterDistance( int rowStart , int rowEnd ) {
+		int index0 = rowStart*input.width;
+		int index1 = rowEnd*input.width;
+		Arrays.fill(pixelSumDistance.data, index0, index1, 0);
+		Arrays.fill(pixelCount.data, index0, index1, 0);
+		Arrays.fill(pixelBestCluster.data, index0, index1, -1);
+		Arrays.fill(pixelBestDistance.data, index0, index1, Float.MAX_VALUE);
 
 		for( int i = 0; i < clusters.size; i++ ) {
 			Cluster c = clusters.data[i];
@@ -278,9 +331,9 @@ public abstract class SegmentSlic<T extends ImageBase<T>> {
 			int y0 = centerY - gridInterval; int y1 = centerY + gridInterval + 1;
 
 			if( x0 < 0 ) x0 = 0;
-			if( y0 < 0 ) y0 = 0;
+			if( y0 < rowStart ) y0 = rowStart;
 			if( x1 > input.width ) x1 = input.width;
-			if( y1 > input.height ) y1 = input.height;
+			if( y1 > rowEnd ) y1 = rowEnd;
 
 			for( int y = y0; y < y1; y++ ) {
 				int indexPixel = y*input.width + x0;
@@ -288,12 +341,19 @@ public abstract class SegmentSlic<T extends ImageBase<T>> {
 
 				int dy = y-centerY;
 
-				for( int x = x0; x < x1; x++ ) {
+				for( int x = x0; x < x1; x++ , indexPixel++ ) {
 					int dx = x-centerX;
 
 					float distanceColor = colorDistance(c.color,indexInput++);
 					float distanceSpacial = dx*dx + dy*dy;
-					pixels.data[indexPixel++].add(c,distanceColor + adjustSpacial*distanceSpacial);
+					float distance = distanceColor + adjustSpacial*distanceSpacial;
+
+					pixelSumDistance.data[indexPixel] += distance;
+					pixelCount.data[indexPixel]++;
+					if( distance < pixelBestDistance.data[indexPixel] ) {
+						pixelBestDistance.data[indexPixel] = distance;
+						pixelBestCluster.data[indexPixel] = c.id;
+					}
 				}
 			}
 		}
@@ -303,32 +363,79 @@ public abstract class SegmentSlic<T extends ImageBase<T>> {
 	 * Update the value of each cluster using  Maximization step.
 	 */
 	protected void updateClusters() {
-		for( int i = 0; i < clusters.size; i++ ) {
-			clusters.data[i].reset();
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, clusters.size, workColor, new IntRangeObjectConsumer<GrowQueue_F32>() {
+				@Override
+				public void accept(GrowQueue_F32 sumColor, int index0, int index1) {
+					updateClusters(index0, index1, sumColor);
+				}
+			});
+		} else {
+			workColor.resize(1);
+			updateClusters(0, clusters.size, workColor.get(0));
 		}
+	}
 
-		int indexPixel = 0;
-		for( int y = 0; y < input.height; y++ ) {
-			int indexInput = input.startIndex + y*input.stride;
-			for( int x =0; x < input.width; x++ , indexPixel++ , indexInput++) {
-				Pixel p = pixels.get(indexPixel);
-
-				// convert the distance each cluster is from the pixel into weights
-				p.computeWeights();
-
-				for( int i = 0; i < p.clusters.size; i++ ) {
-					ClusterDistance d = p.clusters.data[i];
-					d.cluster.x += x*d.distance;
-					d.cluster.y += y*d.distance;
-					d.cluster.totalWeight += d.distance;
-					addColor(d.cluster.color,indexInput,d.distance);
+	/**
+	 * Updates the specified clusters.  The weight a pixel has for each cluster is computed from the sum
+	 * of distances found in the expectation step and the recomputed distance from the cluster.
+	 *
+	 * @param sumColor Storage for the weighted sum of colors
+	 */
+	protected void updateClusters( int index0 , int index1 , GrowQueue_F32 sumColor ) {
+		sumColor.resize(numBands);
+
+		for( int i = index0; i < index1; i++ ) {
+			Cluster c = clusters.data[i];
+
+			// compute search bounds.  Same as in the expectation step
+			int centerX = (int)(c.x + 0.5f);
+			int centerY = (int)(c.y + 0.5f);
+
+			int x0 = centerX - gridInterval; int x1 = centerX + gridInterval + 1;
+			int y0 = centerY - gridInterval; int y1 = centerY + gridInterval + 1;
+
+			if( x0 < 0 ) x0 = 0;
+			if( y0 < 0 ) y0 = 0;
+			if( x1 > input.width ) x1 = input.width;
+			if( y1 > input.height ) y1 = input.height;
+
+			float sumX = 0, sumY = 0, totalWeight = 0;
+			Arrays.fill(sumColor.data, 0, numBands, 0);
+
+			for( int y = y0; y < y1; y++ ) {
+				int indexPixel = y*input.width + x0;
+				int indexInput = input.startIndex + y*input.stride + x0;
+
+				int dy = y-centerY;
+
+				for( int x = x0; x < x1; x++ , indexPixel++ , indexInput++ ) {
+					// convert the distance the cluster is from the pixel into a weight
+					float weight;
+					if( pixelCount.data[indexPixel] == 1 ) {
+						weight = 1;
+					} else {
+						int dx = x-centerX;
+
+						float distanceColor = colorDistance(c.color,indexInput);
+						float distanceSpacial = dx*dx + dy*dy;
+						float distance = distanceColor + adjustSpacial*distanceSpacial;
+						weight = 1.0f - distance/pixelSumDistance.data[indexPixel];
+					}
+
+					sumX += x*weight;
+					sumY += y*weight;
+					totalWeight += weight;
+					addColor(sumColor.data,indexInput,weight);
 				}
 			}
-		}
 
-		// recompute the center of each cluster
-		for( int i = 0; i < clusters.size; i++ ) {
-			clusters.data[i].update();
+			// recompute the center of the cluster
+			c.x = sumX;
+			c.y = sumY;
+			c.totalWeight = totalWeight;
+			System.arraycopy(sumColor.data, 0, c.color, 0, numBands);
+			c.update();
 		}
 	}
 
@@ -355,20 +462,11 @@ public abstract class SegmentSlic<T extends ImageBase<T>> {
 		for( int y = 0; y < pixelToRegions.height; y++ ) {
 			int indexOutput = pixelToRegions.startIndex + y*pixelToRegions.stride;
 			for( int x =0; x < pixelToRegions.width; x++ , indexPixel++ , indexOutput++) {
-				Pixel p = pixels.data[indexPixel];
+				// the region/cluster which it is closest to
+				int best = pixelBestCluster.data[indexPixel];
 
 				// It is possible for a pixel to be unassigned if all the means move too far away from it
 				// Default to a non-existant cluster if that's the case
-				int best = -1;
-				float bestDistance = Float.MAX_VALUE;
-				// find the region/cluster which it is closest to
-				for( int j = 0; j < p.clusters.size; j++ ) {
-					ClusterDistance d = p.clusters.data[j];
-					if( d.distance < bestDistance ) {
-						bestDistance = d.distance;
-						best = d.cluster.id;
-					}
-				}
 				if( best == -1 ) {
 					regionColor.grow();
 					best = regionMemberCount.size();
@@ -389,50 +487,16 @@ public abstract class SegmentSlic<T extends ImageBase<T>> {
 		return clusters;
 	}
 
-	/**
-	 * K-means clustering information for each pixel.  Stores distance from each cluster mean.
-	 */
-	public static class Pixel
-	{
-		// list of clusters it is interacting with
-		public FastQueue<ClusterDistance> clusters = new FastQueue<>(12, ClusterDistance.class, true);
-
-		public void add( Cluster c , float distance ) {
-			// make sure it isn't already full.  THis should almost never happen
-			ClusterDistance d = clusters.grow();
-
-			d.cluster = c;
-			d.distance = distance;
-		}
-
-		public void computeWeights() {
-			if( clusters.size == 1 ) {
-				clusters.data[0].distance = 1;
-			} else {
-				float sum = 0;
-				for( int i = 0; i < clusters.size; i++ ) {
-					sum += clusters.data[i].distance;
-				}
-				for( int i = 0; i < clusters.size; i++ ) {
-					clusters.data[i].distance =  1.0f - clusters.data[i].distance/sum;
-				}
-			}
-		}
-
-		public void reset() {
-			clusters.reset();
-		}
+	public boolean isConcurrent() {
+		return concurrent;
 	}
 
 	/**
-	 * Stores how far a cluster is from the specified pixel
+	 * If true then the k-means steps will be processed concurrently.  Results are identical to processing
+	 * with a single thread.
 	 */
-	public static class ClusterDistance
-	{
-		// the cluster
-		public Cluster cluster;
-		// how far the pixel is from the cluster
-		public float distance;
+	public void setConcurrent(boolean concurrent) {
+		this.concurrent = concurrent;
 	}
 
 	/**
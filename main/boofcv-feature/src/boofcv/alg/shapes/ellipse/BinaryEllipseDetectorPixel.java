@@ -115,6 +115,9 @@ public class BinaryEllipseDetectorPixel {
 		found.reset();
 		labeled.reshape(binary.width, binary.height);
 
+		// contours which would be rejected are never saved
+		contourFinder.setSaveInternalContours(internalContour);
+		contourFinder.setMaxContourSize(maximumContour > 0 ? maximumContour : Integer.MAX_VALUE);
 		contourFinder.process(binary, labeled);
 
 		FastQueue<Contour> blobs = contourFinder.getContours();
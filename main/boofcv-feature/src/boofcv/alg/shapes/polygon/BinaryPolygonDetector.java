@@ -82,6 +82,8 @@ public class BinaryPolygonDetector<T extends ImageGray<T>> {
 
 	private LinearContourLabelChang2004 contourFinder = new LinearContourLabelChang2004(ConnectRule.FOUR);
 	private GrayS32 labeled = new GrayS32(1,1);
+	// only external contours are considered.  Internal contours are saved only if requested, e.g. for visualization
+	private boolean saveInternalContours = false;
 
 	// finds the initial polygon around a target candidate
 	private SplitMergeLineFitLoop fitPolygon;
@@ -267,6 +269,7 @@ public class BinaryPolygonDetector<T extends ImageGray<T>> {
 		fitPolygon.setAbortSplits(2*maxSides);
 
 		// find binary blobs
+		contourFinder.setSaveInternalContours(saveInternalContours);
 		contourFinder.process(binary, labeled);
 
 		// find blobs where all 4 edges are lines
@@ -541,8 +544,26 @@ public class BinaryPolygonDetector<T extends ImageGray<T>> {
 
 	public List<Contour> getUsedContours(){return foundContours;}
 
+	/**
+	 * All contours found in the binary image.  Internal contours are only included if
+	 * {@link #setSaveInternalContours(boolean)} is true.
+	 */
 	public List<Contour> getAllContours(){return contourFinder.getContours().toList();}
 
+	public boolean isSaveInternalContours() {
+		return saveInternalContours;
+	}
+
+	/**
+	 * If true then internal contours will be saved and returned by {@link #getAllContours()}.  They are not
+	 * used to detect polygons so by default they are not saved.
+	 *
+	 * @param saveInternalContours true to save internal contours
+	 */
+	public void setSaveInternalContours(boolean saveInternalContours) {
+		this.saveInternalContours = saveInternalContours;
+	}
+
 	public Class<T> getInputType() {
 		return inputType;
 	}
@@ -60,6 +60,11 @@ public class ConfigBackgroundGaussian implements Configuration {
 	 */
 	public InterpolationType interpolation = InterpolationType.BILINEAR;
 
+	/**
+	 * If true then rows in the image will be processed concurrently.
+	 */
+	public boolean concurrent = false;
+
 	public ConfigBackgroundGaussian(float threshold) {
 		this.threshold = threshold;
 	}
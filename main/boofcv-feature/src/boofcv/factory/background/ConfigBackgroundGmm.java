@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.factory.background;
+
+import boofcv.alg.background.BackgroundAlgorithmGmm;
+import boofcv.struct.Configuration;
+
+/**
+ * Configuration for {@link BackgroundAlgorithmGmm}.
+ *
+ * @author Peter Abeles
+ */
+public class ConfigBackgroundGmm implements Configuration {
+
+	/**
+	 * Specifies how fast it will adapt to changes in the background.  The learning rate is 1/learningPeriod.
+	 */
+	public float learningPeriod = 1000f;
+
+	/**
+	 * Weight decay.  Gaussians which are rarely observed will have their weight reduced until they are removed.
+	 * 0 &le; decay &le; 1
+	 */
+	public float decay = 0.001f;
+
+	/**
+	 * Maximum number of Gaussians which can be in the mixture of a pixel.
+	 */
+	public int maxGaussians = 10;
+
+	/**
+	 * Maximum Mahalanobis distance squared for a pixel to be considered part of a Gaussian.
+	 */
+	public float maxDistance = 9;
+
+	/**
+	 * The most significant Gaussians whose total weight reaches this value describe the background.  A pixel
+	 * which matches one of them is considered background.
+	 */
+	public float backgroundRatio = 0.9f;
+
+	/**
+	 * The variance assigned to a new Gaussian.
+	 */
+	public float initialVariance = 100;
+
+	/**
+	 * If true then rows in the image will be processed concurrently.
+	 */
+	public boolean concurrent = false;
+
+	public ConfigBackgroundGmm() {
+	}
+
+	public ConfigBackgroundGmm(float learningPeriod, int maxGaussians) {
+		this.learningPeriod = learningPeriod;
+		this.maxGaussians = maxGaussians;
+	}
+
+	@Override
+	public void checkValidity() {
+		if( learningPeriod < 1 )
+			throw new IllegalArgumentException("Learning period must be >= 1");
+		if( decay < 0 || decay > 1 )
+			throw new IllegalArgumentException("Decay must be 0 <= decay <= 1");
+		if( maxGaussians < 1 )
+			throw new IllegalArgumentException("maxGaussians must be >= 1");
+		if( maxDistance <= 0 )
+			throw new IllegalArgumentException("maxDistance must be > 0");
+		if( backgroundRatio < 0 || backgroundRatio > 1 )
+			throw new IllegalArgumentException("backgroundRatio must be 0 <= ratio <= 1");
+		if( initialVariance <= 0 )
+			throw new IllegalArgumentException("Variance must be set to a value larger than zero");
+	}
+}
@@ -46,6 +46,17 @@ public class ConfigOpticalFlowBlockPyramid {
 	 */
 	public int maxPyramidLayers = 20;
 
+	/**
+	 * Spacing between regions which are searched.  If 1 then every pixel is searched.  Larger values only
+	 * search a sparse grid and interpolate the flow between grid points, which is faster but less accurate.
+	 */
+	public int gridSpacing = 1;
+
+	/**
+	 * If true then the search will be split across multiple threads.
+	 */
+	public boolean concurrent = false;
+
 	public ConfigOpticalFlowBlockPyramid(int searchRadius, int regionRadius, int maxPerPixelError,
 										 double pyramidScale, int maxPyramidLayers) {
 		this.searchRadius = searchRadius;
@@ -58,6 +58,28 @@ public class FactoryDenseOpticalFlow {
 	 */
 	public static <I extends ImageGray<I>, D extends ImageGray<D>>
 	DenseOpticalFlow<I> flowKlt( PkltConfig configKlt, int radius , Class<I> inputType , Class<D> derivType ) {
+		return flowKlt(configKlt, radius, 1, false, inputType, derivType);
+	}
+
+	/**
+	 * Compute optical flow using {@link PyramidKltTracker}.
+	 *
+	 * @see DenseOpticalFlowKlt
+	 * @see DenseOpticalFlowKlt_MT
+	 *
+	 * @param configKlt Configuration for KLT.  If null then default values are used.
+	 * @param radius Radius of square region.
+	 * @param gridSpacing Spacing between tracked templates.  1 = every pixel.  Larger values interpolate the flow.
+	 * @param concurrent If true then the templates will be tracked using multiple threads.
+	 * @param inputType Type of input image.
+	 * @param derivType Type of derivative image.  If null then default is used.
+	 * @param <I> Input image type.
+	 * @param <D> Derivative image type.
+	 * @return DenseOpticalFlow
+	 */
+	public static <I extends ImageGray<I>, D extends ImageGray<D>>
+	DenseOpticalFlow<I> flowKlt( PkltConfig configKlt, int radius , int gridSpacing, boolean concurrent,
+								 Class<I> inputType , Class<D> derivType ) {
 
 		if( configKlt == null )
 			configKlt = new PkltConfig();
@@ -72,8 +94,14 @@ public class FactoryDenseOpticalFlow {
 		PyramidDiscrete<I> pyramidA = FactoryPyramid.discreteGaussian(configKlt.pyramidScaling, -1, 2, true, imagetype);
 		PyramidDiscrete<I> pyramidB = FactoryPyramid.discreteGaussian(configKlt.pyramidScaling, -1, 2, true, imagetype);
 
-		PyramidKltTracker<I, D> tracker = FactoryTrackerAlg.kltPyramid(configKlt.config, inputType, derivType);
-		DenseOpticalFlowKlt<I, D> flowKlt = new DenseOpticalFlowKlt<>(tracker, numLayers, radius);
+		DenseOpticalFlowKlt<I, D> flowKlt;
+		if( concurrent ) {
+			flowKlt = new DenseOpticalFlowKlt_MT<>(configKlt.config, numLayers, radius, inputType, derivType);
+		} else {
+			PyramidKltTracker<I, D> tracker = FactoryTrackerAlg.kltPyramid(configKlt.config, inputType, derivType);
+			flowKlt = new DenseOpticalFlowKlt<>(tracker, numLayers, radius);
+		}
+		flowKlt.setGridSpacing(gridSpacing);
 		ImageGradient<I, D> gradient = FactoryDerivative.sobel(inputType,derivType);
 
 		return new FlowKlt_to_DenseOpticalFlow<>(flowKlt, gradient, pyramidA, pyramidB, inputType, derivType);
@@ -105,6 +133,9 @@ public class FactoryDenseOpticalFlow {
 		else
 			throw new IllegalArgumentException("Unsupported image type "+imageType);
 
+		alg.setGridSpacing(config.gridSpacing);
+		alg.setConcurrent(config.concurrent);
+
 		return new FlowBlock_to_DenseOpticalFlow<>(alg, config.pyramidScale, config.maxPyramidLayers, imageType);
 	}
 
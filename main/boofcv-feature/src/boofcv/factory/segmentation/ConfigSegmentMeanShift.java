@@ -47,6 +47,11 @@ public class ConfigSegmentMeanShift {
 	 * Connection rule when segmenting disconnected regions. Try FOUR
 	 */
 	public ConnectRule connectRule = ConnectRule.FOUR;
+	/**
+	 * If true then the mean-shift search will be processed concurrently.  Results are identical to a single
+	 * thread when fast is false.
+	 */
+	public boolean concurrent = false;
 
 
 	public ConfigSegmentMeanShift() {
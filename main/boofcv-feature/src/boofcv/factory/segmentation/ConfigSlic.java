@@ -44,6 +44,11 @@ public class ConfigSlic {
 	 * Connection rule that is used when merging small regions.
 	 */
 	public ConnectRule connectRule = ConnectRule.EIGHT;
+	/**
+	 * If true then the k-means steps will be processed concurrently.  Results are identical to processing
+	 * with a single thread.
+	 */
+	public boolean concurrent = false;
 
 	public ConfigSlic(int numberOfRegions) {
 		this.numberOfRegions = numberOfRegions;
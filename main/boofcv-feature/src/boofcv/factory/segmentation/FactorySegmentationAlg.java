@@ -101,6 +101,7 @@ public class FactorySegmentationAlg {
 			search = new SegmentMeanShiftSearchColor(maxIterations,convergenceTol,interp,
 					spacialRadius,spacialRadius,colorRadius,config.fast,imageType);
 		}
+		search.setConcurrent(config.concurrent);
 
 		ComputeRegionMeanColor<T> regionColor = regionMeanColor(imageType);
 		MergeRegionMeanShift merge = new MergeRegionMeanShift(spacialRadius/2+1,Math.max(1,colorRadius/2));
@@ -176,27 +177,39 @@ public class FactorySegmentationAlg {
 		if( config == null )
 			throw new IllegalArgumentException("No default configuration since the number of segments must be specified.");
 
+		SegmentSlic ret = null;
+
 		if( imageType.getFamily() == ImageType.Family.GRAY) {
 				switch( imageType.getDataType() ) {
 					case U8:
-						return (SegmentSlic)new SegmentSlic_U8(config.numberOfRegions,
+						ret = new SegmentSlic_U8(config.numberOfRegions,
 								config.spacialWeight,config.totalIterations,config.connectRule);
+						break;
+
 					case F32:
-						return (SegmentSlic)new SegmentSlic_F32(config.numberOfRegions,
+						ret = new SegmentSlic_F32(config.numberOfRegions,
 								config.spacialWeight,config.totalIterations,config.connectRule);
+						break;
 				}
 		} else if( imageType.getFamily() == ImageType.Family.PLANAR) {
 			int N = imageType.getNumBands();
 				switch( imageType.getDataType() ) {
 					case U8:
-						return (SegmentSlic)new SegmentSlic_PlU8(config.numberOfRegions,
+						ret = new SegmentSlic_PlU8(config.numberOfRegions,
 								config.spacialWeight,config.totalIterations,config.connectRule,N);
+						break;
+
 					case F32:
-						return (SegmentSlic)new SegmentSlic_PlF32(config.numberOfRegions,
+						ret = new SegmentSlic_PlF32(config.numberOfRegions,
 								config.spacialWeight,config.totalIterations,config.connectRule,N);
+						break;
 				}
 		}
-		throw new IllegalArgumentException("Unknown imageType or connect rule");
+		if( ret == null )
+			throw new IllegalArgumentException("Unknown imageType or connect rule");
+
+		ret.setConcurrent(config.concurrent);
+		return ret;
 	}
 
 	public static WatershedVincentSoille1991 watershed( ConnectRule rule ) {
@@ -0,0 +1,291 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.background;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestBackgroundGmmCommon {
+
+	float tol = 1e-5f;
+
+	/**
+	 * The first observation should create a single Gaussian with all the weight
+	 */
+	@Test
+	public void updateMixture_first() {
+		BackgroundGmmCommon alg = new BackgroundGmmCommon(100, 0, 4, 1);
+		alg.setInitialVariance(50);
+
+		float[] model = new float[alg.getModelStride()*2];
+		alg.updateMixture(20, model, alg.getModelStride());
+
+		int i = alg.getModelStride();
+		assertEquals(1, model[i], tol);
+		assertEquals(50, model[i+1], tol);
+		assertEquals(20, model[i+2], tol);
+		assertEquals(0, model[i+3], tol);
+
+		// the other pixel should not be modified
+		for (int j = 0; j < alg.getModelStride(); j++) {
+			assertEquals(0, model[j], tol);
+		}
+	}
+
+	/**
+	 * Observation matches an existing Gaussian and it's mean and variance should move towards the observation
+	 */
+	@Test
+	public void updateMixture_match() {
+		BackgroundGmmCommon alg = new BackgroundGmmCommon(10, 0, 4, 1);
+		alg.setInitialVariance(50);
+
+		float[] model = new float[alg.getModelStride()];
+		alg.updateMixture(20, model, 0);
+		alg.updateMixture(22, model, 0);
+
+		assertEquals(1, model[0], tol);
+		// learning rate = 0.1, weight = 1
+		assertEquals(20 + 0.1f*2, model[2], tol);
+		assertEquals(50 + 0.1f*(4-50), model[1], tol);
+		// no other Gaussians
+		assertEquals(0, model[3], tol);
+	}
+
+	/**
+	 * A new Gaussian should be added when nothing matches and the mixture should stay sorted by weight
+	 */
+	@Test
+	public void updateMixture_add_sort() {
+		BackgroundGmmCommon alg = new BackgroundGmmCommon(4, 0, 4, 1);
+		alg.setInitialVariance(1);
+
+		int stride = alg.getGaussianStride();
+		float[] model = new float[alg.getModelStride()];
+		alg.updateMixture(20, model, 0);
+		alg.updateMixture(100, model, 0);
+
+		assertEquals(0.75f, model[0], tol);
+		assertEquals(20, model[2], tol);
+		assertEquals(0.25f, model[stride], tol);
+		assertEquals(100, model[stride+2], tol);
+
+		// observe the second one until it has a larger weight
+		for (int i = 0; i < 3; i++) {
+			alg.updateMixture(100, model, 0);
+		}
+		assertEquals(100, model[2], tol);
+		assertEquals(20, model[stride+2], tol);
+		assertEquals(1, model[0]+model[stride], tol);
+		assertEquals(0, model[2*stride], tol);
+	}
+
+	/**
+	 * When the mixture is full the least significant Gaussian should be replaced
+	 */
+	@Test
+	public void updateMixture_full() {
+		BackgroundGmmCommon alg = new BackgroundGmmCommon(10, 0, 2, 1);
+		alg.setInitialVariance(1);
+
+		int stride = alg.getGaussianStride();
+		float[] model = new float[alg.getModelStride()];
+		alg.updateMixture(20, model, 0);
+		alg.updateMixture(100, model, 0);
+		alg.updateMixture(200, model, 0);
+
+		assertEquals(20, model[2], tol);
+		assertEquals(200, model[stride+2], tol);
+		assertEquals(1, model[0]+model[stride], tol);
+	}
+
+	/**
+	 * Weight decay should remove Gaussians which are rarely observed
+	 */
+	@Test
+	public void updateMixture_decay() {
+		BackgroundGmmCommon alg = new BackgroundGmmCommon(10, 0.5f, 4, 1);
+		alg.setInitialVariance(1);
+
+		int stride = alg.getGaussianStride();
+		float[] model = new float[alg.getModelStride()];
+		alg.updateMixture(20, model, 0);
+		alg.updateMixture(100, model, 0);
+		assertEquals(100, model[stride+2], tol);
+
+		for (int i = 0; i < 5; i++) {
+			alg.updateMixture(20, model, 0);
+		}
+
+		assertEquals(1, model[0], tol);
+		assertEquals(20, model[2], tol);
+		assertEquals(0, model[stride], tol);
+	}
+
+	@Test
+	public void updateMixture_multiBand() {
+		BackgroundGmmCommon alg = new BackgroundGmmCommon(10, 0, 4, 3);
+		alg.setInitialVariance(50);
+
+		int stride = alg.getGaussianStride();
+		float[] model = new float[alg.getModelStride()];
+		alg.updateMixture(new float[]{10,20,30}, model, 0);
+		alg.updateMixture(new float[]{11,22,30}, model, 0);
+
+		assertEquals(1, model[0], tol);
+		assertEquals(50 + 0.1f*(5-50), model[1], tol);
+		assertEquals(10.1f, model[2], tol);
+		assertEquals(20.2f, model[3], tol);
+		assertEquals(30, model[4], tol);
+
+		// large change in a single band
+		alg.updateMixture(new float[]{11,22,130}, model, 0);
+		assertEquals(130, model[stride+4], tol);
+	}
+
+	@Test
+	public void checkBackground() {
+		BackgroundGmmCommon alg = new BackgroundGmmCommon(4, 0, 4, 1);
+		alg.setInitialVariance(1);
+		alg.setMaxDistance(9);
+		alg.setBackgroundRatio(0.7f);
+		alg.unknownValue = 2;
+
+		float[] model = new float[alg.getModelStride()];
+		assertEquals(2, alg.checkBackground(20, model, 0));
+
+		alg.updateMixture(20, model, 0);
+		alg.updateMixture(100, model, 0);
+
+		assertEquals(0, alg.checkBackground(20, model, 0));
+		assertEquals(0, alg.checkBackground(22.9f, model, 0));
+		assertEquals(1, alg.checkBackground(23.1f, model, 0));
+		// the first Gaussian has a weight of 0.75, which is enough to describe the background by itself
+		assertEquals(1, alg.checkBackground(100, model, 0));
+		assertEquals(1, alg.checkBackground(50, model, 0));
+
+		alg.setBackgroundRatio(0.8f);
+		assertEquals(0, alg.checkBackground(100, model, 0));
+		assertEquals(1, alg.checkBackground(50, model, 0));
+	}
+
+	/**
+	 * Several modes with a similar weight, e.g. swaying trees, should all be background even though none of
+	 * them has a large weight by itself
+	 */
+	@Test
+	public void checkBackground_similarModes() {
+		BackgroundGmmCommon alg = new BackgroundGmmCommon(100, 0, 5, 1);
+		alg.setInitialVariance(1);
+		alg.setBackgroundRatio(0.9f);
+
+		float[] model = new float[alg.getModelStride()];
+		float[] values = new float[]{20,60,100,140};
+		for (int i = 0; i < 400; i++) {
+			alg.updateMixture(values[i%4], model, 0);
+		}
+
+		int stride = alg.getGaussianStride();
+		for (int i = 0; i < 4; i++) {
+			assertEquals(0.25f, model[i*stride], 0.02f);
+		}
+		for( float v : values ) {
+			assertEquals(0, alg.checkBackground(v, model, 0));
+			assertEquals(0, alg.checkBackground(new float[]{v}, model, 0));
+		}
+		assertEquals(1, alg.checkBackground(200, model, 0));
+
+		// only the first three modes are needed to reach the ratio
+		alg.setBackgroundRatio(0.6f);
+		int numBackground = 0;
+		for( float v : values ) {
+			if( alg.checkBackground(v, model, 0) == 0 )
+				numBackground++;
+		}
+		assertEquals(3, numBackground);
+	}
+
+	/**
+	 * With the largest allowed decay a matched Gaussian should never be pruned and the weights should stay
+	 * normalized
+	 */
+	@Test
+	public void updateMixture_largeDecay() {
+		BackgroundGmmCommon alg = new BackgroundGmmCommon(2, 1, 3, 1);
+		alg.setInitialVariance(1);
+
+		int stride = alg.getGaussianStride();
+		float[] model = new float[alg.getModelStride()];
+		float[] values = new float[]{20,60,20,20,100,60};
+		for (int i = 0; i < 60; i++) {
+			float v = values[i%values.length];
+			alg.updateMixture(v, model, 0);
+
+			float sum = 0;
+			boolean found = false;
+			for (int j = 0; j < alg.getModelStride() && model[j] > 0; j += stride) {
+				assertFalse(Float.isNaN(model[j]));
+				sum += model[j];
+				found |= Math.abs(model[j+2] - v) < 3;
+			}
+			assertEquals(1, sum, tol);
+			// the observation must be described by a Gaussian after the update
+			assertTrue(found);
+		}
+	}
+
+	@Test
+	public void decay_invalid() {
+		try {
+			new BackgroundGmmCommon(10, 1.5f, 3, 1);
+			fail("Should have thrown an exception");
+		} catch( IllegalArgumentException ignore ){}
+
+		BackgroundGmmCommon alg = new BackgroundGmmCommon(10, 0.5f, 3, 1);
+		try {
+			alg.setDecay(2);
+			fail("Should have thrown an exception");
+		} catch( IllegalArgumentException ignore ){}
+		try {
+			alg.setDecay(-0.1f);
+			fail("Should have thrown an exception");
+		} catch( IllegalArgumentException ignore ){}
+		assertEquals(0.5f, alg.getDecay(), 0);
+	}
+
+	@Test
+	public void checkBackground_multiBand() {
+		BackgroundGmmCommon alg = new BackgroundGmmCommon(4, 0, 4, 2);
+		alg.setInitialVariance(1);
+		alg.setMaxDistance(9);
+		alg.unknownValue = 2;
+
+		float[] model = new float[alg.getModelStride()];
+		assertEquals(2, alg.checkBackground(new float[]{20,30}, model, 0));
+
+		alg.updateMixture(new float[]{20,30}, model, 0);
+		assertEquals(0, alg.checkBackground(new float[]{22,32}, model, 0));
+		assertEquals(1, alg.checkBackground(new float[]{23,32}, model, 0));
+		assertEquals(1, alg.checkBackground(new float[]{20,40}, model, 0));
+	}
+}
@@ -22,9 +22,11 @@ import boofcv.alg.background.BackgroundModelMoving;
 import boofcv.alg.background.BackgroundModelStationary;
 import boofcv.alg.background.stationary.BackgroundStationaryGaussian;
 import boofcv.alg.background.stationary.GenericBackgroundStationaryGaussianChecks;
+import boofcv.alg.misc.GImageMiscOps;
 import boofcv.struct.image.GrayU8;
 import boofcv.struct.image.ImageBase;
 import boofcv.struct.image.ImageType;
+import boofcv.testing.BoofTesting;
 import georegression.struct.InvertibleTransform;
 import georegression.struct.homography.Homography2D_F32;
 import org.junit.Test;
@@ -50,6 +52,44 @@ public abstract class GenericBackgroundMovingGaussianChecks extends GenericBackg
 		stationary.checkBandsUsed();
 	}
 
+	/**
+	 * Processing rows concurrently should produce identical results
+	 */
+	@Test
+	public void concurrent() {
+		for( ImageType type : imageTypes ) {
+			concurrent(type);
+		}
+	}
+
+	private <T extends ImageBase<T>> void concurrent( ImageType<T> imageType ) {
+		BackgroundMovingGaussian<T,Homography2D_F32> single = (BackgroundMovingGaussian)create(imageType);
+		BackgroundMovingGaussian<T,Homography2D_F32> multi = (BackgroundMovingGaussian)create(imageType);
+		multi.setConcurrent(true);
+
+		Homography2D_F32 homeToWorld = new Homography2D_F32(1,0,width/2,0,1,height/2,0,0,1);
+		single.initialize(width*2,height*2,homeToWorld);
+		multi.initialize(width*2,height*2,homeToWorld);
+
+		T frame = imageType.createImage(width,height);
+		GrayU8 expected = new GrayU8(width,height);
+		GrayU8 found = new GrayU8(width,height);
+
+		Homography2D_F32 homeToCurrent = new Homography2D_F32();
+		for (int i = 0; i < 10; i++) {
+			homeToCurrent.a13 = rand.nextFloat() * 5 - 2.5f;
+			homeToCurrent.a23 = rand.nextFloat() * 5 - 2.5f;
+			GImageMiscOps.fillUniform(frame, rand, 0, 200);
+			single.updateBackground(homeToCurrent, frame);
+			multi.updateBackground(homeToCurrent, frame);
+		}
+
+		GImageMiscOps.fillUniform(frame, rand, 0, 200);
+		single.segment(homeToCurrent, frame, expected);
+		multi.segment(homeToCurrent, frame, found);
+		BoofTesting.assertEquals(expected, found, 1e-8);
+	}
+
 	private class MovingToStationary extends BackgroundStationaryGaussian {
 
 		BackgroundMovingGaussian moving;
@@ -75,6 +115,21 @@ public abstract class GenericBackgroundMovingGaussianChecks extends GenericBackg
 			moving.reset();
 		}
 
+		@Override
+		protected void initializeModel(ImageBase frame) {}
+
+		@Override
+		protected void setInputImage(ImageBase frame) {}
+
+		@Override
+		protected void updateRows(ImageBase frame, int y0, int y1, float[] buffer) {}
+
+		@Override
+		protected void segmentRows(ImageBase frame, GrayU8 segmented, int y0, int y1, float[] buffer) {}
+
+		@Override
+		protected void segmentAndUpdateRows(ImageBase frame, GrayU8 segmented, int y0, int y1, float[] buffer) {}
+
 		@Override
 		public float getLearnRate() {
 			return moving.getLearnRate();
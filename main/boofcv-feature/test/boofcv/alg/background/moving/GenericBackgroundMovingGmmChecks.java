@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.background.moving;
+
+import boofcv.alg.misc.GImageMiscOps;
+import boofcv.struct.image.GrayU8;
+import boofcv.struct.image.ImageBase;
+import boofcv.struct.image.ImageType;
+import boofcv.testing.BoofTesting;
+import georegression.struct.homography.Homography2D_F32;
+import org.junit.Test;
+
+/**
+ * @author Peter Abeles
+ */
+public abstract class GenericBackgroundMovingGmmChecks extends GenericBackgroundModelMovingChecks {
+
+	/**
+	 * Processing rows concurrently should produce identical results
+	 */
+	@Test
+	public void concurrent() {
+		for( ImageType type : imageTypes ) {
+			concurrent(type);
+		}
+	}
+
+	private <T extends ImageBase<T>> void concurrent( ImageType<T> imageType ) {
+		BackgroundMovingGmm<T,Homography2D_F32> single = (BackgroundMovingGmm)create(imageType);
+		BackgroundMovingGmm<T,Homography2D_F32> multi = (BackgroundMovingGmm)create(imageType);
+		multi.setConcurrent(true);
+
+		Homography2D_F32 homeToWorld = new Homography2D_F32(1,0,width/2,0,1,height/2,0,0,1);
+		single.initialize(width*2,height*2,homeToWorld);
+		multi.initialize(width*2,height*2,homeToWorld);
+
+		T frame = imageType.createImage(width,height);
+		GrayU8 expected = new GrayU8(width,height);
+		GrayU8 found = new GrayU8(width,height);
+
+		Homography2D_F32 homeToCurrent = new Homography2D_F32();
+		for (int i = 0; i < 10; i++) {
+			homeToCurrent.a13 = rand.nextFloat() * 5 - 2.5f;
+			homeToCurrent.a23 = rand.nextFloat() * 5 - 2.5f;
+			GImageMiscOps.fillUniform(frame, rand, 0, 200);
+			single.updateBackground(homeToCurrent, frame);
+			multi.updateBackground(homeToCurrent, frame);
+		}
+
+		GImageMiscOps.fillUniform(frame, rand, 0, 200);
+		single.segment(homeToCurrent, frame, expected);
+		multi.segment(homeToCurrent, frame, found);
+		BoofTesting.assertEquals(expected, found, 1e-8);
+	}
+}
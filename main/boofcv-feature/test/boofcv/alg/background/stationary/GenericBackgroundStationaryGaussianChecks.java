@@ -187,4 +187,81 @@ public abstract class GenericBackgroundStationaryGaussianChecks extends GenericB
 		ImageMiscOps.fill(expected, 1);
 		BoofTesting.assertEquals(expected, segmented, 1e-5f);
 	}
+
+	/**
+	 * Processing rows concurrently should produce identical results
+	 */
+	@Test
+	public void concurrent() {
+		for( ImageType type : imageTypes ) {
+			concurrent(type);
+		}
+	}
+
+	private <T extends ImageBase<T>> void concurrent( ImageType<T> imageType ) {
+		BackgroundStationaryGaussian<T> single = (BackgroundStationaryGaussian)create(imageType);
+		BackgroundStationaryGaussian<T> multi = (BackgroundStationaryGaussian)create(imageType);
+		multi.setConcurrent(true);
+		single.setMinimumDifference(1);
+		multi.setMinimumDifference(1);
+
+		T frame = imageType.createImage(width,height);
+		GrayU8 expected = new GrayU8(width,height);
+		GrayU8 found = new GrayU8(width,height);
+
+		for (int i = 0; i < 10; i++) {
+			noise(100, 10, frame);
+			single.updateBackground(frame);
+			multi.updateBackground(frame);
+		}
+
+		noise(100, 30, frame);
+		single.segment(frame, expected);
+		multi.segment(frame, found);
+		BoofTesting.assertEquals(expected, found, 1e-8);
+
+		single.segmentAndUpdate(frame, expected);
+		multi.segmentAndUpdate(frame, found);
+		BoofTesting.assertEquals(expected, found, 1e-8);
+
+		noise(100, 30, frame);
+		single.segment(frame, expected);
+		multi.segment(frame, found);
+		BoofTesting.assertEquals(expected, found, 1e-8);
+	}
+
+	/**
+	 * Fused segment and update should be the same as calling segment and then update
+	 */
+	@Test
+	public void segmentAndUpdate() {
+		for( ImageType type : imageTypes ) {
+			segmentAndUpdate(type);
+		}
+	}
+
+	private <T extends ImageBase<T>> void segmentAndUpdate( ImageType<T> imageType ) {
+		BackgroundStationaryGaussian<T> separate = (BackgroundStationaryGaussian)create(imageType);
+		BackgroundStationaryGaussian<T> fused = (BackgroundStationaryGaussian)create(imageType);
+		separate.setMinimumDifference(1);
+		fused.setMinimumDifference(1);
+
+		T frame = imageType.createImage(width,height);
+		GrayU8 expected = new GrayU8(width,height);
+		GrayU8 found = new GrayU8(width,height);
+
+		for (int i = 0; i < 10; i++) {
+			noise(100, 30, frame);
+			separate.segment(frame, expected);
+			separate.updateBackground(frame);
+			fused.segmentAndUpdate(frame, found);
+			BoofTesting.assertEquals(expected, found, 1e-8);
+		}
+
+		// the models should also be the same
+		noise(100, 30, frame);
+		separate.segment(frame, expected);
+		fused.segment(frame, found);
+		BoofTesting.assertEquals(expected, found, 1e-8);
+	}
 }
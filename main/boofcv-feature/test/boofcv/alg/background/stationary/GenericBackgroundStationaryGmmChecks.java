@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.background.stationary;
+
+import boofcv.alg.misc.GImageMiscOps;
+import boofcv.alg.misc.ImageMiscOps;
+import boofcv.struct.image.GrayU8;
+import boofcv.struct.image.ImageBase;
+import boofcv.struct.image.ImageType;
+import boofcv.testing.BoofTesting;
+import org.junit.Test;
+
+/**
+ * @author Peter Abeles
+ */
+public abstract class GenericBackgroundStationaryGmmChecks extends GenericBackgroundModelStationaryChecks {
+
+	/**
+	 * The background alternates between two values.  Both should be learned as background.
+	 */
+	@Test
+	public void multiModal() {
+		for( ImageType type : imageTypes ) {
+			multiModal(type);
+		}
+	}
+
+	private <T extends ImageBase<T>> void multiModal( ImageType<T> imageType ) {
+		BackgroundStationaryGmm<T> alg = (BackgroundStationaryGmm)create(imageType);
+
+		T frame = imageType.createImage(width,height);
+
+		for (int i = 0; i < 60; i++) {
+			noise(i%2 == 0 ? 50 : 150, 2, frame);
+			alg.updateBackground(frame);
+		}
+
+		GrayU8 segmented = new GrayU8(width,height);
+		GrayU8 expected = new GrayU8(width,height);
+
+		noise(50, 2, frame);
+		alg.segment(frame, segmented);
+		BoofTesting.assertEquals(expected, segmented, 1e-8);
+
+		noise(150, 2, frame);
+		alg.segment(frame, segmented);
+		BoofTesting.assertEquals(expected, segmented, 1e-8);
+
+		noise(100, 2, frame);
+		alg.segment(frame, segmented);
+		ImageMiscOps.fill(expected, 1);
+		BoofTesting.assertEquals(expected, segmented, 1e-8);
+	}
+
+	/**
+	 * Processing rows concurrently should produce identical results
+	 */
+	@Test
+	public void concurrent() {
+		for( ImageType type : imageTypes ) {
+			concurrent(type);
+		}
+	}
+
+	private <T extends ImageBase<T>> void concurrent( ImageType<T> imageType ) {
+		BackgroundStationaryGmm<T> single = (BackgroundStationaryGmm)create(imageType);
+		BackgroundStationaryGmm<T> multi = (BackgroundStationaryGmm)create(imageType);
+		multi.setConcurrent(true);
+
+		T frame = imageType.createImage(width,height);
+		GrayU8 expected = new GrayU8(width,height);
+		GrayU8 found = new GrayU8(width,height);
+
+		for (int i = 0; i < 10; i++) {
+			GImageMiscOps.fillUniform(frame, rand, 0, 200);
+			single.updateBackground(frame);
+			multi.updateBackground(frame);
+		}
+
+		GImageMiscOps.fillUniform(frame, rand, 0, 200);
+		single.segment(frame, expected);
+		multi.segment(frame, found);
+		BoofTesting.assertEquals(expected, found, 1e-8);
+
+		single.segmentAndUpdate(frame, expected);
+		multi.segmentAndUpdate(frame, found);
+		BoofTesting.assertEquals(expected, found, 1e-8);
+	}
+
+	/**
+	 * Fused segment and update should be the same as calling segment and then update
+	 */
+	@Test
+	public void segmentAndUpdate() {
+		for( ImageType type : imageTypes ) {
+			segmentAndUpdate(type);
+		}
+	}
+
+	private <T extends ImageBase<T>> void segmentAndUpdate( ImageType<T> imageType ) {
+		BackgroundStationaryGmm<T> separate = (BackgroundStationaryGmm)create(imageType);
+		BackgroundStationaryGmm<T> fused = (BackgroundStationaryGmm)create(imageType);
+
+		T frame = imageType.createImage(width,height);
+		GrayU8 expected = new GrayU8(width,height);
+		GrayU8 found = new GrayU8(width,height);
+
+		for (int i = 0; i < 10; i++) {
+			noise(100, 30, frame);
+			separate.segment(frame, expected);
+			separate.updateBackground(frame);
+			fused.segmentAndUpdate(frame, found);
+			BoofTesting.assertEquals(expected, found, 1e-8);
+		}
+	}
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.associate;
+
+import boofcv.abst.feature.associate.ScoreAssociateEuclidean_F64;
+import boofcv.struct.feature.AssociatedIndex;
+import boofcv.struct.feature.MatchScoreType;
+import boofcv.struct.feature.TupleDesc_F64;
+import org.ddogleg.struct.FastQueue;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestUtilAssociate {
+
+	Random rand = new Random(234);
+
+	@Test
+	public void sortByFitScore_error() {
+		FastQueue<AssociatedIndex> matches = createMatches(5.0, 1.0, 3.0, 1.0, 0.5);
+
+		UtilAssociate.sortByFitScore(matches, MatchScoreType.NORM_ERROR);
+
+		checkOrder(matches, new int[]{4,1,3,2,0});
+	}
+
+	@Test
+	public void sortByFitScore_correlation() {
+		FastQueue<AssociatedIndex> matches = createMatches(5.0, 1.0, -3.0, 1.0, 0.5);
+
+		UtilAssociate.sortByFitScore(matches, MatchScoreType.CORRELATION);
+
+		checkOrder(matches, new int[]{0,1,3,4,2});
+	}
+
+	/**
+	 * Sort the output of greedy association and see if it's ordered by the fit quality it computed
+	 */
+	@Test
+	public void sortByFitScore_greedy() {
+		FastQueue<TupleDesc_F64> src = createDescriptions(40);
+		FastQueue<TupleDesc_F64> dst = createDescriptions(40);
+
+		AssociateGreedy<TupleDesc_F64> alg = new AssociateGreedy<>(new ScoreAssociateEuclidean_F64(), false);
+		alg.associate(src, dst);
+
+		FastQueue<AssociatedIndex> matches = new FastQueue<>(AssociatedIndex.class, true);
+		for( int i = 0; i < src.size; i++ ) {
+			if( alg.getPairs()[i] >= 0 )
+				matches.grow().setAssociation(i, alg.getPairs()[i], alg.getFitQuality()[i]);
+		}
+
+		UtilAssociate.sortByFitScore(matches, MatchScoreType.NORM_ERROR);
+
+		assertEquals(src.size, matches.size);
+		for( int i = 0; i < matches.size; i++ ) {
+			AssociatedIndex m = matches.get(i);
+			assertEquals(alg.getFitQuality()[m.src], m.fitScore, 0);
+			if( i > 0 )
+				assertTrue(matches.get(i-1).fitScore <= m.fitScore);
+		}
+	}
+
+	private FastQueue<AssociatedIndex> createMatches( double ...scores ) {
+		FastQueue<AssociatedIndex> matches = new FastQueue<>(AssociatedIndex.class, true);
+		for( int i = 0; i < scores.length; i++ ) {
+			matches.grow().setAssociation(i, i+10, scores[i]);
+		}
+		return matches;
+	}
+
+	private void checkOrder( FastQueue<AssociatedIndex> matches , int[] expected ) {
+		assertEquals(expected.length, matches.size);
+		for( int i = 0; i < expected.length; i++ ) {
+			assertEquals(expected[i], matches.get(i).src);
+			assertEquals(expected[i]+10, matches.get(i).dst);
+		}
+	}
+
+	private FastQueue<TupleDesc_F64> createDescriptions( int total ) {
+		FastQueue<TupleDesc_F64> list = new FastQueue<>(total, TupleDesc_F64.class, false);
+		for( int i = 0; i < total; i++ ) {
+			TupleDesc_F64 d = new TupleDesc_F64(2);
+			d.value[0] = rand.nextDouble();
+			d.value[1] = rand.nextDouble();
+			list.add(d);
+		}
+		return list;
+	}
+}
@@ -71,6 +71,74 @@ public abstract class ChecksDenseOpticalFlowBlockPyramid<T extends ImageGray<T>>
 		}
 	}
 
+	/**
+	 * The concurrent search should produce the exact same results as the single threaded search
+	 */
+	@Test
+	public void concurrentMatchesSingleThread() {
+		ImagePyramid<T> pyramidA = FactoryPyramid.discreteGaussian(
+				new int[]{1,2,4},0,2,false, ImageType.single(imageType));
+		ImagePyramid<T> pyramidB = FactoryPyramid.discreteGaussian(
+				new int[]{1,2,4},0,2,false, ImageType.single(imageType));
+		GImageMiscOps.fillUniform(image,rand,0,200);
+		pyramidA.process(image);
+		GImageMiscOps.fillUniform(image,rand,0,200);
+		pyramidB.process(image);
+
+		for( int spacing : new int[]{1,3} ) {
+			DenseOpticalFlowBlockPyramid<T> single = createAlg(2,3,200);
+			DenseOpticalFlowBlockPyramid<T> concurrent = createAlg(2,3,200);
+			single.setGridSpacing(spacing);
+			concurrent.setGridSpacing(spacing);
+			concurrent.setConcurrent(true);
+
+			single.process(pyramidA,pyramidB);
+			concurrent.process(pyramidA,pyramidB);
+
+			ImageFlow expected = single.getOpticalFlow();
+			ImageFlow found = concurrent.getOpticalFlow();
+
+			for (int i = 0; i < expected.width*expected.height; i++) {
+				ImageFlow.D a = expected.data[i];
+				ImageFlow.D b = found.data[i];
+				assertEquals(a.isValid(),b.isValid());
+				if( a.isValid() ) {
+					assertEquals(a.x,b.x,1e-8);
+					assertEquals(a.y,b.y,1e-8);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Only search a sparse grid.  With no motion the interpolated flow should be zero everywhere
+	 */
+	@Test
+	public void gridSpacing() {
+		DenseOpticalFlowBlockPyramid<T> alg = createAlg(2,3,10);
+		alg.setGridSpacing(4);
+
+		ImagePyramid<T> pyramid = FactoryPyramid.discreteGaussian(
+				new int[]{1,2,4},0,2,false, ImageType.single(imageType));
+		GImageMiscOps.fillUniform(image,rand,0,200);
+		pyramid.process(image);
+
+		alg.process(pyramid,pyramid);
+
+		ImageFlow output = alg.getOpticalFlow();
+		assertEquals(image.width,output.width);
+		assertEquals(image.height,output.height);
+
+		for( int y = 0; y < output.height; y++ ) {
+			for (int x = 0; x < output.width; x++) {
+				ImageFlow.D f = output.get(x,y);
+				assertTrue(f.isValid());
+				assertEquals(0,f.x,1e-4);
+				assertEquals(0,f.y,1e-4);
+			}
+		}
+	}
+
 	@Test
 	public void extractTemplate() {
 
@@ -78,7 +146,7 @@ public abstract class ChecksDenseOpticalFlowBlockPyramid<T extends ImageGray<T>>
 		DenseOpticalFlowBlockPyramid<T> alg = createAlg(1,r,10);
 
 		GImageMiscOps.fillUniform(image,rand,0,200);
-		alg.extractTemplate(3,4,image);
+		alg.extractTemplate(3,4,image,alg.template);
 
 		for( int i = -r; i <= r; i++ ) {
 			for( int j = -r; j <= r; j++ ) {
@@ -101,7 +169,7 @@ public abstract class ChecksDenseOpticalFlowBlockPyramid<T extends ImageGray<T>>
 		GImageMiscOps.fillUniform(image,rand,0,200);
 		GImageMiscOps.fillUniform(alg.template,rand,0,200);
 
-		float found = alg.computeError(5,6,image);
+		float found = alg.computeError(5,6,image,alg.template);
 
 		float expected = 0;
 		for( int i = -r; i <= r; i++ ) {
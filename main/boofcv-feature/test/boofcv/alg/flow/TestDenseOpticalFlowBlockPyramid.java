@@ -44,20 +44,20 @@ public class TestDenseOpticalFlowBlockPyramid {
 		ImageFlow.D flow = new ImageFlow.D();
 
 		// see if it selects the obvious minimum
-		assertEquals(0.1f, alg.findFlow(6, 7, image, flow), 1e-4);
+		assertEquals(0.1f, alg.findFlow(6, 7, image, alg.template, flow), 1e-4);
 		assertTrue(flow.isValid());
 		assertEquals(-2,flow.x,1e-4);
 		assertEquals(1,flow.y,1e-4);
 
 		// now try the case where the error is too high
 		alg.minScore = 100000000f;
-		alg.findFlow(6, 7, image, flow);
+		alg.findFlow(6, 7, image, alg.template, flow);
 		assertFalse(flow.isValid());
 
 		// now give it a case where everything has the same score.  See if it picks the one with the least motion
 		alg.sameScore = true;
 		alg.minScore = 0.1f;
-		alg.findFlow(6, 7, image, flow);
+		alg.findFlow(6, 7, image, alg.template, flow);
 		assertTrue(flow.isValid());
 		assertEquals(0,flow.x,1e-4);
 		assertEquals(0,flow.y,1e-4);
@@ -135,10 +135,10 @@ public class TestDenseOpticalFlowBlockPyramid {
 		}
 
 		@Override
-		protected void extractTemplate(int cx, int cy, ImageGray prev) {}
+		protected void extractTemplate(int cx, int cy, ImageGray prev, ImageGray template) {}
 
 		@Override
-		protected float computeError(int cx, int cy, ImageGray curr) {
+		protected float computeError(int cx, int cy, ImageGray curr, ImageGray template) {
 			if( sameScore )
 				return minScore;
 			else {
@@ -19,6 +19,7 @@
 package boofcv.alg.flow;
 
 import boofcv.abst.filter.derivative.ImageGradient;
+import boofcv.alg.filter.blur.BlurImageOps;
 import boofcv.alg.misc.ImageMiscOps;
 import boofcv.alg.tracker.klt.PkltConfig;
 import boofcv.alg.tracker.klt.PyramidKltTracker;
@@ -33,6 +34,8 @@ import boofcv.struct.pyramid.ImagePyramid;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.Random;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
@@ -68,7 +71,7 @@ public class TestDenseOpticalFlowKlt {
 		prevDerivY = PyramidOps.declareOutput(prev,GrayF32.class);
 	}
 
-	private void processInputImage() {
+	protected void processInputImage() {
 		prev.process(image0);
 		curr.process(image1);
 
@@ -109,6 +112,35 @@ public class TestDenseOpticalFlowKlt {
 		check(flow.get(11,13),true,1,1);
 	}
 
+	/**
+	 * Only track on a sparse grid and see if the interpolated flow is correct for a translated image
+	 */
+	@Test
+	public void gridSpacing() {
+		Random rand = new Random(234);
+		ImageMiscOps.fillUniform(image0, rand, 0, 100);
+		BlurImageOps.gaussian(image0.clone(), image0, -1, 2, null);
+		for (int y = 0; y < image1.height; y++) {
+			for (int x = 0; x < image1.width; x++) {
+				image1.set(x,y,image0.get(Math.max(0,x-1),Math.max(0,y-1)));
+			}
+		}
+
+		processInputImage();
+
+		DenseOpticalFlowKlt<GrayF32,GrayF32> alg = createAlg();
+		alg.setGridSpacing(3);
+
+		ImageFlow flow = new ImageFlow(image0.width,image0.height);
+		alg.process(prev,prevDerivX,prevDerivY,curr,flow);
+
+		for (int y = 6; y < image0.height-6; y++) {
+			for (int x = 6; x < image0.width-6; x++) {
+				check(flow.get(x,y),true,1,1);
+			}
+		}
+	}
+
 	private void check( ImageFlow.D flow , boolean valid , float x , float y ) {
 		assertEquals(valid,flow.isValid());
 		if( valid ) {
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.flow;
+
+import boofcv.alg.misc.ImageMiscOps;
+import boofcv.struct.flow.ImageFlow;
+import boofcv.struct.image.GrayF32;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestDenseOpticalFlowKlt_MT extends TestDenseOpticalFlowKlt {
+
+	@Override
+	protected DenseOpticalFlowKlt<GrayF32, GrayF32> createAlg() {
+		return new DenseOpticalFlowKlt_MT<>(config.config, config.pyramidScaling.length, 3,
+				GrayF32.class, GrayF32.class);
+	}
+
+	/**
+	 * Results should be identical to the single threaded version
+	 */
+	@Test
+	public void compareToSingleThread() {
+		Random rand = new Random(234);
+		ImageMiscOps.fillUniform(image0, rand, 0, 100);
+		ImageMiscOps.fillUniform(image1, rand, 0, 100);
+		setup();
+		processInputImage();
+
+		for( int spacing : new int[]{1,3} ) {
+			DenseOpticalFlowKlt<GrayF32,GrayF32> single = super.createAlg();
+			DenseOpticalFlowKlt<GrayF32,GrayF32> concurrent = createAlg();
+			single.setGridSpacing(spacing);
+			concurrent.setGridSpacing(spacing);
+
+			ImageFlow expected = new ImageFlow(image0.width,image0.height);
+			ImageFlow found = new ImageFlow(image0.width,image0.height);
+
+			single.process(prev,prevDerivX,prevDerivY,curr,expected);
+			concurrent.process(prev,prevDerivX,prevDerivY,curr,found);
+
+			for (int i = 0; i < expected.data.length; i++) {
+				ImageFlow.D a = expected.data[i];
+				ImageFlow.D b = found.data[i];
+				assertEquals(a.isValid(), b.isValid());
+				if( a.isValid() ) {
+					assertEquals(a.x, b.x, 1e-8);
+					assertEquals(a.y, b.y, 1e-8);
+				}
+			}
+		}
+	}
+}
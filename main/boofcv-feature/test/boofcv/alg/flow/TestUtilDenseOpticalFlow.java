@@ -18,12 +18,12 @@
 
 package boofcv.alg.flow;
 
+import boofcv.struct.flow.ImageFlow;
 import boofcv.struct.image.GrayF32;
 import boofcv.struct.pyramid.ImagePyramid;
 import org.junit.Test;
 
-import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.*;
 
 /**
  * @author Peter Abeles
@@ -81,4 +81,46 @@ public class TestUtilDenseOpticalFlow {
 			assertEquals(0, pyr.getSigma(i), 1e-8);
 	}
 
+
+	@Test
+	public void gridLength() {
+		assertEquals(0,UtilDenseOpticalFlow.gridLength(5,5,2));
+		assertEquals(1,UtilDenseOpticalFlow.gridLength(5,6,2));
+		assertEquals(3,UtilDenseOpticalFlow.gridLength(5,10,2));
+		assertEquals(3,UtilDenseOpticalFlow.gridLength(5,11,2));
+	}
+
+	@Test
+	public void upsampleGrid() {
+		ImageFlow grid = new ImageFlow(3,2);
+		for (int y = 0; y < grid.height; y++) {
+			for (int x = 0; x < grid.width; x++) {
+				grid.get(x,y).set(x,2*y);
+			}
+		}
+
+		ImageFlow output = new ImageFlow(12,8);
+		UtilDenseOpticalFlow.upsampleGrid(grid,1,4,output);
+
+		// on top of grid points
+		assertEquals(0,output.get(1,1).x,1e-4f);
+		assertEquals(2,output.get(9,5).x,1e-4f);
+		assertEquals(2,output.get(9,5).y,1e-4f);
+		// in between grid points
+		assertEquals(0.5f,output.get(3,3).x,1e-4f);
+		assertEquals(1.0f,output.get(3,3).y,1e-4f);
+		// outside the grid is the closest grid point
+		assertEquals(0,output.get(0,0).x,1e-4f);
+		assertEquals(0,output.get(0,0).y,1e-4f);
+		assertEquals(2,output.get(11,7).x,1e-4f);
+		assertEquals(2,output.get(11,7).y,1e-4f);
+
+		// invalid grid points should be ignored
+		grid.get(1,0).markInvalid();
+		UtilDenseOpticalFlow.upsampleGrid(grid,1,4,output);
+		assertFalse(output.get(5,1).isValid());
+		assertEquals(0,output.get(3,1).x,1e-4f);
+		assertEquals(1.0f/3.0f,output.get(3,3).x,1e-4f);
+		assertEquals(4.0f/3.0f,output.get(3,3).y,1e-4f);
+	}
 }
@@ -73,6 +73,14 @@ public class TestSegmentMeanShiftSearch {
 		public ImageType getImageType() {
 			return null;
 		}
+
+		@Override
+		protected void findPeak(Workspace w, int x, int y) {}
+
+		@Override
+		protected Workspace createWorkspace() {
+			return null;
+		}
 	}
 
 }
@@ -96,6 +96,91 @@ public class TestSegmentMeanShiftSearchColor {
 		}
 	}
 
+	/**
+	 * Without the fast approximation the concurrent results should be identical to a single thread
+	 */
+	@Test
+	public void concurrent() {
+		concurrent(InterpolationType.BILINEAR, BorderType.EXTENDED);
+	}
+
+	/**
+	 * Each thread must use the same type of interpolation as was passed in, not just the default
+	 */
+	@Test
+	public void concurrent_interpolation() {
+		concurrent(InterpolationType.BICUBIC, BorderType.ZERO);
+		concurrent(InterpolationType.NEAREST_NEIGHBOR, BorderType.REFLECT);
+	}
+
+	private void concurrent( InterpolationType type , BorderType border ) {
+		Planar<GrayF32> image = new Planar<>(GrayF32.class,40,35,2);
+		GImageMiscOps.fillUniform(image, rand, 0, 256);
+
+		SegmentMeanShiftSearchColor<Planar<GrayF32>> algSingle = new SegmentMeanShiftSearchColor<>(30,0.05f,
+				FactoryInterpolation.createPixelMB(0,255, type, border,imageType),
+				2,2,100,false,imageType);
+		SegmentMeanShiftSearchColor<Planar<GrayF32>> algConc = new SegmentMeanShiftSearchColor<>(30,0.05f,
+				FactoryInterpolation.createPixelMB(0,255, type, border,imageType),
+				2,2,100,false,imageType);
+		algConc.setConcurrent(true);
+
+		algSingle.process(image);
+		algConc.process(image);
+
+		assertEquals(algSingle.getModeLocation().size,algConc.getModeLocation().size);
+		for( int i = 0; i < algSingle.getModeLocation().size; i++ ) {
+			assertEquals(algSingle.getModeLocation().get(i).x,algConc.getModeLocation().get(i).x);
+			assertEquals(algSingle.getModeLocation().get(i).y,algConc.getModeLocation().get(i).y);
+			assertEquals(algSingle.getRegionMemberCount().get(i),algConc.getRegionMemberCount().get(i));
+			for( int band = 0; band < 2; band++ ) {
+				assertEquals(algSingle.getModeColor().get(i)[band],algConc.getModeColor().get(i)[band],0);
+			}
+		}
+
+		GrayS32 expected = algSingle.getPixelToRegion();
+		GrayS32 found = algConc.getPixelToRegion();
+		for( int i = 0; i < expected.data.length; i++ ) {
+			assertEquals(expected.data[i],found.data[i]);
+		}
+	}
+
+	/**
+	 * With the fast approximation the results can change a little but every pixel must still be assigned
+	 * to a valid mode
+	 */
+	@Test
+	public void concurrent_fast() {
+		Planar<GrayF32> image = new Planar<>(GrayF32.class,40,35,2);
+		GImageMiscOps.fillUniform(image, rand, 0, 256);
+
+		SegmentMeanShiftSearchColor<Planar<GrayF32>> alg = new SegmentMeanShiftSearchColor<>(30,0.05f,
+				FactoryInterpolation.createPixelMB(0,255, InterpolationType.BILINEAR, BorderType.EXTENDED,imageType),
+				2,2,100,true,imageType);
+		alg.setConcurrent(true);
+		alg.process(image);
+
+		GrowQueue_I32 counts = alg.getRegionMemberCount();
+		assertEquals(alg.getModeLocation().size,counts.size);
+		assertEquals(alg.getModeLocation().size,alg.getModeColor().size);
+
+		int totalMembers = 0;
+		for( int i = 0; i < counts.size; i++ ) {
+			assertTrue(counts.get(i) > 0);
+			totalMembers += counts.get(i);
+		}
+		assertEquals(image.width*image.height,totalMembers);
+
+		GrayS32 peaks = alg.getPixelToRegion();
+		int[] found = new int[counts.size];
+		for( int i = 0; i < peaks.data.length; i++ ) {
+			found[peaks.data[i]]++;
+		}
+		for( int i = 0; i < counts.size; i++ ) {
+			assertEquals(counts.get(i),found[i]);
+		}
+	}
+
 	@Test
 	public void findPeak_inside() {
 		Planar<GrayF32> image = new Planar<>(GrayF32.class,20,25,2);
@@ -109,10 +194,10 @@ public class TestSegmentMeanShiftSearchColor {
 
 		interp.setImage(image);
 		alg.image = image;
-		alg.findPeak(4,2,new float[]{20,20});
+		alg.findPeak(alg.workspace,4,2);
 
-		assertEquals( 6 , alg.modeX, 0.5f );
-		assertEquals(4, alg.modeY, 0.5f);
+		assertEquals( 6 , alg.workspace.modeX, 0.5f );
+		assertEquals(4, alg.workspace.modeY, 0.5f);
 	}
 
 	@Test
@@ -132,10 +217,10 @@ public class TestSegmentMeanShiftSearchColor {
 
 		interp.setImage(image);
 		alg.image = image;
-		alg.findPeak(startX,startY,new float[]{20,20});
+		alg.findPeak(alg.workspace,startX,startY);
 
-		assertEquals( cx , alg.modeX, 0.5f );
-		assertEquals(cy, alg.modeY, 0.5f);
+		assertEquals( cx , alg.workspace.modeX, 0.5f );
+		assertEquals(cy, alg.workspace.modeY, 0.5f);
 	}
 
 	/**
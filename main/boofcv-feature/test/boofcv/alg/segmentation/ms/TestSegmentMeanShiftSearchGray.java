@@ -19,6 +19,7 @@
 package boofcv.alg.segmentation.ms;
 
 import boofcv.alg.interpolate.InterpolatePixelS;
+import boofcv.alg.interpolate.InterpolationType;
 import boofcv.alg.misc.ImageMiscOps;
 import boofcv.core.image.border.BorderType;
 import boofcv.factory.interpolate.FactoryInterpolation;
@@ -89,6 +90,126 @@ public class TestSegmentMeanShiftSearchGray {
 		}
 	}
 
+	/**
+	 * Without the fast approximation the concurrent results should be identical to a single thread
+	 */
+	@Test
+	public void concurrent() {
+		concurrent(InterpolationType.BILINEAR, BorderType.EXTENDED);
+	}
+
+	/**
+	 * Each thread must use the same type of interpolation as was passed in, not just the default
+	 */
+	@Test
+	public void concurrent_interpolation() {
+		concurrent(InterpolationType.BICUBIC, BorderType.ZERO);
+		concurrent(InterpolationType.NEAREST_NEIGHBOR, BorderType.REFLECT);
+	}
+
+	private void concurrent( InterpolationType type , BorderType border ) {
+		GrayF32 image = new GrayF32(40,35);
+		ImageMiscOps.fillUniform(image, rand, 0, 256);
+
+		SegmentMeanShiftSearchGray<GrayF32> algSingle = new SegmentMeanShiftSearchGray<>(30,0.05f,
+				FactoryInterpolation.createPixelS(0,255,type,border,GrayF32.class),2,2,100,false);
+		SegmentMeanShiftSearchGray<GrayF32> algConc = new SegmentMeanShiftSearchGray<>(30,0.05f,
+				FactoryInterpolation.createPixelS(0,255,type,border,GrayF32.class),2,2,100,false);
+		algConc.setConcurrent(true);
+
+		algSingle.process(image);
+		algConc.process(image);
+
+		assertEquals(algSingle.getModeLocation().size,algConc.getModeLocation().size);
+		for( int i = 0; i < algSingle.getModeLocation().size; i++ ) {
+			assertEquals(algSingle.getModeLocation().get(i).x,algConc.getModeLocation().get(i).x);
+			assertEquals(algSingle.getModeLocation().get(i).y,algConc.getModeLocation().get(i).y);
+			assertEquals(algSingle.getRegionMemberCount().get(i),algConc.getRegionMemberCount().get(i));
+			for( int band = 0; band < 1; band++ ) {
+				assertEquals(algSingle.getModeColor().get(i)[band],algConc.getModeColor().get(i)[band],0);
+			}
+		}
+
+		GrayS32 expected = algSingle.getPixelToRegion();
+		GrayS32 found = algConc.getPixelToRegion();
+		for( int i = 0; i < expected.data.length; i++ ) {
+			assertEquals(expected.data[i],found.data[i]);
+		}
+	}
+
+	/**
+	 * Processing a second image should produce the same results as a new instance.  Checks to see if the
+	 * look up tables are correctly reset, including when the image size changes.
+	 */
+	@Test
+	public void processMultipleImages() {
+		for( boolean concurrent : new boolean[]{false,true} ) {
+			GrayF32 imageA = new GrayF32(40,35);
+			GrayF32 imageB = new GrayF32(30,25);
+			ImageMiscOps.fillUniform(imageA, rand, 0, 256);
+			ImageMiscOps.fillUniform(imageB, rand, 0, 256);
+
+			SegmentMeanShiftSearchGray<GrayF32> alg = new SegmentMeanShiftSearchGray<>(30,0.05f,
+					FactoryInterpolation.bilinearPixelS(GrayF32.class, BorderType.EXTENDED),2,2,100,false);
+			SegmentMeanShiftSearchGray<GrayF32> algFresh = new SegmentMeanShiftSearchGray<>(30,0.05f,
+					FactoryInterpolation.bilinearPixelS(GrayF32.class, BorderType.EXTENDED),2,2,100,false);
+			alg.setConcurrent(concurrent);
+			algFresh.setConcurrent(concurrent);
+
+			alg.process(imageA);
+			alg.process(imageB);
+			algFresh.process(imageB);
+
+			assertEquals(algFresh.getModeLocation().size,alg.getModeLocation().size);
+			for( int i = 0; i < alg.getModeLocation().size; i++ ) {
+				assertEquals(algFresh.getModeLocation().get(i).x,alg.getModeLocation().get(i).x);
+				assertEquals(algFresh.getModeLocation().get(i).y,alg.getModeLocation().get(i).y);
+				assertEquals(algFresh.getRegionMemberCount().get(i),alg.getRegionMemberCount().get(i));
+			}
+			GrayS32 expected = algFresh.getPixelToRegion();
+			GrayS32 found = alg.getPixelToRegion();
+			assertEquals(expected.width,found.width);
+			for( int i = 0; i < expected.width*expected.height; i++ ) {
+				assertEquals(expected.data[i],found.data[i]);
+			}
+		}
+	}
+
+	/**
+	 * With the fast approximation the results can change a little but every pixel must still be assigned
+	 * to a valid mode
+	 */
+	@Test
+	public void concurrent_fast() {
+		GrayF32 image = new GrayF32(40,35);
+		ImageMiscOps.fillUniform(image, rand, 0, 256);
+
+		SegmentMeanShiftSearchGray<GrayF32> alg = new SegmentMeanShiftSearchGray<>(30,0.05f,
+				FactoryInterpolation.bilinearPixelS(GrayF32.class, BorderType.EXTENDED),2,2,100,true);
+		alg.setConcurrent(true);
+		alg.process(image);
+
+		GrowQueue_I32 counts = alg.getRegionMemberCount();
+		assertEquals(alg.getModeLocation().size,counts.size);
+		assertEquals(alg.getModeLocation().size,alg.getModeColor().size);
+
+		int totalMembers = 0;
+		for( int i = 0; i < counts.size; i++ ) {
+			assertTrue(counts.get(i) > 0);
+			totalMembers += counts.get(i);
+		}
+		assertEquals(image.width*image.height,totalMembers);
+
+		GrayS32 peaks = alg.getPixelToRegion();
+		int[] found = new int[counts.size];
+		for( int i = 0; i < peaks.data.length; i++ ) {
+			found[peaks.data[i]]++;
+		}
+		for( int i = 0; i < counts.size; i++ ) {
+			assertEquals(counts.get(i),found[i]);
+		}
+	}
+
 	@Test
 	public void findPeak_inside() {
 		GrayF32 image = new GrayF32(20,25);
@@ -101,10 +222,10 @@ public class TestSegmentMeanShiftSearchGray {
 
 		interp.setImage(image);
 		alg.image = image;
-		alg.findPeak(4,2,20);
+		alg.findPeak(alg.workspace,4,2);
 
-		assertEquals( 6 , alg.modeX, 0.5f );
-		assertEquals( 4 , alg.modeY, 0.5f );
+		assertEquals( 6 , alg.workspace.modeX, 0.5f );
+		assertEquals( 4 , alg.workspace.modeY, 0.5f );
 	}
 
 	@Test
@@ -123,9 +244,9 @@ public class TestSegmentMeanShiftSearchGray {
 
 		interp.setImage(image);
 		alg.image = image;
-		alg.findPeak(startX,startY,20);
+		alg.findPeak(alg.workspace,startX,startY);
 
-		assertEquals( cx , alg.modeX, 0.5f );
-		assertEquals( cy , alg.modeY, 0.5f );
+		assertEquals( cx , alg.workspace.modeX, 0.5f );
+		assertEquals( cy , alg.workspace.modeY, 0.5f );
 	}
 }
@@ -75,6 +75,38 @@ public abstract class GeneralSegmentSlicColorChecks<T extends ImageBase<T>> {
 		}
 	}
 
+	/**
+	 * Results should be identical when processed concurrently
+	 */
+	@Test
+	public void concurrent() {
+		T input = imageType.createImage(60,45);
+		GImageMiscOps.fillUniform(input, rand, 0, 200);
+		GImageMiscOps.fillRectangle(input, 100, 0, 0, 25, 45);
+
+		SegmentSlic<T> algSingle = createAlg(20,200,10, ConnectRule.EIGHT );
+		SegmentSlic<T> algConc = createAlg(20,200,10, ConnectRule.EIGHT );
+		algConc.setConcurrent(true);
+
+		GrayS32 expected = new GrayS32(60,45);
+		GrayS32 found = new GrayS32(60,45);
+
+		algSingle.process(input,expected);
+		algConc.process(input,found);
+
+		for( int i = 0; i < expected.data.length; i++ ) {
+			assertEquals(expected.data[i],found.data[i]);
+		}
+
+		assertEquals(algSingle.getClusters().size,algConc.getClusters().size);
+		for( int i = 0; i < algSingle.getClusters().size; i++ ) {
+			SegmentSlic.Cluster a = algSingle.getClusters().get(i);
+			SegmentSlic.Cluster b = algConc.getClusters().get(i);
+			assertEquals(a.x,b.x,0);
+			assertEquals(a.y,b.y,0);
+		}
+	}
+
 	@Test
 	public void setColor() {
 		T input = imageType.createImage(30,40);
@@ -28,7 +28,6 @@ import org.ddogleg.struct.GrowQueue_I32;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.assertTrue;
 
 /**
  * @author Peter Abeles
@@ -80,6 +79,7 @@ public class TestSegmentSlic {
 		SegmentSlic.Cluster c2 = alg.clusters.grow();
 		SegmentSlic.Cluster c3 = alg.clusters.grow();
 
+		c0.id = 0; c1.id = 1; c2.id = 2; c3.id = 3;
 		c0.x = 0; c0.y = 0;
 		c1.x = 6; c1.y = 0;
 		c2.x = 6; c2.y = 8;
@@ -101,14 +101,57 @@ public class TestSegmentSlic {
 		for( int y = y0; y < y1; y++ ) {
 			for( int x = x0; x < x1; x++ ) {
 				int index = y*alg.input.width + x;
-				SegmentSlic.Pixel p = alg.pixels.get(index);
 
-				boolean contains = false;
-				for( int i = 0; i < p.clusters.size; i++ ) {
-					if( p.clusters.data[i].cluster == c )
-						contains = true;
+				// only one cluster is close enough to the corner pixels
+				assertEquals(1,alg.pixelCount.get(index));
+				assertEquals(c.id,alg.pixelBestCluster.get(index));
+			}
+		}
+	}
+
+	/**
+	 * Compare the cluster distance against a brute force computation
+	 */
+	@Test
+	public void computeClusterDistance_bruteForce() {
+		DummySlic alg = new DummySlic(4,1,10);
+
+		GrayU8 input = new GrayU8(7,9);
+		alg.initalize(input);
+		alg.gridInterval = 3;
+		alg.adjustSpacial = 0.5f;
+
+		addCluster(alg,1,1.2f);
+		addCluster(alg,5,2.1f);
+		addCluster(alg,3,6.7f);
+
+		alg.computeClusterDistance();
+
+		for( int y = 0; y < input.height; y++ ) {
+			for( int x = 0; x < input.width; x++ ) {
+				float sum = 0;
+				int count = 0;
+				int best = -1;
+				float bestDistance = Float.MAX_VALUE;
+				for( int i = 0; i < alg.clusters.size; i++ ) {
+					SegmentSlic.Cluster c = alg.clusters.get(i);
+					int dx = x-(int)(c.x+0.5f);
+					int dy = y-(int)(c.y+0.5f);
+					if( Math.abs(dx) > alg.gridInterval || Math.abs(dy) > alg.gridInterval )
+						continue;
+					float d = 0.5f*(dx*dx + dy*dy);
+					sum += d;
+					count++;
+					if( d < bestDistance ) {
+						bestDistance = d;
+						best = c.id;
+					}
 				}
-				assertTrue(contains);
+
+				int index = y*input.width + x;
+				assertEquals(count,alg.pixelCount.get(index));
+				assertEquals(best,alg.pixelBestCluster.get(index));
+				assertEquals(sum,alg.pixelSumDistance.get(index),1e-4f);
 			}
 		}
 	}
@@ -117,56 +160,89 @@ public class TestSegmentSlic {
 	public void updateClusters() {
 		DummySlic alg = new DummySlic(4,1,10);
 
-		SegmentSlic.Cluster c0 = alg.clusters.grow();
-		SegmentSlic.Cluster c1 = alg.clusters.grow();
-		SegmentSlic.Cluster c2 = alg.clusters.grow();
+		setImage(alg,new GrayU8(2,3));
+		alg.gridInterval = 5;
+		alg.adjustSpacial = 1;
 
-		alg.pixels.resize(6);
-		alg.pixels.get(0).add(c0,2); // 0.666666
-		alg.pixels.get(0).add(c1,4); // 0.333333
+		SegmentSlic.Cluster c0 = addCluster(alg,0,0);
+		SegmentSlic.Cluster c1 = addCluster(alg,1,2);
 
-		alg.pixels.get(1).add(c1,1); // 0.75
-		alg.pixels.get(1).add(c0,3); // 0.25
+		alg.computeClusterDistance();
+		alg.updateClusters();
 
-		for( int i = 2; i < 6; i++ ) {
-			alg.pixels.get(i).add(c2,0.2f);
+		// every pixel is near both clusters
+		double sumX0 = 0, sumY0 = 0, total0 = 0;
+		double sumX1 = 0, sumY1 = 0, total1 = 0;
+		for( int y = 0; y < 3; y++ ) {
+			for( int x = 0; x < 2; x++ ) {
+				double d0 = x*x + y*y;
+				double d1 = (x-1)*(x-1) + (y-2)*(y-2);
+				double w0 = 1.0 - d0/(d0+d1);
+				double w1 = 1.0 - d1/(d0+d1);
+				sumX0 += x*w0; sumY0 += y*w0; total0 += w0;
+				sumX1 += x*w1; sumY1 += y*w1; total1 += w1;
+			}
 		}
 
-		alg.input = new GrayU8(2,3);
+		assertEquals(sumX0/total0,c0.x,1e-4);
+		assertEquals(sumY0/total0,c0.y,1e-4);
+		assertEquals(sumX1/total1,c1.x,1e-4);
+		assertEquals(sumY1/total1,c1.y,1e-4);
+	}
+
+	/**
+	 * When there is only one cluster the weight of each pixel will be one
+	 */
+	@Test
+	public void updateClusters_single() {
+		DummySlic alg = new DummySlic(4,1,10);
+
+		setImage(alg,new GrayU8(2,3));
+		alg.gridInterval = 5;
+		alg.adjustSpacial = 1;
+
+		SegmentSlic.Cluster c = addCluster(alg,0,0);
+
+		alg.computeClusterDistance();
 		alg.updateClusters();
 
-		double w = (2.0/3.0) + 0.25;
-		assertEquals((0*0.666 + 1*0.25)/w,c0.x,1e-4);
-		assertEquals((0*0.666 + 0*0.25)/w,c0.y,1e-4);
+		assertEquals(0.5,c.x,1e-4);
+		assertEquals(1.0,c.y,1e-4);
+	}
 
-		w = (1.0/3.0) + 0.75;
-		assertEquals((0*0.333 + 1*0.75)/w,c1.x,1e-4);
-		assertEquals((0*0.333 + 0*0.75)/w,c1.y,1e-4);
+	/**
+	 * Sets the input image without the sanity checks in initialize, which reject small images
+	 */
+	private static void setImage( DummySlic alg , GrayU8 input ) {
+		int N = input.width*input.height;
+		alg.input = input;
+		alg.pixelSumDistance.resize(N);
+		alg.pixelCount.resize(N);
+		alg.pixelBestCluster.resize(N);
+		alg.pixelBestDistance.resize(N);
+	}
 
-		assertEquals(0.5,c2.x,1e-4);
-		assertEquals(1.5,c2.y,1e-4);
+	private static SegmentSlic.Cluster addCluster( DummySlic alg , float x , float y ) {
+		SegmentSlic.Cluster c = alg.clusters.grow();
+		c.id = alg.clusters.size-1;
+		c.x = x; c.y = y;
+		return c;
 	}
 
 	@Test
 	public void assignLabelsToPixels() {
 		DummySlic alg = new DummySlic(4,1,10);
 
+		setImage(alg,new GrayU8(2,3));
 		SegmentSlic.Cluster c0 = alg.clusters.grow();
 		SegmentSlic.Cluster c1 = alg.clusters.grow();
 		SegmentSlic.Cluster c2 = alg.clusters.grow();
 		c0.id = 0; c1.id = 1; c2.id = 2;
 
-		alg.pixels.resize(6);
-		alg.pixels.get(0).add(c0,2);
-		alg.pixels.get(0).add(c1,4);
-		alg.pixels.get(0).add(c2,0.1f);
-
-		alg.pixels.get(1).add(c1,1);
-		alg.pixels.get(1).add(c0,2);
-
+		alg.pixelBestCluster.set(0,2);
+		alg.pixelBestCluster.set(1,1);
 		for( int i = 2; i < 6; i++ ) {
-			alg.pixels.get(i).add(c1,0);
-			alg.pixels.get(i).add(c2,0.2f);
+			alg.pixelBestCluster.set(i,1);
 		}
 
 		GrayS32 image = new GrayS32(2,3);
@@ -187,50 +263,33 @@ public class TestSegmentSlic {
 		for( int i = 2; i < 6; i++ ) {
 			assertEquals(1,image.data[i]);
 		}
-
-	}
-
-	@Test
-	public void Pixel_add()
-	{
-		SegmentSlic.Cluster c0 = new SegmentSlic.Cluster();
-		SegmentSlic.Cluster c1 = new SegmentSlic.Cluster();
-
-		SegmentSlic.Pixel p = new SegmentSlic.Pixel();
-
-		assertEquals(0,p.clusters.size);
-
-		p.add(c0, 2.2f);
-		assertEquals(1, p.clusters.size);
-		assertEquals(2.2f, p.clusters.data[0].distance, 1e-4f);
-		assertTrue(c0 == p.clusters.data[0].cluster);
-
-		p.add(c1, 1.2f);
-		assertEquals(2, p.clusters.size);
-		assertEquals(1.2f, p.clusters.data[1].distance, 1e-4f);
-		assertTrue(c1 == p.clusters.data[1].cluster);
 	}
 
-
+	/**
+	 * A pixel which isn't near any cluster is assigned to a new region
+	 */
 	@Test
-	public void Pixel_computeWeights() {
-		SegmentSlic.Pixel p = new SegmentSlic.Pixel();
-
-		p.clusters.grow().distance = 2;
-		p.clusters.grow().distance = 0.3f;
+	public void assignLabelsToPixels_unassigned() {
+		DummySlic alg = new DummySlic(4,1,10);
 
-		p.computeWeights();
+		setImage(alg,new GrayU8(2,3));
+		alg.clusters.grow().id = 0;
 
-		assertEquals(1.0f - 2f/2.3f,p.clusters.data[0].distance,1e-4f);
-		assertEquals(1.0f - 0.3f/2.3f,p.clusters.data[1].distance,1e-4f);
+		for( int i = 0; i < 6; i++ ) {
+			alg.pixelBestCluster.set(i,0);
+		}
+		alg.pixelBestCluster.set(3,-1);
 
-		// check special case of 1 item.  The weight will be 1 since it is the only one
-		p.clusters.size = 1;
-		p.clusters.data[0].distance = 2;
+		GrayS32 image = new GrayS32(2,3);
+		GrowQueue_I32 regionMemberCount = new GrowQueue_I32();
+		FastQueue<float[]> regionColor = new ColorQueue_F32(1);
 
-		p.computeWeights();
+		alg.assignLabelsToPixels(image,regionMemberCount,regionColor);
 
-		assertEquals(1.0f,p.clusters.data[0].distance,1e-4f);
+		assertEquals(2,regionMemberCount.size);
+		assertEquals(5,regionMemberCount.get(0));
+		assertEquals(1,regionMemberCount.get(1));
+		assertEquals(1,image.data[3]);
 	}
 
 	@Test
@@ -21,6 +21,7 @@ package boofcv.alg.shapes.polygon;
 import boofcv.abst.distort.FDistort;
 import boofcv.abst.filter.binary.InputToBinary;
 import boofcv.alg.distort.PixelTransformAffine_F32;
+import boofcv.alg.filter.binary.Contour;
 import boofcv.alg.misc.GImageMiscOps;
 import boofcv.alg.misc.ImageMiscOps;
 import boofcv.core.image.GeneralizedImageOps;
@@ -171,6 +172,35 @@ public class TestBinaryPolygonDetector {
 		}
 	}
 
+	/**
+	 * Internal contours should only be returned when requested
+	 */
+	@Test
+	public void saveInternalContours() {
+		rectangles.add(new Rectangle2D_I32(30,30,60,60));
+		renderDistortedRectangle(GrayU8.class);
+
+		// punch a hole in the shape so that it has an internal contour
+		ImageMiscOps.fillRectangle(binary,0,40,40,10,10);
+
+		BinaryPolygonDetector alg = createDetector(GrayU8.class, true, 4,4);
+		assertFalse(alg.isSaveInternalContours());
+		alg.process(dist, binary);
+		assertEquals(0,countInternal(alg.getAllContours()));
+
+		alg.setSaveInternalContours(true);
+		alg.process(dist, binary);
+		assertEquals(1,countInternal(alg.getAllContours()));
+	}
+
+	private static int countInternal( List<Contour> contours ) {
+		int total = 0;
+		for( Contour c : contours ) {
+			total += c.internal.size();
+		}
+		return total;
+	}
+
 	@Test
 	public void easyTestMultipleShapes() {
 
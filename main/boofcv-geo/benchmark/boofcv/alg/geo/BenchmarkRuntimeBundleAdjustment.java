@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.alg.geo;
+
+import boofcv.abst.geo.bundle.BundleAdjustmentCalibratedSparse;
+import boofcv.alg.geo.bundle.CalibratedPoseAndPoint;
+import boofcv.alg.geo.bundle.ViewPointObservations;
+import georegression.geometry.ConvertRotation3D_F64;
+import georegression.struct.EulerType;
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.se.Se3_F64;
+import georegression.transform.se.SePointOps_F64;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Runtime of sparse bundle adjustment on a large synthetic scene.  The camera moves along a straight path and each
+ * point is seen by a few consecutive views, which is the structure found in visual odometry and SFM problems.
+ * The default problem size requires a large heap, e.g. -Xmx8g.
+ *
+ * @author Peter Abeles
+ */
+public class BenchmarkRuntimeBundleAdjustment {
+	static final int NUM_VIEWS = 1000;
+	static final int NUM_POINTS = 500000;
+	// number of consecutive views which observe each point
+	static final int VIEWS_PER_POINT = 3;
+	static final int MAX_ITERATIONS = 10;
+
+	Random rand = new Random(234);
+
+	CalibratedPoseAndPoint truth;
+	List<ViewPointObservations> observations;
+
+	public void createScene() {
+		truth = new CalibratedPoseAndPoint();
+		truth.configure(NUM_VIEWS,NUM_POINTS);
+		// fix the first view to remove the gauge freedom
+		truth.setViewKnown(0,true);
+
+		for( int i = 0; i < NUM_VIEWS; i++ ) {
+			Se3_F64 view = truth.getWorldToCamera(i);
+			ConvertRotation3D_F64.eulerToMatrix(EulerType.XYZ,
+					rand.nextGaussian()*1e-3,rand.nextGaussian()*1e-3,rand.nextGaussian()*1e-3,view.getR());
+			view.getT().set(0,0,-i*0.1);
+		}
+
+		observations = new ArrayList<>();
+		for( int i = 0; i < NUM_VIEWS; i++ )
+			observations.add( new ViewPointObservations());
+
+		Point3D_F64 cameraPt = new Point3D_F64();
+		for( int i = 0; i < NUM_POINTS; i++ ) {
+			int firstView = i % (NUM_VIEWS-VIEWS_PER_POINT+1);
+
+			// place the point in front of the first view which sees it
+			Point3D_F64 p = truth.getPoint(i);
+			p.x = rand.nextGaussian();
+			p.y = rand.nextGaussian();
+			p.z = firstView*0.1 + 3 + rand.nextDouble();
+
+			for( int j = 0; j < VIEWS_PER_POINT; j++ ) {
+				int view = firstView + j;
+				SePointOps_F64.transform(truth.getWorldToCamera(view),p,cameraPt);
+				Point2D_F64 obs = new Point2D_F64(cameraPt.x/cameraPt.z, cameraPt.y/cameraPt.z);
+				observations.get(view).getPoints().grow().set(i,obs);
+			}
+		}
+	}
+
+	/**
+	 * Creates a copy of the true model with noise added to it
+	 */
+	private CalibratedPoseAndPoint createNoisyModel() {
+		Random rand = new Random(2345);
+		CalibratedPoseAndPoint model = new CalibratedPoseAndPoint();
+		model.configure(NUM_VIEWS,NUM_POINTS);
+		for( int i = 0; i < NUM_VIEWS; i++ ) {
+			model.setViewKnown(i,truth.isViewKnown(i));
+			model.getWorldToCamera(i).set(truth.getWorldToCamera(i));
+			if( !truth.isViewKnown(i))
+				model.getWorldToCamera(i).getT().x += rand.nextGaussian()*0.005;
+		}
+		for( int i = 0; i < NUM_POINTS; i++ ) {
+			Point3D_F64 p = model.getPoint(i);
+			p.set(truth.getPoint(i));
+			p.z += rand.nextGaussian()*0.01;
+		}
+		return model;
+	}
+
+	public void process( String name , boolean iterative , boolean concurrent ) {
+		CalibratedPoseAndPoint model = createNoisyModel();
+
+		BundleAdjustmentCalibratedSparse alg = new BundleAdjustmentCalibratedSparse(1e-8,MAX_ITERATIONS);
+		alg.setIterative(iterative);
+		alg.setConcurrent(concurrent);
+
+		long before = System.currentTimeMillis();
+		alg.process(model,observations);
+		long after = System.currentTimeMillis();
+
+		System.out.printf("%-25s %8.2f (s) cost %e%n",name,(after-before)/1000.0,alg.getFinalCost());
+	}
+
+	public void runAll() {
+		System.out.println("=========  Profile views "+NUM_VIEWS+" points "+NUM_POINTS);
+		System.out.println();
+
+		createScene();
+
+		process("PCG",true,false);
+		process("PCG Concurrent",true,true);
+		// dense Cholesky on the reduced camera system has a 6000x6000 matrix at the default size
+		process("Cholesky Concurrent",false,true);
+
+		System.out.println();
+		System.out.println("Done");
+	}
+
+	public static void main( String args[] ) {
+		BenchmarkRuntimeBundleAdjustment alg = new BenchmarkRuntimeBundleAdjustment();
+
+		alg.runAll();
+	}
+}
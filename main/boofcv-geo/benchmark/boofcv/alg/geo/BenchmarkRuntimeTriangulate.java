@@ -19,6 +19,7 @@
 package boofcv.alg.geo;
 
 import boofcv.alg.geo.triangulate.PixelDepthLinear;
+import boofcv.alg.geo.triangulate.TriangulateBatch;
 import boofcv.alg.geo.triangulate.TriangulateGeometric;
 import boofcv.alg.geo.triangulate.TriangulateLinearDLT;
 import boofcv.misc.PerformerBase;
@@ -80,7 +81,33 @@ public class BenchmarkRuntimeTriangulate extends ArtificialStereoScene {
 		}
 	}
 
-	
+	public class Batch2 extends PerformerBase {
+
+		TriangulateBatch alg;
+		double[] obsA = new double[NUM_POINTS*2];
+		double[] obsB = new double[NUM_POINTS*2];
+		double[] found = new double[NUM_POINTS*3];
+
+		public Batch2( boolean concurrent ) {
+			alg = new TriangulateBatch();
+			alg.setConcurrent(concurrent);
+			for( int i = 0; i < NUM_POINTS; i++ ) {
+				obsA[i*2] = pairs.get(i).p1.x; obsA[i*2+1] = pairs.get(i).p1.y;
+				obsB[i*2] = pairs.get(i).p2.x; obsB[i*2+1] = pairs.get(i).p2.y;
+			}
+		}
+
+		@Override
+		public void process() {
+			alg.triangulate(obsA,obsB,NUM_POINTS,motion,found);
+		}
+
+		@Override
+		public String getName() {
+			return alg.isConcurrent() ? "Batch2 Concurrent" : "Batch2";
+		}
+	}
+
 	public void runAll() {
 		System.out.println("=========  Profile numFeatures "+NUM_POINTS);
 		System.out.println();
@@ -90,6 +117,8 @@ public class BenchmarkRuntimeTriangulate extends ArtificialStereoScene {
 		ProfileOperation.printOpsPerSec(new DLT2(), TEST_TIME);
 		ProfileOperation.printOpsPerSec(new Geo2(), TEST_TIME);
 		ProfileOperation.printOpsPerSec(new PixelDepth(), TEST_TIME);
+		ProfileOperation.printOpsPerSec(new Batch2(false), TEST_TIME);
+		ProfileOperation.printOpsPerSec(new Batch2(true), TEST_TIME);
 
 		System.out.println();
 		System.out.println("Done");
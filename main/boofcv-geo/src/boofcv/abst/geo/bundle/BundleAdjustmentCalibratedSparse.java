@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.abst.geo.bundle;
+
+import boofcv.abst.geo.BundleAdjustmentCalibrated;
+import boofcv.alg.geo.bundle.*;
+import georegression.struct.se.Se3_F64;
+
+import java.util.List;
+
+/**
+ * <p>
+ * Bundle adjustment which takes advantage of the problem's sparse structure.  Only the non-zero blocks in
+ * the Jacobian are computed, see {@link CalibPoseAndPointRodriguesBlockJacobian}, and each Levenberg-Marquardt step
+ * is found by solving the reduced camera system with the Schur complement, see
+ * {@link CalibPoseAndPointSchurSolver}.  Memory and computations scale with the number of observations, instead
+ * of observations times parameters like {@link BundleAdjustmentCalibratedDense}.
+ * </p>
+ *
+ * <p>
+ * Damping is updated using the gain ratio, as described in [1].
+ * </p>
+ *
+ * <p>
+ * [1] K. Madsen and H. B. Nielsen and O. Tingleff, "Methods for Non-Linear Least Squares Problems (2nd ed.)"
+ * Informatics and Mathematical Modelling, Technical University of Denmark
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class BundleAdjustmentCalibratedSparse
+		implements BundleAdjustmentCalibrated
+{
+	// converts to and from a parameterized version of the model
+	CalibPoseAndPointRodriguesCodec codec = new CalibPoseAndPointRodriguesCodec();
+	// computes the residuals and Jacobian
+	CalibPoseAndPointRodriguesBlockJacobian function = new CalibPoseAndPointRodriguesBlockJacobian();
+	// solves for each step
+	CalibPoseAndPointSchurSolver solver = new CalibPoseAndPointSchurSolver();
+
+	// storage for model parameters and the candidate step
+	double param[] = new double[0];
+	double candidate[] = new double[0];
+	double stepA[] = new double[0];
+	double stepB[] = new double[0];
+
+	int maxIterations;
+	double convergenceTol;
+
+	// initial value of the damping parameter
+	double initialDamping = 1e-3;
+
+	// cost after optimization.  0.5*|r|^2
+	double finalCost;
+
+	/**
+	 * Configures bundle adjustment
+	 *
+	 * @param convergenceTol Stop when the relative change in error is less than this.  Try 1e-8
+	 * @param maxIterations Maximum number of iterations.
+	 */
+	public BundleAdjustmentCalibratedSparse(double convergenceTol,
+											int maxIterations ) {
+		this.convergenceTol = convergenceTol;
+		this.maxIterations = maxIterations;
+	}
+
+	@Override
+	public boolean process(CalibratedPoseAndPoint initialModel,
+						   List<ViewPointObservations> observations)
+	{
+		int numViews = initialModel.getNumViews();
+		int numPoints = initialModel.getNumPoints();
+		int numViewsUnknown = initialModel.getNumUnknownViews();
+
+		codec.configure(numViews,numPoints,numViewsUnknown,initialModel.getKnownArray());
+
+		int N = codec.getParamLength();
+		if( param.length < N ) {
+			param = new double[ N ];
+			candidate = new double[ N ];
+		}
+		if( stepA.length < numViewsUnknown*6 )
+			stepA = new double[ numViewsUnknown*6 ];
+		if( stepB.length < numPoints*3 )
+			stepB = new double[ numPoints*3 ];
+
+		boolean known[] = initialModel.getKnownArray();
+		Se3_F64 extrinsic[] = new Se3_F64[numViews];
+		for( int i = 0; i < extrinsic.length; i++ ) {
+			if( known[i]) {
+				extrinsic[i] = new Se3_F64();
+				extrinsic[i].set( initialModel.getWorldToCamera(i));
+			}
+		}
+
+		codec.encode(initialModel,param);
+		function.configure(observations,numPoints,extrinsic);
+		solver.configure(function);
+
+		function.process(param, true);
+		double cost = 0.5*function.computeErrorSq();
+
+		double lambda = initialDamping;
+		double nu = 2;
+
+		int indexFirstPoint = numViewsUnknown*6;
+		for( int iteration = 0; iteration < maxIterations && cost > 0; iteration++ ) {
+			solver.computeNormalEquations();
+
+			if( solver.gradientNormInf() == 0 )
+				break;
+
+			// increase the damping until a step which reduces the cost is found
+			boolean converged = false;
+			while( true ) {
+				if( solver.solve(lambda, stepA, stepB) ) {
+					for( int i = 0; i < indexFirstPoint; i++ ) {
+						candidate[i] = param[i] + stepA[i];
+					}
+					for( int i = indexFirstPoint; i < N; i++ ) {
+						candidate[i] = param[i] + stepB[i-indexFirstPoint];
+					}
+					function.process(candidate, false);
+					double costCandidate = 0.5*function.computeErrorSq();
+					double predicted = solver.predictedReduction(lambda, stepA, stepB);
+
+					if( costCandidate < cost && predicted > 0 ) {
+						double ratio = (cost - costCandidate)/predicted;
+						converged = cost - costCandidate <= convergenceTol*cost;
+
+						double tmp[] = param; param = candidate; candidate = tmp;
+						cost = costCandidate;
+
+						double a = 2*ratio - 1;
+						lambda *= Math.max(1.0/3.0, 1 - a*a*a);
+						nu = 2;
+						break;
+					}
+				}
+
+				lambda *= nu;
+				nu *= 2;
+				// no step can reduce the cost any more
+				if( lambda > 1e16 ) {
+					converged = true;
+					break;
+				}
+			}
+
+			if( converged )
+				break;
+
+			// residuals were computed when the step was accepted
+			function.computeJacobian(param);
+		}
+
+		finalCost = cost;
+		codec.decode(param, initialModel);
+
+		return true;
+	}
+
+	/**
+	 * Returns the cost, 0.5*sum of residuals squared, after optimization
+	 */
+	public double getFinalCost() {
+		return finalCost;
+	}
+
+	/**
+	 * If true the reduced camera system is always solved iteratively using preconditioned conjugate gradient.
+	 */
+	public void setIterative( boolean iterative ) {
+		solver.setIterative(iterative);
+	}
+
+	/**
+	 * Dense Cholesky decomposition is used to solve the reduced camera system only if there are this many
+	 * unknown views or fewer.  See {@link CalibPoseAndPointSchurSolver#setMaxDenseCameras(int)}
+	 */
+	public void setMaxDenseCameras( int maxDenseCameras ) {
+		solver.setMaxDenseCameras(maxDenseCameras);
+	}
+
+	/**
+	 * If true then the Jacobian and normal equations are computed concurrently.  Results are identical to
+	 * processing with a single thread.
+	 */
+	public void setConcurrent( boolean concurrent ) {
+		function.setConcurrent(concurrent);
+		solver.setConcurrent(concurrent);
+	}
+
+	public CalibPoseAndPointSchurSolver getSolver() {
+		return solver;
+	}
+}
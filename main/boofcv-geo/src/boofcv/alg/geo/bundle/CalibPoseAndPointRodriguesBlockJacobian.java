@@ -0,0 +1,344 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.geo.bundle;
+
+import boofcv.alg.geo.RodriguesRotationJacobian;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeObjectConsumer;
+import georegression.geometry.ConvertRotation3D_F64;
+import georegression.geometry.GeometryMath_F64;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.point.Vector3D_F64;
+import georegression.struct.se.Se3_F64;
+import georegression.struct.so.Rodrigues_F64;
+import org.ddogleg.struct.FastQueue;
+import org.ddogleg.struct.GrowQueue_F64;
+import org.ddogleg.struct.GrowQueue_I32;
+import org.ejml.data.DMatrixRMaj;
+
+import java.util.List;
+
+/**
+ * <p>
+ * Computes the residuals and the Jacobian for bundle adjustment with known calibration, the same function
+ * as {@link CalibPoseAndPointResiduals} and {@link CalibPoseAndPointRodriguesJacobian}, but only the non-zero
+ * blocks of the Jacobian are saved.  Each observation depends on the 6 parameters of the view and the 3
+ * parameters of the point, so its two rows in the Jacobian are saved as a 2x6 camera block and a 2x3 point block.
+ * Memory grows linearly with the number of observations instead of observations times parameters.
+ * </p>
+ *
+ * <p>
+ * Parameters are encoded using {@link CalibPoseAndPointRodriguesCodec}.  Observations are ordered by view and
+ * then by their order inside the view.  Views can be processed concurrently, see {@link #setConcurrent(boolean)}.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class CalibPoseAndPointRodriguesBlockJacobian {
+
+	// if the extrinsic parameters are known, specify them here
+	Se3_F64 extrinsic[];
+	// observed location of features in each view
+	List<ViewPointObservations> observations;
+
+	// number of camera views
+	int numViews;
+	// number of points in world coordinates
+	int numPoints;
+	// number of views with unknown extrinsic parameters
+	int numCameras;
+	// number of observations across all views
+	int numObservations;
+
+	// index of the camera each view's parameters belong to.  -1 if the view is known
+	GrowQueue_I32 viewCamera = new GrowQueue_I32();
+	// index of the first observation in each view.  Has numViews+1 elements
+	GrowQueue_I32 viewObsOffset = new GrowQueue_I32();
+	// point and camera that each observation references.  Camera is -1 if the view is known
+	GrowQueue_I32 obsPoint = new GrowQueue_I32();
+	GrowQueue_I32 obsCamera = new GrowQueue_I32();
+
+	// residual of each observation.  [x,y]
+	GrowQueue_F64 residuals = new GrowQueue_F64();
+	// 2x6 block of the Jacobian for camera parameters.  Row-major.  Zero if the view is known.
+	GrowQueue_F64 jacCamera = new GrowQueue_F64();
+	// 2x3 block of the Jacobian for point parameters. Row-major.
+	GrowQueue_F64 jacPoint = new GrowQueue_F64();
+
+	// If true then views are processed concurrently
+	boolean concurrent = false;
+
+	Workspace workspace = new Workspace();
+	FastQueue<Workspace> workspaces = new FastQueue<>(Workspace.class, true);
+
+	/**
+	 * Specifies the observations and which views are known.
+	 *
+	 * @param observations Observations in each view
+	 * @param numPoints Number of points
+	 * @param extrinsic Transform for each view.  null if the view isn't known.
+	 */
+	public void configure( List<ViewPointObservations> observations , int numPoints , Se3_F64 ...extrinsic) {
+		if( extrinsic.length < observations.size() )
+			throw new RuntimeException("knownExtrinsic length is less than the number of views in 'observations'");
+
+		this.observations = observations;
+		this.extrinsic = extrinsic;
+		this.numViews = observations.size();
+		this.numPoints = numPoints;
+
+		viewCamera.resize(numViews);
+		viewObsOffset.resize(numViews+1);
+
+		numCameras = 0;
+		numObservations = 0;
+		for( int i = 0; i < numViews; i++ ) {
+			viewObsOffset.data[i] = numObservations;
+			viewCamera.data[i] = extrinsic[i] == null ? numCameras++ : -1;
+			numObservations += observations.get(i).points.size;
+		}
+		viewObsOffset.data[numViews] = numObservations;
+
+		obsPoint.resize(numObservations);
+		obsCamera.resize(numObservations);
+		for( int i = 0, o = 0; i < numViews; i++ ) {
+			FastQueue<PointIndexObservation> points = observations.get(i).points;
+			for( int j = 0; j < points.size; j++ , o++ ) {
+				obsPoint.data[o] = points.data[j].pointIndex;
+				obsCamera.data[o] = viewCamera.data[i];
+			}
+		}
+
+		residuals.resize(numObservations*2);
+		jacCamera.resize(numObservations*12);
+		jacPoint.resize(numObservations*6);
+	}
+
+	/**
+	 * Computes the residuals and, optionally, the Jacobian
+	 *
+	 * @param param Encoded parameters
+	 * @param computeJacobian If true the Jacobian will be computed too
+	 */
+	public void process( final double[] param , final boolean computeJacobian ) {
+		process(param, true, computeJacobian);
+	}
+
+	/**
+	 * Computes only the Jacobian.  Use when the residuals have already been computed for these parameters.
+	 *
+	 * @param param Encoded parameters
+	 */
+	public void computeJacobian( final double[] param ) {
+		process(param, false, true);
+	}
+
+	private void process( final double[] param , final boolean computeResiduals , final boolean computeJacobian ) {
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, numViews, workspaces, new IntRangeObjectConsumer<Workspace>() {
+				@Override
+				public void accept(Workspace w, int index0, int index1) {
+					process(w, param, computeResiduals, computeJacobian, index0, index1);
+				}
+			});
+		} else {
+			process(workspace, param, computeResiduals, computeJacobian, 0, numViews);
+		}
+	}
+
+	/**
+	 * Returns the sum of the residuals squared.  The sum is always computed in the same order.
+	 */
+	public double computeErrorSq() {
+		double total = 0;
+		final int N = numObservations*2;
+		for( int i = 0; i < N; i++ ) {
+			double r = residuals.data[i];
+			total += r*r;
+		}
+		return total;
+	}
+
+	private void process( Workspace w , double[] param , boolean computeResiduals , boolean computeJacobian ,
+						  int view0 , int view1 ) {
+		int indexFirstPoint = numCameras*6;
+
+		for( int view = view0; view < view1; view++ ) {
+			int camera = viewCamera.data[view];
+
+			if( camera >= 0 ) {
+				int paramIndex = camera*6;
+				double rodX = param[paramIndex++];
+				double rodY = param[paramIndex++];
+				double rodZ = param[paramIndex++];
+
+				w.T.x = param[paramIndex++];
+				w.T.y = param[paramIndex++];
+				w.T.z = param[paramIndex];
+
+				w.rodrigues.setParamVector(rodX,rodY,rodZ);
+				ConvertRotation3D_F64.rodriguesToMatrix(w.rodrigues,w.R);
+				if( computeJacobian )
+					w.rodJacobian.process(rodX,rodY,rodZ);
+			} else {
+				w.T.set( extrinsic[view].getT());
+				w.R.set( extrinsic[view].getR());
+			}
+
+			FastQueue<PointIndexObservation> points = observations.get(view).points;
+			int o = viewObsOffset.data[view];
+			for( int j = 0; j < points.size; j++ , o++ ) {
+				PointIndexObservation obs = points.data[j];
+				int indexParamWorld = indexFirstPoint+obs.pointIndex*3;
+
+				Point3D_F64 worldPt = w.worldPt;
+				Point3D_F64 cameraPt = w.cameraPt;
+
+				worldPt.x = param[indexParamWorld];
+				worldPt.y = param[indexParamWorld+1];
+				worldPt.z = param[indexParamWorld+2];
+
+				// location of point in camera view
+				GeometryMath_F64.mult(w.R, worldPt, cameraPt);
+				cameraPt.x += w.T.x;
+				cameraPt.y += w.T.y;
+				cameraPt.z += w.T.z;
+
+				if( computeResiduals ) {
+					residuals.data[o*2]   = cameraPt.x/cameraPt.z - obs.obs.x;
+					residuals.data[o*2+1] = cameraPt.y/cameraPt.z - obs.obs.y;
+				}
+
+				if( !computeJacobian )
+					continue;
+
+				int indexX = o*12;
+				if( camera >= 0 ) {
+					// add gradient from rotation
+					addRodriguesJacobian(w.rodJacobian.Rx, worldPt, cameraPt, indexX);
+					addRodriguesJacobian(w.rodJacobian.Ry, worldPt, cameraPt, indexX+1);
+					addRodriguesJacobian(w.rodJacobian.Rz, worldPt, cameraPt, indexX+2);
+
+					// add gradient from translation
+					addTranslationJacobian(cameraPt, indexX+3);
+				} else {
+					for( int i = 0; i < 12; i++ )
+						jacCamera.data[indexX+i] = 0;
+				}
+
+				// add gradient for the point in this view
+				addWorldPointGradient(w.R, cameraPt, o*6);
+			}
+		}
+	}
+
+	/**
+	 * Partial for a Rodrigues parameter.  See {@link CalibPoseAndPointRodriguesJacobian}
+	 */
+	private void addRodriguesJacobian( DMatrixRMaj Rj , Point3D_F64 worldPt , Point3D_F64 cameraPt , int indexX )
+	{
+		// (1/z)*dot(R)*X
+		double Rx = (Rj.data[0]*worldPt.x + Rj.data[1]*worldPt.y + Rj.data[2]*worldPt.z)/cameraPt.z;
+		double Ry = (Rj.data[3]*worldPt.x + Rj.data[4]*worldPt.y + Rj.data[5]*worldPt.z)/cameraPt.z;
+
+		// dot(z)/(z^2)
+		double zDot_div_z2 = (Rj.data[6]*worldPt.x + Rj.data[7]*worldPt.y + Rj.data[8]*worldPt.z)/
+				(cameraPt.z*cameraPt.z);
+
+		jacCamera.data[indexX]   = -zDot_div_z2*cameraPt.x + Rx;
+		jacCamera.data[indexX+6] = -zDot_div_z2*cameraPt.y + Ry;
+	}
+
+	/**
+	 * Partial for the translation.  See {@link CalibPoseAndPointRodriguesJacobian}
+	 */
+	private void addTranslationJacobian( Point3D_F64 cameraPt , int indexX )
+	{
+		double divZ = 1.0/cameraPt.z;
+		double divZ2 = 1.0/(cameraPt.z*cameraPt.z);
+
+		double[] d = jacCamera.data;
+		d[indexX]   = divZ;
+		d[indexX+6] = 0;
+		d[indexX+1] = 0;
+		d[indexX+7] = divZ;
+		d[indexX+2] = -cameraPt.x*divZ2;
+		d[indexX+8] = -cameraPt.y*divZ2;
+	}
+
+	/**
+	 * Partial for the point's location.  See {@link CalibPoseAndPointRodriguesJacobian}
+	 */
+	private void addWorldPointGradient( DMatrixRMaj R , Point3D_F64 cameraPt , int indexX ) {
+		double divZ = 1.0/cameraPt.z;
+		double divZ2 = 1.0/(cameraPt.z*cameraPt.z);
+
+		double[] d = jacPoint.data;
+		d[indexX]   = -R.data[6]*divZ2*cameraPt.x + R.data[0]*divZ;
+		d[indexX+3] = -R.data[6]*divZ2*cameraPt.y + R.data[3]*divZ;
+		d[indexX+1] = -R.data[7]*divZ2*cameraPt.x + R.data[1]*divZ;
+		d[indexX+4] = -R.data[7]*divZ2*cameraPt.y + R.data[4]*divZ;
+		d[indexX+2] = -R.data[8]*divZ2*cameraPt.x + R.data[2]*divZ;
+		d[indexX+5] = -R.data[8]*divZ2*cameraPt.y + R.data[5]*divZ;
+	}
+
+	public int getNumOfInputsN() {
+		return numCameras*6 + numPoints*3;
+	}
+
+	public int getNumObservations() {
+		return numObservations;
+	}
+
+	public int getNumCameras() {
+		return numCameras;
+	}
+
+	public int getNumPoints() {
+		return numPoints;
+	}
+
+	public boolean isConcurrent() {
+		return concurrent;
+	}
+
+	/**
+	 * If true then views are processed concurrently.  Results are identical to processing with a single thread.
+	 */
+	public void setConcurrent(boolean concurrent) {
+		this.concurrent = concurrent;
+	}
+
+	/**
+	 * Storage for each thread
+	 */
+	public static class Workspace {
+		// used to compute the Jacobian from Rodrigues coordinates
+		RodriguesRotationJacobian rodJacobian = new RodriguesRotationJacobian();
+		Rodrigues_F64 rodrigues = new Rodrigues_F64();
+		// rotation matrix
+		DMatrixRMaj R = new DMatrixRMaj(3,3);
+		// translation vector
+		Vector3D_F64 T = new Vector3D_F64();
+		// feature location in world coordinates
+		Point3D_F64 worldPt = new Point3D_F64();
+		// feature location in camera coordinates
+		Point3D_F64 cameraPt = new Point3D_F64();
+	}
+}
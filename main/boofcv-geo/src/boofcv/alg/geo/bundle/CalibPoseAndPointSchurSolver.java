@@ -0,0 +1,832 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.geo.bundle;
+
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeConsumer;
+import boofcv.concurrency.IntRangeObjectConsumer;
+import org.ddogleg.struct.FastQueue;
+import org.ddogleg.struct.GrowQueue_F64;
+import org.ddogleg.struct.GrowQueue_I32;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.factory.LinearSolverFactory_DDRM;
+import org.ejml.interfaces.linsol.LinearSolver;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Solves for the Levenberg-Marquardt step in bundle adjustment by taking advantage of the problem's sparse block
+ * structure.  The damped normal equations are
+ * </p>
+ * <pre>
+ * [ U   W ] [da]   [-ga]
+ * [ W^T V ] [db] = [-gb]
+ * </pre>
+ * <p>
+ * where U is block diagonal with a 6x6 block for each camera, V is block diagonal with a 3x3 block for each
+ * point, and W has a 6x3 block for each observation.  Points are eliminated using the Schur complement, which
+ * leaves the reduced camera system (U - W*V<sup>-1</sup>*W<sup>T</sup>)*da = -ga + W*V<sup>-1</sup>*gb.  It is
+ * only non-zero for pairs of cameras which observe the same point and is saved as a list of 6x6 blocks for each
+ * camera.  After it's solved for da, each point's step is found independently with
+ * db = V<sup>-1</sup>*(-gb - W<sup>T</sup>*da).
+ * </p>
+ *
+ * <p>
+ * The reduced camera system is solved with dense Cholesky decomposition when there are only a few cameras.
+ * Above {@link #setMaxDenseCameras(int) maxDenseCameras} it's solved with the conjugate gradient method and a
+ * block Jacobi preconditioner, which only uses the sparse blocks, so memory doesn't grow with the number of
+ * cameras squared.  Nothing is ever written by more than one thread, so results are identical when processed
+ * concurrently.
+ * </p>
+ *
+ * <p>
+ * Damping adds lambda*max(d,{@link #MIN_DAMPING}) to each diagonal element d.  Points which are not observed by
+ * any view have no effect on the cameras and are never moved.
+ * </p>
+ *
+ * <p>
+ * [1] Triggs, Bill, et al. "Bundle adjustment—a modern synthesis." International workshop on vision algorithms.
+ * Springer, Berlin, Heidelberg, 1999.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class CalibPoseAndPointSchurSolver {
+
+	/**
+	 * Smallest diagonal element used to scale damping.  Keeps the damped system positive definite when a
+	 * parameter has no influence on the residuals.
+	 */
+	public static final double MIN_DAMPING = 1e-12;
+
+	// Jacobian which the normal equations are computed from
+	CalibPoseAndPointRodriguesBlockJacobian jacobian;
+
+	int numCameras;
+	int numPoints;
+
+	// observations of each point.  pointObs[pointObsOffset[i]] to pointObs[pointObsOffset[i+1]-1]
+	GrowQueue_I32 pointObsOffset = new GrowQueue_I32();
+	GrowQueue_I32 pointObs = new GrowQueue_I32();
+
+	// Structure of the reduced camera system.  Camera i is connected to cameras
+	// neighbors[neighborOffset[i]] to neighbors[neighborOffset[i+1]-1], which are in sorted order.
+	// Each connection has a 6x6 block in 'S'
+	GrowQueue_I32 neighborOffset = new GrowQueue_I32();
+	GrowQueue_I32 neighbors = new GrowQueue_I32();
+
+	// Blocks of J^T*J and the gradient J^T*r
+	GrowQueue_F64 U = new GrowQueue_F64();
+	GrowQueue_F64 V = new GrowQueue_F64();
+	GrowQueue_F64 gradA = new GrowQueue_F64();
+	GrowQueue_F64 gradB = new GrowQueue_F64();
+
+	// inverse of each damped V block
+	GrowQueue_F64 Vinv = new GrowQueue_F64();
+	// reduced camera system and its right hand side
+	GrowQueue_F64 S = new GrowQueue_F64();
+	GrowQueue_F64 rhs = new GrowQueue_F64();
+
+	// If true the conjugate gradient is always used
+	boolean iterative = false;
+	// Dense Cholesky decomposition is used only if there are this many cameras or fewer
+	int maxDenseCameras = 100;
+	// maximum number of iterations for the conjugate gradient
+	int pcgMaxIterations = 500;
+	// conjugate gradient stops when the residual is less than this times the initial residual
+	double pcgTolerance = 1e-10;
+
+	// If true then cameras and points are processed concurrently
+	boolean concurrent = false;
+
+	// storage for dense solver
+	DMatrixRMaj denseS = new DMatrixRMaj(1,1);
+	DMatrixRMaj denseX = new DMatrixRMaj(1,1);
+	DMatrixRMaj denseB = new DMatrixRMaj(1,1);
+	LinearSolver<DMatrixRMaj> denseSolver;
+	int denseSolverSize = -1;
+
+	// storage for conjugate gradient
+	GrowQueue_F64 pcgMinv = new GrowQueue_F64();
+	GrowQueue_F64 pcgR = new GrowQueue_F64();
+	GrowQueue_F64 pcgZ = new GrowQueue_F64();
+	GrowQueue_F64 pcgP = new GrowQueue_F64();
+	GrowQueue_F64 pcgQ = new GrowQueue_F64();
+
+	Workspace workspace;
+	FastQueue<Workspace> workspaces;
+
+	public CalibPoseAndPointSchurSolver() {
+		workspace = new Workspace();
+		workspaces = new FastQueue<Workspace>(Workspace.class,true) {
+			@Override
+			protected Workspace createInstance() {
+				return new Workspace();
+			}
+		};
+	}
+
+	/**
+	 * Computes the sparse structure of the problem.  Only needs to be called when the observations change.
+	 */
+	public void configure( CalibPoseAndPointRodriguesBlockJacobian jacobian ) {
+		this.jacobian = jacobian;
+		this.numCameras = jacobian.numCameras;
+		this.numPoints = jacobian.numPoints;
+		final int numObs = jacobian.numObservations;
+
+		// list of observations for each point.  Observations are added in order
+		pointObsOffset.resize(numPoints+1);
+		pointObsOffset.fill(0);
+		for( int o = 0; o < numObs; o++ ) {
+			pointObsOffset.data[jacobian.obsPoint.data[o]+1]++;
+		}
+		for( int i = 0; i < numPoints; i++ ) {
+			pointObsOffset.data[i+1] += pointObsOffset.data[i];
+		}
+		pointObs.resize(numObs);
+		int[] next = Arrays.copyOf(pointObsOffset.data, numPoints);
+		for( int o = 0; o < numObs; o++ ) {
+			pointObs.data[next[jacobian.obsPoint.data[o]]++] = o;
+		}
+
+		// find which cameras are connected through a common point
+		int[] marker = new int[numCameras];
+		Arrays.fill(marker,-1);
+		neighborOffset.resize(numCameras+1);
+		neighbors.reset();
+		for( int view = 0; view < jacobian.numViews; view++ ) {
+			int camera = jacobian.viewCamera.data[view];
+			if( camera < 0 )
+				continue;
+			neighborOffset.data[camera] = neighbors.size;
+			int obs0 = jacobian.viewObsOffset.data[view];
+			int obs1 = jacobian.viewObsOffset.data[view+1];
+			for( int o = obs0; o < obs1; o++ ) {
+				int point = jacobian.obsPoint.data[o];
+				for( int k = pointObsOffset.data[point]; k < pointObsOffset.data[point+1]; k++ ) {
+					int neighbor = jacobian.obsCamera.data[pointObs.data[k]];
+					if( neighbor >= 0 && marker[neighbor] != camera ) {
+						marker[neighbor] = camera;
+						neighbors.add(neighbor);
+					}
+				}
+			}
+			// cameras with no observations are still connected to themselves
+			if( marker[camera] != camera ) {
+				marker[camera] = camera;
+				neighbors.add(camera);
+			}
+			Arrays.sort(neighbors.data, neighborOffset.data[camera], neighbors.size);
+		}
+		neighborOffset.data[numCameras] = neighbors.size;
+
+		U.resize(numCameras*36);
+		gradA.resize(numCameras*6);
+		V.resize(numPoints*9);
+		Vinv.resize(numPoints*9);
+		gradB.resize(numPoints*3);
+		S.resize(neighbors.size*36);
+		rhs.resize(numCameras*6);
+	}
+
+	/**
+	 * Computes the blocks of J<sup>T</sup>*J and the gradient from the Jacobian's current state
+	 */
+	public void computeNormalEquations() {
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, jacobian.numViews, new IntRangeConsumer() {
+				@Override
+				public void accept(int index0, int index1) {
+					computeCameraBlocks(index0, index1);
+				}
+			});
+			BoofConcurrency.loopBlocks(0, numPoints, new IntRangeConsumer() {
+				@Override
+				public void accept(int index0, int index1) {
+					computePointBlocks(index0, index1);
+				}
+			});
+		} else {
+			computeCameraBlocks(0, jacobian.numViews);
+			computePointBlocks(0, numPoints);
+		}
+	}
+
+	/**
+	 * U = sum A<sup>T</sup>*A and ga = sum A<sup>T</sup>*r for each camera
+	 */
+	void computeCameraBlocks( int view0 , int view1 ) {
+		final double[] jac = jacobian.jacCamera.data;
+		final double[] res = jacobian.residuals.data;
+
+		for( int view = view0; view < view1; view++ ) {
+			int camera = jacobian.viewCamera.data[view];
+			if( camera < 0 )
+				continue;
+
+			int indexU = camera*36;
+			int indexG = camera*6;
+			Arrays.fill(U.data, indexU, indexU+36, 0);
+			Arrays.fill(gradA.data, indexG, indexG+6, 0);
+
+			int obs0 = jacobian.viewObsOffset.data[view];
+			int obs1 = jacobian.viewObsOffset.data[view+1];
+			for( int o = obs0; o < obs1; o++ ) {
+				int indexJ = o*12;
+				double rx = res[o*2], ry = res[o*2+1];
+				for( int i = 0; i < 6; i++ ) {
+					double ax = jac[indexJ+i], ay = jac[indexJ+6+i];
+					for( int j = 0; j < 6; j++ ) {
+						U.data[indexU+i*6+j] += ax*jac[indexJ+j] + ay*jac[indexJ+6+j];
+					}
+					gradA.data[indexG+i] += ax*rx + ay*ry;
+				}
+			}
+		}
+	}
+
+	/**
+	 * V = sum B<sup>T</sup>*B and gb = sum B<sup>T</sup>*r for each point
+	 */
+	void computePointBlocks( int point0 , int point1 ) {
+		final double[] jac = jacobian.jacPoint.data;
+		final double[] res = jacobian.residuals.data;
+
+		for( int point = point0; point < point1; point++ ) {
+			int indexV = point*9;
+			int indexG = point*3;
+			Arrays.fill(V.data, indexV, indexV+9, 0);
+			Arrays.fill(gradB.data, indexG, indexG+3, 0);
+
+			for( int k = pointObsOffset.data[point]; k < pointObsOffset.data[point+1]; k++ ) {
+				int o = pointObs.data[k];
+				int indexJ = o*6;
+				double rx = res[o*2], ry = res[o*2+1];
+				for( int i = 0; i < 3; i++ ) {
+					double bx = jac[indexJ+i], by = jac[indexJ+3+i];
+					for( int j = 0; j < 3; j++ ) {
+						V.data[indexV+i*3+j] += bx*jac[indexJ+j] + by*jac[indexJ+3+j];
+					}
+					gradB.data[indexG+i] += bx*rx + by*ry;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Solves for the step with the specified amount of damping.  lambda*max(d,MIN_DAMPING) is added to each
+	 * diagonal element d of J<sup>T</sup>*J.
+	 *
+	 * @param lambda Levenberg-Marquardt damping parameter
+	 * @param stepA (Output) Step for camera parameters.  Length numCameras*6
+	 * @param stepB (Output) Step for point parameters.  Length numPoints*3
+	 * @return true if successful or false if the system is singular
+	 */
+	public boolean solve( final double lambda , double[] stepA , final double[] stepB ) {
+		// invert each of the damped V blocks
+		final boolean[] success = new boolean[]{true};
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, numPoints, new IntRangeConsumer() {
+				@Override
+				public void accept(int index0, int index1) {
+					if( !invertV(lambda, index0, index1) )
+						success[0] = false;
+				}
+			});
+		} else {
+			success[0] = invertV(lambda, 0, numPoints);
+		}
+		if( !success[0] )
+			return false;
+
+		// compute the reduced camera system
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, jacobian.numViews, workspaces, new IntRangeObjectConsumer<Workspace>() {
+				@Override
+				public void accept(Workspace w, int index0, int index1) {
+					computeReducedSystem(w, lambda, index0, index1);
+				}
+			});
+		} else {
+			computeReducedSystem(workspace, lambda, 0, jacobian.numViews);
+		}
+
+		if( numCameras > 0 ) {
+			if( isSolvedIteratively() ) {
+				if( !solvePcg(stepA) )
+					return false;
+			} else if( !solveDense(stepA) ) {
+				return false;
+			}
+		}
+
+		// back substitute to find the step for each point
+		final double[] _stepA = stepA;
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, numPoints, new IntRangeConsumer() {
+				@Override
+				public void accept(int index0, int index1) {
+					computePointStep(_stepA, stepB, index0, index1);
+				}
+			});
+		} else {
+			computePointStep(stepA, stepB, 0, numPoints);
+		}
+
+		return true;
+	}
+
+	/**
+	 * Inverts the damped 3x3 point blocks
+	 */
+	boolean invertV( double lambda , int point0 , int point1 ) {
+		double[] v = V.data;
+		double[] vi = Vinv.data;
+		for( int point = point0; point < point1; point++ ) {
+			int index = point*9;
+
+			// nothing depends on a point which isn't observed.  Zero its inverse so that it never moves
+			if( pointObsOffset.data[point] == pointObsOffset.data[point+1] ) {
+				Arrays.fill(vi, index, index+9, 0);
+				continue;
+			}
+
+			double a11 = damp(v[index],lambda), a12 = v[index+1], a13 = v[index+2];
+			double a21 = v[index+3], a22 = damp(v[index+4],lambda), a23 = v[index+5];
+			double a31 = v[index+6], a32 = v[index+7], a33 = damp(v[index+8],lambda);
+
+			double m11 = a22*a33 - a23*a32;
+			double m12 = -( a21*a33 - a23*a31);
+			double m13 = a21*a32 - a22*a31;
+
+			double det = a11*m11 + a12*m12 + a13*m13;
+			if( !(det > 0) || Double.isInfinite(det) )
+				return false;
+
+			vi[index]   = m11/det;
+			vi[index+1] = -( a12*a33 - a13*a32)/det;
+			vi[index+2] = ( a12*a23 - a13*a22)/det;
+			vi[index+3] = m12/det;
+			vi[index+4] = ( a11*a33 - a13*a31)/det;
+			vi[index+5] = -( a11*a23 - a13*a21)/det;
+			vi[index+6] = m13/det;
+			vi[index+7] = -( a11*a32 - a12*a31)/det;
+			vi[index+8] = ( a11*a22 - a12*a21)/det;
+		}
+		return true;
+	}
+
+	/**
+	 * Adds damping to a diagonal element
+	 */
+	static double damp( double d , double lambda ) {
+		return d + lambda*Math.max(d, MIN_DAMPING);
+	}
+
+	/**
+	 * Computes the rows in the reduced camera system for cameras in the specified views
+	 */
+	void computeReducedSystem( Workspace w , double lambda , int view0 , int view1 ) {
+		final double[] jacA = jacobian.jacCamera.data;
+		final double[] jacB = jacobian.jacPoint.data;
+		final double[] Y = w.Y;
+		final double[] W = w.W;
+
+		w.cameraToBlock.resize(numCameras);
+		final int[] cameraToBlock = w.cameraToBlock.data;
+
+		for( int view = view0; view < view1; view++ ) {
+			int camera = jacobian.viewCamera.data[view];
+			if( camera < 0 )
+				continue;
+
+			int block0 = neighborOffset.data[camera];
+			int block1 = neighborOffset.data[camera+1];
+			Arrays.fill(S.data, block0*36, block1*36, 0);
+			for( int b = block0; b < block1; b++ ) {
+				cameraToBlock[neighbors.data[b]] = b;
+			}
+
+			// S_ii = damped U
+			int indexDiag = cameraToBlock[camera]*36;
+			int indexU = camera*36;
+			for( int i = 0; i < 36; i++ ) {
+				S.data[indexDiag+i] = U.data[indexU+i];
+			}
+			for( int i = 0; i < 6; i++ ) {
+				S.data[indexDiag+i*7] = damp(S.data[indexDiag+i*7], lambda);
+			}
+
+			// rhs = -ga
+			int indexRhs = camera*6;
+			for( int i = 0; i < 6; i++ ) {
+				rhs.data[indexRhs+i] = -gradA.data[indexRhs+i];
+			}
+
+			int obs0 = jacobian.viewObsOffset.data[view];
+			int obs1 = jacobian.viewObsOffset.data[view+1];
+			for( int o = obs0; o < obs1; o++ ) {
+				int point = jacobian.obsPoint.data[o];
+
+				// Y = W*inv(V)
+				computeW(jacA, jacB, o, W);
+				int indexVinv = point*9;
+				for( int i = 0; i < 6; i++ ) {
+					for( int j = 0; j < 3; j++ ) {
+						Y[i*3+j] = W[i*3]*Vinv.data[indexVinv+j] + W[i*3+1]*Vinv.data[indexVinv+3+j] +
+								W[i*3+2]*Vinv.data[indexVinv+6+j];
+					}
+				}
+
+				// rhs += Y*gb
+				int indexG = point*3;
+				for( int i = 0; i < 6; i++ ) {
+					rhs.data[indexRhs+i] += Y[i*3]*gradB.data[indexG] + Y[i*3+1]*gradB.data[indexG+1] +
+							Y[i*3+2]*gradB.data[indexG+2];
+				}
+
+				// S_ik -= Y*W_k^T for every camera k which observed the point
+				for( int k = pointObsOffset.data[point]; k < pointObsOffset.data[point+1]; k++ ) {
+					int o2 = pointObs.data[k];
+					int neighbor = jacobian.obsCamera.data[o2];
+					if( neighbor < 0 )
+						continue;
+					computeW(jacA, jacB, o2, w.W2);
+					int indexS = cameraToBlock[neighbor]*36;
+					for( int i = 0; i < 6; i++ ) {
+						double y0 = Y[i*3], y1 = Y[i*3+1], y2 = Y[i*3+2];
+						for( int j = 0; j < 6; j++ ) {
+							S.data[indexS+i*6+j] -= y0*w.W2[j*3] + y1*w.W2[j*3+1] + y2*w.W2[j*3+2];
+						}
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * W = A<sup>T</sup>*B for an observation
+	 */
+	static void computeW( double[] jacA , double[] jacB , int obs , double[] W ) {
+		int indexA = obs*12;
+		int indexB = obs*6;
+		for( int i = 0; i < 6; i++ ) {
+			double ax = jacA[indexA+i], ay = jacA[indexA+6+i];
+			W[i*3]   = ax*jacB[indexB]   + ay*jacB[indexB+3];
+			W[i*3+1] = ax*jacB[indexB+1] + ay*jacB[indexB+4];
+			W[i*3+2] = ax*jacB[indexB+2] + ay*jacB[indexB+5];
+		}
+	}
+
+	/**
+	 * db = inv(V)*(-gb - sum W<sup>T</sup>*da)
+	 */
+	void computePointStep( double[] stepA , double[] stepB , int point0 , int point1 ) {
+		final double[] jacA = jacobian.jacCamera.data;
+		final double[] jacB = jacobian.jacPoint.data;
+
+		for( int point = point0; point < point1; point++ ) {
+			int indexG = point*3;
+			double b0 = -gradB.data[indexG], b1 = -gradB.data[indexG+1], b2 = -gradB.data[indexG+2];
+
+			for( int k = pointObsOffset.data[point]; k < pointObsOffset.data[point+1]; k++ ) {
+				int o = pointObs.data[k];
+				int camera = jacobian.obsCamera.data[o];
+				if( camera < 0 )
+					continue;
+
+				// W^T*da = B^T*(A*da)
+				int indexA = o*12;
+				int indexB = o*6;
+				int indexStep = camera*6;
+				double ax = 0, ay = 0;
+				for( int i = 0; i < 6; i++ ) {
+					ax += jacA[indexA+i]*stepA[indexStep+i];
+					ay += jacA[indexA+6+i]*stepA[indexStep+i];
+				}
+				b0 -= jacB[indexB]*ax + jacB[indexB+3]*ay;
+				b1 -= jacB[indexB+1]*ax + jacB[indexB+4]*ay;
+				b2 -= jacB[indexB+2]*ax + jacB[indexB+5]*ay;
+			}
+
+			int indexV = point*9;
+			double[] vi = Vinv.data;
+			stepB[indexG]   = vi[indexV]*b0   + vi[indexV+1]*b1 + vi[indexV+2]*b2;
+			stepB[indexG+1] = vi[indexV+3]*b0 + vi[indexV+4]*b1 + vi[indexV+5]*b2;
+			stepB[indexG+2] = vi[indexV+6]*b0 + vi[indexV+7]*b1 + vi[indexV+8]*b2;
+		}
+	}
+
+	/**
+	 * Solves the reduced camera system by converting it into a dense matrix
+	 */
+	boolean solveDense( double[] stepA ) {
+		int N = numCameras*6;
+		denseS.reshape(N,N);
+		denseB.reshape(N,1);
+		denseX.reshape(N,1);
+		denseS.zero();
+
+		for( int camera = 0; camera < numCameras; camera++ ) {
+			for( int b = neighborOffset.data[camera]; b < neighborOffset.data[camera+1]; b++ ) {
+				int neighbor = neighbors.data[b];
+				for( int i = 0; i < 6; i++ ) {
+					System.arraycopy(S.data, b*36+i*6, denseS.data, (camera*6+i)*N+neighbor*6, 6);
+				}
+			}
+		}
+		System.arraycopy(rhs.data, 0, denseB.data, 0, N);
+
+		if( denseSolverSize != N ) {
+			denseSolver = LinearSolverFactory_DDRM.chol(N);
+			denseSolverSize = N;
+		}
+		if( !denseSolver.setA(denseS) )
+			return false;
+		denseSolver.solve(denseB, denseX);
+		System.arraycopy(denseX.data, 0, stepA, 0, N);
+		return true;
+	}
+
+	/**
+	 * Solves the reduced camera system using preconditioned conjugate gradient.  The preconditioner is the inverse
+	 * of the 6x6 diagonal blocks.
+	 */
+	boolean solvePcg( double[] x ) {
+		final int N = numCameras*6;
+		pcgMinv.resize(numCameras*36);
+		pcgR.resize(N);
+		pcgZ.resize(N);
+		pcgP.resize(N);
+		pcgQ.resize(N);
+
+		// block Jacobi preconditioner
+		final boolean[] success = new boolean[]{true};
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, numCameras, workspaces, new IntRangeObjectConsumer<Workspace>() {
+				@Override
+				public void accept(Workspace w, int index0, int index1) {
+					if( !invertDiagonalBlocks(w, index0, index1) )
+						success[0] = false;
+				}
+			});
+		} else {
+			success[0] = invertDiagonalBlocks(workspace, 0, numCameras);
+		}
+		if( !success[0] )
+			return false;
+
+		final double[] r = pcgR.data, z = pcgZ.data, p = pcgP.data, q = pcgQ.data;
+
+		Arrays.fill(x, 0, N, 0);
+		System.arraycopy(rhs.data, 0, r, 0, N);
+		applyPreconditioner(r, z);
+		System.arraycopy(z, 0, p, 0, N);
+
+		double rz = dot(r, z, N);
+		double normB = Math.sqrt(dot(r, r, N));
+		if( normB == 0 )
+			return true;
+
+		for( int iter = 0; iter < pcgMaxIterations; iter++ ) {
+			multiplyS(p, q);
+			double pq = dot(p, q, N);
+			if( !(pq > 0) )
+				return false;
+			double alpha = rz/pq;
+			for( int i = 0; i < N; i++ ) {
+				x[i] += alpha*p[i];
+				r[i] -= alpha*q[i];
+			}
+			if( Math.sqrt(dot(r, r, N)) <= pcgTolerance*normB )
+				break;
+			applyPreconditioner(r, z);
+			double rzNext = dot(r, z, N);
+			double beta = rzNext/rz;
+			rz = rzNext;
+			for( int i = 0; i < N; i++ ) {
+				p[i] = z[i] + beta*p[i];
+			}
+		}
+		return true;
+	}
+
+	boolean invertDiagonalBlocks( Workspace w , int camera0 , int camera1 ) {
+		for( int camera = camera0; camera < camera1; camera++ ) {
+			int indexS = diagonalBlock(camera)*36;
+			System.arraycopy(S.data, indexS, w.block.data, 0, 36);
+			if( !w.blockSolver.setA(w.block) )
+				return false;
+			w.blockSolver.invert(w.blockInv);
+			System.arraycopy(w.blockInv.data, 0, pcgMinv.data, camera*36, 36);
+		}
+		return true;
+	}
+
+	/**
+	 * Index of the camera's block on the diagonal
+	 */
+	int diagonalBlock( int camera ) {
+		return Arrays.binarySearch(neighbors.data, neighborOffset.data[camera], neighborOffset.data[camera+1], camera);
+	}
+
+	void applyPreconditioner( final double[] r , final double[] z ) {
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, numCameras, new IntRangeConsumer() {
+				@Override
+				public void accept(int index0, int index1) {
+					applyPreconditioner(r, z, index0, index1);
+				}
+			});
+		} else {
+			applyPreconditioner(r, z, 0, numCameras);
+		}
+	}
+
+	void applyPreconditioner( double[] r , double[] z , int camera0 , int camera1 ) {
+		double[] m = pcgMinv.data;
+		for( int camera = camera0; camera < camera1; camera++ ) {
+			int indexM = camera*36;
+			int index = camera*6;
+			for( int i = 0; i < 6; i++ ) {
+				double sum = 0;
+				for( int j = 0; j < 6; j++ ) {
+					sum += m[indexM+i*6+j]*r[index+j];
+				}
+				z[index+i] = sum;
+			}
+		}
+	}
+
+	/**
+	 * y = S*x
+	 */
+	void multiplyS( final double[] x , final double[] y ) {
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, numCameras, new IntRangeConsumer() {
+				@Override
+				public void accept(int index0, int index1) {
+					multiplyS(x, y, index0, index1);
+				}
+			});
+		} else {
+			multiplyS(x, y, 0, numCameras);
+		}
+	}
+
+	void multiplyS( double[] x , double[] y , int camera0 , int camera1 ) {
+		for( int camera = camera0; camera < camera1; camera++ ) {
+			int indexY = camera*6;
+			Arrays.fill(y, indexY, indexY+6, 0);
+			for( int b = neighborOffset.data[camera]; b < neighborOffset.data[camera+1]; b++ ) {
+				int indexS = b*36;
+				int indexX = neighbors.data[b]*6;
+				for( int i = 0; i < 6; i++ ) {
+					double sum = 0;
+					for( int j = 0; j < 6; j++ ) {
+						sum += S.data[indexS+i*6+j]*x[indexX+j];
+					}
+					y[indexY+i] += sum;
+				}
+			}
+		}
+	}
+
+	static double dot( double[] a , double[] b , int N ) {
+		double sum = 0;
+		for( int i = 0; i < N; i++ ) {
+			sum += a[i]*b[i];
+		}
+		return sum;
+	}
+
+	/**
+	 * Predicted reduction in the cost function 0.5*|r|<sup>2</sup> from the linear model for the step which
+	 * was just computed.
+	 */
+	public double predictedReduction( double lambda , double[] stepA , double[] stepB ) {
+		// 0.5*step^T*(lambda*D*step - g)
+		double sum = 0;
+		for( int camera = 0; camera < numCameras; camera++ ) {
+			for( int i = 0; i < 6; i++ ) {
+				double d = Math.max(U.data[camera*36+i*7], MIN_DAMPING);
+				double s = stepA[camera*6+i];
+				sum += s*(lambda*d*s - gradA.data[camera*6+i]);
+			}
+		}
+		for( int point = 0; point < numPoints; point++ ) {
+			for( int i = 0; i < 3; i++ ) {
+				double d = Math.max(V.data[point*9+i*4], MIN_DAMPING);
+				double s = stepB[point*3+i];
+				sum += s*(lambda*d*s - gradB.data[point*3+i]);
+			}
+		}
+		return 0.5*sum;
+	}
+
+	/**
+	 * Largest absolute value of an element in the gradient
+	 */
+	public double gradientNormInf() {
+		double max = 0;
+		for( int i = 0; i < numCameras*6; i++ )
+			max = Math.max(max, Math.abs(gradA.data[i]));
+		for( int i = 0; i < numPoints*3; i++ )
+			max = Math.max(max, Math.abs(gradB.data[i]));
+		return max;
+	}
+
+	public boolean isIterative() {
+		return iterative;
+	}
+
+	/**
+	 * If true the reduced camera system is always solved with preconditioned conjugate gradient instead of dense
+	 * Cholesky.  Otherwise it's only used when there are more than maxDenseCameras cameras.
+	 */
+	public void setIterative(boolean iterative) {
+		this.iterative = iterative;
+	}
+
+	public int getMaxDenseCameras() {
+		return maxDenseCameras;
+	}
+
+	/**
+	 * Dense Cholesky decomposition is used to solve the reduced camera system only if there are this many cameras
+	 * or fewer.  It requires (6*cameras)<sup>2</sup> doubles.
+	 */
+	public void setMaxDenseCameras(int maxDenseCameras) {
+		this.maxDenseCameras = maxDenseCameras;
+	}
+
+	/**
+	 * True if the reduced camera system for the current problem is solved using conjugate gradient
+	 */
+	public boolean isSolvedIteratively() {
+		return iterative || numCameras > maxDenseCameras;
+	}
+
+	public int getPcgMaxIterations() {
+		return pcgMaxIterations;
+	}
+
+	public void setPcgMaxIterations(int pcgMaxIterations) {
+		this.pcgMaxIterations = pcgMaxIterations;
+	}
+
+	public double getPcgTolerance() {
+		return pcgTolerance;
+	}
+
+	public void setPcgTolerance(double pcgTolerance) {
+		this.pcgTolerance = pcgTolerance;
+	}
+
+	public boolean isConcurrent() {
+		return concurrent;
+	}
+
+	/**
+	 * If true then cameras and points are processed concurrently.  Results are identical to processing with
+	 * a single thread.
+	 */
+	public void setConcurrent(boolean concurrent) {
+		this.concurrent = concurrent;
+	}
+
+	/**
+	 * Storage for each thread
+	 */
+	static class Workspace {
+		// W = A^T*B and Y = W*inv(V) for an observation
+		double W[] = new double[18];
+		double W2[] = new double[18];
+		double Y[] = new double[18];
+		// look up table from camera index to block in the current row
+		GrowQueue_I32 cameraToBlock = new GrowQueue_I32();
+
+		// used to invert the diagonal blocks
+		DMatrixRMaj block = new DMatrixRMaj(6,6);
+		DMatrixRMaj blockInv = new DMatrixRMaj(6,6);
+		LinearSolver<DMatrixRMaj> blockSolver = LinearSolverFactory_DDRM.chol(6);
+	}
+}
@@ -0,0 +1,246 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.alg.geo.robust;
+
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeObjectConsumer;
+import org.ddogleg.fitting.modelset.DistanceFromModel;
+import org.ddogleg.fitting.modelset.ModelGenerator;
+import org.ddogleg.fitting.modelset.ModelManager;
+import org.ddogleg.fitting.modelset.ransac.Ransac;
+import org.ddogleg.struct.FastQueue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * {@link Ransac} which generates and scores hypotheses in batches.  The minimal sets for all the hypotheses in a
+ * batch are drawn first using the same random sequence as {@link Ransac}, then the hypotheses are evaluated
+ * concurrently.  Each thread has its own {@link ModelGenerator} and {@link DistanceFromModel}, which are
+ * created using {@link Factory}.  The first hypothesis with the most inliers is selected, making the results
+ * identical to {@link Ransac} with the same seed, independent of the number of threads.
+ * </p>
+ *
+ * <p>
+ * Since it extends {@link Ransac} it can be used anywhere {@link Ransac} is used.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class RansacConcurrent<Model,Point> extends Ransac<Model,Point> {
+
+	// creates models and copies of the generator and distance function for each thread
+	ModelManager<Model> manager;
+	Factory<Model,Point> factory;
+
+	// number of hypotheses which are evaluated at the same time
+	int batchSize = 64;
+
+	// minimal sets for each hypothesis in the batch
+	List<List<Point>> samples = new ArrayList<>();
+
+	// the input points
+	List<Point> points;
+
+	// number of inliers in the best model found so far
+	int bestCount;
+
+	// should it process hypotheses concurrently
+	boolean concurrent = true;
+
+	// workspace for when it's not concurrent.  Uses the generator and distance passed to Ransac
+	Workspace workspace;
+	FastQueue<Workspace> workspaces;
+
+	/**
+	 * Creates a new instance of RANSAC
+	 *
+	 * @param randSeed Seed for the random number generator.
+	 * @param manager Model manager
+	 * @param factory Creates the model generator and distance function.  One of each is created for every thread.
+	 * @param maxIterations Maximum number of hypotheses which are evaluated
+	 * @param thresholdFit A point is an inlier if its distance is less than this value.
+	 */
+	public RansacConcurrent(long randSeed,
+							ModelManager<Model> manager,
+							Factory<Model, Point> factory,
+							int maxIterations, double thresholdFit) {
+		super(randSeed, manager, factory.createGenerator(), factory.createDistance(), maxIterations, thresholdFit);
+		this.manager = manager;
+		this.factory = factory;
+
+		workspace = new Workspace(modelGenerator, modelDistance);
+		workspaces = new FastQueue<Workspace>((Class)Workspace.class,true) {
+			@Override
+			protected Workspace createInstance() {
+				return new Workspace(RansacConcurrent.this.factory.createGenerator(),
+						RansacConcurrent.this.factory.createDistance());
+			}
+		};
+	}
+
+	@Override
+	public boolean process(List<Point> points) {
+		if( points.size() < modelGenerator.getMinimumPoints() )
+			return false;
+
+		this.points = points;
+		dataSet.clear();
+		dataSet.addAll(points);
+		initialize(dataSet);
+		bestCount = 0;
+
+		for( int i = samples.size(); i < batchSize; i++ ) {
+			samples.add( new ArrayList<Point>());
+		}
+
+		for( int iteration = 0; iteration < maxIterations && bestCount != dataSet.size(); ) {
+			int numHypotheses = Math.min(batchSize, maxIterations-iteration);
+
+			// draw all the minimal sets in the same order as Ransac
+			for( int i = 0; i < numHypotheses; i++ ) {
+				randomDraw(dataSet, sampleSize, samples.get(i), rand);
+			}
+
+			if( concurrent ) {
+				BoofConcurrency.loopBlocks(0, numHypotheses, workspaces, new IntRangeObjectConsumer<Workspace>() {
+					@Override
+					public void accept(Workspace work, int index0, int index1) {
+						evaluateHypotheses(work, index0, index1);
+					}
+				});
+				// blocks are in order, so the first hypothesis with the most inliers is selected
+				for( int i = 0; i < workspaces.size; i++ ) {
+					selectBest(workspaces.get(i));
+				}
+			} else {
+				evaluateHypotheses(workspace, 0, numHypotheses);
+				selectBest(workspace);
+			}
+
+			iteration += numHypotheses;
+		}
+
+		if( bestCount > 0 ) {
+			// find the inliers for the best model
+			selectMatchSet(points, thresholdFit, bestFitParam);
+			List<Point> tmpList = candidatePoints;
+			candidatePoints = bestFitPoints;
+			bestFitPoints = tmpList;
+			int tmpArray[] = matchToInput;
+			matchToInput = bestMatchToInput;
+			bestMatchToInput = tmpArray;
+		} else {
+			bestFitPoints.clear();
+		}
+
+		this.points = null;
+		return bestCount > 0;
+	}
+
+	/**
+	 * Generates and scores the hypotheses in the specified range.  The first one with the most inliers
+	 * is saved in the workspace.
+	 */
+	void evaluateHypotheses( Workspace work , int index0 , int index1 ) {
+		work.bestCount = 0;
+
+		for( int i = index0; i < index1; i++ ) {
+			if( !work.generator.generate(samples.get(i), work.candidate) )
+				continue;
+
+			work.distance.setModel(work.candidate);
+			int count = 0;
+			for( int j = 0; j < points.size(); j++ ) {
+				if( work.distance.computeDistance(points.get(j)) < thresholdFit )
+					count++;
+			}
+
+			if( count > work.bestCount ) {
+				work.bestCount = count;
+				Model tmp = work.candidate;
+				work.candidate = work.best;
+				work.best = tmp;
+			}
+		}
+	}
+
+	private void selectBest( Workspace work ) {
+		if( work.bestCount > bestCount ) {
+			bestCount = work.bestCount;
+			manager.copyModel(work.best, bestFitParam);
+		}
+	}
+
+	/**
+	 * Number of hypotheses which are evaluated together.  A larger batch gives each thread more work but
+	 * can evaluate extra hypotheses after a model which fits every point has been found.
+	 */
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	public void setBatchSize(int batchSize) {
+		if( batchSize < 1 )
+			throw new IllegalArgumentException("Batch size must be at least 1");
+		this.batchSize = batchSize;
+	}
+
+	public boolean isConcurrent() {
+		return concurrent;
+	}
+
+	/**
+	 * If true then hypotheses will be evaluated concurrently.  Results are identical to processing with a
+	 * single thread.
+	 */
+	public void setConcurrent(boolean concurrent) {
+		this.concurrent = concurrent;
+	}
+
+	/**
+	 * Creates a new instance of the model generator and distance function.  Each thread is given its own
+	 * copy since they are not thread safe.
+	 */
+	public interface Factory<Model,Point> {
+		ModelGenerator<Model,Point> createGenerator();
+
+		DistanceFromModel<Model,Point> createDistance();
+	}
+
+	/**
+	 * Storage for each thread
+	 */
+	class Workspace {
+		ModelGenerator<Model,Point> generator;
+		DistanceFromModel<Model,Point> distance;
+		// the hypothesis being evaluated
+		Model candidate = manager.createModelInstance();
+		// the best hypothesis in the block
+		Model best = manager.createModelInstance();
+		int bestCount;
+
+		Workspace(ModelGenerator<Model, Point> generator, DistanceFromModel<Model, Point> distance) {
+			this.generator = generator;
+			this.distance = distance;
+		}
+	}
+}
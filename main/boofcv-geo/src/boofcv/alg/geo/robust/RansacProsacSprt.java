@@ -0,0 +1,361 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.alg.geo.robust;
+
+import org.ddogleg.fitting.modelset.DistanceFromModel;
+import org.ddogleg.fitting.modelset.ModelGenerator;
+import org.ddogleg.fitting.modelset.ModelManager;
+import org.ddogleg.fitting.modelset.ransac.Ransac;
+import org.ddogleg.struct.GrowQueue_I32;
+
+import java.util.List;
+
+/**
+ * <p>
+ * Variant of {@link Ransac} which tries to find a good model with far fewer hypotheses and less work scoring
+ * each of them.  Three techniques are combined:
+ * </p>
+ * <ul>
+ *     <li>PROSAC [1]: Input points are assumed to be sorted from best to worst match quality.  Samples are first
+ *     drawn from the best points and then from a progressively larger set.  If the points are not sorted the
+ *     samples are no worse than uniform sampling.</li>
+ *     <li>SPRT [2]: While a hypothesis is scored a likelihood ratio is updated after each point.  Once it's
+ *     unlikely that the hypothesis is good it is rejected without scoring the remaining points.</li>
+ *     <li>Adaptive termination: The number of hypotheses needed to find a good model with the specified
+ *     confidence is computed from the best inlier ratio found so far.</li>
+ * </ul>
+ *
+ * <p>
+ * Set of inliers is selected by computing the distance of each point from the best model found.  maxIterations
+ * is the upper limit on the number of hypotheses.
+ * </p>
+ *
+ * <p>
+ * [1] Chum, O. and Matas, J. "Matching with PROSAC - Progressive Sample Consensus" CVPR 2005<br>
+ * [2] Matas, J. and Chum, O. "Randomized RANSAC with Sequential Probability Ratio Test" ICCV 2005
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class RansacProsacSprt<Model,Point> extends Ransac<Model,Point> {
+
+	ModelManager<Model> manager;
+
+	// probability that at least one sample contains only inliers when it stops
+	double confidence = 0.99;
+
+	// time to generate a hypothesis relative to computing the distance of one point
+	double modelTime = 200;
+
+	// initial estimate of the fraction of points which are consistent with a bad model
+	double initialDelta = 0.05;
+
+	// current SPRT parameters.  epsilon is the inlier fraction of the best model, which is a lower bound for a good
+	// model.  Until a model has been found SPRT is not used
+	double delta, epsilon;
+	// SPRT decision threshold
+	double thresholdA;
+	// sum of inliers and points evaluated in rejected models.  Used to estimate delta
+	long rejectedInliers, rejectedTotal;
+
+	// order points are drawn in for PROSAC.  Only the first n elements are shuffled
+	GrowQueue_I32 sampleOrder = new GrowQueue_I32();
+	// order points are scored in.  Randomized so that SPRT sees an unbiased sequence
+	GrowQueue_I32 scoreOrder = new GrowQueue_I32();
+
+	// number of inliers in the best model
+	int bestCount;
+
+	// number of hypotheses generated in the last call to process
+	int iterations;
+	// number of hypotheses which were rejected by SPRT in the last call to process
+	int rejectedCount;
+
+	/**
+	 * Creates a new instance
+	 *
+	 * @param randSeed Seed for the random number generator.
+	 * @param manager Model manager
+	 * @param generator Creates a hypothesis from a minimal set of points
+	 * @param distance Computes the distance of a point from the hypothesis
+	 * @param maxIterations Maximum number of hypotheses which are generated
+	 * @param thresholdFit A point is an inlier if its distance is less than this value.
+	 */
+	public RansacProsacSprt(long randSeed,
+							ModelManager<Model> manager,
+							ModelGenerator<Model, Point> generator,
+							DistanceFromModel<Model, Point> distance,
+							int maxIterations, double thresholdFit) {
+		super(randSeed, manager, generator, distance, maxIterations, thresholdFit);
+		this.manager = manager;
+	}
+
+	/**
+	 * Finds the best model.
+	 *
+	 * @param points Points sorted from best to worst match quality.
+	 * @return true if a model was found
+	 */
+	@Override
+	public boolean process(List<Point> points) {
+		int N = points.size();
+		if( N < modelGenerator.getMinimumPoints() )
+			return false;
+
+		dataSet.clear();
+		dataSet.addAll(points);
+		initialize(dataSet);
+
+		sampleOrder.resize(N);
+		scoreOrder.resize(N);
+		for( int i = 0; i < N; i++ ) {
+			sampleOrder.data[i] = i;
+			scoreOrder.data[i] = i;
+		}
+		for( int i = N-1; i > 0; i-- ) {
+			int j = rand.nextInt(i+1);
+			int tmp = scoreOrder.data[i]; scoreOrder.data[i] = scoreOrder.data[j]; scoreOrder.data[j] = tmp;
+		}
+
+		bestCount = 0;
+		rejectedCount = 0;
+		delta = initialDelta;
+		epsilon = 0;
+		rejectedInliers = 0;
+		rejectedTotal = 0;
+		updateThresholdA();
+
+		// PROSAC growth function.  See paper for details
+		int m = sampleSize;
+		int n = m;
+		double T_n = maxIterations;
+		for( int i = 0; i < m; i++ ) {
+			T_n *= (double)(m-i)/(N-i);
+		}
+		int Tprime_n = 1;
+
+		int maxHypotheses = maxIterations;
+		for( iterations = 0; iterations < maxHypotheses && bestCount != N; iterations++ ) {
+			int t = iterations + 1;
+			if( t > Tprime_n && n < N ) {
+				double T_next = T_n*(n+1)/(n+1-m);
+				Tprime_n += (int)Math.ceil(T_next - T_n);
+				T_n = T_next;
+				n++;
+			}
+
+			drawSample(n, t > Tprime_n || n == N, initialSample);
+
+			if( !modelGenerator.generate(initialSample, candidateParam) )
+				continue;
+
+			int count = scoreHypothesis(candidateParam);
+			if( count < 0 ) {
+				rejectedCount++;
+				continue;
+			}
+
+			if( count > bestCount ) {
+				bestCount = count;
+				Model tmp = bestFitParam;
+				bestFitParam = candidateParam;
+				candidateParam = tmp;
+
+				epsilon = Math.min(0.999, count/(double)N);
+				updateThresholdA();
+
+				maxHypotheses = Math.min(maxIterations, requiredIterations(count/(double)N));
+			}
+		}
+
+		if( bestCount > 0 ) {
+			// find the inliers for the best model
+			selectMatchSet(points, thresholdFit, bestFitParam);
+			List<Point> tmpList = candidatePoints;
+			candidatePoints = bestFitPoints;
+			bestFitPoints = tmpList;
+			int tmpArray[] = matchToInput;
+			matchToInput = bestMatchToInput;
+			bestMatchToInput = tmpArray;
+		} else {
+			bestFitPoints.clear();
+		}
+
+		return bestCount > 0;
+	}
+
+	/**
+	 * Draws a sample from the best n points
+	 *
+	 * @param n Number of points which can be sampled from
+	 * @param uniform If true all m points are drawn from the best n.  Otherwise the n-th point is always
+	 *                included and the rest are drawn from the best n-1.
+	 * @param sample (Output) the sample
+	 */
+	void drawSample( int n , boolean uniform , List<Point> sample ) {
+		sample.clear();
+
+		int[] order = sampleOrder.data;
+		int numRandom = uniform ? sampleSize : sampleSize-1;
+		int length = uniform ? n : n-1;
+
+		// partial Fisher-Yates shuffle of the first 'length' elements
+		for( int i = 0; i < numRandom; i++ ) {
+			int j = i + rand.nextInt(length-i);
+			int tmp = order[i]; order[i] = order[j]; order[j] = tmp;
+			sample.add(dataSet.get(order[i]));
+		}
+		if( !uniform ) {
+			sample.add(dataSet.get(order[n-1]));
+		}
+	}
+
+	/**
+	 * Scores the hypothesis using SPRT.  Until a model has been found which has more inliers than a bad model is
+	 * expected to have, all the points are scored.
+	 *
+	 * @return Number of inliers or -1 if it was rejected
+	 */
+	int scoreHypothesis( Model model ) {
+		modelDistance.setModel(model);
+
+		int N = dataSet.size();
+		int[] order = scoreOrder.data;
+
+		// SPRT is only meaningful if inliers are more likely with a good model
+		if( delta >= epsilon ) {
+			int count = 0;
+			for( int i = 0; i < N; i++ ) {
+				if( modelDistance.computeDistance(dataSet.get(order[i])) < thresholdFit )
+					count++;
+			}
+			return count;
+		}
+
+		double ratioInlier = delta/epsilon;
+		double ratioOutlier = (1-delta)/(1-epsilon);
+
+		double lambda = 1;
+		int count = 0;
+		for( int i = 0; i < N; i++ ) {
+			if( modelDistance.computeDistance(dataSet.get(order[i])) < thresholdFit ) {
+				count++;
+				lambda *= ratioInlier;
+			} else {
+				lambda *= ratioOutlier;
+			}
+
+			if( lambda > thresholdA ) {
+				// assume it's a bad model and use it to estimate delta
+				rejectedInliers += count;
+				rejectedTotal += i+1;
+				double deltaNew = rejectedInliers/(double)rejectedTotal;
+				if( Math.abs(deltaNew-delta) > 0.05*delta ) {
+					delta = Math.max(1e-4, deltaNew);
+					updateThresholdA();
+				}
+				return -1;
+			}
+		}
+
+		return count;
+	}
+
+	/**
+	 * Computes the SPRT decision threshold A from the current estimates of delta and epsilon
+	 */
+	void updateThresholdA() {
+		if( delta >= epsilon ) {
+			thresholdA = Double.MAX_VALUE;
+			return;
+		}
+		double C = (1-delta)*Math.log((1-delta)/(1-epsilon)) + delta*Math.log(delta/epsilon);
+		double A0 = modelTime*C + 1;
+		double A = A0;
+		for( int i = 0; i < 10; i++ ) {
+			A = A0 + Math.log(A);
+		}
+		thresholdA = A;
+	}
+
+	/**
+	 * Number of hypotheses required to sample a set of only inliers with the specified confidence.  Takes in
+	 * account that SPRT will reject good models with a probability of 1/A.
+	 */
+	int requiredIterations( double inlierRatio ) {
+		double probGood = Math.pow(inlierRatio, sampleSize);
+		if( thresholdA != Double.MAX_VALUE )
+			probGood *= 1.0 - 1.0/thresholdA;
+		if( probGood >= 1.0 )
+			return 1;
+		if( probGood <= 0 )
+			return Integer.MAX_VALUE;
+		double k = Math.log(1.0-confidence)/Math.log(1.0-probGood);
+		return k >= Integer.MAX_VALUE ? Integer.MAX_VALUE : (int)Math.ceil(k);
+	}
+
+	/**
+	 * Number of hypotheses generated in the last call to process
+	 */
+	public int getIterations() {
+		return iterations;
+	}
+
+	/**
+	 * Number of hypotheses which were rejected before all the points were scored in the last call to process
+	 */
+	public int getRejectedCount() {
+		return rejectedCount;
+	}
+
+	public double getConfidence() {
+		return confidence;
+	}
+
+	/**
+	 * Probability that a sample with only inliers has been drawn when it stops.  Try 0.99
+	 */
+	public void setConfidence(double confidence) {
+		this.confidence = confidence;
+	}
+
+	public double getModelTime() {
+		return modelTime;
+	}
+
+	/**
+	 * Time to generate a hypothesis relative to computing the distance of one point.  Used by SPRT.
+	 */
+	public void setModelTime(double modelTime) {
+		this.modelTime = modelTime;
+	}
+
+	public double getInitialDelta() {
+		return initialDelta;
+	}
+
+	/**
+	 * Initial estimate of the fraction of points which are inliers to a bad hypothesis.
+	 */
+	public void setInitialDelta(double initialDelta) {
+		this.initialDelta = initialDelta;
+	}
+
+}
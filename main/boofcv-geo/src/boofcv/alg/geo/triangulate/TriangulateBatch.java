@@ -0,0 +1,283 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.alg.geo.triangulate;
+
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeConsumer;
+import georegression.struct.point.Vector3D_F64;
+import georegression.struct.se.Se3_F64;
+import org.ejml.data.DMatrixRMaj;
+
+import java.util.List;
+
+/**
+ * <p>
+ * Triangulates and computes the reprojection error for a large number of points at once.  Observations and points are
+ * stored in packed arrays, e.g. observation 'i' is at (obs[i*2],obs[i*2+1]) and point 'i' is at
+ * (pts[i*3],pts[i*3+1],pts[i*3+2]).  All computations are done in closed form without declaring any memory and
+ * can optionally be done concurrently.
+ * </p>
+ *
+ * <ul>
+ * <li>Two views: Same solution as {@link TriangulateGeometric}, the point which minimizes the distance between
+ * the two rays.</li>
+ * <li>N views: Linear least-squares solution to the same equations as {@link TriangulateLinearDLT}, but with
+ * the homogeneous coordinate fixed to one and solved using the 3x3 normal equations.</li>
+ * </ul>
+ *
+ * <p>
+ * All observations are in normalized image coordinates.  If a point can't be triangulated, e.g. the rays
+ * are parallel, then its location will not be finite.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class TriangulateBatch {
+
+	// minimum number of points processed by a thread
+	int minBlock = 200;
+
+	// should it process points concurrently
+	boolean concurrent = false;
+
+	/**
+	 * Triangulates points observed in two views.
+	 *
+	 * @param obsA Packed observations in view 'a'.  Not modified.
+	 * @param obsB Packed observations in view 'b'.  Not modified.
+	 * @param numPoints Number of points
+	 * @param fromAtoB Transformation from camera view 'a' to 'b'  Not modified.
+	 * @param foundInA (Output) Packed 3D location of each point in view 'a'.  Must be at least numPoints*3.
+	 */
+	public void triangulate( final double[] obsA , final double[] obsB , int numPoints ,
+							 final Se3_F64 fromAtoB , final double[] foundInA ) {
+		checkLength(obsA, numPoints*2);
+		checkLength(obsB, numPoints*2);
+		checkLength(foundInA, numPoints*3);
+
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, numPoints, minBlock, new IntRangeConsumer() {
+				@Override
+				public void accept(int index0, int index1) {
+					triangulate(obsA, obsB, fromAtoB, foundInA, index0, index1);
+				}
+			});
+		} else {
+			triangulate(obsA, obsB, fromAtoB, foundInA, 0, numPoints);
+		}
+	}
+
+	/**
+	 * Closest point between the two rays for points in the range [index0,index1)
+	 */
+	static void triangulate( double[] obsA , double[] obsB , Se3_F64 fromAtoB , double[] foundInA ,
+							 int index0 , int index1 ) {
+		final double[] R = fromAtoB.getR().data;
+		final double tx = fromAtoB.getT().x, ty = fromAtoB.getT().y, tz = fromAtoB.getT().z;
+
+		// location of camera 'b' in view 'a'.  -R'*T
+		final double cx = -(R[0]*tx + R[3]*ty + R[6]*tz);
+		final double cy = -(R[1]*tx + R[4]*ty + R[7]*tz);
+		final double cz = -(R[2]*tx + R[5]*ty + R[8]*tz);
+
+		for( int i = index0; i < index1; i++ ) {
+			// ray 'a' starts at the origin with slope (ax,ay,1)
+			double ax = obsA[i*2], ay = obsA[i*2+1];
+
+			// ray 'b' rotated into view 'a'.  R'*(bx,by,1)
+			double bx = obsB[i*2], by = obsB[i*2+1];
+			double sx = R[0]*bx + R[3]*by + R[6];
+			double sy = R[1]*bx + R[4]*by + R[7];
+			double sz = R[2]*bx + R[5]*by + R[8];
+
+			// closest point between two lines
+			double a = ax*ax + ay*ay + 1;
+			double b = ax*sx + ay*sy + sz;
+			double c = sx*sx + sy*sy + sz*sz;
+			double d = -(ax*cx + ay*cy + cz);
+			double e = -(sx*cx + sy*cy + sz*cz);
+
+			double denom = a*c - b*b;
+			double t0 = (b*e - c*d)/denom;
+			double t1 = (a*e - b*d)/denom;
+
+			foundInA[i*3  ] = 0.5*(ax*t0 + cx + sx*t1);
+			foundInA[i*3+1] = 0.5*(ay*t0 + cy + sy*t1);
+			foundInA[i*3+2] = 0.5*(t0 + cz + sz*t1);
+		}
+	}
+
+	/**
+	 * Triangulates points which are observed in every view.
+	 *
+	 * @param observations Packed observations.  Observation of point 'i' in view 'j' is at index
+	 *                     (i*numViews + j)*2.  Not modified.
+	 * @param numPoints Number of points
+	 * @param worldToView Transformations from world to each view.  Not modified.
+	 * @param found (Output) Packed 3D location of each point in world frame.  Must be at least numPoints*3.
+	 */
+	public void triangulate( final double[] observations , int numPoints ,
+							 final List<Se3_F64> worldToView , final double[] found ) {
+		final int numViews = worldToView.size();
+		if( numViews < 2 )
+			throw new IllegalArgumentException("Need at least two views");
+		checkLength(observations, numPoints*numViews*2);
+		checkLength(found, numPoints*3);
+
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, numPoints, Math.max(1,minBlock/numViews), new IntRangeConsumer() {
+				@Override
+				public void accept(int index0, int index1) {
+					triangulate(observations, worldToView, found, index0, index1);
+				}
+			});
+		} else {
+			triangulate(observations, worldToView, found, 0, numPoints);
+		}
+	}
+
+	/**
+	 * Linear solution for points in the range [index0,index1)
+	 */
+	static void triangulate( double[] observations , List<Se3_F64> worldToView , double[] found ,
+							 int index0 , int index1 ) {
+		final int numViews = worldToView.size();
+
+		for( int i = index0; i < index1; i++ ) {
+			// upper triangle of A'*A and A'*y, where A*X = y
+			double m11 = 0, m12 = 0, m13 = 0, m22 = 0, m23 = 0, m33 = 0;
+			double g1 = 0, g2 = 0, g3 = 0;
+
+			int indexObs = i*numViews*2;
+			for( int view = 0; view < numViews; view++ ) {
+				Se3_F64 motion = worldToView.get(view);
+				DMatrixRMaj R = motion.getR();
+				Vector3D_F64 T = motion.getT();
+				double x = observations[indexObs++];
+				double y = observations[indexObs++];
+
+				for( int row = 0; row < 2; row++ ) {
+					double o = row == 0 ? x : y;
+					int r = row*3;
+					double a1 = o*R.data[6] - R.data[r];
+					double a2 = o*R.data[7] - R.data[r+1];
+					double a3 = o*R.data[8] - R.data[r+2];
+					double b = -(o*T.z - (row == 0 ? T.x : T.y));
+
+					m11 += a1*a1; m12 += a1*a2; m13 += a1*a3;
+					m22 += a2*a2; m23 += a2*a3;
+					m33 += a3*a3;
+					g1 += a1*b; g2 += a2*b; g3 += a3*b;
+				}
+			}
+
+			// solve using the inverse of the symmetric 3x3 matrix
+			double c11 = m22*m33 - m23*m23;
+			double c12 = m13*m23 - m12*m33;
+			double c13 = m12*m23 - m13*m22;
+			double c22 = m11*m33 - m13*m13;
+			double c23 = m12*m13 - m11*m23;
+			double c33 = m11*m22 - m12*m12;
+			double det = m11*c11 + m12*c12 + m13*c13;
+
+			found[i*3  ] = (c11*g1 + c12*g2 + c13*g3)/det;
+			found[i*3+1] = (c12*g1 + c22*g2 + c23*g3)/det;
+			found[i*3+2] = (c13*g1 + c23*g2 + c33*g3)/det;
+		}
+	}
+
+	/**
+	 * Computes the reprojection error squared of each point in a view.
+	 *
+	 * @param points Packed 3D location of each point.  Not modified.
+	 * @param observations Packed observations in normalized image coordinates.  Not modified.
+	 * @param numPoints Number of points
+	 * @param worldToView Transformation from the points' frame to the view.  Not modified.
+	 * @param errors (Output) Reprojection error squared of each point.  Points behind the camera will
+	 *               have an error of Double.MAX_VALUE.  Must be at least numPoints.
+	 */
+	public void reprojectionErrorSq( final double[] points , final double[] observations , int numPoints ,
+									 final Se3_F64 worldToView , final double[] errors ) {
+		checkLength(points, numPoints*3);
+		checkLength(observations, numPoints*2);
+		checkLength(errors, numPoints);
+
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, numPoints, minBlock, new IntRangeConsumer() {
+				@Override
+				public void accept(int index0, int index1) {
+					reprojectionErrorSq(points, observations, worldToView, errors, index0, index1);
+				}
+			});
+		} else {
+			reprojectionErrorSq(points, observations, worldToView, errors, 0, numPoints);
+		}
+	}
+
+	static void reprojectionErrorSq( double[] points , double[] observations , Se3_F64 worldToView ,
+									 double[] errors , int index0 , int index1 ) {
+		final double[] R = worldToView.getR().data;
+		final double tx = worldToView.getT().x, ty = worldToView.getT().y, tz = worldToView.getT().z;
+
+		for( int i = index0; i < index1; i++ ) {
+			double X = points[i*3], Y = points[i*3+1], Z = points[i*3+2];
+
+			double z = R[6]*X + R[7]*Y + R[8]*Z + tz;
+			if( z <= 0 ) {
+				errors[i] = Double.MAX_VALUE;
+				continue;
+			}
+			double x = R[0]*X + R[1]*Y + R[2]*Z + tx;
+			double y = R[3]*X + R[4]*Y + R[5]*Z + ty;
+
+			double dx = x/z - observations[i*2];
+			double dy = y/z - observations[i*2+1];
+			errors[i] = dx*dx + dy*dy;
+		}
+	}
+
+	private static void checkLength( double[] array , int length ) {
+		if( array.length < length )
+			throw new IllegalArgumentException("Array is too small.  Expected at least "+length);
+	}
+
+	public boolean isConcurrent() {
+		return concurrent;
+	}
+
+	/**
+	 * If true then points will be processed concurrently.  Results are identical to processing with a
+	 * single thread.
+	 */
+	public void setConcurrent(boolean concurrent) {
+		this.concurrent = concurrent;
+	}
+
+	public int getMinBlock() {
+		return minBlock;
+	}
+
+	/**
+	 * Minimum number of points each thread will process.  Avoids threading overhead on small problems.
+	 */
+	public void setMinBlock(int minBlock) {
+		this.minBlock = minBlock;
+	}
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.factory.geo;
+
+import boofcv.struct.Configuration;
+
+/**
+ * Configuration for sparse bundle adjustment with known calibration.
+ *
+ * @see boofcv.abst.geo.bundle.BundleAdjustmentCalibratedSparse
+ *
+ * @author Peter Abeles
+ */
+public class ConfigBundleAdjustment implements Configuration {
+
+	/**
+	 * Stop when the relative change in error is less than this.
+	 */
+	public double convergenceTol = 1e-8;
+
+	/**
+	 * Maximum number of iterations.
+	 */
+	public int maxIterations = 200;
+
+	/**
+	 * If true the reduced camera system is always solved with preconditioned conjugate gradient instead of dense
+	 * Cholesky decomposition.
+	 */
+	public boolean iterative = false;
+
+	/**
+	 * Dense Cholesky decomposition is only used when there are this many unknown views or fewer.  Otherwise
+	 * preconditioned conjugate gradient is used, which doesn't need memory for a dense (6*views)<sup>2</sup> matrix.
+	 */
+	public int maxDenseCameras = 100;
+
+	/**
+	 * Maximum number of conjugate gradient iterations in each step.
+	 */
+	public int pcgMaxIterations = 500;
+
+	/**
+	 * Conjugate gradient stops when the residual is reduced by this fraction.
+	 */
+	public double pcgTolerance = 1e-10;
+
+	/**
+	 * If true then the Jacobian and normal equations are computed concurrently.
+	 */
+	public boolean concurrent = false;
+
+	public ConfigBundleAdjustment(double convergenceTol, int maxIterations) {
+		this.convergenceTol = convergenceTol;
+		this.maxIterations = maxIterations;
+	}
+
+	public ConfigBundleAdjustment() {
+	}
+
+	@Override
+	public void checkValidity() {
+		if( maxIterations < 0 )
+			throw new IllegalArgumentException("maxIterations must be >= 0");
+		if( maxDenseCameras < 0 )
+			throw new IllegalArgumentException("maxDenseCameras must be >= 0");
+		if( pcgMaxIterations <= 0 )
+			throw new IllegalArgumentException("pcgMaxIterations must be > 0");
+	}
+}
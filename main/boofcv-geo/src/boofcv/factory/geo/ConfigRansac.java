@@ -38,6 +38,24 @@ public class ConfigRansac implements Configuration {
 	 * Inlier threshold.
 	 */
 	public double inlierThreshold;
+	/**
+	 * If true then hypotheses will be evaluated concurrently using {@link boofcv.alg.geo.robust.RansacConcurrent}.
+	 * Results are identical to processing with a single thread.
+	 */
+	public boolean concurrent = false;
+	/**
+	 * If true then {@link boofcv.alg.geo.robust.RansacProsacSprt} is used.  Hypotheses are drawn from the best
+	 * matches first, bad hypotheses are rejected early, and it stops once enough hypotheses have been generated to
+	 * achieve the specified confidence.  Input points should be sorted from best to worst match quality.  When
+	 * they come from associated features this is done by sorting the matches with
+	 * {@link boofcv.alg.feature.associate.UtilAssociate#sortByFitScore}.  maxIterations becomes the upper limit.
+	 * Takes priority over concurrent.
+	 */
+	public boolean adaptive = false;
+	/**
+	 * Probability that a set of only inliers has been sampled when adaptive stops
+	 */
+	public double confidence = 0.99;
 
 	public ConfigRansac(int maxIterations, double inlierThreshold) {
 		this.maxIterations = maxIterations;
@@ -49,6 +67,7 @@ public class ConfigRansac implements Configuration {
 
 	@Override
 	public void checkValidity() {
-
+		if( adaptive && (confidence <= 0 || confidence >= 1) )
+			throw new IllegalArgumentException("confidence must be between 0 and 1, exclusive");
 	}
 }
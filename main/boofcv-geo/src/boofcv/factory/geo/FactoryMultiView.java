@@ -20,6 +20,7 @@ package boofcv.factory.geo;
 
 import boofcv.abst.geo.*;
 import boofcv.abst.geo.bundle.BundleAdjustmentCalibratedDense;
+import boofcv.abst.geo.bundle.BundleAdjustmentCalibratedSparse;
 import boofcv.abst.geo.f.*;
 import boofcv.abst.geo.h.LeastSquaresHomography;
 import boofcv.abst.geo.h.WrapHomographyLinear;
@@ -58,11 +59,48 @@ public class FactoryMultiView {
 	/**
 	 * Creates bundle adjustment for a camera with a know and fixed intrinsic calibration
 	 *
+	 * @see BundleAdjustmentCalibratedSparse
+	 *
 	 * @param tol Convergence tolerance.  Try 1e-8
 	 * @param maxIterations Maximum number of iterations. Try 200 or more
 	 * @return Bundle Adjustment
 	 */
 	public static BundleAdjustmentCalibrated bundleCalibrated(double tol , int maxIterations) {
+		return bundleCalibrated(new ConfigBundleAdjustment(tol,maxIterations));
+	}
+
+	/**
+	 * Creates sparse bundle adjustment for a camera with a know and fixed intrinsic calibration
+	 *
+	 * @see BundleAdjustmentCalibratedSparse
+	 *
+	 * @param config Configuration.  If null then default values are used.
+	 * @return Bundle Adjustment
+	 */
+	public static BundleAdjustmentCalibrated bundleCalibrated( ConfigBundleAdjustment config ) {
+		if( config == null )
+			config = new ConfigBundleAdjustment();
+		config.checkValidity();
+
+		BundleAdjustmentCalibratedSparse alg =
+				new BundleAdjustmentCalibratedSparse(config.convergenceTol,config.maxIterations);
+		alg.setIterative(config.iterative);
+		alg.setMaxDenseCameras(config.maxDenseCameras);
+		alg.getSolver().setPcgMaxIterations(config.pcgMaxIterations);
+		alg.getSolver().setPcgTolerance(config.pcgTolerance);
+		alg.setConcurrent(config.concurrent);
+		return alg;
+	}
+
+	/**
+	 * Creates bundle adjustment for a camera with a know and fixed intrinsic calibration using dense matrices.
+	 * Only practical for small problems.
+	 *
+	 * @param tol Convergence tolerance.  Try 1e-8
+	 * @param maxIterations Maximum number of iterations. Try 200 or more
+	 * @return Bundle Adjustment
+	 */
+	public static BundleAdjustmentCalibrated bundleCalibratedDense(double tol , int maxIterations) {
 		return new BundleAdjustmentCalibratedDense(tol,maxIterations);
 	}
 
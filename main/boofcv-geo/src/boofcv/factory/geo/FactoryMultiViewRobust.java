@@ -26,6 +26,8 @@ import boofcv.alg.geo.pose.PnPDistanceReprojectionSq;
 import boofcv.alg.geo.robust.DistanceHomographySq;
 import boofcv.alg.geo.robust.DistanceSe3SymmetricSq;
 import boofcv.alg.geo.robust.GenerateHomographyLinear;
+import boofcv.alg.geo.robust.RansacConcurrent;
+import boofcv.alg.geo.robust.RansacProsacSprt;
 import boofcv.alg.geo.robust.Se3FromEssentialGenerator;
 import boofcv.struct.calib.CameraPinholeRadial;
 import boofcv.struct.geo.AssociatedPair;
@@ -86,20 +88,29 @@ public class FactoryMultiViewRobust {
 	 * @param ransac Parameters for RANSAC.  Can't be null.
 	 * @return Robust Se3_F64 estimator
 	 */
-	public static Ransac<Se3_F64, Point2D3D> pnpRansac( ConfigPnP pnp,
+	public static Ransac<Se3_F64, Point2D3D> pnpRansac( final ConfigPnP pnp,
 														ConfigRansac ransac)
 	{
-		Estimate1ofPnP estimatorPnP = FactoryMultiView.computePnP_1(pnp.which, -1, pnp.numResolve);
-		DistanceModelMonoPixels<Se3_F64,Point2D3D> distance = new PnPDistanceReprojectionSq();
-		distance.setIntrinsic(pnp.intrinsic.fx,pnp.intrinsic.fy,pnp.intrinsic.skew);
 		ModelManagerSe3_F64 manager = new ModelManagerSe3_F64();
-		EstimatorToGenerator<Se3_F64,Point2D3D> generator =
-				new EstimatorToGenerator<>(estimatorPnP);
+		RansacConcurrent.Factory<Se3_F64,Point2D3D> factory = new RansacConcurrent.Factory<Se3_F64,Point2D3D>() {
+			@Override
+			public ModelGenerator<Se3_F64, Point2D3D> createGenerator() {
+				Estimate1ofPnP estimatorPnP = FactoryMultiView.computePnP_1(pnp.which, -1, pnp.numResolve);
+				return new EstimatorToGenerator<>(estimatorPnP);
+			}
+
+			@Override
+			public DistanceFromModel<Se3_F64, Point2D3D> createDistance() {
+				DistanceModelMonoPixels<Se3_F64,Point2D3D> distance = new PnPDistanceReprojectionSq();
+				distance.setIntrinsic(pnp.intrinsic.fx,pnp.intrinsic.fy,pnp.intrinsic.skew);
+				return distance;
+			}
+		};
 
 		// convert from pixels to pixels squared
 		double threshold = ransac.inlierThreshold*ransac.inlierThreshold;
 
-		return new Ransac<>(ransac.randSeed, manager, generator, distance, ransac.maxIterations, threshold);
+		return createRansac(manager, factory, ransac, threshold);
 	}
 
 	/**
@@ -167,48 +178,42 @@ public class FactoryMultiViewRobust {
 	 * @param ransac Parameters for RANSAC.  Can't be null.
 	 * @return Robust Se3_F64 estimator
 	 */
-	public static Ransac<Se3_F64, AssociatedPair> essentialRansac( ConfigEssential essential,
+	public static Ransac<Se3_F64, AssociatedPair> essentialRansac( final ConfigEssential essential,
 																   ConfigRansac ransac ) {
 
 		essential.checkValidity();
 		ransac.checkValidity();
 
-		Estimate1ofEpipolar essentialAlg = FactoryMultiView.
-				computeEssential_1(essential.which, essential.numResolve);
-
-		return epipolarRansac(essentialAlg, essential.intrinsic, ransac);
+		return epipolarRansac(new EpipolarFactory(essential.intrinsic) {
+			@Override
+			Estimate1ofEpipolar createEpipolar() {
+				return FactoryMultiView.computeEssential_1(essential.which, essential.numResolve);
+			}
+		}, ransac);
 	}
 
-	public static Ransac<Se3_F64, AssociatedPair> fundamentalRansac( ConfigFundamental essential,
+	public static Ransac<Se3_F64, AssociatedPair> fundamentalRansac( final ConfigFundamental essential,
 																	 ConfigRansac ransac ) {
 
 		essential.checkValidity();
 		ransac.checkValidity();
 
-		Estimate1ofEpipolar essentialAlg = FactoryMultiView.
-				computeFundamental_1(essential.which, essential.numResolve);
-
-		return epipolarRansac(essentialAlg, essential.intrinsic, ransac);
+		return epipolarRansac(new EpipolarFactory(essential.intrinsic) {
+			@Override
+			Estimate1ofEpipolar createEpipolar() {
+				return FactoryMultiView.computeFundamental_1(essential.which, essential.numResolve);
+			}
+		}, ransac);
 	}
 
-	private static Ransac<Se3_F64, AssociatedPair> epipolarRansac(Estimate1ofEpipolar epipolar,
-																 CameraPinholeRadial intrinsic,
+	private static Ransac<Se3_F64, AssociatedPair> epipolarRansac(EpipolarFactory factory,
 																 ConfigRansac ransac ) {
 
-		TriangulateTwoViewsCalibrated triangulate = FactoryMultiView.triangulateTwoGeometric();
 		ModelManager<Se3_F64> manager = new ModelManagerSe3_F64();
-		ModelGenerator<Se3_F64, AssociatedPair> generateEpipolarMotion =
-				new Se3FromEssentialGenerator(epipolar, triangulate);
-
-		DistanceFromModel<Se3_F64, AssociatedPair> distanceSe3 =
-				new DistanceSe3SymmetricSq(triangulate,
-						intrinsic.fx, intrinsic.fy, intrinsic.skew,
-						intrinsic.fx, intrinsic.fy, intrinsic.skew);
 
 		double ransacTOL = ransac.inlierThreshold * ransac.inlierThreshold * 2.0;
 
-		return new Ransac<>(ransac.randSeed, manager, generateEpipolarMotion, distanceSe3,
-				ransac.maxIterations, ransacTOL);
+		return createRansac(manager, factory, ransac, ransacTOL);
 	}
 
 	/**
@@ -261,13 +266,68 @@ public class FactoryMultiViewRobust {
 		if( homography == null )
 			homography = new ConfigHomography();
 
+		final boolean normalize = homography.normalize;
 		ModelManager<Homography2D_F64> manager = new ModelManagerHomography2D_F64();
-		GenerateHomographyLinear modelFitter = new GenerateHomographyLinear(homography.normalize);
-		DistanceHomographySq distance = new DistanceHomographySq();
+		RansacConcurrent.Factory<Homography2D_F64,AssociatedPair> factory =
+				new RansacConcurrent.Factory<Homography2D_F64,AssociatedPair>() {
+			@Override
+			public ModelGenerator<Homography2D_F64, AssociatedPair> createGenerator() {
+				return new GenerateHomographyLinear(normalize);
+			}
+
+			@Override
+			public DistanceFromModel<Homography2D_F64, AssociatedPair> createDistance() {
+				return new DistanceHomographySq();
+			}
+		};
 
 		double ransacTol = ransac.inlierThreshold*ransac.inlierThreshold;
 
-		return new Ransac<>
-				(ransac.randSeed, manager, modelFitter, distance, ransac.maxIterations, ransacTol);
+		return createRansac(manager, factory, ransac, ransacTol);
+	}
+
+	/**
+	 * Creates {@link RansacProsacSprt} if adaptive is requested, {@link RansacConcurrent} if concurrent is
+	 * requested, otherwise {@link Ransac}
+	 */
+	private static <Model,Point> Ransac<Model,Point> createRansac( ModelManager<Model> manager ,
+																   RansacConcurrent.Factory<Model,Point> factory ,
+																   ConfigRansac ransac , double threshold ) {
+		if( ransac.adaptive ) {
+			RansacProsacSprt<Model,Point> alg = new RansacProsacSprt<>(ransac.randSeed, manager,
+					factory.createGenerator(), factory.createDistance(), ransac.maxIterations, threshold);
+			alg.setConfidence(ransac.confidence);
+			return alg;
+		} else if( ransac.concurrent ) {
+			return new RansacConcurrent<>(ransac.randSeed, manager, factory, ransac.maxIterations, threshold);
+		} else {
+			return new Ransac<>(ransac.randSeed, manager, factory.createGenerator(), factory.createDistance(),
+					ransac.maxIterations, threshold);
+		}
+	}
+
+	/**
+	 * Creates the generator and distance function for estimating motion from epipolar geometry.
+	 */
+	private static abstract class EpipolarFactory implements RansacConcurrent.Factory<Se3_F64,AssociatedPair> {
+		CameraPinholeRadial intrinsic;
+
+		EpipolarFactory(CameraPinholeRadial intrinsic) {
+			this.intrinsic = intrinsic;
+		}
+
+		abstract Estimate1ofEpipolar createEpipolar();
+
+		@Override
+		public ModelGenerator<Se3_F64, AssociatedPair> createGenerator() {
+			return new Se3FromEssentialGenerator(createEpipolar(), FactoryMultiView.triangulateTwoGeometric());
+		}
+
+		@Override
+		public DistanceFromModel<Se3_F64, AssociatedPair> createDistance() {
+			return new DistanceSe3SymmetricSq(FactoryMultiView.triangulateTwoGeometric(),
+					intrinsic.fx, intrinsic.fy, intrinsic.skew,
+					intrinsic.fx, intrinsic.fy, intrinsic.skew);
+		}
 	}
 }
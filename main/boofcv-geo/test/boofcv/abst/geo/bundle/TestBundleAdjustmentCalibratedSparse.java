@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.abst.geo.bundle;
+
+import boofcv.alg.geo.GeoTestingOps;
+import boofcv.alg.geo.bundle.CalibPoseAndPointResiduals;
+import boofcv.alg.geo.bundle.CalibratedPoseAndPoint;
+import boofcv.alg.geo.bundle.PointIndexObservation;
+import boofcv.alg.geo.bundle.ViewPointObservations;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.se.Se3_F64;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static boofcv.abst.geo.bundle.TestBundleAdjustmentCalibratedDense.createModel;
+import static boofcv.abst.geo.bundle.TestBundleAdjustmentCalibratedDense.createObservations;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestBundleAdjustmentCalibratedSparse {
+
+	Random rand = new Random(234);
+	int numViews = 3;
+	int numPoints = 6;
+
+	/**
+	 * Perfect observations and model
+	 */
+	@Test
+	public void perfect() {
+		CalibratedPoseAndPoint model = createModel(numViews,numPoints,rand);
+		List<ViewPointObservations> observations = createObservations(model,numViews,numPoints);
+
+		BundleAdjustmentCalibratedSparse alg = new BundleAdjustmentCalibratedSparse(1e-8,500);
+
+		assertTrue(alg.process(model, observations));
+
+		// compute error, which should be zero
+		assertEquals(0,computeError(model,observations),1e-8);
+	}
+
+	@Test
+	public void noisy() {
+		noisy(false,false);
+	}
+
+	@Test
+	public void noisy_iterative() {
+		noisy(true,false);
+	}
+
+	@Test
+	public void noisy_concurrent() {
+		noisy(false,true);
+	}
+
+	/**
+	 * Perfect observations with a corrupted model.  See if the error decreases
+	 */
+	private void noisy( boolean iterative , boolean concurrent ) {
+		CalibratedPoseAndPoint model = createModel(numViews,numPoints,rand);
+		List<ViewPointObservations> observations = createObservations(model,numViews,numPoints);
+
+		BundleAdjustmentCalibratedSparse alg = new BundleAdjustmentCalibratedSparse(1e-12,500);
+		alg.setIterative(iterative);
+		alg.setConcurrent(concurrent);
+
+		// add noise to the model
+		model.getWorldToCamera(0).getT().x += 0.02;
+		model.getWorldToCamera(1).getT().y -= 0.01;
+		model.getPoint(2).z += 0.05;
+
+		double errorBefore = computeError(model,observations);
+
+		assertTrue(alg.process(model, observations));
+
+		double errorAfter = computeError(model,observations);
+
+		// the error should be less now
+		assertTrue(errorAfter<errorBefore*0.1);
+	}
+
+	/**
+	 * Known views should not be modified
+	 */
+	@Test
+	public void knownViews() {
+		CalibratedPoseAndPoint model = createModel(numViews,numPoints,rand);
+		List<ViewPointObservations> observations = createObservations(model,numViews,numPoints);
+
+		model.setViewKnown(0,true);
+		Se3_F64 expected = model.getWorldToCamera(0).copy();
+
+		model.getWorldToCamera(1).getT().y -= 0.01;
+		model.getPoint(2).z += 0.05;
+
+		double errorBefore = computeError(model,observations);
+
+		BundleAdjustmentCalibratedSparse alg = new BundleAdjustmentCalibratedSparse(1e-12,500);
+		assertTrue(alg.process(model, observations));
+
+		assertTrue(computeError(model,observations)<errorBefore*0.1);
+
+		Se3_F64 found = model.getWorldToCamera(0);
+		assertEquals(0, found.getT().distance(expected.getT()), 1e-12);
+		for( int i = 0; i < 9; i++ ) {
+			assertEquals(expected.getR().data[i], found.getR().data[i], 1e-12);
+		}
+	}
+
+	/**
+	 * A point which isn't observed by any view should not prevent the other parameters from being optimized
+	 * and should not be modified
+	 */
+	@Test
+	public void unobservedPoint() {
+		CalibratedPoseAndPoint model = createModel(numViews,numPoints,rand);
+		List<ViewPointObservations> all = createObservations(model,numViews,numPoints);
+
+		int unobserved = 3;
+		List<ViewPointObservations> observations = new ArrayList<>();
+		for( ViewPointObservations v : all ) {
+			ViewPointObservations filtered = new ViewPointObservations();
+			for( int i = 0; i < v.getPoints().size; i++ ) {
+				PointIndexObservation o = v.getPoints().get(i);
+				if( o.pointIndex != unobserved )
+					filtered.getPoints().grow().set(o.pointIndex,o.obs);
+			}
+			observations.add(filtered);
+		}
+
+		model.getWorldToCamera(1).getT().y -= 0.01;
+		model.getPoint(2).z += 0.05;
+		Point3D_F64 expected = model.getPoint(unobserved).copy();
+
+		double errorBefore = computeError(model,observations);
+
+		BundleAdjustmentCalibratedSparse alg = new BundleAdjustmentCalibratedSparse(1e-12,500);
+		assertTrue(alg.process(model, observations));
+
+		assertTrue(computeError(model,observations)<errorBefore*0.1);
+		assertEquals(0, model.getPoint(unobserved).distance(expected), 0);
+	}
+
+	/**
+	 * Should produce the same results as the dense implementation
+	 */
+	@Test
+	public void compareToDense() {
+		CalibratedPoseAndPoint modelA = createModel(numViews,numPoints,rand);
+		List<ViewPointObservations> observations = createObservations(modelA,numViews,numPoints);
+
+		modelA.getWorldToCamera(0).getT().x += 0.02;
+		modelA.getWorldToCamera(1).getT().y -= 0.01;
+
+		CalibratedPoseAndPoint modelB = new CalibratedPoseAndPoint();
+		modelB.configure(numViews,numPoints);
+		for( int i = 0; i < numViews; i++ )
+			modelB.getWorldToCamera(i).set(modelA.getWorldToCamera(i));
+		for( int i = 0; i < numPoints; i++ )
+			modelB.getPoint(i).set(modelA.getPoint(i));
+
+		assertTrue(new BundleAdjustmentCalibratedSparse(1e-12,500).process(modelA, observations));
+		assertTrue(new BundleAdjustmentCalibratedDense(1e-12,500).process(modelB, observations));
+
+		assertEquals(computeError(modelB,observations),computeError(modelA,observations),1e-8);
+	}
+
+	private double computeError( CalibratedPoseAndPoint model ,
+								 List<ViewPointObservations> observations )
+	{
+		CalibPoseAndPointResiduals func = new CalibPoseAndPointResiduals();
+		func.configure(null,model,observations);
+		double residuals[] = new double[ func.getNumOfOutputsM() ];
+
+		func.process(model,residuals);
+
+		return GeoTestingOps.residualError(residuals);
+	}
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.geo.bundle;
+
+import georegression.struct.se.Se3_F64;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static boofcv.abst.geo.bundle.TestBundleAdjustmentCalibratedDense.createModel;
+import static boofcv.abst.geo.bundle.TestBundleAdjustmentCalibratedDense.createObservations;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestCalibPoseAndPointRodriguesBlockJacobian {
+
+	Random rand = new Random(48854);
+	int numViews = 3;
+	int numPoints = 5;
+
+	/**
+	 * Compare against the dense residuals and Jacobian, which have been checked numerically
+	 */
+	@Test
+	public void compareToDense() {
+		compareToDense(false,false,false);
+		compareToDense(true,false,true);
+		compareToDense(true,true,true);
+	}
+
+	@Test
+	public void concurrent() {
+		CalibPoseAndPointRodriguesBlockJacobian single = new CalibPoseAndPointRodriguesBlockJacobian();
+		CalibPoseAndPointRodriguesBlockJacobian conc = new CalibPoseAndPointRodriguesBlockJacobian();
+		conc.setConcurrent(true);
+
+		double[] param = setup(single, false, true, false);
+		setup(conc, false, true, false);
+
+		single.process(param, true);
+		conc.process(param, true);
+
+		for( int i = 0; i < single.residuals.size; i++ )
+			assertEquals(single.residuals.get(i), conc.residuals.get(i), 0);
+		for( int i = 0; i < single.jacCamera.size; i++ )
+			assertEquals(single.jacCamera.get(i), conc.jacCamera.get(i), 0);
+		for( int i = 0; i < single.jacPoint.size; i++ )
+			assertEquals(single.jacPoint.get(i), conc.jacPoint.get(i), 0);
+	}
+
+	private void compareToDense( boolean ...known ) {
+		CalibratedPoseAndPoint model = createModel(numViews,numPoints,rand);
+		List<ViewPointObservations> observations = createObservations(model,numViews,numPoints);
+		Se3_F64 extrinsic[] = setKnown(model, known);
+
+		CalibPoseAndPointRodriguesCodec codec = new CalibPoseAndPointRodriguesCodec();
+		codec.configure(numViews,numPoints,model.getNumUnknownViews(),known);
+		double []param = new double[ codec.getParamLength() ];
+		codec.encode(model,param);
+		// perturb the parameters so that the residuals are not zero
+		for( int i = 0; i < param.length; i++ ) {
+			param[i] += rand.nextGaussian()*0.01;
+		}
+
+		CalibPoseAndPointResiduals func = new CalibPoseAndPointResiduals();
+		func.configure(codec,model,observations);
+		CalibPoseAndPointRodriguesJacobian jacobian = new CalibPoseAndPointRodriguesJacobian();
+		jacobian.configure(observations,numPoints,extrinsic);
+
+		int N = jacobian.getNumOfInputsN();
+		double[] expectedResiduals = new double[func.getNumOfOutputsM()];
+		double[] expectedJacobian = new double[jacobian.getNumOfOutputsM()*N];
+		func.process(param,expectedResiduals);
+		jacobian.process(param,expectedJacobian);
+
+		CalibPoseAndPointRodriguesBlockJacobian alg = new CalibPoseAndPointRodriguesBlockJacobian();
+		alg.configure(observations,numPoints,extrinsic);
+		alg.process(param, true);
+
+		assertEquals(N, alg.getNumOfInputsN());
+		assertEquals(numViews*numPoints, alg.getNumObservations());
+
+		double errorSq = 0;
+		int indexFirstPoint = alg.getNumCameras()*6;
+		for( int o = 0; o < alg.getNumObservations(); o++ ) {
+			for( int row = 0; row < 2; row++ ) {
+				assertEquals(expectedResiduals[o*2+row], alg.residuals.get(o*2+row), 1e-12);
+				errorSq += expectedResiduals[o*2+row]*expectedResiduals[o*2+row];
+
+				int indexRow = (o*2+row)*N;
+				int camera = alg.obsCamera.get(o);
+				for( int i = 0; i < 6; i++ ) {
+					double expected = camera >= 0 ? expectedJacobian[indexRow+camera*6+i] : 0;
+					assertEquals(expected, alg.jacCamera.get(o*12+row*6+i), 1e-8);
+				}
+				int point = alg.obsPoint.get(o);
+				for( int i = 0; i < 3; i++ ) {
+					double expected = expectedJacobian[indexRow+indexFirstPoint+point*3+i];
+					assertEquals(expected, alg.jacPoint.get(o*6+row*3+i), 1e-8);
+				}
+			}
+		}
+		assertEquals(errorSq, alg.computeErrorSq(), 1e-12);
+	}
+
+	private double[] setup( CalibPoseAndPointRodriguesBlockJacobian alg , boolean ...known ) {
+		Random rand = new Random(234);
+		CalibratedPoseAndPoint model = createModel(numViews,numPoints,rand);
+		List<ViewPointObservations> observations = createObservations(model,numViews,numPoints);
+		Se3_F64 extrinsic[] = setKnown(model, known);
+
+		CalibPoseAndPointRodriguesCodec codec = new CalibPoseAndPointRodriguesCodec();
+		codec.configure(numViews,numPoints,model.getNumUnknownViews(),known);
+		double []param = new double[ codec.getParamLength() ];
+		codec.encode(model,param);
+		for( int i = 0; i < param.length; i++ ) {
+			param[i] += rand.nextGaussian()*0.01;
+		}
+
+		alg.configure(observations,numPoints,extrinsic);
+		return param;
+	}
+
+	private static Se3_F64[] setKnown( CalibratedPoseAndPoint model , boolean ...known ) {
+		Se3_F64 extrinsic[] = new Se3_F64[known.length];
+		for( int i = 0; i < known.length; i++ ) {
+			model.setViewKnown(i,known[i]);
+			if( known[i] ) {
+				Se3_F64 e = new Se3_F64();
+				e.set(model.getWorldToCamera(i));
+				extrinsic[i] = e;
+			}
+		}
+		return extrinsic;
+	}
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.geo.bundle;
+
+import georegression.struct.se.Se3_F64;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static boofcv.abst.geo.bundle.TestBundleAdjustmentCalibratedDense.createModel;
+import static boofcv.abst.geo.bundle.TestBundleAdjustmentCalibratedDense.createObservations;
+import static org.junit.Assert.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestCalibPoseAndPointSchurSolver {
+
+	Random rand = new Random(234);
+	int numViews = 4;
+	int numPoints = 8;
+	double lambda = 0.1;
+
+	CalibPoseAndPointRodriguesBlockJacobian jacobian = new CalibPoseAndPointRodriguesBlockJacobian();
+	double[] param;
+	// index of a point which is removed from all the views.  -1 for none
+	int unobserved = -1;
+
+	/**
+	 * Solve the damped normal equations using dense matrices and compare
+	 */
+	@Test
+	public void solve_dense() {
+		check(false, false);
+	}
+
+	@Test
+	public void solve_iterative() {
+		check(true, false);
+	}
+
+	@Test
+	public void solve_concurrent() {
+		check(false, true);
+		check(true, true);
+	}
+
+	/**
+	 * Too many cameras for the dense solver.  It should switch to conjugate gradient and never allocate the
+	 * dense matrix
+	 */
+	@Test
+	public void solve_maxDenseCameras() {
+		// there are 3 unknown views
+		CalibPoseAndPointSchurSolver alg = check(false, false, 2);
+		assertTrue(alg.isSolvedIteratively());
+		assertEquals(1, alg.denseS.getNumElements());
+
+		alg = check(false, false, 3);
+		assertFalse(alg.isSolvedIteratively());
+	}
+
+	/**
+	 * A point which isn't observed has a zero block in V.  The system should still be solvable and the point
+	 * should not move
+	 */
+	@Test
+	public void solve_unobservedPoint() {
+		unobserved = 5;
+		for( int maxDense : new int[]{100,0} ) {
+			CalibPoseAndPointSchurSolver alg = check(false, false, maxDense);
+			for( int i = 0; i < 9; i++ ) {
+				assertEquals(0, alg.V.get(unobserved*9+i), 0);
+			}
+		}
+	}
+
+	/**
+	 * Check the sparse structure of the reduced camera system
+	 */
+	@Test
+	public void configure_structure() {
+		setup(false, false, false, true);
+
+		CalibPoseAndPointSchurSolver alg = new CalibPoseAndPointSchurSolver();
+		alg.configure(jacobian);
+
+		assertEquals(3, alg.numCameras);
+		// view 0 and view 2 don't see any of the same points
+		checkNeighbors(alg, 0, 0, 1);
+		checkNeighbors(alg, 1, 0, 1, 2);
+		checkNeighbors(alg, 2, 1, 2);
+
+		// every observation of a point is in the point's list
+		for( int point = 0; point < numPoints; point++ ) {
+			for( int k = alg.pointObsOffset.get(point); k < alg.pointObsOffset.get(point+1); k++ ) {
+				assertEquals(point, jacobian.obsPoint.get(alg.pointObs.get(k)));
+			}
+		}
+		assertEquals(jacobian.getNumObservations(), alg.pointObsOffset.get(numPoints));
+	}
+
+	private void checkNeighbors( CalibPoseAndPointSchurSolver alg , int camera , int ...expected ) {
+		int offset = alg.neighborOffset.get(camera);
+		assertEquals(expected.length, alg.neighborOffset.get(camera+1)-offset);
+		for( int i = 0; i < expected.length; i++ ) {
+			assertEquals(expected[i], alg.neighbors.get(offset+i));
+		}
+	}
+
+	private void check( boolean iterative , boolean concurrent ) {
+		check(iterative, concurrent, 100);
+	}
+
+	private CalibPoseAndPointSchurSolver check( boolean iterative , boolean concurrent , int maxDenseCameras ) {
+		setup(false, true, false, false);
+		jacobian.process(param, true);
+
+		CalibPoseAndPointSchurSolver alg = new CalibPoseAndPointSchurSolver();
+		alg.setIterative(iterative);
+		alg.setConcurrent(concurrent);
+		alg.setMaxDenseCameras(maxDenseCameras);
+		alg.configure(jacobian);
+		alg.computeNormalEquations();
+
+		int numCameras = jacobian.getNumCameras();
+		double[] stepA = new double[numCameras*6];
+		double[] stepB = new double[numPoints*3];
+		assertTrue(alg.solve(lambda, stepA, stepB));
+
+		// dense solution
+		DMatrixRMaj J = denseJacobian();
+		DMatrixRMaj r = new DMatrixRMaj(jacobian.getNumObservations()*2,1,true,jacobian.residuals.data);
+		DMatrixRMaj H = new DMatrixRMaj(J.numCols,J.numCols);
+		DMatrixRMaj g = new DMatrixRMaj(J.numCols,1);
+		CommonOps_DDRM.multTransA(J,J,H);
+		CommonOps_DDRM.multTransA(J,r,g);
+		DMatrixRMaj damped = H.copy();
+		for( int i = 0; i < H.numRows; i++ ) {
+			damped.add(i,i,lambda*Math.max(H.get(i,i),CalibPoseAndPointSchurSolver.MIN_DAMPING));
+		}
+		DMatrixRMaj expected = new DMatrixRMaj(H.numRows,1);
+		CommonOps_DDRM.changeSign(g);
+		assertTrue(CommonOps_DDRM.solve(damped,g,expected));
+
+		for( int i = 0; i < numCameras*6; i++ ) {
+			assertEquals(expected.get(i), stepA[i], 1e-6*Math.max(1,Math.abs(expected.get(i))));
+		}
+		for( int i = 0; i < numPoints*3; i++ ) {
+			assertEquals(expected.get(numCameras*6+i), stepB[i], 1e-6*Math.max(1,Math.abs(expected.get(numCameras*6+i))));
+		}
+
+		// predicted reduction = 0.5*step^T*(lambda*D*step - g), where g has had its sign changed
+		double predicted = 0;
+		for( int i = 0; i < H.numRows; i++ ) {
+			double s = expected.get(i);
+			predicted += s*(lambda*Math.max(H.get(i,i),CalibPoseAndPointSchurSolver.MIN_DAMPING)*s + g.get(i));
+		}
+		predicted *= 0.5;
+		assertEquals(predicted, alg.predictedReduction(lambda, stepA, stepB), Math.abs(predicted)*1e-6);
+
+		return alg;
+	}
+
+	private DMatrixRMaj denseJacobian() {
+		int N = jacobian.getNumOfInputsN();
+		int indexFirstPoint = jacobian.getNumCameras()*6;
+		DMatrixRMaj J = new DMatrixRMaj(jacobian.getNumObservations()*2, N);
+		for( int o = 0; o < jacobian.getNumObservations(); o++ ) {
+			int camera = jacobian.obsCamera.get(o);
+			int point = jacobian.obsPoint.get(o);
+			for( int row = 0; row < 2; row++ ) {
+				if( camera >= 0 ) {
+					for( int i = 0; i < 6; i++ )
+						J.set(o*2+row, camera*6+i, jacobian.jacCamera.get(o*12+row*6+i));
+				}
+				for( int i = 0; i < 3; i++ )
+					J.set(o*2+row, indexFirstPoint+point*3+i, jacobian.jacPoint.get(o*6+row*3+i));
+			}
+		}
+		return J;
+	}
+
+	/**
+	 * Creates a scene where each view only sees some of the points.  View i sees points 2*i to 2*i+3
+	 */
+	private void setup( boolean ...known ) {
+		CalibratedPoseAndPoint model = createModel(numViews,numPoints,rand);
+		List<ViewPointObservations> all = createObservations(model,numViews,numPoints);
+
+		List<ViewPointObservations> observations = new ArrayList<>();
+		for( int view = 0; view < numViews; view++ ) {
+			ViewPointObservations v = new ViewPointObservations();
+			for( int j = 0; j < all.get(view).getPoints().size; j++ ) {
+				PointIndexObservation o = all.get(view).getPoints().get(j);
+				if( o.pointIndex >= 2*view && o.pointIndex < 2*view+4 && o.pointIndex != unobserved )
+					v.getPoints().grow().set(o.pointIndex,o.obs);
+			}
+			observations.add(v);
+		}
+
+		Se3_F64 extrinsic[] = new Se3_F64[numViews];
+		for( int i = 0; i < numViews; i++ ) {
+			model.setViewKnown(i,known[i]);
+			if( known[i] ) {
+				extrinsic[i] = model.getWorldToCamera(i).copy();
+			}
+		}
+
+		CalibPoseAndPointRodriguesCodec codec = new CalibPoseAndPointRodriguesCodec();
+		codec.configure(numViews,numPoints,model.getNumUnknownViews(),known);
+		param = new double[ codec.getParamLength() ];
+		codec.encode(model,param);
+		for( int i = 0; i < param.length; i++ ) {
+			param[i] += rand.nextGaussian()*0.01;
+		}
+
+		jacobian.configure(observations,numPoints,extrinsic);
+	}
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.alg.geo.robust;
+
+import boofcv.struct.geo.AssociatedPair;
+import georegression.fitting.homography.ModelManagerHomography2D_F64;
+import georegression.struct.homography.Homography2D_F64;
+import georegression.transform.homography.HomographyPointOps_F64;
+import org.ddogleg.fitting.modelset.DistanceFromModel;
+import org.ddogleg.fitting.modelset.ModelGenerator;
+import org.ddogleg.fitting.modelset.ransac.Ransac;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestRansacConcurrent {
+
+	Random rand = new Random(234);
+
+	RansacConcurrent.Factory<Homography2D_F64,AssociatedPair> factory =
+			new RansacConcurrent.Factory<Homography2D_F64,AssociatedPair>() {
+				@Override
+				public ModelGenerator<Homography2D_F64, AssociatedPair> createGenerator() {
+					return new GenerateHomographyLinear(true);
+				}
+
+				@Override
+				public DistanceFromModel<Homography2D_F64, AssociatedPair> createDistance() {
+					return new DistanceHomographySq();
+				}
+			};
+
+	/**
+	 * Results should be identical to Ransac with the same seed
+	 */
+	@Test
+	public void compareToRansac() {
+		List<AssociatedPair> points = createObservations(200, 0.4);
+
+		for( boolean concurrent : new boolean[]{false,true}) {
+			for( int batchSize : new int[]{1,7,64}) {
+				Ransac<Homography2D_F64,AssociatedPair> expected = new Ransac<>(123,
+						new ModelManagerHomography2D_F64(), factory.createGenerator(), factory.createDistance(),
+						100, 0.5);
+				RansacConcurrent<Homography2D_F64,AssociatedPair> alg = new RansacConcurrent<>(123,
+						new ModelManagerHomography2D_F64(), factory, 100, 0.5);
+				alg.setConcurrent(concurrent);
+				alg.setBatchSize(batchSize);
+
+				assertTrue(expected.process(points));
+				assertTrue(alg.process(points));
+
+				checkIdentical(expected, alg);
+			}
+		}
+	}
+
+	/**
+	 * Should stop early when a model which fits all the points is found
+	 */
+	@Test
+	public void allInliers() {
+		List<AssociatedPair> points = createObservations(50, 0);
+
+		RansacConcurrent<Homography2D_F64,AssociatedPair> alg = new RansacConcurrent<>(123,
+				new ModelManagerHomography2D_F64(), factory, 100, 0.5);
+
+		assertTrue(alg.process(points));
+		assertEquals(50, alg.getMatchSet().size());
+		for( int i = 0; i < 50; i++ ) {
+			assertEquals(i, alg.getInputIndex(i));
+		}
+	}
+
+	/**
+	 * Process more than once with inputs of different sizes
+	 */
+	@Test
+	public void multipleCalls() {
+		RansacConcurrent<Homography2D_F64,AssociatedPair> alg = new RansacConcurrent<>(123,
+				new ModelManagerHomography2D_F64(), factory, 100, 0.5);
+
+		List<AssociatedPair> points = createObservations(100, 0.2);
+		assertTrue(alg.process(points));
+		points = createObservations(40, 0.2);
+		assertTrue(alg.process(points));
+
+		int count = alg.getMatchSet().size();
+		assertTrue(count > 20 && count <= 40);
+
+		// too few points
+		assertFalse(alg.process(points.subList(0,3)));
+	}
+
+	private void checkIdentical( Ransac<Homography2D_F64,AssociatedPair> expected ,
+								 Ransac<Homography2D_F64,AssociatedPair> found ) {
+		Homography2D_F64 a = expected.getModelParameters();
+		Homography2D_F64 b = found.getModelParameters();
+		assertEquals(a.a11, b.a11, 0);
+		assertEquals(a.a12, b.a12, 0);
+		assertEquals(a.a13, b.a13, 0);
+		assertEquals(a.a21, b.a21, 0);
+		assertEquals(a.a22, b.a22, 0);
+		assertEquals(a.a23, b.a23, 0);
+		assertEquals(a.a31, b.a31, 0);
+		assertEquals(a.a32, b.a32, 0);
+		assertEquals(a.a33, b.a33, 0);
+
+		assertEquals(expected.getMatchSet().size(), found.getMatchSet().size());
+		for( int i = 0; i < expected.getMatchSet().size(); i++ ) {
+			assertTrue(expected.getMatchSet().get(i) == found.getMatchSet().get(i));
+			assertEquals(expected.getInputIndex(i), found.getInputIndex(i));
+		}
+	}
+
+	/**
+	 * Creates observations from a homography with a fraction of them being outliers
+	 */
+	private List<AssociatedPair> createObservations( int total , double fractionOutliers ) {
+		Homography2D_F64 H = new Homography2D_F64(1.1,0.05,10,-0.02,0.95,-5,0.0001,0.0002,1);
+
+		List<AssociatedPair> ret = new ArrayList<>();
+		for( int i = 0; i < total; i++ ) {
+			AssociatedPair p = new AssociatedPair();
+			p.p1.set(rand.nextDouble()*600, rand.nextDouble()*400);
+			if( rand.nextDouble() < fractionOutliers ) {
+				p.p2.set(rand.nextDouble()*600, rand.nextDouble()*400);
+			} else {
+				HomographyPointOps_F64.transform(H, p.p1, p.p2);
+				p.p2.x += rand.nextGaussian()*0.1;
+				p.p2.y += rand.nextGaussian()*0.1;
+			}
+			ret.add(p);
+		}
+		return ret;
+	}
+}
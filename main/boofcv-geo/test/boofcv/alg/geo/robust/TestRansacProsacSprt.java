@@ -0,0 +1,242 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.alg.geo.robust;
+
+import boofcv.alg.feature.associate.UtilAssociate;
+import boofcv.struct.feature.AssociatedIndex;
+import boofcv.struct.feature.MatchScoreType;
+import boofcv.struct.geo.AssociatedPair;
+import georegression.fitting.homography.ModelManagerHomography2D_F64;
+import georegression.struct.homography.Homography2D_F64;
+import georegression.struct.point.Point2D_F64;
+import georegression.transform.homography.HomographyPointOps_F64;
+import org.ddogleg.struct.FastQueue;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestRansacProsacSprt {
+
+	Random rand = new Random(234);
+
+	Homography2D_F64 H = new Homography2D_F64(1.1,0.05,10,-0.02,0.95,-5,0.0001,0.0002,1);
+
+	/**
+	 * Input is randomly ordered with lots of outliers
+	 */
+	@Test
+	public void unsorted() {
+		List<AssociatedPair> points = createObservations(300, 0.5, false);
+
+		RansacProsacSprt<Homography2D_F64,AssociatedPair> alg = createAlg(5000);
+		assertTrue(alg.process(points));
+
+		checkSolution(alg, points);
+		// it should stop well before the maximum number of iterations
+		assertTrue(alg.getIterations() < 5000);
+		// bad hypotheses should be rejected early
+		assertTrue(alg.getRejectedCount() > 0);
+	}
+
+	/**
+	 * Outliers are all at the end of the sorted list and there are too many of them for the number of iterations
+	 * to find a solution by uniform sampling.  PROSAC should start with the inliers and find it.
+	 */
+	@Test
+	public void sorted() {
+		List<AssociatedPair> points = createObservations(300, 0.9, true);
+
+		RansacProsacSprt<Homography2D_F64,AssociatedPair> alg = createAlg(50);
+		assertTrue(alg.process(points));
+		checkSolution(alg, points);
+	}
+
+	/**
+	 * Same as {@link #sorted()} but the order comes from sorting the association fit scores, like it would
+	 * be when the input is created from associated features
+	 */
+	@Test
+	public void sortedByFitScore() {
+		List<AssociatedPair> points = createObservations(300, 0.9, false);
+
+		// inliers are given a better score than outliers but the scores overlap a little
+		FastQueue<AssociatedIndex> matches = new FastQueue<>(AssociatedIndex.class, true);
+		Point2D_F64 expected = new Point2D_F64();
+		for( int i = 0; i < points.size(); i++ ) {
+			AssociatedPair p = points.get(i);
+			HomographyPointOps_F64.transform(H, p.p1, expected);
+			double score = expected.distance2(p.p2) < 2.0 ? rand.nextDouble() : 0.9 + rand.nextDouble();
+			matches.grow().setAssociation(i, i, score);
+		}
+
+		UtilAssociate.sortByFitScore(matches, MatchScoreType.NORM_ERROR);
+
+		List<AssociatedPair> sorted = new ArrayList<>();
+		for( int i = 0; i < matches.size; i++ ) {
+			sorted.add(points.get(matches.get(i).src));
+		}
+
+		RansacProsacSprt<Homography2D_F64,AssociatedPair> alg = createAlg(50);
+		assertTrue(alg.process(sorted));
+		checkSolution(alg, sorted);
+	}
+
+	/**
+	 * Should stop immediately when every point is an inlier
+	 */
+	@Test
+	public void allInliers() {
+		List<AssociatedPair> points = createObservations(50, 0, false);
+
+		RansacProsacSprt<Homography2D_F64,AssociatedPair> alg = createAlg(5000);
+		assertTrue(alg.process(points));
+		assertEquals(50, alg.getMatchSet().size());
+		for( int i = 0; i < 50; i++ ) {
+			assertEquals(i, alg.getInputIndex(i));
+		}
+		assertTrue(alg.getIterations() < 10);
+	}
+
+	@Test
+	public void tooFewPoints() {
+		List<AssociatedPair> points = createObservations(3, 0, false);
+		assertFalse(createAlg(100).process(points));
+	}
+
+	/**
+	 * When not uniform the n-th point should always be included and the others from the best n-1
+	 */
+	@Test
+	public void drawSample() {
+		List<AssociatedPair> points = createObservations(20, 0, false);
+		RansacProsacSprt<Homography2D_F64,AssociatedPair> alg = createAlg(100);
+		alg.process(points);
+		List<AssociatedPair> sample = new ArrayList<>();
+
+		for( int trial = 0; trial < 50; trial++ ) {
+			int n = 4 + rand.nextInt(16);
+
+			// the order is only known to be unmodified for elements after the largest n
+			for( int i = 0; i < points.size(); i++ )
+				alg.sampleOrder.data[i] = i;
+
+			alg.drawSample(n, false, sample);
+			assertEquals(4, sample.size());
+			assertTrue(sample.get(3) == points.get(n-1));
+			checkSample(sample, points, n-1, 3);
+
+			alg.drawSample(n, true, sample);
+			assertEquals(4, sample.size());
+			checkSample(sample, points, n, 4);
+		}
+	}
+
+	/**
+	 * Checks that the first 'total' points in the sample are unique and are from the first 'n' points
+	 */
+	private void checkSample( List<AssociatedPair> sample ,
+							  List<AssociatedPair> points , int n , int total ) {
+		for( int i = 0; i < total; i++ ) {
+			int index = points.indexOf(sample.get(i));
+			assertTrue(index >= 0 && index < n);
+			for( int j = i+1; j < total; j++ ) {
+				assertTrue(sample.get(i) != sample.get(j));
+			}
+		}
+	}
+
+	@Test
+	public void requiredIterations() {
+		RansacProsacSprt<Homography2D_F64,AssociatedPair> alg = createAlg(100);
+		alg.thresholdA = Double.MAX_VALUE;
+		alg.setSampleSize(4);
+
+		// from the standard RANSAC formula
+		double expected = Math.log(1-0.99)/Math.log(1-Math.pow(0.5,4));
+		assertEquals((int)Math.ceil(expected), alg.requiredIterations(0.5));
+
+		// SPRT rejecting good models requires more iterations
+		alg.thresholdA = 10;
+		assertTrue(alg.requiredIterations(0.5) > (int)Math.ceil(expected));
+
+		alg.thresholdA = Double.MAX_VALUE;
+		assertEquals(1, alg.requiredIterations(1.0));
+	}
+
+	private RansacProsacSprt<Homography2D_F64,AssociatedPair> createAlg( int maxIterations ) {
+		return new RansacProsacSprt<>(123, new ModelManagerHomography2D_F64(),
+				new GenerateHomographyLinear(true), new DistanceHomographySq(), maxIterations, 2.0);
+	}
+
+	private void checkSolution( RansacProsacSprt<Homography2D_F64,AssociatedPair> alg ,
+								List<AssociatedPair> points ) {
+		Homography2D_F64 found = alg.getModelParameters();
+		Point2D_F64 expected = new Point2D_F64();
+		Point2D_F64 actual = new Point2D_F64();
+		for( int i = 0; i < 10; i++ ) {
+			Point2D_F64 p = new Point2D_F64(rand.nextDouble()*600, rand.nextDouble()*400);
+			HomographyPointOps_F64.transform(H, p, expected);
+			HomographyPointOps_F64.transform(found, p, actual);
+			assertEquals(0, expected.distance(actual), 1e-4);
+		}
+
+		// all the inliers should be found
+		int inliers = 0;
+		for( int i = 0; i < points.size(); i++ ) {
+			HomographyPointOps_F64.transform(H, points.get(i).p1, expected);
+			if( expected.distance2(points.get(i).p2) < 2.0 )
+				inliers++;
+		}
+		assertEquals(inliers, alg.getMatchSet().size());
+	}
+
+	/**
+	 * Creates observations from a homography with a fraction of them being outliers
+	 *
+	 * @param sorted If true the outliers will be at the end of the list
+	 */
+	private List<AssociatedPair> createObservations( int total , double fractionOutliers , boolean sorted ) {
+		List<AssociatedPair> inliers = new ArrayList<>();
+		List<AssociatedPair> ret = new ArrayList<>();
+		for( int i = 0; i < total; i++ ) {
+			AssociatedPair p = new AssociatedPair();
+			p.p1.set(rand.nextDouble()*600, rand.nextDouble()*400);
+			if( rand.nextDouble() < fractionOutliers ) {
+				p.p2.set(rand.nextDouble()*600, rand.nextDouble()*400);
+				ret.add(p);
+			} else {
+				HomographyPointOps_F64.transform(H, p.p1, p.p2);
+				if( sorted )
+					inliers.add(p);
+				else
+					ret.add(p);
+			}
+		}
+		ret.addAll(0,inliers);
+		return ret;
+	}
+}
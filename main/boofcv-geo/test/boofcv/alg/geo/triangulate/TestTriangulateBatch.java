@@ -0,0 +1,226 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package boofcv.alg.geo.triangulate;
+
+import boofcv.alg.geo.GeoTestingOps;
+import georegression.geometry.ConvertRotation3D_F64;
+import georegression.struct.EulerType;
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.se.Se3_F64;
+import georegression.transform.se.SePointOps_F64;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestTriangulateBatch {
+
+	Random rand = new Random(234);
+
+	int numPoints = 500;
+	int numViews = 4;
+
+	List<Point3D_F64> points;
+	List<Se3_F64> worldToView;
+	// observations of each point in each view
+	double[] observations;
+
+	/**
+	 * Compare two view triangulation against {@link TriangulateGeometric} with noisy observations
+	 */
+	@Test
+	public void triangulate_two() {
+		createScene(0.01);
+
+		double[] obsA = new double[numPoints*2];
+		double[] obsB = new double[numPoints*2];
+		for( int i = 0; i < numPoints; i++ ) {
+			obsA[i*2  ] = observations[(i*numViews  )*2  ];
+			obsA[i*2+1] = observations[(i*numViews  )*2+1];
+			obsB[i*2  ] = observations[(i*numViews+1)*2  ];
+			obsB[i*2+1] = observations[(i*numViews+1)*2+1];
+		}
+
+		// view 0 is the world frame
+		Se3_F64 fromAtoB = worldToView.get(1);
+
+		TriangulateBatch alg = new TriangulateBatch();
+		double[] found = new double[numPoints*3];
+		alg.triangulate(obsA, obsB, numPoints, fromAtoB, found);
+
+		TriangulateGeometric expected = new TriangulateGeometric();
+		Point3D_F64 p = new Point3D_F64();
+		for( int i = 0; i < numPoints; i++ ) {
+			expected.triangulate(new Point2D_F64(obsA[i*2],obsA[i*2+1]),
+					new Point2D_F64(obsB[i*2],obsB[i*2+1]), fromAtoB, p);
+			assertEquals(p.x, found[i*3  ], 1e-8);
+			assertEquals(p.y, found[i*3+1], 1e-8);
+			assertEquals(p.z, found[i*3+2], 1e-8);
+		}
+
+		// concurrent should produce identical results
+		alg.setConcurrent(true);
+		alg.setMinBlock(10);
+		double[] foundConcurrent = new double[numPoints*3];
+		alg.triangulate(obsA, obsB, numPoints, fromAtoB, foundConcurrent);
+		for( int i = 0; i < found.length; i++ ) {
+			assertEquals(found[i], foundConcurrent[i], 0);
+		}
+	}
+
+	/**
+	 * Parallel rays can't be triangulated
+	 */
+	@Test
+	public void triangulate_two_parallel() {
+		Se3_F64 fromAtoB = new Se3_F64();
+		fromAtoB.getT().set(-0.1,0,0);
+
+		double[] obs = new double[]{0.1,0.2};
+		double[] found = new double[3];
+		new TriangulateBatch().triangulate(obs, obs, 1, fromAtoB, found);
+
+		assertTrue(Double.isInfinite(found[2]) || Double.isNaN(found[2]));
+	}
+
+	/**
+	 * Perfect observations in N views
+	 */
+	@Test
+	public void triangulate_N_perfect() {
+		createScene(0);
+
+		TriangulateBatch alg = new TriangulateBatch();
+		double[] found = new double[numPoints*3];
+		alg.triangulate(observations, numPoints, worldToView, found);
+
+		for( int i = 0; i < numPoints; i++ ) {
+			Point3D_F64 p = points.get(i);
+			assertEquals(p.x, found[i*3  ], 1e-8);
+			assertEquals(p.y, found[i*3+1], 1e-8);
+			assertEquals(p.z, found[i*3+2], 1e-8);
+		}
+	}
+
+	/**
+	 * With noise it should produce a solution similar to the DLT
+	 */
+	@Test
+	public void triangulate_N_noisy() {
+		createScene(0.002);
+
+		TriangulateBatch alg = new TriangulateBatch();
+		double[] found = new double[numPoints*3];
+		alg.triangulate(observations, numPoints, worldToView, found);
+
+		TriangulateLinearDLT dlt = new TriangulateLinearDLT();
+		Point3D_F64 p = new Point3D_F64();
+		List<Point2D_F64> obs = new ArrayList<>();
+		for( int i = 0; i < numPoints; i++ ) {
+			obs.clear();
+			for( int j = 0; j < numViews; j++ ) {
+				int index = (i*numViews+j)*2;
+				obs.add( new Point2D_F64(observations[index],observations[index+1]));
+			}
+			dlt.triangulate(obs, worldToView, p);
+
+			assertEquals(p.x, found[i*3  ], 0.01);
+			assertEquals(p.y, found[i*3+1], 0.01);
+			assertEquals(p.z, found[i*3+2], 0.05);
+		}
+
+		// concurrent should produce identical results
+		alg.setConcurrent(true);
+		alg.setMinBlock(10);
+		double[] foundConcurrent = new double[numPoints*3];
+		alg.triangulate(observations, numPoints, worldToView, foundConcurrent);
+		for( int i = 0; i < found.length; i++ ) {
+			assertEquals(found[i], foundConcurrent[i], 0);
+		}
+	}
+
+	@Test
+	public void reprojectionErrorSq() {
+		createScene(0);
+
+		double[] packed = new double[numPoints*3];
+		for( int i = 0; i < numPoints; i++ ) {
+			Point3D_F64 p = points.get(i);
+			packed[i*3] = p.x; packed[i*3+1] = p.y; packed[i*3+2] = p.z;
+		}
+
+		// perturb the observations in view 2
+		double[] obs = new double[numPoints*2];
+		for( int i = 0; i < numPoints; i++ ) {
+			obs[i*2  ] = observations[(i*numViews+2)*2  ] + 0.01;
+			obs[i*2+1] = observations[(i*numViews+2)*2+1] - 0.02;
+		}
+		// put the first point behind the camera
+		packed[2] = -100;
+
+		TriangulateBatch alg = new TriangulateBatch();
+		double[] errors = new double[numPoints];
+		alg.reprojectionErrorSq(packed, obs, numPoints, worldToView.get(2), errors);
+
+		assertEquals(Double.MAX_VALUE, errors[0], 0);
+		for( int i = 1; i < numPoints; i++ ) {
+			assertEquals(0.01*0.01 + 0.02*0.02, errors[i], 1e-10);
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void arrayTooSmall() {
+		createScene(0);
+		new TriangulateBatch().triangulate(observations, numPoints, worldToView, new double[numPoints*3-1]);
+	}
+
+	private void createScene( double noise ) {
+		points = GeoTestingOps.randomPoints_F64(-1, 1, -1, 1, 2, 4, numPoints, rand);
+		worldToView = new ArrayList<>();
+		for( int i = 0; i < numViews; i++ ) {
+			Se3_F64 motion = new Se3_F64();
+			if( i > 0 ) {
+				ConvertRotation3D_F64.eulerToMatrix(EulerType.XYZ,
+						rand.nextGaussian()*0.01, rand.nextGaussian()*0.05, rand.nextGaussian()*0.1, motion.getR());
+				motion.getT().set(0.2*i+rand.nextGaussian()*0.1, rand.nextGaussian()*0.1, rand.nextGaussian()*0.01);
+			}
+			worldToView.add(motion);
+		}
+
+		observations = new double[numPoints*numViews*2];
+		Point3D_F64 cameraPt = new Point3D_F64();
+		for( int i = 0; i < numPoints; i++ ) {
+			for( int j = 0; j < numViews; j++ ) {
+				SePointOps_F64.transform(worldToView.get(j), points.get(i), cameraPt);
+				int index = (i*numViews+j)*2;
+				observations[index  ] = cameraPt.x/cameraPt.z + rand.nextGaussian()*noise;
+				observations[index+1] = cameraPt.y/cameraPt.z + rand.nextGaussian()*noise;
+			}
+		}
+	}
+}
@@ -22,6 +22,9 @@ import boofcv.alg.misc.GImageMiscOps;
 import boofcv.misc.PerformerBase;
 import boofcv.misc.ProfileOperation;
 import boofcv.struct.image.GrayF32;
+import boofcv.struct.image.GrayU8;
+import boofcv.struct.image.InterleavedF32;
+import boofcv.struct.image.InterleavedU8;
 import boofcv.struct.image.Planar;
 
 import java.util.Random;
@@ -38,6 +41,9 @@ public class BenchmarkColorConvert {
 
 	public static Planar<GrayF32> src_F32;
 	public static Planar<GrayF32> dst_F32;
+	public static Planar<GrayU8> src_U8;
+	public static InterleavedF32 inter_F32;
+	public static InterleavedU8 inter_U8;
 
 	public static class RGB_to_HSV_F32 extends PerformerBase {
 
@@ -71,6 +77,94 @@ public class BenchmarkColorConvert {
 		}
 	}
 
+	public static class RGB_to_HSV_F32_MT extends PerformerBase {
+
+		@Override
+		public void process() {
+			ColorHsv.rgbToHsv_F32(src_F32,dst_F32,true);
+		}
+	}
+
+	public static class RGB_to_HSV_IL_F32 extends PerformerBase {
+
+		@Override
+		public void process() {
+			ColorHsv.rgbToHsv_F32(inter_F32,dst_F32);
+		}
+	}
+
+	public static class RGB_to_YUV_F32_MT extends PerformerBase {
+
+		@Override
+		public void process() {
+			ColorYuv.rgbToYuv_F32(src_F32,dst_F32,true);
+		}
+	}
+
+	public static class RGB_to_LAB_F32 extends PerformerBase {
+
+		@Override
+		public void process() {
+			ColorLab.rgbToLab_F32(src_F32,dst_F32);
+		}
+	}
+
+	public static class RGB_to_LAB_F32_MT extends PerformerBase {
+
+		@Override
+		public void process() {
+			ColorLab.rgbToLab_F32(src_F32,dst_F32,true);
+		}
+	}
+
+	public static class RGB_to_LAB_U8 extends PerformerBase {
+
+		@Override
+		public void process() {
+			ColorLab.rgbToLab_U8(src_U8,dst_F32);
+		}
+	}
+
+	public static class RGB_to_LAB_U8_MT extends PerformerBase {
+
+		@Override
+		public void process() {
+			ColorLab.rgbToLab_U8(src_U8,dst_F32,true);
+		}
+	}
+
+	public static class RGB_to_LAB_IL_U8 extends PerformerBase {
+
+		@Override
+		public void process() {
+			ColorLab.rgbToLab_U8(inter_U8,dst_F32);
+		}
+	}
+
+	public static class RGB_to_XYZ_F32 extends PerformerBase {
+
+		@Override
+		public void process() {
+			ColorXyz.rgbToXyz_F32(src_F32,dst_F32);
+		}
+	}
+
+	public static class RGB_to_XYZ_U8 extends PerformerBase {
+
+		@Override
+		public void process() {
+			ColorXyz.rgbToXyz_U8(src_U8,dst_F32);
+		}
+	}
+
+	public static class RGB_to_XYZ_IL_U8 extends PerformerBase {
+
+		@Override
+		public void process() {
+			ColorXyz.rgbToXyz_U8(inter_U8,dst_F32);
+		}
+	}
+
 	public static void main( String args[] ) {
 		System.out.println("=========  Profile Image Size " + imgWidth + " x " + imgHeight + " ==========");
 		System.out.println();
@@ -78,11 +172,29 @@ public class BenchmarkColorConvert {
 		src_F32 = new Planar<>(GrayF32.class,imgWidth,imgHeight,3);
 		dst_F32 = new Planar<>(GrayF32.class,imgWidth,imgHeight,3);
 
+		src_U8 = new Planar<>(GrayU8.class,imgWidth,imgHeight,3);
+		inter_F32 = new InterleavedF32(imgWidth,imgHeight,3);
+		inter_U8 = new InterleavedU8(imgWidth,imgHeight,3);
+
 		GImageMiscOps.addUniform(src_F32,rand,0,255);
+		GImageMiscOps.fillUniform(src_U8,rand,0,255);
+		GImageMiscOps.fillUniform(inter_F32,rand,0,255);
+		GImageMiscOps.fillUniform(inter_U8,rand,0,255);
 
 		ProfileOperation.printOpsPerSec(new RGB_to_HSV_F32(),TEST_TIME);
 		ProfileOperation.printOpsPerSec(new HSV_to_RGB_F32(),TEST_TIME);
 		ProfileOperation.printOpsPerSec(new RGB_to_YUV_F32(),TEST_TIME);
 		ProfileOperation.printOpsPerSec(new YUV_to_RGB_F32(),TEST_TIME);
+		ProfileOperation.printOpsPerSec(new RGB_to_HSV_F32_MT(),TEST_TIME);
+		ProfileOperation.printOpsPerSec(new RGB_to_HSV_IL_F32(),TEST_TIME);
+		ProfileOperation.printOpsPerSec(new RGB_to_YUV_F32_MT(),TEST_TIME);
+		ProfileOperation.printOpsPerSec(new RGB_to_LAB_F32(),TEST_TIME);
+		ProfileOperation.printOpsPerSec(new RGB_to_LAB_F32_MT(),TEST_TIME);
+		ProfileOperation.printOpsPerSec(new RGB_to_LAB_U8(),TEST_TIME);
+		ProfileOperation.printOpsPerSec(new RGB_to_LAB_U8_MT(),TEST_TIME);
+		ProfileOperation.printOpsPerSec(new RGB_to_LAB_IL_U8(),TEST_TIME);
+		ProfileOperation.printOpsPerSec(new RGB_to_XYZ_F32(),TEST_TIME);
+		ProfileOperation.printOpsPerSec(new RGB_to_XYZ_U8(),TEST_TIME);
+		ProfileOperation.printOpsPerSec(new RGB_to_XYZ_IL_U8(),TEST_TIME);
 	}
 }
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.denoise;
+
+import boofcv.alg.denoise.spatial.DenoiseBilateral_F32;
+import boofcv.alg.denoise.spatial.DenoiseNonLocalMeans_F32;
+import boofcv.alg.misc.ImageMiscOps;
+import boofcv.misc.PerformerBase;
+import boofcv.misc.ProfileOperation;
+import boofcv.struct.image.GrayF32;
+
+import java.util.Random;
+
+
+/**
+ * @author Peter Abeles
+ */
+public class BenchmarkDenoiseSpatial {
+	static int imgWidth = 640;
+	static int imgHeight = 480;
+	static long TEST_TIME = 1000;
+
+	static GrayF32 input = new GrayF32(imgWidth,imgHeight);
+	static GrayF32 output = new GrayF32(imgWidth,imgHeight);
+
+	public static class Spatial extends PerformerBase {
+		DenoiseSpatial<GrayF32> alg;
+		String name;
+
+		public Spatial(DenoiseSpatial<GrayF32> alg, boolean concurrent ) {
+			this.alg = alg;
+			this.name = alg.getClass().getSimpleName()+(concurrent ? " concurrent" : "");
+			alg.setConcurrent(concurrent);
+		}
+
+		@Override
+		public void process() {
+			alg.process(input,output);
+		}
+
+		@Override
+		public String getName() {
+			return name;
+		}
+	}
+
+	public static void main(String args[]) {
+
+		Random rand = new Random(234);
+		ImageMiscOps.fillUniform(input, rand, 0, 100);
+
+		System.out.println("=========  Profile Image Size " + imgWidth + " x " + imgHeight + " ==========");
+		System.out.println();
+
+		ProfileOperation.printOpsPerSec(new Spatial(new DenoiseNonLocalMeans_F32(2,7,10),false), TEST_TIME);
+		ProfileOperation.printOpsPerSec(new Spatial(new DenoiseNonLocalMeans_F32(2,7,10),true), TEST_TIME);
+		ProfileOperation.printOpsPerSec(new Spatial(new DenoiseBilateral_F32(3,-1,20),false), TEST_TIME);
+		ProfileOperation.printOpsPerSec(new Spatial(new DenoiseBilateral_F32(3,-1,20),true), TEST_TIME);
+	}
+}
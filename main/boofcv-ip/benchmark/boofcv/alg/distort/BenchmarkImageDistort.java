@@ -103,6 +103,24 @@ public class BenchmarkImageDistort<T extends ImageGray<T>> {
 		}
 	}
 
+	public class MapBilinearConcurrent_F32 extends PerformerBase {
+		ImageDistortCache_SB<T,T> alg;
+
+		public MapBilinearConcurrent_F32( Homography2D_F32 homography ) {
+			PixelTransform2_F32 tran = new PixelTransformHomography_F32(homography);
+			InterpolatePixelS<T> interp = FactoryInterpolation.bilinearPixelS(imageType, BorderType.EXTENDED);
+
+			alg = (ImageDistortCache_SB<T,T>)FactoryDistort.distortSB(true, interp, imageType);
+			alg.setConcurrent(true);
+			alg.setModel(tran);
+		}
+
+		@Override
+		public void process() {
+			alg.apply(src_F32, dst_F32,0,0,imgWidth,imgHeight);
+		}
+	}
+
 	private void benchmark() {
 		Random rand = new Random(234);
 
@@ -115,6 +133,7 @@ public class BenchmarkImageDistort<T extends ImageGray<T>> {
 		System.out.println();
 
 		ProfileOperation.printOpsPerSec(new MapBilinear_F32(affine),TEST_TIME);
+		ProfileOperation.printOpsPerSec(new MapBilinearConcurrent_F32(affine),TEST_TIME);
 		ProfileOperation.printOpsPerSec(new HomographyBilinear_F32(affine),TEST_TIME);
 		ProfileOperation.printOpsPerSec(new HomographyBilinearCrop_F32(affine),TEST_TIME);
 
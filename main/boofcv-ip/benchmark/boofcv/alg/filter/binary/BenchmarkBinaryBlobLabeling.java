@@ -64,6 +64,34 @@ public class BenchmarkBinaryBlobLabeling {
 		}
 	}
 
+	public static class NewAlg8_Concurrent extends PerformerBase {
+
+		LinearContourLabelChang2004 alg = new LinearContourLabelChang2004(ConnectRule.EIGHT);
+
+		public NewAlg8_Concurrent() {
+			alg.setConcurrent(true);
+		}
+
+		@Override
+		public void process() {
+			alg.process(input,output);
+		}
+	}
+
+	public static class NewAlg8_External extends PerformerBase {
+
+		LinearContourLabelChang2004 alg = new LinearContourLabelChang2004(ConnectRule.EIGHT);
+
+		public NewAlg8_External() {
+			alg.setSaveInternalContours(false);
+		}
+
+		@Override
+		public void process() {
+			alg.process(input,output);
+		}
+	}
+
 	public static void main(String args[]) {
 		System.out.println("=========  Profile Image Size "+ imgWidth +" x "+ imgHeight  +" ==========");
 
@@ -81,6 +109,8 @@ public class BenchmarkBinaryBlobLabeling {
 
 		ProfileOperation.printOpsPerSec(new NewAlg8(), TEST_TIME);
 		ProfileOperation.printOpsPerSec(new NewAlg4(), TEST_TIME);
+		ProfileOperation.printOpsPerSec(new NewAlg8_Concurrent(), TEST_TIME);
+		ProfileOperation.printOpsPerSec(new NewAlg8_External(), TEST_TIME);
 
 	}
 }
@@ -22,6 +22,7 @@ import boofcv.alg.filter.binary.impl.ImplBinaryInnerOps;
 import boofcv.alg.filter.binary.impl.ImplBinaryNaiveOps;
 import boofcv.alg.misc.ImageMiscOps;
 import boofcv.struct.image.GrayU8;
+import boofcv.struct.image.PackedBinaryImage;
 
 import java.util.Random;
 
@@ -37,11 +38,15 @@ public class BenchmarkBinaryOps  {
 	static GrayU8 input = new GrayU8(imgWidth, imgHeight);
 	static GrayU8 output = new GrayU8(imgWidth, imgHeight);
 
+	static PackedBinaryImage packed = new PackedBinaryImage(imgWidth, imgHeight);
+	static PackedBinaryImage packedOut = new PackedBinaryImage(imgWidth, imgHeight);
+
 	public BenchmarkBinaryOps() {
 		Random rand = new Random(234);
 		// test structures and unstructured images
 		// naive is some times faster in unstructured because it can escape earlier
-		ImageMiscOps.fillUniform(input, rand, 0, 1);
+		ImageMiscOps.fillUniform(input, rand, 0, 2);
+		PackedBinaryOps.pack(input, packed);
 //		ImageMiscOps.fillRectangle(input,1,100,200,150,100);
 	}
 
@@ -171,6 +176,72 @@ public class BenchmarkBinaryOps  {
 		return 0;
 	}
 
+	public int timePackedErode4(int reps) {
+		for( int i = 0; i < reps; i++ )
+			PackedBinaryOps.erode4(packed, 1, packedOut);
+		return 0;
+	}
+
+	public int timePackedErode8(int reps) {
+		for( int i = 0; i < reps; i++ )
+			PackedBinaryOps.erode8(packed, 1, packedOut);
+		return 0;
+	}
+
+	public int timePackedDilate4(int reps) {
+		for( int i = 0; i < reps; i++ )
+			PackedBinaryOps.dilate4(packed, 1, packedOut);
+		return 0;
+	}
+
+	public int timePackedDilate8(int reps) {
+		for( int i = 0; i < reps; i++ )
+			PackedBinaryOps.dilate8(packed, 1, packedOut);
+		return 0;
+	}
+
+	public int timePackedEdge4(int reps) {
+		for( int i = 0; i < reps; i++ )
+			PackedBinaryOps.edge4(packed, packedOut);
+		return 0;
+	}
+
+	public int timePackedEdge8(int reps) {
+		for( int i = 0; i < reps; i++ )
+			PackedBinaryOps.edge8(packed, packedOut);
+		return 0;
+	}
+
+	public int timePackedRemovePointNoise(int reps) {
+		for( int i = 0; i < reps; i++ )
+			PackedBinaryOps.removePointNoise(packed, packedOut);
+		return 0;
+	}
+
+	public int timePackedErode4_MT(int reps) {
+		for( int i = 0; i < reps; i++ )
+			PackedBinaryOps.erode4(packed, 1, packedOut, true);
+		return 0;
+	}
+
+	public int timePackedErode8_MT(int reps) {
+		for( int i = 0; i < reps; i++ )
+			PackedBinaryOps.erode8(packed, 1, packedOut, true);
+		return 0;
+	}
+
+	public int timePack(int reps) {
+		for( int i = 0; i < reps; i++ )
+			PackedBinaryOps.pack(input, packedOut);
+		return 0;
+	}
+
+	public int timeUnpack(int reps) {
+		for( int i = 0; i < reps; i++ )
+			PackedBinaryOps.unpack(packed, output);
+		return 0;
+	}
+
 	public static void main(String args[]) {
 		System.out.println("=========  Profile Image Size " + imgWidth + " x " + imgHeight + " ==========");
 
@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.filter.morphology;
+
+import boofcv.alg.misc.ImageMiscOps;
+import boofcv.misc.PerformerBase;
+import boofcv.misc.ProfileOperation;
+import boofcv.struct.image.GrayF32;
+import boofcv.struct.image.GrayU8;
+
+import java.util.Random;
+
+/**
+ * @author Peter Abeles
+ */
+public class BenchmarkGrayMorphology {
+	static int imgWidth = 640;
+	static int imgHeight = 480;
+	static long TEST_TIME = 1000;
+
+	static GrayU8 inputU8 = new GrayU8(imgWidth,imgHeight);
+	static GrayU8 outputU8 = new GrayU8(imgWidth,imgHeight);
+	static GrayF32 inputF32 = new GrayF32(imgWidth,imgHeight);
+	static GrayF32 outputF32 = new GrayF32(imgWidth,imgHeight);
+
+	public static class Erode_U8 extends PerformerBase {
+		StructuringElement element;
+		boolean concurrent;
+		String name;
+
+		public Erode_U8(StructuringElement element, String name, boolean concurrent) {
+			this.element = element;
+			this.concurrent = concurrent;
+			this.name = "Erode_U8 "+name+(concurrent ? " concurrent" : "");
+		}
+
+		@Override
+		public void process() {
+			GrayMorphologyOps.erode(inputU8, element, outputU8, concurrent);
+		}
+
+		@Override
+		public String getName() {
+			return name;
+		}
+	}
+
+	public static class Erode_F32 extends PerformerBase {
+		StructuringElement element;
+		boolean concurrent;
+		String name;
+
+		public Erode_F32(StructuringElement element, String name, boolean concurrent) {
+			this.element = element;
+			this.concurrent = concurrent;
+			this.name = "Erode_F32 "+name+(concurrent ? " concurrent" : "");
+		}
+
+		@Override
+		public void process() {
+			GrayMorphologyOps.erode(inputF32, element, outputF32, concurrent);
+		}
+
+		@Override
+		public String getName() {
+			return name;
+		}
+	}
+
+	/**
+	 * Brute force square erosion for comparison.  Cost grows with the square of the radius.
+	 */
+	public static class Naive_U8 extends PerformerBase {
+		int radius;
+
+		public Naive_U8(int radius) {
+			this.radius = radius;
+		}
+
+		@Override
+		public void process() {
+			for (int y = 0; y < imgHeight; y++) {
+				int y0 = Math.max(0, y - radius), y1 = Math.min(imgHeight, y + radius + 1);
+				for (int x = 0; x < imgWidth; x++) {
+					int x0 = Math.max(0, x - radius), x1 = Math.min(imgWidth, x + radius + 1);
+					int best = 255;
+					for (int i = y0; i < y1; i++) {
+						int index = i*imgWidth;
+						for (int j = x0; j < x1; j++) {
+							best = Math.min(best, inputU8.data[index + j] & 0xFF);
+						}
+					}
+					outputU8.data[y*imgWidth + x] = (byte)best;
+				}
+			}
+		}
+
+		@Override
+		public String getName() {
+			return "Naive_U8 square "+radius;
+		}
+	}
+
+	public static void main(String args[]) {
+
+		Random rand = new Random(234);
+		ImageMiscOps.fillUniform(inputU8, rand, 0, 255);
+		ImageMiscOps.fillUniform(inputF32, rand, 0, 255);
+
+		System.out.println("=========  Profile Image Size " + imgWidth + " x " + imgHeight + " ==========");
+		System.out.println();
+
+		ProfileOperation.printOpsPerSec(new Naive_U8(2), TEST_TIME);
+		ProfileOperation.printOpsPerSec(new Naive_U8(10), TEST_TIME);
+		for( int radius : new int[]{2,10,40} ) {
+			StructuringElement square = StructuringElement.square(radius);
+			ProfileOperation.printOpsPerSec(new Erode_U8(square,"square "+radius,false), TEST_TIME);
+			ProfileOperation.printOpsPerSec(new Erode_U8(square,"square "+radius,true), TEST_TIME);
+			ProfileOperation.printOpsPerSec(new Erode_F32(square,"square "+radius,false), TEST_TIME);
+		}
+		for( int radius : new int[]{2,10} ) {
+			StructuringElement disk = StructuringElement.disk(radius);
+			ProfileOperation.printOpsPerSec(new Erode_U8(disk,"disk "+radius,false), TEST_TIME);
+		}
+	}
+}
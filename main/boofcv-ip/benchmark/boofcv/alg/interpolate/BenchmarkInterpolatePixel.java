@@ -19,6 +19,7 @@
 package boofcv.alg.interpolate;
 
 import boofcv.alg.interpolate.impl.ImplBilinearPixel_F32;
+import boofcv.alg.interpolate.impl.ImplBilinearPixel_U8;
 import boofcv.alg.interpolate.impl.ImplInterpolatePixelConvolution_F32;
 import boofcv.alg.interpolate.impl.ImplPolynomialPixel_F32;
 import boofcv.alg.interpolate.impl.NearestNeighborPixel_F32;
@@ -49,6 +50,11 @@ public class BenchmarkInterpolatePixel {
 	static float end = 310.1f;
 	static float step = 1f;
 
+	// the same region as a list of points and as a grid
+	static int gridSize;
+	static float[] points;
+	static float[] values;
+
 	public static class Bilinear_Safe_F32 extends PerformerBase {
 		ImplBilinearPixel_F32 alg = new ImplBilinearPixel_F32(imgFloat32);
 
@@ -71,6 +77,53 @@ public class BenchmarkInterpolatePixel {
 		}
 	}
 
+	public static class Bilinear_Batch_F32 extends PerformerBase {
+		ImplBilinearPixel_F32 alg = new ImplBilinearPixel_F32(imgFloat32);
+
+		@Override
+		public void process() {
+			alg.get(points, 0, gridSize*gridSize, values, 0);
+		}
+	}
+
+	public static class Bilinear_Grid_F32 extends PerformerBase {
+		ImplBilinearPixel_F32 alg = new ImplBilinearPixel_F32(imgFloat32);
+
+		@Override
+		public void process() {
+			alg.getGrid(start, start, step, step, gridSize, gridSize, values, 0);
+		}
+	}
+
+	public static class Bilinear_Safe_U8 extends PerformerBase {
+		ImplBilinearPixel_U8 alg = new ImplBilinearPixel_U8(imgInt8);
+
+		@Override
+		public void process() {
+			for (float x = start; x <= end; x += step)
+				for (float y = start; y <= end; y += step)
+					alg.get(x, y);
+		}
+	}
+
+	public static class Bilinear_Batch_U8 extends PerformerBase {
+		ImplBilinearPixel_U8 alg = new ImplBilinearPixel_U8(imgInt8);
+
+		@Override
+		public void process() {
+			alg.get(points, 0, gridSize*gridSize, values, 0);
+		}
+	}
+
+	public static class Bilinear_Grid_U8 extends PerformerBase {
+		ImplBilinearPixel_U8 alg = new ImplBilinearPixel_U8(imgInt8);
+
+		@Override
+		public void process() {
+			alg.getGrid(start, start, step, step, gridSize, gridSize, values, 0);
+		}
+	}
+
 	public static class NearestNeighbor_Safe_F32 extends PerformerBase {
 		NearestNeighborPixel_F32 alg = new NearestNeighborPixel_F32(imgFloat32);
 
@@ -114,11 +167,26 @@ public class BenchmarkInterpolatePixel {
 		ImageMiscOps.fillUniform(imgInt8, rand, 0, 100);
 		ImageMiscOps.fillUniform(imgFloat32, rand, 0, 200);
 
+		gridSize = (int)((end-start)/step) + 1;
+		points = new float[gridSize*gridSize*2];
+		values = new float[gridSize*gridSize];
+		for (int row = 0, index = 0; row < gridSize; row++) {
+			for (int col = 0; col < gridSize; col++) {
+				points[index++] = start + col*step;
+				points[index++] = start + row*step;
+			}
+		}
+
 		System.out.println("=========  Profile Image Size " + imgWidth + " x " + imgHeight + " ==========");
 		System.out.println();
 
 		ProfileOperation.printOpsPerSec(new Bilinear_Safe_F32(), TEST_TIME);
 		ProfileOperation.printOpsPerSec(new Bilinear_UnSafe_F32(), TEST_TIME);
+		ProfileOperation.printOpsPerSec(new Bilinear_Batch_F32(), TEST_TIME);
+		ProfileOperation.printOpsPerSec(new Bilinear_Grid_F32(), TEST_TIME);
+		ProfileOperation.printOpsPerSec(new Bilinear_Safe_U8(), TEST_TIME);
+		ProfileOperation.printOpsPerSec(new Bilinear_Batch_U8(), TEST_TIME);
+		ProfileOperation.printOpsPerSec(new Bilinear_Grid_U8(), TEST_TIME);
 		ProfileOperation.printOpsPerSec(new NearestNeighbor_Safe_F32(), TEST_TIME);
 		ProfileOperation.printOpsPerSec(new BilinearConvolution_Safe_F32(), TEST_TIME);
 		ProfileOperation.printOpsPerSec(new Polynomial_Safe_F32(), TEST_TIME);
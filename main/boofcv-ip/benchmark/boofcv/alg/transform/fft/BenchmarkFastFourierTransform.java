@@ -19,6 +19,7 @@
 package boofcv.alg.transform.fft;
 
 import boofcv.abst.transform.fft.DiscreteFourierTransform;
+import boofcv.abst.transform.fft.GeneralFft_to_DiscreteFourierTransform_F32;
 import boofcv.alg.misc.ImageMiscOps;
 import boofcv.misc.PerformerBase;
 import boofcv.misc.ProfileOperation;
@@ -52,6 +53,75 @@ public class BenchmarkFastFourierTransform {
 		}
 	}
 
+	public static class ComputeFFT_Concurrent extends PerformerBase {
+
+		DiscreteFourierTransform dft = DiscreteFourierTransformOps.createTransformF32();
+
+		public ComputeFFT_Concurrent() {
+			dft.setConcurrent(true);
+		}
+
+		@Override
+		public void process() {
+			dft.forward(input,fourier);
+			dft.inverse(fourier,output);
+		}
+	}
+
+	public static class ComputeFFT_Pow2 extends PerformerBase {
+
+		GeneralPurposeFFT_F32_2D alg = new GeneralPurposeFFT_F32_2D(512,512);
+		float data[] = new float[512*512*2];
+		boolean concurrent;
+
+		public ComputeFFT_Pow2(boolean concurrent) {
+			this.concurrent = concurrent;
+			alg.setConcurrent(concurrent);
+		}
+
+		@Override
+		public void process() {
+			alg.complexForward(data);
+			alg.complexInverse(data,true);
+		}
+
+		@Override
+		public String getName() {
+			return "ComputeFFT_Pow2"+(concurrent ? "_Concurrent" : "");
+		}
+	}
+
+	/**
+	 * Alternates between crops of different sizes, which forces the FFT to be recreated each time.  With a cache
+	 * size of one the twiddle tables are recomputed every call.
+	 */
+	public static class ComputeFFT_MixedSizes extends PerformerBase {
+
+		GrayF32 cropA = input.subimage(0,0,201,153,null).clone();
+		GrayF32 cropB = input.subimage(0,0,160,211,null).clone();
+		InterleavedF32 fourierA = new InterleavedF32(cropA.width,cropA.height,2);
+		InterleavedF32 fourierB = new InterleavedF32(cropB.width,cropB.height,2);
+
+		DiscreteFourierTransform<GrayF32,InterleavedF32> dft;
+		int cacheSize;
+
+		public ComputeFFT_MixedSizes(int cacheSize) {
+			this.cacheSize = cacheSize;
+			dft = new GeneralFft_to_DiscreteFourierTransform_F32(new FftPlanCache_F32(cacheSize));
+		}
+
+		@Override
+		public void process() {
+			dft.forward(cropA,fourierA);
+			dft.forward(cropB,fourierB);
+		}
+
+		@Override
+		public String getName() {
+			return "ComputeFFT_MixedSizes_Cache"+cacheSize;
+		}
+	}
+
 	public static void main( String args[] ) {
 
 		Random rand = new Random(234);
@@ -61,5 +131,10 @@ public class BenchmarkFastFourierTransform {
 		System.out.println();
 
 		ProfileOperation.printOpsPerSec(new ComputeFFT(), TEST_TIME);
+		ProfileOperation.printOpsPerSec(new ComputeFFT_Concurrent(), TEST_TIME);
+		ProfileOperation.printOpsPerSec(new ComputeFFT_Pow2(false), TEST_TIME);
+		ProfileOperation.printOpsPerSec(new ComputeFFT_Pow2(true), TEST_TIME);
+		ProfileOperation.printOpsPerSec(new ComputeFFT_MixedSizes(1), TEST_TIME);
+		ProfileOperation.printOpsPerSec(new ComputeFFT_MixedSizes(20), TEST_TIME);
 	}
 }
@@ -77,6 +77,14 @@ public class BenchmarkWaveletInverse {
 		}
 	}
 
+	public static class Concurrent_F32 extends PerformerBase {
+
+		@Override
+		public void process() {
+			WaveletTransformOps.inverse1(desc_F32,tran_F32,temp1_F32,temp1_F32,0,255,true);
+		}
+	}
+
 	public static class Standard_I32 extends PerformerBase {
 
 		@Override
@@ -97,6 +105,7 @@ public class BenchmarkWaveletInverse {
 
 		ProfileOperation.printOpsPerSec(new Naive_F32(), TEST_TIME);
 		ProfileOperation.printOpsPerSec(new Standard_F32(), TEST_TIME);
+		ProfileOperation.printOpsPerSec(new Concurrent_F32(), TEST_TIME);
 		ProfileOperation.printOpsPerSec(new Naive_I32(), TEST_TIME);
 		ProfileOperation.printOpsPerSec(new Standard_I32(), TEST_TIME);
 	}
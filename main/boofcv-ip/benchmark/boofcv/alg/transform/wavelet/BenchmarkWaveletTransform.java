@@ -69,6 +69,14 @@ public class BenchmarkWaveletTransform {
 		}
 	}
 
+	public static class Concurrent_F32 extends PerformerBase {
+
+		@Override
+		public void process() {
+			WaveletTransformOps.transform1(desc_F32,orig_F32,temp1_F32,temp1_F32,true);
+		}
+	}
+
 	public static class Naive_I32 extends PerformerBase {
 
 		@Override
@@ -91,8 +99,10 @@ public class BenchmarkWaveletTransform {
 		static GrayF32 copy = new GrayF32(imgWidth,imgHeight);
 		GrayF32 tran;
 		GrayF32 storage;
+		boolean concurrent;
 
-		public FullLevel3_F32() {
+		public FullLevel3_F32( boolean concurrent ) {
+			this.concurrent = concurrent;
 			ImageDimension dim = UtilWavelet.transformDimension(copy,3);
 			tran = new GrayF32(dim.width,dim.height);
 			storage = new GrayF32(dim.width,dim.height);
@@ -102,7 +112,7 @@ public class BenchmarkWaveletTransform {
 		public void process() {
 			// don't modify the input image
 			copy.setTo(orig_F32);
-			WaveletTransformOps.transformN(desc_F32,copy,tran,storage,3);
+			WaveletTransformOps.transformN(desc_F32,copy,tran,storage,3,concurrent);
 		}
 	}
 
@@ -116,9 +126,11 @@ public class BenchmarkWaveletTransform {
 		System.out.println("=========  Profile Image Size " + imgWidth + " x " + imgHeight + " ==========");
 		System.out.println();
 
-		ProfileOperation.printOpsPerSec(new FullLevel3_F32(), TEST_TIME);
+		ProfileOperation.printOpsPerSec(new FullLevel3_F32(false), TEST_TIME);
+		ProfileOperation.printOpsPerSec(new FullLevel3_F32(true), TEST_TIME);
 		ProfileOperation.printOpsPerSec(new Naive_F32(), TEST_TIME);
 		ProfileOperation.printOpsPerSec(new Standard_F32(), TEST_TIME);
+		ProfileOperation.printOpsPerSec(new Concurrent_F32(), TEST_TIME);
 		ProfileOperation.printOpsPerSec(new Naive_I32(), TEST_TIME);
 		ProfileOperation.printOpsPerSec(new Standard_I32(), TEST_TIME);
 	}
@@ -22,6 +22,7 @@ import boofcv.misc.PerformerBase;
 import boofcv.misc.ProfileOperation;
 import boofcv.struct.image.*;
 
+import java.nio.ByteBuffer;
 import java.util.Random;
 
 /**
@@ -32,6 +33,7 @@ public class BenchmarkConvertNV21 {
 	static int width=640,height=480;
 
 	static byte nv21[] = new byte[width*height*2];
+	static ByteBuffer nv21Direct = ByteBuffer.allocateDirect(nv21.length);
 
 	static GrayU8 grayU8 = new GrayU8(width,height);
 	static GrayF32 grayF32 = new GrayF32(width,height);
@@ -45,6 +47,8 @@ public class BenchmarkConvertNV21 {
 		for (int i = 0; i < nv21.length; i++) {
 			nv21[i] = (byte)rand.nextInt(256);
 		}
+		nv21Direct.put(nv21);
+		nv21Direct.position(0);
 	}
 
 	public static class TGrayU8 extends PerformerBase
@@ -95,6 +99,38 @@ public class BenchmarkConvertNV21 {
 		}
 	}
 
+	public static class InterU8_MT extends PerformerBase
+	{
+		@Override
+		public void process() {
+			ConvertNV21.nv21ToBoof(nv21,width,height,interleavedU8,true);
+		}
+	}
+
+	public static class InterU8_Direct extends PerformerBase
+	{
+		@Override
+		public void process() {
+			ConvertNV21.nv21ToInterleaved(nv21Direct,width,height,interleavedU8,false);
+		}
+	}
+
+	public static class InterU8_Direct_MT extends PerformerBase
+	{
+		@Override
+		public void process() {
+			ConvertNV21.nv21ToInterleaved(nv21Direct,width,height,interleavedU8,true);
+		}
+	}
+
+	public static class PlanarU8_MT extends PerformerBase
+	{
+		@Override
+		public void process() {
+			ConvertNV21.nv21ToBoof(nv21,width,height,planarU8,true);
+		}
+	}
+
 	public static void main( String args[] ) {
 
 		System.out.println("=========  Profile Image Size " + width + " x " + height + " ==========");
@@ -112,6 +148,14 @@ public class BenchmarkConvertNV21 {
 				ProfileOperation.profileOpsPerSec(new InterU8(), 1000, false));
 		System.out.printf("nv21 to interleaved F32        %10.2f ops/sec\n",
 				ProfileOperation.profileOpsPerSec(new InterF32(), 1000, false));
+		System.out.printf("nv21 to planar U8 concurrent   %10.2f ops/sec\n",
+				ProfileOperation.profileOpsPerSec(new PlanarU8_MT(), 1000, false));
+		System.out.printf("nv21 to inter U8 concurrent    %10.2f ops/sec\n",
+				ProfileOperation.profileOpsPerSec(new InterU8_MT(), 1000, false));
+		System.out.printf("nv21 to inter U8 direct        %10.2f ops/sec\n",
+				ProfileOperation.profileOpsPerSec(new InterU8_Direct(), 1000, false));
+		System.out.printf("nv21 to inter U8 direct conc   %10.2f ops/sec\n",
+				ProfileOperation.profileOpsPerSec(new InterU8_Direct_MT(), 1000, false));
 
 	}
 }
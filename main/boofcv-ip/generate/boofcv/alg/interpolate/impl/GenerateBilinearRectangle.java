@@ -88,6 +88,9 @@ public class GenerateBilinearRectangle extends CodeGeneratorBase {
 				"\tprivate "+image.getDataType()+" data[];\n" +
 				"\tprivate int stride;\n" +
 				"\n" +
+				"\t// used to process an array as if it was an image\n" +
+				"\tprivate GrayF32 wrapper = new GrayF32();\n" +
+				"\n" +
 				"\tpublic "+className+"("+image.getSingleBandName()+" image) {\n" +
 				"\t\tsetImage(image);\n" +
 				"\t}\n" +
@@ -177,6 +180,18 @@ public class GenerateBilinearRectangle extends CodeGeneratorBase {
 				"\t\t\thandleBorder(output, xt, yt, ax, ay, bx, by, regWidth, regHeight, results, borderRight, borderBottom);\n" +
 				"\t}\n" +
 				"\n" +
+				"\t@Override\n" +
+				"\tpublic void region(float tl_x, float tl_y, float[] results, int regWidth, int regHeight) {\n" +
+				"\t\tif( results.length < regWidth*regHeight )\n" +
+				"\t\t\tthrow new IllegalArgumentException(\"results array is too small\");\n" +
+				"\t\twrapper.data = results;\n" +
+				"\t\twrapper.width = regWidth;\n" +
+				"\t\twrapper.height = regHeight;\n" +
+				"\t\twrapper.stride = regWidth;\n" +
+				"\t\twrapper.startIndex = 0;\n" +
+				"\t\tregion(tl_x, tl_y, wrapper);\n" +
+				"\t}\n" +
+				"\n" +
 				"\tprivate void handleBorder( GrayF32 output,\n" +
 				"\t\t\t\t\t\t\t  int xt, int yt,\n" +
 				"\t\t\t\t\t\t\t  float ax, float ay, float bx, float by,\n" +
@@ -81,7 +81,14 @@ public class GenerateImplBilinearPixel extends CodeGeneratorBase {
 				" * @author Peter Abeles\n" +
 				" */\n" +
 				"public class "+className+" extends BilinearPixelS<"+image.getSingleBandName()+"> {\n" +
-				"\n" +
+				"\n");
+		if( image == AutoTypeImage.U8 || image == AutoTypeImage.F32 ) {
+			out.print("\t// workspace for interpolating a grid.  Column index and interpolation weight\n" +
+					"\tprivate int[] gridColumns = new int[0];\n" +
+					"\tprivate float[] gridWeights = new float[0];\n" +
+					"\n");
+		}
+		out.print(
 				"\tpublic "+className+"() {\n" +
 				"\t}\n" +
 				"\n" +
@@ -139,6 +146,17 @@ public class GenerateImplBilinearPixel extends CodeGeneratorBase {
 				"\n" +
 				"\t\treturn get_fast(x,y);\n" +
 				"\t}\n"+
+				"\n");
+
+		if( image == AutoTypeImage.U8 || image == AutoTypeImage.F32 )
+			printBatch();
+
+		out.print("\t@Override\n" +
+				"\tpublic "+className+" copy() {\n" +
+				"\t\t"+className+" out = new "+className+"();\n" +
+				"\t\tout.setBorder(border);\n" +
+				"\t\treturn out;\n" +
+				"\t}\n" +
 				"\n" +
 				"\t@Override\n" +
 				"\tpublic ImageType<"+image.getSingleBandName()+"> getImageType() {\n" +
@@ -146,6 +164,93 @@ public class GenerateImplBilinearPixel extends CodeGeneratorBase {
 				"\t}\n\n");
 	}
 
+	/**
+	 * Specialized implementations of the batch functions which avoid per-sample overhead
+	 */
+	private void printBatch() {
+		String bitWise = image.getBitWise();
+
+		out.print(
+				"\t@Override\n" +
+				"\tpublic void get(float[] points, int pointsOffset, int count, float[] output, int outputOffset) {\n" +
+				"\t\tfinal "+image.getDataType()+"[] data = orig.data;\n" +
+				"\n" +
+				"\t\tfor (int i = 0, indexPt = pointsOffset; i < count; i++, indexPt += 2) {\n" +
+				"\t\t\tfloat x = points[indexPt];\n" +
+				"\t\t\tfloat y = points[indexPt + 1];\n" +
+				"\n" +
+				"\t\t\tif (x < 0 || y < 0 || x > width-2 || y > height-2) {\n" +
+				"\t\t\t\toutput[outputOffset + i] = get_border(x, y);\n" +
+				"\t\t\t\tcontinue;\n" +
+				"\t\t\t}\n" +
+				"\n" +
+				"\t\t\tint xt = (int) x;\n" +
+				"\t\t\tint yt = (int) y;\n" +
+				"\t\t\tfloat ax = x - xt;\n" +
+				"\t\t\tfloat ay = y - yt;\n" +
+				"\n" +
+				"\t\t\tint index = orig.startIndex + yt * stride + xt;\n" +
+				"\n" +
+				"\t\t\tfloat val = (1.0f - ax) * (1.0f - ay) * (data[index] "+bitWise+"); // (x,y)\n" +
+				"\t\t\tval += ax * (1.0f - ay) * (data[index + 1] "+bitWise+"); // (x+1,y)\n" +
+				"\t\t\tval += ax * ay * (data[index + 1 + stride] "+bitWise+"); // (x+1,y+1)\n" +
+				"\t\t\tval += (1.0f - ax) * ay * (data[index + stride] "+bitWise+"); // (x,y+1)\n" +
+				"\n" +
+				"\t\t\toutput[outputOffset + i] = val;\n" +
+				"\t\t}\n" +
+				"\t}\n" +
+				"\n" +
+				"\t@Override\n" +
+				"\tpublic void getGrid(float x0, float y0, float stepX, float stepY, int columns, int rows,\n" +
+				"\t\t\t\t\t\tfloat[] output, int outputOffset) {\n" +
+				"\t\tif( columns <= 0 || rows <= 0 )\n" +
+				"\t\t\treturn;\n" +
+				"\n" +
+				"\t\t// the grid is only inside the image if its corners are\n" +
+				"\t\tfloat x1 = x0 + (columns - 1)*stepX;\n" +
+				"\t\tfloat y1 = y0 + (rows - 1)*stepY;\n" +
+				"\t\tif( !isInFastBounds(x0, y0) || !isInFastBounds(x1, y1) ) {\n" +
+				"\t\t\tImplInterpolatePixelBatch.getGrid(this, x0, y0, stepX, stepY, columns, rows, output, outputOffset);\n" +
+				"\t\t\treturn;\n" +
+				"\t\t}\n" +
+				"\n" +
+				"\t\t// the column look ups are the same for every row\n" +
+				"\t\tif( gridColumns.length < columns ) {\n" +
+				"\t\t\tgridColumns = new int[columns];\n" +
+				"\t\t\tgridWeights = new float[columns];\n" +
+				"\t\t}\n" +
+				"\t\tfor (int col = 0; col < columns; col++) {\n" +
+				"\t\t\tfloat x = x0 + col*stepX;\n" +
+				"\t\t\tint xt = (int) x;\n" +
+				"\t\t\tgridColumns[col] = xt;\n" +
+				"\t\t\tgridWeights[col] = x - xt;\n" +
+				"\t\t}\n" +
+				"\n" +
+				"\t\tfinal "+image.getDataType()+"[] data = orig.data;\n" +
+				"\n" +
+				"\t\tfor (int row = 0; row < rows; row++) {\n" +
+				"\t\t\tfloat y = y0 + row*stepY;\n" +
+				"\t\t\tint yt = (int) y;\n" +
+				"\t\t\tfloat ay = y - yt;\n" +
+				"\t\t\tint indexRow = orig.startIndex + yt * stride;\n" +
+				"\t\t\tint indexOut = outputOffset + row*columns;\n" +
+				"\n" +
+				"\t\t\tfor (int col = 0; col < columns; col++) {\n" +
+				"\t\t\t\tfloat ax = gridWeights[col];\n" +
+				"\t\t\t\tint index = indexRow + gridColumns[col];\n" +
+				"\n" +
+				"\t\t\t\tfloat val = (1.0f - ax) * (1.0f - ay) * (data[index] "+bitWise+"); // (x,y)\n" +
+				"\t\t\t\tval += ax * (1.0f - ay) * (data[index + 1] "+bitWise+"); // (x+1,y)\n" +
+				"\t\t\t\tval += ax * ay * (data[index + 1 + stride] "+bitWise+"); // (x+1,y+1)\n" +
+				"\t\t\t\tval += (1.0f - ax) * ay * (data[index + stride] "+bitWise+"); // (x,y+1)\n" +
+				"\n" +
+				"\t\t\t\toutput[indexOut++] = val;\n" +
+				"\t\t\t}\n" +
+				"\t\t}\n" +
+				"\t}\n" +
+				"\n");
+	}
+
 	public static void main( String args[] ) throws FileNotFoundException {
 		GenerateImplBilinearPixel gen = new GenerateImplBilinearPixel();
 		gen.generate();
@@ -248,6 +248,24 @@ public class GenerateImplInterpolatePixelConvolution extends CodeGeneratorBase {
 				"\t}" +
 				"\n" +
 				"\t@Override\n" +
+				"\tpublic "+className+" copy() {\n" +
+				"\t\t"+className+" out = new "+className+"(kernel,min,max);\n" +
+				"\t\tout.setBorder(border);\n" +
+				"\t\treturn out;\n" +
+				"\t}\n" +
+				"\n" +
+				"\t@Override\n" +
+				"\tpublic void get(float[] points, int pointsOffset, int count, float[] output, int outputOffset) {\n" +
+				"\t\tImplInterpolatePixelBatch.get(this, points, pointsOffset, count, output, outputOffset);\n" +
+				"\t}\n" +
+				"\n" +
+				"\t@Override\n" +
+				"\tpublic void getGrid(float x0, float y0, float stepX, float stepY, int columns, int rows,\n" +
+				"\t\t\t\t\t\tfloat[] output, int outputOffset) {\n" +
+				"\t\tImplInterpolatePixelBatch.getGrid(this, x0, y0, stepX, stepY, columns, rows, output, outputOffset);\n" +
+				"\t}\n" +
+				"\n" +
+				"\t@Override\n" +
 				"\tpublic ImageType<"+inputType.getSingleBandName()+"> getImageType() {\n" +
 				"\t\treturn ImageType.single("+inputType.getSingleBandName()+".class);\n" +
 				"\t}\n");
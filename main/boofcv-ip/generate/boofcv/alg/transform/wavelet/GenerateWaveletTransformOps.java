@@ -55,9 +55,11 @@ public class GenerateWaveletTransformOps extends CodeGeneratorBase {
 
 	private void printPreamble() {
 		out.print("import boofcv.alg.InputSanityCheck;\n" +
+				"import boofcv.alg.misc.ImageMiscOps;\n" +
 				"import boofcv.alg.misc.PixelMath;\n" +
 				"import boofcv.alg.transform.wavelet.impl.ImplWaveletTransformBorder;\n" +
 				"import boofcv.alg.transform.wavelet.impl.ImplWaveletTransformInner;\n" +
+				"import boofcv.alg.transform.wavelet.impl.ImplWaveletTransformInner_MT;\n" +
 				"import boofcv.alg.transform.wavelet.impl.ImplWaveletTransformNaive;\n" +
 				"import boofcv.struct.image.GrayF32;\n" +
 				"import boofcv.struct.image.GrayS32;\n" +
@@ -139,6 +141,21 @@ public class GenerateWaveletTransformOps extends CodeGeneratorBase {
 				"\t\t\t\t\t\t\t\t   "+imageIn.getSingleBandName()+" input , "+imageOut.getSingleBandName()+" output ,\n" +
 				"\t\t\t\t\t\t\t\t   "+imageOut.getSingleBandName()+" storage )\n" +
 				"\t{\n" +
+				"\t\ttransform1(desc,input,output,storage,false);\n" +
+				"\t}\n" +
+				"\n" +
+				"\t/**\n" +
+				"\t * Same as {@link #transform1(WaveletDescription, "+imageIn.getSingleBandName()+", "+imageOut.getSingleBandName()+", "+imageOut.getSingleBandName()+")}\n" +
+				"\t * but the inner portion of the image can be processed using multiple threads.\n" +
+				"\t * Results are identical to processing with a single thread.\n" +
+				"\t *\n" +
+				"\t * @param concurrent If true then rows and columns are split between threads.\n" +
+				"\t */\n" +
+				"\tpublic static void transform1( WaveletDescription<WlCoef_"+genName+"> desc ,\n" +
+				"\t\t\t\t\t\t\t\t   "+imageIn.getSingleBandName()+" input , "+imageOut.getSingleBandName()+" output ,\n" +
+				"\t\t\t\t\t\t\t\t   "+imageOut.getSingleBandName()+" storage ,\n" +
+				"\t\t\t\t\t\t\t\t   boolean concurrent )\n" +
+				"\t{\n" +
 				"\t\tUtilWavelet.checkShape(input,output);\n" +
 				"\n" +
 				"\t\tWlCoef_"+genName+" coef = desc.getForward();\n" +
@@ -149,12 +166,22 @@ public class GenerateWaveletTransformOps extends CodeGeneratorBase {
 				"\t\t\tthrow new IllegalArgumentException(\"Wavelet is too large for provided image.\");\n" +
 				"\t\tstorage = InputSanityCheck.checkDeclare(output, storage);\n" +
 				"\n" +
+				"\t\t// when the output is padded the horizontal pass doesn't write to every pixel in storage, but the vertical\n" +
+				"\t\t// pass will read all of them\n" +
+				"\t\tif( output.width != input.width || output.height != input.height )\n" +
+				"\t\t\tImageMiscOps.fill(storage,0);\n" +
+				"\n" +
 				"\t\t// the faster routines can only be run on images which are not too small\n" +
 				"\t\tint minSize = Math.max(coef.getScalingLength(),coef.getWaveletLength())*3;\n" +
 				"\n" +
 				"\t\tif( input.getWidth() <= minSize || input.getHeight() <= minSize ) {\n" +
 				"\t\t\tImplWaveletTransformNaive.horizontal(desc.getBorder(),coef,input,storage);\n" +
 				"\t\t\tImplWaveletTransformNaive.vertical(desc.getBorder(),coef,storage,output);\n" +
+				"\t\t} else if( concurrent ) {\n" +
+				"\t\t\tImplWaveletTransformInner_MT.horizontal(coef,input,storage);\n" +
+				"\t\t\tImplWaveletTransformBorder.horizontal(desc.getBorder(),coef,input,storage);\n" +
+				"\t\t\tImplWaveletTransformInner_MT.vertical(coef,storage,output);\n" +
+				"\t\t\tImplWaveletTransformBorder.vertical(desc.getBorder(),coef,storage,output);\n" +
 				"\t\t} else {\n" +
 				"\t\t\tImplWaveletTransformInner.horizontal(coef,input,storage);\n" +
 				"\t\t\tImplWaveletTransformBorder.horizontal(desc.getBorder(),coef,input,storage);\n" +
@@ -184,8 +211,24 @@ public class GenerateWaveletTransformOps extends CodeGeneratorBase {
 				"\t\t\t\t\t\t\t\t   "+imageOut.getSingleBandName()+" storage ,\n" +
 				"\t\t\t\t\t\t\t\t   int numLevels )\n" +
 				"\t{\n" +
+				"\t\ttransformN(desc,input,output,storage,numLevels,false);\n" +
+				"\t}\n" +
+				"\n" +
+				"\t/**\n" +
+				"\t * Same as {@link #transformN(WaveletDescription, "+imageIn.getSingleBandName()+", "+imageOut.getSingleBandName()+", "+imageOut.getSingleBandName()+", int)}\n" +
+				"\t * but the inner portion of each level can be processed using multiple threads.\n" +
+				"\t * Results are identical to processing with a single thread.\n" +
+				"\t *\n" +
+				"\t * @param concurrent If true then rows and columns are split between threads.\n" +
+				"\t */\n" +
+				"\tpublic static void transformN( WaveletDescription<WlCoef_"+genName+"> desc ,\n" +
+				"\t\t\t\t\t\t\t\t   "+imageIn.getSingleBandName()+" input , "+imageOut.getSingleBandName()+" output ,\n" +
+				"\t\t\t\t\t\t\t\t   "+imageOut.getSingleBandName()+" storage ,\n" +
+				"\t\t\t\t\t\t\t\t   int numLevels ,\n" +
+				"\t\t\t\t\t\t\t\t   boolean concurrent )\n" +
+				"\t{\n" +
 				"\t\tif( numLevels == 1 ) {\n" +
-				"\t\t\ttransform1(desc,input,output, storage);\n" +
+				"\t\t\ttransform1(desc,input,output, storage,concurrent);\n" +
 				"\t\t\treturn;\n" +
 				"\t\t}\n" +
 				"\n" +
@@ -195,7 +238,7 @@ public class GenerateWaveletTransformOps extends CodeGeneratorBase {
 				"\t\tstorage = storage.subimage(0,0,output.width,output.height);\n" +
 				"\t\tstorage.subImage = false;\n" +
 				"\n" +
-				"\t\ttransform1(desc,input,output, storage);\n" +
+				"\t\ttransform1(desc,input,output, storage,concurrent);\n" +
 				"\n" +
 				"\t\tfor( int i = 2; i <= numLevels; i++ ) {\n" +
 				"\t\t\tint width = output.width/2;\n" +
@@ -209,7 +252,7 @@ public class GenerateWaveletTransformOps extends CodeGeneratorBase {
 				"\n" +
 				"\t\t\t// transform the scaling image and save the results in the output image\n" +
 				"\t\t\tstorage.reshape(width,height);\n" +
-				"\t\t\ttransform1(desc,input,output,storage);\n" +
+				"\t\t\ttransform1(desc,input,output,storage,concurrent);\n" +
 				"\t\t}\n" +
 				"\t}\n\n");
 	}
@@ -235,6 +278,21 @@ public class GenerateWaveletTransformOps extends CodeGeneratorBase {
 				"\t\t\t\t\t\t\t\t "+imageOut.getSingleBandName()+" input , "+imageIn.getSingleBandName()+" output ,\n" +
 				"\t\t\t\t\t\t\t\t "+imageIn.getSingleBandName()+" storage , "+primitive+" minValue , "+primitive+" maxValue )\n" +
 				"\t{\n" +
+				"\t\tinverse1(desc,input,output,storage,minValue,maxValue,false);\n" +
+				"\t}\n" +
+				"\n" +
+				"\t/**\n" +
+				"\t * Same as {@link #inverse1(WaveletDescription, "+imageOut.getSingleBandName()+", "+imageIn.getSingleBandName()+", "+imageIn.getSingleBandName()+", "+primitive+", "+primitive+")}\n" +
+				"\t * but the inner portion of the image can be processed using multiple threads.\n" +
+				"\t * Results are identical to processing with a single thread.\n" +
+				"\t *\n" +
+				"\t * @param concurrent If true then rows and columns are split between threads.\n" +
+				"\t */\n" +
+				"\tpublic static void inverse1( WaveletDescription<WlCoef_"+genName+"> desc ,\n" +
+				"\t\t\t\t\t\t\t\t "+imageOut.getSingleBandName()+" input , "+imageIn.getSingleBandName()+" output ,\n" +
+				"\t\t\t\t\t\t\t\t "+imageIn.getSingleBandName()+" storage , "+primitive+" minValue , "+primitive+" maxValue ,\n" +
+				"\t\t\t\t\t\t\t\t boolean concurrent )\n" +
+				"\t{\n" +
 				"\t\tUtilWavelet.checkShape(output,input);\n" +
 				"\t\tWlCoef_"+genName+" coef = desc.getForward();\n" +
 				"\t\tif( output.width < coef.scaling.length || output.width < coef.wavelet.length )\n" +
@@ -249,6 +307,11 @@ public class GenerateWaveletTransformOps extends CodeGeneratorBase {
 				"\t\tif( output.getWidth() <= minSize || output.getHeight() <= minSize ) {\n" +
 				"\t\t\tImplWaveletTransformNaive.verticalInverse(desc.getBorder(),desc.getInverse(),input,storage);\n" +
 				"\t\t\tImplWaveletTransformNaive.horizontalInverse(desc.getBorder(),desc.getInverse(),storage,output);\n" +
+				"\t\t} else if( concurrent ) {\n" +
+				"\t\t\tImplWaveletTransformInner_MT.verticalInverse(desc.getInverse().getInnerCoefficients(),input,storage);\n" +
+				"\t\t\tImplWaveletTransformBorder.verticalInverse(desc.getBorder(),desc.getInverse(),input,storage);\n" +
+				"\t\t\tImplWaveletTransformInner_MT.horizontalInverse(desc.getInverse().getInnerCoefficients(),storage,output);\n" +
+				"\t\t\tImplWaveletTransformBorder.horizontalInverse(desc.getBorder(),desc.getInverse(),storage,output);\n" +
 				"\t\t} else {\n" +
 				"\t\t\tImplWaveletTransformInner.verticalInverse(desc.getInverse().getInnerCoefficients(),input,storage);\n" +
 				"\t\t\tImplWaveletTransformBorder.verticalInverse(desc.getBorder(),desc.getInverse(),input,storage);\n" +
@@ -284,8 +347,25 @@ public class GenerateWaveletTransformOps extends CodeGeneratorBase {
 				"\t\t\t\t\t\t\t\t int numLevels ,\n" +
 				"\t\t\t\t\t\t\t\t "+primitive+" minValue , "+primitive+" maxValue)\n" +
 				"\t{\n" +
+				"\t\tinverseN(desc,input,output,storage,numLevels,minValue,maxValue,false);\n" +
+				"\t}\n" +
+				"\n" +
+				"\t/**\n" +
+				"\t * Same as {@link #inverseN(WaveletDescription, "+imageOut.getSingleBandName()+", "+imageIn.getSingleBandName()+", "+imageOut.getSingleBandName()+", int, "+primitive+", "+primitive+")}\n" +
+				"\t * but the inner portion of each level can be processed using multiple threads.\n" +
+				"\t * Results are identical to processing with a single thread.\n" +
+				"\t *\n" +
+				"\t * @param concurrent If true then rows and columns are split between threads.\n" +
+				"\t */\n" +
+				"\tpublic static void inverseN( WaveletDescription<WlCoef_"+genName+"> desc ,\n" +
+				"\t\t\t\t\t\t\t\t "+imageOut.getSingleBandName()+" input , "+imageIn.getSingleBandName()+" output ,\n" +
+				"\t\t\t\t\t\t\t\t "+imageOut.getSingleBandName()+" storage,\n" +
+				"\t\t\t\t\t\t\t\t int numLevels ,\n" +
+				"\t\t\t\t\t\t\t\t "+primitive+" minValue , "+primitive+" maxValue ,\n" +
+				"\t\t\t\t\t\t\t\t boolean concurrent )\n" +
+				"\t{\n" +
 				"\t\tif( numLevels == 1 ) {\n" +
-				"\t\t\tinverse1(desc,input,output, storage,minValue,maxValue);\n" +
+				"\t\t\tinverse1(desc,input,output, storage,minValue,maxValue,concurrent);\n" +
 				"\t\t\tPixelMath.boundImage(output,minValue,maxValue);\n" +
 				"\t\t\treturn;\n" +
 				"\t\t}\n" +
@@ -307,7 +387,7 @@ public class GenerateWaveletTransformOps extends CodeGeneratorBase {
 				"\t\t"+imageOut.getSingleBandName()+" levelIn = input.subimage(0,0,width,height);\n" +
 				"\t\t"+imageIn.getSingleBandName()+" levelOut = output.subimage(0,0,width,height);\n" +
 				"\t\tstorage.reshape(width,height);\n" +
-				"\t\tinverse1(desc,levelIn,levelOut, storage,"+MIN_VALUE+","+MAX_VALUE+");\n" +
+				"\t\tinverse1(desc,levelIn,levelOut, storage,"+MIN_VALUE+","+MAX_VALUE+",concurrent);\n" +
 				"\n" +
 				"\t\tfor( int i = numLevels-1; i >= 1; i-- ) {\n" +
 				"\t\t\t// copy the decoded segment into the input\n" +
@@ -328,7 +408,7 @@ public class GenerateWaveletTransformOps extends CodeGeneratorBase {
 				"\t\t\t}\n" +
 				"\n" +
 				"\t\t\tstorage.reshape(levelIn.width,levelIn.height);\n" +
-				"\t\t\tinverse1(desc,levelIn,levelOut, storage,"+MIN_VALUE+","+MAX_VALUE+");\n" +
+				"\t\t\tinverse1(desc,levelIn,levelOut, storage,"+MIN_VALUE+","+MAX_VALUE+",concurrent);\n" +
 				"\t\t}\n" +
 				"\n" +
 				"\t\tif( minValue != "+MIN_VALUE+" && maxValue != "+MAX_VALUE+" )\n" +
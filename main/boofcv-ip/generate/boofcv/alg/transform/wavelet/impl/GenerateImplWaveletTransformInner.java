@@ -67,6 +67,11 @@ public class GenerateImplWaveletTransformInner extends CodeGeneratorBase {
 				" * </p>\n" +
 				" *\n" +
 				" * <p>\n" +
+				" * Functions which take a range of rows or columns only process that range.  Each row (or column) is processed\n" +
+				" * independently, allowing the work to be split up between threads.\n" +
+				" * </p>\n" +
+				" *\n" +
+				" * <p>\n" +
 				" * DO NOT MODIFY: This class was automatically generated by {@link GenerateImplWaveletTransformInner}\n" +
 				" * </p>\n" +
 				" *\n" +
@@ -102,6 +107,12 @@ public class GenerateImplWaveletTransformInner extends CodeGeneratorBase {
 
 	private void printHorizontal() {
 		out.print("\tpublic static void horizontal( WlCoef_"+genName+" coefficients , "+imageIn.getSingleBandName()+" input , "+imageOut.getSingleBandName()+" output )\n" +
+				"\t{\n" +
+				"\t\thorizontal(coefficients, input, output, 0, input.height);\n" +
+				"\t}\n" +
+				"\n" +
+				"\tpublic static void horizontal( WlCoef_"+genName+" coefficients , "+imageIn.getSingleBandName()+" input , "+imageOut.getSingleBandName()+" output ,\n" +
+				"\t\t\t\t\t\t\t\t  int y0 , int y1 )\n" +
 				"\t{\n" +
 				"\t\tfinal int offsetA = coefficients.offsetScaling;\n" +
 				"\t\tfinal int offsetB = coefficients.offsetWavelet;\n" +
@@ -112,12 +123,11 @@ public class GenerateImplWaveletTransformInner extends CodeGeneratorBase {
 				"\t\tfinal "+imageOut.getDataType()+" dataOut[] = output.data;\n" +
 				"\n" +
 				"\t\tfinal int width = output.width;\n" +
-				"\t\tfinal int height = input.height;\n" +
 				"\t\tfinal int widthD2 = width/2;\n" +
 				"\t\tfinal int startX = UtilWavelet.borderForwardLower(coefficients);\n" +
 				"\t\tfinal int endOffsetX = input.width - UtilWavelet.borderForwardUpper(coefficients,input.width) - startX;\n" +
 				"\n" +
-				"\t\tfor( int y = 0; y < height; y++ ) {\n" +
+				"\t\tfor( int y = y0; y < y1; y++ ) {\n" +
 				"\n" +
 				"\t\t\tint indexIn = input.startIndex + input.stride*y + startX;\n" +
 				"\t\t\tint indexOut = output.startIndex + output.stride*y + startX/2;\n" +
@@ -151,6 +161,12 @@ public class GenerateImplWaveletTransformInner extends CodeGeneratorBase {
 
 	private void printVertical() {
 		out.print("\tpublic static void vertical( WlCoef_"+genName+" coefficients , "+imageIn.getSingleBandName()+" input , "+imageOut.getSingleBandName()+" output )\n" +
+				"\t{\n" +
+				"\t\tvertical(coefficients, input, output, 0, input.width);\n" +
+				"\t}\n" +
+				"\n" +
+				"\tpublic static void vertical( WlCoef_"+genName+" coefficients , "+imageIn.getSingleBandName()+" input , "+imageOut.getSingleBandName()+" output ,\n" +
+				"\t\t\t\t\t\t\t\t  int x0 , int x1 )\n" +
 				"\t{\n" +
 				"\t\tfinal int offsetA = coefficients.offsetScaling*input.stride;\n" +
 				"\t\tfinal int offsetB = coefficients.offsetWavelet*input.stride;\n" +
@@ -160,7 +176,6 @@ public class GenerateImplWaveletTransformInner extends CodeGeneratorBase {
 				"\t\tfinal "+imageIn.getDataType()+" dataIn[] = input.data;\n" +
 				"\t\tfinal "+imageOut.getDataType()+" dataOut[] = output.data;\n" +
 				"\n" +
-				"\t\tfinal int width = input.width;\n" +
 				"\t\tfinal int height = output.height;\n" +
 				"\t\tfinal int heightD2 = (height/2)*output.stride;\n" +
 				"\t\tfinal int startY = UtilWavelet.borderForwardLower(coefficients);\n" +
@@ -168,10 +183,10 @@ public class GenerateImplWaveletTransformInner extends CodeGeneratorBase {
 				"\n" +
 				"\t\tfor( int y = startY; y < endY; y += 2 ) {\n" +
 				"\n" +
-				"\t\t\tint indexIn = input.startIndex + input.stride*y;\n" +
-				"\t\t\tint indexOut = output.startIndex + output.stride*(y/2);\n" +
+				"\t\t\tint indexIn = input.startIndex + input.stride*y + x0;\n" +
+				"\t\t\tint indexOut = output.startIndex + output.stride*(y/2) + x0;\n" +
 				"\n" +
-				"\t\t\tfor( int x = 0; x < width; x++, indexIn++) {\n" +
+				"\t\t\tfor( int x = x0; x < x1; x++, indexIn++) {\n" +
 				"\n" +
 				"\t\t\t\t"+sumType+" scale = 0;\n" +
 				"\t\t\t\tint index = indexIn + offsetA;\n" +
@@ -201,6 +216,12 @@ public class GenerateImplWaveletTransformInner extends CodeGeneratorBase {
 
 	private void printHorizontalInverse() {
 		out.print("\tpublic static void horizontalInverse( WlCoef_"+genName+" coefficients , "+imageIn.getSingleBandName()+" input , "+imageOut.getSingleBandName()+" output )\n" +
+				"\t{\n" +
+				"\t\thorizontalInverse(coefficients, input, output, 0, output.height);\n" +
+				"\t}\n" +
+				"\n" +
+				"\tpublic static void horizontalInverse( WlCoef_"+genName+" coefficients , "+imageIn.getSingleBandName()+" input , "+imageOut.getSingleBandName()+" output ,\n" +
+				"\t\t\t\t\t\t\t\t  int y0 , int y1 )\n" +
 				"\t{\n" +
 				"\t\tfinal int offsetA = coefficients.offsetScaling;\n" +
 				"\t\tfinal int offsetB = coefficients.offsetWavelet;\n" +
@@ -211,7 +232,6 @@ public class GenerateImplWaveletTransformInner extends CodeGeneratorBase {
 				"\t\t"+sumType+" []details = new "+sumType+"[ output.width ];\n" +
 				"\n" +
 				"\t\tfinal int width = input.width;\n" +
-				"\t\tfinal int height = output.height;\n" +
 				"\t\tfinal int widthD2 = width/2;\n" +
 				"\t\tfinal int lowerBorder = UtilWavelet.borderForwardLower(coefficients);\n" +
 				"\t\tfinal int upperBorder = output.width - UtilWavelet.borderForwardUpper(coefficients,output.width);" +
@@ -224,7 +244,7 @@ public class GenerateImplWaveletTransformInner extends CodeGeneratorBase {
 					"\n");
 		}
 
-		out.print("\t\tfor( int y = 0; y < height; y++ ) {\n" +
+		out.print("\t\tfor( int y = y0; y < y1; y++ ) {\n" +
 				"\n" +
 				"\t\t\t// initialize details and trends arrays\n" +
 				"\t\t\tint indexSrc = input.startIndex + y*input.stride+lowerBorder/2;\n" +
@@ -279,6 +299,12 @@ public class GenerateImplWaveletTransformInner extends CodeGeneratorBase {
 
 	private void printVerticalInverse() {
 		out.print("\tpublic static void verticalInverse( WlCoef_"+genName+" coefficients , "+imageIn.getSingleBandName()+" input , "+imageOut.getSingleBandName()+" output )\n" +
+				"\t{\n" +
+				"\t\tverticalInverse(coefficients, input, output, 0, output.width);\n" +
+				"\t}\n" +
+				"\n" +
+				"\tpublic static void verticalInverse( WlCoef_"+genName+" coefficients , "+imageIn.getSingleBandName()+" input , "+imageOut.getSingleBandName()+" output ,\n" +
+				"\t\t\t\t\t\t\t\t  int x0 , int x1 )\n" +
 				"\t{\n" +
 				"\t\tfinal int offsetA = coefficients.offsetScaling;\n" +
 				"\t\tfinal int offsetB = coefficients.offsetWavelet;\n" +
@@ -288,7 +314,6 @@ public class GenerateImplWaveletTransformInner extends CodeGeneratorBase {
 				"\t\t"+sumType+" []trends = new "+sumType+"[ output.height ];\n" +
 				"\t\t"+sumType+" []details = new "+sumType+"[ output.height ];\n" +
 				"\n" +
-				"\t\tfinal int width = output.width;\n" +
 				"\t\tfinal int height = input.height;\n" +
 				"\t\tfinal int heightD2 = (height/2)*input.stride;\n" +
 				"\t\tfinal int lowerBorder = UtilWavelet.borderForwardLower(coefficients);\n" +
@@ -302,7 +327,7 @@ public class GenerateImplWaveletTransformInner extends CodeGeneratorBase {
 					"\t\tfinal int ef2 = ef/2;\n" +
 					"\n");
 		}
-		out.print("\t\tfor( int x = 0; x < width; x++) {\n" +
+		out.print("\t\tfor( int x = x0; x < x1; x++) {\n" +
 				"\n" +
 				"\t\t\tint indexSrc = input.startIndex + (lowerBorder/2)*input.stride + x;\n" +
 				"\t\t\tfor( int y = lowerBorder; y < upperBorder; y += 2 , indexSrc += input.stride ) {\n" +
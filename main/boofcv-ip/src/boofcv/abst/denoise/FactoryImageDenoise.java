@@ -20,10 +20,13 @@ package boofcv.abst.denoise;
 
 import boofcv.abst.transform.wavelet.WaveletTransform;
 import boofcv.alg.denoise.DenoiseWavelet;
+import boofcv.alg.denoise.spatial.DenoiseBilateral_F32;
+import boofcv.alg.denoise.spatial.DenoiseNonLocalMeans_F32;
 import boofcv.core.image.border.BorderType;
 import boofcv.factory.denoise.FactoryDenoiseWaveletAlg;
 import boofcv.factory.transform.wavelet.FactoryWaveletDaub;
 import boofcv.factory.transform.wavelet.FactoryWaveletTransform;
+import boofcv.struct.image.ImageBase;
 import boofcv.struct.image.ImageDataType;
 import boofcv.struct.image.ImageGray;
 import boofcv.struct.image.ImageType;
@@ -100,6 +103,44 @@ public class FactoryImageDenoise {
 		return new WaveletDenoiseFilter<>(descTran, denoiser);
 	}
 
+	/**
+	 * Denoises an image using non-local means.  Supports {@link boofcv.struct.image.GrayU8},
+	 * {@link boofcv.struct.image.GrayF32}, and {@link boofcv.struct.image.Planar} images of those types.
+	 *
+	 * @see DenoiseNonLocalMeans_F32
+	 *
+	 * @param imageType The type of image being processed.
+	 * @param patchRadius Radius of the patch which is compared.  If not sure, try using 2.
+	 * @param searchRadius Radius of the region searched for similar patches.  If not sure, try using 7.
+	 * @param h Filtering parameter.  Should be about the same as the noise's standard deviation.
+	 * @return filter for image noise removal.
+	 */
+	public static <T extends ImageBase<T>> SpatialDenoiseFilter<T>
+	nonLocalMeans( ImageType<T> imageType , int patchRadius , int searchRadius , double h )
+	{
+		DenoiseNonLocalMeans_F32 alg = new DenoiseNonLocalMeans_F32(patchRadius,searchRadius,(float)h);
+		return new SpatialDenoiseFilter<>(alg, imageType);
+	}
+
+	/**
+	 * Denoises an image using a bilateral filter.  Supports {@link boofcv.struct.image.GrayU8},
+	 * {@link boofcv.struct.image.GrayF32}, and {@link boofcv.struct.image.Planar} images of those types.
+	 *
+	 * @see DenoiseBilateral_F32
+	 *
+	 * @param imageType The type of image being processed.
+	 * @param radius Radius of the region which is averaged.
+	 * @param sigmaSpatial Standard deviation of the spatial Gaussian.  If &le; 0 then radius/2 is used.
+	 * @param sigmaRange Standard deviation of the range Gaussian in pixel intensity units.
+	 * @return filter for image noise removal.
+	 */
+	public static <T extends ImageBase<T>> SpatialDenoiseFilter<T>
+	bilateral( ImageType<T> imageType , int radius , double sigmaSpatial , double sigmaRange )
+	{
+		DenoiseBilateral_F32 alg = new DenoiseBilateral_F32(radius,(float)sigmaSpatial,(float)sigmaRange);
+		return new SpatialDenoiseFilter<>(alg, imageType);
+	}
+
 	/**
 	 * Default wavelet transform used for denoising images.
 	 */
@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.abst.denoise;
+
+import boofcv.abst.filter.FilterImageInterface;
+import boofcv.alg.InputSanityCheck;
+import boofcv.alg.denoise.DenoiseSpatial;
+import boofcv.core.image.ConvertImage;
+import boofcv.struct.image.*;
+
+
+/**
+ * <p>
+ * Wrapper around {@link DenoiseSpatial} which lets it process {@link GrayU8}, {@link GrayF32}, and {@link Planar}
+ * images composed of those two types.  Internally all images are processed as {@link GrayF32}.  {@link GrayU8}
+ * images are converted into floating point then rounded to the nearest integer afterwards.  Each band in a
+ * {@link Planar} image is denoised independently.
+ * </p>
+ *
+ * @param <T> Type of image being processed.
+ *
+ * @author Peter Abeles
+ */
+public class SpatialDenoiseFilter<T extends ImageBase<T>> implements FilterImageInterface<T, T> {
+
+	// algorithm used to denoise the image
+	private DenoiseSpatial<GrayF32> alg;
+
+	// type of image it processes
+	private ImageType<T> imageType;
+
+	// storage for converting integer images into floating point
+	private GrayF32 workIn = new GrayF32(1,1);
+	private GrayF32 workOut = new GrayF32(1,1);
+
+	/**
+	 * Specifies the algorithm and type of image
+	 *
+	 * @param alg Algorithm used to remove noise
+	 * @param imageType Type of image being processed
+	 */
+	public SpatialDenoiseFilter( DenoiseSpatial<GrayF32> alg , ImageType<T> imageType ) {
+		if( imageType.getFamily() == ImageType.Family.INTERLEAVED )
+			throw new IllegalArgumentException("Interleaved images are not supported");
+		if( imageType.getDataType() != ImageDataType.U8 && imageType.getDataType() != ImageDataType.F32 )
+			throw new IllegalArgumentException("Only U8 and F32 images are supported");
+
+		this.alg = alg;
+		this.imageType = imageType;
+	}
+
+	@Override
+	public void process( T input , T output ) {
+		InputSanityCheck.checkSameShape(input, output);
+
+		if( input instanceof ImageGray ) {
+			processGray((ImageGray)input, (ImageGray)output);
+		} else {
+			Planar pi = (Planar)input;
+			Planar po = (Planar)output;
+			for (int band = 0; band < pi.getNumBands(); band++) {
+				processGray(pi.getBand(band), po.getBand(band));
+			}
+		}
+	}
+
+	private void processGray( ImageGray input , ImageGray output ) {
+		if( input instanceof GrayF32 ) {
+			alg.process((GrayF32)input, (GrayF32)output);
+		} else {
+			workIn.reshape(input.width, input.height);
+			workOut.reshape(input.width, input.height);
+			ConvertImage.convert((GrayU8)input, workIn);
+			alg.process(workIn, workOut);
+			roundToU8(workOut, (GrayU8)output);
+		}
+	}
+
+	/**
+	 * Converts the floating point image into an integer image by rounding to the nearest integer and
+	 * clamping to the allowed range
+	 */
+	private static void roundToU8( GrayF32 input , GrayU8 output ) {
+		for (int y = 0; y < input.height; y++) {
+			int indexIn = input.startIndex + y*input.stride;
+			int indexOut = output.startIndex + y*output.stride;
+			for (int x = 0; x < input.width; x++) {
+				int value = (int)(input.data[indexIn++] + 0.5f);
+				output.data[indexOut++] = (byte)(value < 0 ? 0 : (value > 255 ? 255 : value));
+			}
+		}
+	}
+
+	/**
+	 * If true then rows are processed using multiple threads.  Results are identical to processing with
+	 * a single thread.
+	 */
+	public void setConcurrent( boolean concurrent ) {
+		alg.setConcurrent(concurrent);
+	}
+
+	public boolean isConcurrent() {
+		return alg.isConcurrent();
+	}
+
+	public DenoiseSpatial<GrayF32> getAlgorithm() {
+		return alg;
+	}
+
+	@Override
+	public int getHorizontalBorder() {
+		return 0;
+	}
+
+	@Override
+	public int getVerticalBorder() {
+		return 0;
+	}
+
+	@Override
+	public ImageType<T> getInputType() {
+		return imageType;
+	}
+
+	@Override
+	public ImageType<T> getOutputType() {
+		return imageType;
+	}
+}
@@ -20,6 +20,7 @@ package boofcv.abst.denoise;
 
 import boofcv.abst.filter.FilterImageInterface;
 import boofcv.abst.transform.wavelet.WaveletTransform;
+import boofcv.alg.InputSanityCheck;
 import boofcv.alg.denoise.DenoiseWavelet;
 import boofcv.alg.transform.wavelet.UtilWavelet;
 import boofcv.struct.image.ImageDimension;
@@ -28,7 +29,16 @@ import boofcv.struct.image.ImageType;
 
 
 /**
+ * <p>
  * Simplifies removing image noise using a wavelet transform.
+ * </p>
+ *
+ * <p>
+ * Large images can be processed in tiles to reduce memory.  Internal buffers are then only as large as a tile
+ * instead of the whole image.  Each tile is extended into its neighbors by the overlap, denoised independently, and
+ * only its center is copied into the output.  Noise statistics are estimated from each tile, so the results
+ * are close to but not the same as when the whole image is processed at once.
+ * </p>
  *
  * @param <T> Type of image being processed.
  *
@@ -46,6 +56,13 @@ public class WaveletDenoiseFilter<T extends ImageGray<T>> implements FilterImage
 	// where the wavelet transform is stored
 	private T transform;
 
+	// if more than zero then the image is processed in square tiles with this width
+	private int tileSize = 0;
+	// how many pixels each tile is extended into its neighbors to hide the seams between tiles
+	private int tileOverlap = 0;
+	// storage for a denoised tile, including the overlap
+	private T tileOutput;
+
 	/**
 	 * Specifies which wavelet and algorithm is used for removing image noise.
 	 *
@@ -60,6 +77,41 @@ public class WaveletDenoiseFilter<T extends ImageGray<T>> implements FilterImage
 
 	@Override
 	public void process(T original, T denoised ) {
+		if( tileSize <= 0 || (original.width <= tileSize && original.height <= tileSize) ) {
+			processImage(original, denoised);
+			return;
+		}
+
+		InputSanityCheck.checkSameShape(original, denoised);
+		if( tileOutput == null )
+			tileOutput = (T)original.createNew(1,1);
+
+		for( int y0 = 0; y0 < original.height; y0 += tileSize ) {
+			int y1 = Math.min(original.height, y0 + tileSize);
+			// the region is kept at full size next to the image border so that small tiles are not created
+			int regionY1 = Math.min(original.height, y1 + tileOverlap);
+			int regionY0 = Math.max(0, Math.min(y0 - tileOverlap, regionY1 - tileSize - 2*tileOverlap));
+
+			for( int x0 = 0; x0 < original.width; x0 += tileSize ) {
+				int x1 = Math.min(original.width, x0 + tileSize);
+				int regionX1 = Math.min(original.width, x1 + tileOverlap);
+				int regionX0 = Math.max(0, Math.min(x0 - tileOverlap, regionX1 - tileSize - 2*tileOverlap));
+
+				T region = original.subimage(regionX0,regionY0,regionX1,regionY1, null);
+				tileOutput.reshape(region.width, region.height);
+				processImage(region, tileOutput);
+
+				// only copy the center of the tile
+				T center = tileOutput.subimage(x0-regionX0,y0-regionY0,x1-regionX0,y1-regionY0, null);
+				denoised.subimage(x0,y0,x1,y1, null).setTo(center);
+			}
+		}
+	}
+
+	/**
+	 * Denoises the entire image at once
+	 */
+	private void processImage(T original, T denoised ) {
 
 		// compute the wavelet transform
 		if( transform != null ) {
@@ -94,4 +146,39 @@ public class WaveletDenoiseFilter<T extends ImageGray<T>> implements FilterImage
 	public ImageType<T> getOutputType() {
 		return ImageType.single(wavelet.getOriginalType());
 	}
+
+	/**
+	 * Configures tiled processing.
+	 *
+	 * @param tileSize Width and height of each tile.  If &le; 0 then the whole image is processed at once.  Must be
+	 *                 large enough for the wavelet transform's number of levels.
+	 * @param tileOverlap Number of pixels each tile is extended into its neighbors to hide seams.
+	 */
+	public void setTiling( int tileSize , int tileOverlap ) {
+		if( tileOverlap < 0 )
+			throw new IllegalArgumentException("Overlap can't be negative");
+		this.tileSize = tileSize;
+		this.tileOverlap = tileOverlap;
+	}
+
+	public int getTileSize() {
+		return tileSize;
+	}
+
+	public int getTileOverlap() {
+		return tileOverlap;
+	}
+
+	/**
+	 * If true then the wavelet transform and denoising are computed using multiple threads.  Results are identical to
+	 * processing with a single thread.
+	 */
+	public void setConcurrent( boolean concurrent ) {
+		wavelet.setConcurrent(concurrent);
+		alg.setConcurrent(concurrent);
+	}
+
+	public boolean isConcurrent() {
+		return wavelet.isConcurrent();
+	}
 }
@@ -97,6 +97,11 @@ public class InterpolatePixel_PL_using_SB<T extends ImageGray<T>>
 		return alg.getFastBorderY();
 	}
 
+	@Override
+	public InterpolatePixelMB<Planar<T>> copy() {
+		return new InterpolatePixel_PL_using_SB<>(alg.copy());
+	}
+
 	@Override
 	public ImageType<Planar<T>> getImageType() {
 		throw new RuntimeException("Image type isn't determined until it processes an image");
@@ -71,4 +71,17 @@ public interface DiscreteFourierTransform<I extends ImageBase<I>, T extends Imag
 	 * @return true for the input can be modified and false for it will not be modified.
 	 */
 	public boolean isModifyInputs();
+
+	/**
+	 * If true then the transform will be computed using multiple threads.  Results are identical to
+	 * processing with a single thread.
+	 *
+	 * @param concurrent true for multiple threads
+	 */
+	public void setConcurrent( boolean concurrent );
+
+	/**
+	 * Returns true if the transform is computed using multiple threads
+	 */
+	public boolean isConcurrent();
 }
@@ -19,6 +19,7 @@
 package boofcv.abst.transform.fft;
 
 import boofcv.alg.transform.fft.DiscreteFourierTransformOps;
+import boofcv.alg.transform.fft.FftPlanCache_F32;
 import boofcv.alg.transform.fft.GeneralPurposeFFT_F32_2D;
 import boofcv.struct.image.GrayF32;
 import boofcv.struct.image.InterleavedF32;
@@ -44,6 +45,28 @@ public class GeneralFft_to_DiscreteFourierTransform_F32
 	// if true then it can modify the input images
 	private boolean modifyInputs = false;
 
+	// if true then the transform is computed using multiple threads
+	private boolean concurrent = false;
+
+	// twiddle tables for each image size are looked up here instead of being recomputed
+	private FftPlanCache_F32 cache;
+
+	/**
+	 * Creates the transform using the specified plan cache
+	 *
+	 * @param cache Source of FFT plans.  Images which share a dimension will share twiddle tables.
+	 */
+	public GeneralFft_to_DiscreteFourierTransform_F32( FftPlanCache_F32 cache ) {
+		this.cache = cache;
+	}
+
+	/**
+	 * Creates the transform using the default plan cache
+	 */
+	public GeneralFft_to_DiscreteFourierTransform_F32() {
+		this(FftPlanCache_F32.getDefault());
+	}
+
 	@Override
 	public void forward(GrayF32 image, InterleavedF32 transform ) {
 		DiscreteFourierTransformOps.checkImageArguments(image,transform);
@@ -93,7 +116,8 @@ public class GeneralFft_to_DiscreteFourierTransform_F32
 		if( prevWidth != image.width || prevHeight != image.height ) {
 			prevWidth = image.width;
 			prevHeight = image.height;
-			alg = new GeneralPurposeFFT_F32_2D(image.height,image.width);
+			alg = new GeneralPurposeFFT_F32_2D(image.height,image.width,cache);
+			alg.setConcurrent(concurrent);
 		}
 	}
 
@@ -106,4 +130,16 @@ public class GeneralFft_to_DiscreteFourierTransform_F32
 	public boolean isModifyInputs() {
 		return modifyInputs;
 	}
+
+	@Override
+	public void setConcurrent(boolean concurrent) {
+		this.concurrent = concurrent;
+		if( alg != null )
+			alg.setConcurrent(concurrent);
+	}
+
+	@Override
+	public boolean isConcurrent() {
+		return concurrent;
+	}
 }
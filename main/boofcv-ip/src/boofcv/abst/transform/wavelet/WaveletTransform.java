@@ -78,4 +78,17 @@ public interface WaveletTransform
 	public WaveletDescription<C> getDescription();
 
 	public Class<O> getOriginalType();
+
+	/**
+	 * If true then the transform and its inverse are computed using multiple threads.  Results are identical to
+	 * processing with a single thread.
+	 *
+	 * @param concurrent true for multiple threads
+	 */
+	public void setConcurrent( boolean concurrent );
+
+	/**
+	 * Returns true if multiple threads are used
+	 */
+	public boolean isConcurrent();
 }
@@ -45,6 +45,9 @@ public class WaveletTransformFloat32 implements WaveletTransform<GrayF32,GrayF32
 	float minPixelValue;
 	float maxPixelValue;
 
+	// if true then the transform is computed using multiple threads
+	boolean concurrent = false;
+
 	public WaveletTransformFloat32(WaveletDescription<WlCoef_F32> desc, int numLevels,
 								   float minPixelValue , float maxPixelValue ) {
 		this.desc = desc;
@@ -64,7 +67,7 @@ public class WaveletTransformFloat32 implements WaveletTransform<GrayF32,GrayF32
 		copy.reshape(original.width,original.height);
 		copy.setTo(original);
 
-		WaveletTransformOps.transformN(desc,copy,transformed,temp,numLevels);
+		WaveletTransformOps.transformN(desc,copy,transformed,temp,numLevels,concurrent);
 
 		return transformed;
 	}
@@ -75,7 +78,7 @@ public class WaveletTransformFloat32 implements WaveletTransform<GrayF32,GrayF32
 		copy.reshape(transformed.width,transformed.height);
 		copy.setTo(transformed);
 
-		WaveletTransformOps.inverseN(desc,copy,original,temp,numLevels,minPixelValue,maxPixelValue);
+		WaveletTransformOps.inverseN(desc,copy,original,temp,numLevels,minPixelValue,maxPixelValue,concurrent);
 	}
 
 	@Override
@@ -97,4 +100,14 @@ public class WaveletTransformFloat32 implements WaveletTransform<GrayF32,GrayF32
 	public Class<GrayF32> getOriginalType() {
 		return GrayF32.class;
 	}
+
+	@Override
+	public void setConcurrent(boolean concurrent) {
+		this.concurrent = concurrent;
+	}
+
+	@Override
+	public boolean isConcurrent() {
+		return concurrent;
+	}
 }
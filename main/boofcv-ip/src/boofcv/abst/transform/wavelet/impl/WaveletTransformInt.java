@@ -60,6 +60,9 @@ public class WaveletTransformInt<T extends GrayI<T>> implements WaveletTransform
 	int minPixelValue;
 	int maxPixelValue;
 
+	// if true then the transform is computed using multiple threads
+	boolean concurrent = false;
+
 	public WaveletTransformInt(WaveletDescription<WlCoef_I32> desc, int numLevels,
 							   int minPixelValue , int maxPixelValue, Class<T> inputType  ) {
 		this.desc = desc;
@@ -84,7 +87,7 @@ public class WaveletTransformInt<T extends GrayI<T>> implements WaveletTransform
 		} else {
 			GConvertImage.convert(original, copyInput);
 		}
-		WaveletTransformOps.transformN(desc, copyInput,transformed,temp,numLevels);
+		WaveletTransformOps.transformN(desc, copyInput,transformed,temp,numLevels,concurrent);
 
 		return transformed;
 	}
@@ -97,10 +100,10 @@ public class WaveletTransformInt<T extends GrayI<T>> implements WaveletTransform
 
 		if( original.getDataType().getDataType() == int.class ) {
 			WaveletTransformOps.
-					inverseN(desc, copyInput, (GrayS32) original, temp, numLevels, minPixelValue, maxPixelValue);
+					inverseN(desc, copyInput, (GrayS32) original, temp, numLevels, minPixelValue, maxPixelValue,concurrent);
 		} else {
 			copyOutput.reshape(original.width,original.height);
-			WaveletTransformOps.inverseN(desc, copyInput, copyOutput,temp,numLevels,minPixelValue,maxPixelValue);
+			WaveletTransformOps.inverseN(desc, copyInput, copyOutput,temp,numLevels,minPixelValue,maxPixelValue,concurrent);
 			GConvertImage.convert(copyOutput,original);
 		}
 	}
@@ -124,4 +127,14 @@ public class WaveletTransformInt<T extends GrayI<T>> implements WaveletTransform
 	public Class<T> getOriginalType() {
 		return inputType;
 	}
+
+	@Override
+	public void setConcurrent(boolean concurrent) {
+		this.concurrent = concurrent;
+	}
+
+	@Override
+	public boolean isConcurrent() {
+		return concurrent;
+	}
 }
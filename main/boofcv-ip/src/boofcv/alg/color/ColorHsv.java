@@ -19,7 +19,11 @@
 package boofcv.alg.color;
 
 import boofcv.alg.InputSanityCheck;
+import boofcv.alg.color.impl.ImplColorHsv;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeConsumer;
 import boofcv.struct.image.GrayF32;
+import boofcv.struct.image.InterleavedF32;
 import boofcv.struct.image.Planar;
 
 /**
@@ -280,65 +284,29 @@ public class ColorHsv {
 	 * @param rgb (Output) Image in RGB format
 	 */
 	public static void hsvToRgb_F32(Planar<GrayF32> hsv , Planar<GrayF32> rgb ) {
+		hsvToRgb_F32(hsv, rgb, false);
+	}
 
-		InputSanityCheck.checkSameShape(hsv, rgb);
-
-		GrayF32 H = hsv.getBand(0);
-		GrayF32 S = hsv.getBand(1);
-		GrayF32 V = hsv.getBand(2);
-
-		GrayF32 R = rgb.getBand(0);
-		GrayF32 G = rgb.getBand(1);
-		GrayF32 B = rgb.getBand(2);
-
-		for( int row = 0; row < hsv.height; row++ ) {
-			int indexHsv = hsv.startIndex + row*hsv.stride;
-			int indexRgb = rgb.startIndex + row*rgb.stride;
+	/**
+	 * Converts an image from HSV into RGB.
+	 *
+	 * @param hsv (Input) Image in HSV format
+	 * @param rgb (Output) Image in RGB format
+	 * @param concurrent If true then rows are split between threads.  Results are identical.
+	 */
+	public static void hsvToRgb_F32(final Planar<GrayF32> hsv , final Planar<GrayF32> rgb , boolean concurrent ) {
 
-			for( int col = 0; col < hsv.width; col++ , indexHsv++ , indexRgb++) {
-				float h = H.data[indexHsv];
-				float s = S.data[indexHsv];
-				float v = V.data[indexHsv];
+		InputSanityCheck.checkSameShape(hsv, rgb);
 
-				if( s == 0 ) {
-					R.data[indexRgb] = v;
-					G.data[indexRgb] = v;
-					B.data[indexRgb] = v;
-					continue;
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, hsv.height, new IntRangeConsumer() {
+				@Override
+				public void accept(int row0, int row1) {
+					ImplColorHsv.hsvToRgb_F32(hsv, rgb, row0, row1);
 				}
-				h /= d60_F32;
-				int h_int = (int)h;
-				float remainder = h - h_int;
-				float p = v * ( 1 - s );
-				float q = v * ( 1 - s * remainder );
-				float t = v * ( 1 - s * ( 1 - remainder ) );
-
-				if( h_int < 1 ) {
-					R.data[indexRgb] = v;
-					G.data[indexRgb] = t;
-					B.data[indexRgb] = p;
-				} else if( h_int < 2 ) {
-					R.data[indexRgb] = q;
-					G.data[indexRgb] = v;
-					B.data[indexRgb] = p;
-				} else if( h_int < 3 ) {
-					R.data[indexRgb] = p;
-					G.data[indexRgb] = v;
-					B.data[indexRgb] = t;
-				} else if( h_int < 4 ) {
-					R.data[indexRgb] = p;
-					G.data[indexRgb] = q;
-					B.data[indexRgb] = v;
-				} else if( h_int < 5 ) {
-					R.data[indexRgb] = t;
-					G.data[indexRgb] = p;
-					B.data[indexRgb] = v;
-				} else {
-					R.data[indexRgb] = v;
-					G.data[indexRgb] = p;
-					B.data[indexRgb] = q;
-				}
-			}
+			});
+		} else {
+			ImplColorHsv.hsvToRgb_F32(hsv, rgb, 0, hsv.height);
 		}
 	}
 
@@ -349,56 +317,64 @@ public class ColorHsv {
 	 * @param hsv (Output) Image in HSV format
 	 */
 	public static void rgbToHsv_F32(Planar<GrayF32> rgb , Planar<GrayF32> hsv ) {
+		rgbToHsv_F32(rgb, hsv, false);
+	}
 
-		InputSanityCheck.checkSameShape(rgb, hsv);
-
-		GrayF32 R = rgb.getBand(0);
-		GrayF32 G = rgb.getBand(1);
-		GrayF32 B = rgb.getBand(2);
-
-		GrayF32 H = hsv.getBand(0);
-		GrayF32 S = hsv.getBand(1);
-		GrayF32 V = hsv.getBand(2);
-
-		for( int row = 0; row < hsv.height; row++ ) {
-			int indexRgb = rgb.startIndex + row*rgb.stride;
-			int indexHsv = hsv.startIndex + row*hsv.stride;
-
-			for( int col = 0; col < hsv.width; col++ , indexHsv++ , indexRgb++) {
-
-				float r = R.data[indexRgb];
-				float g = G.data[indexRgb];
-				float b = B.data[indexRgb];
-
-				float max = r > g ? ( r > b ? r : b) : ( g > b ? g : b );
-				float min = r < g ? ( r < b ? r : b) : ( g < b ? g : b );
-
-				float delta = max - min;
+	/**
+	 * Converts an image from RGB into HSV.  Pixels must have a value within the range of [0,1].
+	 *
+	 * @param rgb (Input) Image in RGB format
+	 * @param hsv (Output) Image in HSV format
+	 * @param concurrent If true then rows are split between threads.  Results are identical.
+	 */
+	public static void rgbToHsv_F32(final Planar<GrayF32> rgb , final Planar<GrayF32> hsv , boolean concurrent ) {
 
-				V.data[indexHsv] = max;
+		InputSanityCheck.checkSameShape(rgb, hsv);
 
-				if( max != 0 )
-					S.data[indexHsv] = delta / max;
-				else {
-					H.data[indexHsv] = Float.NaN;
-					S.data[indexHsv] = 0;
-					continue;
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, hsv.height, new IntRangeConsumer() {
+				@Override
+				public void accept(int row0, int row1) {
+					ImplColorHsv.rgbToHsv_F32(rgb, hsv, row0, row1);
 				}
+			});
+		} else {
+			ImplColorHsv.rgbToHsv_F32(rgb, hsv, 0, hsv.height);
+		}
+	}
 
-				float h;
-				if( r == max )
-					h = ( g - b ) / delta;
-				else if( g == max )
-					h = 2 + ( b - r ) / delta;
-				else
-					h = 4 + ( r - g ) / delta;
+	/**
+	 * Converts an interleaved RGB image into HSV without converting it into a {@link Planar} image first.
+	 *
+	 * @param rgb (Input) Image in RGB format with 3 bands
+	 * @param hsv (Output) Image in HSV format
+	 */
+	public static void rgbToHsv_F32(InterleavedF32 rgb , Planar<GrayF32> hsv ) {
+		rgbToHsv_F32(rgb, hsv, false);
+	}
 
-				h *= d60_F32;
-				if( h < 0 )
-					h += PI2_F32;
+	/**
+	 * Converts an interleaved RGB image into HSV without converting it into a {@link Planar} image first.
+	 *
+	 * @param rgb (Input) Image in RGB format with 3 bands
+	 * @param hsv (Output) Image in HSV format
+	 * @param concurrent If true then rows are split between threads.  Results are identical.
+	 */
+	public static void rgbToHsv_F32(final InterleavedF32 rgb , final Planar<GrayF32> hsv , boolean concurrent ) {
 
-				H.data[indexHsv] = h;
-			}
+		InputSanityCheck.checkSameShape(rgb, hsv);
+		if( rgb.getNumBands() != 3 )
+			throw new IllegalArgumentException("three bands expected");
+
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, hsv.height, new IntRangeConsumer() {
+				@Override
+				public void accept(int row0, int row1) {
+					ImplColorHsv.rgbToHsv_F32(rgb, hsv, row0, row1);
+				}
+			});
+		} else {
+			ImplColorHsv.rgbToHsv_F32(rgb, hsv, 0, hsv.height);
 		}
 	}
 }
@@ -19,8 +19,13 @@
 package boofcv.alg.color;
 
 import boofcv.alg.InputSanityCheck;
+import boofcv.alg.color.impl.ImplColorLab;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeConsumer;
 import boofcv.struct.image.GrayF32;
 import boofcv.struct.image.GrayU8;
+import boofcv.struct.image.InterleavedF32;
+import boofcv.struct.image.InterleavedU8;
 import boofcv.struct.image.Planar;
 
 /**
@@ -36,6 +41,11 @@ import boofcv.struct.image.Planar;
  * </ul>
  * </p>
  *
+ * <p>
+ * Images with 8-bit input are converted using look up tables instead of calling Math.pow() for each pixel and
+ * are much faster to convert than floating point images.
+ * </p>
+ *
  * @author Peter Abeles
  */
 public class ColorLab {
@@ -121,99 +131,145 @@ public class ColorLab {
 	 * @param lab (Output) LAB encoded image. L = channel 0, A = channel 1, B = channel 2
 	 */
 	public static void rgbToLab_U8(Planar<GrayU8> rgb , Planar<GrayF32> lab ) {
+		rgbToLab_U8(rgb, lab, false);
+	}
+
+	/**
+	 * Convert a 3-channel {@link Planar} image from RGB into LAB.  RGB is assumed
+	 * to have a range from 0:255
+	 *
+	 * NOTE: Input and output image can be the same instance.
+	 *
+	 * @param rgb (Input) RGB encoded image
+	 * @param lab (Output) LAB encoded image. L = channel 0, A = channel 1, B = channel 2
+	 * @param concurrent If true then rows are split between threads.  Results are identical.
+	 */
+	public static void rgbToLab_U8(final Planar<GrayU8> rgb , final Planar<GrayF32> lab , boolean concurrent ) {
+
+		InputSanityCheck.checkSameShape(rgb, lab);
+
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, lab.height, new IntRangeConsumer() {
+				@Override
+				public void accept(int row0, int row1) {
+					ImplColorLab.rgbToLab_U8(rgb, lab, row0, row1);
+				}
+			});
+		} else {
+			ImplColorLab.rgbToLab_U8(rgb, lab, 0, lab.height);
+		}
+	}
 
-		InputSanityCheck.checkSameShape(lab, rgb);
-
-		GrayU8 R = rgb.getBand(0);
-		GrayU8 G = rgb.getBand(1);
-		GrayU8 B = rgb.getBand(2);
-
-		GrayF32 L_ = lab.getBand(0);
-		GrayF32 A_ = lab.getBand(1);
-		GrayF32 B_ = lab.getBand(2);
-
-		for( int row = 0; row < lab.height; row++ ) {
-			int indexLab = lab.startIndex + row*lab.stride;
-			int indexRgb = rgb.startIndex + row*rgb.stride;
-
-			for( int col = 0; col < lab.width; col++ , indexLab++ , indexRgb++) {
-				float r = (R.data[indexRgb]&0xFF)/255f;
-				float g = (G.data[indexRgb]&0xFF)/255f;
-				float b = (B.data[indexRgb]&0xFF)/255f;
-
-				float X = 0.412453f*r + 0.35758f*g + 0.180423f*b;
-				float Y = 0.212671f*r + 0.71516f*g + 0.072169f*b;
-				float Z = 0.019334f*r + 0.119193f*g + 0.950227f*b;
-
-				float xr = X/Xr_f;
-				float yr = Y/Yr_f;
-				float zr = Z/Zr_f;
-
-				float fx, fy, fz;
-				if(xr > epsilon_f)	fx = (float)Math.pow(xr, 1.0f/3.0f);
-				else				fx = (kappa_f*xr + 16.0f)/116.0f;
-				if(yr > epsilon_f)	fy = (float)Math.pow(yr, 1.0/3.0f);
-				else				fy = (kappa_f*yr + 16.0f)/116.0f;
-				if(zr > epsilon_f)	fz = (float)Math.pow(zr, 1.0/3.0f);
-				else				fz = (kappa_f*zr + 16.0f)/116.0f;
-
-				L_.data[indexLab] = 116.0f*fy-16.0f;
-				A_.data[indexLab] = 500.0f*(fx-fy);
-				B_.data[indexLab] = 200.0f*(fy-fz);
-			}
+	/**
+	 * Convert an interleaved RGB image into LAB without converting it into a {@link Planar} image first.
+	 * RGB is assumed to have a range from 0:255
+	 *
+	 * @param rgb (Input) RGB encoded image with 3 bands
+	 * @param lab (Output) LAB encoded image. L = channel 0, A = channel 1, B = channel 2
+	 */
+	public static void rgbToLab_U8(InterleavedU8 rgb , Planar<GrayF32> lab ) {
+		rgbToLab_U8(rgb, lab, false);
+	}
+
+	/**
+	 * Convert an interleaved RGB image into LAB without converting it into a {@link Planar} image first.
+	 * RGB is assumed to have a range from 0:255
+	 *
+	 * @param rgb (Input) RGB encoded image with 3 bands
+	 * @param lab (Output) LAB encoded image. L = channel 0, A = channel 1, B = channel 2
+	 * @param concurrent If true then rows are split between threads.  Results are identical.
+	 */
+	public static void rgbToLab_U8(final InterleavedU8 rgb , final Planar<GrayF32> lab , boolean concurrent ) {
+
+		InputSanityCheck.checkSameShape(rgb, lab);
+		if( rgb.getNumBands() != 3 )
+			throw new IllegalArgumentException("three bands expected");
+
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, lab.height, new IntRangeConsumer() {
+				@Override
+				public void accept(int row0, int row1) {
+					ImplColorLab.rgbToLab_U8(rgb, lab, row0, row1);
+				}
+			});
+		} else {
+			ImplColorLab.rgbToLab_U8(rgb, lab, 0, lab.height);
 		}
 	}
 
 	/**
-	 * <p>Convert a 3-channel {@link Planar} image from RGB into LAB.  RGB is assumed
-	 * to have a range from 0:255</p>
+	 * Convert a 3-channel {@link Planar} image from RGB into LAB.  RGB is assumed
+	 * to have a range from 0:255
 	 *
 	 * NOTE: Input and output image can be the same instance.
 	 *
 	 * @param rgb (Input) RGB encoded image
-	 * @param lab (Output) LAB encoded image.  L = channel 0, A = channel 1, B = channel 2
+	 * @param lab (Output) LAB encoded image. L = channel 0, A = channel 1, B = channel 2
 	 */
 	public static void rgbToLab_F32(Planar<GrayF32> rgb , Planar<GrayF32> lab ) {
+		rgbToLab_F32(rgb, lab, false);
+	}
+
+	/**
+	 * Convert a 3-channel {@link Planar} image from RGB into LAB.  RGB is assumed
+	 * to have a range from 0:255
+	 *
+	 * NOTE: Input and output image can be the same instance.
+	 *
+	 * @param rgb (Input) RGB encoded image
+	 * @param lab (Output) LAB encoded image. L = channel 0, A = channel 1, B = channel 2
+	 * @param concurrent If true then rows are split between threads.  Results are identical.
+	 */
+	public static void rgbToLab_F32(final Planar<GrayF32> rgb , final Planar<GrayF32> lab , boolean concurrent ) {
+
+		InputSanityCheck.checkSameShape(rgb, lab);
+
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, lab.height, new IntRangeConsumer() {
+				@Override
+				public void accept(int row0, int row1) {
+					ImplColorLab.rgbToLab_F32(rgb, lab, row0, row1);
+				}
+			});
+		} else {
+			ImplColorLab.rgbToLab_F32(rgb, lab, 0, lab.height);
+		}
+	}
 
-		InputSanityCheck.checkSameShape(lab, rgb);
-
-		GrayF32 R = rgb.getBand(0);
-		GrayF32 G = rgb.getBand(1);
-		GrayF32 B = rgb.getBand(2);
-
-		GrayF32 L_ = lab.getBand(0);
-		GrayF32 A_ = lab.getBand(1);
-		GrayF32 B_ = lab.getBand(2);
-
-		for( int row = 0; row < lab.height; row++ ) {
-			int indexLab = lab.startIndex + row*lab.stride;
-			int indexRgb = rgb.startIndex + row*rgb.stride;
-
-			for( int col = 0; col < lab.width; col++ , indexLab++ , indexRgb++) {
-				float r = R.data[indexRgb]/255f;
-				float g = G.data[indexRgb]/255f;
-				float b = B.data[indexRgb]/255f;
-
-				float X = 0.412453f*r + 0.35758f*g + 0.180423f*b;
-				float Y = 0.212671f*r + 0.71516f*g + 0.072169f*b;
-				float Z = 0.019334f*r + 0.119193f*g + 0.950227f*b;
-
-				float xr = X/Xr_f;
-				float yr = Y/Yr_f;
-				float zr = Z/Zr_f;
-
-				float fx, fy, fz;
-				if(xr > epsilon_f)	fx = (float)Math.pow(xr, 1.0f/3.0f);
-				else				fx = (kappa_f*xr + 16.0f)/116.0f;
-				if(yr > epsilon_f)	fy = (float)Math.pow(yr, 1.0/3.0f);
-				else				fy = (kappa_f*yr + 16.0f)/116.0f;
-				if(zr > epsilon_f)	fz = (float)Math.pow(zr, 1.0/3.0f);
-				else				fz = (kappa_f*zr + 16.0f)/116.0f;
-
-				L_.data[indexLab] = 116.0f*fy-16.0f;
-				A_.data[indexLab] = 500.0f*(fx-fy);
-				B_.data[indexLab] = 200.0f*(fy-fz);
-			}
+	/**
+	 * Convert an interleaved RGB image into LAB without converting it into a {@link Planar} image first.
+	 * RGB is assumed to have a range from 0:255
+	 *
+	 * @param rgb (Input) RGB encoded image with 3 bands
+	 * @param lab (Output) LAB encoded image. L = channel 0, A = channel 1, B = channel 2
+	 */
+	public static void rgbToLab_F32(InterleavedF32 rgb , Planar<GrayF32> lab ) {
+		rgbToLab_F32(rgb, lab, false);
+	}
+
+	/**
+	 * Convert an interleaved RGB image into LAB without converting it into a {@link Planar} image first.
+	 * RGB is assumed to have a range from 0:255
+	 *
+	 * @param rgb (Input) RGB encoded image with 3 bands
+	 * @param lab (Output) LAB encoded image. L = channel 0, A = channel 1, B = channel 2
+	 * @param concurrent If true then rows are split between threads.  Results are identical.
+	 */
+	public static void rgbToLab_F32(final InterleavedF32 rgb , final Planar<GrayF32> lab , boolean concurrent ) {
+
+		InputSanityCheck.checkSameShape(rgb, lab);
+		if( rgb.getNumBands() != 3 )
+			throw new IllegalArgumentException("three bands expected");
+
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, lab.height, new IntRangeConsumer() {
+				@Override
+				public void accept(int row0, int row1) {
+					ImplColorLab.rgbToLab_F32(rgb, lab, row0, row1);
+				}
+			});
+		} else {
+			ImplColorLab.rgbToLab_F32(rgb, lab, 0, lab.height);
 		}
 	}
 }
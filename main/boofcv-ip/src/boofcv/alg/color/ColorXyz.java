@@ -19,8 +19,13 @@
 package boofcv.alg.color;
 
 import boofcv.alg.InputSanityCheck;
+import boofcv.alg.color.impl.ImplColorXyz;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeConsumer;
 import boofcv.struct.image.GrayF32;
 import boofcv.struct.image.GrayU8;
+import boofcv.struct.image.InterleavedF32;
+import boofcv.struct.image.InterleavedU8;
 import boofcv.struct.image.Planar;
 
 /**
@@ -107,30 +112,69 @@ public class ColorXyz {
 	 * @param xyz (Output) XYZ encoded image
 	 */
 	public static void rgbToXyz_F32(Planar<GrayF32> rgb , Planar<GrayF32> xyz ) {
+		rgbToXyz_F32(rgb, xyz, false);
+	}
+
+	/**
+	 * Convert a 3-channel {@link Planar} image from RGB into XYZ.  RGB is assumed
+	 * to have a range from 0:255
+	 *
+	 * NOTE: Input and output image can be the same instance.
+	 *
+	 * @param rgb (Input) RGB encoded image
+	 * @param xyz (Output) XYZ encoded image
+	 * @param concurrent If true then rows are split between threads.  Results are identical.
+	 */
+	public static void rgbToXyz_F32(final Planar<GrayF32> rgb , final Planar<GrayF32> xyz , boolean concurrent ) {
 
-		InputSanityCheck.checkSameShape(xyz, rgb);
+		InputSanityCheck.checkSameShape(rgb, xyz);
 
-		GrayF32 R = rgb.getBand(0);
-		GrayF32 G = rgb.getBand(1);
-		GrayF32 B = rgb.getBand(2);
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, xyz.height, new IntRangeConsumer() {
+				@Override
+				public void accept(int row0, int row1) {
+					ImplColorXyz.rgbToXyz_F32(rgb, xyz, row0, row1);
+				}
+			});
+		} else {
+			ImplColorXyz.rgbToXyz_F32(rgb, xyz, 0, xyz.height);
+		}
+	}
 
-		GrayF32 X = xyz.getBand(0);
-		GrayF32 Y = xyz.getBand(1);
-		GrayF32 Z = xyz.getBand(2);
+	/**
+	 * Convert an interleaved RGB image into XYZ without converting it into a {@link Planar} image first.
+	 * RGB is assumed to have a range from 0:255
+	 *
+	 * @param rgb (Input) RGB encoded image with 3 bands
+	 * @param xyz (Output) XYZ encoded image
+	 */
+	public static void rgbToXyz_F32(InterleavedF32 rgb , Planar<GrayF32> xyz ) {
+		rgbToXyz_F32(rgb, xyz, false);
+	}
 
-		for( int row = 0; row < xyz.height; row++ ) {
-			int indexXyz = xyz.startIndex + row*xyz.stride;
-			int indexRgb = rgb.startIndex + row*rgb.stride;
+	/**
+	 * Convert an interleaved RGB image into XYZ without converting it into a {@link Planar} image first.
+	 * RGB is assumed to have a range from 0:255
+	 *
+	 * @param rgb (Input) RGB encoded image with 3 bands
+	 * @param xyz (Output) XYZ encoded image
+	 * @param concurrent If true then rows are split between threads.  Results are identical.
+	 */
+	public static void rgbToXyz_F32(final InterleavedF32 rgb , final Planar<GrayF32> xyz , boolean concurrent ) {
 
-			for( int col = 0; col < xyz.width; col++ , indexXyz++ , indexRgb++) {
-				float r = R.data[indexRgb]/255f;
-				float g = G.data[indexRgb]/255f;
-				float b = B.data[indexRgb]/255f;
+		InputSanityCheck.checkSameShape(rgb, xyz);
+		if( rgb.getNumBands() != 3 )
+			throw new IllegalArgumentException("three bands expected");
 
-				X.data[indexXyz] = 0.412453f*r + 0.35758f*g + 0.180423f*b;
-				Y.data[indexXyz] = 0.212671f*r + 0.71516f*g + 0.072169f*b;
-				Z.data[indexXyz] = 0.019334f*r + 0.119193f*g + 0.950227f*b;
-			}
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, xyz.height, new IntRangeConsumer() {
+				@Override
+				public void accept(int row0, int row1) {
+					ImplColorXyz.rgbToXyz_F32(rgb, xyz, row0, row1);
+				}
+			});
+		} else {
+			ImplColorXyz.rgbToXyz_F32(rgb, xyz, 0, xyz.height);
 		}
 	}
 
@@ -144,30 +188,69 @@ public class ColorXyz {
 	 * @param xyz (Output) XYZ encoded image
 	 */
 	public static void rgbToXyz_U8(Planar<GrayU8> rgb , Planar<GrayF32> xyz ) {
+		rgbToXyz_U8(rgb, xyz, false);
+	}
+
+	/**
+	 * Convert a 3-channel {@link Planar} image from RGB into XYZ.  RGB is assumed
+	 * to have a range from 0:255
+	 *
+	 * NOTE: Input and output image can be the same instance.
+	 *
+	 * @param rgb (Input) RGB encoded image
+	 * @param xyz (Output) XYZ encoded image
+	 * @param concurrent If true then rows are split between threads.  Results are identical.
+	 */
+	public static void rgbToXyz_U8(final Planar<GrayU8> rgb , final Planar<GrayF32> xyz , boolean concurrent ) {
 
-		InputSanityCheck.checkSameShape(xyz, rgb);
+		InputSanityCheck.checkSameShape(rgb, xyz);
 
-		GrayU8 R = rgb.getBand(0);
-		GrayU8 G = rgb.getBand(1);
-		GrayU8 B = rgb.getBand(2);
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, xyz.height, new IntRangeConsumer() {
+				@Override
+				public void accept(int row0, int row1) {
+					ImplColorXyz.rgbToXyz_U8(rgb, xyz, row0, row1);
+				}
+			});
+		} else {
+			ImplColorXyz.rgbToXyz_U8(rgb, xyz, 0, xyz.height);
+		}
+	}
 
-		GrayF32 X = xyz.getBand(0);
-		GrayF32 Y = xyz.getBand(1);
-		GrayF32 Z = xyz.getBand(2);
+	/**
+	 * Convert an interleaved RGB image into XYZ without converting it into a {@link Planar} image first.
+	 * RGB is assumed to have a range from 0:255
+	 *
+	 * @param rgb (Input) RGB encoded image with 3 bands
+	 * @param xyz (Output) XYZ encoded image
+	 */
+	public static void rgbToXyz_U8(InterleavedU8 rgb , Planar<GrayF32> xyz ) {
+		rgbToXyz_U8(rgb, xyz, false);
+	}
 
-		for( int row = 0; row < xyz.height; row++ ) {
-			int indexXyz = xyz.startIndex + row*xyz.stride;
-			int indexRgb = rgb.startIndex + row*rgb.stride;
+	/**
+	 * Convert an interleaved RGB image into XYZ without converting it into a {@link Planar} image first.
+	 * RGB is assumed to have a range from 0:255
+	 *
+	 * @param rgb (Input) RGB encoded image with 3 bands
+	 * @param xyz (Output) XYZ encoded image
+	 * @param concurrent If true then rows are split between threads.  Results are identical.
+	 */
+	public static void rgbToXyz_U8(final InterleavedU8 rgb , final Planar<GrayF32> xyz , boolean concurrent ) {
 
-			for( int col = 0; col < xyz.width; col++ , indexXyz++ , indexRgb++) {
-				float r = (R.data[indexRgb]&0xFF)/255f;
-				float g = (G.data[indexRgb]&0xFF)/255f;
-				float b = (B.data[indexRgb]&0xFF)/255f;
+		InputSanityCheck.checkSameShape(rgb, xyz);
+		if( rgb.getNumBands() != 3 )
+			throw new IllegalArgumentException("three bands expected");
 
-				X.data[indexXyz] = 0.412453f*r + 0.35758f*g + 0.180423f*b;
-				Y.data[indexXyz] = 0.212671f*r + 0.71516f*g + 0.072169f*b;
-				Z.data[indexXyz] = 0.019334f*r + 0.119193f*g + 0.950227f*b;
-			}
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, xyz.height, new IntRangeConsumer() {
+				@Override
+				public void accept(int row0, int row1) {
+					ImplColorXyz.rgbToXyz_U8(rgb, xyz, row0, row1);
+				}
+			});
+		} else {
+			ImplColorXyz.rgbToXyz_U8(rgb, xyz, 0, xyz.height);
 		}
 	}
 }
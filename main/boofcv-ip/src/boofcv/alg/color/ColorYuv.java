@@ -19,8 +19,12 @@
 package boofcv.alg.color;
 
 import boofcv.alg.InputSanityCheck;
+import boofcv.alg.color.impl.ImplColorYuv;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeConsumer;
 import boofcv.struct.image.GrayF32;
 import boofcv.struct.image.GrayU8;
+import boofcv.struct.image.InterleavedF32;
 import boofcv.struct.image.Planar;
 
 /**
@@ -138,34 +142,33 @@ public class ColorYuv {
 	/**
 	 * Convert a 3-channel {@link Planar} image from YUV into RGB.
 	 *
-	 * @param rgb (Input) RGB encoded image
-	 * @param yuv (Output) YUV encoded image
+	 * @param yuv (Input) YUV encoded image
+	 * @param rgb (Output) RGB encoded image
 	 */
 	public static void yuvToRgb_F32(Planar<GrayF32> yuv , Planar<GrayF32> rgb ) {
+		yuvToRgb_F32(yuv, rgb, false);
+	}
 
-		InputSanityCheck.checkSameShape(yuv,rgb);
-
-		GrayF32 Y = yuv.getBand(0);
-		GrayF32 U = yuv.getBand(1);
-		GrayF32 V = yuv.getBand(2);
-
-		GrayF32 R = rgb.getBand(0);
-		GrayF32 G = rgb.getBand(1);
-		GrayF32 B = rgb.getBand(2);
-
-		for( int row = 0; row < yuv.height; row++ ) {
-			int indexYuv = yuv.startIndex + row*yuv.stride;
-			int indexRgb = rgb.startIndex + row*rgb.stride;
-
-			for( int col = 0; col < yuv.width; col++ , indexYuv++ , indexRgb++) {
-				float y = Y.data[indexYuv];
-				float u = U.data[indexYuv];
-				float v = V.data[indexYuv];
-
-				R.data[indexRgb] = y + 1.13983f*v;
-				G.data[indexRgb] = y - 0.39465f*u - 0.58060f*v;
-				B.data[indexRgb] = y + 2.032f*u;
-			}
+	/**
+	 * Convert a 3-channel {@link Planar} image from YUV into RGB.
+	 *
+	 * @param yuv (Input) YUV encoded image
+	 * @param rgb (Output) RGB encoded image
+	 * @param concurrent If true then rows are split between threads.  Results are identical.
+	 */
+	public static void yuvToRgb_F32(final Planar<GrayF32> yuv , final Planar<GrayF32> rgb , boolean concurrent ) {
+
+		InputSanityCheck.checkSameShape(yuv, rgb);
+
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, rgb.height, new IntRangeConsumer() {
+				@Override
+				public void accept(int row0, int row1) {
+					ImplColorYuv.yuvToRgb_F32(yuv, rgb, row0, row1);
+				}
+			});
+		} else {
+			ImplColorYuv.yuvToRgb_F32(yuv, rgb, 0, rgb.height);
 		}
 	}
 
@@ -178,32 +181,66 @@ public class ColorYuv {
 	 * @param yuv (Output) YUV encoded image
 	 */
 	public static void rgbToYuv_F32(Planar<GrayF32> rgb , Planar<GrayF32> yuv ) {
+		rgbToYuv_F32(rgb, yuv, false);
+	}
 
-		InputSanityCheck.checkSameShape(yuv,rgb);
-
-		GrayF32 R = rgb.getBand(0);
-		GrayF32 G = rgb.getBand(1);
-		GrayF32 B = rgb.getBand(2);
-
-		GrayF32 Y = yuv.getBand(0);
-		GrayF32 U = yuv.getBand(1);
-		GrayF32 V = yuv.getBand(2);
-
-		for( int row = 0; row < yuv.height; row++ ) {
-			int indexYuv = yuv.startIndex + row*yuv.stride;
-			int indexRgb = rgb.startIndex + row*rgb.stride;
-
-			for( int col = 0; col < yuv.width; col++ , indexYuv++ , indexRgb++) {
-				float r = R.data[indexRgb];
-				float g = G.data[indexRgb];
-				float b = B.data[indexRgb];
+	/**
+	 * Convert a 3-channel {@link Planar} image from RGB into YUV.
+	 *
+	 * NOTE: Input and output image can be the same instance.
+	 *
+	 * @param rgb (Input) RGB encoded image
+	 * @param yuv (Output) YUV encoded image
+	 * @param concurrent If true then rows are split between threads.  Results are identical.
+	 */
+	public static void rgbToYuv_F32(final Planar<GrayF32> rgb , final Planar<GrayF32> yuv , boolean concurrent ) {
+
+		InputSanityCheck.checkSameShape(rgb, yuv);
+
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, yuv.height, new IntRangeConsumer() {
+				@Override
+				public void accept(int row0, int row1) {
+					ImplColorYuv.rgbToYuv_F32(rgb, yuv, row0, row1);
+				}
+			});
+		} else {
+			ImplColorYuv.rgbToYuv_F32(rgb, yuv, 0, yuv.height);
+		}
+	}
 
-				float y = 0.299f*r + 0.587f*g + 0.114f*b;
+	/**
+	 * Convert an interleaved RGB image into YUV without converting it into a {@link Planar} image first.
+	 *
+	 * @param rgb (Input) RGB encoded image with 3 bands
+	 * @param yuv (Output) YUV encoded image
+	 */
+	public static void rgbToYuv_F32(InterleavedF32 rgb , Planar<GrayF32> yuv ) {
+		rgbToYuv_F32(rgb, yuv, false);
+	}
 
-				Y.data[indexYuv] = y;
-				U.data[indexYuv] = 0.492f*(b-y);
-				V.data[indexYuv] = 0.877f*(r-y);
-			}
+	/**
+	 * Convert an interleaved RGB image into YUV without converting it into a {@link Planar} image first.
+	 *
+	 * @param rgb (Input) RGB encoded image with 3 bands
+	 * @param yuv (Output) YUV encoded image
+	 * @param concurrent If true then rows are split between threads.  Results are identical.
+	 */
+	public static void rgbToYuv_F32(final InterleavedF32 rgb , final Planar<GrayF32> yuv , boolean concurrent ) {
+
+		InputSanityCheck.checkSameShape(rgb, yuv);
+		if( rgb.getNumBands() != 3 )
+			throw new IllegalArgumentException("three bands expected");
+
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, yuv.height, new IntRangeConsumer() {
+				@Override
+				public void accept(int row0, int row1) {
+					ImplColorYuv.rgbToYuv_F32(rgb, yuv, row0, row1);
+				}
+			});
+		} else {
+			ImplColorYuv.rgbToYuv_F32(rgb, yuv, 0, yuv.height);
 		}
 	}
 
@@ -216,42 +253,31 @@ public class ColorYuv {
 	 * @param rgb RGB encoded 8-bit image
 	 */
 	public static void ycbcrToRgb_U8(Planar<GrayU8> yuv , Planar<GrayU8> rgb ) {
+		ycbcrToRgb_U8(yuv, rgb, false);
+	}
 
-		GrayU8 Y = yuv.getBand(0);
-		GrayU8 U = yuv.getBand(1);
-		GrayU8 V = yuv.getBand(2);
-
-		GrayU8 R = rgb.getBand(0);
-		GrayU8 G = rgb.getBand(1);
-		GrayU8 B = rgb.getBand(2);
-
-		for( int row = 0; row < yuv.height; row++ ) {
-			int indexYuv = yuv.startIndex + row*yuv.stride;
-			int indexRgb = rgb.startIndex + row*rgb.stride;
-
-			for( int col = 0; col < yuv.width; col++ , indexYuv++ , indexRgb++) {
-				int y = 1191*((Y.data[indexYuv]&0xFF) - 16);
-				int cb = (U.data[indexYuv]&0xFF) - 128;
-				int cr = (V.data[indexYuv]&0xFF) - 128;
-
-				if( y < 0 ) y = 0;
-
-				int r = (y + 1836*cr) >> 10;
-				int g = (y - 547*cr - 218*cb) >> 10;
-				int b = (y + 2165*cb) >> 10;
-
-				if( r < 0 ) r = 0;
-				else if( r > 255 ) r = 255;
-				if( g < 0 ) g = 0;
-				else if( g > 255 ) g = 255;
-				if( b < 0 ) b = 0;
-				else if( b > 255 ) b = 255;
-
-				R.data[indexRgb] = (byte)r;
-				G.data[indexRgb] = (byte)g;
-				B.data[indexRgb] = (byte)b;
-			}
+	/**
+	 * Conversion from YCbCr to RGB.
+	 *
+	 * NOTE: Input and output image can be the same instance.
+	 *
+	 * @param yuv YCbCr encoded 8-bit image
+	 * @param rgb RGB encoded 8-bit image
+	 * @param concurrent If true then rows are split between threads.  Results are identical.
+	 */
+	public static void ycbcrToRgb_U8(final Planar<GrayU8> yuv , final Planar<GrayU8> rgb , boolean concurrent ) {
+
+		InputSanityCheck.checkSameShape(yuv, rgb);
+
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, rgb.height, new IntRangeConsumer() {
+				@Override
+				public void accept(int row0, int row1) {
+					ImplColorYuv.ycbcrToRgb_U8(yuv, rgb, row0, row1);
+				}
+			});
+		} else {
+			ImplColorYuv.ycbcrToRgb_U8(yuv, rgb, 0, rgb.height);
 		}
 	}
-
 }
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.color.impl;
+
+import boofcv.struct.image.GrayF32;
+import boofcv.struct.image.InterleavedF32;
+import boofcv.struct.image.Planar;
+
+import static boofcv.alg.color.ColorHsv.PI2_F32;
+import static boofcv.alg.color.ColorHsv.d60_F32;
+
+/**
+ * <p>
+ * Implementation of functions in {@link boofcv.alg.color.ColorHsv} which process a range of rows.  Input checks
+ * are done by the caller.  Each row is computed independently, allowing rows to be split between threads.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class ImplColorHsv {
+
+	public static void hsvToRgb_F32(Planar<GrayF32> hsv , Planar<GrayF32> rgb , int row0 , int row1 ) {
+
+		GrayF32 H = hsv.getBand(0);
+		GrayF32 S = hsv.getBand(1);
+		GrayF32 V = hsv.getBand(2);
+
+		GrayF32 R = rgb.getBand(0);
+		GrayF32 G = rgb.getBand(1);
+		GrayF32 B = rgb.getBand(2);
+
+		for( int row = row0; row < row1; row++ ) {
+			int indexHsv = hsv.startIndex + row*hsv.stride;
+			int indexRgb = rgb.startIndex + row*rgb.stride;
+
+			for( int col = 0; col < hsv.width; col++ , indexHsv++ , indexRgb++) {
+				float h = H.data[indexHsv];
+				float s = S.data[indexHsv];
+				float v = V.data[indexHsv];
+
+				if( s == 0 ) {
+					R.data[indexRgb] = v;
+					G.data[indexRgb] = v;
+					B.data[indexRgb] = v;
+					continue;
+				}
+				h /= d60_F32;
+				int h_int = (int)h;
+				float remainder = h - h_int;
+				float p = v * ( 1 - s );
+				float q = v * ( 1 - s * remainder );
+				float t = v * ( 1 - s * ( 1 - remainder ) );
+
+				if( h_int < 1 ) {
+					R.data[indexRgb] = v;
+					G.data[indexRgb] = t;
+					B.data[indexRgb] = p;
+				} else if( h_int < 2 ) {
+					R.data[indexRgb] = q;
+					G.data[indexRgb] = v;
+					B.data[indexRgb] = p;
+				} else if( h_int < 3 ) {
+					R.data[indexRgb] = p;
+					G.data[indexRgb] = v;
+					B.data[indexRgb] = t;
+				} else if( h_int < 4 ) {
+					R.data[indexRgb] = p;
+					G.data[indexRgb] = q;
+					B.data[indexRgb] = v;
+				} else if( h_int < 5 ) {
+					R.data[indexRgb] = t;
+					G.data[indexRgb] = p;
+					B.data[indexRgb] = v;
+				} else {
+					R.data[indexRgb] = v;
+					G.data[indexRgb] = p;
+					B.data[indexRgb] = q;
+				}
+			}
+		}
+	}
+
+	public static void rgbToHsv_F32(Planar<GrayF32> rgb , Planar<GrayF32> hsv , int row0 , int row1 ) {
+
+		GrayF32 R = rgb.getBand(0);
+		GrayF32 G = rgb.getBand(1);
+		GrayF32 B = rgb.getBand(2);
+
+		GrayF32 H = hsv.getBand(0);
+		GrayF32 S = hsv.getBand(1);
+		GrayF32 V = hsv.getBand(2);
+
+		for( int row = row0; row < row1; row++ ) {
+			int indexRgb = rgb.startIndex + row*rgb.stride;
+			int indexHsv = hsv.startIndex + row*hsv.stride;
+
+			for( int col = 0; col < hsv.width; col++ , indexHsv++ , indexRgb++) {
+				rgbToHsv(R.data[indexRgb],G.data[indexRgb],B.data[indexRgb],H.data,S.data,V.data,indexHsv);
+			}
+		}
+	}
+
+	public static void rgbToHsv_F32(InterleavedF32 rgb , Planar<GrayF32> hsv , int row0 , int row1 ) {
+
+		GrayF32 H = hsv.getBand(0);
+		GrayF32 S = hsv.getBand(1);
+		GrayF32 V = hsv.getBand(2);
+
+		for( int row = row0; row < row1; row++ ) {
+			int indexRgb = rgb.startIndex + row*rgb.stride;
+			int indexHsv = hsv.startIndex + row*hsv.stride;
+
+			for( int col = 0; col < hsv.width; col++ , indexHsv++ , indexRgb += 3) {
+				rgbToHsv(rgb.data[indexRgb],rgb.data[indexRgb+1],rgb.data[indexRgb+2],H.data,S.data,V.data,indexHsv);
+			}
+		}
+	}
+
+	/**
+	 * Converts a single pixel and writes the results directly into the output bands.  Small enough to be inlined.
+	 */
+	private static void rgbToHsv( float r , float g , float b ,
+								  float[] H , float[] S , float[] V , int indexHsv ) {
+		float max = r > g ? ( r > b ? r : b) : ( g > b ? g : b );
+		float min = r < g ? ( r < b ? r : b) : ( g < b ? g : b );
+
+		float delta = max - min;
+
+		V[indexHsv] = max;
+
+		if( max != 0 )
+			S[indexHsv] = delta / max;
+		else {
+			H[indexHsv] = Float.NaN;
+			S[indexHsv] = 0;
+			return;
+		}
+
+		float h;
+		if( r == max )
+			h = ( g - b ) / delta;
+		else if( g == max )
+			h = 2 + ( b - r ) / delta;
+		else
+			h = 4 + ( r - g ) / delta;
+
+		h *= d60_F32;
+		if( h < 0 )
+			h += PI2_F32;
+
+		H[indexHsv] = h;
+	}
+}
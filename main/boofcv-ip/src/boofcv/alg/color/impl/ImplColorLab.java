@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.color.impl;
+
+import boofcv.struct.image.GrayF32;
+import boofcv.struct.image.GrayU8;
+import boofcv.struct.image.InterleavedF32;
+import boofcv.struct.image.InterleavedU8;
+import boofcv.struct.image.Planar;
+
+import static boofcv.alg.color.ColorLab.*;
+import static boofcv.alg.color.impl.ImplColorXyz.*;
+
+/**
+ * <p>
+ * Implementation of functions in {@link boofcv.alg.color.ColorLab} which process a range of rows.  Input checks
+ * are done by the caller.  Each row is computed independently, allowing rows to be split between threads.
+ * </p>
+ *
+ * <p>
+ * 8-bit input avoids calling Math.pow() for every pixel.  XYZ is found using the tables in {@link ImplColorXyz}
+ * and the cube root is interpolated from a table then refined with one iteration of Newton's method.  The
+ * difference from the floating point equations is at the level of round off error.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class ImplColorLab {
+
+	// number of elements in the cube root table for each unit.  Normalized XYZ values are in the range [0,1]
+	static final int TABLE_SIZE = 2048;
+	// the extra element allows for round off error pushing the value slightly above 1
+	static final float[] cubeRoot = new float[TABLE_SIZE+2];
+
+	static {
+		for (int i = 0; i < cubeRoot.length; i++) {
+			cubeRoot[i] = (float)Math.cbrt(i/(double)TABLE_SIZE);
+		}
+	}
+
+	public static void rgbToLab_U8(Planar<GrayU8> rgb , Planar<GrayF32> lab , int row0 , int row1 ) {
+
+		GrayU8 R = rgb.getBand(0);
+		GrayU8 G = rgb.getBand(1);
+		GrayU8 B = rgb.getBand(2);
+
+		GrayF32 L_ = lab.getBand(0);
+		GrayF32 A_ = lab.getBand(1);
+		GrayF32 B_ = lab.getBand(2);
+
+		for( int row = row0; row < row1; row++ ) {
+			int indexLab = lab.startIndex + row*lab.stride;
+			int indexRgb = rgb.startIndex + row*rgb.stride;
+
+			for( int col = 0; col < lab.width; col++ , indexLab++ , indexRgb++) {
+				int r = R.data[indexRgb]&0xFF;
+				int g = G.data[indexRgb]&0xFF;
+				int b = B.data[indexRgb]&0xFF;
+
+				float fx = labF((X_R[r] + X_G[g] + X_B[b])/Xr_f);
+				float fy = labF((Y_R[r] + Y_G[g] + Y_B[b])/Yr_f);
+				float fz = labF((Z_R[r] + Z_G[g] + Z_B[b])/Zr_f);
+
+				L_.data[indexLab] = 116.0f*fy-16.0f;
+				A_.data[indexLab] = 500.0f*(fx-fy);
+				B_.data[indexLab] = 200.0f*(fy-fz);
+			}
+		}
+	}
+
+	public static void rgbToLab_U8(InterleavedU8 rgb , Planar<GrayF32> lab , int row0 , int row1 ) {
+
+		GrayF32 L_ = lab.getBand(0);
+		GrayF32 A_ = lab.getBand(1);
+		GrayF32 B_ = lab.getBand(2);
+
+		for( int row = row0; row < row1; row++ ) {
+			int indexLab = lab.startIndex + row*lab.stride;
+			int indexRgb = rgb.startIndex + row*rgb.stride;
+
+			for( int col = 0; col < lab.width; col++ , indexLab++ , indexRgb += 3) {
+				int r = rgb.data[indexRgb]&0xFF;
+				int g = rgb.data[indexRgb+1]&0xFF;
+				int b = rgb.data[indexRgb+2]&0xFF;
+
+				float fx = labF((X_R[r] + X_G[g] + X_B[b])/Xr_f);
+				float fy = labF((Y_R[r] + Y_G[g] + Y_B[b])/Yr_f);
+				float fz = labF((Z_R[r] + Z_G[g] + Z_B[b])/Zr_f);
+
+				L_.data[indexLab] = 116.0f*fy-16.0f;
+				A_.data[indexLab] = 500.0f*(fx-fy);
+				B_.data[indexLab] = 200.0f*(fy-fz);
+			}
+		}
+	}
+
+	public static void rgbToLab_F32(Planar<GrayF32> rgb , Planar<GrayF32> lab , int row0 , int row1 ) {
+
+		GrayF32 R = rgb.getBand(0);
+		GrayF32 G = rgb.getBand(1);
+		GrayF32 B = rgb.getBand(2);
+
+		GrayF32 L_ = lab.getBand(0);
+		GrayF32 A_ = lab.getBand(1);
+		GrayF32 B_ = lab.getBand(2);
+
+		for( int row = row0; row < row1; row++ ) {
+			int indexLab = lab.startIndex + row*lab.stride;
+			int indexRgb = rgb.startIndex + row*rgb.stride;
+
+			for( int col = 0; col < lab.width; col++ , indexLab++ , indexRgb++) {
+				rgbToLab(R.data[indexRgb]/255f,G.data[indexRgb]/255f,B.data[indexRgb]/255f,
+						L_.data,A_.data,B_.data,indexLab);
+			}
+		}
+	}
+
+	public static void rgbToLab_F32(InterleavedF32 rgb , Planar<GrayF32> lab , int row0 , int row1 ) {
+
+		GrayF32 L_ = lab.getBand(0);
+		GrayF32 A_ = lab.getBand(1);
+		GrayF32 B_ = lab.getBand(2);
+
+		for( int row = row0; row < row1; row++ ) {
+			int indexLab = lab.startIndex + row*lab.stride;
+			int indexRgb = rgb.startIndex + row*rgb.stride;
+
+			for( int col = 0; col < lab.width; col++ , indexLab++ , indexRgb += 3) {
+				rgbToLab(rgb.data[indexRgb]/255f,rgb.data[indexRgb+1]/255f,rgb.data[indexRgb+2]/255f,
+						L_.data,A_.data,B_.data,indexLab);
+			}
+		}
+	}
+
+	/**
+	 * Converts a single normalized RGB pixel and writes the results directly into the output bands.
+	 */
+	private static void rgbToLab( float r , float g , float b ,
+								  float[] L_ , float[] A_ , float[] B_ , int indexLab ) {
+		float X = 0.412453f*r + 0.35758f*g + 0.180423f*b;
+		float Y = 0.212671f*r + 0.71516f*g + 0.072169f*b;
+		float Z = 0.019334f*r + 0.119193f*g + 0.950227f*b;
+
+		float xr = X/Xr_f;
+		float yr = Y/Yr_f;
+		float zr = Z/Zr_f;
+
+		float fx, fy, fz;
+		if(xr > epsilon_f)	fx = (float)Math.pow(xr, 1.0f/3.0f);
+		else				fx = (kappa_f*xr + 16.0f)/116.0f;
+		if(yr > epsilon_f)	fy = (float)Math.pow(yr, 1.0/3.0f);
+		else				fy = (kappa_f*yr + 16.0f)/116.0f;
+		if(zr > epsilon_f)	fz = (float)Math.pow(zr, 1.0/3.0f);
+		else				fz = (kappa_f*zr + 16.0f)/116.0f;
+
+		L_[indexLab] = 116.0f*fy-16.0f;
+		A_[indexLab] = 500.0f*(fx-fy);
+		B_[indexLab] = 200.0f*(fy-fz);
+	}
+
+	/**
+	 * The non-linear function applied to normalized XYZ values.  Computes the cube root using a table and is
+	 * only valid for values in the range [0,1], which is true for 8-bit input.
+	 */
+	static float labF( float t ) {
+		if( t <= epsilon_f )
+			return (kappa_f*t + 16.0f)/116.0f;
+
+		float s = t*TABLE_SIZE;
+		int i = Math.min((int)s,TABLE_SIZE);
+		double y = cubeRoot[i] + (s-i)*(cubeRoot[i+1]-cubeRoot[i]);
+		// a single Newton step reduces the interpolation error to round off error
+		y -= (y*y*y - t)/(3*y*y);
+		return (float)y;
+	}
+}
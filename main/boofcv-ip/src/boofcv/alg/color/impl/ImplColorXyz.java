@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.color.impl;
+
+import boofcv.struct.image.GrayF32;
+import boofcv.struct.image.GrayU8;
+import boofcv.struct.image.InterleavedF32;
+import boofcv.struct.image.InterleavedU8;
+import boofcv.struct.image.Planar;
+
+/**
+ * <p>
+ * Implementation of functions in {@link boofcv.alg.color.ColorXyz} which process a range of rows.  Input checks
+ * are done by the caller.  Each row is computed independently, allowing rows to be split between threads.
+ * </p>
+ *
+ * <p>
+ * For 8-bit input each term in the RGB to XYZ matrix multiplication only has 256 possible values, which are
+ * stored in look up tables.  The tables are computed with the same floating point operations as the direct
+ * equation, so the results are identical.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class ImplColorXyz {
+
+	// contribution of each 8-bit color band to X, Y, and Z.  E.g. X_G[g] = 0.35758f*(g/255f)
+	static final float[] X_R = new float[256], X_G = new float[256], X_B = new float[256];
+	static final float[] Y_R = new float[256], Y_G = new float[256], Y_B = new float[256];
+	static final float[] Z_R = new float[256], Z_G = new float[256], Z_B = new float[256];
+
+	static {
+		for (int i = 0; i < 256; i++) {
+			float v = i/255f;
+			X_R[i] = 0.412453f*v; X_G[i] = 0.35758f*v;  X_B[i] = 0.180423f*v;
+			Y_R[i] = 0.212671f*v; Y_G[i] = 0.71516f*v;  Y_B[i] = 0.072169f*v;
+			Z_R[i] = 0.019334f*v; Z_G[i] = 0.119193f*v; Z_B[i] = 0.950227f*v;
+		}
+	}
+
+	public static void rgbToXyz_F32(Planar<GrayF32> rgb , Planar<GrayF32> xyz , int row0 , int row1 ) {
+
+		GrayF32 R = rgb.getBand(0);
+		GrayF32 G = rgb.getBand(1);
+		GrayF32 B = rgb.getBand(2);
+
+		GrayF32 X = xyz.getBand(0);
+		GrayF32 Y = xyz.getBand(1);
+		GrayF32 Z = xyz.getBand(2);
+
+		for( int row = row0; row < row1; row++ ) {
+			int indexXyz = xyz.startIndex + row*xyz.stride;
+			int indexRgb = rgb.startIndex + row*rgb.stride;
+
+			for( int col = 0; col < xyz.width; col++ , indexXyz++ , indexRgb++) {
+				float r = R.data[indexRgb]/255f;
+				float g = G.data[indexRgb]/255f;
+				float b = B.data[indexRgb]/255f;
+
+				X.data[indexXyz] = 0.412453f*r + 0.35758f*g + 0.180423f*b;
+				Y.data[indexXyz] = 0.212671f*r + 0.71516f*g + 0.072169f*b;
+				Z.data[indexXyz] = 0.019334f*r + 0.119193f*g + 0.950227f*b;
+			}
+		}
+	}
+
+	public static void rgbToXyz_F32(InterleavedF32 rgb , Planar<GrayF32> xyz , int row0 , int row1 ) {
+
+		GrayF32 X = xyz.getBand(0);
+		GrayF32 Y = xyz.getBand(1);
+		GrayF32 Z = xyz.getBand(2);
+
+		for( int row = row0; row < row1; row++ ) {
+			int indexXyz = xyz.startIndex + row*xyz.stride;
+			int indexRgb = rgb.startIndex + row*rgb.stride;
+
+			for( int col = 0; col < xyz.width; col++ , indexXyz++ , indexRgb += 3) {
+				float r = rgb.data[indexRgb]/255f;
+				float g = rgb.data[indexRgb+1]/255f;
+				float b = rgb.data[indexRgb+2]/255f;
+
+				X.data[indexXyz] = 0.412453f*r + 0.35758f*g + 0.180423f*b;
+				Y.data[indexXyz] = 0.212671f*r + 0.71516f*g + 0.072169f*b;
+				Z.data[indexXyz] = 0.019334f*r + 0.119193f*g + 0.950227f*b;
+			}
+		}
+	}
+
+	public static void rgbToXyz_U8(Planar<GrayU8> rgb , Planar<GrayF32> xyz , int row0 , int row1 ) {
+
+		GrayU8 R = rgb.getBand(0);
+		GrayU8 G = rgb.getBand(1);
+		GrayU8 B = rgb.getBand(2);
+
+		GrayF32 X = xyz.getBand(0);
+		GrayF32 Y = xyz.getBand(1);
+		GrayF32 Z = xyz.getBand(2);
+
+		for( int row = row0; row < row1; row++ ) {
+			int indexXyz = xyz.startIndex + row*xyz.stride;
+			int indexRgb = rgb.startIndex + row*rgb.stride;
+
+			for( int col = 0; col < xyz.width; col++ , indexXyz++ , indexRgb++) {
+				int r = R.data[indexRgb]&0xFF;
+				int g = G.data[indexRgb]&0xFF;
+				int b = B.data[indexRgb]&0xFF;
+
+				X.data[indexXyz] = X_R[r] + X_G[g] + X_B[b];
+				Y.data[indexXyz] = Y_R[r] + Y_G[g] + Y_B[b];
+				Z.data[indexXyz] = Z_R[r] + Z_G[g] + Z_B[b];
+			}
+		}
+	}
+
+	public static void rgbToXyz_U8(InterleavedU8 rgb , Planar<GrayF32> xyz , int row0 , int row1 ) {
+
+		GrayF32 X = xyz.getBand(0);
+		GrayF32 Y = xyz.getBand(1);
+		GrayF32 Z = xyz.getBand(2);
+
+		for( int row = row0; row < row1; row++ ) {
+			int indexXyz = xyz.startIndex + row*xyz.stride;
+			int indexRgb = rgb.startIndex + row*rgb.stride;
+
+			for( int col = 0; col < xyz.width; col++ , indexXyz++ , indexRgb += 3) {
+				int r = rgb.data[indexRgb]&0xFF;
+				int g = rgb.data[indexRgb+1]&0xFF;
+				int b = rgb.data[indexRgb+2]&0xFF;
+
+				X.data[indexXyz] = X_R[r] + X_G[g] + X_B[b];
+				Y.data[indexXyz] = Y_R[r] + Y_G[g] + Y_B[b];
+				Z.data[indexXyz] = Z_R[r] + Z_G[g] + Z_B[b];
+			}
+		}
+	}
+}
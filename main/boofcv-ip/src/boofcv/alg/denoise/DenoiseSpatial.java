@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.denoise;
+
+import boofcv.struct.image.ImageGray;
+
+
+/**
+ * Interface for algorithms which remove noise by directly operating on pixels in the spatial domain.
+ *
+ * @author Peter Abeles
+ */
+public interface DenoiseSpatial<T extends ImageGray<T>> {
+
+	/**
+	 * Removes noise from the input image and writes the results into the output image.  Pixels outside
+	 * the image are handled by extending the image border.
+	 *
+	 * @param input Noisy input image. Not modified.
+	 * @param output Denoised output image.  Must be the same shape as the input. Modified.
+	 */
+	public void process( T input , T output );
+
+	/**
+	 * If true then rows are processed using multiple threads.  Results are identical to
+	 * processing with a single thread.
+	 *
+	 * @param concurrent true for multiple threads
+	 */
+	public void setConcurrent( boolean concurrent );
+
+	/**
+	 * Returns true if multiple threads are used
+	 */
+	public boolean isConcurrent();
+}
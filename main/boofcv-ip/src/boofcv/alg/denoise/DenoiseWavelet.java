@@ -36,4 +36,17 @@ public interface DenoiseWavelet <T extends ImageGray<T>>  {
 	 * @param numLevels NUmber of levels in the transform.
 	 */
 	public void denoise( T transform , int numLevels );
+
+	/**
+	 * If true then the transform is denoised using multiple threads.  Results are identical to
+	 * processing with a single thread.
+	 *
+	 * @param concurrent true for multiple threads
+	 */
+	public void setConcurrent( boolean concurrent );
+
+	/**
+	 * Returns true if multiple threads are used
+	 */
+	public boolean isConcurrent();
 }
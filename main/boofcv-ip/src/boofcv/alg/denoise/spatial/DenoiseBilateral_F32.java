@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.denoise.spatial;
+
+import boofcv.alg.InputSanityCheck;
+import boofcv.alg.denoise.DenoiseSpatial;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeConsumer;
+import boofcv.struct.image.GrayF32;
+
+
+/**
+ * <p>
+ * Bilateral filter [1].  An edge preserving blur where each pixel is replaced by a weighted average of its
+ * neighbors.  The weight is the product of a Gaussian of the distance from the center pixel and a Gaussian
+ * of the difference in value from the center pixel.  Pixels across an edge have a very different value and
+ * contribute little.
+ * </p>
+ *
+ * <p>
+ * Spatial weights are computed once when the filter is configured.  Range weights are looked up from a table
+ * which samples the Gaussian every sigmaRange/{@link #TABLE_RESOLUTION} out to {@link #TABLE_SIGMAS} standard
+ * deviations.  Differences beyond that have a weight of zero.
+ * </p>
+ *
+ * <p>
+ * [1] C. Tomasi and R. Manduchi, "Bilateral Filtering for Gray and Color Images," ICCV 1998.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class DenoiseBilateral_F32 implements DenoiseSpatial<GrayF32> {
+
+	/**
+	 * Number of table elements per range standard deviation
+	 */
+	public static final int TABLE_RESOLUTION = 64;
+	/**
+	 * Number of standard deviations the range table extends out to
+	 */
+	public static final int TABLE_SIGMAS = 4;
+
+	// radius of the square region which is averaged
+	private int radius;
+	private float sigmaSpatial;
+	private float sigmaRange;
+
+	// spatial weight of each pixel in the region
+	private float[] spatialWeights;
+	// range weights as a function of the absolute difference in value
+	private float[] rangeWeights;
+	// converts an absolute difference into a table index
+	private float rangeToIndex;
+
+	// copy of the input image with an extended border
+	private GrayF32 padded = new GrayF32(1,1);
+	// output image for the image currently being processed
+	private GrayF32 output;
+
+	// should it process the image using multiple threads
+	private boolean concurrent = false;
+
+	/**
+	 * Configures the filter
+	 *
+	 * @param radius Radius of the square region which is averaged.
+	 * @param sigmaSpatial Standard deviation of the spatial Gaussian in pixels.  If &le; 0 then it's set to radius/2.
+	 * @param sigmaRange Standard deviation of the range Gaussian in pixel intensity units.
+	 */
+	public DenoiseBilateral_F32( int radius , float sigmaSpatial , float sigmaRange ) {
+		if( radius < 0 )
+			throw new IllegalArgumentException("Radius can't be negative");
+		if( sigmaRange <= 0 )
+			throw new IllegalArgumentException("sigmaRange must be more than zero");
+		if( sigmaSpatial <= 0 )
+			sigmaSpatial = Math.max(0.5f, radius/2.0f);
+
+		this.radius = radius;
+		this.sigmaSpatial = sigmaSpatial;
+		this.sigmaRange = sigmaRange;
+
+		int width = 2*radius + 1;
+		spatialWeights = new float[width*width];
+		for (int y = -radius, index = 0; y <= radius; y++) {
+			for (int x = -radius; x <= radius; x++) {
+				spatialWeights[index++] = (float)Math.exp(-(x*x + y*y)/(2.0*sigmaSpatial*sigmaSpatial));
+			}
+		}
+
+		rangeWeights = new float[TABLE_RESOLUTION*TABLE_SIGMAS + 1];
+		for (int i = 0; i < rangeWeights.length; i++) {
+			double d = i/(double)TABLE_RESOLUTION;
+			rangeWeights[i] = (float)Math.exp(-d*d/2.0);
+		}
+		rangeToIndex = TABLE_RESOLUTION/sigmaRange;
+	}
+
+	@Override
+	public void process( GrayF32 input , GrayF32 output ) {
+		InputSanityCheck.checkSameShape(input, output);
+		this.output = output;
+
+		UtilDenoiseSpatial.extendBorder(input, radius, padded);
+
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, input.height, new IntRangeConsumer() {
+				@Override
+				public void accept(int minInclusive, int maxExclusive) {
+					processRows(minInclusive, maxExclusive);
+				}
+			});
+		} else {
+			processRows(0, input.height);
+		}
+
+		this.output = null;
+	}
+
+	/**
+	 * Filters the rows from y0 to y1, exclusive.
+	 */
+	private void processRows( int y0 , int y1 ) {
+		final int width = 2*radius + 1;
+		final int maxIndex = rangeWeights.length;
+		final float[] data = padded.data;
+
+		for (int y = y0; y < y1; y++) {
+			int indexOut = output.startIndex + y*output.stride;
+			// index of the top left corner of the region in the padded image
+			int indexRegion = padded.startIndex + y*padded.stride;
+
+			for (int x = 0; x < output.width; x++, indexRegion++) {
+				float center = data[indexRegion + radius*padded.stride + radius];
+
+				float sumWeights = 0;
+				float sum = 0;
+				for (int i = 0, indexW = 0; i < width; i++) {
+					int indexIn = indexRegion + i*padded.stride;
+					for (int j = 0; j < width; j++, indexW++) {
+						float value = data[indexIn + j];
+						int indexR = (int)(Math.abs(value - center)*rangeToIndex);
+						if( indexR < maxIndex ) {
+							float w = spatialWeights[indexW]*rangeWeights[indexR];
+							sumWeights += w;
+							sum += w*value;
+						}
+					}
+				}
+
+				// the center pixel always has a weight of one so sumWeights can't be zero
+				output.data[indexOut++] = sum/sumWeights;
+			}
+		}
+	}
+
+	public int getRadius() {
+		return radius;
+	}
+
+	public float getSigmaSpatial() {
+		return sigmaSpatial;
+	}
+
+	public float getSigmaRange() {
+		return sigmaRange;
+	}
+
+	@Override
+	public void setConcurrent( boolean concurrent ) {
+		this.concurrent = concurrent;
+	}
+
+	@Override
+	public boolean isConcurrent() {
+		return concurrent;
+	}
+}
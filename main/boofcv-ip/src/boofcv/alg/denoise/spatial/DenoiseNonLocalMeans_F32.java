@@ -0,0 +1,261 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.denoise.spatial;
+
+import boofcv.alg.InputSanityCheck;
+import boofcv.alg.denoise.DenoiseSpatial;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeObjectConsumer;
+import boofcv.struct.image.GrayF32;
+import org.ddogleg.struct.FastQueue;
+
+import java.util.Arrays;
+
+
+/**
+ * <p>
+ * Non-local means (NLM) denoising [1].  Each pixel is replaced by a weighted average of all the pixels inside
+ * a square search region around it.  The weight of a pixel is determined by how similar the square patch
+ * around it is to the patch around the pixel being denoised:
+ * </p>
+ *
+ * <pre>w = exp( -|P(a) - P(b)|<sup>2</sup>/(N*h<sup>2</sup>) )</pre>
+ *
+ * <p>
+ * where N is the number of pixels in a patch and h controls how aggressive the filter is.  Patch distances are
+ * computed for one displacement inside the search region at a time.  The squared difference between the image
+ * and its displaced copy is summed along each row using a running sum, then the row sums are added up
+ * across the patch's rows.  This makes the cost of each distance independent of the patch's width.  Weights are
+ * looked up from a table which samples the exponential every 1/{@link #TABLE_RESOLUTION} out to {@link #TABLE_MAX}.
+ * Patches which are more different than that have a weight of zero.
+ * </p>
+ *
+ * <p>
+ * When concurrent, each thread processes a block of rows.  Distances are computed the same way for every
+ * block and the results are identical to processing with a single thread.
+ * </p>
+ *
+ * <p>
+ * [1] Buades, Antoni, Bartomeu Coll, and J-M. Morel. "A non-local algorithm for image denoising."
+ * CVPR 2005.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class DenoiseNonLocalMeans_F32 implements DenoiseSpatial<GrayF32> {
+
+	/**
+	 * Number of table elements per unit of normalized patch distance
+	 */
+	public static final int TABLE_RESOLUTION = 1024;
+	/**
+	 * Largest normalized patch distance in the weight table
+	 */
+	public static final int TABLE_MAX = 12;
+
+	// radius of the patch which is compared
+	private int patchRadius;
+	// radius of the region which is searched for similar patches
+	private int searchRadius;
+	// filtering parameter.  Larger values remove more noise and more detail
+	private float h;
+
+	// weight as a function of the normalized patch distance
+	private float[] weightTable;
+
+	// copy of the input image with an extended border
+	private GrayF32 padded = new GrayF32(1,1);
+	// output image for the image currently being processed
+	private GrayF32 output;
+
+	// should it process the image using multiple threads
+	private boolean concurrent = false;
+
+	// storage for each thread
+	private FastQueue<Workspace> workspaces = new FastQueue<Workspace>(Workspace.class, true);
+
+	/**
+	 * Configures the filter
+	 *
+	 * @param patchRadius Radius of the square patch which is compared.  Typical values are 1 to 3.
+	 * @param searchRadius Radius of the square region which is searched.  Typical values are 5 to 10.
+	 * @param h Filtering parameter.  Should be about the same as the noise's standard deviation.
+	 */
+	public DenoiseNonLocalMeans_F32( int patchRadius , int searchRadius , float h ) {
+		if( patchRadius < 0 || searchRadius < 0 )
+			throw new IllegalArgumentException("Radius can't be negative");
+		if( h <= 0 )
+			throw new IllegalArgumentException("h must be more than zero");
+		this.patchRadius = patchRadius;
+		this.searchRadius = searchRadius;
+		this.h = h;
+
+		weightTable = new float[TABLE_RESOLUTION*TABLE_MAX + 1];
+		for (int i = 0; i < weightTable.length; i++) {
+			weightTable[i] = (float)Math.exp(-i/(double)TABLE_RESOLUTION);
+		}
+	}
+
+	@Override
+	public void process( GrayF32 input , GrayF32 output ) {
+		InputSanityCheck.checkSameShape(input, output);
+		this.output = output;
+
+		UtilDenoiseSpatial.extendBorder(input, patchRadius + searchRadius, padded);
+
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, input.height, workspaces, new IntRangeObjectConsumer<Workspace>() {
+				@Override
+				public void accept(Workspace work, int minInclusive, int maxExclusive) {
+					processRows(work, minInclusive, maxExclusive);
+				}
+			});
+		} else {
+			workspaces.resize(1);
+			processRows(workspaces.get(0), 0, input.height);
+		}
+
+		this.output = null;
+	}
+
+	/**
+	 * Denoises the rows from y0 to y1, exclusive.
+	 */
+	private void processRows( Workspace work , int y0 , int y1 ) {
+		final int width = output.width;
+		final int rows = y1 - y0;
+		final int patchWidth = 2*patchRadius + 1;
+		// number of rows which need to have their row sums computed
+		final int bandRows = rows + 2*patchRadius;
+		// offset from an image coordinate to the padded image
+		final int border = patchRadius + searchRadius;
+		// converts a patch distance into an index in the weight table
+		final float normalize = TABLE_RESOLUTION/(patchWidth*patchWidth*h*h);
+		final int tableSize = weightTable.length;
+
+		work.resize(width, rows, patchRadius);
+		final float[] weights = work.weights;
+		final float[] sums = work.sums;
+		final float[] rowDist = work.rowDist;
+		final double[] cumulative = work.cumulative;
+		final float[] data = padded.data;
+
+		for (int dy = -searchRadius; dy <= searchRadius; dy++) {
+			for (int dx = -searchRadius; dx <= searchRadius; dx++) {
+
+				// sum of the squared difference along each row inside the patch
+				for (int i = 0; i < bandRows; i++) {
+					int py = y0 - patchRadius + i + border;
+					int indexA = padded.startIndex + py*padded.stride + border - patchRadius;
+					int indexB = indexA + dy*padded.stride + dx;
+
+					double total = 0;
+					cumulative[0] = 0;
+					for (int x = 0; x < width + 2*patchRadius; x++) {
+						float d = data[indexA++] - data[indexB++];
+						total += d*d;
+						cumulative[x+1] = total;
+					}
+
+					int indexDist = i*width;
+					for (int x = 0; x < width; x++) {
+						rowDist[indexDist++] = (float)(cumulative[x+patchWidth] - cumulative[x]);
+					}
+				}
+
+				// add up the rows to get the patch distance then update the weighted average
+				for (int i = 0; i < rows; i++) {
+					int indexB = padded.startIndex + (y0 + i + dy + border)*padded.stride + border + dx;
+					int indexWork = i*width;
+					for (int x = 0; x < width; x++, indexWork++) {
+						float distance = 0;
+						for (int k = 0, indexDist = indexWork; k < patchWidth; k++, indexDist += width) {
+							distance += rowDist[indexDist];
+						}
+						int indexTable = (int)(distance*normalize);
+						if( indexTable < tableSize ) {
+							float w = weightTable[indexTable];
+							weights[indexWork] += w;
+							sums[indexWork] += w*data[indexB + x];
+						}
+					}
+				}
+			}
+		}
+
+		for (int i = 0; i < rows; i++) {
+			int indexOut = output.startIndex + (y0 + i)*output.stride;
+			int indexWork = i*width;
+			for (int x = 0; x < width; x++) {
+				output.data[indexOut++] = sums[indexWork]/weights[indexWork];
+				indexWork++;
+			}
+		}
+	}
+
+	public int getPatchRadius() {
+		return patchRadius;
+	}
+
+	public int getSearchRadius() {
+		return searchRadius;
+	}
+
+	public float getH() {
+		return h;
+	}
+
+	@Override
+	public void setConcurrent( boolean concurrent ) {
+		this.concurrent = concurrent;
+	}
+
+	@Override
+	public boolean isConcurrent() {
+		return concurrent;
+	}
+
+	/**
+	 * Storage used to process a block of rows
+	 */
+	public static class Workspace {
+		// sum of weights and weighted sum of pixel values
+		float weights[] = new float[0];
+		float sums[] = new float[0];
+		// patch distance along a single row
+		float rowDist[] = new float[0];
+		// cumulative sum of the squared difference along a row
+		double cumulative[] = new double[0];
+
+		void resize( int width , int rows , int patchRadius ) {
+			int bandRows = rows + 2*patchRadius;
+			if( weights.length < width*rows ) {
+				weights = new float[width*rows];
+				sums = new float[width*rows];
+			} else {
+				Arrays.fill(weights, 0, width*rows, 0);
+				Arrays.fill(sums, 0, width*rows, 0);
+			}
+			if( rowDist.length < width*bandRows )
+				rowDist = new float[width*bandRows];
+			if( cumulative.length < width + 2*patchRadius + 1 )
+				cumulative = new double[width + 2*patchRadius + 1];
+		}
+	}
+}
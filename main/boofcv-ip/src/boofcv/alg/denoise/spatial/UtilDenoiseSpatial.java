@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.denoise.spatial;
+
+import boofcv.struct.image.GrayF32;
+
+
+/**
+ * Various functions which are useful when removing noise in the spatial domain.
+ *
+ * @author Peter Abeles
+ */
+public class UtilDenoiseSpatial {
+
+	/**
+	 * Copies the input image into the center of the output image and fills in the outside border by extending
+	 * the input's edge pixels.  After this function has been called pixel (x,y) in the input image
+	 * is at (x+radius,y+radius) in the output image.
+	 *
+	 * @param input Input image. Not modified.
+	 * @param radius Size of the border which is added.
+	 * @param output Storage for the extended image.  Reshaped to (width+2*radius,height+2*radius). Modified.
+	 */
+	public static void extendBorder( GrayF32 input , int radius , GrayF32 output ) {
+		output.reshape(input.width + 2*radius, input.height + 2*radius);
+
+		for (int y = 0; y < output.height; y++) {
+			int inputY = Math.min(input.height - 1, Math.max(0, y - radius));
+			int indexIn = input.startIndex + inputY*input.stride;
+			int indexOut = output.startIndex + y*output.stride;
+
+			float left = input.data[indexIn];
+			float right = input.data[indexIn + input.width - 1];
+			for (int x = 0; x < radius; x++) {
+				output.data[indexOut++] = left;
+			}
+			System.arraycopy(input.data, indexIn, output.data, indexOut, input.width);
+			indexOut += input.width;
+			for (int x = 0; x < radius; x++) {
+				output.data[indexOut++] = right;
+			}
+		}
+	}
+}
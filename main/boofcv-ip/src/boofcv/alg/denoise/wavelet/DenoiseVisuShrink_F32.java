@@ -21,6 +21,8 @@ package boofcv.alg.denoise.wavelet;
 import boofcv.alg.denoise.DenoiseWavelet;
 import boofcv.alg.denoise.ShrinkThresholdRule;
 import boofcv.alg.transform.wavelet.UtilWavelet;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeConsumer;
 import boofcv.struct.image.GrayF32;
 
 
@@ -41,6 +43,9 @@ public class DenoiseVisuShrink_F32 implements DenoiseWavelet<GrayF32> {
 
 	ShrinkThresholdRule<GrayF32> rule = new ShrinkThresholdSoft_F32();
 
+	// if true then the threshold is applied using multiple threads
+	boolean concurrent = false;
+
 	/**
 	 * Applies VisuShrink denoising to the provided multilevel wavelet transform using
 	 * the provided threshold.
@@ -64,7 +69,33 @@ public class DenoiseVisuShrink_F32 implements DenoiseWavelet<GrayF32> {
 		float threshold = (float) UtilDenoiseWavelet.universalThreshold(subbandHH,sigma);
 
 		// apply same threshold to all wavelet coefficients
-		rule.process(transform.subimage(innerWidth,0,w,h, null),threshold);
-		rule.process(transform.subimage(0,innerHeight,innerWidth,h, null),threshold);
+		applyThreshold(transform.subimage(innerWidth,0,w,h, null),threshold);
+		applyThreshold(transform.subimage(0,innerHeight,innerWidth,h, null),threshold);
+	}
+
+	/**
+	 * Applies the threshold to the region.  If concurrent then the rows are split between threads.
+	 */
+	private void applyThreshold( final GrayF32 region , final float threshold ) {
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, region.height, new IntRangeConsumer() {
+				@Override
+				public void accept(int y0, int y1) {
+					rule.process(region.subimage(0,y0,region.width,y1, null),threshold);
+				}
+			});
+		} else {
+			rule.process(region,threshold);
+		}
+	}
+
+	@Override
+	public void setConcurrent(boolean concurrent) {
+		this.concurrent = concurrent;
+	}
+
+	@Override
+	public boolean isConcurrent() {
+		return concurrent;
 	}
 }
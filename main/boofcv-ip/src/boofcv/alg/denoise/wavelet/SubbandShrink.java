@@ -20,12 +20,19 @@ package boofcv.alg.denoise.wavelet;
 
 import boofcv.alg.denoise.DenoiseWavelet;
 import boofcv.alg.denoise.ShrinkThresholdRule;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeConsumer;
 import boofcv.struct.image.ImageGray;
 
+import java.util.ArrayList;
+import java.util.List;
+
 
 /**
  * Performs an adaptive threshold based wavelet shrinkage across each of the wavelet subbands in each
- * layer of the transformed image.
+ * layer of the transformed image.  The threshold for each subband only depends on that subband, so
+ * when concurrent the subbands are divided between threads.  Subbands are assigned to threads in an interleaved
+ * order so that each thread gets a similar amount of work from each layer.
  *
  * @author Peter Abeles
  */
@@ -34,6 +41,12 @@ public abstract class SubbandShrink<I extends ImageGray<I>> implements DenoiseWa
 	// specifies how the threshold is applied to each pixel in the image
 	protected ShrinkThresholdRule<I> rule;
 
+	// if true then subbands are processed using multiple threads
+	protected boolean concurrent = false;
+
+	// storage for the list of subbands in the transform
+	private List<I> subbands = new ArrayList<>();
+
 	protected SubbandShrink(ShrinkThresholdRule<I> rule) {
 		this.rule = rule;
 	}
@@ -55,38 +68,58 @@ public abstract class SubbandShrink<I extends ImageGray<I>> implements DenoiseWa
 	 */
 	protected void performShrinkage( I transform , int numLevels ) {
 
-		// step through each layer in the pyramid.
+		// step through each layer in the pyramid and find the subbands
+		subbands.clear();
 		for( int i = 0; i < numLevels; i++ ) {
 			int w = transform.width;
 			int h = transform.height;
 			int ww = w/2;
 			int hh = h/2;
-			Number threshold;
-			I subband;
 
 			// HL
-			subband = transform.subimage(ww,0,w,hh, null);
-			threshold = computeThreshold(subband);
-			rule.process(subband,threshold);
-
-//			System.out.print("HL = "+threshold);
-
+			subbands.add(transform.subimage(ww,0,w,hh, null));
 			// LH
-			subband = transform.subimage(0,hh,ww,h, null);
-			threshold = computeThreshold(subband);
-			rule.process(subband,threshold);
-
-//			System.out.print("  LH = "+threshold);
-
+			subbands.add(transform.subimage(0,hh,ww,h, null));
 			// HH
-			subband = transform.subimage(ww,hh,w,h, null);
-			threshold = computeThreshold(subband);
-			rule.process(subband,threshold);
-
-//			System.out.println("  HH = "+threshold);
+			subbands.add(transform.subimage(ww,hh,w,h, null));
 
 			transform = transform.subimage(0,0,ww,hh, null);
 		}
 
+		if( concurrent ) {
+			final int numBlocks = Math.min(BoofConcurrency.getMaxThreads(), subbands.size());
+			BoofConcurrency.loopBlocks(0, numBlocks, new IntRangeConsumer() {
+				@Override
+				public void accept(int index0, int index1) {
+					for( int block = index0; block < index1; block++ ) {
+						for( int i = block; i < subbands.size(); i += numBlocks ) {
+							shrink(subbands.get(i));
+						}
+					}
+				}
+			});
+		} else {
+			for( int i = 0; i < subbands.size(); i++ ) {
+				shrink(subbands.get(i));
+			}
+		}
+	}
+
+	/**
+	 * Computes the threshold for the subband and applies it
+	 */
+	private void shrink( I subband ) {
+		Number threshold = computeThreshold(subband);
+		rule.process(subband,threshold);
+	}
+
+	@Override
+	public void setConcurrent(boolean concurrent) {
+		this.concurrent = concurrent;
+	}
+
+	@Override
+	public boolean isConcurrent() {
+		return concurrent;
 	}
 }
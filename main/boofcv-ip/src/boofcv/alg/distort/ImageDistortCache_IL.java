@@ -0,0 +1,258 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.distort;
+
+import boofcv.alg.interpolate.InterpolatePixelMB;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeObjectConsumer;
+import boofcv.struct.distort.PixelTransform2_F32;
+import boofcv.struct.image.ImageInterleaved;
+import org.ddogleg.struct.FastQueue;
+
+/**
+ * Implementation of {@link ImageDistort} for {@link ImageInterleaved} images which caches the distortion
+ * in a {@link PixelTransformTable_F32}.  See {@link ImageDistortCache_SB} for a description.
+ *
+ * @author Peter Abeles
+ */
+public abstract class ImageDistortCache_IL<Input extends ImageInterleaved<Input>,Output extends ImageInterleaved<Output>>
+		implements ImageDistort<Input,Output> {
+
+	// cached transform from the dst to src image
+	private PixelTransformTable_F32 table = new PixelTransformTable_F32();
+	// false if the table was passed in and might be shared
+	private boolean ownsTable = true;
+	// sub pixel interpolation
+	private InterpolatePixelMB<Input> interp;
+	// storage for interpolated pixel values
+	private float values[] = new float[0];
+	// interpolation and storage for each thread
+	private FastQueue<Workspace> workspaces;
+
+	// transform
+	private PixelTransform2_F32 dstToSrc;
+
+	// crop boundary
+	private int x0,y0,x1,y1;
+
+	// should it render all pixels in the destination, even ones outside the input image
+	protected boolean renderAll = true;
+	protected Input srcImg;
+	protected Output dstImg;
+
+	protected boolean dirty;
+
+	// should it process the image using multiple threads
+	private boolean concurrent = false;
+
+	/**
+	 * Specifies configuration parameters
+	 *
+	 * @param interp Interpolation algorithm
+	 */
+	public ImageDistortCache_IL(InterpolatePixelMB<Input> interp) {
+		this.interp = interp;
+		workspaces = new FastQueue<Workspace>((Class)Workspace.class, true) {
+			@Override
+			protected Workspace createInstance() {
+				return new Workspace();
+			}
+		};
+	}
+
+	@Override
+	public void setModel(PixelTransform2_F32 dstToSrc) {
+		this.dirty = true;
+		this.dstToSrc = dstToSrc;
+	}
+
+	/**
+	 * Uses a table which has already been computed instead of computing one from the model.  The table is not
+	 * modified and can be shared with other instances.
+	 *
+	 * @param table Precomputed distortion from the dst to src image.
+	 */
+	public void setTable( PixelTransformTable_F32 table ) {
+		this.table = table;
+		this.ownsTable = false;
+		this.dstToSrc = null;
+		this.dirty = false;
+	}
+
+	/**
+	 * Returns the table which stores the cached distortion
+	 */
+	public PixelTransformTable_F32 getTable() {
+		return table;
+	}
+
+	@Override
+	public void apply(Input srcImg, Output dstImg) {
+		init(srcImg, dstImg);
+
+		x0 = 0;y0 = 0;x1 = dstImg.width;y1 = dstImg.height;
+
+		if( renderAll )
+			renderAll();
+		else
+			applyOnlyInside();
+	}
+
+	@Override
+	public void apply(Input srcImg, Output dstImg, int dstX0, int dstY0, int dstX1, int dstY1) {
+		init(srcImg, dstImg);
+
+		x0 = dstX0;y0 = dstY0;x1 = dstX1;y1 = dstY1;
+
+		if( renderAll )
+			renderAll();
+		else
+			applyOnlyInside();
+	}
+
+	private void init(Input srcImg, Output dstImg) {
+		if( dirty || !table.isShape(dstImg.width, dstImg.height) ) {
+			if( dstToSrc == null )
+				throw new IllegalArgumentException("Unexpected dstImg dimension");
+			if( !ownsTable ) {
+				// don't modify a table which might be shared with other instances
+				table = new PixelTransformTable_F32();
+				ownsTable = true;
+			}
+			table.compute(dstToSrc, dstImg.width, dstImg.height);
+			dirty = false;
+		}
+
+		this.srcImg = srcImg;
+		this.dstImg = dstImg;
+		interp.setImage(srcImg);
+		if( values.length != srcImg.getNumBands() ) {
+			values = new float[ srcImg.getNumBands() ];
+		}
+		if( concurrent ) {
+			// borders are shared so set the image here instead of inside the threads
+			workspaces.resize(BoofConcurrency.getMaxThreads());
+			for (int i = 0; i < workspaces.size; i++) {
+				workspaces.get(i).setImage(srcImg);
+			}
+		}
+	}
+
+	public void renderAll() {
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(y0, y1, workspaces, new IntRangeObjectConsumer<Workspace>() {
+				@Override
+				public void accept(Workspace w, int minInclusive, int maxExclusive) {
+					renderAll(w.interp, w.values, minInclusive, maxExclusive);
+				}
+			});
+		} else {
+			renderAll(interp, values, y0, y1);
+		}
+	}
+
+	private void renderAll( InterpolatePixelMB<Input> interp , float[] values , int y0 , int y1 ) {
+		final float[] map = table.data;
+		final int width = table.getWidth();
+		final int numBands = dstImg.numBands;
+
+		for( int y = y0; y < y1; y++ ) {
+			int indexDst = dstImg.startIndex + dstImg.stride*y + x0*numBands;
+			int indexMap = 2*(y*width + x0);
+			for( int x = x0; x < x1; x++ , indexDst += numBands, indexMap += 2 ) {
+				interp.get(map[indexMap], map[indexMap+1], values);
+				assign(indexDst,values);
+			}
+		}
+	}
+
+	public void applyOnlyInside() {
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(y0, y1, workspaces, new IntRangeObjectConsumer<Workspace>() {
+				@Override
+				public void accept(Workspace w, int minInclusive, int maxExclusive) {
+					applyOnlyInside(w.interp, w.values, minInclusive, maxExclusive);
+				}
+			});
+		} else {
+			applyOnlyInside(interp, values, y0, y1);
+		}
+	}
+
+	private void applyOnlyInside( InterpolatePixelMB<Input> interp , float[] values , int y0 , int y1 ) {
+		final float[] map = table.data;
+		final int width = table.getWidth();
+		final int numBands = dstImg.numBands;
+
+		float maxWidth = srcImg.getWidth()-1;
+		float maxHeight = srcImg.getHeight()-1;
+
+		for( int y = y0; y < y1; y++ ) {
+			int indexDst = dstImg.startIndex + dstImg.stride*y + x0*numBands;
+			int indexMap = 2*(y*width + x0);
+			for( int x = x0; x < x1; x++ , indexDst += numBands, indexMap += 2 ) {
+				float sx = map[indexMap];
+				float sy = map[indexMap+1];
+
+				if( sx >= 0 && sx <= maxWidth && sy >= 0 && sy <= maxHeight ) {
+					interp.get(sx, sy, values);
+					assign(indexDst,values);
+				}
+			}
+		}
+	}
+
+	protected abstract void assign( int indexDst , float[] value );
+
+	@Override
+	public void setRenderAll(boolean renderAll) {
+		this.renderAll = renderAll;
+	}
+
+	@Override
+	public boolean getRenderAll() {
+		return renderAll;
+	}
+
+	public boolean isConcurrent() {
+		return concurrent;
+	}
+
+	/**
+	 * If true then rows in the output image are rendered using multiple threads.  Results are identical to
+	 * processing with a single thread.
+	 */
+	public void setConcurrent(boolean concurrent) {
+		this.concurrent = concurrent;
+	}
+
+	/**
+	 * Interpolation and storage used by a single thread
+	 */
+	private class Workspace {
+		InterpolatePixelMB<Input> interp = ImageDistortCache_IL.this.interp.copy();
+		float values[] = new float[0];
+
+		void setImage( Input image ) {
+			interp.setImage(image);
+			if( values.length != image.getNumBands() )
+				values = new float[ image.getNumBands() ];
+		}
+	}
+}
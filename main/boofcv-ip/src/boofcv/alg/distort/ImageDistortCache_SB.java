@@ -19,25 +19,38 @@
 package boofcv.alg.distort;
 
 import boofcv.alg.interpolate.InterpolatePixelS;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeObjectConsumer;
 import boofcv.struct.distort.PixelTransform2_F32;
 import boofcv.struct.image.ImageGray;
-import georegression.struct.point.Point2D_F32;
+import org.ddogleg.struct.FastQueue;
 
 /**
+ * <p>
  * Except for very simple functions, computing the per pixel distortion is an expensive operation.
  * To overcome this problem the distortion is computed once and cached.  Then when the image is distorted
  * again the save results are simply recalled and not computed again.
+ * </p>
+ *
+ * <p>
+ * The cache is stored in a {@link PixelTransformTable_F32}, which can be shared with other instances by
+ * calling {@link #setTable}.  When concurrent each thread renders a block of rows using its own copy of
+ * the interpolation algorithm.
+ * </p>
  *
  * @author Peter Abeles
  */
 public abstract class ImageDistortCache_SB<Input extends ImageGray<Input>,Output extends ImageGray<Output>>
 		implements ImageDistort<Input,Output> {
 
-	// size of output image
-	private int width=-1,height=-1;
-	private Point2D_F32 map[];
+	// cached transform from the dst to src image
+	private PixelTransformTable_F32 table = new PixelTransformTable_F32();
+	// false if the table was passed in and might be shared
+	private boolean ownsTable = true;
 	// sub pixel interpolation
 	private InterpolatePixelS<Input> interp;
+	// copies of interpolation for each thread
+	private FastQueue<InterpolatePixelS<Input>> workspaces;
 
 	// transform
 	private PixelTransform2_F32 dstToSrc;
@@ -52,13 +65,22 @@ public abstract class ImageDistortCache_SB<Input extends ImageGray<Input>,Output
 
 	protected boolean dirty;
 
+	// should it process the image using multiple threads
+	private boolean concurrent = false;
+
 	/**
 	 * Specifies configuration parameters
 	 *
 	 * @param interp Interpolation algorithm
 	 */
-	public ImageDistortCache_SB(InterpolatePixelS<Input> interp) {
+	public ImageDistortCache_SB(final InterpolatePixelS<Input> interp) {
 		this.interp = interp;
+		workspaces = new FastQueue<InterpolatePixelS<Input>>((Class)InterpolatePixelS.class, true) {
+			@Override
+			protected InterpolatePixelS<Input> createInstance() {
+				return interp.copy();
+			}
+		};
 	}
 
 	@Override
@@ -67,6 +89,26 @@ public abstract class ImageDistortCache_SB<Input extends ImageGray<Input>,Output
 		this.dstToSrc = dstToSrc;
 	}
 
+	/**
+	 * Uses a table which has already been computed instead of computing one from the model.  The table is not
+	 * modified and can be shared with other instances.
+	 *
+	 * @param table Precomputed distortion from the dst to src image.
+	 */
+	public void setTable( PixelTransformTable_F32 table ) {
+		this.table = table;
+		this.ownsTable = false;
+		this.dstToSrc = null;
+		this.dirty = false;
+	}
+
+	/**
+	 * Returns the table which stores the cached distortion
+	 */
+	public PixelTransformTable_F32 getTable() {
+		return table;
+	}
+
 	@Override
 	public void apply(Input srcImg, Output dstImg) {
 		init(srcImg, dstImg);
@@ -92,55 +134,87 @@ public abstract class ImageDistortCache_SB<Input extends ImageGray<Input>,Output
 	}
 
 	private void init(Input srcImg, Output dstImg) {
-		if( dirty || width != dstImg.width || height != dstImg.height) {
-			width = dstImg.width;
-			height = dstImg.height;
-			map = new Point2D_F32[width*height];
-			for( int i = 0; i < map.length; i++ ) {
-				map[i] = new Point2D_F32();
-			}
-
-			int index = 0;
-			for( int y = 0; y < height; y++ ) {
-				for( int x = 0; x < width; x++ ) {
-					dstToSrc.compute(x,y);
-					map[index++].set(dstToSrc.distX,dstToSrc.distY);
-				}
+		if( dirty || !table.isShape(dstImg.width, dstImg.height) ) {
+			if( dstToSrc == null )
+				throw new IllegalArgumentException("Unexpected dstImg dimension");
+			if( !ownsTable ) {
+				// don't modify a table which might be shared with other instances
+				table = new PixelTransformTable_F32();
+				ownsTable = true;
 			}
+			table.compute(dstToSrc, dstImg.width, dstImg.height);
 			dirty = false;
-		} else if( dstImg.width != width || dstImg.height != height )
-			throw new IllegalArgumentException("Unexpected dstImg dimension");
+		}
 
 		this.srcImg = srcImg;
 		this.dstImg = dstImg;
 		interp.setImage(srcImg);
+		if( concurrent ) {
+			// borders are shared so set the image here instead of inside the threads
+			workspaces.resize(BoofConcurrency.getMaxThreads());
+			for (int i = 0; i < workspaces.size; i++) {
+				workspaces.get(i).setImage(srcImg);
+			}
+		}
 	}
 
 	public void renderAll() {
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(y0, y1, workspaces, new IntRangeObjectConsumer<InterpolatePixelS<Input>>() {
+				@Override
+				public void accept(InterpolatePixelS<Input> interp, int minInclusive, int maxExclusive) {
+					renderAll(interp, minInclusive, maxExclusive);
+				}
+			});
+		} else {
+			renderAll(interp, y0, y1);
+		}
+	}
+
+	private void renderAll( InterpolatePixelS<Input> interp , int y0 , int y1 ) {
+		final float[] map = table.data;
+		final int width = table.getWidth();
 
-		// todo TO make this faster first apply inside the region which can process the fast border
-		// then do the slower border thingy
+		// interpolate an entire row at once then copy it into the output image
+		final float[] values = new float[x1-x0];
 		for( int y = y0; y < y1; y++ ) {
 			int indexDst = dstImg.startIndex + dstImg.stride*y + x0;
-			for( int x = x0; x < x1; x++ , indexDst++ ) {
-				Point2D_F32 s = map[indexDst];
-
-				assign(indexDst,interp.get(s.x, s.y));
+			interp.get(map, 2*(y*width + x0), values.length, values, 0);
+			for( int i = 0; i < values.length; i++ , indexDst++ ) {
+				assign(indexDst,values[i]);
 			}
 		}
 	}
 
 	public void applyOnlyInside() {
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(y0, y1, workspaces, new IntRangeObjectConsumer<InterpolatePixelS<Input>>() {
+				@Override
+				public void accept(InterpolatePixelS<Input> interp, int minInclusive, int maxExclusive) {
+					applyOnlyInside(interp, minInclusive, maxExclusive);
+				}
+			});
+		} else {
+			applyOnlyInside(interp, y0, y1);
+		}
+	}
+
+	private void applyOnlyInside( InterpolatePixelS<Input> interp , int y0 , int y1 ) {
+		final float[] map = table.data;
+		final int width = table.getWidth();
+
 		float maxWidth = srcImg.getWidth()-1;
 		float maxHeight = srcImg.getHeight()-1;
 
 		for( int y = y0; y < y1; y++ ) {
 			int indexDst = dstImg.startIndex + dstImg.stride*y + x0;
-			for( int x = x0; x < x1; x++ , indexDst++ ) {
-				Point2D_F32 s = map[indexDst];
+			int indexMap = 2*(y*width + x0);
+			for( int x = x0; x < x1; x++ , indexDst++ , indexMap += 2 ) {
+				float sx = map[indexMap];
+				float sy = map[indexMap+1];
 
-				if( s.x >= 0 && s.x <= maxWidth && s.y >= 0 && s.y <= maxHeight ) {
-					assign(indexDst,interp.get(s.x, s.y));
+				if( sx >= 0 && sx <= maxWidth && sy >= 0 && sy <= maxHeight ) {
+					assign(indexDst,interp.get(sx, sy));
 				}
 			}
 		}
@@ -157,4 +231,16 @@ public abstract class ImageDistortCache_SB<Input extends ImageGray<Input>,Output
 	public boolean getRenderAll() {
 		return renderAll;
 	}
+
+	public boolean isConcurrent() {
+		return concurrent;
+	}
+
+	/**
+	 * If true then rows in the output image are rendered using multiple threads.  Results are identical to
+	 * processing with a single thread.
+	 */
+	public void setConcurrent(boolean concurrent) {
+		this.concurrent = concurrent;
+	}
 }
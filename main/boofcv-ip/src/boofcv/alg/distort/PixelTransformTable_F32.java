@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.distort;
+
+import boofcv.struct.distort.PixelTransform2_F32;
+
+/**
+ * <p>
+ * Lookup table which stores the output of a {@link PixelTransform2_F32} for every pixel in an image.  Coordinates
+ * are stored in a single packed array as interleaved (x,y) pairs, which uses 8 bytes per pixel and doesn't create
+ * any objects the garbage collector needs to track.
+ * </p>
+ *
+ * <p>
+ * Once computed the table is only read from and can be safely shared between threads and between multiple
+ * {@link ImageDistort} instances.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class PixelTransformTable_F32 {
+	// shape of the table
+	private int width, height;
+
+	/**
+	 * Transformed coordinates for each pixel.  Pixel (x,y) is at index 2*(y*width+x).  x-coordinate comes first.
+	 */
+	public float data[] = new float[0];
+
+	public PixelTransformTable_F32() {
+	}
+
+	/**
+	 * Creates and computes the table
+	 *
+	 * @see #compute(PixelTransform2_F32, int, int)
+	 */
+	public PixelTransformTable_F32(PixelTransform2_F32 transform, int width, int height) {
+		compute(transform, width, height);
+	}
+
+	/**
+	 * Computes the transform at every pixel inside an image with the specified shape.
+	 *
+	 * @param transform The transform
+	 * @param width Image width
+	 * @param height Image height
+	 */
+	public void compute(PixelTransform2_F32 transform, int width, int height) {
+		this.width = width;
+		this.height = height;
+
+		int N = 2*width*height;
+		if( data.length != N )
+			data = new float[N];
+
+		int index = 0;
+		for( int y = 0; y < height; y++ ) {
+			for( int x = 0; x < width; x++ ) {
+				transform.compute(x,y);
+				data[index++] = transform.distX;
+				data[index++] = transform.distY;
+			}
+		}
+	}
+
+	/**
+	 * Returns true if the table was computed for an image with the specified shape
+	 */
+	public boolean isShape( int width , int height ) {
+		return this.width == width && this.height == height;
+	}
+
+	/**
+	 * Transformed x-coordinate of pixel (x,y)
+	 */
+	public float getX( int x , int y ) {
+		return data[2*(y*width+x)];
+	}
+
+	/**
+	 * Transformed y-coordinate of pixel (x,y)
+	 */
+	public float getY( int x , int y ) {
+		return data[2*(y*width+x)+1];
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.filter.binary;
+
+import boofcv.struct.PackedSetsPoint2D_I32;
+import org.ddogleg.struct.GrowQueue_I32;
+
+/**
+ * Internal and external contours for a binary blob.  Instead of storing the points directly they are stored
+ * in a {@link PackedSetsPoint2D_I32} and this contains the index of each contour's set.
+ *
+ * @author Peter Abeles
+ */
+public class ContourPacked {
+	/**
+	 * ID of blob in the image.  Pixels belonging to this blob in the labeled image will have this pixel value.
+	 */
+	public int id;
+	/**
+	 * Index of the set containing the external contour
+	 */
+	public int externalIndex;
+	/**
+	 * Index of sets containing internal contours
+	 */
+	public GrowQueue_I32 internalIndexes = new GrowQueue_I32();
+
+	public void reset() {
+		id = -1;
+		externalIndex = -1;
+		internalIndexes.reset();
+	}
+}
@@ -19,12 +19,9 @@
 package boofcv.alg.filter.binary;
 
 import boofcv.struct.ConnectRule;
+import boofcv.struct.PackedSetsPoint2D_I32;
 import boofcv.struct.image.GrayS32;
 import boofcv.struct.image.GrayU8;
-import georegression.struct.point.Point2D_I32;
-import org.ddogleg.struct.FastQueue;
-
-import java.util.List;
 
 /**
  * Used to trace the external and internal contours around objects for {@link LinearContourLabelChang2004}.  As it
@@ -39,16 +36,20 @@ public class ContourTracer {
 	private ConnectRule rule;
 	private int ruleN;
 
-	// storage for contour points.
-	private FastQueue<Point2D_I32> storagePoints;
+	// storage for contour points.  Points are added to the tail set
+	private PackedSetsPoint2D_I32 storagePoints;
 
 	// binary image being traced
 	private GrayU8 binary;
 	// label image being marked
 	private GrayS32 labeled;
 
-	// storage for contour
-	private List<Point2D_I32> contour;
+	// if points in the contour are saved or not
+	private boolean saveContour;
+	// number of points in the contour being traced
+	private int numPoints;
+	// points after this many are not saved
+	private int maxContourSize = Integer.MAX_VALUE;
 
 	// coordinate of pixel being examined (x,y)
 	private int x,y;
@@ -98,9 +99,9 @@ public class ContourTracer {
 	 *
 	 * @param binary Binary image with a border of zeros added to the outside.
 	 * @param labeled Labeled image.  Size is the same as the original binary image without border.
-	 * @param storagePoints
+	 * @param storagePoints Storage for contour points.  Points are added to the tail set.
 	 */
-	public void setInputs(GrayU8 binary , GrayS32 labeled , FastQueue<Point2D_I32> storagePoints ) {
+	public void setInputs(GrayU8 binary , GrayS32 labeled , PackedSetsPoint2D_I32 storagePoints ) {
 		this.binary = binary;
 		this.labeled = labeled;
 		this.storagePoints = storagePoints;
@@ -135,14 +136,17 @@ public class ContourTracer {
 	}
 
 	/**
+	 * Traces a contour and labels the pixels along it.  The contour is always traced in its entirety since
+	 * the labeling depends on it, even if its points aren't saved.
 	 *
-	 * @param label
-	 * @param initialX
-	 * @param initialY
+	 * @param label Label assigned to the blob
+	 * @param initialX Initial x-coordinate in the binary image with the border
+	 * @param initialY Initial y-coordinate in the binary image with the border
 	 * @param external True for tracing an external contour or false for internal..
-	 * @param contour
+	 * @param saveContour If true the contour's points are added to the tail set of the point storage
+	 * @return false if the contour had more points than the maximum, which were not saved
 	 */
-	public void trace( int label , int initialX , int initialY , boolean external , List<Point2D_I32> contour )
+	public boolean trace( int label , int initialX , int initialY , boolean external , boolean saveContour )
 	{
 		int initialDir;
 		if( rule == ConnectRule.EIGHT )
@@ -151,7 +155,8 @@ public class ContourTracer {
 			initialDir = external ? 0 : 2;
 
 		this.label = label;
-		this.contour = contour;
+		this.saveContour = saveContour;
+		this.numPoints = 0;
 		this.dir = initialDir;
 		x = initialX;
 		y = initialY;
@@ -164,7 +169,7 @@ public class ContourTracer {
 
 		// find the next black pixel.  handle case where its an isolated point
 		if( !searchBlack() ) {
-			return;
+			return true;
 		} else {
 			initialDir = dir;
 			moveToNext();
@@ -176,7 +181,7 @@ public class ContourTracer {
 			searchBlack();
 			if( x == initialX && y == initialY && dir == initialDir ) {
 				// returned to the initial state again. search is finished
-				return;
+				return numPoints <= maxContourSize;
 			}else {
 				add(x, y);
 				moveToNext();
@@ -225,10 +230,22 @@ public class ContourTracer {
 	 * Adds a point to the contour list
 	 */
 	private void add( int x , int y ) {
-		Point2D_I32 p = storagePoints.grow();
-		// compensate for the border added to binary image
-		p.set(x-1, y-1);
-		contour.add(p);
+		numPoints++;
+		if( saveContour && numPoints <= maxContourSize ) {
+			// compensate for the border added to binary image
+			storagePoints.addPointToTail(x-1, y-1);
+		}
 		labeled.data[indexLabel] = label;
 	}
+
+	public int getMaxContourSize() {
+		return maxContourSize;
+	}
+
+	/**
+	 * Specifies the maximum number of points which will be saved in a contour.
+	 */
+	public void setMaxContourSize(int maxContourSize) {
+		this.maxContourSize = maxContourSize;
+	}
 }
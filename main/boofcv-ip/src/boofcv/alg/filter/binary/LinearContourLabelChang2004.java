@@ -19,11 +19,16 @@
 package boofcv.alg.filter.binary;
 
 import boofcv.alg.misc.ImageMiscOps;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeConsumer;
+import boofcv.concurrency.IntRangeObjectConsumer;
 import boofcv.struct.ConnectRule;
+import boofcv.struct.PackedSetsPoint2D_I32;
 import boofcv.struct.image.GrayS32;
 import boofcv.struct.image.GrayU8;
 import georegression.struct.point.Point2D_I32;
 import org.ddogleg.struct.FastQueue;
+import org.ddogleg.struct.GrowQueue_I32;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -48,6 +53,22 @@ import java.util.List;
  * </p>
  *
  * <p>
+ * Contour points are stored in a {@link PackedSetsPoint2D_I32}, see {@link #getPackedPoints()} and
+ * {@link #getPackedContours()}.  The older {@link #getContours() list based format} is created from the
+ * packed format when requested.  To reduce the amount of work done on noisy images, internal contours don't
+ * need to be saved and contours which are too long can be discarded.  Contours are always traced since labeling
+ * depends on them.
+ * </p>
+ *
+ * <p>
+ * When processed concurrently the image is broken up into horizontal strips and each strip is labeled
+ * independently.  Blobs which touch the boundary between two strips are then labeled again in a single pass
+ * over the rows which contain them, which merges their pieces together.  Finally, blobs are sorted
+ * by their first pixel, which is the order the single threaded algorithm finds them in.  Results are identical
+ * to processing with a single thread.
+ * </p>
+ *
+ * <p>
  * [1] Fu Chang and Chun-jen Chen and Chi-jen Lu, "A linear-time component-labeling algorithm using contour
  * tracing technique" Computer Vision and Image Understanding, 2004
  * </p>
@@ -56,19 +77,46 @@ import java.util.List;
  */
 public class LinearContourLabelChang2004 {
 
-	// traces edge pixels
-	private ContourTracer tracer;
+	// which connectivity rule is being used
+	private ConnectRule rule;
 
 	// binary image with a border of zero.
 	private GrayU8 border = new GrayU8(1,1);
 
-	// predeclared/recycled data structures
+	// labels the whole image when single threaded and blobs between strips when concurrent
+	private Labeler labeler;
+
+	// storage for contour points and the contours which reference them
+	private PackedSetsPoint2D_I32 packedPoints = new PackedSetsPoint2D_I32();
+	private FastQueue<ContourPacked> packedContours = new FastQueue<>(ContourPacked.class, true);
+
+	// contours which were found by the labeler when it was merging strips
+	private PackedSetsPoint2D_I32 mergedPoints = new PackedSetsPoint2D_I32();
+	private FastQueue<ContourPacked> mergedContours = new FastQueue<>(ContourPacked.class, true);
+	// the final label of each merged contour
+	private GrowQueue_I32 mergedLabels = new GrowQueue_I32();
+
+	// predeclared/recycled data structures for contours in the list format
 	private FastQueue<Point2D_I32> storagePoints = new FastQueue<>(Point2D_I32.class, true);
 	private FastQueue<List<Point2D_I32>> storageLists = new FastQueue<>((Class) ArrayList.class, true);
 	private FastQueue<Contour> contours = new FastQueue<>(Contour.class, true);
+	// true if contours in the list format are up to date
+	private boolean contoursCurrent = false;
 
-	// internal book keeping variables
-	private int x,y,indexIn,indexOut;
+	// if true then internal contours are saved
+	private boolean saveInternalContours = true;
+	// contours with more points than this are discarded
+	private int maxContourSize = Integer.MAX_VALUE;
+
+	// if true then the image is processed using multiple threads
+	private boolean concurrent = false;
+	// minimum number of rows in a strip
+	private int minimumStripHeight = 40;
+	// workspace for each strip
+	private FastQueue<Strip> strips;
+
+	// storage for sub-images
+	private GrayS32 subLabeled = new GrayS32();
 
 	/**
 	 * Configures the algorithm.
@@ -76,7 +124,16 @@ public class LinearContourLabelChang2004 {
 	 * @param rule Connectivity rule.  4 or 8
 	 */
 	public LinearContourLabelChang2004( ConnectRule rule ) {
-		tracer = new ContourTracer(rule);
+		if( rule != ConnectRule.FOUR && rule != ConnectRule.EIGHT )
+			throw new IllegalArgumentException("Connectivity rule must be 4 or 8 not "+rule);
+		this.rule = rule;
+		this.labeler = new Labeler();
+		this.strips = new FastQueue<Strip>((Class)Strip.class, true) {
+			@Override
+			protected Strip createInstance() {
+				return new Strip();
+			}
+		};
 	}
 
 	/**
@@ -86,95 +143,432 @@ public class LinearContourLabelChang2004 {
 	 * @param labeled Output. Labeled image.  Modified.
 	 */
 	public void process(GrayU8 binary , GrayS32 labeled ) {
-		// initialize data structures
+		contoursCurrent = false;
 
-		// ensure that the image border pixels are filled with zero by enlarging the image
-		if( border.width != binary.width+2 || border.height != binary.height+2)  {
-			border.reshape(binary.width + 2, binary.height + 2);
-			ImageMiscOps.fillBorder(border, 0, 1);
+		if( concurrent ) {
+			processConcurrent(binary, labeled);
+		} else {
+			// labeled image must initially be filled with zeros
+			ImageMiscOps.fill(labeled,0);
+
+			addBorder(binary, 0, binary.height, border);
+			labeler.process(border, labeled, packedPoints, packedContours);
 		}
-		border.subimage(1,1,border.width-1,border.height-1, null).setTo(binary);
+	}
 
-		// labeled image must initially be filled with zeros
-		ImageMiscOps.fill(labeled,0);
+	/**
+	 * Labels each strip independently then merges together the blobs which touch the boundary between strips
+	 */
+	private void processConcurrent( final GrayU8 binary , final GrayS32 labeled ) {
+		BoofConcurrency.loopBlocks(0, binary.height, minimumStripHeight, strips,
+				new IntRangeObjectConsumer<Strip>() {
+			@Override
+			public void accept(Strip strip, int index0, int index1) {
+				strip.process(binary, labeled, index0, index1);
+			}
+		});
 
-		binary = border;
-		storagePoints.reset();
-		storageLists.reset();
-		contours.reset();
-		tracer.setInputs(binary,labeled,storagePoints);
+		// blobs which cross between strips are all inside of these rows.  The row just before and after
+		// can't contain any blobs, since they would have touched the boundary of their strip
+		int row0 = -1, row1 = -1;
+		for (int i = 0; i < strips.size; i++) {
+			Strip s = strips.get(i);
+			if( s.hasCrossing ) {
+				if( row0 < 0 )
+					row0 = s.row0;
+				row1 = s.row1;
+			}
+		}
 
-		// Outside border is all zeros so it can be ignored
-		for( y = 1; y < binary.height-1; y++ ) {
-			indexIn = binary.startIndex + y*binary.stride+1;
-			indexOut = labeled.startIndex + (y-1)*labeled.stride;
+		if( row0 >= 0 ) {
+			addBorder(binary, row0, row1, border);
+			labeled.subimage(0, row0, labeled.width, row1, subLabeled);
+			labeler.process(border, subLabeled, mergedPoints, mergedContours);
+		} else {
+			mergedPoints.reset();
+			mergedContours.reset();
+			labeler.starts.reset();
+		}
 
-			for( x = 1; x < binary.width-1; x++ , indexIn++ , indexOut++) {
-				int bit = binary.data[indexIn];
+		sortContours(binary.width, row0);
 
-				// white pixels are ignored
-				if( !(bit == 1) )
-					continue;
+		// change the labels into their final values
+		BoofConcurrency.loopBlocks(0, strips.size, new IntRangeConsumer() {
+			@Override
+			public void accept(int index0, int index1) {
+				for (int i = index0; i < index1; i++) {
+					strips.get(i).relabel(labeled);
+				}
+			}
+		});
+	}
 
-				int label = labeled.data[indexOut];
+	/**
+	 * Adds contours from the strips and merged blobs to the output in the order the single threaded algorithm
+	 * would find them.  This is the order of the first pixel in each blob.
+	 */
+	private void sortContours( int width , int mergedRow0 ) {
+		packedPoints.reset();
+		packedContours.reset();
+		mergedLabels.resize(mergedContours.size);
 
-//				long startTraceTime = System.currentTimeMillis();
-				boolean handled = false;
-				if( label == 0 && binary.data[indexIn - binary.stride ] != 1 ) {
-					handleStep1();
-					handled = true;
-					label = contours.size;
-				}
-				// could be an external and internal contour
-				if( binary.data[indexIn + binary.stride ] == 0 ) {
-					handleStep2(labeled, label);
-					handled = true;
-				}
-				if( !handled ) {
-					handleStep3(labeled);
+		int indexMerged = 0;
+		for (int i = 0; i < strips.size; i++) {
+			Strip s = strips.get(i);
+			s.finalLabels.resize(s.contours.size);
+
+			for (int j = 0; j < s.contours.size; j++) {
+				if( s.crossing[j] )
+					continue;
+
+				int first = s.firstPixel(j, width, s.row0);
+				while( indexMerged < mergedContours.size &&
+						labeler.firstPixel(indexMerged, width, mergedRow0) < first ) {
+					mergedLabels.data[indexMerged] =
+							addContour(mergedPoints, mergedContours.get(indexMerged), mergedRow0);
+					indexMerged++;
 				}
+				s.finalLabels.data[j] = addContour(s.points, s.contours.get(j), s.row0);
 			}
 		}
+		while( indexMerged < mergedContours.size ) {
+			mergedLabels.data[indexMerged] =
+					addContour(mergedPoints, mergedContours.get(indexMerged), mergedRow0);
+			indexMerged++;
+		}
+	}
+
+	/**
+	 * Copies a contour into the output
+	 *
+	 * @return label of the contour
+	 */
+	private int addContour( PackedSetsPoint2D_I32 points , ContourPacked src , int offsetY ) {
+		ContourPacked dst = packedContours.grow();
+		dst.reset();
+		dst.id = packedContours.size;
+
+		packedPoints.appendSet(points, src.externalIndex, 0, offsetY);
+		dst.externalIndex = packedPoints.size()-1;
+		for (int i = 0; i < src.internalIndexes.size; i++) {
+			packedPoints.appendSet(points, src.internalIndexes.get(i), 0, offsetY);
+			dst.internalIndexes.add(packedPoints.size()-1);
+		}
+		return dst.id;
 	}
 
+	/**
+	 * Copies the rows from the binary image into an image with a border of zeros
+	 */
+	private static void addBorder( GrayU8 binary , int row0 , int row1 , GrayU8 border ) {
+		// ensure that the image border pixels are filled with zero by enlarging the image
+		if( border.width != binary.width+2 || border.height != row1-row0+2)  {
+			border.reshape(binary.width + 2, row1-row0 + 2);
+			ImageMiscOps.fillBorder(border, 0, 1);
+		}
+		border.subimage(1,1,border.width-1,border.height-1, null).
+				setTo(binary.subimage(0, row0, binary.width, row1, null));
+	}
+
+	/**
+	 * Returns the contours in the list format.  Created from the packed format the first time it's called after
+	 * an image has been processed.
+	 */
 	public FastQueue<Contour> getContours() {
+		if( !contoursCurrent ) {
+			storagePoints.reset();
+			storageLists.reset();
+			contours.reset();
+
+			for (int i = 0; i < packedContours.size; i++) {
+				ContourPacked p = packedContours.get(i);
+				Contour c = contours.grow();
+				c.reset();
+				c.id = p.id;
+				packedPoints.getSet(p.externalIndex, storagePoints, c.external);
+				for (int j = 0; j < p.internalIndexes.size; j++) {
+					List<Point2D_I32> inner = storageLists.grow();
+					packedPoints.getSet(p.internalIndexes.get(j), storagePoints, inner);
+					c.internal.add(inner);
+				}
+			}
+			contoursCurrent = true;
+		}
 		return contours;
 	}
 
 	/**
-	 *  Step 1: If the pixel is unlabeled and the pixel above is white, then it
-	 *          must be an external contour of a newly encountered blob.
+	 * Contours of each blob.  The points are stored in {@link #getPackedPoints()}.
+	 */
+	public FastQueue<ContourPacked> getPackedContours() {
+		return packedContours;
+	}
+
+	/**
+	 * Storage for all the contour points
 	 */
-	private void handleStep1() {
-		Contour c = contours.grow();
-		c.reset();
-		c.id = contours.size();
-		tracer.trace(contours.size(),x,y,true,c.external);
+	public PackedSetsPoint2D_I32 getPackedPoints() {
+		return packedPoints;
+	}
+
+	public ConnectRule getConnectRule() {
+		return rule;
+	}
+
+	public boolean isSaveInternalContours() {
+		return saveInternalContours;
 	}
 
 	/**
-	 * Step 2: If the pixel below is unmarked and white then it must be an internal contour
-	 *         Same behavior it the pixel in question has been labeled or not already
+	 * If false then internal contours are not saved.  They are still traced.
 	 */
-	private void handleStep2(GrayS32 labeled, int label) {
-		// if the blob is not labeled and in this state it cannot be against the left side of the image
-		if( label == 0 )
-			label = labeled.data[indexOut-1];
+	public void setSaveInternalContours(boolean saveInternalContours) {
+		this.saveInternalContours = saveInternalContours;
+	}
 
-		Contour c = contours.get(label-1);
-		List<Point2D_I32> inner = storageLists.grow();
-		inner.clear();
-		c.internal.add(inner);
-		tracer.trace(label,x,y,false,inner);
+	public int getMaxContourSize() {
+		return maxContourSize;
 	}
 
 	/**
-	 * Step 3: Must not be part of the contour but an inner pixel and the pixel to the left must be
-	 *         labeled
+	 * Specifies the maximum number of points in a contour.  Points in contours which are longer are discarded.
+	 * An external contour which is too long will have zero points and an internal contour which is too long is
+	 * removed.
 	 */
-	private void handleStep3(GrayS32 labeled) {
-		if( labeled.data[indexOut] == 0 )
-			labeled.data[indexOut] = labeled.data[indexOut-1];
+	public void setMaxContourSize(int maxContourSize) {
+		this.maxContourSize = maxContourSize;
+	}
+
+	public boolean isConcurrent() {
+		return concurrent;
 	}
 
+	/**
+	 * If true then the image is processed using multiple threads.  Results are identical to processing with a
+	 * single thread.
+	 */
+	public void setConcurrent(boolean concurrent) {
+		this.concurrent = concurrent;
+	}
+
+	public int getMinimumStripHeight() {
+		return minimumStripHeight;
+	}
+
+	/**
+	 * Specifies the minimum number of rows in each strip when processed concurrently
+	 */
+	public void setMinimumStripHeight(int minimumStripHeight) {
+		this.minimumStripHeight = minimumStripHeight;
+	}
+
+	/**
+	 * Labels an image and traces contours in a single pass.  Pixels which have a negative label are assumed to
+	 * have already been handled and are skipped.
+	 */
+	class Labeler {
+		// traces edge pixels
+		ContourTracer tracer = new ContourTracer(rule);
+
+		// where contours are stored
+		PackedSetsPoint2D_I32 points;
+		FastQueue<ContourPacked> contours;
+		// coordinate of the first pixel in each contour. x and y are interleaved
+		GrowQueue_I32 starts = new GrowQueue_I32();
+
+		// internal book keeping variables
+		private int x,y,indexIn,indexOut;
+
+		/**
+		 * @param binary Binary image with a border of zeros
+		 * @param labeled Labeled image.  Same shape as binary without the border.
+		 */
+		void process( GrayU8 binary , GrayS32 labeled ,
+					  PackedSetsPoint2D_I32 points , FastQueue<ContourPacked> contours ) {
+			this.points = points;
+			this.contours = contours;
+			points.reset();
+			contours.reset();
+			starts.reset();
+			tracer.setMaxContourSize(maxContourSize);
+			tracer.setInputs(binary,labeled,points);
+
+			// Outside border is all zeros so it can be ignored
+			for( y = 1; y < binary.height-1; y++ ) {
+				indexIn = binary.startIndex + y*binary.stride+1;
+				indexOut = labeled.startIndex + (y-1)*labeled.stride;
+
+				for( x = 1; x < binary.width-1; x++ , indexIn++ , indexOut++) {
+					int bit = binary.data[indexIn];
+
+					// white pixels are ignored
+					if( !(bit == 1) )
+						continue;
+
+					int label = labeled.data[indexOut];
+
+					// blob has already been handled
+					if( label < 0 )
+						continue;
+
+					boolean handled = false;
+					if( label == 0 && binary.data[indexIn - binary.stride ] != 1 ) {
+						handleStep1();
+						handled = true;
+						label = contours.size;
+					}
+					// could be an external and internal contour
+					if( binary.data[indexIn + binary.stride ] == 0 ) {
+						handleStep2(labeled, label);
+						handled = true;
+					}
+					if( !handled ) {
+						handleStep3(labeled);
+					}
+				}
+			}
+		}
+
+		/**
+		 *  Step 1: If the pixel is unlabeled and the pixel above is white, then it
+		 *          must be an external contour of a newly encountered blob.
+		 */
+		private void handleStep1() {
+			ContourPacked c = contours.grow();
+			c.reset();
+			c.id = contours.size();
+			starts.add(x-1);
+			starts.add(y-1);
+
+			points.grow();
+			c.externalIndex = points.size()-1;
+			if( !tracer.trace(c.id,x,y,true,true) ) {
+				// too long. keep an empty contour so that the index still matches the label
+				points.removeTail();
+				points.grow();
+			}
+		}
+
+		/**
+		 * Step 2: If the pixel below is unmarked and white then it must be an internal contour
+		 *         Same behavior it the pixel in question has been labeled or not already
+		 */
+		private void handleStep2(GrayS32 labeled, int label) {
+			// if the blob is not labeled and in this state it cannot be against the left side of the image
+			if( label == 0 )
+				label = labeled.data[indexOut-1];
+
+			if( saveInternalContours ) {
+				ContourPacked c = contours.get(label-1);
+				points.grow();
+				if( tracer.trace(label,x,y,false,true) ) {
+					c.internalIndexes.add(points.size()-1);
+				} else {
+					points.removeTail();
+				}
+			} else {
+				tracer.trace(label,x,y,false,false);
+			}
+		}
+
+		/**
+		 * Step 3: Must not be part of the contour but an inner pixel and the pixel to the left must be
+		 *         labeled
+		 */
+		private void handleStep3(GrayS32 labeled) {
+			if( labeled.data[indexOut] == 0 )
+				labeled.data[indexOut] = labeled.data[indexOut-1];
+		}
+
+		/**
+		 * Index of the first pixel in a contour in the full image
+		 */
+		int firstPixel( int contour , int width , int offsetY ) {
+			return (starts.data[contour*2+1]+offsetY)*width + starts.data[contour*2];
+		}
+	}
+
+	/**
+	 * Labels a range of rows in the image
+	 */
+	class Strip extends Labeler {
+		// binary image of the strip with a border of zeros
+		GrayU8 border = new GrayU8(1,1);
+		GrayS32 subLabeled = new GrayS32();
+
+		// rows in the image which this strip covers
+		int row0, row1;
+
+		// true for blobs which touch the boundary of the strip
+		boolean crossing[] = new boolean[0];
+		boolean hasCrossing;
+
+		// label of each contour after the strips have been combined
+		GrowQueue_I32 finalLabels = new GrowQueue_I32();
+
+		Strip() {
+			points = new PackedSetsPoint2D_I32();
+			contours = new FastQueue<>(ContourPacked.class, true);
+		}
+
+		void process( GrayU8 binary , GrayS32 labeled , int row0 , int row1 ) {
+			this.row0 = row0;
+			this.row1 = row1;
+
+			addBorder(binary, row0, row1, border);
+			labeled.subimage(0, row0, labeled.width, row1, subLabeled);
+			ImageMiscOps.fill(subLabeled, 0);
+
+			process(border, subLabeled, points, contours);
+
+			// find blobs which might be connected to blobs in another strip
+			if( crossing.length < contours.size )
+				crossing = new boolean[contours.size];
+			for (int i = 0; i < contours.size; i++) {
+				crossing[i] = false;
+			}
+			hasCrossing = false;
+			if( row0 > 0 )
+				markCrossing(0);
+			if( row1 < labeled.height )
+				markCrossing(subLabeled.height-1);
+
+			// blobs which cross are labeled again later.  The others are marked as being done
+			for (int y = 0; y < subLabeled.height; y++) {
+				int index = subLabeled.startIndex + y*subLabeled.stride;
+				for (int x = 0; x < subLabeled.width; x++, index++) {
+					int label = subLabeled.data[index];
+					if( label > 0 )
+						subLabeled.data[index] = crossing[label-1] ? 0 : -label;
+				}
+			}
+		}
+
+		private void markCrossing( int row ) {
+			int index = subLabeled.startIndex + row*subLabeled.stride;
+			for (int x = 0; x < subLabeled.width; x++, index++) {
+				int label = subLabeled.data[index];
+				if( label > 0 ) {
+					crossing[label-1] = true;
+					hasCrossing = true;
+				}
+			}
+		}
+
+		/**
+		 * Changes labels into their final values
+		 */
+		void relabel( GrayS32 labeled ) {
+			for (int y = row0; y < row1; y++) {
+				int index = labeled.startIndex + y*labeled.stride;
+				for (int x = 0; x < labeled.width; x++, index++) {
+					int label = labeled.data[index];
+					if( label < 0 )
+						labeled.data[index] = finalLabels.data[-label-1];
+					else if( label > 0 )
+						labeled.data[index] = mergedLabels.data[label-1];
+				}
+			}
+		}
+	}
 }
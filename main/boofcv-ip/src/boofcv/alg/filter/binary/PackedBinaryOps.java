@@ -0,0 +1,413 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.filter.binary;
+
+import boofcv.alg.filter.binary.impl.ImplBinaryPackedOps;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeConsumer;
+import boofcv.struct.image.GrayU8;
+import boofcv.struct.image.PackedBinaryImage;
+
+/**
+ * <p>
+ * Binary operations on {@link PackedBinaryImage}.  These are the same operations found in {@link BinaryImageOps},
+ * but 64 pixels are processed at once.  Each function optionally splits the rows between threads.
+ * </p>
+ *
+ * <p>
+ * Pixels outside the image are handled the same way as in
+ * {@link boofcv.alg.filter.binary.impl.ImplBinaryNaiveOps}.  The only difference from {@link BinaryImageOps} is
+ * erode4 at the image corners, where {@link BinaryImageOps} always outputs zero.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class PackedBinaryOps {
+
+	/**
+	 * Converts a binary {@link GrayU8} image into a {@link PackedBinaryImage}.  Any pixel which is not zero is
+	 * considered true.
+	 *
+	 * @param input Input image. Not modified.
+	 * @param output Output image.  If null a new instance will be declared, Modified.
+	 * @param concurrent If true then rows are split between threads.  Results are identical.
+	 * @return The packed image
+	 */
+	public static PackedBinaryImage pack(final GrayU8 input, PackedBinaryImage output, boolean concurrent) {
+		final PackedBinaryImage out = declare(input.width, input.height, output);
+
+		loopRows(out, concurrent, new IntRangeConsumer() {
+			@Override
+			public void accept(int row0, int row1) {
+				ImplBinaryPackedOps.pack(input, out, row0, row1);
+			}
+		});
+		return out;
+	}
+
+	public static PackedBinaryImage pack(GrayU8 input, PackedBinaryImage output) {
+		return pack(input, output, false);
+	}
+
+	/**
+	 * Converts a {@link PackedBinaryImage} into a binary {@link GrayU8} image with values of 0 and 1.
+	 *
+	 * @param input Input image. Not modified.
+	 * @param output Output image.  If null a new instance will be declared, Modified.
+	 * @param concurrent If true then rows are split between threads.  Results are identical.
+	 * @return The unpacked image
+	 */
+	public static GrayU8 unpack(final PackedBinaryImage input, GrayU8 output, boolean concurrent) {
+		if( output == null )
+			output = new GrayU8(input.width, input.height);
+		else if( output.width != input.width || output.height != input.height )
+			output.reshape(input.width, input.height);
+
+		final GrayU8 out = output;
+		loopRows(input, concurrent, new IntRangeConsumer() {
+			@Override
+			public void accept(int row0, int row1) {
+				ImplBinaryPackedOps.unpack(input, out, row0, row1);
+			}
+		});
+		return out;
+	}
+
+	public static GrayU8 unpack(PackedBinaryImage input, GrayU8 output) {
+		return unpack(input, output, false);
+	}
+
+	/**
+	 * For each pixel it applies the logical 'and' operator between two images.
+	 *
+	 * @param inputA First input image. Not modified.
+	 * @param inputB Second input image. Not modified.
+	 * @param output Output image. Can be same as either input.  If null a new instance will be declared, Modified.
+	 * @param concurrent If true then rows are split between threads.  Results are identical.
+	 * @return Output of logical operation.
+	 */
+	public static PackedBinaryImage logicAnd(final PackedBinaryImage inputA, final PackedBinaryImage inputB,
+											 PackedBinaryImage output, boolean concurrent) {
+		checkSameShape(inputA, inputB);
+		final PackedBinaryImage out = declare(inputA.width, inputA.height, output);
+
+		loopRows(out, concurrent, new IntRangeConsumer() {
+			@Override
+			public void accept(int row0, int row1) {
+				ImplBinaryPackedOps.logicAnd(inputA, inputB, out, row0, row1);
+			}
+		});
+		return out;
+	}
+
+	public static PackedBinaryImage logicAnd(PackedBinaryImage inputA, PackedBinaryImage inputB,
+											 PackedBinaryImage output) {
+		return logicAnd(inputA, inputB, output, false);
+	}
+
+	/**
+	 * For each pixel it applies the logical 'or' operator between two images.
+	 *
+	 * @param inputA First input image. Not modified.
+	 * @param inputB Second input image. Not modified.
+	 * @param output Output image. Can be same as either input.  If null a new instance will be declared, Modified.
+	 * @param concurrent If true then rows are split between threads.  Results are identical.
+	 * @return Output of logical operation.
+	 */
+	public static PackedBinaryImage logicOr(final PackedBinaryImage inputA, final PackedBinaryImage inputB,
+											PackedBinaryImage output, boolean concurrent) {
+		checkSameShape(inputA, inputB);
+		final PackedBinaryImage out = declare(inputA.width, inputA.height, output);
+
+		loopRows(out, concurrent, new IntRangeConsumer() {
+			@Override
+			public void accept(int row0, int row1) {
+				ImplBinaryPackedOps.logicOr(inputA, inputB, out, row0, row1);
+			}
+		});
+		return out;
+	}
+
+	public static PackedBinaryImage logicOr(PackedBinaryImage inputA, PackedBinaryImage inputB,
+											PackedBinaryImage output) {
+		return logicOr(inputA, inputB, output, false);
+	}
+
+	/**
+	 * For each pixel it applies the logical 'xor' operator between two images.
+	 *
+	 * @param inputA First input image. Not modified.
+	 * @param inputB Second input image. Not modified.
+	 * @param output Output image. Can be same as either input.  If null a new instance will be declared, Modified.
+	 * @param concurrent If true then rows are split between threads.  Results are identical.
+	 * @return Output of logical operation.
+	 */
+	public static PackedBinaryImage logicXor(final PackedBinaryImage inputA, final PackedBinaryImage inputB,
+											 PackedBinaryImage output, boolean concurrent) {
+		checkSameShape(inputA, inputB);
+		final PackedBinaryImage out = declare(inputA.width, inputA.height, output);
+
+		loopRows(out, concurrent, new IntRangeConsumer() {
+			@Override
+			public void accept(int row0, int row1) {
+				ImplBinaryPackedOps.logicXor(inputA, inputB, out, row0, row1);
+			}
+		});
+		return out;
+	}
+
+	public static PackedBinaryImage logicXor(PackedBinaryImage inputA, PackedBinaryImage inputB,
+											 PackedBinaryImage output) {
+		return logicXor(inputA, inputB, output, false);
+	}
+
+	/**
+	 * Inverts each pixel from true to false and vis-versa.
+	 *
+	 * @param input Input image. Not modified.
+	 * @param output Output image. Can be same as input.  If null a new instance will be declared, Modified.
+	 * @param concurrent If true then rows are split between threads.  Results are identical.
+	 * @return Output of logical operation.
+	 */
+	public static PackedBinaryImage invert(final PackedBinaryImage input, PackedBinaryImage output,
+										   boolean concurrent) {
+		final PackedBinaryImage out = declare(input.width, input.height, output);
+
+		loopRows(out, concurrent, new IntRangeConsumer() {
+			@Override
+			public void accept(int row0, int row1) {
+				ImplBinaryPackedOps.invert(input, out, row0, row1);
+			}
+		});
+		return out;
+	}
+
+	public static PackedBinaryImage invert(PackedBinaryImage input, PackedBinaryImage output) {
+		return invert(input, output, false);
+	}
+
+	/**
+	 * Erodes an image according to a 4-neighborhood.  See {@link BinaryImageOps#erode4}.
+	 *
+	 * @param input  Input image. Not modified.
+	 * @param numTimes How many times the operation will be applied to the image.
+	 * @param output If not null, the output image.  Can't be the same as input.  If null a new image is declared
+	 *               and returned.  Modified.
+	 * @param concurrent If true then rows are split between threads.  Results are identical.
+	 * @return Output image.
+	 */
+	public static PackedBinaryImage erode4(PackedBinaryImage input, int numTimes, PackedBinaryImage output,
+										   boolean concurrent) {
+		return morph(Morph.ERODE4, input, numTimes, output, concurrent);
+	}
+
+	public static PackedBinaryImage erode4(PackedBinaryImage input, int numTimes, PackedBinaryImage output) {
+		return erode4(input, numTimes, output, false);
+	}
+
+	/**
+	 * Dilates an image according to a 4-neighborhood.  See {@link BinaryImageOps#dilate4}.
+	 *
+	 * @param input  Input image. Not modified.
+	 * @param numTimes How many times the operation will be applied to the image.
+	 * @param output If not null, the output image.  Can't be the same as input.  If null a new image is declared
+	 *               and returned.  Modified.
+	 * @param concurrent If true then rows are split between threads.  Results are identical.
+	 * @return Output image.
+	 */
+	public static PackedBinaryImage dilate4(PackedBinaryImage input, int numTimes, PackedBinaryImage output,
+											boolean concurrent) {
+		return morph(Morph.DILATE4, input, numTimes, output, concurrent);
+	}
+
+	public static PackedBinaryImage dilate4(PackedBinaryImage input, int numTimes, PackedBinaryImage output) {
+		return dilate4(input, numTimes, output, false);
+	}
+
+	/**
+	 * Removes all pixels but ones which are on the edge of an object according to a 4-neighborhood.
+	 * See {@link BinaryImageOps#edge4}.
+	 *
+	 * @param input  Input image. Not modified.
+	 * @param output If not null, the output image.  Can't be the same as input.  If null a new image is declared
+	 *               and returned.  Modified.
+	 * @param concurrent If true then rows are split between threads.  Results are identical.
+	 * @return Output image.
+	 */
+	public static PackedBinaryImage edge4(PackedBinaryImage input, PackedBinaryImage output, boolean concurrent) {
+		return morph(Morph.EDGE4, input, 1, output, concurrent);
+	}
+
+	public static PackedBinaryImage edge4(PackedBinaryImage input, PackedBinaryImage output) {
+		return edge4(input, output, false);
+	}
+
+	/**
+	 * Erodes an image according to a 8-neighborhood.  See {@link BinaryImageOps#erode8}.
+	 *
+	 * @param input  Input image. Not modified.
+	 * @param numTimes How many times the operation will be applied to the image.
+	 * @param output If not null, the output image.  Can't be the same as input.  If null a new image is declared
+	 *               and returned.  Modified.
+	 * @param concurrent If true then rows are split between threads.  Results are identical.
+	 * @return Output image.
+	 */
+	public static PackedBinaryImage erode8(PackedBinaryImage input, int numTimes, PackedBinaryImage output,
+										   boolean concurrent) {
+		return morph(Morph.ERODE8, input, numTimes, output, concurrent);
+	}
+
+	public static PackedBinaryImage erode8(PackedBinaryImage input, int numTimes, PackedBinaryImage output) {
+		return erode8(input, numTimes, output, false);
+	}
+
+	/**
+	 * Dilates an image according to a 8-neighborhood.  See {@link BinaryImageOps#dilate8}.
+	 *
+	 * @param input  Input image. Not modified.
+	 * @param numTimes How many times the operation will be applied to the image.
+	 * @param output If not null, the output image.  Can't be the same as input.  If null a new image is declared
+	 *               and returned.  Modified.
+	 * @param concurrent If true then rows are split between threads.  Results are identical.
+	 * @return Output image.
+	 */
+	public static PackedBinaryImage dilate8(PackedBinaryImage input, int numTimes, PackedBinaryImage output,
+											boolean concurrent) {
+		return morph(Morph.DILATE8, input, numTimes, output, concurrent);
+	}
+
+	public static PackedBinaryImage dilate8(PackedBinaryImage input, int numTimes, PackedBinaryImage output) {
+		return dilate8(input, numTimes, output, false);
+	}
+
+	/**
+	 * Removes all pixels but ones which are on the edge of an object according to a 8-neighborhood.
+	 * See {@link BinaryImageOps#edge8}.
+	 *
+	 * @param input  Input image. Not modified.
+	 * @param output If not null, the output image.  Can't be the same as input.  If null a new image is declared
+	 *               and returned.  Modified.
+	 * @param concurrent If true then rows are split between threads.  Results are identical.
+	 * @return Output image.
+	 */
+	public static PackedBinaryImage edge8(PackedBinaryImage input, PackedBinaryImage output, boolean concurrent) {
+		return morph(Morph.EDGE8, input, 1, output, concurrent);
+	}
+
+	public static PackedBinaryImage edge8(PackedBinaryImage input, PackedBinaryImage output) {
+		return edge8(input, output, false);
+	}
+
+	/**
+	 * Removes small bits of spurious noise using an 8-neighborhood.  See {@link BinaryImageOps#removePointNoise}.
+	 *
+	 * @param input  Input image. Not modified.
+	 * @param output If not null, the output image.  Can't be the same as input.  If null a new image is declared
+	 *               and returned.  Modified.
+	 * @param concurrent If true then rows are split between threads.  Results are identical.
+	 * @return Output image.
+	 */
+	public static PackedBinaryImage removePointNoise(PackedBinaryImage input, PackedBinaryImage output,
+													 boolean concurrent) {
+		return morph(Morph.NOISE, input, 1, output, concurrent);
+	}
+
+	public static PackedBinaryImage removePointNoise(PackedBinaryImage input, PackedBinaryImage output) {
+		return removePointNoise(input, output, false);
+	}
+
+	/**
+	 * Applies the operation multiple times by swapping between the output and a work image
+	 */
+	private static PackedBinaryImage morph(Morph op, PackedBinaryImage input, int numTimes,
+										   PackedBinaryImage output, boolean concurrent) {
+		if( numTimes <= 0 )
+			throw new IllegalArgumentException("numTimes must be >= 1");
+		if( input == output )
+			throw new IllegalArgumentException("The input and output can't be the same image");
+		output = declare(input.width, input.height, output);
+
+		morph(op, input, output, concurrent);
+
+		if( numTimes > 1 ) {
+			PackedBinaryImage tmp1 = new PackedBinaryImage(input.width, input.height);
+			PackedBinaryImage tmp2 = output;
+
+			for( int i = 1; i < numTimes; i++ ) {
+				morph(op, tmp2, tmp1, concurrent);
+
+				PackedBinaryImage a = tmp1;
+				tmp1 = tmp2;
+				tmp2 = a;
+			}
+
+			if( tmp2 != output ) {
+				output.setTo(tmp2);
+			}
+		}
+
+		return output;
+	}
+
+	private static void morph(final Morph op, final PackedBinaryImage input, final PackedBinaryImage output,
+							  boolean concurrent) {
+		loopRows(output, concurrent, new IntRangeConsumer() {
+			@Override
+			public void accept(int row0, int row1) {
+				switch( op ) {
+					case ERODE4: ImplBinaryPackedOps.erode4(input, output, row0, row1); break;
+					case DILATE4: ImplBinaryPackedOps.dilate4(input, output, row0, row1); break;
+					case EDGE4: ImplBinaryPackedOps.edge4(input, output, row0, row1); break;
+					case ERODE8: ImplBinaryPackedOps.erode8(input, output, row0, row1); break;
+					case DILATE8: ImplBinaryPackedOps.dilate8(input, output, row0, row1); break;
+					case EDGE8: ImplBinaryPackedOps.edge8(input, output, row0, row1); break;
+					case NOISE: ImplBinaryPackedOps.removePointNoise(input, output, row0, row1); break;
+				}
+			}
+		});
+	}
+
+	/**
+	 * Processes all the rows in the image.  Images with no columns are skipped since there are no words to process.
+	 */
+	private static void loopRows(PackedBinaryImage image, boolean concurrent, IntRangeConsumer consumer) {
+		if( image.width == 0 )
+			return;
+		if( concurrent )
+			BoofConcurrency.loopBlocks(0, image.height, consumer);
+		else
+			consumer.accept(0, image.height);
+	}
+
+	private static PackedBinaryImage declare(int width, int height, PackedBinaryImage output) {
+		if( output == null )
+			return new PackedBinaryImage(width, height);
+		output.reshape(width, height);
+		return output;
+	}
+
+	private static void checkSameShape(PackedBinaryImage imgA, PackedBinaryImage imgB) {
+		if( imgA.width != imgB.width || imgA.height != imgB.height )
+			throw new IllegalArgumentException("Image shapes are not the same");
+	}
+
+	private enum Morph {
+		ERODE4, DILATE4, EDGE4, ERODE8, DILATE8, EDGE8, NOISE
+	}
+}
@@ -0,0 +1,332 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.filter.binary.impl;
+
+import boofcv.struct.image.GrayU8;
+import boofcv.struct.image.PackedBinaryImage;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Implementations of binary operations on {@link PackedBinaryImage}.  Each function processes the rows
+ * [row0,row1) and 64 pixels are processed at once using bitwise operations on each word.  Neighbors to the left
+ * and right are found by shifting the word and carrying in the bit from the adjacent word.
+ * </p>
+ *
+ * <p>
+ * Pixels outside the image are handled the same way as in {@link ImplBinaryNaiveOps}.  They are
+ * treated as true when eroding or finding edges and false when dilating or removing point noise.
+ * </p>
+ *
+ * @author Peter Abeles
+ * @see boofcv.alg.filter.binary.PackedBinaryOps
+ */
+public class ImplBinaryPackedOps {
+
+	public static void pack(GrayU8 input, PackedBinaryImage output, int row0, int row1) {
+		final int width = input.width;
+
+		for (int y = row0; y < row1; y++) {
+			int indexIn = input.startIndex + y*input.stride;
+			int indexOut = y*output.stride;
+
+			for (int x = 0; x < width; x += 64) {
+				int end = indexIn + Math.min(64, width - x);
+				long word = 0;
+				for (int bit = 0; indexIn < end; indexIn++, bit++) {
+					word |= (input.data[indexIn] != 0 ? 1L : 0L) << bit;
+				}
+				output.data[indexOut++] = word;
+			}
+		}
+	}
+
+	public static void unpack(PackedBinaryImage input, GrayU8 output, int row0, int row1) {
+		final int width = input.width;
+
+		for (int y = row0; y < row1; y++) {
+			int indexIn = y*input.stride;
+			int indexOut = output.startIndex + y*output.stride;
+
+			for (int x = 0; x < width; x += 64) {
+				int end = indexOut + Math.min(64, width - x);
+				long word = input.data[indexIn++];
+				for (; indexOut < end; indexOut++) {
+					output.data[indexOut] = (byte)(word & 1);
+					word >>>= 1;
+				}
+			}
+		}
+	}
+
+	public static void logicAnd(PackedBinaryImage inputA, PackedBinaryImage inputB, PackedBinaryImage output,
+								int row0, int row1) {
+		final int end = row1*output.stride;
+		for (int i = row0*output.stride; i < end; i++) {
+			output.data[i] = inputA.data[i] & inputB.data[i];
+		}
+	}
+
+	public static void logicOr(PackedBinaryImage inputA, PackedBinaryImage inputB, PackedBinaryImage output,
+							   int row0, int row1) {
+		final int end = row1*output.stride;
+		for (int i = row0*output.stride; i < end; i++) {
+			output.data[i] = inputA.data[i] | inputB.data[i];
+		}
+	}
+
+	public static void logicXor(PackedBinaryImage inputA, PackedBinaryImage inputB, PackedBinaryImage output,
+								int row0, int row1) {
+		final int end = row1*output.stride;
+		for (int i = row0*output.stride; i < end; i++) {
+			output.data[i] = inputA.data[i] ^ inputB.data[i];
+		}
+	}
+
+	public static void invert(PackedBinaryImage input, PackedBinaryImage output, int row0, int row1) {
+		final int stride = input.stride;
+		final long lastMask = input.lastWordMask();
+
+		for (int y = row0; y < row1; y++) {
+			int index = y*stride;
+			int end = index + stride;
+			for (; index < end; index++) {
+				output.data[index] = ~input.data[index];
+			}
+			output.data[end-1] &= lastMask;
+		}
+	}
+
+	public static void erode4(PackedBinaryImage input, PackedBinaryImage output, int row0, int row1) {
+		final int stride = input.stride;
+		final long lastMask = input.lastWordMask();
+		final long fillE = eastFill(-1L, lastMask);
+		final long[] outside = outsideRow(stride, -1L);
+		final long[] data = input.data;
+
+		for (int y = row0; y < row1; y++) {
+			int indexC = y*stride;
+			long[] dataN = y > 0 ? data : outside;
+			long[] dataS = y + 1 < input.height ? data : outside;
+			int indexN = y > 0 ? indexC - stride : 0;
+			int indexS = y + 1 < input.height ? indexC + stride : 0;
+
+			for (int i = 0; i < stride; i++) {
+				output.data[indexC + i] = data[indexC + i] & dataN[indexN + i] & dataS[indexS + i] &
+						west(data, indexC, i, -1L) & east(data, indexC, i, stride, fillE);
+			}
+			output.data[indexC + stride - 1] &= lastMask;
+		}
+	}
+
+	public static void dilate4(PackedBinaryImage input, PackedBinaryImage output, int row0, int row1) {
+		final int stride = input.stride;
+		final long lastMask = input.lastWordMask();
+		final long[] outside = outsideRow(stride, 0);
+		final long[] data = input.data;
+
+		for (int y = row0; y < row1; y++) {
+			int indexC = y*stride;
+			long[] dataN = y > 0 ? data : outside;
+			long[] dataS = y + 1 < input.height ? data : outside;
+			int indexN = y > 0 ? indexC - stride : 0;
+			int indexS = y + 1 < input.height ? indexC + stride : 0;
+
+			for (int i = 0; i < stride; i++) {
+				output.data[indexC + i] = data[indexC + i] | dataN[indexN + i] | dataS[indexS + i] |
+						west(data, indexC, i, 0) | east(data, indexC, i, stride, 0);
+			}
+			output.data[indexC + stride - 1] &= lastMask;
+		}
+	}
+
+	public static void edge4(PackedBinaryImage input, PackedBinaryImage output, int row0, int row1) {
+		final int stride = input.stride;
+		final long lastMask = input.lastWordMask();
+		final long fillE = eastFill(-1L, lastMask);
+		final long[] outside = outsideRow(stride, -1L);
+		final long[] data = input.data;
+
+		for (int y = row0; y < row1; y++) {
+			int indexC = y*stride;
+			long[] dataN = y > 0 ? data : outside;
+			long[] dataS = y + 1 < input.height ? data : outside;
+			int indexN = y > 0 ? indexC - stride : 0;
+			int indexS = y + 1 < input.height ? indexC + stride : 0;
+
+			for (int i = 0; i < stride; i++) {
+				long surrounded = dataN[indexN + i] & dataS[indexS + i] &
+						west(data, indexC, i, -1L) & east(data, indexC, i, stride, fillE);
+				output.data[indexC + i] = data[indexC + i] & ~surrounded;
+			}
+			output.data[indexC + stride - 1] &= lastMask;
+		}
+	}
+
+	public static void erode8(PackedBinaryImage input, PackedBinaryImage output, int row0, int row1) {
+		final int stride = input.stride;
+		final long lastMask = input.lastWordMask();
+		final long fillE = eastFill(-1L, lastMask);
+		final long[] outside = outsideRow(stride, -1L);
+		final long[] data = input.data;
+
+		for (int y = row0; y < row1; y++) {
+			int indexC = y*stride;
+			long[] dataN = y > 0 ? data : outside;
+			long[] dataS = y + 1 < input.height ? data : outside;
+			int indexN = y > 0 ? indexC - stride : 0;
+			int indexS = y + 1 < input.height ? indexC + stride : 0;
+
+			for (int i = 0; i < stride; i++) {
+				long north = dataN[indexN + i] & west(dataN, indexN, i, -1L) & east(dataN, indexN, i, stride, fillE);
+				long south = dataS[indexS + i] & west(dataS, indexS, i, -1L) & east(dataS, indexS, i, stride, fillE);
+				output.data[indexC + i] = data[indexC + i] & north & south &
+						west(data, indexC, i, -1L) & east(data, indexC, i, stride, fillE);
+			}
+			output.data[indexC + stride - 1] &= lastMask;
+		}
+	}
+
+	public static void dilate8(PackedBinaryImage input, PackedBinaryImage output, int row0, int row1) {
+		final int stride = input.stride;
+		final long lastMask = input.lastWordMask();
+		final long[] outside = outsideRow(stride, 0);
+		final long[] data = input.data;
+
+		for (int y = row0; y < row1; y++) {
+			int indexC = y*stride;
+			long[] dataN = y > 0 ? data : outside;
+			long[] dataS = y + 1 < input.height ? data : outside;
+			int indexN = y > 0 ? indexC - stride : 0;
+			int indexS = y + 1 < input.height ? indexC + stride : 0;
+
+			for (int i = 0; i < stride; i++) {
+				long north = dataN[indexN + i] | west(dataN, indexN, i, 0) | east(dataN, indexN, i, stride, 0);
+				long south = dataS[indexS + i] | west(dataS, indexS, i, 0) | east(dataS, indexS, i, stride, 0);
+				output.data[indexC + i] = data[indexC + i] | north | south |
+						west(data, indexC, i, 0) | east(data, indexC, i, stride, 0);
+			}
+			output.data[indexC + stride - 1] &= lastMask;
+		}
+	}
+
+	public static void edge8(PackedBinaryImage input, PackedBinaryImage output, int row0, int row1) {
+		final int stride = input.stride;
+		final long lastMask = input.lastWordMask();
+		final long fillE = eastFill(-1L, lastMask);
+		final long[] outside = outsideRow(stride, -1L);
+		final long[] data = input.data;
+
+		for (int y = row0; y < row1; y++) {
+			int indexC = y*stride;
+			long[] dataN = y > 0 ? data : outside;
+			long[] dataS = y + 1 < input.height ? data : outside;
+			int indexN = y > 0 ? indexC - stride : 0;
+			int indexS = y + 1 < input.height ? indexC + stride : 0;
+
+			for (int i = 0; i < stride; i++) {
+				long north = dataN[indexN + i] & west(dataN, indexN, i, -1L) & east(dataN, indexN, i, stride, fillE);
+				long south = dataS[indexS + i] & west(dataS, indexS, i, -1L) & east(dataS, indexS, i, stride, fillE);
+				long surrounded = north & south & west(data, indexC, i, -1L) & east(data, indexC, i, stride, fillE);
+				output.data[indexC + i] = data[indexC + i] & ~surrounded;
+			}
+			output.data[indexC + stride - 1] &= lastMask;
+		}
+	}
+
+	/**
+	 * Counts the number of neighbors in an 8-neighborhood for 64 pixels at once using a bit sliced adder.  Each
+	 * bit in the count is stored in a different word.
+	 */
+	public static void removePointNoise(PackedBinaryImage input, PackedBinaryImage output, int row0, int row1) {
+		final int stride = input.stride;
+		final long lastMask = input.lastWordMask();
+		final long[] outside = outsideRow(stride, 0);
+		final long[] data = input.data;
+
+		for (int y = row0; y < row1; y++) {
+			int indexC = y*stride;
+			long[] dataN = y > 0 ? data : outside;
+			long[] dataS = y + 1 < input.height ? data : outside;
+			int indexN = y > 0 ? indexC - stride : 0;
+			int indexS = y + 1 < input.height ? indexC + stride : 0;
+
+			for (int i = 0; i < stride; i++) {
+				long n0 = west(dataN, indexN, i, 0);
+				long n1 = dataN[indexN + i];
+				long n2 = east(dataN, indexN, i, stride, 0);
+				long n3 = west(data, indexC, i, 0);
+				long n4 = east(data, indexC, i, stride, 0);
+				long n5 = west(dataS, indexS, i, 0);
+				long n6 = dataS[indexS + i];
+				long n7 = east(dataS, indexS, i, stride, 0);
+
+				// sum the first six neighbors with two full adders and the last two with a half adder
+				long xa = n0 ^ n1, sumA = xa ^ n2, carryA = (n0 & n1) | (n2 & xa);
+				long xb = n3 ^ n4, sumB = xb ^ n5, carryB = (n3 & n4) | (n5 & xb);
+				long sumC = n6 ^ n7, carryC = n6 & n7;
+
+				// ones bit of the total
+				long xd = sumA ^ sumB, bit0 = xd ^ sumC, carryD = (sumA & sumB) | (sumC & xd);
+
+				// add the four carries, each has a weight of two
+				long xe = carryA ^ carryB, sumE = xe ^ carryC, carryE = (carryA & carryB) | (carryC & xe);
+				long bit1 = sumE ^ carryD, carryF = sumE & carryD;
+				long bit2 = carryE ^ carryF, bit3 = carryE & carryF;
+
+				long atLeast2 = bit1 | bit2 | bit3;
+				long atLeast7 = bit3 | (bit2 & bit1 & bit0);
+
+				output.data[indexC + i] = atLeast2 & (data[indexC + i] | atLeast7);
+			}
+			output.data[indexC + stride - 1] &= lastMask;
+		}
+	}
+
+	/**
+	 * Value of the west (x-1) neighbor for each pixel in word i
+	 */
+	private static long west(long[] data, int index, int i, long fill) {
+		return (data[index + i] << 1) | (i > 0 ? data[index + i - 1] >>> 63 : fill & 1L);
+	}
+
+	/**
+	 * Value of the east (x+1) neighbor for each pixel in word i
+	 */
+	private static long east(long[] data, int index, int i, int stride, long fillE) {
+		return (data[index + i] >>> 1) | (i + 1 < stride ? data[index + i + 1] << 63 : fillE);
+	}
+
+	/**
+	 * Bit which is shifted into the last column when looking east
+	 */
+	private static long eastFill(long fill, long lastMask) {
+		return fill & (lastMask ^ (lastMask >>> 1));
+	}
+
+	/**
+	 * Creates a row for pixels above or below the image
+	 */
+	private static long[] outsideRow(int stride, long fill) {
+		long[] row = new long[stride];
+		Arrays.fill(row, fill);
+		return row;
+	}
+}
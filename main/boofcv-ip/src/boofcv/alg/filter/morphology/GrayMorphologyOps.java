@@ -0,0 +1,470 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.filter.morphology;
+
+import boofcv.alg.InputSanityCheck;
+import boofcv.alg.filter.morphology.impl.ImplGrayMorphology;
+import boofcv.alg.misc.GPixelMath;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeConsumer;
+import boofcv.struct.image.GrayF32;
+import boofcv.struct.image.GrayU16;
+import boofcv.struct.image.GrayU8;
+import boofcv.struct.image.ImageGray;
+import georegression.struct.point.Point2D_I32;
+
+import java.util.List;
+
+/**
+ * <p>
+ * Grayscale morphological operations.  Erosion replaces each pixel with the minimum value inside the
+ * {@link StructuringElement} and dilation with the maximum value.  Each rectangle in the structuring element is
+ * applied as a horizontal pass followed by a vertical pass using the van Herk/Gil-Werman algorithm, so the cost
+ * per pixel does not depend on the radius.  Pixels outside the image are ignored.
+ * </p>
+ *
+ * <p>
+ * When concurrent, the horizontal pass splits rows between threads and the vertical pass splits columns.
+ * Results are identical to single threaded processing.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class GrayMorphologyOps {
+
+	/**
+	 * Erodes the image by replacing each pixel with the minimum value inside the structuring element.
+	 *
+	 * @param input Input image. Not modified.
+	 * @param element Shape of the neighborhood.
+	 * @param output Output image. Can be same as input.  If null a new instance will be declared.  Modified.
+	 * @param concurrent If true then the image is split between threads.  Results are identical.
+	 * @return The output image
+	 */
+	public static GrayU8 erode( GrayU8 input , StructuringElement element , GrayU8 output , boolean concurrent ) {
+		return erodeG(input, element, output, concurrent);
+	}
+
+	/**
+	 * Erodes the image by replacing each pixel with the minimum value inside the structuring element.
+	 *
+	 * @param input Input image. Not modified.
+	 * @param element Shape of the neighborhood.
+	 * @param output Output image. Can be same as input.  If null a new instance will be declared.  Modified.
+	 * @param concurrent If true then the image is split between threads.  Results are identical.
+	 * @return The output image
+	 */
+	public static GrayU16 erode( GrayU16 input , StructuringElement element , GrayU16 output , boolean concurrent ) {
+		return erodeG(input, element, output, concurrent);
+	}
+
+	/**
+	 * Erodes the image by replacing each pixel with the minimum value inside the structuring element.
+	 *
+	 * @param input Input image. Not modified.
+	 * @param element Shape of the neighborhood.
+	 * @param output Output image. Can be same as input.  If null a new instance will be declared.  Modified.
+	 * @param concurrent If true then the image is split between threads.  Results are identical.
+	 * @return The output image
+	 */
+	public static GrayF32 erode( GrayF32 input , StructuringElement element , GrayF32 output , boolean concurrent ) {
+		return erodeG(input, element, output, concurrent);
+	}
+
+	/**
+	 * Dilates the image by replacing each pixel with the maximum value inside the structuring element.
+	 *
+	 * @param input Input image. Not modified.
+	 * @param element Shape of the neighborhood.
+	 * @param output Output image. Can be same as input.  If null a new instance will be declared.  Modified.
+	 * @param concurrent If true then the image is split between threads.  Results are identical.
+	 * @return The output image
+	 */
+	public static GrayU8 dilate( GrayU8 input , StructuringElement element , GrayU8 output , boolean concurrent ) {
+		return dilateG(input, element, output, concurrent);
+	}
+
+	/**
+	 * Dilates the image by replacing each pixel with the maximum value inside the structuring element.
+	 *
+	 * @param input Input image. Not modified.
+	 * @param element Shape of the neighborhood.
+	 * @param output Output image. Can be same as input.  If null a new instance will be declared.  Modified.
+	 * @param concurrent If true then the image is split between threads.  Results are identical.
+	 * @return The output image
+	 */
+	public static GrayU16 dilate( GrayU16 input , StructuringElement element , GrayU16 output , boolean concurrent ) {
+		return dilateG(input, element, output, concurrent);
+	}
+
+	/**
+	 * Dilates the image by replacing each pixel with the maximum value inside the structuring element.
+	 *
+	 * @param input Input image. Not modified.
+	 * @param element Shape of the neighborhood.
+	 * @param output Output image. Can be same as input.  If null a new instance will be declared.  Modified.
+	 * @param concurrent If true then the image is split between threads.  Results are identical.
+	 * @return The output image
+	 */
+	public static GrayF32 dilate( GrayF32 input , StructuringElement element , GrayF32 output , boolean concurrent ) {
+		return dilateG(input, element, output, concurrent);
+	}
+
+	/**
+	 * Morphological opening.  An erosion followed by a dilation.  Removes bright features smaller than the
+	 * structuring element.
+	 *
+	 * @param input Input image. Not modified.
+	 * @param element Shape of the neighborhood.
+	 * @param output Output image. Can be same as input.  If null a new instance will be declared.  Modified.
+	 * @param concurrent If true then the image is split between threads.  Results are identical.
+	 * @return The output image
+	 */
+	public static GrayU8 opening( GrayU8 input , StructuringElement element , GrayU8 output , boolean concurrent ) {
+		return openingG(input, element, output, concurrent);
+	}
+
+	/**
+	 * Morphological opening.  An erosion followed by a dilation.  Removes bright features smaller than the
+	 * structuring element.
+	 *
+	 * @param input Input image. Not modified.
+	 * @param element Shape of the neighborhood.
+	 * @param output Output image. Can be same as input.  If null a new instance will be declared.  Modified.
+	 * @param concurrent If true then the image is split between threads.  Results are identical.
+	 * @return The output image
+	 */
+	public static GrayU16 opening( GrayU16 input , StructuringElement element , GrayU16 output , boolean concurrent ) {
+		return openingG(input, element, output, concurrent);
+	}
+
+	/**
+	 * Morphological opening.  An erosion followed by a dilation.  Removes bright features smaller than the
+	 * structuring element.
+	 *
+	 * @param input Input image. Not modified.
+	 * @param element Shape of the neighborhood.
+	 * @param output Output image. Can be same as input.  If null a new instance will be declared.  Modified.
+	 * @param concurrent If true then the image is split between threads.  Results are identical.
+	 * @return The output image
+	 */
+	public static GrayF32 opening( GrayF32 input , StructuringElement element , GrayF32 output , boolean concurrent ) {
+		return openingG(input, element, output, concurrent);
+	}
+
+	/**
+	 * Morphological closing.  A dilation followed by an erosion.  Removes dark features smaller than the
+	 * structuring element.
+	 *
+	 * @param input Input image. Not modified.
+	 * @param element Shape of the neighborhood.
+	 * @param output Output image. Can be same as input.  If null a new instance will be declared.  Modified.
+	 * @param concurrent If true then the image is split between threads.  Results are identical.
+	 * @return The output image
+	 */
+	public static GrayU8 closing( GrayU8 input , StructuringElement element , GrayU8 output , boolean concurrent ) {
+		return closingG(input, element, output, concurrent);
+	}
+
+	/**
+	 * Morphological closing.  A dilation followed by an erosion.  Removes dark features smaller than the
+	 * structuring element.
+	 *
+	 * @param input Input image. Not modified.
+	 * @param element Shape of the neighborhood.
+	 * @param output Output image. Can be same as input.  If null a new instance will be declared.  Modified.
+	 * @param concurrent If true then the image is split between threads.  Results are identical.
+	 * @return The output image
+	 */
+	public static GrayU16 closing( GrayU16 input , StructuringElement element , GrayU16 output , boolean concurrent ) {
+		return closingG(input, element, output, concurrent);
+	}
+
+	/**
+	 * Morphological closing.  A dilation followed by an erosion.  Removes dark features smaller than the
+	 * structuring element.
+	 *
+	 * @param input Input image. Not modified.
+	 * @param element Shape of the neighborhood.
+	 * @param output Output image. Can be same as input.  If null a new instance will be declared.  Modified.
+	 * @param concurrent If true then the image is split between threads.  Results are identical.
+	 * @return The output image
+	 */
+	public static GrayF32 closing( GrayF32 input , StructuringElement element , GrayF32 output , boolean concurrent ) {
+		return closingG(input, element, output, concurrent);
+	}
+
+	/**
+	 * White top-hat transform.  The difference between the input and its opening, which leaves bright
+	 * features smaller than the structuring element.
+	 *
+	 * @param input Input image. Not modified.
+	 * @param element Shape of the neighborhood.
+	 * @param output Output image. Can be same as input.  If null a new instance will be declared.  Modified.
+	 * @param concurrent If true then the image is split between threads.  Results are identical.
+	 * @return The output image
+	 */
+	public static GrayU8 topHatWhite( GrayU8 input , StructuringElement element , GrayU8 output , boolean concurrent ) {
+		return topHatWhiteG(input, element, output, concurrent);
+	}
+
+	/**
+	 * White top-hat transform.  The difference between the input and its opening, which leaves bright
+	 * features smaller than the structuring element.
+	 *
+	 * @param input Input image. Not modified.
+	 * @param element Shape of the neighborhood.
+	 * @param output Output image. Can be same as input.  If null a new instance will be declared.  Modified.
+	 * @param concurrent If true then the image is split between threads.  Results are identical.
+	 * @return The output image
+	 */
+	public static GrayU16 topHatWhite( GrayU16 input , StructuringElement element , GrayU16 output , boolean concurrent ) {
+		return topHatWhiteG(input, element, output, concurrent);
+	}
+
+	/**
+	 * White top-hat transform.  The difference between the input and its opening, which leaves bright
+	 * features smaller than the structuring element.
+	 *
+	 * @param input Input image. Not modified.
+	 * @param element Shape of the neighborhood.
+	 * @param output Output image. Can be same as input.  If null a new instance will be declared.  Modified.
+	 * @param concurrent If true then the image is split between threads.  Results are identical.
+	 * @return The output image
+	 */
+	public static GrayF32 topHatWhite( GrayF32 input , StructuringElement element , GrayF32 output , boolean concurrent ) {
+		return topHatWhiteG(input, element, output, concurrent);
+	}
+
+	/**
+	 * Black top-hat transform.  The difference between the closing and the input, which leaves dark
+	 * features smaller than the structuring element.
+	 *
+	 * @param input Input image. Not modified.
+	 * @param element Shape of the neighborhood.
+	 * @param output Output image. Can be same as input.  If null a new instance will be declared.  Modified.
+	 * @param concurrent If true then the image is split between threads.  Results are identical.
+	 * @return The output image
+	 */
+	public static GrayU8 topHatBlack( GrayU8 input , StructuringElement element , GrayU8 output , boolean concurrent ) {
+		return topHatBlackG(input, element, output, concurrent);
+	}
+
+	/**
+	 * Black top-hat transform.  The difference between the closing and the input, which leaves dark
+	 * features smaller than the structuring element.
+	 *
+	 * @param input Input image. Not modified.
+	 * @param element Shape of the neighborhood.
+	 * @param output Output image. Can be same as input.  If null a new instance will be declared.  Modified.
+	 * @param concurrent If true then the image is split between threads.  Results are identical.
+	 * @return The output image
+	 */
+	public static GrayU16 topHatBlack( GrayU16 input , StructuringElement element , GrayU16 output , boolean concurrent ) {
+		return topHatBlackG(input, element, output, concurrent);
+	}
+
+	/**
+	 * Black top-hat transform.  The difference between the closing and the input, which leaves dark
+	 * features smaller than the structuring element.
+	 *
+	 * @param input Input image. Not modified.
+	 * @param element Shape of the neighborhood.
+	 * @param output Output image. Can be same as input.  If null a new instance will be declared.  Modified.
+	 * @param concurrent If true then the image is split between threads.  Results are identical.
+	 * @return The output image
+	 */
+	public static GrayF32 topHatBlack( GrayF32 input , StructuringElement element , GrayF32 output , boolean concurrent ) {
+		return topHatBlackG(input, element, output, concurrent);
+	}
+
+	static <T extends ImageGray<T>> T erodeG( T input , StructuringElement element , T output , boolean concurrent ) {
+		return apply(input, element, false, output, concurrent);
+	}
+
+	static <T extends ImageGray<T>> T dilateG( T input , StructuringElement element , T output , boolean concurrent ) {
+		return apply(input, element, true, output, concurrent);
+	}
+
+	static <T extends ImageGray<T>> T openingG( T input , StructuringElement element , T output , boolean concurrent ) {
+		T eroded = apply(input, element, false, null, concurrent);
+		return apply(eroded, element, true, output, concurrent);
+	}
+
+	static <T extends ImageGray<T>> T closingG( T input , StructuringElement element , T output , boolean concurrent ) {
+		T dilated = apply(input, element, true, null, concurrent);
+		return apply(dilated, element, false, output, concurrent);
+	}
+
+	static <T extends ImageGray<T>> T topHatWhiteG( T input , StructuringElement element , T output ,
+													boolean concurrent ) {
+		output = InputSanityCheck.checkDeclare(input, output);
+		T opened = openingG(input, element, output == input ? null : output, concurrent);
+		// the opening is never larger than the input so the absolute value has no effect
+		GPixelMath.diffAbs(input, opened, output);
+		return output;
+	}
+
+	static <T extends ImageGray<T>> T topHatBlackG( T input , StructuringElement element , T output ,
+													boolean concurrent ) {
+		output = InputSanityCheck.checkDeclare(input, output);
+		T closed = closingG(input, element, output == input ? null : output, concurrent);
+		GPixelMath.diffAbs(closed, input, output);
+		return output;
+	}
+
+	/**
+	 * Applies the min or max filter for every rectangle in the structuring element and combines the results
+	 */
+	private static <T extends ImageGray<T>> T apply( T input , StructuringElement element , final boolean max ,
+													 T output , boolean concurrent ) {
+		output = InputSanityCheck.checkDeclare(input, output);
+		List<Point2D_I32> rectangles = element.getRectangles();
+
+		T work = input.createSameShape();
+		if( rectangles.size() == 1 ) {
+			Point2D_I32 r = rectangles.get(0);
+			rectangle(input, r.x, r.y, max, work, output, concurrent);
+		} else {
+			// the input is needed by every rectangle and can't be overwritten
+			if( input == output )
+				input = input.clone();
+			final T tmp = input.createSameShape();
+			final T out = output;
+
+			Point2D_I32 r = rectangles.get(0);
+			rectangle(input, r.x, r.y, max, work, output, concurrent);
+			for (int i = 1; i < rectangles.size(); i++) {
+				r = rectangles.get(i);
+				rectangle(input, r.x, r.y, max, work, tmp, concurrent);
+				loop(0, out.height, concurrent, new IntRangeConsumer() {
+					@Override
+					public void accept(int row0, int row1) {
+						combine(tmp, out, max, row0, row1);
+					}
+				});
+			}
+		}
+		return output;
+	}
+
+	/**
+	 * Applies a min or max filter inside a rectangle.  Passes along an axis with a radius of zero are skipped.
+	 */
+	private static <T extends ImageGray<T>> void rectangle( final T input , final int radiusX , final int radiusY ,
+															final boolean max , final T work , final T output ,
+															boolean concurrent ) {
+		if( radiusX == 0 && radiusY == 0 ) {
+			output.setTo(input);
+			return;
+		}
+
+		final T horizontalOut = radiusY == 0 ? output : work;
+		final T verticalIn = radiusX == 0 ? input : work;
+
+		if( radiusX > 0 ) {
+			loop(0, input.height, concurrent, new IntRangeConsumer() {
+				@Override
+				public void accept(int row0, int row1) {
+					horizontal(input, horizontalOut, radiusX, max, row0, row1);
+				}
+			});
+		}
+		if( radiusY > 0 ) {
+			loop(0, input.width, concurrent, new IntRangeConsumer() {
+				@Override
+				public void accept(int col0, int col1) {
+					vertical(verticalIn, output, radiusY, max, col0, col1);
+				}
+			});
+		}
+	}
+
+	private static void loop( int start , int end , boolean concurrent , IntRangeConsumer consumer ) {
+		if( concurrent )
+			BoofConcurrency.loopBlocks(start, end, consumer);
+		else
+			consumer.accept(start, end);
+	}
+
+	private static void horizontal( ImageGray input , ImageGray output , int radius , boolean max ,
+									int row0 , int row1 ) {
+		if( input instanceof GrayU8 ) {
+			if( max )
+				ImplGrayMorphology.horizontalMax((GrayU8)input, (GrayU8)output, radius, row0, row1);
+			else
+				ImplGrayMorphology.horizontalMin((GrayU8)input, (GrayU8)output, radius, row0, row1);
+		} else if( input instanceof GrayU16 ) {
+			if( max )
+				ImplGrayMorphology.horizontalMax((GrayU16)input, (GrayU16)output, radius, row0, row1);
+			else
+				ImplGrayMorphology.horizontalMin((GrayU16)input, (GrayU16)output, radius, row0, row1);
+		} else if( input instanceof GrayF32 ) {
+			if( max )
+				ImplGrayMorphology.horizontalMax((GrayF32)input, (GrayF32)output, radius, row0, row1);
+			else
+				ImplGrayMorphology.horizontalMin((GrayF32)input, (GrayF32)output, radius, row0, row1);
+		} else {
+			throw new IllegalArgumentException("Unsupported image type "+input.getClass().getSimpleName());
+		}
+	}
+
+	private static void vertical( ImageGray input , ImageGray output , int radius , boolean max ,
+								  int col0 , int col1 ) {
+		if( input instanceof GrayU8 ) {
+			if( max )
+				ImplGrayMorphology.verticalMax((GrayU8)input, (GrayU8)output, radius, col0, col1);
+			else
+				ImplGrayMorphology.verticalMin((GrayU8)input, (GrayU8)output, radius, col0, col1);
+		} else if( input instanceof GrayU16 ) {
+			if( max )
+				ImplGrayMorphology.verticalMax((GrayU16)input, (GrayU16)output, radius, col0, col1);
+			else
+				ImplGrayMorphology.verticalMin((GrayU16)input, (GrayU16)output, radius, col0, col1);
+		} else if( input instanceof GrayF32 ) {
+			if( max )
+				ImplGrayMorphology.verticalMax((GrayF32)input, (GrayF32)output, radius, col0, col1);
+			else
+				ImplGrayMorphology.verticalMin((GrayF32)input, (GrayF32)output, radius, col0, col1);
+		} else {
+			throw new IllegalArgumentException("Unsupported image type "+input.getClass().getSimpleName());
+		}
+	}
+
+	private static void combine( ImageGray input , ImageGray output , boolean max , int row0 , int row1 ) {
+		if( input instanceof GrayU8 ) {
+			if( max )
+				ImplGrayMorphology.combineMax((GrayU8)input, (GrayU8)output, row0, row1);
+			else
+				ImplGrayMorphology.combineMin((GrayU8)input, (GrayU8)output, row0, row1);
+		} else if( input instanceof GrayU16 ) {
+			if( max )
+				ImplGrayMorphology.combineMax((GrayU16)input, (GrayU16)output, row0, row1);
+			else
+				ImplGrayMorphology.combineMin((GrayU16)input, (GrayU16)output, row0, row1);
+		} else if( input instanceof GrayF32 ) {
+			if( max )
+				ImplGrayMorphology.combineMax((GrayF32)input, (GrayF32)output, row0, row1);
+			else
+				ImplGrayMorphology.combineMin((GrayF32)input, (GrayF32)output, row0, row1);
+		} else {
+			throw new IllegalArgumentException("Unsupported image type "+input.getClass().getSimpleName());
+		}
+	}
+}
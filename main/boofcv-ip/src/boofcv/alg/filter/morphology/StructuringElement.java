@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.filter.morphology;
+
+import georegression.struct.point.Point2D_I32;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * Shape of the neighborhood used by grayscale morphological operations.  Every shape is described as a union of
+ * rectangles which are centered at the pixel.  A rectangle can be processed in constant time per pixel, so
+ * a shape composed of N rectangles costs N times as much as a single rectangle.
+ * </p>
+ *
+ * <p>
+ * A disk contains all pixels (x,y) with x<sup>2</sup> + y<sup>2</sup> &le; radius<sup>2</sup>.  It is decomposed
+ * into one rectangle for each step along its boundary, which is exact and requires about 0.6*radius+1 rectangles.
+ * </p>
+ *
+ * @author Peter Abeles
+ * @see GrayMorphologyOps
+ */
+public class StructuringElement {
+
+	/**
+	 * Rectangles which compose the shape.  x and y are the radius of the rectangle along each axis.
+	 */
+	List<Point2D_I32> rectangles = new ArrayList<>();
+
+	private StructuringElement() {
+	}
+
+	/**
+	 * A rectangle with width 2*radiusX+1 and height 2*radiusY+1.
+	 */
+	public static StructuringElement rectangle( int radiusX , int radiusY ) {
+		if( radiusX < 0 || radiusY < 0 )
+			throw new IllegalArgumentException("Radius must be >= 0");
+
+		StructuringElement ret = new StructuringElement();
+		ret.rectangles.add(new Point2D_I32(radiusX, radiusY));
+		return ret;
+	}
+
+	/**
+	 * A square with a width of 2*radius+1.
+	 */
+	public static StructuringElement square( int radius ) {
+		return rectangle(radius, radius);
+	}
+
+	/**
+	 * A disk with the specified radius.
+	 */
+	public static StructuringElement disk( int radius ) {
+		if( radius < 0 )
+			throw new IllegalArgumentException("Radius must be >= 0");
+
+		StructuringElement ret = new StructuringElement();
+
+		// only add a rectangle when the half width of the disk is about to shrink
+		int halfWidth = radius;
+		for (int y = 0; y <= radius; y++) {
+			int next = y < radius ? halfWidth(radius, y + 1, halfWidth) : -1;
+			if( next < halfWidth )
+				ret.rectangles.add(new Point2D_I32(halfWidth, y));
+			halfWidth = next;
+		}
+		return ret;
+	}
+
+	/**
+	 * Largest x such that x*x + y*y &le; radius*radius.  Searches down from the previous row's value.
+	 */
+	private static int halfWidth( int radius , int y , int previous ) {
+		int x = previous;
+		while( x*x + y*y > radius*radius )
+			x--;
+		return x;
+	}
+
+	/**
+	 * Returns true if the pixel at the specified offset from the center is contained inside the shape
+	 */
+	public boolean contains( int dx , int dy ) {
+		for (int i = 0; i < rectangles.size(); i++) {
+			Point2D_I32 r = rectangles.get(i);
+			if( Math.abs(dx) <= r.x && Math.abs(dy) <= r.y )
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the rectangles which compose the shape.  x and y are the radius of each rectangle.
+	 */
+	public List<Point2D_I32> getRectangles() {
+		return rectangles;
+	}
+}
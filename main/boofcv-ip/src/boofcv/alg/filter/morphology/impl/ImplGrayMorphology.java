@@ -0,0 +1,778 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.filter.morphology.impl;
+
+import boofcv.struct.image.GrayF32;
+import boofcv.struct.image.GrayU16;
+import boofcv.struct.image.GrayU8;
+
+/**
+ * <p>
+ * Minimum and maximum filters along a single axis using the van Herk/Gil-Werman algorithm.  The line is broken
+ * up into blocks which are the same size as the window, 2*radius+1.  Inside each block the running extreme is
+ * computed in the forward direction (g) and the backward direction (h).  A window always overlaps at most two
+ * blocks, so its extreme is found by comparing h at its start with g at its end.  This requires about three
+ * comparisons per pixel no matter how large the radius is.
+ * </p>
+ *
+ * <p>
+ * Blocks start at -radius, which causes the first window to line up with the first block.  Pixels outside the
+ * image are ignored.
+ * </p>
+ *
+ * <p>
+ * Horizontal functions process the rows [row0,row1).  Vertical functions process the columns [col0,col1) in strips
+ * so that the running extremes are computed one row of a strip at a time, which is cache friendly.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class ImplGrayMorphology {
+
+	/**
+	 * Number of columns processed at once by vertical functions
+	 */
+	public static final int STRIP = 64;
+
+	public static void horizontalMin( GrayU8 input , GrayU8 output , int radius , int row0 , int row1 ) {
+		final int width = input.width;
+		final int k = 2*radius + 1;
+		final int lastBlock = (width - 1 + radius)/k;
+		final int[] g = new int[width];
+		final int[] h = new int[width];
+
+		for (int y = row0; y < row1; y++) {
+			final int indexIn = input.startIndex + y*input.stride;
+
+			for (int start = -radius; start < width; start += k) {
+				final int s = Math.max(0, start);
+				final int e = Math.min(width, start + k);
+
+				int best = g[s] = input.data[indexIn + s] & 0xFF;
+				for (int x = s + 1; x < e; x++) {
+					int v = input.data[indexIn + x] & 0xFF;
+					g[x] = best = v < best ? v : best;
+				}
+				best = h[e - 1] = input.data[indexIn + e - 1] & 0xFF;
+				for (int x = e - 2; x >= s; x--) {
+					int v = input.data[indexIn + x] & 0xFF;
+					h[x] = best = v < best ? v : best;
+				}
+			}
+
+			final int indexOut = output.startIndex + y*output.stride;
+			for (int x = 0; x < width; x++) {
+				int a = h[Math.max(0, x - radius)];
+				int b = a;
+				int j = x + radius;
+				if( j < width )
+					b = g[j];
+				else if( (j + radius)/k == lastBlock )
+					b = g[width - 1];
+				output.data[indexOut + x] = (byte)(b < a ? b : a);
+			}
+		}
+	}
+
+	public static void horizontalMax( GrayU8 input , GrayU8 output , int radius , int row0 , int row1 ) {
+		final int width = input.width;
+		final int k = 2*radius + 1;
+		final int lastBlock = (width - 1 + radius)/k;
+		final int[] g = new int[width];
+		final int[] h = new int[width];
+
+		for (int y = row0; y < row1; y++) {
+			final int indexIn = input.startIndex + y*input.stride;
+
+			for (int start = -radius; start < width; start += k) {
+				final int s = Math.max(0, start);
+				final int e = Math.min(width, start + k);
+
+				int best = g[s] = input.data[indexIn + s] & 0xFF;
+				for (int x = s + 1; x < e; x++) {
+					int v = input.data[indexIn + x] & 0xFF;
+					g[x] = best = v > best ? v : best;
+				}
+				best = h[e - 1] = input.data[indexIn + e - 1] & 0xFF;
+				for (int x = e - 2; x >= s; x--) {
+					int v = input.data[indexIn + x] & 0xFF;
+					h[x] = best = v > best ? v : best;
+				}
+			}
+
+			final int indexOut = output.startIndex + y*output.stride;
+			for (int x = 0; x < width; x++) {
+				int a = h[Math.max(0, x - radius)];
+				int b = a;
+				int j = x + radius;
+				if( j < width )
+					b = g[j];
+				else if( (j + radius)/k == lastBlock )
+					b = g[width - 1];
+				output.data[indexOut + x] = (byte)(b > a ? b : a);
+			}
+		}
+	}
+
+	public static void horizontalMin( GrayU16 input , GrayU16 output , int radius , int row0 , int row1 ) {
+		final int width = input.width;
+		final int k = 2*radius + 1;
+		final int lastBlock = (width - 1 + radius)/k;
+		final int[] g = new int[width];
+		final int[] h = new int[width];
+
+		for (int y = row0; y < row1; y++) {
+			final int indexIn = input.startIndex + y*input.stride;
+
+			for (int start = -radius; start < width; start += k) {
+				final int s = Math.max(0, start);
+				final int e = Math.min(width, start + k);
+
+				int best = g[s] = input.data[indexIn + s] & 0xFFFF;
+				for (int x = s + 1; x < e; x++) {
+					int v = input.data[indexIn + x] & 0xFFFF;
+					g[x] = best = v < best ? v : best;
+				}
+				best = h[e - 1] = input.data[indexIn + e - 1] & 0xFFFF;
+				for (int x = e - 2; x >= s; x--) {
+					int v = input.data[indexIn + x] & 0xFFFF;
+					h[x] = best = v < best ? v : best;
+				}
+			}
+
+			final int indexOut = output.startIndex + y*output.stride;
+			for (int x = 0; x < width; x++) {
+				int a = h[Math.max(0, x - radius)];
+				int b = a;
+				int j = x + radius;
+				if( j < width )
+					b = g[j];
+				else if( (j + radius)/k == lastBlock )
+					b = g[width - 1];
+				output.data[indexOut + x] = (short)(b < a ? b : a);
+			}
+		}
+	}
+
+	public static void horizontalMax( GrayU16 input , GrayU16 output , int radius , int row0 , int row1 ) {
+		final int width = input.width;
+		final int k = 2*radius + 1;
+		final int lastBlock = (width - 1 + radius)/k;
+		final int[] g = new int[width];
+		final int[] h = new int[width];
+
+		for (int y = row0; y < row1; y++) {
+			final int indexIn = input.startIndex + y*input.stride;
+
+			for (int start = -radius; start < width; start += k) {
+				final int s = Math.max(0, start);
+				final int e = Math.min(width, start + k);
+
+				int best = g[s] = input.data[indexIn + s] & 0xFFFF;
+				for (int x = s + 1; x < e; x++) {
+					int v = input.data[indexIn + x] & 0xFFFF;
+					g[x] = best = v > best ? v : best;
+				}
+				best = h[e - 1] = input.data[indexIn + e - 1] & 0xFFFF;
+				for (int x = e - 2; x >= s; x--) {
+					int v = input.data[indexIn + x] & 0xFFFF;
+					h[x] = best = v > best ? v : best;
+				}
+			}
+
+			final int indexOut = output.startIndex + y*output.stride;
+			for (int x = 0; x < width; x++) {
+				int a = h[Math.max(0, x - radius)];
+				int b = a;
+				int j = x + radius;
+				if( j < width )
+					b = g[j];
+				else if( (j + radius)/k == lastBlock )
+					b = g[width - 1];
+				output.data[indexOut + x] = (short)(b > a ? b : a);
+			}
+		}
+	}
+
+	public static void horizontalMin( GrayF32 input , GrayF32 output , int radius , int row0 , int row1 ) {
+		final int width = input.width;
+		final int k = 2*radius + 1;
+		final int lastBlock = (width - 1 + radius)/k;
+		final float[] g = new float[width];
+		final float[] h = new float[width];
+
+		for (int y = row0; y < row1; y++) {
+			final int indexIn = input.startIndex + y*input.stride;
+
+			for (int start = -radius; start < width; start += k) {
+				final int s = Math.max(0, start);
+				final int e = Math.min(width, start + k);
+
+				float best = g[s] = input.data[indexIn + s];
+				for (int x = s + 1; x < e; x++) {
+					float v = input.data[indexIn + x];
+					g[x] = best = v < best ? v : best;
+				}
+				best = h[e - 1] = input.data[indexIn + e - 1];
+				for (int x = e - 2; x >= s; x--) {
+					float v = input.data[indexIn + x];
+					h[x] = best = v < best ? v : best;
+				}
+			}
+
+			final int indexOut = output.startIndex + y*output.stride;
+			for (int x = 0; x < width; x++) {
+				float a = h[Math.max(0, x - radius)];
+				float b = a;
+				int j = x + radius;
+				if( j < width )
+					b = g[j];
+				else if( (j + radius)/k == lastBlock )
+					b = g[width - 1];
+				output.data[indexOut + x] = (b < a ? b : a);
+			}
+		}
+	}
+
+	public static void horizontalMax( GrayF32 input , GrayF32 output , int radius , int row0 , int row1 ) {
+		final int width = input.width;
+		final int k = 2*radius + 1;
+		final int lastBlock = (width - 1 + radius)/k;
+		final float[] g = new float[width];
+		final float[] h = new float[width];
+
+		for (int y = row0; y < row1; y++) {
+			final int indexIn = input.startIndex + y*input.stride;
+
+			for (int start = -radius; start < width; start += k) {
+				final int s = Math.max(0, start);
+				final int e = Math.min(width, start + k);
+
+				float best = g[s] = input.data[indexIn + s];
+				for (int x = s + 1; x < e; x++) {
+					float v = input.data[indexIn + x];
+					g[x] = best = v > best ? v : best;
+				}
+				best = h[e - 1] = input.data[indexIn + e - 1];
+				for (int x = e - 2; x >= s; x--) {
+					float v = input.data[indexIn + x];
+					h[x] = best = v > best ? v : best;
+				}
+			}
+
+			final int indexOut = output.startIndex + y*output.stride;
+			for (int x = 0; x < width; x++) {
+				float a = h[Math.max(0, x - radius)];
+				float b = a;
+				int j = x + radius;
+				if( j < width )
+					b = g[j];
+				else if( (j + radius)/k == lastBlock )
+					b = g[width - 1];
+				output.data[indexOut + x] = (b > a ? b : a);
+			}
+		}
+	}
+
+	public static void verticalMin( GrayU8 input , GrayU8 output , int radius , int col0 , int col1 ) {
+		final int height = input.height;
+		final int k = 2*radius + 1;
+		final int lastBlock = (height - 1 + radius)/k;
+		final int[] g = new int[Math.min(STRIP, col1 - col0)*height];
+		final int[] h = new int[g.length];
+
+		for (int x0 = col0; x0 < col1; x0 += STRIP) {
+			final int sw = Math.min(STRIP, col1 - x0);
+
+			for (int start = -radius; start < height; start += k) {
+				final int s = Math.max(0, start);
+				final int e = Math.min(height, start + k);
+
+				int indexIn = input.startIndex + s*input.stride + x0;
+				for (int i = 0; i < sw; i++) {
+					g[s*sw + i] = input.data[indexIn + i] & 0xFF;
+				}
+				for (int y = s + 1; y < e; y++) {
+					indexIn = input.startIndex + y*input.stride + x0;
+					int indexG = y*sw;
+					for (int i = 0; i < sw; i++, indexG++) {
+						int v = input.data[indexIn + i] & 0xFF;
+						int p = g[indexG - sw];
+						g[indexG] = v < p ? v : p;
+					}
+				}
+
+				indexIn = input.startIndex + (e - 1)*input.stride + x0;
+				for (int i = 0; i < sw; i++) {
+					h[(e - 1)*sw + i] = input.data[indexIn + i] & 0xFF;
+				}
+				for (int y = e - 2; y >= s; y--) {
+					indexIn = input.startIndex + y*input.stride + x0;
+					int indexH = y*sw;
+					for (int i = 0; i < sw; i++, indexH++) {
+						int v = input.data[indexIn + i] & 0xFF;
+						int p = h[indexH + sw];
+						h[indexH] = v < p ? v : p;
+					}
+				}
+			}
+
+			for (int y = 0; y < height; y++) {
+				final int indexA = Math.max(0, y - radius)*sw;
+				final int indexOut = output.startIndex + y*output.stride + x0;
+				int j = y + radius;
+				if( j >= height && (j + radius)/k != lastBlock ) {
+					for (int i = 0; i < sw; i++) {
+						output.data[indexOut + i] = (byte)h[indexA + i];
+					}
+				} else {
+					final int indexB = Math.min(j, height - 1)*sw;
+					for (int i = 0; i < sw; i++) {
+						int a = h[indexA + i];
+						int b = g[indexB + i];
+						output.data[indexOut + i] = (byte)(b < a ? b : a);
+					}
+				}
+			}
+		}
+	}
+
+	public static void verticalMax( GrayU8 input , GrayU8 output , int radius , int col0 , int col1 ) {
+		final int height = input.height;
+		final int k = 2*radius + 1;
+		final int lastBlock = (height - 1 + radius)/k;
+		final int[] g = new int[Math.min(STRIP, col1 - col0)*height];
+		final int[] h = new int[g.length];
+
+		for (int x0 = col0; x0 < col1; x0 += STRIP) {
+			final int sw = Math.min(STRIP, col1 - x0);
+
+			for (int start = -radius; start < height; start += k) {
+				final int s = Math.max(0, start);
+				final int e = Math.min(height, start + k);
+
+				int indexIn = input.startIndex + s*input.stride + x0;
+				for (int i = 0; i < sw; i++) {
+					g[s*sw + i] = input.data[indexIn + i] & 0xFF;
+				}
+				for (int y = s + 1; y < e; y++) {
+					indexIn = input.startIndex + y*input.stride + x0;
+					int indexG = y*sw;
+					for (int i = 0; i < sw; i++, indexG++) {
+						int v = input.data[indexIn + i] & 0xFF;
+						int p = g[indexG - sw];
+						g[indexG] = v > p ? v : p;
+					}
+				}
+
+				indexIn = input.startIndex + (e - 1)*input.stride + x0;
+				for (int i = 0; i < sw; i++) {
+					h[(e - 1)*sw + i] = input.data[indexIn + i] & 0xFF;
+				}
+				for (int y = e - 2; y >= s; y--) {
+					indexIn = input.startIndex + y*input.stride + x0;
+					int indexH = y*sw;
+					for (int i = 0; i < sw; i++, indexH++) {
+						int v = input.data[indexIn + i] & 0xFF;
+						int p = h[indexH + sw];
+						h[indexH] = v > p ? v : p;
+					}
+				}
+			}
+
+			for (int y = 0; y < height; y++) {
+				final int indexA = Math.max(0, y - radius)*sw;
+				final int indexOut = output.startIndex + y*output.stride + x0;
+				int j = y + radius;
+				if( j >= height && (j + radius)/k != lastBlock ) {
+					for (int i = 0; i < sw; i++) {
+						output.data[indexOut + i] = (byte)h[indexA + i];
+					}
+				} else {
+					final int indexB = Math.min(j, height - 1)*sw;
+					for (int i = 0; i < sw; i++) {
+						int a = h[indexA + i];
+						int b = g[indexB + i];
+						output.data[indexOut + i] = (byte)(b > a ? b : a);
+					}
+				}
+			}
+		}
+	}
+
+	public static void verticalMin( GrayU16 input , GrayU16 output , int radius , int col0 , int col1 ) {
+		final int height = input.height;
+		final int k = 2*radius + 1;
+		final int lastBlock = (height - 1 + radius)/k;
+		final int[] g = new int[Math.min(STRIP, col1 - col0)*height];
+		final int[] h = new int[g.length];
+
+		for (int x0 = col0; x0 < col1; x0 += STRIP) {
+			final int sw = Math.min(STRIP, col1 - x0);
+
+			for (int start = -radius; start < height; start += k) {
+				final int s = Math.max(0, start);
+				final int e = Math.min(height, start + k);
+
+				int indexIn = input.startIndex + s*input.stride + x0;
+				for (int i = 0; i < sw; i++) {
+					g[s*sw + i] = input.data[indexIn + i] & 0xFFFF;
+				}
+				for (int y = s + 1; y < e; y++) {
+					indexIn = input.startIndex + y*input.stride + x0;
+					int indexG = y*sw;
+					for (int i = 0; i < sw; i++, indexG++) {
+						int v = input.data[indexIn + i] & 0xFFFF;
+						int p = g[indexG - sw];
+						g[indexG] = v < p ? v : p;
+					}
+				}
+
+				indexIn = input.startIndex + (e - 1)*input.stride + x0;
+				for (int i = 0; i < sw; i++) {
+					h[(e - 1)*sw + i] = input.data[indexIn + i] & 0xFFFF;
+				}
+				for (int y = e - 2; y >= s; y--) {
+					indexIn = input.startIndex + y*input.stride + x0;
+					int indexH = y*sw;
+					for (int i = 0; i < sw; i++, indexH++) {
+						int v = input.data[indexIn + i] & 0xFFFF;
+						int p = h[indexH + sw];
+						h[indexH] = v < p ? v : p;
+					}
+				}
+			}
+
+			for (int y = 0; y < height; y++) {
+				final int indexA = Math.max(0, y - radius)*sw;
+				final int indexOut = output.startIndex + y*output.stride + x0;
+				int j = y + radius;
+				if( j >= height && (j + radius)/k != lastBlock ) {
+					for (int i = 0; i < sw; i++) {
+						output.data[indexOut + i] = (short)h[indexA + i];
+					}
+				} else {
+					final int indexB = Math.min(j, height - 1)*sw;
+					for (int i = 0; i < sw; i++) {
+						int a = h[indexA + i];
+						int b = g[indexB + i];
+						output.data[indexOut + i] = (short)(b < a ? b : a);
+					}
+				}
+			}
+		}
+	}
+
+	public static void verticalMax( GrayU16 input , GrayU16 output , int radius , int col0 , int col1 ) {
+		final int height = input.height;
+		final int k = 2*radius + 1;
+		final int lastBlock = (height - 1 + radius)/k;
+		final int[] g = new int[Math.min(STRIP, col1 - col0)*height];
+		final int[] h = new int[g.length];
+
+		for (int x0 = col0; x0 < col1; x0 += STRIP) {
+			final int sw = Math.min(STRIP, col1 - x0);
+
+			for (int start = -radius; start < height; start += k) {
+				final int s = Math.max(0, start);
+				final int e = Math.min(height, start + k);
+
+				int indexIn = input.startIndex + s*input.stride + x0;
+				for (int i = 0; i < sw; i++) {
+					g[s*sw + i] = input.data[indexIn + i] & 0xFFFF;
+				}
+				for (int y = s + 1; y < e; y++) {
+					indexIn = input.startIndex + y*input.stride + x0;
+					int indexG = y*sw;
+					for (int i = 0; i < sw; i++, indexG++) {
+						int v = input.data[indexIn + i] & 0xFFFF;
+						int p = g[indexG - sw];
+						g[indexG] = v > p ? v : p;
+					}
+				}
+
+				indexIn = input.startIndex + (e - 1)*input.stride + x0;
+				for (int i = 0; i < sw; i++) {
+					h[(e - 1)*sw + i] = input.data[indexIn + i] & 0xFFFF;
+				}
+				for (int y = e - 2; y >= s; y--) {
+					indexIn = input.startIndex + y*input.stride + x0;
+					int indexH = y*sw;
+					for (int i = 0; i < sw; i++, indexH++) {
+						int v = input.data[indexIn + i] & 0xFFFF;
+						int p = h[indexH + sw];
+						h[indexH] = v > p ? v : p;
+					}
+				}
+			}
+
+			for (int y = 0; y < height; y++) {
+				final int indexA = Math.max(0, y - radius)*sw;
+				final int indexOut = output.startIndex + y*output.stride + x0;
+				int j = y + radius;
+				if( j >= height && (j + radius)/k != lastBlock ) {
+					for (int i = 0; i < sw; i++) {
+						output.data[indexOut + i] = (short)h[indexA + i];
+					}
+				} else {
+					final int indexB = Math.min(j, height - 1)*sw;
+					for (int i = 0; i < sw; i++) {
+						int a = h[indexA + i];
+						int b = g[indexB + i];
+						output.data[indexOut + i] = (short)(b > a ? b : a);
+					}
+				}
+			}
+		}
+	}
+
+	public static void verticalMin( GrayF32 input , GrayF32 output , int radius , int col0 , int col1 ) {
+		final int height = input.height;
+		final int k = 2*radius + 1;
+		final int lastBlock = (height - 1 + radius)/k;
+		final float[] g = new float[Math.min(STRIP, col1 - col0)*height];
+		final float[] h = new float[g.length];
+
+		for (int x0 = col0; x0 < col1; x0 += STRIP) {
+			final int sw = Math.min(STRIP, col1 - x0);
+
+			for (int start = -radius; start < height; start += k) {
+				final int s = Math.max(0, start);
+				final int e = Math.min(height, start + k);
+
+				int indexIn = input.startIndex + s*input.stride + x0;
+				for (int i = 0; i < sw; i++) {
+					g[s*sw + i] = input.data[indexIn + i];
+				}
+				for (int y = s + 1; y < e; y++) {
+					indexIn = input.startIndex + y*input.stride + x0;
+					int indexG = y*sw;
+					for (int i = 0; i < sw; i++, indexG++) {
+						float v = input.data[indexIn + i];
+						float p = g[indexG - sw];
+						g[indexG] = v < p ? v : p;
+					}
+				}
+
+				indexIn = input.startIndex + (e - 1)*input.stride + x0;
+				for (int i = 0; i < sw; i++) {
+					h[(e - 1)*sw + i] = input.data[indexIn + i];
+				}
+				for (int y = e - 2; y >= s; y--) {
+					indexIn = input.startIndex + y*input.stride + x0;
+					int indexH = y*sw;
+					for (int i = 0; i < sw; i++, indexH++) {
+						float v = input.data[indexIn + i];
+						float p = h[indexH + sw];
+						h[indexH] = v < p ? v : p;
+					}
+				}
+			}
+
+			for (int y = 0; y < height; y++) {
+				final int indexA = Math.max(0, y - radius)*sw;
+				final int indexOut = output.startIndex + y*output.stride + x0;
+				int j = y + radius;
+				if( j >= height && (j + radius)/k != lastBlock ) {
+					for (int i = 0; i < sw; i++) {
+						output.data[indexOut + i] = h[indexA + i];
+					}
+				} else {
+					final int indexB = Math.min(j, height - 1)*sw;
+					for (int i = 0; i < sw; i++) {
+						float a = h[indexA + i];
+						float b = g[indexB + i];
+						output.data[indexOut + i] = (b < a ? b : a);
+					}
+				}
+			}
+		}
+	}
+
+	public static void verticalMax( GrayF32 input , GrayF32 output , int radius , int col0 , int col1 ) {
+		final int height = input.height;
+		final int k = 2*radius + 1;
+		final int lastBlock = (height - 1 + radius)/k;
+		final float[] g = new float[Math.min(STRIP, col1 - col0)*height];
+		final float[] h = new float[g.length];
+
+		for (int x0 = col0; x0 < col1; x0 += STRIP) {
+			final int sw = Math.min(STRIP, col1 - x0);
+
+			for (int start = -radius; start < height; start += k) {
+				final int s = Math.max(0, start);
+				final int e = Math.min(height, start + k);
+
+				int indexIn = input.startIndex + s*input.stride + x0;
+				for (int i = 0; i < sw; i++) {
+					g[s*sw + i] = input.data[indexIn + i];
+				}
+				for (int y = s + 1; y < e; y++) {
+					indexIn = input.startIndex + y*input.stride + x0;
+					int indexG = y*sw;
+					for (int i = 0; i < sw; i++, indexG++) {
+						float v = input.data[indexIn + i];
+						float p = g[indexG - sw];
+						g[indexG] = v > p ? v : p;
+					}
+				}
+
+				indexIn = input.startIndex + (e - 1)*input.stride + x0;
+				for (int i = 0; i < sw; i++) {
+					h[(e - 1)*sw + i] = input.data[indexIn + i];
+				}
+				for (int y = e - 2; y >= s; y--) {
+					indexIn = input.startIndex + y*input.stride + x0;
+					int indexH = y*sw;
+					for (int i = 0; i < sw; i++, indexH++) {
+						float v = input.data[indexIn + i];
+						float p = h[indexH + sw];
+						h[indexH] = v > p ? v : p;
+					}
+				}
+			}
+
+			for (int y = 0; y < height; y++) {
+				final int indexA = Math.max(0, y - radius)*sw;
+				final int indexOut = output.startIndex + y*output.stride + x0;
+				int j = y + radius;
+				if( j >= height && (j + radius)/k != lastBlock ) {
+					for (int i = 0; i < sw; i++) {
+						output.data[indexOut + i] = h[indexA + i];
+					}
+				} else {
+					final int indexB = Math.min(j, height - 1)*sw;
+					for (int i = 0; i < sw; i++) {
+						float a = h[indexA + i];
+						float b = g[indexB + i];
+						output.data[indexOut + i] = (b > a ? b : a);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Sets each output pixel to the minimum of itself and the input
+	 */
+	public static void combineMin( GrayU8 input , GrayU8 output , int row0 , int row1 ) {
+		for (int y = row0; y < row1; y++) {
+			int indexIn = input.startIndex + y*input.stride;
+			int indexOut = output.startIndex + y*output.stride;
+			final int end = indexIn + input.width;
+
+			for (; indexIn < end; indexIn++, indexOut++) {
+				int a = input.data[indexIn] & 0xFF;
+				int b = output.data[indexOut] & 0xFF;
+				if( a < b )
+					output.data[indexOut] = input.data[indexIn];
+			}
+		}
+	}
+
+	/**
+	 * Sets each output pixel to the maximum of itself and the input
+	 */
+	public static void combineMax( GrayU8 input , GrayU8 output , int row0 , int row1 ) {
+		for (int y = row0; y < row1; y++) {
+			int indexIn = input.startIndex + y*input.stride;
+			int indexOut = output.startIndex + y*output.stride;
+			final int end = indexIn + input.width;
+
+			for (; indexIn < end; indexIn++, indexOut++) {
+				int a = input.data[indexIn] & 0xFF;
+				int b = output.data[indexOut] & 0xFF;
+				if( a > b )
+					output.data[indexOut] = input.data[indexIn];
+			}
+		}
+	}
+
+	/**
+	 * Sets each output pixel to the minimum of itself and the input
+	 */
+	public static void combineMin( GrayU16 input , GrayU16 output , int row0 , int row1 ) {
+		for (int y = row0; y < row1; y++) {
+			int indexIn = input.startIndex + y*input.stride;
+			int indexOut = output.startIndex + y*output.stride;
+			final int end = indexIn + input.width;
+
+			for (; indexIn < end; indexIn++, indexOut++) {
+				int a = input.data[indexIn] & 0xFFFF;
+				int b = output.data[indexOut] & 0xFFFF;
+				if( a < b )
+					output.data[indexOut] = input.data[indexIn];
+			}
+		}
+	}
+
+	/**
+	 * Sets each output pixel to the maximum of itself and the input
+	 */
+	public static void combineMax( GrayU16 input , GrayU16 output , int row0 , int row1 ) {
+		for (int y = row0; y < row1; y++) {
+			int indexIn = input.startIndex + y*input.stride;
+			int indexOut = output.startIndex + y*output.stride;
+			final int end = indexIn + input.width;
+
+			for (; indexIn < end; indexIn++, indexOut++) {
+				int a = input.data[indexIn] & 0xFFFF;
+				int b = output.data[indexOut] & 0xFFFF;
+				if( a > b )
+					output.data[indexOut] = input.data[indexIn];
+			}
+		}
+	}
+
+	/**
+	 * Sets each output pixel to the minimum of itself and the input
+	 */
+	public static void combineMin( GrayF32 input , GrayF32 output , int row0 , int row1 ) {
+		for (int y = row0; y < row1; y++) {
+			int indexIn = input.startIndex + y*input.stride;
+			int indexOut = output.startIndex + y*output.stride;
+			final int end = indexIn + input.width;
+
+			for (; indexIn < end; indexIn++, indexOut++) {
+				float a = input.data[indexIn];
+				float b = output.data[indexOut];
+				if( a < b )
+					output.data[indexOut] = input.data[indexIn];
+			}
+		}
+	}
+
+	/**
+	 * Sets each output pixel to the maximum of itself and the input
+	 */
+	public static void combineMax( GrayF32 input , GrayF32 output , int row0 , int row1 ) {
+		for (int y = row0; y < row1; y++) {
+			int indexIn = input.startIndex + y*input.stride;
+			int indexOut = output.startIndex + y*output.stride;
+			final int end = indexIn + input.width;
+
+			for (; indexIn < end; indexIn++, indexOut++) {
+				float a = input.data[indexIn];
+				float b = output.data[indexOut];
+				if( a > b )
+					output.data[indexOut] = input.data[indexIn];
+			}
+		}
+	}
+}
@@ -18,6 +18,7 @@
 
 package boofcv.alg.interpolate;
 
+import boofcv.alg.interpolate.impl.ImplInterpolatePixelBatch;
 import boofcv.core.image.border.ImageBorder;
 import boofcv.struct.image.ImageGray;
 
@@ -76,4 +77,15 @@ public abstract class BilinearPixelS<T extends ImageGray<T>> implements Interpol
 	public ImageBorder<T> getBorder() {
 		return border;
 	}
+
+	@Override
+	public void get(float[] points, int pointsOffset, int count, float[] output, int outputOffset) {
+		ImplInterpolatePixelBatch.get(this, points, pointsOffset, count, output, outputOffset);
+	}
+
+	@Override
+	public void getGrid(float x0, float y0, float stepX, float stepY, int columns, int rows,
+						float[] output, int outputOffset) {
+		ImplInterpolatePixelBatch.getGrid(this, x0, y0, stepX, stepY, columns, rows, output, outputOffset);
+	}
 }
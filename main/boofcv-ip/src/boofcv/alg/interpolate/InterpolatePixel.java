@@ -85,4 +85,12 @@ public interface InterpolatePixel<T extends ImageBase<T>> {
 	 */
 	public ImageType<T> getImageType();
 
+	/**
+	 * Creates a new instance of this interpolation algorithm with the same configuration.  The image border
+	 * is shared with the original and the image must be specified again.  Useful when each thread needs its own
+	 * instance.
+	 *
+	 * @return New instance
+	 */
+	public InterpolatePixel<T> copy();
 }
@@ -48,4 +48,36 @@ public interface InterpolatePixelS<T extends ImageGray<T>> extends InterpolatePi
 	 * @return Interpolated intensity value.
 	 */
 	public float get_fast(float x, float y);
+
+	/**
+	 * Interpolates a batch of points.  The results are identical to calling {@link #get(float, float)} on
+	 * each point, but implementations can avoid per-sample overhead.
+	 *
+	 * @param points Interleaved point coordinates, e.g. x0,y0,x1,y1,...  Not modified.
+	 * @param pointsOffset Index of the first point's x-coordinate in the points array.
+	 * @param count Number of points which are interpolated.
+	 * @param output Storage for interpolated values.  Point i is written to output[outputOffset+i]. Modified.
+	 * @param outputOffset Index of the first element written to in output.
+	 */
+	public void get( float[] points , int pointsOffset , int count , float[] output , int outputOffset );
+
+	/**
+	 * Interpolates points along a regular grid. Point (col,row) is located at (x0 + col*stepX, y0 + row*stepY)
+	 * and is written to output[outputOffset + row*columns + col].  The results are identical to calling
+	 * {@link #get(float, float)} on each point, but implementations can avoid per-sample overhead.
+	 *
+	 * @param x0 x-coordinate of the first point in the grid
+	 * @param y0 y-coordinate of the first point in the grid
+	 * @param stepX Spacing between columns
+	 * @param stepY Spacing between rows
+	 * @param columns Number of columns in the grid
+	 * @param rows Number of rows in the grid
+	 * @param output Storage for interpolated values. Modified.
+	 * @param outputOffset Index of the first element written to in output.
+	 */
+	public void getGrid( float x0 , float y0 , float stepX , float stepY , int columns , int rows ,
+						 float[] output , int outputOffset );
+
+	@Override
+	public InterpolatePixelS<T> copy();
 }
@@ -81,6 +81,11 @@ public class InterpolatePixel_S_to_MB<T extends ImageGray<T>> implements Interpo
 		return interp.getFastBorderY();
 	}
 
+	@Override
+	public InterpolatePixelMB<T> copy() {
+		return new InterpolatePixel_S_to_MB<>(interp.copy());
+	}
+
 	@Override
 	public ImageType<T> getImageType() {
 		return interp.getImageType();
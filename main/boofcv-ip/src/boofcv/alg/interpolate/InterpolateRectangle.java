@@ -52,5 +52,16 @@ public interface InterpolateRectangle<T extends ImageGray<T>> {
 	 * @param dest Where the interpolated region is to be copied into
 	 */
 	public void region(float tl_x, float tl_y, GrayF32 dest );
-//	public void region(float tl_x, float tl_y, float[] results, int regWidth, int regHeight);
+
+	/**
+	 * Same as {@link #region(float, float, GrayF32)} but the results are written into an array.  Pixel (x,y)
+	 * in the region is written to results[y*regWidth + x].
+	 *
+	 * @param tl_x	  upper left corner of the region in the image.
+	 * @param tl_y	  upper left corner of the region in the image.
+	 * @param results Where the interpolated region is written to.  Must have at least regWidth*regHeight elements.
+	 * @param regWidth Width of the region
+	 * @param regHeight Height of the region
+	 */
+	public void region(float tl_x, float tl_y, float[] results, int regWidth, int regHeight);
 }
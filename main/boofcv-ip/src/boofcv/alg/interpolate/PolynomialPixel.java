@@ -18,8 +18,8 @@
 
 package boofcv.alg.interpolate;
 
-
 import boofcv.alg.interpolate.array.PolynomialNevilleFixed_F32;
+import boofcv.alg.interpolate.impl.ImplInterpolatePixelBatch;
 import boofcv.core.image.border.ImageBorder;
 import boofcv.struct.image.ImageGray;
 
@@ -114,4 +114,15 @@ public abstract class PolynomialPixel<T extends ImageGray<T>> implements Interpo
 	public ImageBorder<T> getBorder() {
 		return border;
 	}
+
+	@Override
+	public void get(float[] points, int pointsOffset, int count, float[] output, int outputOffset) {
+		ImplInterpolatePixelBatch.get(this, points, pointsOffset, count, output, outputOffset);
+	}
+
+	@Override
+	public void getGrid(float x0, float y0, float stepX, float stepY, int columns, int rows,
+						float[] output, int outputOffset) {
+		ImplInterpolatePixelBatch.getGrid(this, x0, y0, stepX, stepY, columns, rows, output, outputOffset);
+	}
 }
@@ -42,6 +42,9 @@ public class BilinearRectangle_U8 implements InterpolateRectangle<GrayU8> {
 	private byte data[];
 	private int stride;
 
+	// used to process an array as if it was an image
+	private GrayF32 wrapper = new GrayF32();
+
 	public BilinearRectangle_U8(GrayU8 image) {
 		setImage(image);
 	}
@@ -126,6 +129,18 @@ public class BilinearRectangle_U8 implements InterpolateRectangle<GrayU8> {
 			handleBorder(output, xt, yt, ax, ay, bx, by, regWidth, regHeight, results, borderRight, borderBottom);
 	}
 
+	@Override
+	public void region(float tl_x, float tl_y, float[] results, int regWidth, int regHeight) {
+		if( results.length < regWidth*regHeight )
+			throw new IllegalArgumentException("results array is too small");
+		wrapper.data = results;
+		wrapper.width = regWidth;
+		wrapper.height = regHeight;
+		wrapper.stride = regWidth;
+		wrapper.startIndex = 0;
+		region(tl_x, tl_y, wrapper);
+	}
+
 	private void handleBorder( GrayF32 output,
 							  int xt, int yt,
 							  float ax, float ay, float bx, float by,
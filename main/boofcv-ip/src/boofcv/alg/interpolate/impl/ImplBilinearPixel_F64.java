@@ -89,6 +89,13 @@ public class ImplBilinearPixel_F64 extends BilinearPixelS<GrayF64> {
 		return get_fast(x,y);
 	}
 
+	@Override
+	public ImplBilinearPixel_F64 copy() {
+		ImplBilinearPixel_F64 out = new ImplBilinearPixel_F64();
+		out.setBorder(border);
+		return out;
+	}
+
 	@Override
 	public ImageType<GrayF64> getImageType() {
 		return ImageType.single(GrayF64.class);
@@ -122,6 +122,13 @@ public class ImplBilinearPixel_IL_F32 extends BilinearPixelMB<InterleavedF32> {
 			get_fast(x, y, values);
 	}
 
+	@Override
+	public ImplBilinearPixel_IL_F32 copy() {
+		ImplBilinearPixel_IL_F32 out = new ImplBilinearPixel_IL_F32(temp0.length);
+		out.setBorder(border);
+		return out;
+	}
+
 	@Override
 	public ImageType<InterleavedF32> getImageType() {
 		return orig.getImageType();
@@ -122,6 +122,13 @@ public class ImplBilinearPixel_IL_F64 extends BilinearPixelMB<InterleavedF64> {
 			get_fast(x, y, values);
 	}
 
+	@Override
+	public ImplBilinearPixel_IL_F64 copy() {
+		ImplBilinearPixel_IL_F64 out = new ImplBilinearPixel_IL_F64(temp0.length);
+		out.setBorder(border);
+		return out;
+	}
+
 	@Override
 	public ImageType<InterleavedF64> getImageType() {
 		return orig.getImageType();
@@ -122,6 +122,13 @@ public class ImplBilinearPixel_IL_S32 extends BilinearPixelMB<InterleavedS32> {
 			get_fast(x, y, values);
 	}
 
+	@Override
+	public ImplBilinearPixel_IL_S32 copy() {
+		ImplBilinearPixel_IL_S32 out = new ImplBilinearPixel_IL_S32(temp0.length);
+		out.setBorder(border);
+		return out;
+	}
+
 	@Override
 	public ImageType<InterleavedS32> getImageType() {
 		return orig.getImageType();
@@ -122,6 +122,13 @@ public class ImplBilinearPixel_IL_U8 extends BilinearPixelMB<InterleavedU8> {
 			get_fast(x, y, values);
 	}
 
+	@Override
+	public ImplBilinearPixel_IL_U8 copy() {
+		ImplBilinearPixel_IL_U8 out = new ImplBilinearPixel_IL_U8(temp0.length);
+		out.setBorder(border);
+		return out;
+	}
+
 	@Override
 	public ImageType<InterleavedU8> getImageType() {
 		return orig.getImageType();
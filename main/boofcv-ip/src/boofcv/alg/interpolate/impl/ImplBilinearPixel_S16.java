@@ -89,6 +89,13 @@ public class ImplBilinearPixel_S16 extends BilinearPixelS<GrayS16> {
 		return get_fast(x,y);
 	}
 
+	@Override
+	public ImplBilinearPixel_S16 copy() {
+		ImplBilinearPixel_S16 out = new ImplBilinearPixel_S16();
+		out.setBorder(border);
+		return out;
+	}
+
 	@Override
 	public ImageType<GrayS16> getImageType() {
 		return ImageType.single(GrayS16.class);
@@ -89,6 +89,13 @@ public class ImplBilinearPixel_S32 extends BilinearPixelS<GrayS32> {
 		return get_fast(x,y);
 	}
 
+	@Override
+	public ImplBilinearPixel_S32 copy() {
+		ImplBilinearPixel_S32 out = new ImplBilinearPixel_S32();
+		out.setBorder(border);
+		return out;
+	}
+
 	@Override
 	public ImageType<GrayS32> getImageType() {
 		return ImageType.single(GrayS32.class);
@@ -37,6 +37,10 @@ import boofcv.struct.image.ImageType;
  */
 public class ImplBilinearPixel_U8 extends BilinearPixelS<GrayU8> {
 
+	// workspace for interpolating a grid.  Column index and interpolation weight
+	private int[] gridColumns = new int[0];
+	private float[] gridWeights = new float[0];
+
 	public ImplBilinearPixel_U8() {
 	}
 
@@ -89,6 +93,91 @@ public class ImplBilinearPixel_U8 extends BilinearPixelS<GrayU8> {
 		return get_fast(x,y);
 	}
 
+	@Override
+	public void get(float[] points, int pointsOffset, int count, float[] output, int outputOffset) {
+		final byte[] data = orig.data;
+
+		for (int i = 0, indexPt = pointsOffset; i < count; i++, indexPt += 2) {
+			float x = points[indexPt];
+			float y = points[indexPt + 1];
+
+			if (x < 0 || y < 0 || x > width-2 || y > height-2) {
+				output[outputOffset + i] = get_border(x, y);
+				continue;
+			}
+
+			int xt = (int) x;
+			int yt = (int) y;
+			float ax = x - xt;
+			float ay = y - yt;
+
+			int index = orig.startIndex + yt * stride + xt;
+
+			float val = (1.0f - ax) * (1.0f - ay) * (data[index] & 0xFF); // (x,y)
+			val += ax * (1.0f - ay) * (data[index + 1] & 0xFF); // (x+1,y)
+			val += ax * ay * (data[index + 1 + stride] & 0xFF); // (x+1,y+1)
+			val += (1.0f - ax) * ay * (data[index + stride] & 0xFF); // (x,y+1)
+
+			output[outputOffset + i] = val;
+		}
+	}
+
+	@Override
+	public void getGrid(float x0, float y0, float stepX, float stepY, int columns, int rows,
+						float[] output, int outputOffset) {
+		if( columns <= 0 || rows <= 0 )
+			return;
+
+		// the grid is only inside the image if its corners are
+		float x1 = x0 + (columns - 1)*stepX;
+		float y1 = y0 + (rows - 1)*stepY;
+		if( !isInFastBounds(x0, y0) || !isInFastBounds(x1, y1) ) {
+			ImplInterpolatePixelBatch.getGrid(this, x0, y0, stepX, stepY, columns, rows, output, outputOffset);
+			return;
+		}
+
+		// the column look ups are the same for every row
+		if( gridColumns.length < columns ) {
+			gridColumns = new int[columns];
+			gridWeights = new float[columns];
+		}
+		for (int col = 0; col < columns; col++) {
+			float x = x0 + col*stepX;
+			int xt = (int) x;
+			gridColumns[col] = xt;
+			gridWeights[col] = x - xt;
+		}
+
+		final byte[] data = orig.data;
+
+		for (int row = 0; row < rows; row++) {
+			float y = y0 + row*stepY;
+			int yt = (int) y;
+			float ay = y - yt;
+			int indexRow = orig.startIndex + yt * stride;
+			int indexOut = outputOffset + row*columns;
+
+			for (int col = 0; col < columns; col++) {
+				float ax = gridWeights[col];
+				int index = indexRow + gridColumns[col];
+
+				float val = (1.0f - ax) * (1.0f - ay) * (data[index] & 0xFF); // (x,y)
+				val += ax * (1.0f - ay) * (data[index + 1] & 0xFF); // (x+1,y)
+				val += ax * ay * (data[index + 1 + stride] & 0xFF); // (x+1,y+1)
+				val += (1.0f - ax) * ay * (data[index + stride] & 0xFF); // (x,y+1)
+
+				output[indexOut++] = val;
+			}
+		}
+	}
+
+	@Override
+	public ImplBilinearPixel_U8 copy() {
+		ImplBilinearPixel_U8 out = new ImplBilinearPixel_U8();
+		out.setBorder(border);
+		return out;
+	}
+
 	@Override
 	public ImageType<GrayU8> getImageType() {
 		return ImageType.single(GrayU8.class);
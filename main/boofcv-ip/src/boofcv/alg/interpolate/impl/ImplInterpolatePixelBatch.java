@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.interpolate.impl;
+
+import boofcv.alg.interpolate.InterpolatePixelS;
+
+
+/**
+ * Implementations of the batch functions in {@link InterpolatePixelS} which simply invoke
+ * {@link InterpolatePixelS#get(float, float)} for every point.  Used by interpolation algorithms which
+ * don't have a specialized implementation.
+ *
+ * @author Peter Abeles
+ */
+public class ImplInterpolatePixelBatch {
+
+	/**
+	 * @see InterpolatePixelS#get(float[], int, int, float[], int)
+	 */
+	public static void get( InterpolatePixelS interp , float[] points , int pointsOffset , int count ,
+							float[] output , int outputOffset ) {
+		for (int i = 0, indexPt = pointsOffset; i < count; i++, indexPt += 2) {
+			output[outputOffset + i] = interp.get(points[indexPt], points[indexPt + 1]);
+		}
+	}
+
+	/**
+	 * @see InterpolatePixelS#getGrid(float, float, float, float, int, int, float[], int)
+	 */
+	public static void getGrid( InterpolatePixelS interp , float x0 , float y0 , float stepX , float stepY ,
+								int columns , int rows , float[] output , int outputOffset ) {
+		for (int row = 0; row < rows; row++) {
+			float y = y0 + row*stepY;
+			int indexOut = outputOffset + row*columns;
+			for (int col = 0; col < columns; col++) {
+				output[indexOut++] = interp.get(x0 + col*stepX, y);
+			}
+		}
+	}
+}
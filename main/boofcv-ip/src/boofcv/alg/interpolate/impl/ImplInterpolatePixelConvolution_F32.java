@@ -205,6 +205,24 @@ public class ImplInterpolatePixelConvolution_F32 implements InterpolatePixelS<Gr
 	public ImageBorder<GrayF32> getBorder() {
 		return border;
 	}
+	@Override
+	public ImplInterpolatePixelConvolution_F32 copy() {
+		ImplInterpolatePixelConvolution_F32 out = new ImplInterpolatePixelConvolution_F32(kernel,min,max);
+		out.setBorder(border);
+		return out;
+	}
+
+	@Override
+	public void get(float[] points, int pointsOffset, int count, float[] output, int outputOffset) {
+		ImplInterpolatePixelBatch.get(this, points, pointsOffset, count, output, outputOffset);
+	}
+
+	@Override
+	public void getGrid(float x0, float y0, float stepX, float stepY, int columns, int rows,
+						float[] output, int outputOffset) {
+		ImplInterpolatePixelBatch.getGrid(this, x0, y0, stepX, stepY, columns, rows, output, outputOffset);
+	}
+
 	@Override
 	public ImageType<GrayF32> getImageType() {
 		return ImageType.single(GrayF32.class);
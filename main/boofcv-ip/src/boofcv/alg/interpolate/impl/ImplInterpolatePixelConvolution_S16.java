@@ -205,6 +205,24 @@ public class ImplInterpolatePixelConvolution_S16 implements InterpolatePixelS<Gr
 	public ImageBorder<GrayS16> getBorder() {
 		return border;
 	}
+	@Override
+	public ImplInterpolatePixelConvolution_S16 copy() {
+		ImplInterpolatePixelConvolution_S16 out = new ImplInterpolatePixelConvolution_S16(kernel,min,max);
+		out.setBorder(border);
+		return out;
+	}
+
+	@Override
+	public void get(float[] points, int pointsOffset, int count, float[] output, int outputOffset) {
+		ImplInterpolatePixelBatch.get(this, points, pointsOffset, count, output, outputOffset);
+	}
+
+	@Override
+	public void getGrid(float x0, float y0, float stepX, float stepY, int columns, int rows,
+						float[] output, int outputOffset) {
+		ImplInterpolatePixelBatch.getGrid(this, x0, y0, stepX, stepY, columns, rows, output, outputOffset);
+	}
+
 	@Override
 	public ImageType<GrayS16> getImageType() {
 		return ImageType.single(GrayS16.class);
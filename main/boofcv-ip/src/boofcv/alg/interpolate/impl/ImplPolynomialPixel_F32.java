@@ -139,6 +139,13 @@ public class ImplPolynomialPixel_F32 extends PolynomialPixel<GrayF32> {
 		}
 		return ret;
 	}
+	@Override
+	public ImplPolynomialPixel_F32 copy() {
+		ImplPolynomialPixel_F32 out = new ImplPolynomialPixel_F32(M,min,max);
+		out.setBorder(border);
+		return out;
+	}
+
 	@Override
 	public ImageType<GrayF32> getImageType() {
 		return ImageType.single(GrayF32.class);
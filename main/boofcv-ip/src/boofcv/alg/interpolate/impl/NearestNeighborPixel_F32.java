@@ -70,6 +70,13 @@ public class NearestNeighborPixel_F32 extends NearestNeighborPixelS<GrayF32> {
 		return data[ orig.startIndex + yy*stride + xx];
 	}
 
+	@Override
+	public NearestNeighborPixel_F32 copy() {
+		NearestNeighborPixel_F32 out = new NearestNeighborPixel_F32();
+		out.setBorder(border);
+		return out;
+	}
+
 	@Override
 	public ImageType<GrayF32> getImageType() {
 		return ImageType.single(GrayF32.class);
@@ -74,4 +74,11 @@ public class NearestNeighborPixel_IL_S32 extends NearestNeighborPixelMB<Interlea
 		}
 	}
 
+	@Override
+	public NearestNeighborPixel_IL_S32 copy() {
+		NearestNeighborPixel_IL_S32 out = new NearestNeighborPixel_IL_S32();
+		out.setBorder(border);
+		return out;
+	}
+
 }
@@ -74,4 +74,11 @@ public class NearestNeighborPixel_IL_U8 extends NearestNeighborPixelMB<Interleav
 		}
 	}
 
+	@Override
+	public NearestNeighborPixel_IL_U8 copy() {
+		NearestNeighborPixel_IL_U8 out = new NearestNeighborPixel_IL_U8();
+		out.setBorder(border);
+		return out;
+	}
+
 }
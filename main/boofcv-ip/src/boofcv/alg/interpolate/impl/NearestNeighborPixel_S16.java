@@ -70,6 +70,13 @@ public class NearestNeighborPixel_S16 extends NearestNeighborPixelS<GrayS16> {
 		return data[ orig.startIndex + yy*stride + xx];
 	}
 
+	@Override
+	public NearestNeighborPixel_S16 copy() {
+		NearestNeighborPixel_S16 out = new NearestNeighborPixel_S16();
+		out.setBorder(border);
+		return out;
+	}
+
 	@Override
 	public ImageType<GrayS16> getImageType() {
 		return ImageType.single(GrayS16.class);
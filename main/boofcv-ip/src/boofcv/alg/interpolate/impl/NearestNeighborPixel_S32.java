@@ -70,6 +70,13 @@ public class NearestNeighborPixel_S32 extends NearestNeighborPixelS<GrayS32> {
 		return data[ orig.startIndex + yy*stride + xx];
 	}
 
+	@Override
+	public NearestNeighborPixel_S32 copy() {
+		NearestNeighborPixel_S32 out = new NearestNeighborPixel_S32();
+		out.setBorder(border);
+		return out;
+	}
+
 	@Override
 	public ImageType<GrayS32> getImageType() {
 		return ImageType.single(GrayS32.class);
@@ -70,6 +70,13 @@ public class NearestNeighborPixel_U16 extends NearestNeighborPixelS<GrayU16> {
 		return data[ orig.startIndex + yy*stride + xx]& 0xFFFF;
 	}
 
+	@Override
+	public NearestNeighborPixel_U16 copy() {
+		NearestNeighborPixel_U16 out = new NearestNeighborPixel_U16();
+		out.setBorder(border);
+		return out;
+	}
+
 	@Override
 	public ImageType<GrayU16> getImageType() {
 		return ImageType.single(GrayU16.class);
@@ -70,6 +70,13 @@ public class NearestNeighborPixel_U8 extends NearestNeighborPixelS<GrayU8> {
 		return data[ orig.startIndex + yy*stride + xx]& 0xFF;
 	}
 
+	@Override
+	public NearestNeighborPixel_U8 copy() {
+		NearestNeighborPixel_U8 out = new NearestNeighborPixel_U8();
+		out.setBorder(border);
+		return out;
+	}
+
 	@Override
 	public ImageType<GrayU8> getImageType() {
 		return ImageType.single(GrayU8.class);
@@ -31,6 +31,9 @@ public class NearestNeighborRectangle_F32 implements InterpolateRectangle<GrayF3
 
 	GrayF32 image;
 
+	// used to process an array as if it was an image
+	private GrayF32 wrapper = new GrayF32();
+
 	@Override
 	public void setImage(GrayF32 image) {
 		this.image = image;
@@ -58,4 +61,16 @@ public class NearestNeighborRectangle_F32 implements InterpolateRectangle<GrayF3
 		}
 
 	}
+
+	@Override
+	public void region(float tl_x, float tl_y, float[] results, int regWidth, int regHeight) {
+		if( results.length < regWidth*regHeight )
+			throw new IllegalArgumentException("results array is too small");
+		wrapper.data = results;
+		wrapper.width = regWidth;
+		wrapper.height = regHeight;
+		wrapper.stride = regWidth;
+		wrapper.startIndex = 0;
+		region(tl_x, tl_y, wrapper);
+	}
 }
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.transform.fft;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * <p>
+ * Thread safe cache of 1D FFT plans, indexed by the number of elements.  Creating a {@link GeneralPurposeFFT_F64_1D}
+ * requires the tables of twiddle factors to be computed, which is expensive relative to the transform itself when
+ * images of many different sizes are processed.  The first time a size is requested its tables are computed and
+ * saved.  After that each new instance shares those tables and only needs to declare its own local storage.
+ * </p>
+ *
+ * <p>
+ * The number of sizes saved is bounded.  When the limit is exceeded the least recently used size is discarded.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class FftPlanCache_F64 {
+
+	// the cache which is used by default
+	private static final FftPlanCache_F64 defaultCache = new FftPlanCache_F64(20);
+
+	// maximum number of sizes which are saved
+	private int maxSize;
+
+	// the saved plans.  Ordered from least to most recently used
+	private final LinkedHashMap<Integer,GeneralPurposeFFT_F64_1D> plans =
+			new LinkedHashMap<Integer, GeneralPurposeFFT_F64_1D>(16,0.75f,true) {
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<Integer, GeneralPurposeFFT_F64_1D> eldest) {
+					return size() > maxSize;
+				}
+			};
+
+	/**
+	 * Configures the cache
+	 *
+	 * @param maxSize Maximum number of sizes which are saved.  Must be &ge; 1
+	 */
+	public FftPlanCache_F64(int maxSize) {
+		setMaxSize(maxSize);
+	}
+
+	/**
+	 * Returns the cache which is shared by default
+	 */
+	public static FftPlanCache_F64 getDefault() {
+		return defaultCache;
+	}
+
+	/**
+	 * Creates a new FFT for the specified size.  If the size has been seen before the twiddle tables are
+	 * shared with the saved plan, otherwise they are computed and saved.  The returned instance is owned by the
+	 * caller and can be used independently of every other instance.
+	 *
+	 * @param n Number of elements in the transform
+	 * @return New FFT instance
+	 */
+	public synchronized GeneralPurposeFFT_F64_1D create( int n ) {
+		GeneralPurposeFFT_F64_1D plan = plans.get(n);
+		if( plan == null ) {
+			plan = new GeneralPurposeFFT_F64_1D(n);
+			plans.put(n, plan);
+		}
+		return new GeneralPurposeFFT_F64_1D(plan);
+	}
+
+	/**
+	 * Returns true if a plan for the specified size has been saved
+	 */
+	public synchronized boolean contains( int n ) {
+		return plans.containsKey(n);
+	}
+
+	/**
+	 * Number of plans which have been saved
+	 */
+	public synchronized int size() {
+		return plans.size();
+	}
+
+	/**
+	 * Discards all the saved plans
+	 */
+	public synchronized void clear() {
+		plans.clear();
+	}
+
+	public synchronized int getMaxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * Changes the maximum number of sizes which are saved.  If there are more saved plans than the new limit then
+	 * the least recently used ones are discarded.
+	 */
+	public synchronized void setMaxSize(int maxSize) {
+		if( maxSize < 1 )
+			throw new IllegalArgumentException("maxSize must be at least 1");
+		this.maxSize = maxSize;
+
+		Iterator<Integer> iter = plans.keySet().iterator();
+		while( plans.size() > maxSize ) {
+			iter.next();
+			iter.remove();
+		}
+	}
+}
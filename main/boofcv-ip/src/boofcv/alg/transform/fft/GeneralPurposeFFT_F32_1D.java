@@ -144,6 +144,39 @@ public class GeneralPurposeFFT_F32_1D {
 		ch2 = new float[n*2];
 	}
 
+	/**
+	 * Creates a new instance for the same size as the original.  Tables of twiddle factors, which are expensive
+	 * to compute, are shared with the original and are never modified after construction.  Only local storage is
+	 * declared, allowing each instance to be used by a different thread.
+	 *
+	 * @param original The instance whose tables are shared.
+	 */
+	public GeneralPurposeFFT_F32_1D( GeneralPurposeFFT_F32_1D original ) {
+		this.n = original.n;
+		this.nBluestein = original.nBluestein;
+		this.ip = original.ip;
+		this.w = original.w;
+		this.nw = original.nw;
+		this.nc = original.nc;
+		this.wtable = original.wtable;
+		this.wtable_r = original.wtable_r;
+		this.bk1 = original.bk1;
+		this.bk2 = original.bk2;
+		this.plan = original.plan;
+
+		if( plan == Plans.BLUESTEIN )
+			ak = new float[2 * nBluestein];
+		ch = new float[n];
+		ch2 = new float[n*2];
+	}
+
+	/**
+	 * Number of elements in the transform
+	 */
+	public int getSize() {
+		return n;
+	}
+
 	/**
 	 * Computes 1D forward DFT of complex data leaving the result in
 	 * <code>a</code>. Complex number is stored as two float values in
@@ -18,6 +18,10 @@
 
 package boofcv.alg.transform.fft;
 
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeObjectConsumer;
+import org.ddogleg.struct.FastQueue;
+
 /**
  * <p>
  * Computes 2D Discrete Fourier Transform (DFT) of complex and real, float
@@ -27,8 +31,8 @@ package boofcv.alg.transform.fft;
  * </p><p>
  * This code has a bit of a history.  Originally from General Purpose FFT.  Which was then ported into
  * JFFTPack written by Baoshe Zhang (http://jfftpack.sourceforge.net/), and then into JTransforms by Piotr Wendykier.
- * The major modification from JTransforms is that the SMP code has been stripped out.  It might be added back in
- * once an SMP strategy has been finalized in BoofCV.
+ * The major modification from JTransforms is that the SMP code has been stripped out.  Instead the row and
+ * column passes can optionally be processed concurrently using {@link BoofConcurrency}, see {@link #setConcurrent}.
  * </p>
  * <p>
  * Code License:  The original license of General Purpose FFT Package is shown below.  This file will fall
@@ -54,12 +58,27 @@ public class GeneralPurposeFFT_F32_2D {
 
 	private GeneralPurposeFFT_F32_1D fftColumns, fftRows;
 
+	// source of 1D transforms.  Twiddle tables are shared between every instance of the same size
+	private FftPlanCache_F32 cache;
+
 	private boolean isPowerOfTwo = false;
 
 	// local storage pre-declared
 	private float[] temp;
 	private float[][] temp2;
 
+	// should the row and column passes be processed using multiple threads
+	private boolean concurrent = false;
+	// instances of the same shape which give each thread its own 1D transforms and storage
+	private FastQueue<GeneralPurposeFFT_F32_2D> workspaces;
+
+	// operations which can be applied to each row
+	private static final int COMPLEX_FORWARD = 0;
+	private static final int COMPLEX_INVERSE = 1;
+	private static final int REAL_FORWARD = 2;
+	private static final int REAL_INVERSE = 3;
+	private static final int REAL_INVERSE2 = 4;
+
 	/**
 	 * Creates new instance of DoubleFFT_2D.
 	 *
@@ -69,6 +88,21 @@ public class GeneralPurposeFFT_F32_2D {
 	 *            number of columns
 	 */
 	public GeneralPurposeFFT_F32_2D(int rows, int columns) {
+		this(rows, columns, FftPlanCache_F32.getDefault());
+	}
+
+	/**
+	 * Creates new instance where the 1D transforms are created using the provided cache, which
+	 * avoids recomputing twiddle tables for sizes which have already been seen.
+	 *
+	 * @param rows
+	 *            number of rows
+	 * @param columns
+	 *            number of columns
+	 * @param cache
+	 *            source of the 1D transforms
+	 */
+	public GeneralPurposeFFT_F32_2D(int rows, int columns, FftPlanCache_F32 cache) {
 		if (rows < 1 || columns < 1 ) {
 			throw new IllegalArgumentException("rows and columns must be greater than 0");
 		}
@@ -89,11 +123,12 @@ public class GeneralPurposeFFT_F32_2D {
 			t = new float[nt];
 		}
 
-		fftRows = new GeneralPurposeFFT_F32_1D(rows);
+		this.cache = cache;
+		fftRows = cache.create(rows);
 		if (rows == columns) {
 			fftColumns = fftRows;
 		} else {
-			fftColumns = new GeneralPurposeFFT_F32_1D(columns);
+			fftColumns = cache.create(columns);
 		}
 
 		temp = new float[2 * rows];
@@ -124,37 +159,11 @@ public class GeneralPurposeFFT_F32_2D {
 			return;
 		}
 
+		rowPass(COMPLEX_FORWARD, a, 2 * columns, true);
 		if (isPowerOfTwo) {
-			int oldn2 = columns;
-			columns = 2 * columns;
-			for (int r = 0; r < rows; r++) {
-				fftColumns.complexForward(a, r * columns);
-			}
-			cdft2d_sub(-1, a, true);
-			columns = oldn2;
+			cdft2d_sub(-1, a, true, 2 * columns);
 		} else {
-			final int rowStride = 2 * columns;
-
-			for (int r = 0; r < rows; r++) {
-				fftColumns.complexForward(a, r * rowStride);
-			}
-
-			for (int c = 0; c < columns; c++) {
-				int idx0 = 2 * c;
-				for (int r = 0; r < rows; r++) {
-					int idx1 = 2 * r;
-					int idx2 = r * rowStride + idx0;
-					temp[idx1] = a[idx2];
-					temp[idx1 + 1] = a[idx2 + 1];
-				}
-				fftRows.complexForward(temp);
-				for (int r = 0; r < rows; r++) {
-					int idx1 = 2 * r;
-					int idx2 = r * rowStride + idx0;
-					a[idx2] = temp[idx1];
-					a[idx2 + 1] = temp[idx1 + 1];
-				}
-			}
+			columnPassMixed(true, a, true);
 		}
 	}
 
@@ -187,36 +196,11 @@ public class GeneralPurposeFFT_F32_2D {
 			return;
 		}
 
+		rowPass(COMPLEX_INVERSE, a, 2 * columns, scale);
 		if (isPowerOfTwo) {
-			int oldn2 = columns;
-			columns = 2 * columns;
-			for (int r = 0; r < rows; r++) {
-				fftColumns.complexInverse(a, r * columns, scale);
-			}
-			cdft2d_sub(1, a, scale);
-			columns = oldn2;
+			cdft2d_sub(1, a, scale, 2 * columns);
 		} else {
-			final int rowspan = 2 * columns;
-			for (int r = 0; r < rows; r++) {
-				fftColumns.complexInverse(a, r * rowspan, scale);
-			}
-
-			for (int c = 0; c < columns; c++) {
-				int idx1 = 2 * c;
-				for (int r = 0; r < rows; r++) {
-					int idx2 = 2 * r;
-					int idx3 = r * rowspan + idx1;
-					temp[idx2] = a[idx3];
-					temp[idx2 + 1] = a[idx3 + 1];
-				}
-				fftRows.complexInverse(temp, scale);
-				for (int r = 0; r < rows; r++) {
-					int idx2 = 2 * r;
-					int idx3 = r * rowspan + idx1;
-					a[idx3] = temp[idx2];
-					a[idx3 + 1] = temp[idx2 + 1];
-				}
-			}
+			columnPassMixed(false, a, scale);
 		}
 	}
 
@@ -256,10 +240,8 @@ public class GeneralPurposeFFT_F32_2D {
 		if (isPowerOfTwo == false) {
 			throw new IllegalArgumentException("rows and columns must be power of two numbers");
 		} else {
-			for (int r = 0; r < rows; r++) {
-				fftColumns.realForward(a, r * columns);
-			}
-			cdft2d_sub(-1, a, true);
+			rowPass(REAL_FORWARD, a, columns, true);
+			cdft2d_sub(-1, a, true, columns);
 			rdft2d_sub(1, a);
 		}
 	}
@@ -287,10 +269,8 @@ public class GeneralPurposeFFT_F32_2D {
 		}
 
 		if (isPowerOfTwo) {
-			for (int r = 0; r < rows; r++) {
-				fftColumns.realForward(a, r * columns);
-			}
-			cdft2d_sub(-1, a, true);
+			rowPass(REAL_FORWARD, a, columns, true);
+			cdft2d_sub(-1, a, true, columns);
 			rdft2d_sub(1, a);
 			fillSymmetric(a);
 		} else {
@@ -347,10 +327,8 @@ public class GeneralPurposeFFT_F32_2D {
 			throw new IllegalArgumentException("rows and columns must be power of two numbers");
 		} else {
 			rdft2d_sub(-1, a);
-			cdft2d_sub(1, a, scale);
-			for (int r = 0; r < rows; r++) {
-				fftColumns.realInverse(a, r * columns, scale);
-			}
+			cdft2d_sub(1, a, scale, columns);
+			rowPass(REAL_INVERSE, a, columns, scale);
 		}
 	}
 
@@ -379,10 +357,8 @@ public class GeneralPurposeFFT_F32_2D {
 		}
 
 		if (isPowerOfTwo) {
-			for (int r = 0; r < rows; r++) {
-				fftColumns.realInverse2(a, r * columns, scale);
-			}
-			cdft2d_sub(1, a, scale);
+			rowPass(REAL_INVERSE2, a, columns, scale);
+			cdft2d_sub(1, a, scale, columns);
 			rdft2d_sub(1, a);
 			fillSymmetric(a);
 		} else {
@@ -403,24 +379,13 @@ public class GeneralPurposeFFT_F32_2D {
 		final int n2d2 = columns / 2 + 1;
 		final float[][] temp = temp2;
 
-		for (int r = 0; r < rows; r++) {
-			fftColumns.realForward(a, r * columns);
-		}
+		rowPass(REAL_FORWARD, a, columns, true);
 		for (int r = 0; r < rows; r++) {
 			temp[0][r] = a[r * columns]; //first column is always real
 		}
 		fftRows.realForwardFull(temp[0]);
 
-		for (int c = 1; c < n2d2 - 1; c++) {
-			int idx0 = 2 * c;
-			for (int r = 0; r < rows; r++) {
-				int idx1 = 2 * r;
-				int idx2 = r * columns + idx0;
-				temp[c][idx1] = a[idx2];
-				temp[c][idx1 + 1] = a[idx2 + 1];
-			}
-			fftRows.complexForward(temp[c]);
-		}
+		columnPassMixedReal(true, a, true);
 
 		if ((columns % 2) == 0) {
 			for (int r = 0; r < rows; r++) {
@@ -472,24 +437,13 @@ public class GeneralPurposeFFT_F32_2D {
 		final int n2d2 = columns / 2 + 1;
 		final float[][] temp = temp2;
 
-		for (int r = 0; r < rows; r++) {
-			fftColumns.realInverse2(a, r * columns, scale);
-		}
+		rowPass(REAL_INVERSE2, a, columns, scale);
 		for (int r = 0; r < rows; r++) {
 			temp[0][r] = a[r * columns]; //first column is always real
 		}
 		fftRows.realInverseFull(temp[0], scale);
 
-		for (int c = 1; c < n2d2 - 1; c++) {
-			int idx0 = 2 * c;
-			for (int r = 0; r < rows; r++) {
-				int idx1 = 2 * r;
-				int idx2 = r * columns + idx0;
-				temp[c][idx1] = a[idx2];
-				temp[c][idx1 + 1] = a[idx2 + 1];
-			}
-			fftRows.complexInverse(temp[c], scale);
-		}
+		columnPassMixedReal(false, a, scale);
 
 		if ((columns % 2) == 0) {
 			for (int r = 0; r < rows; r++) {
@@ -567,11 +521,133 @@ public class GeneralPurposeFFT_F32_2D {
 		}
 	}
 
-	private void cdft2d_sub(int isgn, float[] a, boolean scale) {
+	private void rowPass( final int op , final float[] a , final int rowStride , final boolean scale ) {
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, rows, workspaces, new IntRangeObjectConsumer<GeneralPurposeFFT_F32_2D>() {
+				@Override
+				public void accept(GeneralPurposeFFT_F32_2D w, int index0, int index1) {
+					w.rowPass(op, a, rowStride, scale, index0, index1);
+				}
+			});
+		} else {
+			rowPass(op, a, rowStride, scale, 0, rows);
+		}
+	}
+
+	private void rowPass( int op , float[] a , int rowStride , boolean scale , int r0 , int r1 ) {
+		for (int r = r0; r < r1; r++) {
+			switch( op ) {
+				case COMPLEX_FORWARD: fftColumns.complexForward(a, r * rowStride); break;
+				case COMPLEX_INVERSE: fftColumns.complexInverse(a, r * rowStride, scale); break;
+				case REAL_FORWARD: fftColumns.realForward(a, r * rowStride); break;
+				case REAL_INVERSE: fftColumns.realInverse(a, r * rowStride, scale); break;
+				case REAL_INVERSE2: fftColumns.realInverse2(a, r * rowStride, scale); break;
+				default: throw new RuntimeException("Unknown operation");
+			}
+		}
+	}
+
+	/**
+	 * Column pass for complex data when the size is not a power of two
+	 */
+	private void columnPassMixed( final boolean forward , final float[] a , final boolean scale ) {
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, columns, workspaces, new IntRangeObjectConsumer<GeneralPurposeFFT_F32_2D>() {
+				@Override
+				public void accept(GeneralPurposeFFT_F32_2D w, int index0, int index1) {
+					w.columnPassMixed(forward, a, scale, index0, index1);
+				}
+			});
+		} else {
+			columnPassMixed(forward, a, scale, 0, columns);
+		}
+	}
+
+	private void columnPassMixed( boolean forward , float[] a , boolean scale , int c0 , int c1 ) {
+		final int rowStride = 2 * columns;
+
+		for (int c = c0; c < c1; c++) {
+			int idx0 = 2 * c;
+			for (int r = 0; r < rows; r++) {
+				int idx1 = 2 * r;
+				int idx2 = r * rowStride + idx0;
+				temp[idx1] = a[idx2];
+				temp[idx1 + 1] = a[idx2 + 1];
+			}
+			if( forward )
+				fftRows.complexForward(temp);
+			else
+				fftRows.complexInverse(temp, scale);
+			for (int r = 0; r < rows; r++) {
+				int idx1 = 2 * r;
+				int idx2 = r * rowStride + idx0;
+				a[idx2] = temp[idx1];
+				a[idx2 + 1] = temp[idx1 + 1];
+			}
+		}
+	}
+
+	/**
+	 * Column pass for the complex columns of real data when the size is not a power of two.  Results
+	 * are written into temp2.
+	 */
+	private void columnPassMixedReal( final boolean forward , final float[] a , final boolean scale ) {
+		final int n2d2 = columns / 2 + 1;
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(1, n2d2 - 1, workspaces, new IntRangeObjectConsumer<GeneralPurposeFFT_F32_2D>() {
+				@Override
+				public void accept(GeneralPurposeFFT_F32_2D w, int index0, int index1) {
+					w.columnPassMixedReal(forward, a, scale, temp2, index0, index1);
+				}
+			});
+		} else {
+			columnPassMixedReal(forward, a, scale, temp2, 1, n2d2 - 1);
+		}
+	}
+
+	private void columnPassMixedReal( boolean forward , float[] a , boolean scale , float[][] temp , int c0 , int c1 ) {
+		for (int c = c0; c < c1; c++) {
+			int idx0 = 2 * c;
+			for (int r = 0; r < rows; r++) {
+				int idx1 = 2 * r;
+				int idx2 = r * columns + idx0;
+				temp[c][idx1] = a[idx2];
+				temp[c][idx1 + 1] = a[idx2 + 1];
+			}
+			if( forward )
+				fftRows.complexForward(temp[c]);
+			else
+				fftRows.complexInverse(temp[c], scale);
+		}
+	}
+
+	/**
+	 * Column pass when the size is a power of two.
+	 *
+	 * @param columns Number of elements in a row
+	 */
+	private void cdft2d_sub( final int isgn , final float[] a , final boolean scale , final int columns ) {
+		if( concurrent && columns > 4 ) {
+			// columns are processed in groups of 8
+			BoofConcurrency.loopBlocks(0, columns/8, workspaces, new IntRangeObjectConsumer<GeneralPurposeFFT_F32_2D>() {
+				@Override
+				public void accept(GeneralPurposeFFT_F32_2D w, int index0, int index1) {
+					w.cdft2d_sub(isgn, a, scale, columns, index0*8, index1*8);
+				}
+			});
+		} else {
+			cdft2d_sub(isgn, a, scale, columns, 0, columns);
+		}
+	}
+
+	/**
+	 * Applies the column pass to the columns in the range [c0,c1).  If columns &le; 4 all columns are processed.
+	 */
+	private void cdft2d_sub(int isgn, float[] a, boolean scale, int columns, int c0, int c1) {
 		int idx1, idx2, idx3, idx4, idx5;
 		if (isgn == -1) {
 			if (columns > 4) {
-				for (int c = 0; c < columns; c += 8) {
+				for (int c = c0; c < c1; c += 8) {
 					for (int r = 0; r < rows; r++) {
 						idx1 = r * columns + c;
 						idx2 = 2 * r;
@@ -645,7 +721,7 @@ public class GeneralPurposeFFT_F32_2D {
 			}
 		} else {
 			if (columns > 4) {
-				for (int c = 0; c < columns; c += 8) {
+				for (int c = c0; c < c1; c += 8) {
 					for (int r = 0; r < rows; r++) {
 						idx1 = r * columns + c;
 						idx2 = 2 * r;
@@ -909,4 +985,24 @@ public class GeneralPurposeFFT_F32_2D {
 		a[idx1 + 1] = 0;
 		a[idx1 + columns + 1] = 0;
 	}
+
+	public boolean isConcurrent() {
+		return concurrent;
+	}
+
+	/**
+	 * If true then the row and column passes are processed using multiple threads.  Results are identical to
+	 * processing with a single thread.
+	 */
+	public void setConcurrent(boolean concurrent) {
+		this.concurrent = concurrent;
+		if( concurrent && workspaces == null ) {
+			workspaces = new FastQueue<GeneralPurposeFFT_F32_2D>(1, GeneralPurposeFFT_F32_2D.class, true) {
+				@Override
+				protected GeneralPurposeFFT_F32_2D createInstance() {
+					return new GeneralPurposeFFT_F32_2D(rows, columns, cache);
+				}
+			};
+		}
+	}
 }
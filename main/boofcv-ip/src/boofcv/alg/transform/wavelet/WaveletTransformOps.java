@@ -19,9 +19,11 @@
 package boofcv.alg.transform.wavelet;
 
 import boofcv.alg.InputSanityCheck;
+import boofcv.alg.misc.ImageMiscOps;
 import boofcv.alg.misc.PixelMath;
 import boofcv.alg.transform.wavelet.impl.ImplWaveletTransformBorder;
 import boofcv.alg.transform.wavelet.impl.ImplWaveletTransformInner;
+import boofcv.alg.transform.wavelet.impl.ImplWaveletTransformInner_MT;
 import boofcv.alg.transform.wavelet.impl.ImplWaveletTransformNaive;
 import boofcv.struct.image.GrayF32;
 import boofcv.struct.image.GrayS32;
@@ -68,6 +70,21 @@ public class WaveletTransformOps {
 	public static void transform1(WaveletDescription<WlCoef_F32> desc ,
 								  GrayF32 input , GrayF32 output ,
 								  GrayF32 storage )
+	{
+		transform1(desc,input,output,storage,false);
+	}
+
+	/**
+	 * Same as {@link #transform1(WaveletDescription, GrayF32, GrayF32, GrayF32)}
+	 * but the inner portion of the image can be processed using multiple threads.
+	 * Results are identical to processing with a single thread.
+	 *
+	 * @param concurrent If true then rows and columns are split between threads.
+	 */
+	public static void transform1(WaveletDescription<WlCoef_F32> desc ,
+								  GrayF32 input , GrayF32 output ,
+								  GrayF32 storage ,
+								  boolean concurrent )
 	{
 		UtilWavelet.checkShape(input,output);
 
@@ -79,12 +96,22 @@ public class WaveletTransformOps {
 			throw new IllegalArgumentException("Wavelet is too large for provided image.");
 		storage = InputSanityCheck.checkDeclare(output, storage);
 
+		// when the output is padded the horizontal pass doesn't write to every pixel in storage, but the vertical
+		// pass will read all of them
+		if( output.width != input.width || output.height != input.height )
+			ImageMiscOps.fill(storage,0);
+
 		// the faster routines can only be run on images which are not too small
 		int minSize = Math.max(coef.getScalingLength(),coef.getWaveletLength())*3;
 
 		if( input.getWidth() <= minSize || input.getHeight() <= minSize ) {
 			ImplWaveletTransformNaive.horizontal(desc.getBorder(),coef,input,storage);
 			ImplWaveletTransformNaive.vertical(desc.getBorder(),coef,storage,output);
+		} else if( concurrent ) {
+			ImplWaveletTransformInner_MT.horizontal(coef,input,storage);
+			ImplWaveletTransformBorder.horizontal(desc.getBorder(),coef,input,storage);
+			ImplWaveletTransformInner_MT.vertical(coef,storage,output);
+			ImplWaveletTransformBorder.vertical(desc.getBorder(),coef,storage,output);
 		} else {
 			ImplWaveletTransformInner.horizontal(coef,input,storage);
 			ImplWaveletTransformBorder.horizontal(desc.getBorder(),coef,input,storage);
@@ -111,9 +138,25 @@ public class WaveletTransformOps {
 								  GrayF32 input , GrayF32 output ,
 								  GrayF32 storage ,
 								  int numLevels )
+	{
+		transformN(desc,input,output,storage,numLevels,false);
+	}
+
+	/**
+	 * Same as {@link #transformN(WaveletDescription, GrayF32, GrayF32, GrayF32, int)}
+	 * but the inner portion of each level can be processed using multiple threads.
+	 * Results are identical to processing with a single thread.
+	 *
+	 * @param concurrent If true then rows and columns are split between threads.
+	 */
+	public static void transformN(WaveletDescription<WlCoef_F32> desc ,
+								  GrayF32 input , GrayF32 output ,
+								  GrayF32 storage ,
+								  int numLevels ,
+								  boolean concurrent )
 	{
 		if( numLevels == 1 ) {
-			transform1(desc,input,output, storage);
+			transform1(desc,input,output, storage,concurrent);
 			return;
 		}
 
@@ -123,7 +166,7 @@ public class WaveletTransformOps {
 		storage = storage.subimage(0,0,output.width,output.height, null);
 		storage.subImage = false;
 
-		transform1(desc,input,output, storage);
+		transform1(desc,input,output, storage,concurrent);
 
 		for( int i = 2; i <= numLevels; i++ ) {
 			int width = output.width/2;
@@ -137,7 +180,7 @@ public class WaveletTransformOps {
 
 			// transform the scaling image and save the results in the output image
 			storage.reshape(width,height);
-			transform1(desc,input,output,storage);
+			transform1(desc,input,output,storage,concurrent);
 		}
 	}
 
@@ -158,6 +201,21 @@ public class WaveletTransformOps {
 	public static void inverse1(WaveletDescription<WlCoef_F32> desc ,
 								GrayF32 input , GrayF32 output ,
 								GrayF32 storage , float minValue , float maxValue )
+	{
+		inverse1(desc,input,output,storage,minValue,maxValue,false);
+	}
+
+	/**
+	 * Same as {@link #inverse1(WaveletDescription, GrayF32, GrayF32, GrayF32, float, float)}
+	 * but the inner portion of the image can be processed using multiple threads.
+	 * Results are identical to processing with a single thread.
+	 *
+	 * @param concurrent If true then rows and columns are split between threads.
+	 */
+	public static void inverse1(WaveletDescription<WlCoef_F32> desc ,
+								GrayF32 input , GrayF32 output ,
+								GrayF32 storage , float minValue , float maxValue ,
+								boolean concurrent )
 	{
 		UtilWavelet.checkShape(output,input);
 		WlCoef_F32 coef = desc.getForward();
@@ -173,6 +231,11 @@ public class WaveletTransformOps {
 		if( output.getWidth() <= minSize || output.getHeight() <= minSize ) {
 			ImplWaveletTransformNaive.verticalInverse(desc.getBorder(),desc.getInverse(),input,storage);
 			ImplWaveletTransformNaive.horizontalInverse(desc.getBorder(),desc.getInverse(),storage,output);
+		} else if( concurrent ) {
+			ImplWaveletTransformInner_MT.verticalInverse(desc.getInverse().getInnerCoefficients(),input,storage);
+			ImplWaveletTransformBorder.verticalInverse(desc.getBorder(),desc.getInverse(),input,storage);
+			ImplWaveletTransformInner_MT.horizontalInverse(desc.getInverse().getInnerCoefficients(),storage,output);
+			ImplWaveletTransformBorder.horizontalInverse(desc.getBorder(),desc.getInverse(),storage,output);
 		} else {
 			ImplWaveletTransformInner.verticalInverse(desc.getInverse().getInnerCoefficients(),input,storage);
 			ImplWaveletTransformBorder.verticalInverse(desc.getBorder(),desc.getInverse(),input,storage);
@@ -203,9 +266,26 @@ public class WaveletTransformOps {
 								GrayF32 storage,
 								int numLevels ,
 								float minValue , float maxValue)
+	{
+		inverseN(desc,input,output,storage,numLevels,minValue,maxValue,false);
+	}
+
+	/**
+	 * Same as {@link #inverseN(WaveletDescription, GrayF32, GrayF32, GrayF32, int, float, float)}
+	 * but the inner portion of each level can be processed using multiple threads.
+	 * Results are identical to processing with a single thread.
+	 *
+	 * @param concurrent If true then rows and columns are split between threads.
+	 */
+	public static void inverseN(WaveletDescription<WlCoef_F32> desc ,
+								GrayF32 input , GrayF32 output ,
+								GrayF32 storage,
+								int numLevels ,
+								float minValue , float maxValue ,
+								boolean concurrent )
 	{
 		if( numLevels == 1 ) {
-			inverse1(desc,input,output, storage,minValue,maxValue);
+			inverse1(desc,input,output, storage,minValue,maxValue,concurrent);
 			PixelMath.boundImage(output, minValue, maxValue);
 			return;
 		}
@@ -227,7 +307,7 @@ public class WaveletTransformOps {
 		GrayF32 levelIn = input.subimage(0,0,width,height, null);
 		GrayF32 levelOut = output.subimage(0,0,width,height, null);
 		storage.reshape(width,height);
-		inverse1(desc,levelIn,levelOut, storage,-Float.MAX_VALUE,Float.MAX_VALUE);
+		inverse1(desc,levelIn,levelOut, storage,-Float.MAX_VALUE,Float.MAX_VALUE,concurrent);
 
 		for( int i = numLevels-1; i >= 1; i-- ) {
 			// copy the decoded segment into the input
@@ -248,7 +328,7 @@ public class WaveletTransformOps {
 			}
 
 			storage.reshape(levelIn.width,levelIn.height);
-			inverse1(desc,levelIn,levelOut, storage,-Float.MAX_VALUE,Float.MAX_VALUE);
+			inverse1(desc,levelIn,levelOut, storage,-Float.MAX_VALUE,Float.MAX_VALUE,concurrent);
 		}
 
 		if( minValue != -Float.MAX_VALUE && maxValue != Float.MAX_VALUE )
@@ -269,6 +349,21 @@ public class WaveletTransformOps {
 	public static void transform1(WaveletDescription<WlCoef_I32> desc ,
 								  GrayS32 input , GrayS32 output ,
 								  GrayS32 storage )
+	{
+		transform1(desc,input,output,storage,false);
+	}
+
+	/**
+	 * Same as {@link #transform1(WaveletDescription, GrayS32, GrayS32, GrayS32)}
+	 * but the inner portion of the image can be processed using multiple threads.
+	 * Results are identical to processing with a single thread.
+	 *
+	 * @param concurrent If true then rows and columns are split between threads.
+	 */
+	public static void transform1(WaveletDescription<WlCoef_I32> desc ,
+								  GrayS32 input , GrayS32 output ,
+								  GrayS32 storage ,
+								  boolean concurrent )
 	{
 		UtilWavelet.checkShape(input,output);
 
@@ -280,12 +375,22 @@ public class WaveletTransformOps {
 			throw new IllegalArgumentException("Wavelet is too large for provided image.");
 		storage = InputSanityCheck.checkDeclare(output, storage);
 
+		// when the output is padded the horizontal pass doesn't write to every pixel in storage, but the vertical
+		// pass will read all of them
+		if( output.width != input.width || output.height != input.height )
+			ImageMiscOps.fill(storage,0);
+
 		// the faster routines can only be run on images which are not too small
 		int minSize = Math.max(coef.getScalingLength(),coef.getWaveletLength())*3;
 
 		if( input.getWidth() <= minSize || input.getHeight() <= minSize ) {
 			ImplWaveletTransformNaive.horizontal(desc.getBorder(),coef,input,storage);
 			ImplWaveletTransformNaive.vertical(desc.getBorder(),coef,storage,output);
+		} else if( concurrent ) {
+			ImplWaveletTransformInner_MT.horizontal(coef,input,storage);
+			ImplWaveletTransformBorder.horizontal(desc.getBorder(),coef,input,storage);
+			ImplWaveletTransformInner_MT.vertical(coef,storage,output);
+			ImplWaveletTransformBorder.vertical(desc.getBorder(),coef,storage,output);
 		} else {
 			ImplWaveletTransformInner.horizontal(coef,input,storage);
 			ImplWaveletTransformBorder.horizontal(desc.getBorder(),coef,input,storage);
@@ -312,9 +417,25 @@ public class WaveletTransformOps {
 								  GrayS32 input , GrayS32 output ,
 								  GrayS32 storage ,
 								  int numLevels )
+	{
+		transformN(desc,input,output,storage,numLevels,false);
+	}
+
+	/**
+	 * Same as {@link #transformN(WaveletDescription, GrayS32, GrayS32, GrayS32, int)}
+	 * but the inner portion of each level can be processed using multiple threads.
+	 * Results are identical to processing with a single thread.
+	 *
+	 * @param concurrent If true then rows and columns are split between threads.
+	 */
+	public static void transformN(WaveletDescription<WlCoef_I32> desc ,
+								  GrayS32 input , GrayS32 output ,
+								  GrayS32 storage ,
+								  int numLevels ,
+								  boolean concurrent )
 	{
 		if( numLevels == 1 ) {
-			transform1(desc,input,output, storage);
+			transform1(desc,input,output, storage,concurrent);
 			return;
 		}
 
@@ -324,7 +445,7 @@ public class WaveletTransformOps {
 		storage = storage.subimage(0,0,output.width,output.height, null);
 		storage.subImage = false;
 
-		transform1(desc,input,output, storage);
+		transform1(desc,input,output, storage,concurrent);
 
 		for( int i = 2; i <= numLevels; i++ ) {
 			int width = output.width/2;
@@ -338,7 +459,7 @@ public class WaveletTransformOps {
 
 			// transform the scaling image and save the results in the output image
 			storage.reshape(width,height);
-			transform1(desc,input,output,storage);
+			transform1(desc,input,output,storage,concurrent);
 		}
 	}
 
@@ -359,6 +480,21 @@ public class WaveletTransformOps {
 	public static void inverse1(WaveletDescription<WlCoef_I32> desc ,
 								GrayS32 input , GrayS32 output ,
 								GrayS32 storage , int minValue , int maxValue )
+	{
+		inverse1(desc,input,output,storage,minValue,maxValue,false);
+	}
+
+	/**
+	 * Same as {@link #inverse1(WaveletDescription, GrayS32, GrayS32, GrayS32, int, int)}
+	 * but the inner portion of the image can be processed using multiple threads.
+	 * Results are identical to processing with a single thread.
+	 *
+	 * @param concurrent If true then rows and columns are split between threads.
+	 */
+	public static void inverse1(WaveletDescription<WlCoef_I32> desc ,
+								GrayS32 input , GrayS32 output ,
+								GrayS32 storage , int minValue , int maxValue ,
+								boolean concurrent )
 	{
 		UtilWavelet.checkShape(output,input);
 		WlCoef_I32 coef = desc.getForward();
@@ -374,6 +510,11 @@ public class WaveletTransformOps {
 		if( output.getWidth() <= minSize || output.getHeight() <= minSize ) {
 			ImplWaveletTransformNaive.verticalInverse(desc.getBorder(),desc.getInverse(),input,storage);
 			ImplWaveletTransformNaive.horizontalInverse(desc.getBorder(),desc.getInverse(),storage,output);
+		} else if( concurrent ) {
+			ImplWaveletTransformInner_MT.verticalInverse(desc.getInverse().getInnerCoefficients(),input,storage);
+			ImplWaveletTransformBorder.verticalInverse(desc.getBorder(),desc.getInverse(),input,storage);
+			ImplWaveletTransformInner_MT.horizontalInverse(desc.getInverse().getInnerCoefficients(),storage,output);
+			ImplWaveletTransformBorder.horizontalInverse(desc.getBorder(),desc.getInverse(),storage,output);
 		} else {
 			ImplWaveletTransformInner.verticalInverse(desc.getInverse().getInnerCoefficients(),input,storage);
 			ImplWaveletTransformBorder.verticalInverse(desc.getBorder(),desc.getInverse(),input,storage);
@@ -404,9 +545,26 @@ public class WaveletTransformOps {
 								GrayS32 storage,
 								int numLevels ,
 								int minValue , int maxValue)
+	{
+		inverseN(desc,input,output,storage,numLevels,minValue,maxValue,false);
+	}
+
+	/**
+	 * Same as {@link #inverseN(WaveletDescription, GrayS32, GrayS32, GrayS32, int, int, int)}
+	 * but the inner portion of each level can be processed using multiple threads.
+	 * Results are identical to processing with a single thread.
+	 *
+	 * @param concurrent If true then rows and columns are split between threads.
+	 */
+	public static void inverseN(WaveletDescription<WlCoef_I32> desc ,
+								GrayS32 input , GrayS32 output ,
+								GrayS32 storage,
+								int numLevels ,
+								int minValue , int maxValue ,
+								boolean concurrent )
 	{
 		if( numLevels == 1 ) {
-			inverse1(desc,input,output, storage,minValue,maxValue);
+			inverse1(desc,input,output, storage,minValue,maxValue,concurrent);
 			PixelMath.boundImage(output, minValue, maxValue);
 			return;
 		}
@@ -428,7 +586,7 @@ public class WaveletTransformOps {
 		GrayS32 levelIn = input.subimage(0,0,width,height, null);
 		GrayS32 levelOut = output.subimage(0,0,width,height, null);
 		storage.reshape(width,height);
-		inverse1(desc,levelIn,levelOut, storage,Integer.MIN_VALUE,Integer.MAX_VALUE);
+		inverse1(desc,levelIn,levelOut, storage,Integer.MIN_VALUE,Integer.MAX_VALUE,concurrent);
 
 		for( int i = numLevels-1; i >= 1; i-- ) {
 			// copy the decoded segment into the input
@@ -449,7 +607,7 @@ public class WaveletTransformOps {
 			}
 
 			storage.reshape(levelIn.width,levelIn.height);
-			inverse1(desc,levelIn,levelOut, storage,Integer.MIN_VALUE,Integer.MAX_VALUE);
+			inverse1(desc,levelIn,levelOut, storage,Integer.MIN_VALUE,Integer.MAX_VALUE,concurrent);
 		}
 
 		if( minValue != Integer.MIN_VALUE && maxValue != Integer.MAX_VALUE )
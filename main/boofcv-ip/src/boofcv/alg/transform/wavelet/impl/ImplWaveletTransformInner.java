@@ -32,6 +32,11 @@ import boofcv.struct.wavelet.WlCoef_I32;
  * </p>
  *
  * <p>
+ * Functions which take a range of rows or columns only process that range.  Each row (or column) is processed
+ * independently, allowing the work to be split up between threads.
+ * </p>
+ *
+ * <p>
  * DO NOT MODIFY: This class was automatically generated by {@link GenerateImplWaveletTransformInner}
  * </p>
  *
@@ -41,6 +46,12 @@ import boofcv.struct.wavelet.WlCoef_I32;
 public class ImplWaveletTransformInner {
 
 	public static void horizontal(WlCoef_F32 coefficients , GrayF32 input , GrayF32 output )
+	{
+		horizontal(coefficients, input, output, 0, input.height);
+	}
+
+	public static void horizontal(WlCoef_F32 coefficients , GrayF32 input , GrayF32 output ,
+								  int y0 , int y1 )
 	{
 		final int offsetA = coefficients.offsetScaling;
 		final int offsetB = coefficients.offsetWavelet;
@@ -51,12 +62,11 @@ public class ImplWaveletTransformInner {
 		final float dataOut[] = output.data;
 
 		final int width = output.width;
-		final int height = input.height;
 		final int widthD2 = width/2;
 		final int startX = UtilWavelet.borderForwardLower(coefficients);
 		final int endOffsetX = input.width - UtilWavelet.borderForwardUpper(coefficients,input.width) - startX;
 
-		for( int y = 0; y < height; y++ ) {
+		for( int y = y0; y < y1; y++ ) {
 
 			int indexIn = input.startIndex + input.stride*y + startX;
 			int indexOut = output.startIndex + output.stride*y + startX/2;
@@ -84,6 +94,12 @@ public class ImplWaveletTransformInner {
 	}
 
 	public static void vertical(WlCoef_F32 coefficients , GrayF32 input , GrayF32 output )
+	{
+		vertical(coefficients, input, output, 0, input.width);
+	}
+
+	public static void vertical(WlCoef_F32 coefficients , GrayF32 input , GrayF32 output ,
+								  int x0 , int x1 )
 	{
 		final int offsetA = coefficients.offsetScaling*input.stride;
 		final int offsetB = coefficients.offsetWavelet*input.stride;
@@ -93,7 +109,6 @@ public class ImplWaveletTransformInner {
 		final float dataIn[] = input.data;
 		final float dataOut[] = output.data;
 
-		final int width = input.width;
 		final int height = output.height;
 		final int heightD2 = (height/2)*output.stride;
 		final int startY = UtilWavelet.borderForwardLower(coefficients);
@@ -101,10 +116,10 @@ public class ImplWaveletTransformInner {
 
 		for( int y = startY; y < endY; y += 2 ) {
 
-			int indexIn = input.startIndex + input.stride*y;
-			int indexOut = output.startIndex + output.stride*(y/2);
+			int indexIn = input.startIndex + input.stride*y + x0;
+			int indexOut = output.startIndex + output.stride*(y/2) + x0;
 
-			for( int x = 0; x < width; x++, indexIn++) {
+			for( int x = x0; x < x1; x++, indexIn++) {
 
 				float scale = 0;
 				int index = indexIn + offsetA;
@@ -128,6 +143,12 @@ public class ImplWaveletTransformInner {
 	}
 
 	public static void horizontalInverse(WlCoef_F32 coefficients , GrayF32 input , GrayF32 output )
+	{
+		horizontalInverse(coefficients, input, output, 0, output.height);
+	}
+
+	public static void horizontalInverse(WlCoef_F32 coefficients , GrayF32 input , GrayF32 output ,
+								  int y0 , int y1 )
 	{
 		final int offsetA = coefficients.offsetScaling;
 		final int offsetB = coefficients.offsetWavelet;
@@ -138,11 +159,10 @@ public class ImplWaveletTransformInner {
 		float []details = new float[ output.width ];
 
 		final int width = input.width;
-		final int height = output.height;
 		final int widthD2 = width/2;
 		final int lowerBorder = UtilWavelet.borderForwardLower(coefficients);
 		final int upperBorder = output.width - UtilWavelet.borderForwardUpper(coefficients,output.width);
-		for( int y = 0; y < height; y++ ) {
+		for( int y = y0; y < y1; y++ ) {
 
 			// initialize details and trends arrays
 			int indexSrc = input.startIndex + y*input.stride+lowerBorder/2;
@@ -189,6 +209,12 @@ public class ImplWaveletTransformInner {
 	}
 
 	public static void verticalInverse(WlCoef_F32 coefficients , GrayF32 input , GrayF32 output )
+	{
+		verticalInverse(coefficients, input, output, 0, output.width);
+	}
+
+	public static void verticalInverse(WlCoef_F32 coefficients , GrayF32 input , GrayF32 output ,
+								  int x0 , int x1 )
 	{
 		final int offsetA = coefficients.offsetScaling;
 		final int offsetB = coefficients.offsetWavelet;
@@ -198,12 +224,11 @@ public class ImplWaveletTransformInner {
 		float []trends = new float[ output.height ];
 		float []details = new float[ output.height ];
 
-		final int width = output.width;
 		final int height = input.height;
 		final int heightD2 = (height/2)*input.stride;
 		final int lowerBorder = UtilWavelet.borderForwardLower(coefficients);
 		final int upperBorder = output.height - UtilWavelet.borderForwardUpper(coefficients,output.height);
-		for( int x = 0; x < width; x++) {
+		for( int x = x0; x < x1; x++) {
 
 			int indexSrc = input.startIndex + (lowerBorder/2)*input.stride + x;
 			for( int y = lowerBorder; y < upperBorder; y += 2 , indexSrc += input.stride ) {
@@ -250,6 +275,12 @@ public class ImplWaveletTransformInner {
 	}
 
 	public static void horizontal(WlCoef_I32 coefficients , GrayS32 input , GrayS32 output )
+	{
+		horizontal(coefficients, input, output, 0, input.height);
+	}
+
+	public static void horizontal(WlCoef_I32 coefficients , GrayS32 input , GrayS32 output ,
+								  int y0 , int y1 )
 	{
 		final int offsetA = coefficients.offsetScaling;
 		final int offsetB = coefficients.offsetWavelet;
@@ -260,12 +291,11 @@ public class ImplWaveletTransformInner {
 		final int dataOut[] = output.data;
 
 		final int width = output.width;
-		final int height = input.height;
 		final int widthD2 = width/2;
 		final int startX = UtilWavelet.borderForwardLower(coefficients);
 		final int endOffsetX = input.width - UtilWavelet.borderForwardUpper(coefficients,input.width) - startX;
 
-		for( int y = 0; y < height; y++ ) {
+		for( int y = y0; y < y1; y++ ) {
 
 			int indexIn = input.startIndex + input.stride*y + startX;
 			int indexOut = output.startIndex + output.stride*y + startX/2;
@@ -296,6 +326,12 @@ public class ImplWaveletTransformInner {
 	}
 
 	public static void vertical(WlCoef_I32 coefficients , GrayS32 input , GrayS32 output )
+	{
+		vertical(coefficients, input, output, 0, input.width);
+	}
+
+	public static void vertical(WlCoef_I32 coefficients , GrayS32 input , GrayS32 output ,
+								  int x0 , int x1 )
 	{
 		final int offsetA = coefficients.offsetScaling*input.stride;
 		final int offsetB = coefficients.offsetWavelet*input.stride;
@@ -305,7 +341,6 @@ public class ImplWaveletTransformInner {
 		final int dataIn[] = input.data;
 		final int dataOut[] = output.data;
 
-		final int width = input.width;
 		final int height = output.height;
 		final int heightD2 = (height/2)*output.stride;
 		final int startY = UtilWavelet.borderForwardLower(coefficients);
@@ -313,10 +348,10 @@ public class ImplWaveletTransformInner {
 
 		for( int y = startY; y < endY; y += 2 ) {
 
-			int indexIn = input.startIndex + input.stride*y;
-			int indexOut = output.startIndex + output.stride*(y/2);
+			int indexIn = input.startIndex + input.stride*y + x0;
+			int indexOut = output.startIndex + output.stride*(y/2) + x0;
 
-			for( int x = 0; x < width; x++, indexIn++) {
+			for( int x = x0; x < x1; x++, indexIn++) {
 
 				int scale = 0;
 				int index = indexIn + offsetA;
@@ -343,6 +378,12 @@ public class ImplWaveletTransformInner {
 	}
 
 	public static void horizontalInverse(WlCoef_I32 coefficients , GrayS32 input , GrayS32 output )
+	{
+		horizontalInverse(coefficients, input, output, 0, output.height);
+	}
+
+	public static void horizontalInverse(WlCoef_I32 coefficients , GrayS32 input , GrayS32 output ,
+								  int y0 , int y1 )
 	{
 		final int offsetA = coefficients.offsetScaling;
 		final int offsetB = coefficients.offsetWavelet;
@@ -353,7 +394,6 @@ public class ImplWaveletTransformInner {
 		int []details = new int[ output.width ];
 
 		final int width = input.width;
-		final int height = output.height;
 		final int widthD2 = width/2;
 		final int lowerBorder = UtilWavelet.borderForwardLower(coefficients);
 		final int upperBorder = output.width - UtilWavelet.borderForwardUpper(coefficients,output.width);
@@ -362,7 +402,7 @@ public class ImplWaveletTransformInner {
 		final int ef = e*f;
 		final int ef2 = ef/2;
 
-		for( int y = 0; y < height; y++ ) {
+		for( int y = y0; y < y1; y++ ) {
 
 			// initialize details and trends arrays
 			int indexSrc = input.startIndex + y*input.stride+lowerBorder/2;
@@ -409,6 +449,12 @@ public class ImplWaveletTransformInner {
 	}
 
 	public static void verticalInverse(WlCoef_I32 coefficients , GrayS32 input , GrayS32 output )
+	{
+		verticalInverse(coefficients, input, output, 0, output.width);
+	}
+
+	public static void verticalInverse(WlCoef_I32 coefficients , GrayS32 input , GrayS32 output ,
+								  int x0 , int x1 )
 	{
 		final int offsetA = coefficients.offsetScaling;
 		final int offsetB = coefficients.offsetWavelet;
@@ -418,7 +464,6 @@ public class ImplWaveletTransformInner {
 		int []trends = new int[ output.height ];
 		int []details = new int[ output.height ];
 
-		final int width = output.width;
 		final int height = input.height;
 		final int heightD2 = (height/2)*input.stride;
 		final int lowerBorder = UtilWavelet.borderForwardLower(coefficients);
@@ -428,7 +473,7 @@ public class ImplWaveletTransformInner {
 		final int ef = e*f;
 		final int ef2 = ef/2;
 
-		for( int x = 0; x < width; x++) {
+		for( int x = x0; x < x1; x++) {
 
 			int indexSrc = input.startIndex + (lowerBorder/2)*input.stride + x;
 			for( int y = lowerBorder; y < upperBorder; y += 2 , indexSrc += input.stride ) {
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.transform.wavelet.impl;
+
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeConsumer;
+import boofcv.struct.image.GrayF32;
+import boofcv.struct.image.GrayS32;
+import boofcv.struct.wavelet.WlCoef_F32;
+import boofcv.struct.wavelet.WlCoef_I32;
+
+/**
+ * <p>
+ * Concurrent implementation of {@link ImplWaveletTransformInner}.  Rows are split between threads for horizontal
+ * passes and columns for vertical passes.  Each row and column is computed independently so the results are
+ * identical to the single threaded version.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class ImplWaveletTransformInner_MT {
+
+	public static void horizontal( final WlCoef_F32 coefficients , final GrayF32 input , final GrayF32 output )
+	{
+		BoofConcurrency.loopBlocks(0, input.height, new IntRangeConsumer() {
+			@Override
+			public void accept(int y0, int y1) {
+				ImplWaveletTransformInner.horizontal(coefficients, input, output, y0, y1);
+			}
+		});
+	}
+
+	public static void vertical( final WlCoef_F32 coefficients , final GrayF32 input , final GrayF32 output )
+	{
+		BoofConcurrency.loopBlocks(0, input.width, new IntRangeConsumer() {
+			@Override
+			public void accept(int x0, int x1) {
+				ImplWaveletTransformInner.vertical(coefficients, input, output, x0, x1);
+			}
+		});
+	}
+
+	public static void horizontalInverse( final WlCoef_F32 coefficients , final GrayF32 input , final GrayF32 output )
+	{
+		BoofConcurrency.loopBlocks(0, output.height, new IntRangeConsumer() {
+			@Override
+			public void accept(int y0, int y1) {
+				ImplWaveletTransformInner.horizontalInverse(coefficients, input, output, y0, y1);
+			}
+		});
+	}
+
+	public static void verticalInverse( final WlCoef_F32 coefficients , final GrayF32 input , final GrayF32 output )
+	{
+		BoofConcurrency.loopBlocks(0, output.width, new IntRangeConsumer() {
+			@Override
+			public void accept(int x0, int x1) {
+				ImplWaveletTransformInner.verticalInverse(coefficients, input, output, x0, x1);
+			}
+		});
+	}
+
+	public static void horizontal( final WlCoef_I32 coefficients , final GrayS32 input , final GrayS32 output )
+	{
+		BoofConcurrency.loopBlocks(0, input.height, new IntRangeConsumer() {
+			@Override
+			public void accept(int y0, int y1) {
+				ImplWaveletTransformInner.horizontal(coefficients, input, output, y0, y1);
+			}
+		});
+	}
+
+	public static void vertical( final WlCoef_I32 coefficients , final GrayS32 input , final GrayS32 output )
+	{
+		BoofConcurrency.loopBlocks(0, input.width, new IntRangeConsumer() {
+			@Override
+			public void accept(int x0, int x1) {
+				ImplWaveletTransformInner.vertical(coefficients, input, output, x0, x1);
+			}
+		});
+	}
+
+	public static void horizontalInverse( final WlCoef_I32 coefficients , final GrayS32 input , final GrayS32 output )
+	{
+		BoofConcurrency.loopBlocks(0, output.height, new IntRangeConsumer() {
+			@Override
+			public void accept(int y0, int y1) {
+				ImplWaveletTransformInner.horizontalInverse(coefficients, input, output, y0, y1);
+			}
+		});
+	}
+
+	public static void verticalInverse( final WlCoef_I32 coefficients , final GrayS32 input , final GrayS32 output )
+	{
+		BoofConcurrency.loopBlocks(0, output.width, new IntRangeConsumer() {
+			@Override
+			public void accept(int x0, int x1) {
+				ImplWaveletTransformInner.verticalInverse(coefficients, input, output, x0, x1);
+			}
+		});
+	}
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.concurrency;
+
+import org.ddogleg.struct.FastQueue;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * <p>
+ * Functions for running loops concurrently.  A range of indexes is broken up into contiguous blocks and each block
+ * is processed by a different thread inside of a shared {@link ForkJoinPool}.  The number of blocks is at most the
+ * number of threads in the pool, which allows per-thread workspaces to be used to avoid synchronization and
+ * memory allocation inside of the inner loop.
+ * </p>
+ *
+ * <p>
+ * Blocks are always computed the same way for the same input range and number of threads, so algorithms which
+ * merge per-block results in block order will produce the same output every time.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class BoofConcurrency {
+
+	// the thread pool used by all concurrent algorithms
+	private static volatile ForkJoinPool pool = new ForkJoinPool();
+
+	/**
+	 * Changes the maximum number of threads which will be used by concurrent algorithms.
+	 *
+	 * @param maxThreads Maximum number of threads.  Must be &ge; 1
+	 */
+	public static synchronized void setMaxThreads( int maxThreads ) {
+		if( maxThreads < 1 )
+			throw new IllegalArgumentException("Must have at least one thread");
+		if( pool.getParallelism() == maxThreads )
+			return;
+
+		// The old pool is not shut down.  A loop which read the old pool just before this swap would have its
+		// tasks rejected.  Once it has no more work its idle threads terminate and it is garbage collected.
+		pool = new ForkJoinPool(maxThreads);
+	}
+
+	/**
+	 * Returns the maximum number of threads which will be used by concurrent algorithms.
+	 */
+	public static int getMaxThreads() {
+		return pool.getParallelism();
+	}
+
+	/**
+	 * Processes the range [start,endExclusive) by breaking it up into blocks which are processed concurrently.
+	 *
+	 * @param start First index.  Inclusive.
+	 * @param endExclusive Last index.  Exclusive.
+	 * @param consumer Processes each block
+	 */
+	public static void loopBlocks( int start , int endExclusive , IntRangeConsumer consumer ) {
+		loopBlocks(start, endExclusive, 1, consumer);
+	}
+
+	/**
+	 * Processes the range [start,endExclusive) by breaking it up into blocks which are processed concurrently.
+	 *
+	 * @param start First index.  Inclusive.
+	 * @param endExclusive Last index.  Exclusive.
+	 * @param minBlock The minimum number of indexes in a block.  Used to avoid threading overhead on small problems.
+	 * @param consumer Processes each block
+	 */
+	public static void loopBlocks( int start , int endExclusive , int minBlock ,
+								   final IntRangeConsumer consumer ) {
+		final int numBlocks = computeNumBlocks(endExclusive - start, minBlock);
+		if( numBlocks == 0 )
+			return;
+		if( numBlocks == 1 ) {
+			consumer.accept(start, endExclusive);
+			return;
+		}
+
+		RangeTask[] tasks = new RangeTask[numBlocks];
+		for (int i = 0; i < numBlocks; i++) {
+			tasks[i] = new RangeTask(blockStart(start,endExclusive,numBlocks,i),
+					blockStart(start,endExclusive,numBlocks,i+1)) {
+				@Override
+				protected void compute() {
+					consumer.accept(index0, index1);
+				}
+			};
+		}
+		execute(tasks);
+	}
+
+	/**
+	 * Processes the range [start,endExclusive) by breaking it up into blocks which are processed concurrently.  Each
+	 * block is given its own workspace.  After this function returns the workspace will contain one element for
+	 * each block that was processed and they will be in the same order as the blocks.  Results which are stored in
+	 * the workspace can then be merged by the caller.
+	 *
+	 * @param start First index.  Inclusive.
+	 * @param endExclusive Last index.  Exclusive.
+	 * @param minBlock The minimum number of indexes in a block.  Used to avoid threading overhead on small problems.
+	 * @param workspace Storage for per-thread workspaces.  Resized to match the number of blocks.
+	 * @param consumer Processes each block
+	 */
+	public static <T> void loopBlocks( int start , int endExclusive , int minBlock ,
+									   final FastQueue<T> workspace ,
+									   final IntRangeObjectConsumer<T> consumer ) {
+		final int numBlocks = computeNumBlocks(endExclusive - start, minBlock);
+		workspace.resize(numBlocks);
+		if( numBlocks == 0 )
+			return;
+		if( numBlocks == 1 ) {
+			consumer.accept(workspace.get(0), start, endExclusive);
+			return;
+		}
+
+		RangeTask[] tasks = new RangeTask[numBlocks];
+		for (int i = 0; i < numBlocks; i++) {
+			final T w = workspace.get(i);
+			tasks[i] = new RangeTask(blockStart(start,endExclusive,numBlocks,i),
+					blockStart(start,endExclusive,numBlocks,i+1)) {
+				@Override
+				protected void compute() {
+					consumer.accept(w, index0, index1);
+				}
+			};
+		}
+		execute(tasks);
+	}
+
+	/**
+	 * Same as {@link #loopBlocks(int, int, int, FastQueue, IntRangeObjectConsumer)} with a minimum block size of 1.
+	 */
+	public static <T> void loopBlocks( int start , int endExclusive ,
+									   FastQueue<T> workspace , IntRangeObjectConsumer<T> consumer ) {
+		loopBlocks(start, endExclusive, 1, workspace, consumer);
+	}
+
+	/**
+	 * Number of blocks the range will be split into
+	 */
+	static int computeNumBlocks( int length , int minBlock ) {
+		if( length <= 0 )
+			return 0;
+		int numBlocks = Math.min(getMaxThreads(), length/Math.max(1,minBlock));
+		return Math.max(1,numBlocks);
+	}
+
+	/**
+	 * First index in the specified block.  Blocks are as evenly sized as possible.
+	 */
+	static int blockStart( int start , int endExclusive , int numBlocks , int block ) {
+		return start + (int)((endExclusive-start)*(long)block/numBlocks);
+	}
+
+	private static void execute( final RangeTask[] tasks ) {
+		if( ForkJoinTask.inForkJoinPool() ) {
+			// already inside a worker thread.  Let the current pool handle the nested loop
+			ForkJoinTask.invokeAll(tasks);
+		} else {
+			// read the volatile pool once so that the same pool is used for the entire call
+			ForkJoinPool pool = BoofConcurrency.pool;
+			pool.invoke(new RecursiveAction() {
+				@Override
+				protected void compute() {
+					ForkJoinTask.invokeAll(tasks);
+				}
+			});
+		}
+	}
+
+	private static abstract class RangeTask extends RecursiveAction {
+		final int index0, index1;
+
+		RangeTask(int index0, int index1) {
+			this.index0 = index0;
+			this.index1 = index1;
+		}
+	}
+}
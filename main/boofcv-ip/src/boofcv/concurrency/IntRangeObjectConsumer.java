@@ -0,0 +1,36 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.concurrency;
+
+/**
+ * Processes a contiguous range of integers using a workspace which is owned by the thread processing the range.
+ * This allows scratch memory to be reused between calls without it being shared across threads.
+ *
+ * @author Peter Abeles
+ */
+public interface IntRangeObjectConsumer<T> {
+	/**
+	 * Processes all the indexes in the range.
+	 *
+	 * @param workspace Storage which is only used by the thread processing this range
+	 * @param index0 First index in the range.  Inclusive.
+	 * @param index1 Last index in the range.  Exclusive.
+	 */
+	void accept( T workspace , int index0 , int index1 );
+}
@@ -20,6 +20,8 @@ package boofcv.core.encoding;
 
 import boofcv.struct.image.*;
 
+import java.nio.ByteBuffer;
+
 /**
  * Used to convert NV21 image format used in Android into BoofCV standard image types. NV21 is an encoding of a
  * YUV image [1] (more specifically YUV 4:2:0) where Y is encoded in the first block and UV are interlaced together.
@@ -39,30 +41,105 @@ public class ConvertNV21 {
 	 * @param output (output) BoofCV image
 	 */
 	public static void nv21ToBoof(byte[] data, int width, int height, ImageBase output) {
+		nv21ToBoof(data, width, height, output, false);
+	}
+
+	/**
+	 * Converts a NV21 encoded byte array into a BoofCV formatted image.
+	 *
+	 * @param data (input) NV21 byte array
+	 * @param width (input) image width
+	 * @param height (input) image height
+	 * @param output (output) BoofCV image
+	 * @param concurrent If true then rows are split between threads.  Results are identical.
+	 */
+	public static void nv21ToBoof(byte[] data, int width, int height, ImageBase output, boolean concurrent) {
+		nv21Rows(width, height, output).process(data, 0, concurrent);
+	}
+
+	/**
+	 * Converts a NV21 encoded {@link ByteBuffer} into a BoofCV formatted image.  The frame starts at the buffer's
+	 * current position, which is not modified.  If the buffer isn't backed by an array then it's read a block of
+	 * rows at a time instead of copying the whole frame.
+	 *
+	 * @param data (input) NV21 encoded data
+	 * @param width (input) image width
+	 * @param height (input) image height
+	 * @param output (output) BoofCV image
+	 * @param concurrent If true then rows are split between threads.  Results are identical.
+	 */
+	public static void nv21ToBoof(ByteBuffer data, int width, int height, ImageBase output, boolean concurrent) {
+		nv21Rows(width, height, output).process(data, concurrent);
+	}
+
+	/**
+	 * Selects the row decoder for the output image type
+	 */
+	private static ImplYuv420Rows nv21Rows( int width , int height , final ImageBase output ) {
+		if( output.width != width || output.height != height )
+			throw new IllegalArgumentException("output width and height must be "+width+" "+height);
+
+		// U and V are interlaced together in the same plane
+		final int chromaRowBytes = 2*(width/2);
 
 		if( output instanceof Planar) {
-			Planar ms = (Planar) output;
+			final Planar ms = (Planar) output;
+			if( ms.getNumBands() != 3 )
+				throw new IllegalArgumentException("three bands expected");
 
 			if (ms.getBandType() == GrayU8.class) {
-				ConvertNV21.nv21TPlanarRgb_U8(data, width, height, ms);
+				return new ImplYuv420Rows(width,height,chromaRowBytes,1) {
+					@Override
+					protected void process(byte[] data, int baseY, int baseC0, int baseC1, int row0, int row1) {
+						ImplConvertNV21.nv21ToPlanarRgb_U8(data, baseY, baseC0, ms, row0, row1);
+					}
+				};
 			} else if (ms.getBandType() == GrayF32.class) {
-				ConvertNV21.nv21ToPlanarRgb_F32(data, width, height , ms);
+				return new ImplYuv420Rows(width,height,chromaRowBytes,1) {
+					@Override
+					protected void process(byte[] data, int baseY, int baseC0, int baseC1, int row0, int row1) {
+						ImplConvertNV21.nv21ToPlanarRgb_F32(data, baseY, baseC0, ms, row0, row1);
+					}
+				};
 			} else {
 				throw new IllegalArgumentException("Unsupported output band format");
 			}
 		} else if( output instanceof ImageGray) {
 			if (output.getClass() == GrayU8.class) {
-				nv21ToGray(data, width, height, (GrayU8) output);
+				return new ImplYuv420Rows(width,height,chromaRowBytes,0) {
+					@Override
+					protected void process(byte[] data, int baseY, int baseC0, int baseC1, int row0, int row1) {
+						ImplConvertNV21.nv21ToGray(data, baseY, (GrayU8)output, row0, row1);
+					}
+				};
 			} else if (output.getClass() == GrayF32.class) {
-				nv21ToGray(data, width, height, (GrayF32) output);
+				return new ImplYuv420Rows(width,height,chromaRowBytes,0) {
+					@Override
+					protected void process(byte[] data, int baseY, int baseC0, int baseC1, int row0, int row1) {
+						ImplConvertNV21.nv21ToGray(data, baseY, (GrayF32)output, row0, row1);
+					}
+				};
 			} else {
 				throw new IllegalArgumentException("Unsupported output type");
 			}
 		} else if( output instanceof ImageInterleaved ) {
+			if( ((ImageInterleaved)output).getNumBands() != 3 )
+				throw new IllegalArgumentException("three bands expected");
+
 			if( output.getClass() == InterleavedU8.class ) {
-				ConvertNV21.nv21ToInterleaved(data, width, height, (InterleavedU8) output);
+				return new ImplYuv420Rows(width,height,chromaRowBytes,1) {
+					@Override
+					protected void process(byte[] data, int baseY, int baseC0, int baseC1, int row0, int row1) {
+						ImplConvertNV21.nv21ToInterleaved_U8(data, baseY, baseC0, (InterleavedU8)output, row0, row1);
+					}
+				};
 			} else if( output.getClass() == InterleavedF32.class ) {
-				ConvertNV21.nv21ToInterleaved(data, width, height, (InterleavedF32) output);
+				return new ImplYuv420Rows(width,height,chromaRowBytes,1) {
+					@Override
+					protected void process(byte[] data, int baseY, int baseC0, int baseC1, int row0, int row1) {
+						ImplConvertNV21.nv21ToInterleaved_F32(data, baseY, baseC0, (InterleavedF32)output, row0, row1);
+					}
+				};
 			} else {
 				throw new IllegalArgumentException("Unsupported output type");
 			}
@@ -293,4 +370,44 @@ public class ConvertNV21 {
 
 		return output;
 	}
+
+	/**
+	 * Converts a NV21 encoded {@link ByteBuffer} into a {@link InterleavedU8} RGB image.  See
+	 * {@link #nv21ToBoof(ByteBuffer, int, int, ImageBase, boolean)}.
+	 *
+	 * @param data Input: NV21 encoded data.  Starts at the buffer's position.
+	 * @param width Input: NV21 image width
+	 * @param height Input: NV21 image height
+	 * @param output Output: Optional storage for output image.  Can be null.
+	 * @param concurrent If true then rows are split between threads.  Results are identical.
+	 */
+	public static InterleavedU8 nv21ToInterleaved( ByteBuffer data , int width , int height ,
+												   InterleavedU8 output , boolean concurrent ) {
+		if( output == null ) {
+			output = new InterleavedU8(width,height,3);
+		}
+		nv21ToBoof(data, width, height, output, concurrent);
+
+		return output;
+	}
+
+	/**
+	 * Converts a NV21 encoded {@link ByteBuffer} into a {@link InterleavedF32} RGB image.  See
+	 * {@link #nv21ToBoof(ByteBuffer, int, int, ImageBase, boolean)}.
+	 *
+	 * @param data Input: NV21 encoded data.  Starts at the buffer's position.
+	 * @param width Input: NV21 image width
+	 * @param height Input: NV21 image height
+	 * @param output Output: Optional storage for output image.  Can be null.
+	 * @param concurrent If true then rows are split between threads.  Results are identical.
+	 */
+	public static InterleavedF32 nv21ToInterleaved( ByteBuffer data , int width , int height ,
+													InterleavedF32 output , boolean concurrent ) {
+		if( output == null ) {
+			output = new InterleavedF32(width,height,3);
+		}
+		nv21ToBoof(data, width, height, output, concurrent);
+
+		return output;
+	}
 }
@@ -21,6 +21,8 @@ package boofcv.core.encoding;
 
 import boofcv.struct.image.*;
 
+import java.nio.ByteBuffer;
+
 /**
  * YUV / YCbCr image format.  The Y component is contained in the width*height block, followed by a (width/2)*(height/2) block
  * for Cb and then a block of the same size for Cr.
@@ -38,30 +40,108 @@ public class ConvertYV12 {
      * @param output (output) BoofCV image
      */
     public static void yu12ToBoof(byte[] data, int width, int height, ImageBase output) {
+        yu12ToBoof(data, width, height, output, false);
+    }
+
+    /**
+     * Converts a YU12 encoded byte array into a BoofCV formatted image.
+     *
+     * @param data (input) YU12 byte array
+     * @param width (input) image width
+     * @param height (input) image height
+     * @param output (output) BoofCV image
+     * @param concurrent If true then rows are split between threads.  Results are identical.
+     */
+    public static void yu12ToBoof(byte[] data, int width, int height, ImageBase output, boolean concurrent) {
+        yu12Rows(width, height, output).process(data, 0, concurrent);
+    }
+
+    /**
+     * Converts a YU12 encoded {@link ByteBuffer} into a BoofCV formatted image.  The frame starts at the buffer's
+     * current position, which is not modified.  If the buffer isn't backed by an array then it's read a block of
+     * rows at a time instead of copying the whole frame.
+     *
+     * @param data (input) YU12 encoded data
+     * @param width (input) image width
+     * @param height (input) image height
+     * @param output (output) BoofCV image
+     * @param concurrent If true then rows are split between threads.  Results are identical.
+     */
+    public static void yu12ToBoof(ByteBuffer data, int width, int height, ImageBase output, boolean concurrent) {
+        yu12Rows(width, height, output).process(data, concurrent);
+    }
+
+    /**
+     * Selects the row decoder for the output image type
+     */
+    private static ImplYuv420Rows yu12Rows( int width , int height , final ImageBase output ) {
+        if( output.width != width || output.height != height )
+            throw new IllegalArgumentException("output width and height must be "+width+" "+height);
+
+        // U and V are in separate planes
+        final int chromaRowBytes = width/2;
 
         if( output instanceof Planar) {
-            Planar ms = (Planar) output;
+            final Planar ms = (Planar) output;
+            if( ms.getNumBands() != 3 )
+                throw new IllegalArgumentException("three bands expected");
 
             if (ms.getBandType() == GrayU8.class) {
-                ImplConvertYV12.yv12ToPlanarRgb_U8(data, ms);
+                return new ImplYuv420Rows(width,height,chromaRowBytes,2) {
+                    @Override
+                    protected void process(byte[] data, int baseY, int baseC0, int baseC1, int row0, int row1) {
+                        ImplConvertYV12.yv12ToPlanarRgb_U8(data, baseY, baseC0, baseC1, ms, row0, row1);
+                    }
+                };
             } else if (ms.getBandType() == GrayF32.class) {
-                ImplConvertYV12.yv12ToPlanarRgb_F32(data, ms);
+                return new ImplYuv420Rows(width,height,chromaRowBytes,2) {
+                    @Override
+                    protected void process(byte[] data, int baseY, int baseC0, int baseC1, int row0, int row1) {
+                        ImplConvertYV12.yv12ToPlanarRgb_F32(data, baseY, baseC0, baseC1, ms, row0, row1);
+                    }
+                };
             } else {
                 throw new IllegalArgumentException("Unsupported output band format");
             }
         } else if( output instanceof ImageGray) {
+            // the Y plane is encoded the same as NV21
             if (output.getClass() == GrayU8.class) {
-                yu12ToGray(data, width, height, (GrayU8) output);
+                return new ImplYuv420Rows(width,height,chromaRowBytes,0) {
+                    @Override
+                    protected void process(byte[] data, int baseY, int baseC0, int baseC1, int row0, int row1) {
+                        ImplConvertNV21.nv21ToGray(data, baseY, (GrayU8)output, row0, row1);
+                    }
+                };
             } else if (output.getClass() == GrayF32.class) {
-                yu12ToGray(data, width, height, (GrayF32) output);
+                return new ImplYuv420Rows(width,height,chromaRowBytes,0) {
+                    @Override
+                    protected void process(byte[] data, int baseY, int baseC0, int baseC1, int row0, int row1) {
+                        ImplConvertNV21.nv21ToGray(data, baseY, (GrayF32)output, row0, row1);
+                    }
+                };
             } else {
                 throw new IllegalArgumentException("Unsupported output type");
             }
         } else if( output instanceof ImageInterleaved ) {
+            if( ((ImageInterleaved)output).getNumBands() != 3 )
+                throw new IllegalArgumentException("three bands expected");
+
             if( output.getClass() == InterleavedU8.class ) {
-                ImplConvertYV12.yv12ToInterleaved(data, (InterleavedU8) output);
+                return new ImplYuv420Rows(width,height,chromaRowBytes,2) {
+                    @Override
+                    protected void process(byte[] data, int baseY, int baseC0, int baseC1, int row0, int row1) {
+                        ImplConvertYV12.yv12ToInterleaved(data, baseY, baseC0, baseC1,
+                                    (InterleavedU8)output, row0, row1);
+                    }
+                };
             } else if( output.getClass() == InterleavedF32.class ) {
-                ImplConvertYV12.yv12ToInterleaved(data, (InterleavedF32) output);
+                return new ImplYuv420Rows(width,height,chromaRowBytes,2) {
+                    @Override
+                    protected void process(byte[] data, int baseY, int baseC0, int baseC1, int row0, int row1) {
+                        ImplConvertYV12.yv12ToInterleaved(data, baseY, baseC0, baseC1,
+                                    (InterleavedF32)output, row0, row1);
+                    }
+                };
             } else {
                 throw new IllegalArgumentException("Unsupported output type");
             }
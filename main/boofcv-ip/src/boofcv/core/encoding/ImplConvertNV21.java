@@ -21,8 +21,16 @@ package boofcv.core.encoding;
 import boofcv.struct.image.*;
 
 /**
+ * <p>
  * NV21:  The format is densely packed.  Y is full resolution and UV are interlaced and 1/2 resolution.
  *        So same UV values within a 2x2 square
+ * </p>
+ *
+ * <p>
+ * Functions which take a range of rows specify where the data is with base indexes.  A base index is the array index
+ * of row zero in that plane, which allows the frame to start at any offset inside the array or for only a block
+ * of rows to be stored.  If only a block is stored the base index can be negative.
+ * </p>
  *
  * @author Peter Abeles
  */
@@ -39,12 +47,16 @@ public class ImplConvertNV21 {
 		if( yStride == output.width && !output.isSubimage() ) {
 			System.arraycopy(dataNV,0,output.data,0,output.width*output.height);
 		} else {
-			// copy one row at a time
-			for( int y = 0; y < output.height; y++ ) {
-				int indexOut = output.startIndex + y*output.stride;
+			nv21ToGray(dataNV, 0, output, 0, output.height);
+		}
+	}
 
-				System.arraycopy(dataNV,y*yStride,output.data,indexOut,output.width);
-			}
+	public static void nv21ToGray(byte[] dataNV, int baseY, GrayU8 output, int row0, int row1) {
+		// copy one row at a time
+		for( int y = row0; y < row1; y++ ) {
+			int indexOut = output.startIndex + y*output.stride;
+
+			System.arraycopy(dataNV,baseY + y*output.width,output.data,indexOut,output.width);
 		}
 	}
 
@@ -52,9 +64,13 @@ public class ImplConvertNV21 {
 	 * First block contains gray-scale information and UV data can be ignored.
 	 */
 	public static void nv21ToGray(byte[] dataNV, GrayF32 output) {
+		nv21ToGray(dataNV, 0, output, 0, output.height);
+	}
+
+	public static void nv21ToGray(byte[] dataNV, int baseY, GrayF32 output, int row0, int row1) {
 
-		for( int y = 0; y < output.height; y++ ) {
-			int indexIn = y*output.width;
+		for( int y = row0; y < row1; y++ ) {
+			int indexIn = baseY + y*output.width;
 			int indexOut = output.startIndex + y*output.stride;
 
 			for( int x = 0; x < output.width; x++ ) {
@@ -64,6 +80,11 @@ public class ImplConvertNV21 {
 	}
 
 	public static void nv21ToPlanarYuv_U8(byte[] dataNV, Planar<GrayU8> output) {
+		nv21ToPlanarYuv_U8(dataNV, 0, output.width*output.height, output, 0, output.height);
+	}
+
+	public static void nv21ToPlanarYuv_U8(byte[] dataNV, int baseY, int baseUV, Planar<GrayU8> output,
+										  int row0, int row1) {
 
 		GrayU8 Y = output.getBand(0);
 		GrayU8 U = output.getBand(1);
@@ -71,12 +92,10 @@ public class ImplConvertNV21 {
 
 		final int uvStride = output.width/2;
 
-		nv21ToGray(dataNV, Y);
-
-		int startUV = output.width*output.height;
+		nv21ToGray(dataNV, baseY, Y, row0, row1);
 
-		for( int row = 0; row < output.height; row++ ) {
-			int indexUV = startUV + (row/2)*(2*uvStride);
+		for( int row = row0; row < row1; row++ ) {
+			int indexUV = baseUV + (row/2)*(2*uvStride);
 			int indexOut = output.startIndex + row*output.stride;
 
 			for( int col = 0; col < output.width; col++ , indexOut++ ) {
@@ -89,6 +108,11 @@ public class ImplConvertNV21 {
 	}
 
 	public static void nv21ToPlanarYuv_F32(byte[] dataNV, Planar<GrayF32> output) {
+		nv21ToPlanarYuv_F32(dataNV, 0, output.width*output.height, output, 0, output.height);
+	}
+
+	public static void nv21ToPlanarYuv_F32(byte[] dataNV, int baseY, int baseUV, Planar<GrayF32> output,
+										   int row0, int row1) {
 
 		GrayF32 Y = output.getBand(0);
 		GrayF32 U = output.getBand(1);
@@ -96,12 +120,10 @@ public class ImplConvertNV21 {
 
 		final int uvStride = output.width/2;
 
-		nv21ToGray(dataNV, Y);
-
-		final int startUV = output.width*output.height;
+		nv21ToGray(dataNV, baseY, Y, row0, row1);
 
-		for( int row = 0; row < output.height; row++ ) {
-			int indexUV = startUV + (row/2)*(2*uvStride);
+		for( int row = row0; row < row1; row++ ) {
+			int indexUV = baseUV + (row/2)*(2*uvStride);
 			int indexOut = output.startIndex + row*output.stride;
 
 			for( int col = 0; col < output.width; col++ , indexOut++ ) {
@@ -114,210 +136,257 @@ public class ImplConvertNV21 {
 	}
 
 	public static void nv21ToPlanarRgb_U8(byte[] dataNV, Planar<GrayU8> output) {
+		nv21ToPlanarRgb_U8(dataNV, 0, output.width*output.height, output, 0, output.height);
+	}
+
+	public static void nv21ToPlanarRgb_U8(byte[] dataNV, int baseY, int baseUV, Planar<GrayU8> output,
+										  int row0, int row1) {
 
 		GrayU8 R = output.getBand(0);
 		GrayU8 G = output.getBand(1);
 		GrayU8 B = output.getBand(2);
 
-		final int yStride = output.width;
-		final int uvStride = output.width/2;
-
-		final int startUV = yStride*output.height;
+		final int width = output.width;
+		final int uvStride = width/2;
 
-		for( int row = 0; row < output.height; row++ ) {
-			int indexY = row*yStride;
-			int indexUV = startUV + (row/2)*(2*uvStride);
+		for( int row = row0; row < row1; row++ ) {
+			int indexY = baseY + row*width;
+			int indexUV = baseUV + (row/2)*(2*uvStride);
 			int indexOut = output.startIndex + row*output.stride;
 
-			for( int col = 0; col < output.width; col++ , indexOut++ ) {
-				int y = 1191*((dataNV[indexY++] & 0xFF) - 16);
+			// two pixels in a row share the same chroma, which only needs to be decoded once
+			for( int col = 0; col < width; col += 2 , indexUV += 2 ) {
 				int cr = (dataNV[ indexUV ] & 0xFF) - 128;
 				int cb = (dataNV[ indexUV+1] & 0xFF) - 128;
-
-//				if( y < 0 ) y = 0;
-				y = ((y >>> 31)^1)*y;
-
-				int r = (y + 1836*cr) >> 10;
-				int g = (y - 547*cr - 218*cb) >> 10;
-				int b = (y + 2165*cb) >> 10;
-
-//				if( r < 0 ) r = 0; else if( r > 255 ) r = 255;
-//				if( g < 0 ) g = 0; else if( g > 255 ) g = 255;
-//				if( b < 0 ) b = 0; else if( b > 255 ) b = 255;
-
-				r *= ((r >>> 31)^1);
-				g *= ((g >>> 31)^1);
-				b *= ((b >>> 31)^1);
-
-				// The bitwise code below isn't faster than than the if statement below
-//				r |= (((255-r) >>> 31)*0xFF);
-//				g |= (((255-g) >>> 31)*0xFF);
-//				b |= (((255-b) >>> 31)*0xFF);
-
-				if( r > 255 ) r = 255;
-				if( g > 255 ) g = 255;
-				if( b > 255 ) b = 255;
-
-				R.data[indexOut] = (byte)r;
-				G.data[indexOut] = (byte)g;
-				B.data[indexOut] = (byte)b;
-
-				indexUV += 2*(col&0x1);
+				int chromaR = 1836*cr;
+				int chromaG = -547*cr - 218*cb;
+				int chromaB = 2165*cb;
+
+				decode(dataNV[indexY++], chromaR, chromaG, chromaB, R.data, G.data, B.data, indexOut++);
+				// with an odd width the last pixel isn't part of a pair
+				if( col+1 < width ) {
+					decode(dataNV[indexY++], chromaR, chromaG, chromaB, R.data, G.data, B.data, indexOut++);
+				}
 			}
 		}
 	}
 
 	public static void nv21ToInterleaved_U8(byte[] dataNV, InterleavedU8 output) {
+		nv21ToInterleaved_U8(dataNV, 0, output.width*output.height, output, 0, output.height);
+	}
 
-		final int yStride = output.width;
-		final int uvStride = output.width/2;
+	public static void nv21ToInterleaved_U8(byte[] dataNV, int baseY, int baseUV, InterleavedU8 output,
+											int row0, int row1) {
 
-		final int startUV = yStride*output.height;
+		final int width = output.width;
+		final int uvStride = width/2;
 
-		for( int row = 0; row < output.height; row++ ) {
-			int indexY = row*yStride;
-			int indexUV = startUV + (row/2)*(2*uvStride);
+		for( int row = row0; row < row1; row++ ) {
+			int indexY = baseY + row*width;
+			int indexUV = baseUV + (row/2)*(2*uvStride);
 			int indexOut = output.startIndex + row*output.stride;
 
-			for( int col = 0; col < output.width; col++ ) {
-				int y = 1191*((dataNV[indexY++] & 0xFF) - 16);
+			// two pixels in a row share the same chroma, which only needs to be decoded once
+			for( int col = 0; col < width; col += 2 , indexUV += 2 ) {
 				int cr = (dataNV[ indexUV ] & 0xFF) - 128;
 				int cb = (dataNV[ indexUV+1] & 0xFF) - 128;
-
-//				if( y < 0 ) y = 0;
-				y = ((y >>> 31)^1)*y;
-
-				int r = (y + 1836*cr) >> 10;
-				int g = (y - 547*cr - 218*cb) >> 10;
-				int b = (y + 2165*cb) >> 10;
-
-//				if( r < 0 ) r = 0; else if( r > 255 ) r = 255;
-//				if( g < 0 ) g = 0; else if( g > 255 ) g = 255;
-//				if( b < 0 ) b = 0; else if( b > 255 ) b = 255;
-
-				r *= ((r >>> 31)^1);
-				g *= ((g >>> 31)^1);
-				b *= ((b >>> 31)^1);
-
-				// The bitwise code below isn't faster than than the if statement below
-//				r |= (((255-r) >>> 31)*0xFF);
-//				g |= (((255-g) >>> 31)*0xFF);
-//				b |= (((255-b) >>> 31)*0xFF);
-
-				if( r > 255 ) r = 255;
-				if( g > 255 ) g = 255;
-				if( b > 255 ) b = 255;
-
-				output.data[indexOut++] = (byte)r;
-				output.data[indexOut++] = (byte)g;
-				output.data[indexOut++] = (byte)b;
-
-				indexUV += 2*(col&0x1);
+				int chromaR = 1836*cr;
+				int chromaG = -547*cr - 218*cb;
+				int chromaB = 2165*cb;
+
+				decode(dataNV[indexY++], chromaR, chromaG, chromaB, output.data, indexOut);
+				indexOut += 3;
+				// with an odd width the last pixel isn't part of a pair
+				if( col+1 < width ) {
+					decode(dataNV[indexY++], chromaR, chromaG, chromaB, output.data, indexOut);
+					indexOut += 3;
+				}
 			}
 		}
 	}
 
 	public static void nv21ToPlanarRgb_F32(byte[] dataNV, Planar<GrayF32> output) {
+		nv21ToPlanarRgb_F32(dataNV, 0, output.width*output.height, output, 0, output.height);
+	}
+
+	public static void nv21ToPlanarRgb_F32(byte[] dataNV, int baseY, int baseUV, Planar<GrayF32> output,
+										   int row0, int row1) {
 
 		GrayF32 R = output.getBand(0);
 		GrayF32 G = output.getBand(1);
 		GrayF32 B = output.getBand(2);
 
-		final int yStride = output.width;
-		final int uvStride = output.width/2;
-
-		final int startUV = yStride*output.height;
+		final int width = output.width;
+		final int uvStride = width/2;
 
-		for( int row = 0; row < output.height; row++ ) {
-			int indexY = row*yStride;
-			int indexUV = startUV + (row/2)*(2*uvStride);
+		for( int row = row0; row < row1; row++ ) {
+			int indexY = baseY + row*width;
+			int indexUV = baseUV + (row/2)*(2*uvStride);
 			int indexOut = output.startIndex + row*output.stride;
 
-			for( int col = 0; col < output.width; col++ , indexOut++ ) {
-				int y = 1191*((dataNV[indexY++] & 0xFF) - 16);
+			// two pixels in a row share the same chroma, which only needs to be decoded once
+			for( int col = 0; col < width; col += 2 , indexUV += 2 ) {
 				int cr = (dataNV[ indexUV ] & 0xFF) - 128;
 				int cb = (dataNV[ indexUV+1] & 0xFF) - 128;
+				int chromaR = 1836*cr;
+				int chromaG = -547*cr - 218*cb;
+				int chromaB = 2165*cb;
+
+				decode(dataNV[indexY++], chromaR, chromaG, chromaB, R.data, G.data, B.data, indexOut++);
+				// with an odd width the last pixel isn't part of a pair
+				if( col+1 < width ) {
+					decode(dataNV[indexY++], chromaR, chromaG, chromaB, R.data, G.data, B.data, indexOut++);
+				}
+			}
+		}
+	}
 
-//				if( y < 0 ) y = 0;
-				y = ((y >>> 31)^1)*y;
-
-				int r = (y + 1836*cr) >> 10;
-				int g = (y - 547*cr - 218*cb) >> 10;
-				int b = (y + 2165*cb) >> 10;
-
-//				if( r < 0 ) r = 0; else if( r > 255 ) r = 255;
-//				if( g < 0 ) g = 0; else if( g > 255 ) g = 255;
-//				if( b < 0 ) b = 0; else if( b > 255 ) b = 255;
-
-				r *= ((r >>> 31)^1);
-				g *= ((g >>> 31)^1);
-				b *= ((b >>> 31)^1);
+	public static void nv21ToInterleaved_F32(byte[] dataNV, InterleavedF32 output) {
+		nv21ToInterleaved_F32(dataNV, 0, output.width*output.height, output, 0, output.height);
+	}
 
-				// The bitwise code below isn't faster than than the if statement below
-//				r |= (((255-r) >>> 31)*0xFF);
-//				g |= (((255-g) >>> 31)*0xFF);
-//				b |= (((255-b) >>> 31)*0xFF);
+	public static void nv21ToInterleaved_F32(byte[] dataNV, int baseY, int baseUV, InterleavedF32 output,
+											 int row0, int row1) {
 
-				if( r > 255 ) r = 255;
-				if( g > 255 ) g = 255;
-				if( b > 255 ) b = 255;
+		final int width = output.width;
+		final int uvStride = width/2;
 
-				R.data[indexOut] = r;
-				G.data[indexOut] = g;
-				B.data[indexOut] = b;
+		for( int row = row0; row < row1; row++ ) {
+			int indexY = baseY + row*width;
+			int indexUV = baseUV + (row/2)*(2*uvStride);
+			int indexOut = output.startIndex + row*output.stride;
 
-				indexUV += 2*(col&0x1);
+			// two pixels in a row share the same chroma, which only needs to be decoded once
+			for( int col = 0; col < width; col += 2 , indexUV += 2 ) {
+				int cr = (dataNV[ indexUV ] & 0xFF) - 128;
+				int cb = (dataNV[ indexUV+1] & 0xFF) - 128;
+				int chromaR = 1836*cr;
+				int chromaG = -547*cr - 218*cb;
+				int chromaB = 2165*cb;
+
+				decode(dataNV[indexY++], chromaR, chromaG, chromaB, output.data, indexOut);
+				indexOut += 3;
+				// with an odd width the last pixel isn't part of a pair
+				if( col+1 < width ) {
+					decode(dataNV[indexY++], chromaR, chromaG, chromaB, output.data, indexOut);
+					indexOut += 3;
+				}
 			}
 		}
 	}
 
-	public static void nv21ToInterleaved_F32(byte[] dataNV, InterleavedF32 output) {
+	/**
+	 * Converts the fixed point YCbCr value of a single pixel into RGB and saves it in an interleaved image.
+	 * Coefficients in [Jack07] have been multiplied by 1024, which is 2^10.
+	 *
+	 * @param luma Encoded Y value
+	 * @param chromaR Red chroma term. 1836*cr
+	 * @param chromaG Green chroma term. -547*cr - 218*cb
+	 * @param chromaB Blue chroma term. 2165*cb
+	 */
+	static void decode( byte luma , int chromaR , int chromaG , int chromaB , byte[] output , int index ) {
+		int y = 1191*((luma & 0xFF) - 16);
 
-		final int yStride = output.width;
-		final int uvStride = output.width/2;
+//		if( y < 0 ) y = 0;
+		y = ((y >>> 31)^1)*y;
 
-		final int startUV = yStride*output.height;
+		int r = (y + chromaR) >> 10;
+		int g = (y + chromaG) >> 10;
+		int b = (y + chromaB) >> 10;
 
-		for( int row = 0; row < output.height; row++ ) {
-			int indexY = row*yStride;
-			int indexUV = startUV + (row/2)*(2*uvStride);
-			int indexOut = output.startIndex + row*output.stride;
+//		if( r < 0 ) r = 0; else if( r > 255 ) r = 255;
+//		if( g < 0 ) g = 0; else if( g > 255 ) g = 255;
+//		if( b < 0 ) b = 0; else if( b > 255 ) b = 255;
 
-			for( int col = 0; col < output.width; col++ ) {
-				int y = 1191*((dataNV[indexY++] & 0xFF) - 16);
-				int cr = (dataNV[ indexUV ] & 0xFF) - 128;
-				int cb = (dataNV[ indexUV+1] & 0xFF) - 128;
+		r *= ((r >>> 31)^1);
+		g *= ((g >>> 31)^1);
+		b *= ((b >>> 31)^1);
 
-//				if( y < 0 ) y = 0;
-				y = ((y >>> 31)^1)*y;
+		// The bitwise code below isn't faster than than the if statement below
+//		r |= (((255-r) >>> 31)*0xFF);
+//		g |= (((255-g) >>> 31)*0xFF);
+//		b |= (((255-b) >>> 31)*0xFF);
 
-				int r = (y + 1836*cr) >> 10;
-				int g = (y - 547*cr - 218*cb) >> 10;
-				int b = (y + 2165*cb) >> 10;
+		if( r > 255 ) r = 255;
+		if( g > 255 ) g = 255;
+		if( b > 255 ) b = 255;
 
-//				if( r < 0 ) r = 0; else if( r > 255 ) r = 255;
-//				if( g < 0 ) g = 0; else if( g > 255 ) g = 255;
-//				if( b < 0 ) b = 0; else if( b > 255 ) b = 255;
+		output[index  ] = (byte)r;
+		output[index+1] = (byte)g;
+		output[index+2] = (byte)b;
+	}
 
-				r *= ((r >>> 31)^1);
-				g *= ((g >>> 31)^1);
-				b *= ((b >>> 31)^1);
+	/**
+	 * Same as {@link #decode(byte, int, int, int, byte[], int)} but for an interleaved F32 image
+	 */
+	static void decode( byte luma , int chromaR , int chromaG , int chromaB , float[] output , int index ) {
+		int y = 1191*((luma & 0xFF) - 16);
+		y = ((y >>> 31)^1)*y;
 
-				// The bitwise code below isn't faster than than the if statement below
-//				r |= (((255-r) >>> 31)*0xFF);
-//				g |= (((255-g) >>> 31)*0xFF);
-//				b |= (((255-b) >>> 31)*0xFF);
+		int r = (y + chromaR) >> 10;
+		int g = (y + chromaG) >> 10;
+		int b = (y + chromaB) >> 10;
 
-				if( r > 255 ) r = 255;
-				if( g > 255 ) g = 255;
-				if( b > 255 ) b = 255;
+		r *= ((r >>> 31)^1);
+		g *= ((g >>> 31)^1);
+		b *= ((b >>> 31)^1);
 
-				output.data[indexOut++] = r;
-				output.data[indexOut++] = g;
-				output.data[indexOut++] = b;
+		if( r > 255 ) r = 255;
+		if( g > 255 ) g = 255;
+		if( b > 255 ) b = 255;
 
-				indexUV += 2*(col&0x1);
-			}
-		}
+		output[index  ] = r;
+		output[index+1] = g;
+		output[index+2] = b;
+	}
+
+	/**
+	 * Same as {@link #decode(byte, int, int, int, byte[], int)} but for a planar U8 image
+	 */
+	static void decode( byte luma , int chromaR , int chromaG , int chromaB ,
+						byte[] R , byte[] G , byte[] B , int index ) {
+		int y = 1191*((luma & 0xFF) - 16);
+		y = ((y >>> 31)^1)*y;
+
+		int r = (y + chromaR) >> 10;
+		int g = (y + chromaG) >> 10;
+		int b = (y + chromaB) >> 10;
+
+		r *= ((r >>> 31)^1);
+		g *= ((g >>> 31)^1);
+		b *= ((b >>> 31)^1);
+
+		if( r > 255 ) r = 255;
+		if( g > 255 ) g = 255;
+		if( b > 255 ) b = 255;
+
+		R[index] = (byte)r;
+		G[index] = (byte)g;
+		B[index] = (byte)b;
+	}
+
+	/**
+	 * Same as {@link #decode(byte, int, int, int, byte[], int)} but for a planar F32 image
+	 */
+	static void decode( byte luma , int chromaR , int chromaG , int chromaB ,
+						float[] R , float[] G , float[] B , int index ) {
+		int y = 1191*((luma & 0xFF) - 16);
+		y = ((y >>> 31)^1)*y;
+
+		int r = (y + chromaR) >> 10;
+		int g = (y + chromaG) >> 10;
+		int b = (y + chromaB) >> 10;
+
+		r *= ((r >>> 31)^1);
+		g *= ((g >>> 31)^1);
+		b *= ((b >>> 31)^1);
+
+		if( r > 255 ) r = 255;
+		if( g > 255 ) g = 255;
+		if( b > 255 ) b = 255;
+
+		R[index] = r;
+		G[index] = g;
+		B[index] = b;
 	}
 }
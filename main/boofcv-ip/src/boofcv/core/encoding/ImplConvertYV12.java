@@ -21,221 +21,164 @@ package boofcv.core.encoding;
 
 import boofcv.struct.image.*;
 
+import static boofcv.core.encoding.ImplConvertNV21.decode;
+
 /**
- * Implementations of {@link ConvertYV12}
+ * Implementations of {@link ConvertYV12}.  Functions which take a range of rows locate each plane using base
+ * indexes, see {@link ImplConvertNV21}.
  *
  * @author Peter Abeles
  */
 public class ImplConvertYV12 {
 
 	public static void yv12ToPlanarRgb_U8(byte[] dataYV, Planar<GrayU8> output) {
+		final int startU = output.width*output.height;
+		final int startV = startU + (output.width/2)*(output.height/2);
+		yv12ToPlanarRgb_U8(dataYV, 0, startU, startV, output, 0, output.height);
+	}
+
+	public static void yv12ToPlanarRgb_U8(byte[] dataYV, int baseY, int baseU, int baseV, Planar<GrayU8> output,
+										  int row0, int row1) {
 
 		GrayU8 R = output.getBand(0);
 		GrayU8 G = output.getBand(1);
 		GrayU8 B = output.getBand(2);
 
-		final int yStride = output.width;
-		final int uvStride = output.width/2;
+		final int width = output.width;
+		final int uvStride = width/2;
 
-		final int startU = yStride*output.height;
-		final int offsetV = uvStride*(output.height/2);
-
-		for( int row = 0; row < output.height; row++ ) {
-			int indexY = row*yStride;
-			int indexU = startU + (row/2)*uvStride;
+		for( int row = row0; row < row1; row++ ) {
+			int indexY = baseY + row*width;
+			int indexU = baseU + (row/2)*uvStride;
+			int indexV = baseV + (row/2)*uvStride;
 			int indexOut = output.startIndex + row*output.stride;
 
-			for( int col = 0; col < output.width; col++ , indexOut++ ) {
-				int y = 1191*((dataYV[indexY++] & 0xFF) - 16);
+			// two pixels in a row share the same chroma, which only needs to be decoded once
+			for( int col = 0; col < width; col += 2 , indexU++ , indexV++ ) {
 				int cb = (dataYV[ indexU ] & 0xFF) - 128;
-				int cr = (dataYV[ indexU+offsetV] & 0xFF) - 128;
-
-//				if( y < 0 ) y = 0;
-				y = ((y >>> 31)^1)*y;
-
-				int r = (y + 1836*cr) >> 10;
-				int g = (y - 547*cr - 218*cb) >> 10;
-				int b = (y + 2165*cb) >> 10;
-
-//				if( r < 0 ) r = 0; else if( r > 255 ) r = 255;
-//				if( g < 0 ) g = 0; else if( g > 255 ) g = 255;
-//				if( b < 0 ) b = 0; else if( b > 255 ) b = 255;
-
-				r *= ((r >>> 31)^1);
-				g *= ((g >>> 31)^1);
-				b *= ((b >>> 31)^1);
-
-				// The bitwise code below isn't faster than than the if statement below
-//				r |= (((255-r) >>> 31)*0xFF);
-//				g |= (((255-g) >>> 31)*0xFF);
-//				b |= (((255-b) >>> 31)*0xFF);
-
-				if( r > 255 ) r = 255;
-				if( g > 255 ) g = 255;
-				if( b > 255 ) b = 255;
-
-				R.data[indexOut] = (byte)r;
-				G.data[indexOut] = (byte)g;
-				B.data[indexOut] = (byte)b;
-
-				indexU += col&0x1;
+				int cr = (dataYV[ indexV ] & 0xFF) - 128;
+				int chromaR = 1836*cr;
+				int chromaG = -547*cr - 218*cb;
+				int chromaB = 2165*cb;
+
+				decode(dataYV[indexY++], chromaR, chromaG, chromaB, R.data, G.data, B.data, indexOut++);
+				// with an odd width the last pixel isn't part of a pair
+				if( col+1 < width ) {
+					decode(dataYV[indexY++], chromaR, chromaG, chromaB, R.data, G.data, B.data, indexOut++);
+				}
 			}
 		}
 	}
 
 	public static void yv12ToInterleaved(byte[] dataYV, InterleavedU8 output) {
+		final int startU = output.width*output.height;
+		final int startV = startU + (output.width/2)*(output.height/2);
+		yv12ToInterleaved(dataYV, 0, startU, startV, output, 0, output.height);
+	}
 
-		final int yStride = output.width;
-		final int uvStride = output.width/2;
+	public static void yv12ToInterleaved(byte[] dataYV, int baseY, int baseU, int baseV, InterleavedU8 output,
+										 int row0, int row1) {
 
-		final int startU = yStride*output.height;
-		final int offsetV = uvStride*(output.height/2);
+		final int width = output.width;
+		final int uvStride = width/2;
 
-		for( int row = 0; row < output.height; row++ ) {
-			int indexY = row*yStride;
-			int indexU = startU + (row/2)*uvStride;
+		for( int row = row0; row < row1; row++ ) {
+			int indexY = baseY + row*width;
+			int indexU = baseU + (row/2)*uvStride;
+			int indexV = baseV + (row/2)*uvStride;
 			int indexOut = output.startIndex + row*output.stride;
 
-			for( int col = 0; col < output.width; col++ ) {
-				int y = 1191*((dataYV[indexY++] & 0xFF) - 16);
+			// two pixels in a row share the same chroma, which only needs to be decoded once
+			for( int col = 0; col < width; col += 2 , indexU++ , indexV++ ) {
 				int cb = (dataYV[ indexU ] & 0xFF) - 128;
-				int cr = (dataYV[ indexU+offsetV] & 0xFF) - 128;
-
-//				if( y < 0 ) y = 0;
-				y = ((y >>> 31)^1)*y;
-
-				int r = (y + 1836*cr) >> 10;
-				int g = (y - 547*cr - 218*cb) >> 10;
-				int b = (y + 2165*cb) >> 10;
-
-//				if( r < 0 ) r = 0; else if( r > 255 ) r = 255;
-//				if( g < 0 ) g = 0; else if( g > 255 ) g = 255;
-//				if( b < 0 ) b = 0; else if( b > 255 ) b = 255;
-
-				r *= ((r >>> 31)^1);
-				g *= ((g >>> 31)^1);
-				b *= ((b >>> 31)^1);
-
-				// The bitwise code below isn't faster than than the if statement below
-//				r |= (((255-r) >>> 31)*0xFF);
-//				g |= (((255-g) >>> 31)*0xFF);
-//				b |= (((255-b) >>> 31)*0xFF);
-
-				if( r > 255 ) r = 255;
-				if( g > 255 ) g = 255;
-				if( b > 255 ) b = 255;
-
-				output.data[indexOut++] = (byte)r;
-				output.data[indexOut++] = (byte)g;
-				output.data[indexOut++] = (byte)b;
-
-				indexU += col&0x1;
+				int cr = (dataYV[ indexV ] & 0xFF) - 128;
+				int chromaR = 1836*cr;
+				int chromaG = -547*cr - 218*cb;
+				int chromaB = 2165*cb;
+
+				decode(dataYV[indexY++], chromaR, chromaG, chromaB, output.data, indexOut);
+				indexOut += 3;
+				// with an odd width the last pixel isn't part of a pair
+				if( col+1 < width ) {
+					decode(dataYV[indexY++], chromaR, chromaG, chromaB, output.data, indexOut);
+					indexOut += 3;
+				}
 			}
 		}
 	}
 
 	public static void yv12ToPlanarRgb_F32(byte[] dataYV, Planar<GrayF32> output) {
+		final int startU = output.width*output.height;
+		final int startV = startU + (output.width/2)*(output.height/2);
+		yv12ToPlanarRgb_F32(dataYV, 0, startU, startV, output, 0, output.height);
+	}
+
+	public static void yv12ToPlanarRgb_F32(byte[] dataYV, int baseY, int baseU, int baseV, Planar<GrayF32> output,
+										   int row0, int row1) {
 
 		GrayF32 R = output.getBand(0);
 		GrayF32 G = output.getBand(1);
 		GrayF32 B = output.getBand(2);
 
-		final int yStride = output.width;
-		final int uvStride = output.width/2;
-
-		final int startU = yStride*output.height;
-		final int offsetV = uvStride*(output.height/2);
+		final int width = output.width;
+		final int uvStride = width/2;
 
-		for( int row = 0; row < output.height; row++ ) {
-			int indexY = row*yStride;
-			int indexU = startU + (row/2)*uvStride;
+		for( int row = row0; row < row1; row++ ) {
+			int indexY = baseY + row*width;
+			int indexU = baseU + (row/2)*uvStride;
+			int indexV = baseV + (row/2)*uvStride;
 			int indexOut = output.startIndex + row*output.stride;
 
-			for( int col = 0; col < output.width; col++ , indexOut++ ) {
-				int y = 1191*((dataYV[indexY++] & 0xFF) - 16);
+			// two pixels in a row share the same chroma, which only needs to be decoded once
+			for( int col = 0; col < width; col += 2 , indexU++ , indexV++ ) {
 				int cb = (dataYV[ indexU ] & 0xFF) - 128;
-				int cr = (dataYV[ indexU+offsetV] & 0xFF) - 128;
-
-//				if( y < 0 ) y = 0;
-				y = ((y >>> 31)^1)*y;
-
-				int r = (y + 1836*cr) >> 10;
-				int g = (y - 547*cr - 218*cb) >> 10;
-				int b = (y + 2165*cb) >> 10;
-
-//				if( r < 0 ) r = 0; else if( r > 255 ) r = 255;
-//				if( g < 0 ) g = 0; else if( g > 255 ) g = 255;
-//				if( b < 0 ) b = 0; else if( b > 255 ) b = 255;
-
-				r *= ((r >>> 31)^1);
-				g *= ((g >>> 31)^1);
-				b *= ((b >>> 31)^1);
-
-				// The bitwise code below isn't faster than than the if statement below
-//				r |= (((255-r) >>> 31)*0xFF);
-//				g |= (((255-g) >>> 31)*0xFF);
-//				b |= (((255-b) >>> 31)*0xFF);
-
-				if( r > 255 ) r = 255;
-				if( g > 255 ) g = 255;
-				if( b > 255 ) b = 255;
-
-				R.data[indexOut] = r;
-				G.data[indexOut] = g;
-				B.data[indexOut] = b;
-
-				indexU += col&0x1;
+				int cr = (dataYV[ indexV ] & 0xFF) - 128;
+				int chromaR = 1836*cr;
+				int chromaG = -547*cr - 218*cb;
+				int chromaB = 2165*cb;
+
+				decode(dataYV[indexY++], chromaR, chromaG, chromaB, R.data, G.data, B.data, indexOut++);
+				// with an odd width the last pixel isn't part of a pair
+				if( col+1 < width ) {
+					decode(dataYV[indexY++], chromaR, chromaG, chromaB, R.data, G.data, B.data, indexOut++);
+				}
 			}
 		}
 	}
 
 	public static void yv12ToInterleaved(byte[] dataYV, InterleavedF32 output) {
+		final int startU = output.width*output.height;
+		final int startV = startU + (output.width/2)*(output.height/2);
+		yv12ToInterleaved(dataYV, 0, startU, startV, output, 0, output.height);
+	}
 
-		final int yStride = output.width;
-		final int uvStride = output.width/2;
+	public static void yv12ToInterleaved(byte[] dataYV, int baseY, int baseU, int baseV, InterleavedF32 output,
+										 int row0, int row1) {
 
-		final int startU = yStride*output.height;
-		final int offsetV = uvStride*(output.height/2);
+		final int width = output.width;
+		final int uvStride = width/2;
 
-		for( int row = 0; row < output.height; row++ ) {
-			int indexY = row*yStride;
-			int indexU = startU + (row/2)*uvStride;
+		for( int row = row0; row < row1; row++ ) {
+			int indexY = baseY + row*width;
+			int indexU = baseU + (row/2)*uvStride;
+			int indexV = baseV + (row/2)*uvStride;
 			int indexOut = output.startIndex + row*output.stride;
 
-			for( int col = 0; col < output.width; col++ ) {
-				int y = 1191*((dataYV[indexY++] & 0xFF) - 16);
+			// two pixels in a row share the same chroma, which only needs to be decoded once
+			for( int col = 0; col < width; col += 2 , indexU++ , indexV++ ) {
 				int cb = (dataYV[ indexU ] & 0xFF) - 128;
-				int cr = (dataYV[ indexU+offsetV] & 0xFF) - 128;
-
-//				if( y < 0 ) y = 0;
-				y = ((y >>> 31)^1)*y;
-
-				int r = (y + 1836*cr) >> 10;
-				int g = (y - 547*cr - 218*cb) >> 10;
-				int b = (y + 2165*cb) >> 10;
-
-//				if( r < 0 ) r = 0; else if( r > 255 ) r = 255;
-//				if( g < 0 ) g = 0; else if( g > 255 ) g = 255;
-//				if( b < 0 ) b = 0; else if( b > 255 ) b = 255;
-
-				r *= ((r >>> 31)^1);
-				g *= ((g >>> 31)^1);
-				b *= ((b >>> 31)^1);
-
-				// The bitwise code below isn't faster than than the if statement below
-//				r |= (((255-r) >>> 31)*0xFF);
-//				g |= (((255-g) >>> 31)*0xFF);
-//				b |= (((255-b) >>> 31)*0xFF);
-
-				if( r > 255 ) r = 255;
-				if( g > 255 ) g = 255;
-				if( b > 255 ) b = 255;
-
-				output.data[indexOut++] = r;
-				output.data[indexOut++] = g;
-				output.data[indexOut++] = b;
-
-				indexU += col&0x1;
+				int cr = (dataYV[ indexV ] & 0xFF) - 128;
+				int chromaR = 1836*cr;
+				int chromaG = -547*cr - 218*cb;
+				int chromaB = 2165*cb;
+
+				decode(dataYV[indexY++], chromaR, chromaG, chromaB, output.data, indexOut);
+				indexOut += 3;
+				// with an odd width the last pixel isn't part of a pair
+				if( col+1 < width ) {
+					decode(dataYV[indexY++], chromaR, chromaG, chromaB, output.data, indexOut);
+					indexOut += 3;
+				}
 			}
 		}
 	}
@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.core.encoding;
+
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeConsumer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * <p>
+ * Decodes the rows of a YUV 4:2:0 frame, such as NV21 or YV12, with the option of splitting rows between threads.
+ * The frame is composed of a full resolution Y plane followed by one or more chroma planes which have half the
+ * number of rows.  Rows are decoded by {@link #process(byte[], int, int, int, int)} which is given base indexes
+ * for each plane, as described in {@link ImplConvertNV21}.
+ * </p>
+ *
+ * <p>
+ * Frames can be read from a {@link ByteBuffer}.  If the buffer is backed by an array the array is decoded
+ * directly.  Direct buffers are read a block of rows at a time into a small work space, which avoids copying
+ * the entire frame.  The buffer's position marks the start of the frame and is not modified.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+abstract class ImplYuv420Rows {
+
+	// number of rows which are read at once from a direct buffer.  Must be even
+	static final int BLOCK_ROWS = 32;
+
+	final int width, height;
+	// number of bytes in each row of a chroma plane
+	final int chromaRowBytes;
+	// index of the first element in each chroma plane, relative to the start of the frame
+	final int[] chromaStart;
+	// number of bytes in the frame
+	final int frameLength;
+
+	/**
+	 * @param width Image width
+	 * @param height Image height
+	 * @param chromaRowBytes Number of bytes in each row of a chroma plane
+	 * @param numChroma Number of chroma planes which are read.  0 if only gray scale is needed.
+	 */
+	ImplYuv420Rows( int width , int height , int chromaRowBytes , int numChroma ) {
+		this.width = width;
+		this.height = height;
+		this.chromaRowBytes = chromaRowBytes;
+
+		chromaStart = new int[numChroma];
+		int length = width*height;
+		for (int i = 0; i < numChroma; i++) {
+			chromaStart[i] = length;
+			length += chromaRowBytes*(height/2);
+		}
+		frameLength = length;
+	}
+
+	/**
+	 * Decodes a frame which starts at the specified offset inside the array
+	 */
+	public void process( final byte[] data , int offset , boolean concurrent ) {
+		if( data.length - offset < frameLength )
+			throw new IllegalArgumentException("Data is too short. Expected at least "+frameLength+" bytes");
+
+		final int baseY = offset;
+		final int baseC0 = offset + chromaStart(0);
+		final int baseC1 = offset + chromaStart(1);
+
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, height, new IntRangeConsumer() {
+				@Override
+				public void accept(int row0, int row1) {
+					process(data, baseY, baseC0, baseC1, row0, row1);
+				}
+			});
+		} else {
+			process(data, baseY, baseC0, baseC1, 0, height);
+		}
+	}
+
+	/**
+	 * Decodes a frame which starts at the buffer's current position
+	 */
+	public void process( final ByteBuffer buffer , boolean concurrent ) {
+		if( buffer.hasArray() ) {
+			process(buffer.array(), buffer.arrayOffset() + buffer.position(), concurrent);
+			return;
+		}
+		if( buffer.remaining() < frameLength )
+			throw new IllegalArgumentException("Buffer is too short. Expected at least "+frameLength+" bytes");
+
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, height, new IntRangeConsumer() {
+				@Override
+				public void accept(int row0, int row1) {
+					processDirect(buffer, row0, row1);
+				}
+			});
+		} else {
+			processDirect(buffer, 0, height);
+		}
+	}
+
+	/**
+	 * Copies a block of rows at a time into a work space and decodes them.  A duplicate of the buffer is used so that
+	 * its position can be changed safely inside of a thread.
+	 */
+	void processDirect( ByteBuffer buffer , int row0 , int row1 ) {
+		final int start = buffer.position();
+		buffer = buffer.duplicate();
+
+		int numChroma = chromaStart.length;
+		int chromaBlockBytes = (BLOCK_ROWS/2+1)*chromaRowBytes;
+		byte[] work = new byte[BLOCK_ROWS*width + numChroma*chromaBlockBytes];
+		int[] baseC = new int[2];
+
+		for( int blockRow0 = row0; blockRow0 < row1; blockRow0 += BLOCK_ROWS ) {
+			int blockRow1 = Math.min(row1, blockRow0 + BLOCK_ROWS);
+
+			buffer.position(start + blockRow0*width);
+			buffer.get(work, 0, (blockRow1-blockRow0)*width);
+			int baseY = -blockRow0*width;
+
+			// chroma rows which are used by this block
+			int chromaRow0 = blockRow0/2;
+			int chromaRows = (blockRow1-1)/2 - chromaRow0 + 1;
+			// with an odd number of rows the last row has no chroma in the frame
+			chromaRows = Math.min(chromaRows, height/2 - chromaRow0);
+
+			for (int i = 0; i < numChroma; i++) {
+				int workIndex = BLOCK_ROWS*width + i*chromaBlockBytes;
+				buffer.position(start + chromaStart[i] + chromaRow0*chromaRowBytes);
+				buffer.get(work, workIndex, chromaRows*chromaRowBytes);
+				baseC[i] = workIndex - chromaRow0*chromaRowBytes;
+			}
+			if( numChroma == 1 )
+				baseC[1] = baseC[0];
+
+			process(work, baseY, baseC[0], baseC[1], blockRow0, blockRow1);
+		}
+	}
+
+	private int chromaStart( int which ) {
+		if( chromaStart.length == 0 )
+			return 0;
+		return chromaStart[Math.min(which,chromaStart.length-1)];
+	}
+
+	/**
+	 * Decodes rows in the range [row0,row1).
+	 *
+	 * @param data Array containing the frame
+	 * @param baseY Index of row zero in the Y plane
+	 * @param baseC0 Index of row zero in the first chroma plane
+	 * @param baseC1 Index of row zero in the second chroma plane.  Same as the first if there is only one.
+	 */
+	protected abstract void process( byte[] data , int baseY , int baseC0 , int baseC1 , int row0 , int row1 );
+}
@@ -142,7 +142,16 @@ public class FactoryDistort {
 	distortIL(boolean cached, InterpolatePixelMB<Input> interp, ImageType<Output> outputType)
 	{
 		if( cached ) {
-			throw new IllegalArgumentException("Cached not supported yet");
+			switch( outputType.getDataType() ) {
+				case F32:
+					return (ImageDistort<Input, Output>) new ImplImageDistortCache_IL_F32((InterpolatePixelMB)interp);
+
+				case U8:
+					return (ImageDistort<Input, Output>) new ImplImageDistortCache_IL_U8((InterpolatePixelMB)interp);
+
+				default:
+					throw new IllegalArgumentException("Not supported yet");
+			}
 		} else {
 			switch( outputType.getDataType() ) {
 				case F32:
@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.struct;
+
+import georegression.struct.point.Point2D_I32;
+import org.ddogleg.struct.FastQueue;
+import org.ddogleg.struct.GrowQueue_I32;
+
+import java.util.List;
+
+/**
+ * Compact storage for a set of lists of 2D integer points.  The coordinates of every point are stored
+ * in a single primitive array as (x,y) pairs, with each set occupying a contiguous range.  New points can only
+ * be added to the most recently created set, the tail.  Avoids creating an object for every point and
+ * once the array has grown to its maximum size no more memory is allocated.
+ *
+ * @author Peter Abeles
+ */
+public class PackedSetsPoint2D_I32 {
+	// coordinates of every point. x and y are interleaved
+	private GrowQueue_I32 points = new GrowQueue_I32();
+	// index of the first point in each set
+	private GrowQueue_I32 setStart = new GrowQueue_I32();
+
+	/**
+	 * Removes all sets
+	 */
+	public void reset() {
+		points.reset();
+		setStart.reset();
+	}
+
+	/**
+	 * Creates a new empty set.  It becomes the tail.
+	 */
+	public void grow() {
+		setStart.add(points.size/2);
+	}
+
+	/**
+	 * Removes the tail set and all of its points
+	 */
+	public void removeTail() {
+		points.size = setStart.get(setStart.size-1)*2;
+		setStart.size--;
+	}
+
+	/**
+	 * Adds a point to the tail set
+	 */
+	public void addPointToTail( int x , int y ) {
+		points.add(x);
+		points.add(y);
+	}
+
+	/**
+	 * Number of sets
+	 */
+	public int size() {
+		return setStart.size;
+	}
+
+	/**
+	 * Total number of points in all the sets
+	 */
+	public int totalPoints() {
+		return points.size/2;
+	}
+
+	/**
+	 * Number of points in the specified set
+	 */
+	public int sizeOfSet( int which ) {
+		int end = which+1 < setStart.size ? setStart.data[which+1] : points.size/2;
+		return end - setStart.data[which];
+	}
+
+	/**
+	 * Number of points in the tail set
+	 */
+	public int sizeOfTail() {
+		return sizeOfSet(setStart.size-1);
+	}
+
+	public int getX( int set , int index ) {
+		return points.data[(setStart.data[set]+index)*2];
+	}
+
+	public int getY( int set , int index ) {
+		return points.data[(setStart.data[set]+index)*2+1];
+	}
+
+	/**
+	 * Copies the points in a set into a list.  The list is cleared first.
+	 *
+	 * @param which Index of the set
+	 * @param storage Provides the point instances.  Reset first.
+	 * @param output (Output) List the points are added to.  Cleared first.
+	 */
+	public void getSet( int which , FastQueue<Point2D_I32> storage , List<Point2D_I32> output ) {
+		output.clear();
+		int N = sizeOfSet(which);
+		int index = setStart.data[which]*2;
+		for (int i = 0; i < N; i++, index += 2) {
+			Point2D_I32 p = storage.grow();
+			p.set(points.data[index], points.data[index+1]);
+			output.add(p);
+		}
+	}
+
+	/**
+	 * Copies the points in a set into a queue.  The queue is reset first.
+	 */
+	public void getSet( int which , FastQueue<Point2D_I32> output ) {
+		output.reset();
+		int N = sizeOfSet(which);
+		int index = setStart.data[which]*2;
+		for (int i = 0; i < N; i++, index += 2) {
+			output.grow().set(points.data[index], points.data[index+1]);
+		}
+	}
+
+	/**
+	 * Copies a set from another instance into a new tail set.  The points are translated while being copied.
+	 *
+	 * @param src Where the set is copied from
+	 * @param which Index of the set in src
+	 * @param offsetX Added to the x-coordinate
+	 * @param offsetY Added to the y-coordinate
+	 */
+	public void appendSet( PackedSetsPoint2D_I32 src , int which , int offsetX , int offsetY ) {
+		grow();
+		int N = src.sizeOfSet(which);
+		int index = src.setStart.data[which]*2;
+		int indexDst = points.size;
+		growPoints(points.size + N*2);
+		int[] dst = points.data;
+		for (int i = 0; i < N; i++, index += 2) {
+			dst[indexDst++] = src.points.data[index] + offsetX;
+			dst[indexDst++] = src.points.data[index+1] + offsetY;
+		}
+	}
+
+	/**
+	 * Increases the size of the points array while keeping its contents
+	 */
+	private void growPoints( int size ) {
+		if( points.data.length < size ) {
+			int[] tmp = new int[Math.max(size, points.data.length*2)];
+			System.arraycopy(points.data, 0, tmp, 0, points.size);
+			points.data = tmp;
+		}
+		points.size = size;
+	}
+}
@@ -42,4 +42,11 @@ public interface Point2Transform2Model_F32<Model> extends Point2Transform2_F32 {
 	 * @return new instance
 	 */
 	Model newInstanceModel();
+
+	/**
+	 * Creates a new instance of this transform with a copy of the active model.  Each thread should
+	 * have its own copy since the model can be modified.
+	 * @return new instance
+	 */
+	Point2Transform2Model_F32<Model> copy();
 }
@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.struct.image;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Binary image where each pixel is stored as a single bit inside of a long.  Compared to a binary {@link GrayU8}
+ * image it requires 1/8 the memory and allows logical and morphological operations to be applied to 64 pixels
+ * at once.  See {@link boofcv.alg.filter.binary.PackedBinaryOps}.
+ * </p>
+ *
+ * <p>
+ * Each row starts at a new word.  Pixel (x,y) is bit (x % 64) of word y*stride + x/64, with the least significant
+ * bit being the left most pixel.  Bits past the last column in a row are always zero.
+ * </p>
+ *
+ * <p>
+ * NOTE: This is not a sub-class of {@link ImageBase} and sub-images are not supported.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class PackedBinaryImage extends ImageDimension {
+	/**
+	 * Number of words in each row
+	 */
+	public int stride;
+	/**
+	 * Pixel values packed into words
+	 */
+	public long data[] = new long[0];
+
+	/**
+	 * Creates a new image where every pixel is false
+	 *
+	 * @param width  number of columns in the image.
+	 * @param height number of rows in the image.
+	 */
+	public PackedBinaryImage(int width, int height) {
+		reshape(width, height);
+	}
+
+	public PackedBinaryImage() {
+	}
+
+	/**
+	 * Changes the image's shape.  If the shape is different then all pixels are set to false.
+	 */
+	public void reshape(int width, int height) {
+		if( this.width == width && this.height == height )
+			return;
+		if( width < 0 || height < 0 )
+			throw new IllegalArgumentException("Image shape can't be negative");
+
+		int stride = (width+63)/64;
+		int length = stride*height;
+		if( data.length < length ) {
+			data = new long[length];
+		} else {
+			Arrays.fill(data, 0, length, 0);
+		}
+
+		this.width = width;
+		this.height = height;
+		this.stride = stride;
+	}
+
+	/**
+	 * Returns the value of the specified pixel, 0 or 1
+	 */
+	public int get(int x, int y) {
+		if( !isInBounds(x, y) )
+			throw new ImageAccessException("Requested pixel is out of bounds");
+		return (int)(data[y*stride + (x >> 6)] >>> (x & 63)) & 1;
+	}
+
+	/**
+	 * Sets the value of the specified pixel.  Zero is false and any other value is true.
+	 */
+	public void set(int x, int y, int value) {
+		if( !isInBounds(x, y) )
+			throw new ImageAccessException("Requested pixel is out of bounds");
+		int index = y*stride + (x >> 6);
+		if( value != 0 )
+			data[index] |= 1L << (x & 63);
+		else
+			data[index] &= ~(1L << (x & 63));
+	}
+
+	public boolean isInBounds(int x, int y) {
+		return x >= 0 && x < width && y >= 0 && y < height;
+	}
+
+	/**
+	 * Mask of valid bits in the last word of each row
+	 */
+	public long lastWordMask() {
+		int remainder = width & 63;
+		return remainder == 0 ? -1L : (1L << remainder) - 1;
+	}
+
+	/**
+	 * Sets every pixel to the specified value
+	 */
+	public void fill(boolean value) {
+		if( !value || stride == 0 ) {
+			Arrays.fill(data, 0, stride*height, 0);
+			return;
+		}
+		long mask = lastWordMask();
+		for (int y = 0; y < height; y++) {
+			int index = y*stride;
+			Arrays.fill(data, index, index + stride - 1, -1L);
+			data[index + stride - 1] = mask;
+		}
+	}
+
+	/**
+	 * Returns the number of pixels which are true
+	 */
+	public int countTrue() {
+		int total = 0;
+		int length = stride*height;
+		for (int i = 0; i < length; i++) {
+			total += Long.bitCount(data[i]);
+		}
+		return total;
+	}
+
+	/**
+	 * Copies the passed in image into this one, reshaping if needed
+	 */
+	public void setTo(PackedBinaryImage orig) {
+		reshape(orig.width, orig.height);
+		System.arraycopy(orig.data, 0, data, 0, stride*height);
+	}
+
+	/**
+	 * Creates a new image with the same shape as this one
+	 */
+	public PackedBinaryImage createSameShape() {
+		return new PackedBinaryImage(width, height);
+	}
+
+	/**
+	 * Creates a copy of this image
+	 */
+	public PackedBinaryImage clone() {
+		PackedBinaryImage ret = new PackedBinaryImage();
+		ret.setTo(this);
+		return ret;
+	}
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.abst.denoise;
+
+import boofcv.alg.denoise.spatial.DenoiseBilateral_F32;
+import boofcv.alg.misc.GImageMiscOps;
+import boofcv.alg.misc.ImageMiscOps;
+import boofcv.core.image.ConvertImage;
+import boofcv.struct.image.GrayF32;
+import boofcv.struct.image.GrayU8;
+import boofcv.struct.image.ImageType;
+import boofcv.struct.image.InterleavedU8;
+import boofcv.struct.image.Planar;
+import boofcv.testing.BoofTesting;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+
+/**
+ * @author Peter Abeles
+ */
+public class TestSpatialDenoiseFilter {
+
+	Random rand = new Random(234);
+	int width = 30;
+	int height = 25;
+
+	/**
+	 * U8 images should be the rounded results from processing a F32 image
+	 */
+	@Test
+	public void grayU8() {
+		GrayU8 input = new GrayU8(width,height);
+		ImageMiscOps.fillUniform(input, rand, 0, 255);
+		GrayU8 found = input.createSameShape();
+
+		SpatialDenoiseFilter<GrayU8> filter = new SpatialDenoiseFilter<>(
+				new DenoiseBilateral_F32(2,-1,30), ImageType.single(GrayU8.class));
+		filter.process(input, found);
+
+		GrayF32 inputF = ConvertImage.convert(input, (GrayF32)null);
+		GrayF32 expected = inputF.createSameShape();
+		new DenoiseBilateral_F32(2,-1,30).process(inputF, expected);
+
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				assertEquals(Math.round(expected.get(x,y)), found.get(x,y));
+			}
+		}
+	}
+
+	/**
+	 * Each band should be processed independently
+	 */
+	@Test
+	public void planar() {
+		Planar<GrayF32> input = new Planar<>(GrayF32.class,width,height,3);
+		GImageMiscOps.fillUniform(input, rand, 0, 255);
+		Planar<GrayF32> found = input.createSameShape();
+
+		SpatialDenoiseFilter<Planar<GrayF32>> filter = FactoryImageDenoise.nonLocalMeans(
+				ImageType.pl(3,GrayF32.class), 1, 3, 20);
+		filter.process(input, found);
+
+		for (int band = 0; band < 3; band++) {
+			GrayF32 expected = input.getBand(band).createSameShape();
+			FactoryImageDenoise.nonLocalMeans(ImageType.single(GrayF32.class), 1, 3, 20).
+					process(input.getBand(band), expected);
+			BoofTesting.assertEquals(expected, found.getBand(band), 0);
+		}
+	}
+
+	@Test
+	public void concurrent() {
+		SpatialDenoiseFilter<GrayF32> filter = FactoryImageDenoise.bilateral(ImageType.single(GrayF32.class), 2, -1, 20);
+		filter.setConcurrent(true);
+		assertEquals(true, filter.getAlgorithm().isConcurrent());
+		filter.setConcurrent(false);
+		assertEquals(false, filter.getAlgorithm().isConcurrent());
+	}
+
+	@Test
+	public void unsupportedTypes() {
+		try {
+			new SpatialDenoiseFilter<>(new DenoiseBilateral_F32(2,-1,30), ImageType.il(3, InterleavedU8.class));
+			fail("Exception expected");
+		} catch( IllegalArgumentException ignore ){}
+	}
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.abst.denoise;
+
+import boofcv.alg.misc.GImageMiscOps;
+import boofcv.alg.misc.ImageStatistics;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.struct.image.GrayF32;
+import boofcv.testing.BoofTesting;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestWaveletDenoiseFilter {
+
+	Random rand = new Random(234);
+
+	GrayF32 image = new GrayF32(150,130);
+	GrayF32 noisy;
+
+	public TestWaveletDenoiseFilter() {
+		// render a simple scene
+		GImageMiscOps.fill(image, 20);
+		GImageMiscOps.fillRectangle(image,200,20,30,60,40);
+		GImageMiscOps.fillRectangle(image,120,90,70,40,50);
+
+		noisy = image.clone();
+		GImageMiscOps.addGaussian(noisy,rand,20,0,255);
+	}
+
+	/**
+	 * If the tile is larger than the image then the results should be the same as not using tiles
+	 */
+	@Test
+	public void tiling_largerThanImage() {
+		WaveletDenoiseFilter<GrayF32> alg = FactoryImageDenoise.waveletBayes(GrayF32.class,3,0,255);
+
+		GrayF32 expected = new GrayF32(image.width,image.height);
+		alg.process(noisy,expected);
+
+		GrayF32 found = new GrayF32(image.width,image.height);
+		alg.setTiling(200,10);
+		alg.process(noisy,found);
+
+		BoofTesting.assertEquals(expected, found, 0);
+	}
+
+	/**
+	 * Every pixel should be written to and the noise should still be reduced
+	 */
+	@Test
+	public void tiling_smallerThanImage() {
+		WaveletDenoiseFilter<GrayF32> alg = FactoryImageDenoise.waveletBayes(GrayF32.class,3,0,255);
+		alg.setTiling(64,8);
+
+		GrayF32 found = new GrayF32(image.width,image.height);
+		GImageMiscOps.fill(found,-1);
+		alg.process(noisy,found);
+
+		for( int i = 0; i < found.data.length; i++ ) {
+			assertTrue(found.data[i] >= 0);
+		}
+
+		double noisyError = ImageStatistics.meanDiffSq(image, noisy);
+		double foundError = ImageStatistics.meanDiffSq(image, found);
+		assertTrue(foundError < noisyError*0.5);
+	}
+
+	@Test
+	public void concurrent() {
+		int originalThreads = BoofConcurrency.getMaxThreads();
+		try {
+			BoofConcurrency.setMaxThreads(3);
+
+			WaveletDenoiseFilter<GrayF32> alg = FactoryImageDenoise.waveletSure(GrayF32.class,3,0,255);
+			assertFalse(alg.isConcurrent());
+
+			GrayF32 expected = new GrayF32(image.width,image.height);
+			alg.process(noisy,expected);
+
+			alg.setConcurrent(true);
+			assertTrue(alg.isConcurrent());
+			GrayF32 found = new GrayF32(image.width,image.height);
+			alg.process(noisy,found);
+
+			BoofTesting.assertEquals(expected, found, 0);
+		} finally {
+			BoofConcurrency.setMaxThreads(originalThreads);
+		}
+	}
+}
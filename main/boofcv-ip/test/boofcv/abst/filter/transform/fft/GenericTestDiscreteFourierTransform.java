@@ -21,6 +21,7 @@ package boofcv.abst.filter.transform.fft;
 import boofcv.abst.transform.fft.DiscreteFourierTransform;
 import boofcv.alg.misc.GImageMiscOps;
 import boofcv.alg.misc.GImageStatistics;
+import boofcv.concurrency.BoofConcurrency;
 import boofcv.core.image.GeneralizedImageOps;
 import boofcv.struct.image.ImageGray;
 import boofcv.struct.image.ImageInterleaved;
@@ -271,6 +272,48 @@ public abstract class GenericTestDiscreteFourierTransform<T extends ImageGray<T>
 		BoofTesting.assertEquals(found,foundM,tolerance);
 	}
 
+	/**
+	 * Processing with multiple threads should produce identical results
+	 */
+	@Test
+	public void checkSameResultsConcurrent() {
+		int originalThreads = BoofConcurrency.getMaxThreads();
+		try {
+			BoofConcurrency.setMaxThreads(3);
+			checkSameResultsConcurrent(9, 7);
+			checkSameResultsConcurrent(64, 64);
+			checkSameResultsConcurrent(71, 97);
+		} finally {
+			BoofConcurrency.setMaxThreads(originalThreads);
+		}
+	}
+
+	protected void checkSameResultsConcurrent( int width , int height ) {
+		T input = createImage(width,height);
+		I transform = createTransform(width,height);
+		T found = createImage(width,height);
+
+		GImageMiscOps.fillUniform(input,rand,-20,20);
+
+		DiscreteFourierTransform<T,I> alg = createAlgorithm();
+		assertFalse(alg.isConcurrent());
+
+		alg.forward(input,transform);
+		alg.inverse(transform, found);
+
+		I transformC = createTransform(width,height);
+		T foundC = createImage(width,height);
+
+		alg.setConcurrent(true);
+		assertTrue(alg.isConcurrent());
+
+		alg.forward(input,transformC);
+		alg.inverse(transformC, foundC);
+
+		BoofTesting.assertEquals(transform,transformC,0);
+		BoofTesting.assertEquals(found,foundC,0);
+	}
+
 	/**
 	 * Makes sure it only accepts images which are the correct size
 	 */
@@ -19,8 +19,12 @@
 package boofcv.alg.color;
 
 import boofcv.alg.misc.GImageMiscOps;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.core.image.ConvertImage;
 import boofcv.struct.image.GrayF32;
+import boofcv.struct.image.InterleavedF32;
 import boofcv.struct.image.Planar;
+import boofcv.testing.BoofTesting;
 import org.junit.Test;
 
 import java.util.Random;
@@ -143,4 +147,45 @@ public class TestColorHsv {
 		assertEquals(b,found[1],tol);
 		assertEquals(c,found[2],tol);
 	}
+
+	@Test
+	public void concurrent() {
+		int originalThreads = BoofConcurrency.getMaxThreads();
+		try {
+			BoofConcurrency.setMaxThreads(3);
+
+			Planar<GrayF32> rgb = new Planar<>(GrayF32.class,30,35,3);
+			GImageMiscOps.fillUniform(rgb, rand, 0, 255);
+
+			Planar<GrayF32> expected = new Planar<>(GrayF32.class,30,35,3);
+			Planar<GrayF32> found = new Planar<>(GrayF32.class,30,35,3);
+
+			ColorHsv.rgbToHsv_F32(rgb, expected, false);
+			ColorHsv.rgbToHsv_F32(rgb, found, true);
+			BoofTesting.assertEquals(expected, found, 0);
+
+			ColorHsv.hsvToRgb_F32(expected, rgb, false);
+			ColorHsv.hsvToRgb_F32(expected, found, true);
+			BoofTesting.assertEquals(rgb, found, 0);
+		} finally {
+			BoofConcurrency.setMaxThreads(originalThreads);
+		}
+	}
+
+	@Test
+	public void interleaved_F32() {
+		InterleavedF32 rgb = new InterleavedF32(30,35,3);
+		GImageMiscOps.fillUniform(rgb, rand, 0, 255);
+		Planar<GrayF32> rgbPlanar = ConvertImage.convert(rgb,(Planar<GrayF32>)null);
+
+		Planar<GrayF32> expected = new Planar<>(GrayF32.class,30,35,3);
+		Planar<GrayF32> found = new Planar<>(GrayF32.class,30,35,3);
+
+		ColorHsv.rgbToHsv_F32(rgbPlanar, expected);
+		ColorHsv.rgbToHsv_F32(rgb, found);
+		BoofTesting.assertEquals(expected, found, 0);
+
+		ColorHsv.rgbToHsv_F32(rgb, found, true);
+		BoofTesting.assertEquals(expected, found, 0);
+	}
 }
@@ -19,9 +19,14 @@
 package boofcv.alg.color;
 
 import boofcv.alg.misc.GImageMiscOps;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.core.image.ConvertImage;
 import boofcv.struct.image.GrayF32;
 import boofcv.struct.image.GrayU8;
+import boofcv.struct.image.InterleavedF32;
+import boofcv.struct.image.InterleavedU8;
 import boofcv.struct.image.Planar;
+import boofcv.testing.BoofTesting;
 import org.junit.Test;
 
 import java.util.Random;
@@ -187,4 +192,63 @@ public class TestColorXyz {
 		}
 	}
 
+	@Test
+	public void concurrent() {
+		int originalThreads = BoofConcurrency.getMaxThreads();
+		try {
+			BoofConcurrency.setMaxThreads(3);
+
+			Planar<GrayU8> rgb_U8 = new Planar<>(GrayU8.class,30,35,3);
+			Planar<GrayF32> rgb_F32 = new Planar<>(GrayF32.class,30,35,3);
+			GImageMiscOps.fillUniform(rgb_U8, rand, 0, 255);
+			GImageMiscOps.fillUniform(rgb_F32, rand, 0, 255);
+
+			Planar<GrayF32> expected = new Planar<>(GrayF32.class,30,35,3);
+			Planar<GrayF32> found = new Planar<>(GrayF32.class,30,35,3);
+
+			ColorXyz.rgbToXyz_U8(rgb_U8, expected, false);
+			ColorXyz.rgbToXyz_U8(rgb_U8, found, true);
+			BoofTesting.assertEquals(expected, found, 0);
+
+			ColorXyz.rgbToXyz_F32(rgb_F32, expected, false);
+			ColorXyz.rgbToXyz_F32(rgb_F32, found, true);
+			BoofTesting.assertEquals(expected, found, 0);
+		} finally {
+			BoofConcurrency.setMaxThreads(originalThreads);
+		}
+	}
+
+	@Test
+	public void interleaved_U8() {
+		InterleavedU8 rgb = new InterleavedU8(30,35,3);
+		GImageMiscOps.fillUniform(rgb, rand, 0, 255);
+		Planar<GrayU8> rgbPlanar = ConvertImage.convert(rgb,(Planar<GrayU8>)null);
+
+		Planar<GrayF32> expected = new Planar<>(GrayF32.class,30,35,3);
+		Planar<GrayF32> found = new Planar<>(GrayF32.class,30,35,3);
+
+		ColorXyz.rgbToXyz_U8(rgbPlanar, expected);
+		ColorXyz.rgbToXyz_U8(rgb, found);
+		BoofTesting.assertEquals(expected, found, 0);
+
+		ColorXyz.rgbToXyz_U8(rgb, found, true);
+		BoofTesting.assertEquals(expected, found, 0);
+	}
+
+	@Test
+	public void interleaved_F32() {
+		InterleavedF32 rgb = new InterleavedF32(30,35,3);
+		GImageMiscOps.fillUniform(rgb, rand, 0, 255);
+		Planar<GrayF32> rgbPlanar = ConvertImage.convert(rgb,(Planar<GrayF32>)null);
+
+		Planar<GrayF32> expected = new Planar<>(GrayF32.class,30,35,3);
+		Planar<GrayF32> found = new Planar<>(GrayF32.class,30,35,3);
+
+		ColorXyz.rgbToXyz_F32(rgbPlanar, expected);
+		ColorXyz.rgbToXyz_F32(rgb, found);
+		BoofTesting.assertEquals(expected, found, 0);
+
+		ColorXyz.rgbToXyz_F32(rgb, found, true);
+		BoofTesting.assertEquals(expected, found, 0);
+	}
 }
@@ -19,9 +19,13 @@
 package boofcv.alg.color;
 
 import boofcv.alg.misc.GImageMiscOps;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.core.image.ConvertImage;
 import boofcv.struct.image.GrayF32;
 import boofcv.struct.image.GrayU8;
+import boofcv.struct.image.InterleavedF32;
 import boofcv.struct.image.Planar;
+import boofcv.testing.BoofTesting;
 import org.junit.Test;
 
 import java.util.Random;
@@ -174,4 +178,54 @@ public class TestColorYuv {
 		assertEquals(b,found[1],tol);
 		assertEquals(c, found[2], tol);
 	}
+
+	@Test
+	public void concurrent() {
+		int originalThreads = BoofConcurrency.getMaxThreads();
+		try {
+			BoofConcurrency.setMaxThreads(3);
+
+			Planar<GrayF32> rgb = new Planar<>(GrayF32.class,30,35,3);
+			GImageMiscOps.fillUniform(rgb, rand, 0, 255);
+
+			Planar<GrayF32> expected = new Planar<>(GrayF32.class,30,35,3);
+			Planar<GrayF32> found = new Planar<>(GrayF32.class,30,35,3);
+
+			ColorYuv.rgbToYuv_F32(rgb, expected, false);
+			ColorYuv.rgbToYuv_F32(rgb, found, true);
+			BoofTesting.assertEquals(expected, found, 0);
+
+			ColorYuv.yuvToRgb_F32(expected, rgb, false);
+			ColorYuv.yuvToRgb_F32(expected, found, true);
+			BoofTesting.assertEquals(rgb, found, 0);
+
+			Planar<GrayU8> yuv_U8 = new Planar<>(GrayU8.class,30,35,3);
+			GImageMiscOps.fillUniform(yuv_U8, rand, 0, 255);
+			Planar<GrayU8> expected_U8 = new Planar<>(GrayU8.class,30,35,3);
+			Planar<GrayU8> found_U8 = new Planar<>(GrayU8.class,30,35,3);
+
+			ColorYuv.ycbcrToRgb_U8(yuv_U8, expected_U8, false);
+			ColorYuv.ycbcrToRgb_U8(yuv_U8, found_U8, true);
+			BoofTesting.assertEquals(expected_U8, found_U8, 0);
+		} finally {
+			BoofConcurrency.setMaxThreads(originalThreads);
+		}
+	}
+
+	@Test
+	public void interleaved_F32() {
+		InterleavedF32 rgb = new InterleavedF32(30,35,3);
+		GImageMiscOps.fillUniform(rgb, rand, 0, 255);
+		Planar<GrayF32> rgbPlanar = ConvertImage.convert(rgb,(Planar<GrayF32>)null);
+
+		Planar<GrayF32> expected = new Planar<>(GrayF32.class,30,35,3);
+		Planar<GrayF32> found = new Planar<>(GrayF32.class,30,35,3);
+
+		ColorYuv.rgbToYuv_F32(rgbPlanar, expected);
+		ColorYuv.rgbToYuv_F32(rgb, found);
+		BoofTesting.assertEquals(expected, found, 0);
+
+		ColorYuv.rgbToYuv_F32(rgb, found, true);
+		BoofTesting.assertEquals(expected, found, 0);
+	}
 }
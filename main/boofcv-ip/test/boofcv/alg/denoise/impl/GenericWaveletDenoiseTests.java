@@ -19,11 +19,21 @@
 package boofcv.alg.denoise.impl;
 
 import boofcv.abst.transform.wavelet.WaveletTransform;
+import boofcv.alg.denoise.DenoiseWavelet;
 import boofcv.alg.denoise.GenericDenoiseTests;
+import boofcv.alg.misc.GImageMiscOps;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.core.image.GeneralizedImageOps;
 import boofcv.factory.transform.wavelet.FactoryWaveletTransform;
 import boofcv.struct.image.ImageGray;
 import boofcv.struct.wavelet.WaveletDescription;
 import boofcv.testing.BoofTesting;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 
 /**
@@ -44,7 +54,11 @@ public abstract class GenericWaveletDenoiseTests<T extends ImageGray<T>> extends
 		transform = FactoryWaveletTransform.create(imageType,waveletDesc,numLevels,0,255);
 	}
 
-	public abstract void denoiseWavelet(ImageGray transformedImg , int numLevels );
+	public abstract DenoiseWavelet createDenoiser();
+
+	public void denoiseWavelet(ImageGray transformedImg , int numLevels ) {
+		createDenoiser().denoise(transformedImg,numLevels);
+	}
 
 	@Override
 	public void denoiseImage(T imageNoisy, T imageDenoised) {
@@ -61,4 +75,33 @@ public abstract class GenericWaveletDenoiseTests<T extends ImageGray<T>> extends
 
 		transform.invert(transformedImg,imageDenoised);
 	}
+
+	/**
+	 * Denoising with multiple threads should produce identical results
+	 */
+	@Test
+	public void concurrent() {
+		int originalThreads = BoofConcurrency.getMaxThreads();
+		try {
+			BoofConcurrency.setMaxThreads(3);
+
+			ImageGray noisy = GeneralizedImageOps.createSingleBand(transform.getOriginalType(), 120, 95);
+			GImageMiscOps.fillUniform(noisy, new Random(234), 0, 255);
+
+			ImageGray expected = transform.transform(noisy,null);
+			ImageGray found = (ImageGray)expected.clone();
+
+			DenoiseWavelet alg = createDenoiser();
+			assertFalse(alg.isConcurrent());
+			alg.denoise(expected,transform.getLevels());
+
+			alg.setConcurrent(true);
+			assertTrue(alg.isConcurrent());
+			alg.denoise(found,transform.getLevels());
+
+			BoofTesting.assertEquals(expected, found, 0);
+		} finally {
+			BoofConcurrency.setMaxThreads(originalThreads);
+		}
+	}
 }
@@ -18,11 +18,11 @@
 
 package boofcv.alg.denoise.impl;
 
+import boofcv.alg.denoise.DenoiseWavelet;
 import boofcv.alg.denoise.wavelet.DenoiseBayesShrink_F32;
 import boofcv.alg.denoise.wavelet.ShrinkThresholdSoft_F32;
 import boofcv.factory.transform.wavelet.FactoryWaveletDaub;
 import boofcv.struct.image.GrayF32;
-import boofcv.struct.image.ImageGray;
 import org.junit.Test;
 
 
@@ -41,8 +41,7 @@ public class TestDenoiseBayesShrink_F32 extends GenericWaveletDenoiseTests<GrayF
 	}
 
 	@Override
-	public void denoiseWavelet(ImageGray transformedImg, int numLevels ) {
-		DenoiseBayesShrink_F32 alg = new DenoiseBayesShrink_F32(new ShrinkThresholdSoft_F32());
-		alg.denoise((GrayF32)transformedImg,numLevels);
+	public DenoiseWavelet createDenoiser() {
+		return new DenoiseBayesShrink_F32(new ShrinkThresholdSoft_F32());
 	}
 }
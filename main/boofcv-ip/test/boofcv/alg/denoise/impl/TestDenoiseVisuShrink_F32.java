@@ -18,10 +18,10 @@
 
 package boofcv.alg.denoise.impl;
 
+import boofcv.alg.denoise.DenoiseWavelet;
 import boofcv.alg.denoise.wavelet.DenoiseVisuShrink_F32;
 import boofcv.factory.transform.wavelet.FactoryWaveletDaub;
 import boofcv.struct.image.GrayF32;
-import boofcv.struct.image.ImageGray;
 import org.junit.Test;
 
 
@@ -40,8 +40,7 @@ public class TestDenoiseVisuShrink_F32 extends GenericWaveletDenoiseTests<GrayF3
 	}
 
 	@Override
-	public void denoiseWavelet(ImageGray transformedImg, int numLevels ) {
-		DenoiseVisuShrink_F32 alg = new DenoiseVisuShrink_F32();
-		alg.denoise((GrayF32)transformedImg,numLevels);
+	public DenoiseWavelet createDenoiser() {
+		return new DenoiseVisuShrink_F32();
 	}
 }
@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.denoise.spatial;
+
+import boofcv.alg.denoise.GenericDenoiseTests;
+import boofcv.alg.misc.ImageMiscOps;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.struct.image.GrayF32;
+import boofcv.testing.BoofTesting;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * @author Peter Abeles
+ */
+public class TestDenoiseBilateral_F32 extends GenericDenoiseTests<GrayF32> {
+
+	Random rand = new Random(234);
+
+	public TestDenoiseBilateral_F32() {
+		super(GrayF32.class, 10);
+	}
+
+	@Override
+	public void denoiseImage(GrayF32 imageNoisy, GrayF32 imageDenoised) {
+		new DenoiseBilateral_F32(2,-1,20).process(imageNoisy,imageDenoised);
+	}
+
+	@Test
+	public void reduceNoise() {
+		performTest();
+	}
+
+	/**
+	 * Compare against a brute force implementation which computes the weights directly
+	 */
+	@Test
+	public void compareToNaive() {
+		GrayF32 input = new GrayF32(25,20);
+		ImageMiscOps.fillUniform(input, rand, 0, 100);
+
+		GrayF32 expected = input.createSameShape();
+		GrayF32 found = input.createSameShape();
+
+		naive(input, 3, 1.5f, 30, expected);
+		DenoiseBilateral_F32 alg = new DenoiseBilateral_F32(3,1.5f,30);
+		alg.process(input, found);
+
+		// the range weights are approximated with a table
+		BoofTesting.assertEquals(expected, found, 0.5);
+
+		// sub-images should produce the same results
+		GrayF32 subInput = BoofTesting.createSubImageOf(input);
+		GrayF32 subFound = BoofTesting.createSubImageOf(found);
+		alg.process(subInput, subFound);
+		BoofTesting.assertEquals(expected, subFound, 0.5);
+	}
+
+	/**
+	 * Pixels on the other side of a sharp edge should have almost no influence
+	 */
+	@Test
+	public void preserveEdges() {
+		GrayF32 input = new GrayF32(20,10);
+		ImageMiscOps.fillRectangle(input, 200, 10, 0, 10, 10);
+		GrayF32 found = input.createSameShape();
+
+		new DenoiseBilateral_F32(3,2,10).process(input, found);
+
+		BoofTesting.assertEquals(input, found, 1e-4);
+	}
+
+	/**
+	 * Results with multiple threads should be identical to the single threaded results
+	 */
+	@Test
+	public void concurrent() {
+		int originalThreads = BoofConcurrency.getMaxThreads();
+		try {
+			BoofConcurrency.setMaxThreads(3);
+
+			GrayF32 input = new GrayF32(40,31);
+			ImageMiscOps.fillUniform(input, rand, 0, 100);
+
+			GrayF32 expected = input.createSameShape();
+			GrayF32 found = input.createSameShape();
+
+			DenoiseBilateral_F32 alg = new DenoiseBilateral_F32(2,-1,25);
+			alg.process(input, expected);
+			alg.setConcurrent(true);
+			assertTrue(alg.isConcurrent());
+			alg.process(input, found);
+
+			BoofTesting.assertEquals(expected, found, 0);
+		} finally {
+			BoofConcurrency.setMaxThreads(originalThreads);
+		}
+	}
+
+	@Test
+	public void defaultSigmaSpatial() {
+		DenoiseBilateral_F32 alg = new DenoiseBilateral_F32(4,-1,25);
+		assertEquals(2, alg.getSigmaSpatial(), 1e-6);
+	}
+
+	private static void naive( GrayF32 input , int radius , float sigmaSpatial , float sigmaRange , GrayF32 output ) {
+		for (int y = 0; y < input.height; y++) {
+			for (int x = 0; x < input.width; x++) {
+				double center = input.get(x,y);
+				double sumWeights = 0;
+				double sum = 0;
+				for (int i = -radius; i <= radius; i++) {
+					for (int j = -radius; j <= radius; j++) {
+						double value = get(input,x+j,y+i);
+						double d = value - center;
+						double w = Math.exp(-(i*i + j*j)/(2.0*sigmaSpatial*sigmaSpatial))*
+								Math.exp(-d*d/(2.0*sigmaRange*sigmaRange));
+						sumWeights += w;
+						sum += w*value;
+					}
+				}
+				output.set(x,y,(float)(sum/sumWeights));
+			}
+		}
+	}
+
+	private static float get( GrayF32 image , int x , int y ) {
+		x = Math.min(image.width-1,Math.max(0,x));
+		y = Math.min(image.height-1,Math.max(0,y));
+		return image.get(x,y);
+	}
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.denoise.spatial;
+
+import boofcv.alg.denoise.GenericDenoiseTests;
+import boofcv.alg.misc.ImageMiscOps;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.struct.image.GrayF32;
+import boofcv.testing.BoofTesting;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * @author Peter Abeles
+ */
+public class TestDenoiseNonLocalMeans_F32 extends GenericDenoiseTests<GrayF32> {
+
+	Random rand = new Random(234);
+
+	public TestDenoiseNonLocalMeans_F32() {
+		super(GrayF32.class, 10);
+	}
+
+	@Override
+	public void denoiseImage(GrayF32 imageNoisy, GrayF32 imageDenoised) {
+		new DenoiseNonLocalMeans_F32(1,4,10).process(imageNoisy,imageDenoised);
+	}
+
+	@Test
+	public void reduceNoise() {
+		performTest();
+	}
+
+	/**
+	 * Compare against a brute force implementation which explicitly compares every patch
+	 */
+	@Test
+	public void compareToNaive() {
+		GrayF32 input = new GrayF32(25,20);
+		ImageMiscOps.fillUniform(input, rand, 0, 100);
+
+		GrayF32 expected = input.createSameShape();
+		GrayF32 found = input.createSameShape();
+
+		naive(input, 2, 3, 20, expected);
+		DenoiseNonLocalMeans_F32 alg = new DenoiseNonLocalMeans_F32(2,3,20);
+		alg.process(input, found);
+
+		// the weights are approximated with a table
+		BoofTesting.assertEquals(expected, found, 0.05);
+
+		// sub-images should produce the same results
+		GrayF32 subInput = BoofTesting.createSubImageOf(input);
+		GrayF32 subFound = BoofTesting.createSubImageOf(found);
+		alg.process(subInput, subFound);
+		BoofTesting.assertEquals(expected, subFound, 0.05);
+	}
+
+	/**
+	 * Results with multiple threads should be identical to the single threaded results
+	 */
+	@Test
+	public void concurrent() {
+		int originalThreads = BoofConcurrency.getMaxThreads();
+		try {
+			BoofConcurrency.setMaxThreads(3);
+
+			GrayF32 input = new GrayF32(40,31);
+			ImageMiscOps.fillUniform(input, rand, 0, 100);
+
+			GrayF32 expected = input.createSameShape();
+			GrayF32 found = input.createSameShape();
+
+			DenoiseNonLocalMeans_F32 alg = new DenoiseNonLocalMeans_F32(2,5,15);
+			alg.process(input, expected);
+			alg.setConcurrent(true);
+			assertTrue(alg.isConcurrent());
+			alg.process(input, found);
+
+			BoofTesting.assertEquals(expected, found, 0);
+		} finally {
+			BoofConcurrency.setMaxThreads(originalThreads);
+		}
+	}
+
+	/**
+	 * A constant image should not be changed
+	 */
+	@Test
+	public void constantImage() {
+		GrayF32 input = new GrayF32(15,12);
+		ImageMiscOps.fill(input, 40);
+		GrayF32 found = input.createSameShape();
+
+		new DenoiseNonLocalMeans_F32(1,3,10).process(input, found);
+
+		for (int y = 0; y < input.height; y++) {
+			for (int x = 0; x < input.width; x++) {
+				assertEquals(40, found.get(x, y), 1e-4);
+			}
+		}
+	}
+
+	private static void naive( GrayF32 input , int patchRadius , int searchRadius , float h , GrayF32 output ) {
+		int patchWidth = 2*patchRadius+1;
+		for (int y = 0; y < input.height; y++) {
+			for (int x = 0; x < input.width; x++) {
+				double sumWeights = 0;
+				double sum = 0;
+				for (int dy = -searchRadius; dy <= searchRadius; dy++) {
+					for (int dx = -searchRadius; dx <= searchRadius; dx++) {
+						double distance = 0;
+						for (int i = -patchRadius; i <= patchRadius; i++) {
+							for (int j = -patchRadius; j <= patchRadius; j++) {
+								double d = get(input,x+j,y+i) - get(input,x+dx+j,y+dy+i);
+								distance += d*d;
+							}
+						}
+						double w = Math.exp(-distance/(patchWidth*patchWidth*h*h));
+						sumWeights += w;
+						sum += w*get(input,x+dx,y+dy);
+					}
+				}
+				output.set(x,y,(float)(sum/sumWeights));
+			}
+		}
+	}
+
+	private static float get( GrayF32 image , int x , int y ) {
+		x = Math.min(image.width-1,Math.max(0,x));
+		y = Math.min(image.height-1,Math.max(0,y));
+		return image.get(x,y);
+	}
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.denoise.spatial;
+
+import boofcv.alg.misc.ImageMiscOps;
+import boofcv.struct.image.GrayF32;
+import boofcv.testing.BoofTesting;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+
+/**
+ * @author Peter Abeles
+ */
+public class TestUtilDenoiseSpatial {
+
+	Random rand = new Random(234);
+
+	@Test
+	public void extendBorder() {
+		GrayF32 input = new GrayF32(15,12);
+		ImageMiscOps.fillUniform(input, rand, 0, 100);
+
+		BoofTesting.checkSubImage(this, "extendBorder", true, input);
+	}
+
+	public void extendBorder( GrayF32 input ) {
+		int radius = 3;
+		GrayF32 found = new GrayF32(1,1);
+		UtilDenoiseSpatial.extendBorder(input, radius, found);
+
+		assertEquals(input.width + 2*radius, found.width);
+		assertEquals(input.height + 2*radius, found.height);
+
+		for (int y = 0; y < found.height; y++) {
+			for (int x = 0; x < found.width; x++) {
+				int inputX = Math.min(input.width-1,Math.max(0,x-radius));
+				int inputY = Math.min(input.height-1,Math.max(0,y-radius));
+				assertEquals(input.get(inputX,inputY), found.get(x,y), 0);
+			}
+		}
+	}
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.distort;
+
+import boofcv.alg.interpolate.InterpolatePixelMB;
+import boofcv.alg.misc.GImageMiscOps;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.core.image.border.BorderType;
+import boofcv.factory.distort.FactoryDistort;
+import boofcv.factory.interpolate.FactoryInterpolation;
+import boofcv.struct.image.ImageInterleaved;
+import boofcv.struct.image.ImageType;
+import boofcv.struct.image.InterleavedF32;
+import boofcv.struct.image.InterleavedU8;
+import boofcv.testing.BoofTesting;
+import georegression.struct.affine.Affine2D_F32;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestImageDistortCache_IL {
+
+	Random rand = new Random(234);
+
+	PixelTransformAffine_F32 tran = new PixelTransformAffine_F32(new Affine2D_F32(1.1f,0.05f,-0.1f,0.95f,-4,6));
+
+	@Test
+	public void compareToNoCache() {
+		compareToNoCache(ImageType.il(3, InterleavedF32.class));
+		compareToNoCache(ImageType.il(3, InterleavedU8.class));
+	}
+
+	@Test
+	public void compareToNoCache_concurrent() {
+		int original = BoofConcurrency.getMaxThreads();
+		try {
+			BoofConcurrency.setMaxThreads(3);
+			compareToNoCache(ImageType.il(3, InterleavedF32.class));
+			compareToNoCache(ImageType.il(3, InterleavedU8.class));
+		} finally {
+			BoofConcurrency.setMaxThreads(original);
+		}
+	}
+
+	private <T extends ImageInterleaved<T>> void compareToNoCache( ImageType<T> type ) {
+		T src = type.createImage(60,50);
+		T dst0 = type.createImage(60,50);
+		T dst1 = type.createImage(60,50);
+		GImageMiscOps.fillUniform(src, rand, 0, 200);
+
+		InterpolatePixelMB<T> interp = FactoryInterpolation.bilinearPixelMB(type, BorderType.EXTENDED);
+
+		for( boolean renderAll : new boolean[]{true,false}) {
+			ImageDistort<T,T> standard = FactoryDistort.distortIL(false, interp, type);
+			ImageDistortCache_IL<T,T> alg = (ImageDistortCache_IL<T,T>)FactoryDistort.distortIL(true, interp, type);
+			alg.setConcurrent(BoofConcurrency.getMaxThreads() > 1);
+
+			standard.setRenderAll(renderAll);
+			alg.setRenderAll(renderAll);
+			standard.setModel(tran);
+			alg.setModel(tran);
+
+			GImageMiscOps.fill(dst0, 0);
+			GImageMiscOps.fill(dst1, 0);
+			standard.apply(src, dst0);
+			alg.apply(src, dst1);
+			BoofTesting.assertEquals(dst0, dst1, 1e-4);
+
+			// apply it again to make sure the cache is used correctly
+			standard.apply(src, dst0, 10, 5, 40, 30);
+			alg.apply(src, dst1, 10, 5, 40, 30);
+			BoofTesting.assertEquals(dst0, dst1, 1e-4);
+
+			// sub-image output
+			T sub = BoofTesting.createSubImageOf(dst1);
+			alg.apply(src, sub);
+			standard.apply(src, dst0);
+			BoofTesting.assertEquals(dst0, sub, 1e-4);
+		}
+	}
+
+	@Test
+	public void setTable() {
+		ImageType<InterleavedF32> type = ImageType.il(2, InterleavedF32.class);
+		InterleavedF32 src = type.createImage(40,30);
+		InterleavedF32 dst0 = type.createImage(40,30);
+		InterleavedF32 dst1 = type.createImage(40,30);
+		GImageMiscOps.fillUniform(src, rand, 0, 200);
+
+		InterpolatePixelMB<InterleavedF32> interp = FactoryInterpolation.bilinearPixelMB(type, BorderType.EXTENDED);
+
+		ImageDistortCache_IL<InterleavedF32,InterleavedF32> algA =
+				(ImageDistortCache_IL)FactoryDistort.distortIL(true, interp, type);
+		ImageDistortCache_IL<InterleavedF32,InterleavedF32> algB =
+				(ImageDistortCache_IL)FactoryDistort.distortIL(true, interp, type);
+
+		algA.setModel(tran);
+		algA.apply(src,dst0);
+		algB.setTable(algA.getTable());
+		algB.apply(src,dst1);
+
+		BoofTesting.assertEquals(dst0, dst1, 1e-4);
+	}
+}
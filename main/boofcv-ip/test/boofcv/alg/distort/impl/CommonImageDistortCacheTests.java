@@ -23,6 +23,7 @@ import boofcv.alg.distort.ImageDistortCache_SB;
 import boofcv.alg.distort.PixelTransformAffine_F32;
 import boofcv.alg.interpolate.InterpolatePixelS;
 import boofcv.alg.misc.GImageMiscOps;
+import boofcv.concurrency.BoofConcurrency;
 import boofcv.core.image.GeneralizedImageOps;
 import boofcv.core.image.border.BorderType;
 import boofcv.core.image.border.FactoryImageBorder;
@@ -35,6 +36,8 @@ import org.junit.Test;
 
 import java.util.Random;
 
+import static org.junit.Assert.assertTrue;
+
 /**
  * @author Peter Abeles
  */
@@ -95,6 +98,79 @@ public abstract class CommonImageDistortCacheTests<T extends ImageGray<T>> {
 		BoofTesting.assertEquals(dst0, dst1, 1e-4);
 	}
 	
+	/**
+	 * Output image is a sub-image
+	 */
+	@Test
+	public void compareSubImage() {
+		ImageDistort<T,T> standard = FactoryDistort.distortSB(false, interp, imageType);
+		ImageDistortCache_SB<T,T> alg = create(interp,imageType);
+
+		standard.setModel(tran);
+		alg.setModel(tran);
+
+		T sub1 = BoofTesting.createSubImageOf(dst1);
+		standard.apply(src,dst0);
+		alg.apply(src,sub1);
+
+		BoofTesting.assertEquals(dst0, sub1, 1e-4);
+	}
+
+	@Test
+	public void compareConcurrent() {
+		int original = BoofConcurrency.getMaxThreads();
+		try {
+			BoofConcurrency.setMaxThreads(3);
+			for( boolean renderAll : new boolean[]{true,false}) {
+				ImageDistort<T,T> standard = FactoryDistort.distortSB(false, interp, imageType);
+				ImageDistortCache_SB<T,T> alg = create(interp,imageType);
+				alg.setConcurrent(true);
+
+				standard.setRenderAll(renderAll);
+				alg.setRenderAll(renderAll);
+				standard.setModel(tran);
+				alg.setModel(tran);
+
+				GImageMiscOps.fill(dst0, 0);
+				GImageMiscOps.fill(dst1, 0);
+				standard.apply(src, dst0, 10, 30, 80, 60);
+				alg.apply(src, dst1, 10, 30, 80, 60);
+				BoofTesting.assertEquals(dst0, dst1, 1e-4);
+
+				standard.apply(src, dst0);
+				alg.apply(src, dst1);
+				BoofTesting.assertEquals(dst0, dst1, 1e-4);
+			}
+		} finally {
+			BoofConcurrency.setMaxThreads(original);
+		}
+	}
+
+	/**
+	 * Table from one instance is used by another
+	 */
+	@Test
+	public void setTable() {
+		ImageDistortCache_SB<T,T> algA = create(interp,imageType);
+		ImageDistortCache_SB<T,T> algB = create(interp,imageType);
+
+		algA.setModel(tran);
+		algA.apply(src,dst0);
+
+		algB.setTable(algA.getTable());
+		algB.apply(src,dst1);
+
+		assertTrue(algA.getTable() == algB.getTable());
+		BoofTesting.assertEquals(dst0, dst1, 1e-4);
+
+		// changing the model should not modify the shared table
+		algB.setModel(new PixelTransformAffine_F32(new Affine2D_F32(2,0,0,2,1,1)));
+		algB.apply(src,dst1);
+		assertTrue(algA.getTable() != algB.getTable());
+		algA.apply(src,dst1);
+		BoofTesting.assertEquals(dst0, dst1, 1e-4);
+	}
+
 	public abstract ImageDistortCache_SB<T,T>
 	create(InterpolatePixelS<T> interp, Class<T> imageType );
 }
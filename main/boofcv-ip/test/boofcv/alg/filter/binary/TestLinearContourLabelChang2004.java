@@ -18,17 +18,21 @@
 
 package boofcv.alg.filter.binary;
 
+import boofcv.alg.misc.ImageMiscOps;
+import boofcv.concurrency.BoofConcurrency;
 import boofcv.core.image.border.FactoryImageBorder;
 import boofcv.core.image.border.ImageBorder;
 import boofcv.struct.ConnectRule;
 import boofcv.struct.image.GrayS32;
 import boofcv.struct.image.GrayU8;
+import boofcv.testing.BoofTesting;
 import georegression.struct.point.Point2D_I32;
 import org.ddogleg.struct.FastQueue;
 import org.junit.Test;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
@@ -192,6 +196,119 @@ public class TestLinearContourLabelChang2004 {
 		assertEquals(4, c.internal.get(0).size());
 	}
 
+	/**
+	 * Internal contours are still traced but not saved
+	 */
+	@Test
+	public void saveInternalContours() {
+		GrayU8 input = new GrayU8(5,7);
+		input.data = TEST3;
+
+		GrayS32 expected = new GrayS32(input.width,input.height);
+		LinearContourLabelChang2004 alg = new LinearContourLabelChang2004(ConnectRule.EIGHT);
+		alg.process(input,expected);
+
+		GrayS32 labeled = new GrayS32(input.width,input.height);
+		alg.setSaveInternalContours(false);
+		alg.process(input,labeled);
+
+		BoofTesting.assertEquals(expected, labeled, 0);
+		Contour c = alg.getContours().get(0);
+		assertEquals(10, c.external.size());
+		assertEquals(0,c.internal.size());
+	}
+
+	/**
+	 * Contours which are too long should be discarded
+	 */
+	@Test
+	public void maxContourSize() {
+		GrayU8 input = new GrayU8(5,7);
+		input.data = TEST3;
+
+		GrayS32 labeled = new GrayS32(input.width,input.height);
+		LinearContourLabelChang2004 alg = new LinearContourLabelChang2004(ConnectRule.EIGHT);
+		alg.setMaxContourSize(4);
+		alg.process(input,labeled);
+
+		assertEquals(1,alg.getContours().size);
+		Contour c = alg.getContours().get(0);
+		assertEquals(0, c.external.size());
+		assertEquals(1,c.internal.size());
+		assertEquals(4, c.internal.get(0).size());
+
+		alg.setMaxContourSize(3);
+		alg.process(input,labeled);
+		c = alg.getContours().get(0);
+		assertEquals(0, c.external.size());
+		assertEquals(0,c.internal.size());
+	}
+
+	/**
+	 * Compare concurrent to single threaded results on random images with many blobs crossing between strips
+	 */
+	@Test
+	public void concurrent_compareToSerial() {
+		Random rand = new Random(234);
+
+		int original = BoofConcurrency.getMaxThreads();
+		try {
+			BoofConcurrency.setMaxThreads(3);
+
+			for( ConnectRule rule : new ConnectRule[]{ConnectRule.FOUR, ConnectRule.EIGHT}) {
+				for (int trial = 0; trial < 20; trial++) {
+					GrayU8 input = new GrayU8(40+rand.nextInt(20), 30+rand.nextInt(40));
+					if( trial%2 == 0 ) {
+						ImageMiscOps.fillUniform(input, rand, 0, 2);
+					} else {
+						for (int i = 0; i < 15; i++) {
+							int x0 = rand.nextInt(input.width-5), y0 = rand.nextInt(input.height-5);
+							int w = 2+rand.nextInt(20), h = 2+rand.nextInt(30);
+							ImageMiscOps.fillRectangle(input, (i%3) == 2 ? 0 : 1, x0, y0, w, h);
+						}
+					}
+
+					LinearContourLabelChang2004 single = new LinearContourLabelChang2004(rule);
+					LinearContourLabelChang2004 multi = new LinearContourLabelChang2004(rule);
+					multi.setConcurrent(true);
+					multi.setMinimumStripHeight(1+trial%4);
+
+					GrayS32 expected = new GrayS32(input.width, input.height);
+					GrayS32 found = new GrayS32(input.width, input.height);
+					single.process(input, expected);
+					multi.process(input, found);
+
+					BoofTesting.assertEquals(expected, found, 0);
+					compare(single.getContours(), multi.getContours());
+				}
+			}
+		} finally {
+			BoofConcurrency.setMaxThreads(original);
+		}
+	}
+
+	private void compare( FastQueue<Contour> expected , FastQueue<Contour> found ) {
+		assertEquals(expected.size, found.size);
+		for (int i = 0; i < expected.size; i++) {
+			Contour a = expected.get(i);
+			Contour b = found.get(i);
+			assertEquals(a.id, b.id);
+			compare(a.external, b.external);
+			assertEquals(a.internal.size(), b.internal.size());
+			for (int j = 0; j < a.internal.size(); j++) {
+				compare(a.internal.get(j), b.internal.get(j));
+			}
+		}
+	}
+
+	private void compare( List<Point2D_I32> expected , List<Point2D_I32> found ) {
+		assertEquals(expected.size(), found.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals(expected.get(i).x, found.get(i).x);
+			assertEquals(expected.get(i).y, found.get(i).y);
+		}
+	}
+
 	/**
 	 * Creates a list of every pixel with the specified label that is on the contour.  Removes duplicate points
 	 * in the found contour.  Sees if the two lists are equivalent.
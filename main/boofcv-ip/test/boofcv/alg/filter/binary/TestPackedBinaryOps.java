@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.filter.binary;
+
+import boofcv.alg.filter.binary.impl.ImplBinaryNaiveOps;
+import boofcv.alg.misc.ImageMiscOps;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.struct.image.GrayU8;
+import boofcv.struct.image.PackedBinaryImage;
+import boofcv.testing.BoofTesting;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestPackedBinaryOps {
+
+	Random rand = new Random(234);
+
+	// widths which test partial, exact, and multiple words in a row
+	int widths[] = new int[]{1,2,5,63,64,65,130};
+	int heights[] = new int[]{1,2,3,17};
+
+	@Test
+	public void pack_unpack() {
+		for( int width : widths ) {
+			for( int height : heights ) {
+				GrayU8 input = randomBinary(width, height);
+
+				PackedBinaryImage packed = PackedBinaryOps.pack(input, null);
+				for (int y = 0; y < height; y++) {
+					for (int x = 0; x < width; x++) {
+						assertEquals(input.get(x, y), packed.get(x, y));
+					}
+				}
+				assertEquals(0, packed.data[packed.stride-1] & ~packed.lastWordMask());
+
+				GrayU8 found = PackedBinaryOps.unpack(packed, null);
+				BoofTesting.assertEquals(input, found, 0);
+			}
+		}
+	}
+
+	@Test
+	public void pack_unpack_subimage() {
+		GrayU8 input = randomBinary(70, 20);
+		GrayU8 sub = BoofTesting.createSubImageOf(input);
+
+		PackedBinaryImage packed = PackedBinaryOps.pack(sub, null);
+		GrayU8 found = BoofTesting.createSubImageOf(new GrayU8(70, 20));
+		PackedBinaryOps.unpack(packed, found);
+
+		BoofTesting.assertEquals(input, found, 0);
+	}
+
+	@Test
+	public void logic() {
+		for( int width : widths ) {
+			GrayU8 inputA = randomBinary(width, 9);
+			GrayU8 inputB = randomBinary(width, 9);
+			PackedBinaryImage packedA = PackedBinaryOps.pack(inputA, null);
+			PackedBinaryImage packedB = PackedBinaryOps.pack(inputB, null);
+
+			check(BinaryImageOps.logicAnd(inputA, inputB, null), PackedBinaryOps.logicAnd(packedA, packedB, null));
+			check(BinaryImageOps.logicOr(inputA, inputB, null), PackedBinaryOps.logicOr(packedA, packedB, null));
+			check(BinaryImageOps.logicXor(inputA, inputB, null), PackedBinaryOps.logicXor(packedA, packedB, null));
+			check(BinaryImageOps.invert(inputA, null), PackedBinaryOps.invert(packedA, null));
+		}
+	}
+
+	@Test
+	public void compareToNaive() {
+		for( int width : widths ) {
+			for( int height : heights ) {
+				GrayU8 input = randomBinary(width, height);
+				PackedBinaryImage packed = PackedBinaryOps.pack(input, null);
+				GrayU8 expected = new GrayU8(width, height);
+
+				ImplBinaryNaiveOps.erode4(input, expected);
+				check(expected, PackedBinaryOps.erode4(packed, 1, null));
+				ImplBinaryNaiveOps.dilate4(input, expected);
+				check(expected, PackedBinaryOps.dilate4(packed, 1, null));
+				ImplBinaryNaiveOps.edge4(input, expected);
+				check(expected, PackedBinaryOps.edge4(packed, null));
+				ImplBinaryNaiveOps.erode8(input, expected);
+				check(expected, PackedBinaryOps.erode8(packed, 1, null));
+				ImplBinaryNaiveOps.dilate8(input, expected);
+				check(expected, PackedBinaryOps.dilate8(packed, 1, null));
+				ImplBinaryNaiveOps.edge8(input, expected);
+				check(expected, PackedBinaryOps.edge8(packed, null));
+				ImplBinaryNaiveOps.removePointNoise(input, expected);
+				check(expected, PackedBinaryOps.removePointNoise(packed, null));
+			}
+		}
+	}
+
+	/**
+	 * Images which are mostly true make sure the border is handled correctly when eroding
+	 */
+	@Test
+	public void compareToNaive_filled() {
+		for( int width : widths ) {
+			GrayU8 input = new GrayU8(width, 6);
+			ImageMiscOps.fill(input, 1);
+			input.set(width/2, 3, 0);
+			PackedBinaryImage packed = PackedBinaryOps.pack(input, null);
+			GrayU8 expected = new GrayU8(width, 6);
+
+			ImplBinaryNaiveOps.erode4(input, expected);
+			check(expected, PackedBinaryOps.erode4(packed, 1, null));
+			ImplBinaryNaiveOps.erode8(input, expected);
+			check(expected, PackedBinaryOps.erode8(packed, 1, null));
+			ImplBinaryNaiveOps.edge8(input, expected);
+			check(expected, PackedBinaryOps.edge8(packed, null));
+			ImplBinaryNaiveOps.removePointNoise(input, expected);
+			check(expected, PackedBinaryOps.removePointNoise(packed, null));
+		}
+	}
+
+	@Test
+	public void multipleTimes() {
+		GrayU8 input = randomBinary(100, 30);
+		PackedBinaryImage packed = PackedBinaryOps.pack(input, null);
+
+		GrayU8 erode4 = input.clone(), dilate4 = input.clone();
+		GrayU8 erode8 = input.clone(), dilate8 = input.clone();
+		GrayU8 work = new GrayU8(100, 30);
+
+		for (int numTimes = 1; numTimes <= 4; numTimes++) {
+			ImplBinaryNaiveOps.erode4(erode4, work); erode4.setTo(work);
+			ImplBinaryNaiveOps.dilate4(dilate4, work); dilate4.setTo(work);
+			ImplBinaryNaiveOps.erode8(erode8, work); erode8.setTo(work);
+			ImplBinaryNaiveOps.dilate8(dilate8, work); dilate8.setTo(work);
+
+			check(erode4, PackedBinaryOps.erode4(packed, numTimes, null));
+			check(dilate4, PackedBinaryOps.dilate4(packed, numTimes, null));
+			check(erode8, PackedBinaryOps.erode8(packed, numTimes, null));
+			check(dilate8, PackedBinaryOps.dilate8(packed, numTimes, null));
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void sameInputOutput() {
+		PackedBinaryImage packed = new PackedBinaryImage(20, 10);
+		PackedBinaryOps.dilate4(packed, 1, packed);
+	}
+
+	@Test
+	public void concurrent() {
+		int original = BoofConcurrency.getMaxThreads();
+		try {
+			BoofConcurrency.setMaxThreads(3);
+
+			GrayU8 input = randomBinary(150, 41);
+			PackedBinaryImage packed = PackedBinaryOps.pack(input, null, true);
+			PackedBinaryImage packedB = PackedBinaryOps.pack(randomBinary(150, 41), null, true);
+			check(input, packed);
+			BoofTesting.assertEquals(input, PackedBinaryOps.unpack(packed, null, true), 0);
+
+			check(PackedBinaryOps.logicAnd(packed, packedB, null),
+					PackedBinaryOps.logicAnd(packed, packedB, null, true));
+			check(PackedBinaryOps.logicOr(packed, packedB, null),
+					PackedBinaryOps.logicOr(packed, packedB, null, true));
+			check(PackedBinaryOps.logicXor(packed, packedB, null),
+					PackedBinaryOps.logicXor(packed, packedB, null, true));
+			check(PackedBinaryOps.invert(packed, null), PackedBinaryOps.invert(packed, null, true));
+			check(PackedBinaryOps.erode4(packed, 2, null), PackedBinaryOps.erode4(packed, 2, null, true));
+			check(PackedBinaryOps.dilate4(packed, 2, null), PackedBinaryOps.dilate4(packed, 2, null, true));
+			check(PackedBinaryOps.edge4(packed, null), PackedBinaryOps.edge4(packed, null, true));
+			check(PackedBinaryOps.erode8(packed, 2, null), PackedBinaryOps.erode8(packed, 2, null, true));
+			check(PackedBinaryOps.dilate8(packed, 2, null), PackedBinaryOps.dilate8(packed, 2, null, true));
+			check(PackedBinaryOps.edge8(packed, null), PackedBinaryOps.edge8(packed, null, true));
+			check(PackedBinaryOps.removePointNoise(packed, null),
+					PackedBinaryOps.removePointNoise(packed, null, true));
+		} finally {
+			BoofConcurrency.setMaxThreads(original);
+		}
+	}
+
+	private GrayU8 randomBinary( int width , int height ) {
+		GrayU8 image = new GrayU8(width, height);
+		ImageMiscOps.fillUniform(image, rand, 0, 2);
+		return image;
+	}
+
+	private static void check( GrayU8 expected , PackedBinaryImage found ) {
+		BoofTesting.assertEquals(expected, PackedBinaryOps.unpack(found, null), 0);
+		assertEquals(0, found.data[found.stride-1] & ~found.lastWordMask());
+	}
+
+	private static void check( PackedBinaryImage expected , PackedBinaryImage found ) {
+		assertEquals(expected.width, found.width);
+		assertEquals(expected.height, found.height);
+		for (int i = 0; i < expected.stride*expected.height; i++) {
+			assertEquals(expected.data[i], found.data[i]);
+		}
+	}
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.filter.morphology;
+
+import boofcv.alg.misc.GImageMiscOps;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.core.image.GeneralizedImageOps;
+import boofcv.struct.image.GrayF32;
+import boofcv.struct.image.GrayU16;
+import boofcv.struct.image.GrayU8;
+import boofcv.struct.image.ImageGray;
+import boofcv.testing.BoofTesting;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestGrayMorphologyOps {
+
+	Random rand = new Random(234);
+
+	Class types[] = new Class[]{GrayU8.class, GrayU16.class, GrayF32.class};
+
+	// shapes which are smaller and larger than the image
+	StructuringElement elements[] = new StructuringElement[]{
+			StructuringElement.rectangle(0, 0),
+			StructuringElement.rectangle(1, 0),
+			StructuringElement.rectangle(0, 2),
+			StructuringElement.rectangle(2, 3),
+			StructuringElement.square(7),
+			StructuringElement.rectangle(25, 40),
+			StructuringElement.disk(1),
+			StructuringElement.disk(4)};
+
+	@Test
+	public void erode_dilate() {
+		for( Class type : types ) {
+			for( StructuringElement element : elements ) {
+				// strips in the vertical pass are partially filled
+				ImageGray input = random(type, 70, 21);
+
+				BoofTesting.assertEquals(naive(input, element, false), call("erode", input, element, null, false), 0);
+				BoofTesting.assertEquals(naive(input, element, true), call("dilate", input, element, null, false), 0);
+			}
+		}
+	}
+
+	@Test
+	public void opening_closing() {
+		StructuringElement element = StructuringElement.disk(3);
+		for( Class type : types ) {
+			ImageGray input = random(type, 40, 30);
+
+			ImageGray expected = naive(naive(input, element, false), element, true);
+			BoofTesting.assertEquals(expected, call("opening", input, element, null, false), 0);
+
+			expected = naive(naive(input, element, true), element, false);
+			BoofTesting.assertEquals(expected, call("closing", input, element, null, false), 0);
+		}
+	}
+
+	@Test
+	public void topHat() {
+		StructuringElement element = StructuringElement.rectangle(3, 2);
+		for( Class type : types ) {
+			ImageGray input = random(type, 40, 30);
+
+			ImageGray opened = naive(naive(input, element, false), element, true);
+			ImageGray closed = naive(naive(input, element, true), element, false);
+			ImageGray white = call("topHatWhite", input, element, null, false);
+			ImageGray black = call("topHatBlack", input, element, null, false);
+
+			for (int y = 0; y < input.height; y++) {
+				for (int x = 0; x < input.width; x++) {
+					double v = GeneralizedImageOps.get(input, x, y);
+					assertEquals(v - GeneralizedImageOps.get(opened, x, y),
+							GeneralizedImageOps.get(white, x, y), 1e-4);
+					assertEquals(GeneralizedImageOps.get(closed, x, y) - v,
+							GeneralizedImageOps.get(black, x, y), 1e-4);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Sub-images and the output being the same instance as the input
+	 */
+	@Test
+	public void subimage_inplace() {
+		String functions[] = new String[]{"erode","dilate","opening","closing","topHatWhite","topHatBlack"};
+		StructuringElement shapes[] = new StructuringElement[]{
+				StructuringElement.rectangle(2, 3), StructuringElement.rectangle(0, 3), StructuringElement.disk(3)};
+		for( Class type : types ) {
+			for( StructuringElement element : shapes ) {
+				for( String function : functions ) {
+					ImageGray input = random(type, 35, 28);
+					ImageGray expected = call(function, input, element, null, false);
+
+					ImageGray sub = BoofTesting.createSubImageOf(input);
+					ImageGray found = call(function, sub, element, BoofTesting.createSubImageOf(input), false);
+					BoofTesting.assertEquals(expected, found, 0);
+
+					found = (ImageGray)input.clone();
+					call(function, found, element, found, false);
+					BoofTesting.assertEquals(expected, found, 0);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void concurrent() {
+		int original = BoofConcurrency.getMaxThreads();
+		try {
+			BoofConcurrency.setMaxThreads(3);
+
+			for( Class type : types ) {
+				for( StructuringElement element : elements ) {
+					// wide enough that columns are split into several strips
+					ImageGray input = random(type, 300, 41);
+
+					BoofTesting.assertEquals(call("erode", input, element, null, false),
+							call("erode", input, element, null, true), 0);
+					BoofTesting.assertEquals(call("dilate", input, element, null, false),
+							call("dilate", input, element, null, true), 0);
+				}
+			}
+		} finally {
+			BoofConcurrency.setMaxThreads(original);
+		}
+	}
+
+	private ImageGray random( Class type , int width , int height ) {
+		ImageGray image = GeneralizedImageOps.createSingleBand(type, width, height);
+		GImageMiscOps.fillUniform(image, rand, 0, type == GrayU16.class ? 60000 : 255);
+		return image;
+	}
+
+	private static ImageGray call( String function , ImageGray input , StructuringElement element ,
+								  ImageGray output , boolean concurrent ) {
+		try {
+			return (ImageGray)GrayMorphologyOps.class.getMethod(function, input.getClass(),
+					StructuringElement.class, input.getClass(), boolean.class).
+					invoke(null, input, element, output, concurrent);
+		} catch (Exception e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * Brute force min or max inside the structuring element
+	 */
+	private static ImageGray naive( ImageGray input , StructuringElement element , boolean max ) {
+		int radius = 0;
+		for (int i = 0; i < element.getRectangles().size(); i++) {
+			radius = Math.max(radius, element.getRectangles().get(i).x);
+			radius = Math.max(radius, element.getRectangles().get(i).y);
+		}
+
+		ImageGray output = (ImageGray)input.createSameShape();
+		for (int y = 0; y < input.height; y++) {
+			for (int x = 0; x < input.width; x++) {
+				double best = max ? -Double.MAX_VALUE : Double.MAX_VALUE;
+				for (int dy = -radius; dy <= radius; dy++) {
+					for (int dx = -radius; dx <= radius; dx++) {
+						if( !input.isInBounds(x + dx, y + dy) || !element.contains(dx, dy) )
+							continue;
+						double v = GeneralizedImageOps.get(input, x + dx, y + dy);
+						best = max ? Math.max(best, v) : Math.min(best, v);
+					}
+				}
+				GeneralizedImageOps.set(output, x, y, best);
+			}
+		}
+		return output;
+	}
+}
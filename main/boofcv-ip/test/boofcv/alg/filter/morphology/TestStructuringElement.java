@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.filter.morphology;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestStructuringElement {
+
+	@Test
+	public void rectangle() {
+		StructuringElement element = StructuringElement.rectangle(2, 1);
+		assertEquals(1, element.getRectangles().size());
+
+		for (int dy = -4; dy <= 4; dy++) {
+			for (int dx = -4; dx <= 4; dx++) {
+				assertEquals(Math.abs(dx) <= 2 && Math.abs(dy) <= 1, element.contains(dx, dy));
+			}
+		}
+	}
+
+	/**
+	 * The union of rectangles should exactly match the disk's definition
+	 */
+	@Test
+	public void disk() {
+		for (int radius = 0; radius <= 30; radius++) {
+			StructuringElement element = StructuringElement.disk(radius);
+			// one rectangle per step along the boundary, roughly 0.6*radius
+			assertTrue(element.getRectangles().size() <= 2*radius/3 + 2);
+
+			for (int dy = -radius - 1; dy <= radius + 1; dy++) {
+				for (int dx = -radius - 1; dx <= radius + 1; dx++) {
+					assertEquals(dx*dx + dy*dy <= radius*radius, element.contains(dx, dy));
+				}
+			}
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void negativeRadius() {
+		StructuringElement.disk(-1);
+	}
+}
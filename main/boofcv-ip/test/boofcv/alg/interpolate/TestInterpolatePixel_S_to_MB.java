@@ -69,6 +69,13 @@ public class TestInterpolatePixel_S_to_MB {
 			return 3;
 		}
 
+		@Override
+		public void get(float[] points, int pointsOffset, int count, float[] output, int outputOffset) {}
+
+		@Override
+		public void getGrid(float x0, float y0, float stepX, float stepY, int columns, int rows,
+							float[] output, int outputOffset) {}
+
 		@Override
 		public void setBorder(ImageBorder border) {
 			this.border = border;
@@ -108,5 +115,10 @@ public class TestInterpolatePixel_S_to_MB {
 		public ImageType getImageType() {
 			return ImageType.single(GrayU8.class);
 		}
+
+		@Override
+		public InterpolatePixelS copy() {
+			return new Helper();
+		}
 	}
 }
\ No newline at end of file
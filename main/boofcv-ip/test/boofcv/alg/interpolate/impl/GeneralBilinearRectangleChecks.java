@@ -143,6 +143,30 @@ public abstract class GeneralBilinearRectangleChecks<T extends ImageGray<T>> {
 			}
 		}
 	}
+	/**
+	 * Writing to an array should produce the same results as writing to an image
+	 */
+	@Test
+	public void region_array() {
+		T img = createImage(width, height);
+		GImageMiscOps.fillUniform(img, rand, 0, 200);
+
+		InterpolateRectangle<T> interp = createRectangleInterpolate();
+		interp.setImage(img);
+
+		GrayF32 expected = new GrayF32(20,25);
+		interp.region(5.4f, 8.6f, expected);
+
+		float[] found = new float[20*25+3];
+		interp.region(5.4f, 8.6f, found, 20, 25);
+
+		for (int y = 0; y < expected.height; y++) {
+			for (int x = 0; x < expected.width; x++) {
+				assertTrue(expected.get(x, y) == found[y*20+x]);
+			}
+		}
+	}
+
 	/**
 	 * Compare region against the value returned by get ImplBilinearPixel_F32
 	 */
@@ -388,4 +388,31 @@ public abstract class GeneralChecksInterpolationPixelMB<T extends ImageMultiBand
 			}
 		}
 	}
+
+	/**
+	 * A copy should produce identical results and not be the same instance
+	 */
+	@Test
+	public void copy() {
+		T img = createImage(30, 40, numBands);
+		GImageMiscOps.fillUniform(img, rand, 0, 100);
+
+		InterpolatePixelMB<T> interpA = wrap(img, 0, 100);
+		interpA.setBorder((ImageBorder)FactoryImageBorder.interleavedValue((ImageInterleaved)img, 0));
+		InterpolatePixelMB<T> interpB = interpA.copy();
+		assertTrue(interpA != interpB);
+		interpB.setImage(img);
+
+		for (int i = 0; i < 100; i++) {
+			float x = rand.nextFloat()*34-2;
+			float y = rand.nextFloat()*44-2;
+
+			interpA.get(x, y, tmp0);
+			interpB.get(x, y, tmp1);
+
+			for (int band = 0; band < numBands; band++) {
+				assertTrue(tmp0[band] == tmp1[band]);
+			}
+		}
+	}
 }
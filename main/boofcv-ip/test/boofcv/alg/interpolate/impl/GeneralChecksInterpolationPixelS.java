@@ -152,6 +152,77 @@ public abstract class GeneralChecksInterpolationPixelS<T extends ImageGray<T>> {
 	}
 
 
+	/**
+	 * Interpolating a batch of points should produce identical results to interpolating one point at a time
+	 */
+	@Test
+	public void get_batch() {
+		T img = createImage(width, height);
+		GImageMiscOps.fillUniform(img, rand, 0, 100);
+
+		BoofTesting.checkSubImage(this, "get_batch", false, img);
+	}
+
+	public void get_batch(T img) {
+		InterpolatePixelS<T> interp = wrap(img, 0, 100);
+		interp.setBorder(FactoryImageBorder.singleValue(img, 0));
+		interp.setImage(img);
+
+		// some of the points are outside the image
+		int count = 200;
+		float[] points = new float[2 + count*2];
+		for (int i = 0; i < count; i++) {
+			points[2 + i*2] = rand.nextFloat()*(width+10) - 5;
+			points[2 + i*2 + 1] = rand.nextFloat()*(height+10) - 5;
+		}
+
+		float[] found = new float[count + 3];
+		interp.get(points, 2, count, found, 3);
+
+		for (int i = 0; i < count; i++) {
+			float expected = interp.get(points[2 + i*2], points[2 + i*2 + 1]);
+			assertTrue(expected == found[3 + i]);
+		}
+	}
+
+	/**
+	 * Interpolating a grid should produce identical results to interpolating one point at a time
+	 */
+	@Test
+	public void getGrid() {
+		T img = createImage(width, height);
+		GImageMiscOps.fillUniform(img, rand, 0, 100);
+
+		BoofTesting.checkSubImage(this, "getGrid", false, img);
+	}
+
+	public void getGrid(T img) {
+		InterpolatePixelS<T> interp = wrap(img, 0, 100);
+		interp.setBorder(FactoryImageBorder.singleValue(img, 0));
+		interp.setImage(img);
+
+		// inside the image
+		checkGrid(interp, 20.2f, 30.7f, 1, 1, 15, 12);
+		checkGrid(interp, 20.2f, 30.7f, 0.6f, 1.3f, 15, 12);
+		checkGrid(interp, 60.2f, 50.7f, -1.1f, -0.8f, 15, 12);
+		// partially outside the image
+		checkGrid(interp, -3.5f, 10.2f, 1, 1, 15, 12);
+		checkGrid(interp, width-5.5f, height-3.2f, 0.7f, 0.6f, 15, 12);
+	}
+
+	private void checkGrid( InterpolatePixelS<T> interp , float x0 , float y0 , float stepX , float stepY ,
+							int columns , int rows ) {
+		float[] found = new float[2 + columns*rows];
+		interp.getGrid(x0, y0, stepX, stepY, columns, rows, found, 2);
+
+		for (int row = 0; row < rows; row++) {
+			for (int col = 0; col < columns; col++) {
+				float expected = interp.get(x0 + col*stepX, y0 + row*stepY);
+				assertTrue(expected == found[2 + row*columns + col]);
+			}
+		}
+	}
+
 	/**
 	 * If a border is specified it should handle everything just fine
 	 */
@@ -295,4 +366,26 @@ public abstract class GeneralChecksInterpolationPixelS<T extends ImageGray<T>> {
 			}
 		}
 	}
+
+	/**
+	 * A copy should produce identical results and not be the same instance
+	 */
+	@Test
+	public void copy() {
+		T img = createImage(30, 40);
+		GImageMiscOps.fillUniform(img, rand, 0, 100);
+
+		InterpolatePixelS<T> interpA = wrap(img, 0, 100);
+		interpA.setBorder(FactoryImageBorder.singleValue(img, 0));
+		InterpolatePixelS<T> interpB = interpA.copy();
+		assertTrue(interpA != interpB);
+		interpB.setImage(img);
+
+		for (int i = 0; i < 100; i++) {
+			float x = rand.nextFloat()*34-2;
+			float y = rand.nextFloat()*44-2;
+
+			assertTrue(interpA.get(x, y) == interpB.get(x, y));
+		}
+	}
 }
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.transform.fft;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestFftPlanCache_F32 {
+
+	Random rand = new Random(234);
+
+	/**
+	 * Instances from the cache should produce the same results as ones created directly
+	 */
+	@Test
+	public void create() {
+		FftPlanCache_F32 alg = new FftPlanCache_F32(5);
+
+		for( int n : new int[]{16,100,211} ) {
+			GeneralPurposeFFT_F32_1D expected = new GeneralPurposeFFT_F32_1D(n);
+
+			// first request computes the plan, second reuses it
+			for( int trial = 0; trial < 2; trial++ ) {
+				GeneralPurposeFFT_F32_1D found = alg.create(n);
+				assertEquals(n, found.getSize());
+
+				float dataE[] = new float[n*2];
+				for( int i = 0; i < dataE.length; i++ ) {
+					dataE[i] = (float)rand.nextGaussian();
+				}
+				float dataF[] = dataE.clone();
+
+				expected.complexForward(dataE);
+				found.complexForward(dataF);
+
+				assertArrayEquals(dataE, dataF, 0f);
+			}
+		}
+		assertEquals(3, alg.size());
+	}
+
+	/**
+	 * Each call should return a different instance so that they can be used by different threads
+	 */
+	@Test
+	public void create_newInstance() {
+		FftPlanCache_F32 alg = new FftPlanCache_F32(5);
+
+		assertTrue(alg.create(10) != alg.create(10));
+		assertEquals(1, alg.size());
+	}
+
+	/**
+	 * When full the least recently used size should be discarded
+	 */
+	@Test
+	public void leastRecentlyUsed() {
+		FftPlanCache_F32 alg = new FftPlanCache_F32(3);
+
+		alg.create(2);
+		alg.create(3);
+		alg.create(4);
+		// 2 is now more recent than 3
+		alg.create(2);
+		alg.create(5);
+
+		assertEquals(3, alg.size());
+		assertTrue(alg.contains(2));
+		assertFalse(alg.contains(3));
+		assertTrue(alg.contains(4));
+		assertTrue(alg.contains(5));
+	}
+
+	@Test
+	public void setMaxSize() {
+		FftPlanCache_F32 alg = new FftPlanCache_F32(4);
+
+		for( int n = 1; n <= 4; n++ ) {
+			alg.create(n);
+		}
+		alg.create(1);
+
+		alg.setMaxSize(2);
+		assertEquals(2, alg.getMaxSize());
+		assertEquals(2, alg.size());
+		assertTrue(alg.contains(1));
+		assertTrue(alg.contains(4));
+	}
+
+	@Test
+	public void clear() {
+		FftPlanCache_F32 alg = new FftPlanCache_F32(4);
+		alg.create(5);
+		alg.create(6);
+		alg.clear();
+		assertEquals(0, alg.size());
+		assertFalse(alg.contains(5));
+	}
+}
@@ -22,6 +22,7 @@ import org.junit.Test;
 
 import java.util.Random;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
@@ -153,4 +154,43 @@ public class TestGeneralPurposeFFT_F64_1D {
 			assertEquals(original[i*2+1],input[i*2+1],1e-8);
 		}
 	}
+
+	/**
+	 * An instance created from another one should produce identical results for every type of plan
+	 */
+	@Test
+	public void copyConstructor() {
+		// split radix, mixed radix, and bluestein
+		int copySizes[] = new int[]{1,32,100,211};
+
+		for( int n : copySizes ) {
+			GeneralPurposeFFT_F64_1D original = new GeneralPurposeFFT_F64_1D(n);
+			GeneralPurposeFFT_F64_1D copy = new GeneralPurposeFFT_F64_1D(original);
+			assertEquals(n, copy.getSize());
+
+			for( int op = 0; op < 6; op++ ) {
+				double input[] = new double[n*2];
+				for( int i = 0; i < input.length; i++ ) {
+					input[i] = rand.nextGaussian();
+				}
+				double expected[] = input.clone();
+
+				applyOperation(original, op, expected);
+				applyOperation(copy, op, input);
+
+				assertArrayEquals(expected, input, 0);
+			}
+		}
+	}
+
+	private static void applyOperation(GeneralPurposeFFT_F64_1D alg, int op, double[] data) {
+		switch( op ) {
+			case 0: alg.complexForward(data); break;
+			case 1: alg.complexInverse(data, true); break;
+			case 2: alg.realForward(data); break;
+			case 3: alg.realInverse(data, true); break;
+			case 4: alg.realForwardFull(data); break;
+			case 5: alg.realInverseFull(data, true); break;
+		}
+	}
 }
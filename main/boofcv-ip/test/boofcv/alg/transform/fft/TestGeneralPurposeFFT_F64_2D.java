@@ -18,11 +18,13 @@
 
 package boofcv.alg.transform.fft;
 
+import boofcv.concurrency.BoofConcurrency;
 import org.junit.Test;
 
 import java.util.Random;
 
 import static boofcv.alg.transform.fft.TestGeneralPurposeFFT_F64_1D.checkForChange;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 
 /**
@@ -112,4 +114,57 @@ public class TestGeneralPurposeFFT_F64_2D {
 		}
 	}
 
+	/**
+	 * Results computed with multiple threads should be identical to the single threaded results
+	 */
+	@Test
+	public void concurrent() {
+		int originalThreads = BoofConcurrency.getMaxThreads();
+		try {
+			BoofConcurrency.setMaxThreads(3);
+			for( int i = 0; i < sizes.length; i++ ) {
+				for( int j = 0; j < sizes.length; j++ ) {
+					checkConcurrent(sizes[i], sizes[j]);
+				}
+			}
+		} finally {
+			BoofConcurrency.setMaxThreads(originalThreads);
+		}
+	}
+
+	private void checkConcurrent(int numRows, int numColumns) {
+		GeneralPurposeFFT_F64_2D single = new GeneralPurposeFFT_F64_2D(numRows,numColumns);
+		GeneralPurposeFFT_F64_2D multi = new GeneralPurposeFFT_F64_2D(numRows,numColumns);
+		multi.setConcurrent(true);
+
+		// the packed real transforms only support sizes which are a power of two
+		boolean powerOfTwo = DiscreteFourierTransformOps.isPowerOf2(numRows) &&
+				DiscreteFourierTransformOps.isPowerOf2(numColumns);
+
+		for( int op = 0; op < 6; op++ ) {
+			if( !powerOfTwo && (op == 2 || op == 3) )
+				continue;
+			double input[] = new double[numRows*numColumns*2];
+			for( int i = 0; i < input.length; i++ ) {
+				input[i] = rand.nextGaussian();
+			}
+			double expected[] = input.clone();
+
+			applyOperation(single, op, expected);
+			applyOperation(multi, op, input);
+
+			assertArrayEquals(expected, input, 0);
+		}
+	}
+
+	private static void applyOperation(GeneralPurposeFFT_F64_2D alg, int op, double[] data) {
+		switch( op ) {
+			case 0: alg.complexForward(data); break;
+			case 1: alg.complexInverse(data, true); break;
+			case 2: alg.realForward(data); break;
+			case 3: alg.realInverse(data, true); break;
+			case 4: alg.realForwardFull(data); break;
+			case 5: alg.realInverseFull(data, true); break;
+		}
+	}
 }
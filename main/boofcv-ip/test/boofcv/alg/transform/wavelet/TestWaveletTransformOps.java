@@ -19,6 +19,7 @@
 package boofcv.alg.transform.wavelet;
 
 import boofcv.alg.misc.GImageMiscOps;
+import boofcv.concurrency.BoofConcurrency;
 import boofcv.core.image.GeneralizedImageOps;
 import boofcv.core.image.border.BorderType;
 import boofcv.factory.transform.wavelet.FactoryWaveletDaub;
@@ -151,6 +152,90 @@ public class TestWaveletTransformOps {
 		}
 	}
 
+	/**
+	 * Results with multiple threads should be identical to the single threaded results
+	 */
+	@Test
+	public void concurrent() {
+		int originalThreads = BoofConcurrency.getMaxThreads();
+		try {
+			BoofConcurrency.setMaxThreads(3);
+			for( Class<?> t : types ) {
+				checkConcurrent(t);
+			}
+		} finally {
+			BoofConcurrency.setMaxThreads(originalThreads);
+		}
+	}
+
+	private void checkConcurrent(Class typeInput) {
+		WaveletDescription desc = createDesc(typeInput);
+
+		for( int adjust = 0; adjust < 2; adjust++ ) {
+			int w = width+adjust;
+			int h = height+adjust;
+			ImageGray input = GeneralizedImageOps.createSingleBand(typeInput, w, h);
+			GImageMiscOps.fillUniform(input, rand, 0, 50);
+
+			for( int level = 1; level <= 3; level++ ) {
+				ImageDimension dim = UtilWavelet.transformDimension(w,h,level);
+				ImageGray expected = GeneralizedImageOps.createSingleBand(typeInput, dim.width, dim.height);
+				ImageGray found = GeneralizedImageOps.createSingleBand(typeInput, dim.width, dim.height);
+				ImageGray expectedInv = GeneralizedImageOps.createSingleBand(typeInput, w, h);
+				ImageGray foundInv = GeneralizedImageOps.createSingleBand(typeInput, w, h);
+
+				if( input.getDataType().isInteger() ) {
+					WaveletTransformOps.transformN(desc, (GrayS32)input.clone(), (GrayS32)expected, null, level, false);
+					WaveletTransformOps.transformN(desc, (GrayS32)input.clone(), (GrayS32)found, null, level, true);
+					WaveletTransformOps.inverseN(desc, (GrayS32)expected.clone(), (GrayS32)expectedInv, null, level,
+							0, 255, false);
+					WaveletTransformOps.inverseN(desc, (GrayS32)found.clone(), (GrayS32)foundInv, null, level,
+							0, 255, true);
+				} else {
+					WaveletTransformOps.transformN(desc, (GrayF32)input.clone(), (GrayF32)expected, null, level, false);
+					WaveletTransformOps.transformN(desc, (GrayF32)input.clone(), (GrayF32)found, null, level, true);
+					WaveletTransformOps.inverseN(desc, (GrayF32)expected.clone(), (GrayF32)expectedInv, null, level,
+							0, 255, false);
+					WaveletTransformOps.inverseN(desc, (GrayF32)found.clone(), (GrayF32)foundInv, null, level,
+							0, 255, true);
+				}
+
+				BoofTesting.assertEquals(expected, found, 0);
+				BoofTesting.assertEquals(expectedInv, foundInv, 0);
+			}
+		}
+	}
+
+	/**
+	 * The transform should not depend on what was in the storage image before it was called.  Padded
+	 * images don't have every storage pixel written to by the horizontal pass.
+	 */
+	@Test
+	public void transformN_dirtyStorage() {
+		for( Class t : types ) {
+			WaveletDescription desc = createDesc(t);
+
+			ImageGray input = GeneralizedImageOps.createSingleBand(t, 150, 130);
+			GImageMiscOps.fillUniform(input, rand, 0, 50);
+
+			ImageDimension dim = UtilWavelet.transformDimension(input,3);
+			ImageGray expected = GeneralizedImageOps.createSingleBand(t, dim.width, dim.height);
+			ImageGray found = GeneralizedImageOps.createSingleBand(t, dim.width, dim.height);
+			ImageGray storage = GeneralizedImageOps.createSingleBand(t, dim.width, dim.height);
+			GImageMiscOps.fillUniform(storage, rand, -1000, 1000);
+
+			if( input.getDataType().isInteger() ) {
+				WaveletTransformOps.transformN(desc, (GrayS32)input.clone(), (GrayS32)expected, null, 3);
+				WaveletTransformOps.transformN(desc, (GrayS32)input.clone(), (GrayS32)found, (GrayS32)storage, 3);
+			} else {
+				WaveletTransformOps.transformN(desc, (GrayF32)input.clone(), (GrayF32)expected, null, 3);
+				WaveletTransformOps.transformN(desc, (GrayF32)input.clone(), (GrayF32)found, (GrayF32)storage, 3);
+			}
+
+			BoofTesting.assertEquals(expected, found, 0);
+		}
+	}
+
 	/**
 	 * See if it is possible to overflow the image
 	 */
@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.concurrency;
+
+import org.ddogleg.struct.FastQueue;
+import org.ddogleg.struct.GrowQueue_I32;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestBoofConcurrency {
+
+	/**
+	 * Every index should be processed exactly once
+	 */
+	@Test
+	public void loopBlocks() {
+		final int[] counts = new int[1000];
+
+		BoofConcurrency.loopBlocks(10, 990, new IntRangeConsumer() {
+			@Override
+			public void accept(int index0, int index1) {
+				for (int i = index0; i < index1; i++) {
+					counts[i]++;
+				}
+			}
+		});
+
+		for (int i = 0; i < counts.length; i++) {
+			assertEquals(i >= 10 && i < 990 ? 1 : 0, counts[i]);
+		}
+	}
+
+	@Test
+	public void loopBlocks_empty() {
+		BoofConcurrency.loopBlocks(5, 5, new IntRangeConsumer() {
+			@Override
+			public void accept(int index0, int index1) {
+				fail("Should not be called");
+			}
+		});
+	}
+
+	/**
+	 * The minimum block size should limit the number of blocks
+	 */
+	@Test
+	public void loopBlocks_minBlock() {
+		final GrowQueue_I32 sizes = new GrowQueue_I32();
+		BoofConcurrency.loopBlocks(0, 20, 15, new IntRangeConsumer() {
+			@Override
+			public void accept(int index0, int index1) {
+				synchronized (sizes) {
+					sizes.add(index1-index0);
+				}
+			}
+		});
+
+		assertEquals(1, sizes.size);
+		assertEquals(20, sizes.get(0));
+	}
+
+	/**
+	 * Each block should be given its own workspace and the blocks should be in order
+	 */
+	@Test
+	public void loopBlocks_workspace() {
+		FastQueue<GrowQueue_I32> workspace = new FastQueue<>(GrowQueue_I32.class, true);
+
+		BoofConcurrency.loopBlocks(0, 500, workspace, new IntRangeObjectConsumer<GrowQueue_I32>() {
+			@Override
+			public void accept(GrowQueue_I32 w, int index0, int index1) {
+				for (int i = index0; i < index1; i++) {
+					w.add(i);
+				}
+			}
+		});
+
+		assertTrue(workspace.size >= 1);
+		assertTrue(workspace.size <= BoofConcurrency.getMaxThreads());
+
+		int expected = 0;
+		for (int i = 0; i < workspace.size; i++) {
+			GrowQueue_I32 w = workspace.get(i);
+			for (int j = 0; j < w.size; j++) {
+				assertEquals(expected++, w.get(j));
+			}
+		}
+		assertEquals(500, expected);
+	}
+
+	/**
+	 * Loops inside of loops should not dead lock
+	 */
+	@Test
+	public void loopBlocks_nested() {
+		final int[] counts = new int[100*50];
+
+		BoofConcurrency.loopBlocks(0, 100, new IntRangeConsumer() {
+			@Override
+			public void accept(int index0, int index1) {
+				for (int i = index0; i < index1; i++) {
+					final int row = i;
+					BoofConcurrency.loopBlocks(0, 50, new IntRangeConsumer() {
+						@Override
+						public void accept(int index0, int index1) {
+							for (int j = index0; j < index1; j++) {
+								counts[row*50+j]++;
+							}
+						}
+					});
+				}
+			}
+		});
+
+		for (int i = 0; i < counts.length; i++) {
+			assertEquals(1, counts[i]);
+		}
+	}
+
+	@Test
+	public void blockStart() {
+		assertEquals(2, BoofConcurrency.blockStart(2, 12, 3, 0));
+		assertEquals(12, BoofConcurrency.blockStart(2, 12, 3, 3));
+
+		// block sizes should differ by at most one
+		for (int i = 0; i < 3; i++) {
+			int size = BoofConcurrency.blockStart(2, 12, 3, i+1) - BoofConcurrency.blockStart(2, 12, 3, i);
+			assertTrue(size == 3 || size == 4);
+		}
+	}
+
+	@Test
+	public void setMaxThreads() {
+		int original = BoofConcurrency.getMaxThreads();
+		try {
+			BoofConcurrency.setMaxThreads(3);
+			assertEquals(3, BoofConcurrency.getMaxThreads());
+			assertEquals(3, BoofConcurrency.computeNumBlocks(100, 1));
+			assertEquals(2, BoofConcurrency.computeNumBlocks(100, 50));
+			assertEquals(1, BoofConcurrency.computeNumBlocks(10, 50));
+			assertEquals(0, BoofConcurrency.computeNumBlocks(0, 1));
+		} finally {
+			BoofConcurrency.setMaxThreads(original);
+		}
+	}
+
+	/**
+	 * Changing the number of threads while loops are running in other threads should not cause tasks to be rejected
+	 */
+	@Test(timeout = 30000)
+	public void setMaxThreads_whileRunning() throws InterruptedException {
+		int original = BoofConcurrency.getMaxThreads();
+		final boolean[] failed = new boolean[1];
+		Thread[] threads = new Thread[4];
+		try {
+			for (int i = 0; i < threads.length; i++) {
+				threads[i] = new Thread() {
+					@Override
+					public void run() {
+						try {
+							for (int trial = 0; trial < 20000; trial++) {
+								BoofConcurrency.loopBlocks(0, 50, new IntRangeConsumer() {
+									@Override
+									public void accept(int index0, int index1) {}
+								});
+							}
+						} catch( RuntimeException e ) {
+							failed[0] = true;
+						}
+					}
+				};
+				threads[i].start();
+			}
+
+			// keep on changing the pool until all the loops have finished
+			for (int trial = 0; isAlive(threads); trial++) {
+				BoofConcurrency.setMaxThreads(2 + trial%3);
+			}
+			for( Thread t : threads ) {
+				t.join();
+			}
+		} finally {
+			BoofConcurrency.setMaxThreads(original);
+		}
+		assertFalse(failed[0]);
+	}
+
+	private static boolean isAlive( Thread[] threads ) {
+		for( Thread t : threads ) {
+			if( t.isAlive() )
+				return true;
+		}
+		return false;
+	}
+}
@@ -19,10 +19,13 @@
 package boofcv.core.encoding;
 
 import boofcv.alg.color.ColorYuv;
+import boofcv.concurrency.BoofConcurrency;
 import boofcv.core.image.GeneralizedImageOps;
 import boofcv.struct.image.*;
+import boofcv.testing.BoofTesting;
 import org.junit.Test;
 
+import java.nio.ByteBuffer;
 import java.util.Random;
 
 import static org.junit.Assert.assertEquals;
@@ -87,6 +90,70 @@ public class TestConvertYV12 {
 		}
 	}
 
+	@Test
+	public void concurrent() {
+		int originalThreads = BoofConcurrency.getMaxThreads();
+		try {
+			BoofConcurrency.setMaxThreads(3);
+
+			int width = 40, height = 70;
+			byte[] data = random(width,height);
+
+			for( ImageType type : allTypes() ) {
+				ImageBase expected = type.createImage(width,height);
+				ImageBase found = type.createImage(width,height);
+
+				ConvertYV12.yu12ToBoof(data, width, height, expected, false);
+				ConvertYV12.yu12ToBoof(data, width, height, found, true);
+
+				BoofTesting.assertEquals(expected, found, 0);
+			}
+		} finally {
+			BoofConcurrency.setMaxThreads(originalThreads);
+		}
+	}
+
+	/**
+	 * Read from heap and direct buffers where the frame doesn't start at the beginning of the buffer.  The image
+	 * is tall enough that direct buffers are read in multiple blocks.
+	 */
+	@Test
+	public void byteBuffer() {
+		int width = 40, height = 70;
+		int offset = 13;
+		byte[] data = random(width,height);
+
+		byte[] padded = new byte[data.length+offset];
+		System.arraycopy(data,0,padded,offset,data.length);
+
+		ByteBuffer heap = ByteBuffer.wrap(padded);
+		heap.position(offset);
+		ByteBuffer direct = ByteBuffer.allocateDirect(padded.length);
+		direct.put(padded);
+		direct.position(offset);
+
+		for( ImageType type : allTypes() ) {
+			ImageBase expected = type.createImage(width,height);
+			ConvertYV12.yu12ToBoof(data, width, height, expected, false);
+
+			for( ByteBuffer buffer : new ByteBuffer[]{heap,direct}) {
+				for( boolean concurrent : new boolean[]{false,true}) {
+					ImageBase found = type.createImage(width,height);
+					ConvertYV12.yu12ToBoof(buffer, width, height, found, concurrent);
+
+					BoofTesting.assertEquals(expected, found, 0);
+					assertEquals(offset, buffer.position());
+				}
+			}
+		}
+	}
+
+	private ImageType[] allTypes() {
+		return new ImageType[]{ImageType.single(GrayU8.class),ImageType.single(GrayF32.class),
+				ImageType.pl(3, ImageDataType.U8),ImageType.pl(3,ImageDataType.F32),
+				ImageType.il(3, ImageDataType.U8),ImageType.il(3, ImageDataType.F32)};
+	}
+
 	private byte[] random( int width , int height ) {
 		int length = width*height + (width*height/4)*2;
 		byte[] data = new byte[length];
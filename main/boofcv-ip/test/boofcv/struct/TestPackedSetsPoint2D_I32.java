@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.struct;
+
+import georegression.struct.point.Point2D_I32;
+import org.ddogleg.struct.FastQueue;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestPackedSetsPoint2D_I32 {
+
+	@Test
+	public void addPoints() {
+		PackedSetsPoint2D_I32 alg = new PackedSetsPoint2D_I32();
+		alg.grow();
+		alg.grow();
+		for (int i = 0; i < 100; i++) {
+			alg.addPointToTail(i, i+1);
+		}
+		alg.grow();
+		alg.addPointToTail(5, 6);
+
+		assertEquals(3, alg.size());
+		assertEquals(101, alg.totalPoints());
+		assertEquals(0, alg.sizeOfSet(0));
+		assertEquals(100, alg.sizeOfSet(1));
+		assertEquals(1, alg.sizeOfTail());
+		assertEquals(20, alg.getX(1,20));
+		assertEquals(21, alg.getY(1,20));
+		assertEquals(5, alg.getX(2,0));
+		assertEquals(6, alg.getY(2,0));
+
+		alg.reset();
+		assertEquals(0, alg.size());
+		assertEquals(0, alg.totalPoints());
+	}
+
+	@Test
+	public void removeTail() {
+		PackedSetsPoint2D_I32 alg = new PackedSetsPoint2D_I32();
+		alg.grow();
+		alg.addPointToTail(1, 2);
+		alg.grow();
+		alg.addPointToTail(3, 4);
+		alg.addPointToTail(5, 6);
+
+		alg.removeTail();
+		assertEquals(1, alg.size());
+		assertEquals(1, alg.totalPoints());
+
+		alg.addPointToTail(7, 8);
+		assertEquals(2, alg.sizeOfTail());
+		assertEquals(7, alg.getX(0,1));
+	}
+
+	@Test
+	public void getSet() {
+		PackedSetsPoint2D_I32 alg = new PackedSetsPoint2D_I32();
+		alg.grow();
+		alg.addPointToTail(1, 2);
+		alg.grow();
+		alg.addPointToTail(3, 4);
+		alg.addPointToTail(5, 6);
+
+		FastQueue<Point2D_I32> storage = new FastQueue<>(Point2D_I32.class, true);
+		List<Point2D_I32> list = new ArrayList<>();
+		list.add(new Point2D_I32());
+		alg.getSet(1, storage, list);
+		assertEquals(2, list.size());
+		assertEquals(3, list.get(0).x);
+		assertEquals(6, list.get(1).y);
+
+		FastQueue<Point2D_I32> queue = new FastQueue<>(Point2D_I32.class, true);
+		alg.getSet(0, queue);
+		assertEquals(1, queue.size);
+		assertEquals(2, queue.get(0).y);
+	}
+
+	@Test
+	public void appendSet() {
+		PackedSetsPoint2D_I32 src = new PackedSetsPoint2D_I32();
+		src.grow();
+		src.addPointToTail(1, 2);
+		src.grow();
+		for (int i = 0; i < 50; i++) {
+			src.addPointToTail(i, 2*i);
+		}
+
+		PackedSetsPoint2D_I32 alg = new PackedSetsPoint2D_I32();
+		alg.grow();
+		alg.addPointToTail(9, 9);
+		alg.appendSet(src, 1, 10, 20);
+		alg.appendSet(src, 0, 0, 0);
+
+		assertEquals(3, alg.size());
+		assertEquals(50, alg.sizeOfSet(1));
+		for (int i = 0; i < 50; i++) {
+			assertEquals(i+10, alg.getX(1,i));
+			assertEquals(2*i+20, alg.getY(1,i));
+		}
+		assertEquals(9, alg.getX(0,0));
+		assertEquals(1, alg.getX(2,0));
+	}
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.struct.image;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestPackedBinaryImage {
+
+	@Test
+	public void reshape() {
+		PackedBinaryImage image = new PackedBinaryImage(65, 3);
+		assertEquals(2, image.stride);
+		image.fill(true);
+
+		// same shape so the pixels are not modified
+		image.reshape(65, 3);
+		assertEquals(65*3, image.countTrue());
+
+		// pixels are cleared when the shape changes, even if the data is reused
+		image.reshape(64, 3);
+		assertEquals(1, image.stride);
+		assertEquals(0, image.countTrue());
+		assertTrue(image.data.length >= 6);
+	}
+
+	@Test
+	public void get_set() {
+		PackedBinaryImage image = new PackedBinaryImage(130, 4);
+
+		image.set(0, 0, 1);
+		image.set(63, 1, 1);
+		image.set(64, 2, 5);
+		image.set(129, 3, 1);
+
+		assertEquals(1, image.get(0, 0));
+		assertEquals(1, image.get(63, 1));
+		assertEquals(1, image.get(64, 2));
+		assertEquals(1, image.get(129, 3));
+		assertEquals(0, image.get(1, 0));
+		assertEquals(4, image.countTrue());
+
+		image.set(64, 2, 0);
+		assertEquals(0, image.get(64, 2));
+		assertEquals(3, image.countTrue());
+	}
+
+	@Test(expected = ImageAccessException.class)
+	public void get_outOfBounds() {
+		new PackedBinaryImage(10, 4).get(10, 0);
+	}
+
+	@Test
+	public void fill() {
+		int widths[] = new int[]{1,63,64,65};
+		for( int width : widths ) {
+			PackedBinaryImage image = new PackedBinaryImage(width, 3);
+			image.fill(true);
+			assertEquals(width*3, image.countTrue());
+			image.fill(false);
+			assertEquals(0, image.countTrue());
+		}
+	}
+
+	@Test
+	public void lastWordMask() {
+		assertEquals(1L, new PackedBinaryImage(1, 1).lastWordMask());
+		assertEquals(-1L, new PackedBinaryImage(64, 1).lastWordMask());
+		assertEquals(0x7L, new PackedBinaryImage(67, 1).lastWordMask());
+	}
+
+	@Test
+	public void setTo() {
+		PackedBinaryImage a = new PackedBinaryImage(70, 5);
+		a.set(3, 2, 1);
+		a.set(69, 4, 1);
+
+		PackedBinaryImage b = new PackedBinaryImage(10, 2);
+		b.setTo(a);
+		assertEquals(70, b.width);
+		assertEquals(5, b.height);
+		assertEquals(1, b.get(3, 2));
+		assertEquals(1, b.get(69, 4));
+		assertEquals(2, b.countTrue());
+	}
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.fiducial.square;
+
+import boofcv.alg.misc.ImageMiscOps;
+import boofcv.misc.PerformerBase;
+import boofcv.misc.ProfileOperation;
+import boofcv.struct.image.GrayU8;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares the speed of looking up square image fiducials using exhaustive search against the hash index
+ * as the number of images in the library grows.  Also reports how often the index finds the same match as
+ * exhaustive search.
+ *
+ * @author Peter Abeles
+ */
+public class BenchmarkFiducialImageHashIndex {
+
+	static final long TEST_TIME = 1000;
+	static final int LENGTH = 64;
+	static final int NUM_QUERIES = 200;
+	// same as DetectFiducialSquareImage's default threshold
+	static final int MAX_DISTANCE = (int)(LENGTH*LENGTH*0.2);
+
+	static Random rand = new Random(234234);
+
+	FiducialImageHashIndex index = new FiducialImageHashIndex(LENGTH);
+	FiducialImageHashIndex.Query query = index.createQuery();
+	List<GrayU8> queries = new ArrayList<>();
+
+	public BenchmarkFiducialImageHashIndex( int numTargets , int cellLength , double noise ) {
+		List<GrayU8> targets = new ArrayList<>();
+		for (int i = 0; i < numTargets; i++) {
+			GrayU8 pattern = createPattern(cellLength);
+			targets.add(pattern);
+			// add all 4 orientations, just like the detector
+			for (int j = 0; j < 4; j++) {
+				if( j > 0 )
+					ImageMiscOps.rotateCCW(pattern);
+				index.add(pattern);
+			}
+		}
+		index.build();
+
+		// half the queries are noisy versions of known targets and the other half are unknown
+		for (int i = 0; i < NUM_QUERIES; i++) {
+			GrayU8 pattern;
+			if( i%2 == 0 )
+				pattern = targets.get(rand.nextInt(numTargets)).clone();
+			else
+				pattern = createPattern(cellLength);
+			for (int j = 0; j < pattern.data.length; j++) {
+				if( rand.nextDouble() < noise )
+					pattern.data[j] = (byte)(1-pattern.data[j]);
+			}
+			queries.add(pattern);
+		}
+	}
+
+	GrayU8 createPattern( int cellLength ) {
+		GrayU8 image = new GrayU8(LENGTH,LENGTH);
+		for (int y = 0; y < LENGTH; y += cellLength) {
+			for (int x = 0; x < LENGTH; x += cellLength) {
+				if( rand.nextBoolean() )
+					ImageMiscOps.fillRectangle(image,1,x,y,cellLength,cellLength);
+			}
+		}
+		return image;
+	}
+
+	/**
+	 * Fraction of queries where the index and exhaustive search returned the same result
+	 */
+	double agreement() {
+		int total = 0;
+		for (int i = 0; i < queries.size(); i++) {
+			int expected = index.lookupExhaustive(queries.get(i),MAX_DISTANCE,query);
+			int found = index.lookup(queries.get(i),MAX_DISTANCE,query);
+			if( expected == found )
+				total++;
+		}
+		return total/(double)queries.size();
+	}
+
+	public class Exhaustive extends PerformerBase {
+		@Override
+		public void process() {
+			for (int i = 0; i < queries.size(); i++) {
+				index.lookupExhaustive(queries.get(i),MAX_DISTANCE,query);
+			}
+		}
+
+		@Override
+		public String getName() {
+			return "Exhaustive";
+		}
+	}
+
+	public class Indexed extends PerformerBase {
+		@Override
+		public void process() {
+			for (int i = 0; i < queries.size(); i++) {
+				index.lookup(queries.get(i),MAX_DISTANCE,query);
+			}
+		}
+
+		@Override
+		public String getName() {
+			return "Indexed";
+		}
+	}
+
+	public static void main( String args[] ) {
+		int sizes[] = new int[]{10,100,1000,10000};
+		int cellLengths[] = new int[]{8,4};
+
+		for( int cellLength : cellLengths ) {
+			for( int size : sizes ) {
+				BenchmarkFiducialImageHashIndex app = new BenchmarkFiducialImageHashIndex(size,cellLength,0.03);
+
+				System.out.printf("========= Targets %5d  cell %d  agreement %.3f ==========\n",
+						size,cellLength,app.agreement());
+				ProfileOperation.printOpsPerSec(app.new Exhaustive(), TEST_TIME);
+				ProfileOperation.printOpsPerSec(app.new Indexed(), TEST_TIME);
+			}
+		}
+	}
+}
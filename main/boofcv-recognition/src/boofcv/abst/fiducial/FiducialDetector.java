@@ -126,6 +126,16 @@ public interface FiducialDetector<T extends ImageBase<T>>
 	 */
 	double getWidth(int which);
 
+	/**
+	 * Scale factor which converts the fiducial's 3D control points from the units they are described in into
+	 * world units.  Square fiducials describe their corners using a unit square and return their width.  Fiducials
+	 * whose control points are already in world units return 1.
+	 *
+	 * @param which Fiducial's index
+	 * @return Control point scale factor
+	 */
+	double getControlScale(int which);
+
 	/**
 	 * If true then 3D information is available for the fiducial.  In general a len distortion model must be
 	 * provided by invoking {@link #setLensDistortion(LensDistortionNarrowFOV)}. The following functions are then
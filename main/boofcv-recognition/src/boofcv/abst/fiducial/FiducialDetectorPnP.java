@@ -190,8 +190,33 @@ public abstract class FiducialDetectorPnP<T extends ImageBase<T>>
 	 * This solves the P-n-P problem.
 	 */
 	protected boolean estimatePose( int which ,List<Point2D3D> points , Se3_F64 fiducialToCamera ) {
-		return estimatePnP.process(points, initialEstimate) &&
-				refinePnP.fitModel(points, initialEstimate, fiducialToCamera);
+		return estimatePose(points, getControlScale(which), fiducialToCamera);
+	}
+
+	/**
+	 * Estimates the fiducial's pose from control points described using this detector's convention.  The
+	 * translation is scaled into world units using the control point scale factor.
+	 *
+	 * @param points 2D observations in normalized image coordinates and 3D control points
+	 * @param controlScale Scale factor for the control points.  See {@link #getControlScale(int)}
+	 * @param fiducialToCamera (output) Storage for the transform. modified.
+	 * @return true if successful
+	 */
+	protected boolean estimatePose( List<Point2D3D> points , double controlScale , Se3_F64 fiducialToCamera ) {
+		if( !estimatePnP.process(points, initialEstimate) ||
+				!refinePnP.fitModel(points, initialEstimate, fiducialToCamera) )
+			return false;
+
+		fiducialToCamera.T.scale(controlScale);
+		return true;
+	}
+
+	/**
+	 * Control points are in world units by default
+	 */
+	@Override
+	public double getControlScale(int which) {
+		return 1.0;
 	}
 
 	/**
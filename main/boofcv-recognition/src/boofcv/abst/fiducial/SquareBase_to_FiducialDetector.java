@@ -116,7 +116,7 @@ public abstract class SquareBase_to_FiducialDetector<T extends ImageGray<T>,Dete
 	}
 
 	@Override
-	protected boolean estimatePose( int which, List<Point2D3D> points , Se3_F64 fiducialToCamera ) {
+	protected boolean estimatePose( List<Point2D3D> points , double controlScale , Se3_F64 fiducialToCamera ) {
 		quad.a.set( points.get(0).observation );
 		quad.b.set( points.get(1).observation );
 		quad.c.set( points.get(2).observation );
@@ -127,13 +127,20 @@ public abstract class SquareBase_to_FiducialDetector<T extends ImageGray<T>,Dete
 		}
 
 		fiducialToCamera.set( poseEstimator.getWorldToCamera() );
-		double width = getWidth(which);
-		fiducialToCamera.T.x *= width;
-		fiducialToCamera.T.y *= width;
-		fiducialToCamera.T.z *= width;
+		fiducialToCamera.T.x *= controlScale;
+		fiducialToCamera.T.y *= controlScale;
+		fiducialToCamera.T.z *= controlScale;
 		return true;
 	}
 
+	/**
+	 * The corners are described using a unit square
+	 */
+	@Override
+	public double getControlScale(int which) {
+		return getWidth(which);
+	}
+
 	@Override
 	public void setLensDistortion(LensDistortionNarrowFOV distortion) {
 		super.setLensDistortion(distortion);
@@ -61,6 +61,17 @@ public class SquareImage_to_FiducialDetector<T extends ImageGray<T>>
 		alg.addPattern(binary, lengthSide);
 	}
 
+	/**
+	 * Hamming distance, in pixels, between the detected square and the pattern it was matched to.  Can be used as
+	 * a measure of confidence.  Smaller is better.
+	 *
+	 * @param which Fiducial's index
+	 * @return hamming distance
+	 */
+	public int getMatchDistance(int which) {
+		return alg.getFound().get(which).matchDistance;
+	}
+
 	@Override
 	public double getWidth(int which) {
 		int index = (int)alg.getFound().get(which).id;
@@ -0,0 +1,527 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.abst.fiducial;
+
+import boofcv.alg.distort.LensDistortionNarrowFOV;
+import boofcv.struct.ImageRectangle;
+import boofcv.struct.distort.Point2Transform2_F32;
+import boofcv.struct.distort.Point2Transform2_F64;
+import boofcv.struct.geo.Point2D3D;
+import boofcv.struct.geo.PointIndex2D_F64;
+import boofcv.struct.image.ImageGray;
+import boofcv.struct.image.ImageType;
+import georegression.struct.point.Point2D_F32;
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.se.Se3_F64;
+import org.ddogleg.struct.FastQueue;
+
+import java.util.List;
+
+/**
+ * <p>
+ * Wrapper around a {@link FiducialDetector} which takes advantage of the fiducials barely moving between video
+ * frames.  Instead of processing the entire image, only regions around where fiducials were found in the previous
+ * frame are processed.  Each predicted region is the bounding box of the fiducial's control points, expanded
+ * by {@link #setRegionExpansion a fraction} of its size, and overlapping regions are merged together.  A full
+ * frame scan is done periodically so that new fiducials can be found and immediately after a fiducial was lost.
+ * </p>
+ *
+ * <p>
+ * One frame in every {@link #setFullScanPeriod full scan period} is a full scan and the others are processed
+ * by region.  The time taken by full scans is tracked so that the time saved by only processing regions can be
+ * estimated.
+ * </p>
+ *
+ * <p>
+ * Each region is copied into its own image and passed to the wrapped detector.  The wrapped detector's results are
+ * shifted back into the full image's coordinates.  The wrapped detector is given the same lens distortion model
+ * as this class, offset by the region's location, so that its results are the same as if the whole image had
+ * been processed.  3D pose is estimated from the tracked control points by the wrapped detector's pose estimator.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class TrackingFiducialDetector<T extends ImageGray<T>> extends FiducialDetectorPnP<T> {
+
+	// detector which is applied to the regions
+	private FiducialDetectorPnP<T> detector;
+
+	// a full scan is done at least once every this many frames
+	private int fullScanPeriod = 10;
+	// fraction of the previous bounding box's size that it's grown by on each side
+	private double regionExpansion = 0.5;
+	// minimum number of pixels a region is grown by on each side
+	private int minimumPadding = 10;
+
+	// number of frames since the last full scan
+	private int framesSinceFullScan;
+	// if true then a full scan will be done on the next frame
+	private boolean forceFullScan = true;
+	// if the most recent frame was processed with a full scan
+	private boolean fullScan;
+
+	// fiducials found in the most recent frame
+	private FastQueue<Detection> detections = new FastQueue<>(Detection.class, true);
+	// regions which are processed in the current frame
+	private FastQueue<ImageRectangle> regions = new FastQueue<>(ImageRectangle.class, true);
+
+	// the lens distortion model given to the wrapped detector.  null if there is no lens distortion
+	private RegionDistortion regionDistortion;
+
+	// storage for a region
+	private T regionImage;
+	private T subimage;
+
+	// fraction of pixels in the image which were processed in the most recent frame
+	private double fractionProcessed;
+	// processing time for the most recent frame.  milliseconds
+	private double timeLast;
+	// average processing time of a full scan.  milliseconds
+	private double averageFullScan;
+	// total time saved by processing regions instead of doing a full scan.  milliseconds
+	private double timeSaved;
+
+	/**
+	 * Specifies the detector being wrapped
+	 *
+	 * @param detector Fiducial detector.  If it has a lens distortion model then that model is used.
+	 */
+	public TrackingFiducialDetector(FiducialDetectorPnP<T> detector) {
+		this.detector = detector;
+		this.regionImage = detector.getInputType().createImage(1,1);
+		setLensDistortion(detector.getLensDistortion());
+	}
+
+	/**
+	 * Specifies the lens distortion model for this class and the wrapped detector
+	 */
+	@Override
+	public void setLensDistortion(LensDistortionNarrowFOV distortion) {
+		super.setLensDistortion(distortion);
+		if( distortion == null ) {
+			regionDistortion = null;
+			detector.setLensDistortion(null);
+		} else {
+			regionDistortion = new RegionDistortion(distortion);
+			detector.setLensDistortion(regionDistortion);
+		}
+	}
+
+	@Override
+	public void detect(T input) {
+		long before = System.nanoTime();
+
+		fullScan = forceFullScan || detections.size == 0 || framesSinceFullScan+1 >= fullScanPeriod;
+		if( fullScan ) {
+			framesSinceFullScan = 0;
+			detections.reset();
+			detector.detect(input);
+			addDetections(0, 0);
+			fractionProcessed = 1.0;
+			forceFullScan = false;
+		} else {
+			framesSinceFullScan++;
+			int expected = detections.size;
+			predictRegions(input.width, input.height);
+			detections.reset();
+
+			int totalPixels = 0;
+			for (int i = 0; i < regions.size; i++) {
+				ImageRectangle r = regions.get(i);
+				subimage = input.subimage(r.x0, r.y0, r.x1, r.y1, subimage);
+				regionImage.reshape(r.getWidth(), r.getHeight());
+				regionImage.setTo(subimage);
+
+				setRegionOffset(r.x0, r.y0);
+				detector.detect(regionImage);
+				addDetections(r.x0, r.y0);
+				totalPixels += r.area();
+			}
+			setRegionOffset(0, 0);
+			fractionProcessed = totalPixels/(double)(input.width*input.height);
+
+			// scan the whole image next time to find what was lost
+			forceFullScan = detections.size < expected;
+		}
+
+		timeLast = (System.nanoTime()-before)*1e-6;
+		if( fullScan ) {
+			averageFullScan = averageFullScan == 0 ? timeLast : 0.9*averageFullScan + 0.1*timeLast;
+		} else {
+			timeSaved += averageFullScan - timeLast;
+		}
+	}
+
+	private void setRegionOffset( int x , int y ) {
+		if( regionDistortion != null ) {
+			regionDistortion.offsetX = x;
+			regionDistortion.offsetY = y;
+		}
+	}
+
+	/**
+	 * Computes the regions that fiducials are expected to be inside of from the previous detections.  Regions which
+	 * overlap are merged so that a fiducial is only processed once.
+	 */
+	void predictRegions( int width , int height ) {
+		regions.reset();
+		for (int i = 0; i < detections.size; i++) {
+			ImageRectangle b = detections.get(i).bounds;
+			int padX = Math.max(minimumPadding, (int)(b.getWidth()*regionExpansion+0.5));
+			int padY = Math.max(minimumPadding, (int)(b.getHeight()*regionExpansion+0.5));
+
+			ImageRectangle r = regions.grow();
+			r.x0 = Math.max(0, b.x0-padX);
+			r.y0 = Math.max(0, b.y0-padY);
+			r.x1 = Math.min(width, b.x1+padX);
+			r.y1 = Math.min(height, b.y1+padY);
+			if( r.x0 >= r.x1 || r.y0 >= r.y1 )
+				regions.removeTail();
+		}
+
+		boolean merged = true;
+		while( merged ) {
+			merged = false;
+			for (int i = 0; i < regions.size && !merged; i++) {
+				ImageRectangle a = regions.get(i);
+				for (int j = i+1; j < regions.size; j++) {
+					ImageRectangle b = regions.get(j);
+					if( a.x0 < b.x1 && b.x0 < a.x1 && a.y0 < b.y1 && b.y0 < a.y1 ) {
+						a.set(Math.min(a.x0,b.x0), Math.min(a.y0,b.y0), Math.max(a.x1,b.x1), Math.max(a.y1,b.y1));
+						regions.remove(j);
+						merged = true;
+						break;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Copies the wrapped detector's results and shifts them into image coordinates.  A fiducial whose center is
+	 * inside of a fiducial which has already been found is ignored.
+	 */
+	private void addDetections( int offsetX , int offsetY ) {
+		for (int i = 0; i < detector.totalFound(); i++) {
+			Detection d = detections.grow();
+			detector.getImageLocation(i, d.location);
+			d.location.x += offsetX;
+			d.location.y += offsetY;
+
+			if( isDuplicate(d.location) ) {
+				detections.removeTail();
+				continue;
+			}
+
+			d.id = detector.getId(i);
+			d.message = detector.hasMessage() ? detector.getMessage(i) : null;
+			d.width = detector.getWidth(i);
+			d.controlScale = detector.getControlScale(i);
+
+			List<PointIndex2D_F64> pixels = detector.getDetectedControl(i);
+			List<Point2D3D> control = detector.getControl3D(i);
+
+			d.pixels.reset();
+			d.control3D.reset();
+			d.bounds.set(Integer.MAX_VALUE, Integer.MAX_VALUE, -Integer.MAX_VALUE, -Integer.MAX_VALUE);
+			for (int j = 0; j < pixels.size(); j++) {
+				PointIndex2D_F64 p = pixels.get(j);
+				PointIndex2D_F64 q = d.pixels.grow();
+				q.set(p.x+offsetX, p.y+offsetY);
+				q.index = p.index;
+
+				d.bounds.x0 = Math.min(d.bounds.x0, (int)Math.floor(q.x));
+				d.bounds.y0 = Math.min(d.bounds.y0, (int)Math.floor(q.y));
+				d.bounds.x1 = Math.max(d.bounds.x1, (int)Math.ceil(q.x)+1);
+				d.bounds.y1 = Math.max(d.bounds.y1, (int)Math.ceil(q.y)+1);
+			}
+			for (int j = 0; j < control.size(); j++) {
+				d.control3D.grow().location.set(control.get(j).location);
+			}
+		}
+	}
+
+	private boolean isDuplicate( Point2D_F64 location ) {
+		for (int i = 0; i < detections.size-1; i++) {
+			ImageRectangle b = detections.get(i).bounds;
+			if( location.x >= b.x0 && location.x < b.x1 && location.y >= b.y0 && location.y < b.y1 )
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Forgets all the previously found fiducials.  The next frame will be processed with a full scan.
+	 */
+	public void reset() {
+		detections.reset();
+		forceFullScan = true;
+		framesSinceFullScan = 0;
+		timeSaved = 0;
+		averageFullScan = 0;
+	}
+
+	@Override
+	public int totalFound() {
+		return detections.size;
+	}
+
+	@Override
+	public void getImageLocation(int which, Point2D_F64 location) {
+		location.set(detections.get(which).location);
+	}
+
+	@Override
+	public long getId(int which) {
+		return detections.get(which).id;
+	}
+
+	@Override
+	public String getMessage(int which) {
+		return detections.get(which).message;
+	}
+
+	@Override
+	public double getWidth(int which) {
+		return detections.get(which).width;
+	}
+
+	@Override
+	public double getControlScale(int which) {
+		return detections.get(which).controlScale;
+	}
+
+	/**
+	 * Uses the wrapped detector's pose estimator, which knows how its control points are described
+	 */
+	@Override
+	protected boolean estimatePose(List<Point2D3D> points, double controlScale, Se3_F64 fiducialToCamera) {
+		return detector.estimatePose(points, controlScale, fiducialToCamera);
+	}
+
+	@Override
+	public boolean hasUniqueID() {
+		return detector.hasUniqueID();
+	}
+
+	@Override
+	public boolean hasMessage() {
+		return detector.hasMessage();
+	}
+
+	@Override
+	public ImageType<T> getInputType() {
+		return detector.getInputType();
+	}
+
+	@Override
+	protected List<PointIndex2D_F64> getDetectedControl(int which) {
+		return detections.get(which).pixels.toList();
+	}
+
+	@Override
+	protected List<Point2D3D> getControl3D(int which) {
+		return detections.get(which).control3D.toList();
+	}
+
+	/**
+	 * Regions which were processed in the most recent frame.  Empty if it was a full scan.
+	 */
+	public FastQueue<ImageRectangle> getRegions() {
+		return regions;
+	}
+
+	/**
+	 * Bounding box of a fiducial's control points in the most recent frame
+	 */
+	public ImageRectangle getBounds( int which ) {
+		return detections.get(which).bounds;
+	}
+
+	/**
+	 * True if the entire image was processed in the most recent frame
+	 */
+	public boolean isFullScan() {
+		return fullScan;
+	}
+
+	/**
+	 * Fraction of the image's pixels which were processed in the most recent frame
+	 */
+	public double getFractionProcessed() {
+		return fractionProcessed;
+	}
+
+	/**
+	 * Processing time of the most recent frame in milliseconds
+	 */
+	public double getTimeLast() {
+		return timeLast;
+	}
+
+	/**
+	 * Average processing time of a full scan in milliseconds
+	 */
+	public double getAverageFullScan() {
+		return averageFullScan;
+	}
+
+	/**
+	 * Estimated total time saved by processing regions instead of the full image, in milliseconds.  Computed
+	 * using the average time of a full scan.
+	 */
+	public double getTimeSaved() {
+		return timeSaved;
+	}
+
+	public FiducialDetectorPnP<T> getDetector() {
+		return detector;
+	}
+
+	public int getFullScanPeriod() {
+		return fullScanPeriod;
+	}
+
+	/**
+	 * Specifies how often the full image is processed.
+	 *
+	 * @param fullScanPeriod A full scan is done once every this many frames.  1 = every frame.
+	 */
+	public void setFullScanPeriod(int fullScanPeriod) {
+		if( fullScanPeriod < 1 )
+			throw new IllegalArgumentException("Period must be at least 1");
+		this.fullScanPeriod = fullScanPeriod;
+	}
+
+	public double getRegionExpansion() {
+		return regionExpansion;
+	}
+
+	/**
+	 * Specifies how much larger a predicted region is than the fiducial's previous bounding box.
+	 *
+	 * @param regionExpansion Fraction of the bounding box's width and height added to each side.
+	 */
+	public void setRegionExpansion(double regionExpansion) {
+		this.regionExpansion = regionExpansion;
+	}
+
+	public int getMinimumPadding() {
+		return minimumPadding;
+	}
+
+	public void setMinimumPadding(int minimumPadding) {
+		this.minimumPadding = minimumPadding;
+	}
+
+	/**
+	 * Copy of a fiducial's detection results in image coordinates
+	 */
+	public static class Detection {
+		long id;
+		String message;
+		double width;
+		double controlScale;
+		Point2D_F64 location = new Point2D_F64();
+		FastQueue<PointIndex2D_F64> pixels = new FastQueue<>(PointIndex2D_F64.class, true);
+		FastQueue<Point2D3D> control3D = new FastQueue<>(Point2D3D.class, true);
+		ImageRectangle bounds = new ImageRectangle();
+	}
+
+	/**
+	 * Lens distortion model for a region inside the image.  Pixel coordinates are shifted by the region's offset
+	 * before and after the original model is applied.
+	 */
+	static class RegionDistortion implements LensDistortionNarrowFOV {
+		LensDistortionNarrowFOV original;
+		int offsetX, offsetY;
+
+		public RegionDistortion(LensDistortionNarrowFOV original) {
+			this.original = original;
+		}
+
+		@Override
+		public Point2Transform2_F64 distort_F64(boolean pixelIn, boolean pixelOut) {
+			return new Shift_F64(original.distort_F64(pixelIn, pixelOut), pixelIn, pixelOut);
+		}
+
+		@Override
+		public Point2Transform2_F32 distort_F32(boolean pixelIn, boolean pixelOut) {
+			return new Shift_F32(original.distort_F32(pixelIn, pixelOut), pixelIn, pixelOut);
+		}
+
+		@Override
+		public Point2Transform2_F64 undistort_F64(boolean pixelIn, boolean pixelOut) {
+			return new Shift_F64(original.undistort_F64(pixelIn, pixelOut), pixelIn, pixelOut);
+		}
+
+		@Override
+		public Point2Transform2_F32 undistort_F32(boolean pixelIn, boolean pixelOut) {
+			return new Shift_F32(original.undistort_F32(pixelIn, pixelOut), pixelIn, pixelOut);
+		}
+
+		class Shift_F64 implements Point2Transform2_F64 {
+			Point2Transform2_F64 transform;
+			boolean pixelIn, pixelOut;
+
+			public Shift_F64(Point2Transform2_F64 transform, boolean pixelIn, boolean pixelOut) {
+				this.transform = transform;
+				this.pixelIn = pixelIn;
+				this.pixelOut = pixelOut;
+			}
+
+			@Override
+			public void compute(double x, double y, Point2D_F64 out) {
+				if( pixelIn ) {
+					x += offsetX;
+					y += offsetY;
+				}
+				transform.compute(x, y, out);
+				if( pixelOut ) {
+					out.x -= offsetX;
+					out.y -= offsetY;
+				}
+			}
+		}
+
+		class Shift_F32 implements Point2Transform2_F32 {
+			Point2Transform2_F32 transform;
+			boolean pixelIn, pixelOut;
+
+			public Shift_F32(Point2Transform2_F32 transform, boolean pixelIn, boolean pixelOut) {
+				this.transform = transform;
+				this.pixelIn = pixelIn;
+				this.pixelOut = pixelOut;
+			}
+
+			@Override
+			public void compute(float x, float y, Point2D_F32 out) {
+				if( pixelIn ) {
+					x += offsetX;
+					y += offsetY;
+				}
+				transform.compute(x, y, out);
+				if( pixelOut ) {
+					out.x -= offsetX;
+					out.y -= offsetY;
+				}
+			}
+		}
+	}
+}
@@ -24,6 +24,8 @@ import boofcv.alg.distort.*;
 import boofcv.alg.geo.h.HomographyLinear4;
 import boofcv.alg.interpolate.InterpolatePixelS;
 import boofcv.alg.shapes.polygon.BinaryPolygonDetector;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeObjectConsumer;
 import boofcv.core.image.border.BorderType;
 import boofcv.core.image.border.FactoryImageBorder;
 import boofcv.factory.distort.FactoryDistort;
@@ -62,6 +64,12 @@ import java.util.List;
  * </p>
  *
  * <p>
+ * Each candidate is processed independently and can optionally be processed concurrently, see
+ * {@link #setConcurrent}.  Before removing perspective distortion candidates are quickly checked by sampling
+ * the center of their border in the input image, allowing obviously bad candidates to be discarded early.
+ * </p>
+ *
+ * <p>
  * Target orientation. Corner 0 = (-r,r), 1 = (r,r) , 2 = (r,-r) , 3 = (-r,-r).
  * </p>
  *
@@ -84,25 +92,18 @@ public abstract class BaseDetectFiducialSquare<T extends ImageGray<T>> {
 	// storage for binary image
 	GrayU8 binary = new GrayU8(1,1);
 
-	// Used to compute/remove perspective distortion
-	private HomographyLinear4 computeHomography = new HomographyLinear4(true);
-	private RefineEpipolar refineHomography = FactoryMultiView.refineHomography(1e-4,100, EpipolarError.SAMPSON);
-	private DMatrixRMaj H = new DMatrixRMaj(3,3);
-	private DMatrixRMaj H_refined = new DMatrixRMaj(3,3);
-	private Homography2D_F64 H_fixed = new Homography2D_F64();
-	private List<AssociatedPair> pairsRemovePerspective = new ArrayList<>();
-	private ImageDistort<T,GrayF32> removePerspective;
-	private PointTransformHomography_F32 transformHomography = new PointTransformHomography_F32();
-
+	// Lens distortion model.  null if there is no lens distortion
+	private LensDistortionNarrowFOV distortion;
 	private Point2Transform2_F64 undistToDist = new DoNothing2Transform2_F64();
 
 	// How wide the border is relative to the fiducial's total width
 	protected double borderWidthFraction;
 	// the minimum fraction of border pixels which must be black for it to be considered a fiducial
 	private double minimumBorderBlackFraction;
-
-	// Storage for results of fiducial reading
-	private Result result = new Result();
+	// A candidate is rejected before perspective is removed if the fraction of sampled border points which are
+	// black is less than this fraction of minimumBorderBlackFraction.  Points are only sampled along the center
+	// of the border, which is less sensitive to errors in the corners, so it can be relaxed.
+	protected double preRejectFraction = 0.5;
 
 	// type of input image
 	private Class<T> inputType;
@@ -110,6 +111,22 @@ public abstract class BaseDetectFiducialSquare<T extends ImageGray<T>> {
 	// verbose debugging output
 	protected boolean verbose = false;
 
+	// If true then candidates are processed concurrently
+	protected boolean concurrent = false;
+
+	// Results for each candidate.  Merged in order after all the candidates have been processed
+	private FastQueue<Candidate> candidates = new FastQueue<Candidate>(Candidate.class,true) {
+		@Override
+		protected Candidate createInstance() {
+			return new Candidate();
+		}
+	};
+
+	// Storage used when processing with a single thread.  Squares are decoded with processSquare()
+	Workspace workspace;
+	// Storage for each thread.  Squares are decoded with a decoder from createDecoder().  Declared when needed
+	private FastQueue<Workspace> workspaces;
+
 	/**
 	 * Configures the detector.
 	 *
@@ -142,20 +159,14 @@ public abstract class BaseDetectFiducialSquare<T extends ImageGray<T>> {
 		this.inputToBinary = inputToBinary;
 		this.squareDetector = squareDetector;
 		this.inputType = inputType;
-		this.square = new GrayF32(squarePixels,squarePixels);
-
-		for (int i = 0; i < 4; i++) {
-			pairsRemovePerspective.add(new AssociatedPair());
-		}
-
-		// this combines two separate sources of distortion together so that it can be removed in the final image which
-		// is sent to fiducial decoder
-		InterpolatePixelS<T> interp = FactoryInterpolation.nearestNeighborPixelS(inputType);
-		interp.setBorder(FactoryImageBorder.single(inputType, BorderType.EXTENDED));
-		removePerspective = FactoryDistort.distortSB(false, interp, GrayF32.class);
 
-		// if no camera parameters is specified default to this
-		removePerspective.setModel(new PointToPixelTransform_F32(transformHomography));
+		workspace = new Workspace(squarePixels, new SquareDecoder() {
+			@Override
+			public boolean processSquare(GrayF32 square, Result result, double edgeInside, double edgeOutside) {
+				return BaseDetectFiducialSquare.this.processSquare(square, result, edgeInside, edgeOutside);
+			}
+		});
+		this.square = workspace.square;
 	}
 
 	/**
@@ -168,7 +179,6 @@ public abstract class BaseDetectFiducialSquare<T extends ImageGray<T>> {
 	 *              if no lens distortion
 	 */
 	public void configure(LensDistortionNarrowFOV distortion, int width , int height , boolean cache ) {
-		Point2Transform2_F32 pointSquareToInput;
 		Point2Transform2_F32 pointDistToUndist = distortion.undistort_F32(true,true);
 		Point2Transform2_F32 pointUndistToDist = distortion.distort_F32(true,true);
 		PixelTransform2_F32 distToUndist = new PointToPixelTransform_F32(pointDistToUndist);
@@ -181,104 +191,205 @@ public abstract class BaseDetectFiducialSquare<T extends ImageGray<T>> {
 
 		squareDetector.setLensDistortion(width, height,distToUndist,undistToDist);
 
-		pointSquareToInput = new SequencePoint2Transform2_F32(transformHomography,pointUndistToDist);
-
-		// provide intrinsic camera parameters
-		PixelTransform2_F32 squareToInput= new PointToPixelTransform_F32(pointSquareToInput);
-		removePerspective.setModel(squareToInput);
+		// provide intrinsic camera parameters.  Each thread gets its own copy of the transforms since they
+		// have internal storage
+		this.distortion = distortion;
+		workspace.setDistortion(distortion);
+		workspaces = null;
 
 		this.undistToDist = distortion.distort_F64(true,true);
 	}
 
-	private Polygon2D_F64 interpolationHack = new Polygon2D_F64(4);
-	private Quadrilateral_F64 q = new Quadrilateral_F64(); // interpolation hack in quadrilateral format
 	/**
 	 * Examines the input image to detect fiducials inside of it
 	 *
 	 * @param gray Undistorted input image
 	 */
-	public void process( T gray ) {
+	public void process( final T gray ) {
 		binary.reshape(gray.width,gray.height);
 
 		inputToBinary.process(gray,binary);
 		squareDetector.process(gray,binary);
 		// These are in undistorted pixels
-		FastQueue<Polygon2D_F64> candidates = squareDetector.getFoundPolygons();
+		final FastQueue<Polygon2D_F64> polygons = squareDetector.getFoundPolygons();
 
 		found.reset();
 
-		if( verbose ) System.out.println("---------- Got Polygons! "+candidates.size);
+		if( verbose ) System.out.println("---------- Got Polygons! "+polygons.size);
 
-		for (int i = 0; i < candidates.size; i++) {
-			// compute the homography from the input image to an undistorted square image
-			Polygon2D_F64 p = candidates.get(i);
-
-			// REMOVE EVENTUALLY  This is a hack around how interpolation is performed
-			// Using a surface integral instead would remove the need for this.  Basically by having it start
-			// interpolating from the lower extent it samples inside the image more
-			// A good unit test to see if this hack is no longer needed is to rotate the order of the polygon and
-			// see if it returns the same undistorted image each time
-			double best=Double.MAX_VALUE;
-			for (int j = 0; j < 4; j++) {
-				double found = p.get(0).normSq();
-				if( found < best ) {
-					best = found;
-					interpolationHack.set(p);
+		candidates.resize(polygons.size);
+
+		// each candidate is independent and only modifies its own results
+		if( concurrent && createWorkspaces() ) {
+			BoofConcurrency.loopBlocks(0, polygons.size, workspaces, new IntRangeObjectConsumer<Workspace>() {
+				@Override
+				public void accept(Workspace w, int index0, int index1) {
+					for (int i = index0; i < index1; i++) {
+						processCandidate(w, gray, polygons.get(i), i, candidates.get(i));
+					}
 				}
-				UtilPolygons2D_F64.shiftDown(p);
+			});
+		} else {
+			for (int i = 0; i < polygons.size; i++) {
+				processCandidate(workspace, gray, polygons.get(i), i, candidates.get(i));
 			}
+		}
 
-			UtilPolygons2D_F64.convert(interpolationHack,q);
+		for (int i = 0; i < candidates.size; i++) {
+			Candidate c = candidates.get(i);
+			if( c.accepted )
+				prepareForOutput(c.q,c.result);
+		}
+	}
 
-			// remember, visual clockwise isn't the same as math clockwise, hence
-			// counter clockwise visual to the clockwise quad
-			pairsRemovePerspective.get(0).set(0, 0, q.a.x, q.a.y);
-			pairsRemovePerspective.get(1).set( square.width ,      0        , q.b.x , q.b.y );
-			pairsRemovePerspective.get(2).set( square.width , square.height , q.c.x , q.c.y );
-			pairsRemovePerspective.get(3).set( 0            , square.height , q.d.x , q.d.y );
+	/**
+	 * Declares the workspace for each thread if it hasn't already been declared.
+	 *
+	 * @return false if squares can't be decoded concurrently
+	 */
+	private boolean createWorkspaces() {
+		if( workspaces != null )
+			return true;
+		if( createDecoder() == null )
+			return false;
+
+		workspaces = new FastQueue<Workspace>((Class)Workspace.class,true) {
+			@Override
+			protected Workspace createInstance() {
+				Workspace w = new Workspace(square.width, createDecoder());
+				w.setDistortion(distortion);
+				return w;
+			}
+		};
+		return true;
+	}
 
-			if( !computeHomography.process(pairsRemovePerspective,H) ) {
-				if( verbose ) System.out.println("rejected initial homography");
-				continue;
+	/**
+	 * Removes perspective distortion from a single candidate and decodes it
+	 *
+	 * @param w Workspace for the thread
+	 * @param gray Input image
+	 * @param p The candidate polygon. The order of its vertices is modified but restored.
+	 * @param index Index of the candidate
+	 * @param c (Output) results for the candidate
+	 */
+	private void processCandidate( Workspace w , T gray , Polygon2D_F64 p , int index , Candidate c ) {
+		c.accepted = false;
+
+		// REMOVE EVENTUALLY  This is a hack around how interpolation is performed
+		// Using a surface integral instead would remove the need for this.  Basically by having it start
+		// interpolating from the lower extent it samples inside the image more
+		// A good unit test to see if this hack is no longer needed is to rotate the order of the polygon and
+		// see if it returns the same undistorted image each time
+		double best=Double.MAX_VALUE;
+		for (int j = 0; j < 4; j++) {
+			double found = p.get(0).normSq();
+			if( found < best ) {
+				best = found;
+				w.interpolationHack.set(p);
 			}
+			UtilPolygons2D_F64.shiftDown(p);
+		}
+
+		Quadrilateral_F64 q = c.q;
+		UtilPolygons2D_F64.convert(w.interpolationHack,q);
+
+		// remember, visual clockwise isn't the same as math clockwise, hence
+		// counter clockwise visual to the clockwise quad
+		GrayF32 square = w.square;
+		List<AssociatedPair> pairs = w.pairsRemovePerspective;
+		pairs.get(0).set(0, 0, q.a.x, q.a.y);
+		pairs.get(1).set( square.width ,      0        , q.b.x , q.b.y );
+		pairs.get(2).set( square.width , square.height , q.c.x , q.c.y );
+		pairs.get(3).set( 0            , square.height , q.d.x , q.d.y );
+
+		if( !w.computeHomography.process(pairs,w.H) ) {
+			if( verbose ) System.out.println("rejected initial homography");
+			return;
+		}
+
+		BinaryPolygonDetector.Info info = squareDetector.getPolygonInfo().get(index);
+		double pixelThreshold = (info.edgeInside + info.edgeOutside) / 2;
 
-			// refine homography estimate
-			if( !refineHomography.fitModel(pairsRemovePerspective,H,H_refined) ) {
-				if( verbose ) System.out.println("rejected refine homography");
-				continue;
+		// quickly reject candidates without a black border before the expensive steps below
+		if( minimumBorderBlackFraction > 0 ) {
+			w.setHomography(w.H);
+			double foundFraction = sampleFractionBoundary(w, gray, (float) pixelThreshold);
+			if( foundFraction < minimumBorderBlackFraction*preRejectFraction ) {
+				if( verbose ) System.out.println("pre-rejected black border fraction "+foundFraction);
+				return;
 			}
+		}
 
-			// pass the found homography onto the image transform
-			ConvertDMatrixStruct.convert(H_refined,H_fixed);
-			ConvertFloatType.convert(H_fixed, transformHomography.getModel());
+		// refine homography estimate
+		if( !w.refineHomography.fitModel(pairs,w.H,w.H_refined) ) {
+			if( verbose ) System.out.println("rejected refine homography");
+			return;
+		}
 
-			// TODO Improve how perspective is removed
-			// The current method introduces artifacts.  If the "square" is larger
-			// than the detected region and bilinear interpolation is used then pixels outside will// influence the
-			// value of pixels inside and shift things over.  this is all bad
+		// pass the found homography onto the image transform
+		w.setHomography(w.H_refined);
 
-			// remove the perspective distortion and process it
-			removePerspective.apply(gray, square);
+		// TODO Improve how perspective is removed
+		// The current method introduces artifacts.  If the "square" is larger
+		// than the detected region and bilinear interpolation is used then pixels outside will// influence the
+		// value of pixels inside and shift things over.  this is all bad
 
-			BinaryPolygonDetector.Info info = squareDetector.getPolygonInfo().get(i);
+		// remove the perspective distortion and process it
+		w.removePerspective.apply(gray, square);
 
-			// see if the black border is actually black
-			if( minimumBorderBlackFraction > 0 ) {
-				double pixelThreshold = (info.edgeInside + info.edgeOutside) / 2;
-				double foundFraction = computeFractionBoundary((float) pixelThreshold);
-				if( foundFraction < minimumBorderBlackFraction ) {
-					if( verbose ) System.out.println("rejected black border fraction "+foundFraction);
-					continue;
-				}
+		// see if the black border is actually black
+		if( minimumBorderBlackFraction > 0 ) {
+			double foundFraction = computeFractionBoundary(square, (float) pixelThreshold);
+			if( foundFraction < minimumBorderBlackFraction ) {
+				if( verbose ) System.out.println("rejected black border fraction "+foundFraction);
+				return;
 			}
-			if( processSquare(square,result,info.edgeInside,info.edgeOutside)) {
-				prepareForOutput(q,result);
+		}
+		c.result.matchDistance = -1;
+		if( w.decoder.processSquare(square,c.result,info.edgeInside,info.edgeOutside)) {
+			c.accepted = true;
+			if( verbose ) System.out.println("accepted!");
+		} else {
+			if( verbose ) System.out.println("rejected process square");
+		}
+	}
 
-				if( verbose ) System.out.println("accepted!");
-			} else {
-				if( verbose ) System.out.println("rejected process square");
-			}
+	/**
+	 * Samples points along the center of the border in the input image and computes the fraction which are black.
+	 * Much faster than removing perspective distortion from the whole square.
+	 *
+	 * @param pixelThreshold Pixel's less than this value are considered black
+	 * @return fraction of sampled points that are black
+	 */
+	double sampleFractionBoundary( Workspace w , T gray , float pixelThreshold ) {
+		final int width = w.square.width;
+		final int radius = (int) (width * borderWidthFraction);
+		final int center0 = radius/2;
+		final int center1 = width - 1 - radius/2;
+		final int samples = 8;
+
+		w.sampler.setImage(gray);
+
+		int count = 0;
+		for (int i = 0; i < samples; i++) {
+			// top and bottom
+			int x = (2*i + 1)*width/(2*samples);
+			if( isSampleBlack(w, x, center0, pixelThreshold)) count++;
+			if( isSampleBlack(w, x, center1, pixelThreshold)) count++;
+
+			// left and right, excluding the corners which were already sampled
+			int y = radius + (2*i + 1)*(width-2*radius)/(2*samples);
+			if( isSampleBlack(w, center0, y, pixelThreshold)) count++;
+			if( isSampleBlack(w, center1, y, pixelThreshold)) count++;
 		}
+
+		return count/(double)(4*samples);
+	}
+
+	private boolean isSampleBlack( Workspace w , int x , int y , float pixelThreshold ) {
+		w.squareToInput.compute(x,y);
+		return w.sampler.get(w.squareToInput.distX, w.squareToInput.distY) < pixelThreshold;
 	}
 
 	/**
@@ -287,6 +398,16 @@ public abstract class BaseDetectFiducialSquare<T extends ImageGray<T>> {
 	 * @return fraction of border that's black
 	 */
 	protected double computeFractionBoundary( float pixelThreshold ) {
+		return computeFractionBoundary(square, pixelThreshold);
+	}
+
+	/**
+	 * Computes the fraction of pixels inside the image border which are black
+	 * @param square Image of the undistorted square
+	 * @param pixelThreshold Pixel's less than this value are considered black
+	 * @return fraction of border that's black
+	 */
+	protected double computeFractionBoundary( GrayF32 square , float pixelThreshold ) {
 		// TODO ignore outer pixels from this computation.  Will require 8 regions (4 corners + top/bottom + left/right)
 		final int w = square.width;
 		int radius = (int) (w * borderWidthFraction);
@@ -337,6 +458,7 @@ public abstract class BaseDetectFiducialSquare<T extends ImageGray<T>> {
 		// save the results for output
 		FoundFiducial f = found.grow();
 		f.id = result.which;
+		f.matchDistance = result.matchDistance;
 
 		undistToDist.compute(imageShape.a.x, imageShape.a.y, f.distortedPixels.a);
 		undistToDist.compute(imageShape.b.x, imageShape.b.y, f.distortedPixels.b);
@@ -378,6 +500,16 @@ public abstract class BaseDetectFiducialSquare<T extends ImageGray<T>> {
 	 */
 	protected abstract boolean processSquare(GrayF32 square , Result result , double edgeInside , double edgeOutside  );
 
+	/**
+	 * Creates a new decoder which will be used by a single thread when candidates are processed concurrently.  The
+	 * decoder must not share any storage with this detector, other than read only configuration.  By default null
+	 * is returned, which means squares can't be decoded concurrently and all candidates will be processed by
+	 * a single thread.
+	 */
+	protected SquareDecoder createDecoder() {
+		return null;
+	}
+
 	/**
 	 * Used to toggle on/off verbose debugging information
 	 * @param verbose true for verbose output
@@ -402,6 +534,98 @@ public abstract class BaseDetectFiducialSquare<T extends ImageGray<T>> {
 		return borderWidthFraction;
 	}
 
+	public boolean isConcurrent() {
+		return concurrent;
+	}
+
+	/**
+	 * If true then candidate squares are rectified and decoded concurrently.  Requires that {@link #createDecoder()}
+	 * is implemented.  Results are identical to processing with a single thread.
+	 */
+	public void setConcurrent(boolean concurrent) {
+		this.concurrent = concurrent;
+	}
+
+	/**
+	 * Decodes the undistorted image of a square.  See {@link #processSquare}.
+	 */
+	public interface SquareDecoder {
+		boolean processSquare(GrayF32 square , Result result , double edgeInside , double edgeOutside );
+	}
+
+	/**
+	 * Results for a single candidate
+	 */
+	static class Candidate {
+		boolean accepted;
+		Quadrilateral_F64 q = new Quadrilateral_F64();
+		Result result = new Result();
+	}
+
+	/**
+	 * Storage used to remove perspective distortion and decode a candidate.  One for each thread.
+	 */
+	class Workspace {
+		// Used to compute/remove perspective distortion
+		HomographyLinear4 computeHomography = new HomographyLinear4(true);
+		RefineEpipolar refineHomography = FactoryMultiView.refineHomography(1e-4,100, EpipolarError.SAMPSON);
+		DMatrixRMaj H = new DMatrixRMaj(3,3);
+		DMatrixRMaj H_refined = new DMatrixRMaj(3,3);
+		Homography2D_F64 H_fixed = new Homography2D_F64();
+		List<AssociatedPair> pairsRemovePerspective = new ArrayList<>();
+		ImageDistort<T,GrayF32> removePerspective;
+		PointTransformHomography_F32 transformHomography = new PointTransformHomography_F32();
+		// transform from square pixels to input pixels
+		PixelTransform2_F32 squareToInput;
+
+		// used to sample the input image when pre-rejecting candidates
+		InterpolatePixelS<T> sampler;
+
+		// image with lens and perspective distortion removed from it
+		GrayF32 square;
+
+		Polygon2D_F64 interpolationHack = new Polygon2D_F64(4);
+
+		SquareDecoder decoder;
+
+		Workspace( int squarePixels , SquareDecoder decoder ) {
+			this.square = new GrayF32(squarePixels,squarePixels);
+			this.decoder = decoder;
+
+			for (int i = 0; i < 4; i++) {
+				pairsRemovePerspective.add(new AssociatedPair());
+			}
+
+			// this combines two separate sources of distortion together so that it can be removed in the final image
+			// which is sent to fiducial decoder
+			InterpolatePixelS<T> interp = FactoryInterpolation.nearestNeighborPixelS(inputType);
+			interp.setBorder(FactoryImageBorder.single(inputType, BorderType.EXTENDED));
+			removePerspective = FactoryDistort.distortSB(false, interp, GrayF32.class);
+
+			sampler = FactoryInterpolation.nearestNeighborPixelS(inputType);
+			sampler.setBorder(FactoryImageBorder.single(inputType, BorderType.EXTENDED));
+
+			// if no camera parameters is specified default to this
+			setDistortion(null);
+		}
+
+		void setDistortion( LensDistortionNarrowFOV distortion ) {
+			if( distortion == null ) {
+				squareToInput = new PointToPixelTransform_F32(transformHomography);
+			} else {
+				Point2Transform2_F32 pointUndistToDist = distortion.distort_F32(true,true);
+				squareToInput = new PointToPixelTransform_F32(
+						new SequencePoint2Transform2_F32(transformHomography,pointUndistToDist));
+			}
+			removePerspective.setModel(squareToInput);
+		}
+
+		void setHomography( DMatrixRMaj H ) {
+			ConvertDMatrixStruct.convert(H,H_fixed);
+			ConvertFloatType.convert(H_fixed, transformHomography.getModel());
+		}
+	}
+
 	public static class Result {
 		int which;
 		// length of one of the sides in world units
@@ -410,5 +634,7 @@ public abstract class BaseDetectFiducialSquare<T extends ImageGray<T>> {
 		// Just to make things confusion, the rotation is done in the visual clockwise, which
 		// is a counter-clockwise rotation when you look at the actual coordinates
 		int rotation;
+		// distance between the square and the target it matched.  Smaller is better. -1 if not computed
+		int matchDistance;
 	}
 }
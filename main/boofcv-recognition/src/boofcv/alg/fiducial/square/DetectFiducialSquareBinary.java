@@ -62,13 +62,8 @@ import java.util.Arrays;
 public class DetectFiducialSquareBinary<T extends ImageGray<T>>
 		extends BaseDetectFiducialSquare<T> {
 
-	// helper data structures for computing the value of each grid element
-	int[] counts, classified, tmp;
-
-	// converts the input image into a binary one
-	private GrayU8 binaryInner = new GrayU8(1,1);
-	// storage for no border sub-image
-	private GrayF32 grayNoBorder = new GrayF32();
+	// decodes squares when processing with a single thread
+	private Decoder decoder;
 
 	// number of rows/columns in the encoded binary pattern
 	private int gridWidth;
@@ -110,37 +105,17 @@ public class DetectFiducialSquareBinary<T extends ImageGray<T>>
 			throw new IllegalArgumentException("The grid must be at least 3 and at most 8 elements wide");
 
 		this.gridWidth = gridWidth;
-		binaryInner.reshape(w * gridWidth,w * gridWidth);
-		counts = new int[getTotalGridElements()];
-		classified = new int[getTotalGridElements()];
-		tmp = new int[getTotalGridElements()];
+		decoder = new Decoder();
 	}
 
 	@Override
 	protected boolean processSquare(GrayF32 gray, Result result, double edgeInside, double edgeOutside) {
-		int off = (gray.width - binaryInner.width) / 2;
-		gray.subimage(off, off, off + binaryInner.width, off + binaryInner.width, grayNoBorder);
-
-		// convert input image into binary number
-		double threshold = (edgeInside+edgeOutside)/2;
-		findBitCounts(grayNoBorder,threshold);
-
-		if (thresholdBinaryNumber()) {
-			if( verbose ) System.out.println("  can't threshold binary, ambiguous");
-			return false;
-		}
-		
-		// adjust the orientation until the black corner is in the lower left
-		if (rotateUntilInLowerCorner(result)) {
-			if( verbose ) System.out.println("  rotate to corner failed");
-			return false;
-		}
-
-		result.which = extractNumeral();
-		result.lengthSide = lengthSide;
+		return decoder.processSquare(gray, result, edgeInside, edgeOutside);
+	}
 
-		//printClassified();
-		return true;
+	@Override
+	protected SquareDecoder createDecoder() {
+		return new Decoder();
 	}
 
 	/**
@@ -148,100 +123,19 @@ public class DetectFiducialSquareBinary<T extends ImageGray<T>>
 	 * @return the int value of the numeral.
 	 */
 	protected int extractNumeral() {
-		int val = 0;
-		final int topLeft = getTotalGridElements() - gridWidth;
-		int shift = 0;
-
-		// -2 because the top and bottom rows have 2 unusable bits (the first and last)
-		for(int i = 1; i < gridWidth - 1; i++) {
-			final int idx = topLeft + i;
-			val |= classified[idx] << shift;
-			//System.out.println("val |= classified[" + idx + "] << " + shift + ";");
-			shift++;
-		}
-
-		// Don't do the first or last row, handled above and below - special cases
-		for(int ii = 1; ii < gridWidth - 1; ii++) {
-			for(int i = 0; i < gridWidth; i++) {
-				final int idx = getTotalGridElements() - (gridWidth * (ii + 1)) + i;
-				val |= classified[idx] << shift;
-				//  System.out.println("val |= classified[" + idx + "] << " + shift + ";");
-				shift++;
-			}
-		}
-
-		// The last row
-		for(int i = 1; i < gridWidth - 1; i++) {
-			val |= classified[i] << shift;
-			//System.out.println("val |= classified[" + i + "] << " + shift + ";");
-			shift++;
-		}
-
-		return val;
-	}
-
-	/**
-	 * Rotate the pattern until the black corner is in the lower right.  Sanity check to make
-	 * sure there is only one black corner
-	 */
-	private boolean rotateUntilInLowerCorner(Result result) {
-		// sanity check corners.  There should only be one exactly one black
-		final int topLeft = getTotalGridElements() - gridWidth;
-		final int topRight = getTotalGridElements() - 1;
-		final int bottomLeft = 0;
-		final int bottomRight = gridWidth - 1;
-
-		if (classified[bottomLeft] + classified[bottomRight] + classified[topRight] + classified[topLeft] != 1)
-			return true;
-
-		// Rotate until the black corner is in the lower left hand corner on the image.
-		// remember that origin is the top left corner
-		result.rotation = 0;
-		while (classified[topLeft] != 1) {
-			result.rotation++;
-			rotateClockWise();
-		}
-		return false;
+		return decoder.extractNumeral();
 	}
 
 	protected void rotateClockWise() {
-
-		final int totalElements = getTotalGridElements();
-
-		// Swap the four corners
-		for (int ii = 0; ii < gridWidth; ii++) {
-			for (int i = 0; i < gridWidth; i++) {
-				final int fromIdx = ii * gridWidth + i;
-				final int toIdx = (totalElements - (gridWidth * (i + 1))) + ii;
-				tmp[fromIdx] = classified[toIdx];
-			}
-		}
-
-		System.arraycopy(tmp, 0, classified, 0, totalElements);
+		decoder.rotateClockWise();
 	}
 
-
 	/**
 	 * Sees how many pixels were positive and negative in each square region.  Then decides if they
 	 * should be 0 or 1 or unknown
 	 */
 	protected boolean thresholdBinaryNumber() {
-
-		int lower = (int) (N * (ambiguityThreshold / 2.0));
-		int upper = (int) (N * (1 - ambiguityThreshold / 2.0));
-
-		final int totalElements = getTotalGridElements();
-		for (int i = 0; i < totalElements; i++) {
-			if (counts[i] < lower) {
-				classified[i] = 0;
-			} else if (counts[i] > upper) {
-				classified[i] = 1;
-			} else {
-				// it's ambiguous so just fail
-				return true;
-			}
-		}
-		return false;
+		return decoder.thresholdBinaryNumber();
 	}
 
 	/**
@@ -249,28 +143,7 @@ public class DetectFiducialSquareBinary<T extends ImageGray<T>>
 	 * tend to be incorrectly classified due to distortion.
 	 */
 	protected void findBitCounts(GrayF32 gray , double threshold ) {
-		// compute binary image using an adaptive algorithm to handle shadows
-		ThresholdImageOps.threshold(gray,binaryInner,(float)threshold,true);
-
-		Arrays.fill(counts, 0);
-		for (int row = 0; row < gridWidth; row++) {
-			int y0 = row * binaryInner.width / gridWidth + 1;
-			int y1 = (row + 1) * binaryInner.width / gridWidth - 1;
-			for (int col = 0; col < gridWidth; col++) {
-				int x0 = col * binaryInner.width / gridWidth + 1;
-				int x1 = (col + 1) * binaryInner.width / gridWidth - 1;
-
-				int total = 0;
-				for (int i = y0; i < y1; i++) {
-					int index = i * binaryInner.width + x0;
-					for (int j = x0; j < x1; j++) {
-						total += binaryInner.data[index++];
-					}
-				}
-
-				counts[row * gridWidth + col] = total;
-			}
-		}
+		decoder.findBitCounts(gray, threshold);
 	}
 
 	public void setLengthSide(final double lengthSide) {
@@ -307,10 +180,10 @@ public class DetectFiducialSquareBinary<T extends ImageGray<T>>
 	}
 
 	// For troubleshooting.
-	public GrayF32 getGrayNoBorder() { return grayNoBorder; }
+	public GrayF32 getGrayNoBorder() { return decoder.grayNoBorder; }
 
 	public GrayU8 getBinaryInner() {
-		return binaryInner;
+		return decoder.binaryInner;
 	}
 
 	// This is only works well as a visual representation if the output font is mono spaced.
@@ -320,7 +193,7 @@ public class DetectFiducialSquareBinary<T extends ImageGray<T>>
 		for (int row = 0; row < gridWidth; row++) {
 			System.out.print(" ");
 			for (int col = 0; col < gridWidth; col++) {
-				System.out.print(classified[row * gridWidth + col] == 1 ? " " : "X");
+				System.out.print(decoder.classified[row * gridWidth + col] == 1 ? " " : "X");
 			}
 			System.out.print(" ");
 			System.out.println();
@@ -328,5 +201,177 @@ public class DetectFiducialSquareBinary<T extends ImageGray<T>>
 		System.out.println("      ");
 
 	}
-}
 
+	/**
+	 * Decodes the binary pattern inside a square.  Contains all the storage which is modified while decoding so that
+	 * each thread can have its own instance.
+	 */
+	class Decoder implements SquareDecoder {
+		// helper data structures for computing the value of each grid element
+		int[] counts = new int[getTotalGridElements()];
+		int[] classified = new int[getTotalGridElements()];
+		int[] tmp = new int[getTotalGridElements()];
+
+		// converts the input image into a binary one
+		GrayU8 binaryInner = new GrayU8(w * gridWidth,w * gridWidth);
+		// storage for no border sub-image
+		GrayF32 grayNoBorder = new GrayF32();
+
+		@Override
+		public boolean processSquare(GrayF32 gray, Result result, double edgeInside, double edgeOutside) {
+			int off = (gray.width - binaryInner.width) / 2;
+			gray.subimage(off, off, off + binaryInner.width, off + binaryInner.width, grayNoBorder);
+
+			// convert input image into binary number
+			double threshold = (edgeInside+edgeOutside)/2;
+			findBitCounts(grayNoBorder,threshold);
+
+			if (thresholdBinaryNumber()) {
+				if( verbose ) System.out.println("  can't threshold binary, ambiguous");
+				return false;
+			}
+
+			// adjust the orientation until the black corner is in the lower left
+			if (rotateUntilInLowerCorner(result)) {
+				if( verbose ) System.out.println("  rotate to corner failed");
+				return false;
+			}
+
+			result.which = extractNumeral();
+			result.lengthSide = lengthSide;
+
+			//printClassified();
+			return true;
+		}
+
+		/**
+		 * Extract the numerical value it encodes
+		 * @return the int value of the numeral.
+		 */
+		int extractNumeral() {
+			int val = 0;
+			final int topLeft = getTotalGridElements() - gridWidth;
+			int shift = 0;
+
+			// -2 because the top and bottom rows have 2 unusable bits (the first and last)
+			for(int i = 1; i < gridWidth - 1; i++) {
+				final int idx = topLeft + i;
+				val |= classified[idx] << shift;
+				//System.out.println("val |= classified[" + idx + "] << " + shift + ";");
+				shift++;
+			}
+
+			// Don't do the first or last row, handled above and below - special cases
+			for(int ii = 1; ii < gridWidth - 1; ii++) {
+				for(int i = 0; i < gridWidth; i++) {
+					final int idx = getTotalGridElements() - (gridWidth * (ii + 1)) + i;
+					val |= classified[idx] << shift;
+					//  System.out.println("val |= classified[" + idx + "] << " + shift + ";");
+					shift++;
+				}
+			}
+
+			// The last row
+			for(int i = 1; i < gridWidth - 1; i++) {
+				val |= classified[i] << shift;
+				//System.out.println("val |= classified[" + i + "] << " + shift + ";");
+				shift++;
+			}
+
+			return val;
+		}
+
+		/**
+		 * Rotate the pattern until the black corner is in the lower right.  Sanity check to make
+		 * sure there is only one black corner
+		 */
+		private boolean rotateUntilInLowerCorner(Result result) {
+			// sanity check corners.  There should only be one exactly one black
+			final int topLeft = getTotalGridElements() - gridWidth;
+			final int topRight = getTotalGridElements() - 1;
+			final int bottomLeft = 0;
+			final int bottomRight = gridWidth - 1;
+
+			if (classified[bottomLeft] + classified[bottomRight] + classified[topRight] + classified[topLeft] != 1)
+				return true;
+
+			// Rotate until the black corner is in the lower left hand corner on the image.
+			// remember that origin is the top left corner
+			result.rotation = 0;
+			while (classified[topLeft] != 1) {
+				result.rotation++;
+				rotateClockWise();
+			}
+			return false;
+		}
+
+		void rotateClockWise() {
+
+			final int totalElements = getTotalGridElements();
+
+			// Swap the four corners
+			for (int ii = 0; ii < gridWidth; ii++) {
+				for (int i = 0; i < gridWidth; i++) {
+					final int fromIdx = ii * gridWidth + i;
+					final int toIdx = (totalElements - (gridWidth * (i + 1))) + ii;
+					tmp[fromIdx] = classified[toIdx];
+				}
+			}
+
+			System.arraycopy(tmp, 0, classified, 0, totalElements);
+		}
+
+
+		/**
+		 * Sees how many pixels were positive and negative in each square region.  Then decides if they
+		 * should be 0 or 1 or unknown
+		 */
+		boolean thresholdBinaryNumber() {
+
+			int lower = (int) (N * (ambiguityThreshold / 2.0));
+			int upper = (int) (N * (1 - ambiguityThreshold / 2.0));
+
+			final int totalElements = getTotalGridElements();
+			for (int i = 0; i < totalElements; i++) {
+				if (counts[i] < lower) {
+					classified[i] = 0;
+				} else if (counts[i] > upper) {
+					classified[i] = 1;
+				} else {
+					// it's ambiguous so just fail
+					return true;
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * Converts the gray scale image into a binary number.  Skip the outer 1 pixel of each inner square.  These
+		 * tend to be incorrectly classified due to distortion.
+		 */
+		void findBitCounts(GrayF32 gray , double threshold ) {
+			// compute binary image using an adaptive algorithm to handle shadows
+			ThresholdImageOps.threshold(gray,binaryInner,(float)threshold,true);
+
+			Arrays.fill(counts, 0);
+			for (int row = 0; row < gridWidth; row++) {
+				int y0 = row * binaryInner.width / gridWidth + 1;
+				int y1 = (row + 1) * binaryInner.width / gridWidth - 1;
+				for (int col = 0; col < gridWidth; col++) {
+					int x0 = col * binaryInner.width / gridWidth + 1;
+					int x1 = (col + 1) * binaryInner.width / gridWidth - 1;
+
+					int total = 0;
+					for (int i = y0; i < y1; i++) {
+						int index = i * binaryInner.width + x0;
+						for (int j = x0; j < x1; j++) {
+							total += binaryInner.data[index++];
+						}
+					}
+
+					counts[row * gridWidth + col] = total;
+				}
+			}
+		}
+	}
+}
@@ -20,7 +20,6 @@ package boofcv.alg.fiducial.square;
 
 import boofcv.abst.distort.FDistort;
 import boofcv.abst.filter.binary.InputToBinary;
-import boofcv.alg.descriptor.DescriptorDistance;
 import boofcv.alg.filter.binary.GThresholdImageOps;
 import boofcv.alg.filter.misc.AverageDownSampleOps;
 import boofcv.alg.misc.ImageMiscOps;
@@ -66,17 +65,17 @@ public class DetectFiducialSquareImage<T extends ImageGray<T>>
 	// length of description in 16bit units
 	private final static int DESC_LENGTH = squareLength*squareLength/16;
 
-	// converts the input image into a binary one
-	private GrayU8 binary = new GrayU8(squareLength,squareLength);
-
 	// list of all known targets
 	private List<FiducialDef> targets = new ArrayList<>();
 
-	// description of the current target candidate
-	private  short squareDef[] = new short[DESC_LENGTH];
+	// packed description of every target in each orientation.  index = target*4 + rotation
+	private FiducialImageHashIndex index = new FiducialImageHashIndex(squareLength);
+
+	// the index is used to look up candidates if there are at least this many targets
+	private int minimumIndexSize = 100;
 
-	// storage for no border sub-image
-	private GrayF32 grayNoBorder = new GrayF32();
+	// decodes squares when processing with a single thread
+	private Decoder decoder = new Decoder();
 
 	// if the hamming score is better than this it is considered to be a good match
 	private int hammingThreshold;
@@ -95,10 +94,6 @@ public class DetectFiducialSquareImage<T extends ImageGray<T>>
 				(int)Math.round(squareLength/(1-2.0*borderWidthFraction)), inputType);
 
 		hammingThreshold = (int)(squareLength*squareLength*matchThreshold);
-
-		//noinspection ConstantConditions
-		if( squareLength%16 != 0 )
-			throw new RuntimeException("Square Length must be a multiple of 16");
 	}
 
 	/**
@@ -119,6 +114,8 @@ public class DetectFiducialSquareImage<T extends ImageGray<T>>
 		} else if(ImageStatistics.max(inputBinary) > 1 )
 			throw new IllegalArgumentException("A binary image is composed on 0 and 1 pixels.  This isn't binary!");
 
+		GrayU8 binary = decoder.binary;
+
 		// see if it needs to be resized
 		if ( inputBinary.width != squareLength || inputBinary.height != squareLength ) {
 			// need to create a new image and rescale it to better handle the resizing
@@ -144,74 +141,59 @@ public class DetectFiducialSquareImage<T extends ImageGray<T>>
 		def.lengthSide = lengthSide;
 
 		// CCW rotation so that the index refers to how many CW rotation it takes to put it into the nominal pose
-		binaryToDef(binary, def.desc[0]);
-		ImageMiscOps.rotateCCW(binary);
-		binaryToDef(binary, def.desc[1]);
-		ImageMiscOps.rotateCCW(binary);
-		binaryToDef(binary, def.desc[2]);
-		ImageMiscOps.rotateCCW(binary);
-		binaryToDef(binary, def.desc[3]);
-
-		int index = targets.size();
+		for (int i = 0; i < 4; i++) {
+			if( i > 0 )
+				ImageMiscOps.rotateCCW(binary);
+			int which = index.add(binary);
+			packedToDef(index.getDescription(which), def.desc[i]);
+		}
+
+		int id = targets.size();
 		targets.add( def );
-		return index;
+		return id;
 	}
 
 	/**
 	 * Converts a binary image into the compressed bit format
+	 *
+	 * @deprecated The description is saved in the index.  See {@link FiducialImageHashIndex#pack}
 	 */
+	@Deprecated
 	protected static void binaryToDef(GrayU8 binary , short[] desc ) {
-		for (int i = 0; i < binary.data.length; i+=16) {
-			int value = 0;
-			for (int j = 0; j < 16; j++) {
-				value |= binary.data[i+j] << j;
-			}
-			desc[i/16] = (short)value;
+		long[] packed = new long[(binary.width*binary.height+63)/64];
+		FiducialImageHashIndex.pack(binary,packed);
+		packedToDef(packed,desc);
+	}
+
+	/**
+	 * Converts a description from the index into 16-bit words
+	 */
+	private static void packedToDef( long[] packed , short[] desc ) {
+		for (int i = 0; i < desc.length; i++) {
+			desc[i] = (short)(packed[i/4] >>> (16*(i%4)));
 		}
 	}
 
 	@Override
 	protected boolean processSquare(GrayF32 gray, Result result, double edgeInside, double edgeOutside) {
+		return decoder.processSquare(gray, result, edgeInside, edgeOutside);
+	}
 
-		int off = (gray.width-binary.width)/2;
-		gray.subimage(off,off,off+binary.width,off+binary.width,grayNoBorder);
-
-//		grayNoBorder.printInt();
-
-		// compute a global threshold from the difference between the outside and inside perimeter pixel values
-		float threshold = (float)((edgeInside+edgeOutside)/2.0);
-		GThresholdImageOps.threshold(grayNoBorder,binary,threshold,false);
-
-//		binary.printBinary();
-		binaryToDef(binary, squareDef);
-
-		boolean matched = false;
-		int bestScore = hammingThreshold+1;
-		for (int i = 0; i < targets.size(); i++) {
-			FiducialDef def = targets.get(i);
-
-			for (int j = 0; j < 4; j++) {
-				int score = hamming(def.desc[j], squareDef);
-				if( score < bestScore ) {
-					bestScore = score;
-					result.rotation = j;
-					result.which = i;
-					result.lengthSide = def.lengthSide;
-					matched = true;
-				}
-			}
-		}
-
-		return matched;
+	@Override
+	protected SquareDecoder createDecoder() {
+		return new Decoder();
 	}
 
 	/**
-	 * Computes the hamming score between two descriptions.  Larger the number better the fit
+	 * Computes the hamming distance between two descriptions.  Smaller the number better the fit
+	 *
+	 * @deprecated Use {@link FiducialImageHashIndex#hamming} with descriptions from the index
 	 */
+	@Deprecated
 	protected int hamming(short[] a, short[] b) {
 		int distance = 0;
 		for (int i = 0; i < a.length; i++) {
-			distance += DescriptorDistance.hamming((a[i]&0xFFFF) ^ (b[i]&0xFFFF));
+			distance += Integer.bitCount((a[i] ^ b[i]) & 0xFFFF);
 		}
 		return distance;
 	}
@@ -220,12 +202,86 @@ public class DetectFiducialSquareImage<T extends ImageGray<T>>
 		return targets;
 	}
 
+	public FiducialImageHashIndex getIndex() {
+		return index;
+	}
+
+	public int getMinimumIndexSize() {
+		return minimumIndexSize;
+	}
+
+	/**
+	 * Specifies the number of targets at which the hash index is used to look up candidates.  With fewer targets
+	 * the square is compared against every target, which is fast when the library is small.  If the index doesn't
+	 * find a target within the match threshold then every target is compared, so a square is accepted or rejected
+	 * exactly as it would be without the index.  Squares which match a target are found quickly, but squares which
+	 * don't match any target cost slightly more than an exhaustive search.
+	 *
+	 * @param minimumIndexSize Minimum number of targets.  Set to Integer.MAX_VALUE to always use exhaustive search.
+	 */
+	public void setMinimumIndexSize(int minimumIndexSize) {
+		this.minimumIndexSize = minimumIndexSize;
+	}
+
 	/**
-	 * description of an image in 4 different orientations
+	 * Information on a known target.  Its description in each of the 4 orientations is saved in the index
+	 * at target*4 + rotation.
 	 */
 	public static class FiducialDef
 	{
+		/**
+		 * Description of the image in 4 different orientations with 16 pixels in each element.
+		 *
+		 * @deprecated Use the packed description in the index.  See {@link FiducialImageHashIndex#getDescription}
+		 */
+		@Deprecated
 		public short[][] desc = new short[4][DESC_LENGTH];
 		public double lengthSide;
 	}
+
+	/**
+	 * Compares the square against the known targets.  Contains all the storage which is modified while decoding so
+	 * that each thread can have its own instance.
+	 */
+	class Decoder implements SquareDecoder {
+		// converts the input image into a binary one
+		GrayU8 binary = new GrayU8(squareLength,squareLength);
+
+		// storage for looking up the square in the index
+		FiducialImageHashIndex.Query query = index.createQuery();
+
+		// storage for no border sub-image
+		GrayF32 grayNoBorder = new GrayF32();
+
+		@Override
+		public boolean processSquare(GrayF32 gray, Result result, double edgeInside, double edgeOutside) {
+
+			int off = (gray.width-binary.width)/2;
+			gray.subimage(off,off,off+binary.width,off+binary.width,grayNoBorder);
+
+//			grayNoBorder.printInt();
+
+			// compute a global threshold from the difference between the outside and inside perimeter pixel values
+			float threshold = (float)((edgeInside+edgeOutside)/2.0);
+			GThresholdImageOps.threshold(grayNoBorder,binary,threshold,false);
+
+//			binary.printBinary();
+			// the index can miss a match.  Only squares which would be rejected by comparing against every target
+			// are rejected
+			int best = -1;
+			if( targets.size() >= minimumIndexSize )
+				best = index.lookup(binary, hammingThreshold, query);
+			if( best < 0 )
+				best = index.lookupExhaustive(binary, hammingThreshold, query);
+
+			if( best < 0 )
+				return false;
+
+			result.which = best/4;
+			result.rotation = best%4;
+			result.lengthSide = targets.get(result.which).lengthSide;
+			result.matchDistance = query.distance;
+			return true;
+		}
+	}
 }
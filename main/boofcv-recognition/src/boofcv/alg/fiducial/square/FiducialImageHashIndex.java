@@ -0,0 +1,358 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.fiducial.square;
+
+import boofcv.struct.image.GrayU8;
+import org.ddogleg.struct.GrowQueue_I32;
+import org.ddogleg.struct.GrowQueue_I64;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>
+ * Index for quickly finding the binary square image which is the closest match, in terms of hamming distance,
+ * to a query image.  Each image is stored as a packed bit description with 64 pixels in each word, which is what
+ * the final hamming distance is computed from.  To avoid comparing the query against every image, each image is
+ * also summarized by a coarse 64-bit hash.  The image is broken up into an 8 by 8 grid of blocks and a bit is set
+ * if the majority of pixels inside a block are 1.  Small changes in the image will only flip a few bits in the hash.
+ * </p>
+ *
+ * <p>
+ * Multi-index hashing is used to look up candidates.  The hash is split into {@link #NUM_CHUNKS} chunks of
+ * {@link #CHUNK_BITS} bits and each chunk is used as the key into its own table.  A query visits every bucket whose
+ * key is within {@link #SEARCH_RADIUS} bits of its own chunk.  Because of the pigeon hole principle, any image whose
+ * hash differs from the query's hash by at most NUM_CHUNKS*(SEARCH_RADIUS+1)-1 bits is guaranteed to be found.
+ * The candidates are then scored using the full resolution hamming distance, so the score of a match is the same
+ * as it would be with an exhaustive search.  The index is approximate in that an image which is within the
+ * hamming threshold but has a very different coarse hash will be missed, which happens when most of its
+ * blocks are close to half black and half white.
+ * </p>
+ *
+ * <p>
+ * Lookups can be done from multiple threads at the same time, as long as each thread has its own {@link Query}
+ * and no images are added while processing.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class FiducialImageHashIndex {
+	/**
+	 * Number of chunks the hash is broken up into
+	 */
+	public static final int NUM_CHUNKS = 4;
+	/**
+	 * Number of bits in each chunk
+	 */
+	public static final int CHUNK_BITS = 64/NUM_CHUNKS;
+	/**
+	 * Maximum number of bits which can be different in a chunk of the hash and still be considered a candidate
+	 */
+	public static final int SEARCH_RADIUS = 2;
+
+	private static final int TABLE_SIZE = 1 << CHUNK_BITS;
+
+	// XOR masks for all keys within SEARCH_RADIUS of a chunk
+	private static final int[] PROBES = createProbes();
+
+	// length of a side in the square images
+	private int length;
+	// number of words in the packed description
+	private int numWords;
+
+	// description of each image with bits packed into words
+	private List<long[]> descriptions = new ArrayList<>();
+	// coarse hash of each image
+	private GrowQueue_I64 hashes = new GrowQueue_I64();
+
+	// For each chunk, the index in tableEntries where each bucket starts.  Last element is the total size
+	private int[][] tableStart = new int[NUM_CHUNKS][];
+	// For each chunk, the index of images sorted by their key
+	private int[][] tableEntries = new int[NUM_CHUNKS][];
+	// true if the tables need to be rebuilt before they can be searched
+	private boolean dirty = true;
+
+	/**
+	 * Specifies the size of the square images
+	 *
+	 * @param length Length of a side in the square images.  Must be a multiple of 8.
+	 */
+	public FiducialImageHashIndex( int length ) {
+		if( length <= 0 || length%8 != 0 )
+			throw new IllegalArgumentException("Length must be a positive multiple of 8");
+		this.length = length;
+		this.numWords = (length*length+63)/64;
+	}
+
+	/**
+	 * Adds a new image to the index
+	 *
+	 * @param binary Binary image.  0 = black, 1 = white.  Must not be a sub-image.
+	 * @return Index of the image
+	 */
+	public synchronized int add( GrayU8 binary ) {
+		checkShape(binary);
+
+		long[] desc = new long[numWords];
+		pack(binary,desc);
+		descriptions.add(desc);
+		hashes.add(computeHash(binary));
+		dirty = true;
+
+		return descriptions.size()-1;
+	}
+
+	/**
+	 * Removes all images
+	 */
+	public synchronized void reset() {
+		descriptions.clear();
+		hashes.reset();
+		dirty = true;
+	}
+
+	/**
+	 * Creates storage for a query.  One is needed for each thread.
+	 */
+	public Query createQuery() {
+		return new Query(numWords);
+	}
+
+	/**
+	 * Uses the index to find the image which has the smallest hamming distance to the query image and is within
+	 * the specified distance.  If multiple images have the same distance the one with the lowest index is selected.
+	 *
+	 * @param binary Query binary image.  Must not be a sub-image.
+	 * @param maxDistance The hamming distance must be less than or equal to this value.
+	 * @param query Storage for the query.  The hamming distance of the best match is saved here.
+	 * @return Index of the best image or -1 if none are within the distance
+	 */
+	public int lookup( GrayU8 binary , int maxDistance , Query query ) {
+		build();
+		checkShape(binary);
+
+		pack(binary,query.desc);
+		long hash = computeHash(binary);
+
+		GrowQueue_I32 candidates = query.candidates;
+		candidates.reset();
+		for (int chunk = 0; chunk < NUM_CHUNKS; chunk++) {
+			int[] start = tableStart[chunk];
+			int[] entries = tableEntries[chunk];
+			int key = (int)(hash >>> (chunk*CHUNK_BITS)) & (TABLE_SIZE-1);
+
+			for (int i = 0; i < PROBES.length; i++) {
+				int bucket = key ^ PROBES[i];
+				for (int j = start[bucket]; j < start[bucket+1]; j++) {
+					candidates.add(entries[j]);
+				}
+			}
+		}
+
+		// sorting ensures ties are broken the same way as with an exhaustive search
+		Arrays.sort(candidates.data,0,candidates.size);
+
+		int best = -1;
+		int bestDistance = maxDistance+1;
+		int previous = -1;
+		for (int i = 0; i < candidates.size; i++) {
+			int index = candidates.data[i];
+			if( index == previous )
+				continue;
+			previous = index;
+
+			int distance = hamming(descriptions.get(index),query.desc);
+			if( distance < bestDistance ) {
+				bestDistance = distance;
+				best = index;
+			}
+		}
+
+		query.distance = best >= 0 ? bestDistance : -1;
+		return best;
+	}
+
+	/**
+	 * Same as {@link #lookup(GrayU8, int, Query)} but the query is compared against every image.
+	 */
+	public int lookupExhaustive( GrayU8 binary , int maxDistance , Query query ) {
+		checkShape(binary);
+
+		pack(binary,query.desc);
+
+		int best = -1;
+		int bestDistance = maxDistance+1;
+		int N = size();
+		for (int index = 0; index < N; index++) {
+			int distance = hamming(descriptions.get(index),query.desc);
+			if( distance < bestDistance ) {
+				bestDistance = distance;
+				best = index;
+			}
+		}
+
+		query.distance = best >= 0 ? bestDistance : -1;
+		return best;
+	}
+
+	/**
+	 * Rebuilds the lookup tables if images have been added since the last time they were built.  Called
+	 * automatically by {@link #lookup}.
+	 */
+	public synchronized void build() {
+		if( !dirty )
+			return;
+
+		int N = hashes.size;
+		for (int chunk = 0; chunk < NUM_CHUNKS; chunk++) {
+			int[] start = new int[TABLE_SIZE+1];
+			int[] entries = new int[N];
+
+			// count the number of images in each bucket
+			for (int i = 0; i < N; i++) {
+				start[key(i,chunk)+1]++;
+			}
+			for (int i = 0; i < TABLE_SIZE; i++) {
+				start[i+1] += start[i];
+			}
+
+			// fill in the buckets. Images are added in order so each bucket is sorted
+			int[] next = Arrays.copyOf(start,TABLE_SIZE);
+			for (int i = 0; i < N; i++) {
+				entries[next[key(i,chunk)]++] = i;
+			}
+
+			tableStart[chunk] = start;
+			tableEntries[chunk] = entries;
+		}
+		dirty = false;
+	}
+
+	private int key( int index , int chunk ) {
+		return (int)(hashes.data[index] >>> (chunk*CHUNK_BITS)) & (TABLE_SIZE-1);
+	}
+
+	/**
+	 * Packs the binary image into an array of words.  Pixel 'i' is saved in bit i%64 of word i/64.
+	 */
+	public static void pack( GrayU8 binary , long[] desc ) {
+		int N = binary.width*binary.height;
+		Arrays.fill(desc,0);
+		for (int i = 0; i < N; i++) {
+			desc[i/64] |= (long)(binary.data[i]&0x01) << (i%64);
+		}
+	}
+
+	/**
+	 * Computes a 64-bit hash by breaking the image into an 8 by 8 grid of blocks.  A bit is set to 1 if more than
+	 * half the pixels inside its block are 1.
+	 */
+	public static long computeHash( GrayU8 binary ) {
+		int blockLength = binary.width/8;
+		int threshold = blockLength*blockLength/2;
+
+		long hash = 0;
+		for (int blockY = 0; blockY < 8; blockY++) {
+			for (int blockX = 0; blockX < 8; blockX++) {
+				int total = 0;
+				for (int y = 0; y < blockLength; y++) {
+					int index = binary.startIndex + (blockY*blockLength+y)*binary.stride + blockX*blockLength;
+					for (int x = 0; x < blockLength; x++) {
+						total += binary.data[index++]&0x01;
+					}
+				}
+				if( total > threshold )
+					hash |= 1L << (blockY*8+blockX);
+			}
+		}
+		return hash;
+	}
+
+	/**
+	 * Computes the hamming distance between two packed descriptions
+	 */
+	public static int hamming( long[] a , long[] b ) {
+		int distance = 0;
+		for (int i = 0; i < a.length; i++) {
+			distance += Long.bitCount(a[i] ^ b[i]);
+		}
+		return distance;
+	}
+
+	private void checkShape( GrayU8 binary ) {
+		if( binary.width != length || binary.height != length )
+			throw new IllegalArgumentException("Expected a "+length+" x "+length+" image");
+		if( binary.isSubimage() )
+			throw new IllegalArgumentException("Sub-images are not supported");
+	}
+
+	private static int[] createProbes() {
+		GrowQueue_I32 probes = new GrowQueue_I32();
+		addProbes(probes,0,0,SEARCH_RADIUS);
+		return Arrays.copyOf(probes.data,probes.size);
+	}
+
+	private static void addProbes( GrowQueue_I32 probes , int mask , int firstBit , int remaining ) {
+		probes.add(mask);
+		if( remaining == 0 )
+			return;
+		for (int i = firstBit; i < CHUNK_BITS; i++) {
+			addProbes(probes, mask | (1 << i), i+1, remaining-1);
+		}
+	}
+
+	/**
+	 * Returns the packed description of an image.  See {@link #pack}.
+	 *
+	 * @param which Index of the image
+	 */
+	public long[] getDescription( int which ) {
+		return descriptions.get(which);
+	}
+
+	/**
+	 * Number of images in the index
+	 */
+	public int size() {
+		return descriptions.size();
+	}
+
+	public int getLength() {
+		return length;
+	}
+
+	/**
+	 * Storage for a single query
+	 */
+	public static class Query {
+		// packed description of the query image
+		long[] desc;
+		// index of candidate images
+		GrowQueue_I32 candidates = new GrowQueue_I32();
+		/**
+		 * Hamming distance of the best match or -1 if there was no match
+		 */
+		public int distance;
+
+		Query( int numWords ) {
+			desc = new long[numWords];
+		}
+	}
+}
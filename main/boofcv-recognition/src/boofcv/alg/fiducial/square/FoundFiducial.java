@@ -38,5 +38,11 @@ public class FoundFiducial {
 	 */
 	public Quadrilateral_F64 distortedPixels = new Quadrilateral_F64();
 
+	/**
+	 * How different the square's pattern is from the fiducial it was matched to.  Smaller values are a better match.
+	 * For square image fiducials this is the hamming distance in pixels.  -1 if the detector doesn't compute it.
+	 */
+	public int matchDistance = -1;
+
 }
 
@@ -59,6 +59,11 @@ public class ConfigFiducialBinary implements Configuration {
 	 */
 	public double minimumBlackBorderFraction = 0.65;
 
+	/**
+	 * If true then candidate squares are rectified and decoded concurrently.
+	 */
+	public boolean concurrent = false;
+
 	/**
 	 * Configuration for square detector
 	 */
@@ -130,6 +135,7 @@ public class ConfigFiducialBinary implements Configuration {
 				", ambiguousThreshold=" + ambiguousThreshold +
 				", gridWidth=" + gridWidth +
 				", borderWidthFraction=" + borderWidthFraction +
+				", concurrent=" + concurrent +
 				", squareDetector=" + squareDetector +
 				'}';
 	}
@@ -50,6 +50,11 @@ public class ConfigFiducialImage implements Configuration {
 	 */
 	public double minimumBlackBorderFraction = 0.65;
 
+	/**
+	 * If true then candidate squares are rectified and decoded concurrently.
+	 */
+	public boolean concurrent = false;
+
 	/**
 	 * Configuration for square detector
 	 */
@@ -95,6 +100,7 @@ public class ConfigFiducialImage implements Configuration {
 		return getClass().getSimpleName()+
 				"{ maxErrorFraction="+maxErrorFraction+
 				" borderWidthFraction="+borderWidthFraction+
+				" concurrent="+concurrent+
 				" squareDetector="+squareDetector+" }";
 	}
 }
@@ -72,6 +72,7 @@ public class FactoryFiducial {
 						configFiducial.borderWidthFraction, configFiducial.minimumBlackBorderFraction,
 						binary, squareDetector, imageType);
 		alg.setAmbiguityThreshold(configFiducial.ambiguousThreshold);
+		alg.setConcurrent(configFiducial.concurrent);
 		return new SquareBinary_to_FiducialDetector<>(alg, configFiducial.targetWidth);
 	}
 
@@ -105,6 +106,7 @@ public class FactoryFiducial {
 		DetectFiducialSquareImage<T> alg = new DetectFiducialSquareImage<>(binary,
 				squareDetector, configFiducial.borderWidthFraction, configFiducial.minimumBlackBorderFraction,
 				configFiducial.maxErrorFraction, imageType);
+		alg.setConcurrent(configFiducial.concurrent);
 
 		return new SquareImage_to_FiducialDetector<>(alg);
 	}
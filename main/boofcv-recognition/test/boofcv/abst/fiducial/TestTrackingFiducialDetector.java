@@ -0,0 +1,274 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.abst.fiducial;
+
+import boofcv.alg.distort.radtan.LensDistortionRadialTangential;
+import boofcv.alg.fiducial.square.TestDetectFiducialSquareBinary;
+import boofcv.alg.misc.ImageMiscOps;
+import boofcv.core.image.ConvertImage;
+import boofcv.factory.fiducial.ConfigFiducialBinary;
+import boofcv.factory.fiducial.FactoryFiducial;
+import boofcv.factory.filter.binary.ConfigThreshold;
+import boofcv.struct.calib.CameraPinholeRadial;
+import boofcv.struct.geo.PointIndex2D_F64;
+import boofcv.struct.image.GrayF32;
+import boofcv.struct.image.GrayU8;
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.se.Se3_F64;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestTrackingFiducialDetector {
+
+	int values[] = new int[]{314,20,1000};
+
+	/**
+	 * Results from processing regions should be the same as processing the whole image
+	 */
+	@Test
+	public void compareToFullScan() {
+		GrayU8 image = render(values, 0);
+
+		SquareBinary_to_FiducialDetector<GrayU8> expected = createDetector();
+		TrackingFiducialDetector<GrayU8> alg = new TrackingFiducialDetector<>(createDetector());
+		alg.setRegionExpansion(0.1);
+
+		expected.detect(image);
+		alg.detect(image);
+		assertTrue(alg.isFullScan());
+		assertEquals(values.length, alg.totalFound());
+
+		// move the fiducials a little bit
+		image = render(values, 5);
+		expected.detect(image);
+		alg.detect(image);
+		assertFalse(alg.isFullScan());
+		assertEquals(values.length, alg.getRegions().size);
+		assertTrue(alg.getFractionProcessed() < 0.6);
+
+		assertEquals(expected.totalFound(), alg.totalFound());
+		for (int i = 0; i < expected.totalFound(); i++) {
+			assertEquals(expected.getId(i), alg.getId(i));
+			assertEquals(expected.getWidth(i), alg.getWidth(i), 1e-8);
+
+			Point2D_F64 a = new Point2D_F64();
+			Point2D_F64 b = new Point2D_F64();
+			expected.getImageLocation(i, a);
+			alg.getImageLocation(i, b);
+			assertEquals(0, a.distance(b), 1e-8);
+
+			List<PointIndex2D_F64> cornersA = expected.getDetectedControl(i);
+			List<PointIndex2D_F64> cornersB = alg.getDetectedControl(i);
+			for (int j = 0; j < 4; j++) {
+				assertEquals(0, cornersA.get(j).distance(cornersB.get(j)), 1e-8);
+			}
+		}
+	}
+
+	/**
+	 * The pose, including its rotation, should be the same as what the wrapped detector found on the full image
+	 */
+	@Test
+	public void fiducialToCamera() {
+		CameraPinholeRadial intrinsic = new CameraPinholeRadial(500, 500, 0, 320, 240, 640, 480).fsetRadial(0.01);
+
+		checkSameAsFullImage(intrinsic);
+	}
+
+	/**
+	 * With a lot of lens distortion the location and pose must still match the full image.  The wrapped
+	 * detector sees a region and must apply the distortion model at the region's location in the image.
+	 */
+	@Test
+	public void lensDistortion() {
+		CameraPinholeRadial intrinsic = new CameraPinholeRadial(500, 500, 0, 320, 240, 640, 480).fsetRadial(-0.2,0.05);
+
+		checkSameAsFullImage(intrinsic);
+	}
+
+	private void checkSameAsFullImage( CameraPinholeRadial intrinsic ) {
+		SquareBinary_to_FiducialDetector<GrayU8> expected = createDetector();
+		SquareBinary_to_FiducialDetector<GrayU8> wrapped = createDetector();
+		expected.setLensDistortion(new LensDistortionRadialTangential(intrinsic));
+		wrapped.setLensDistortion(new LensDistortionRadialTangential(intrinsic));
+
+		// the distortion model of the wrapped detector should be used
+		TrackingFiducialDetector<GrayU8> alg = new TrackingFiducialDetector<>(wrapped);
+		assertNotNull(wrapped.getLensDistortion());
+		assertTrue(alg.is3D());
+
+		alg.detect(render(values, 0));
+		GrayU8 image = render(values, 5);
+		expected.detect(image);
+		alg.detect(image);
+		assertFalse(alg.isFullScan());
+		assertEquals(values.length, alg.totalFound());
+
+		Se3_F64 a = new Se3_F64();
+		Se3_F64 b = new Se3_F64();
+		Point2D_F64 locA = new Point2D_F64();
+		Point2D_F64 locB = new Point2D_F64();
+		for (int i = 0; i < values.length; i++) {
+			expected.getImageLocation(i, locA);
+			alg.getImageLocation(i, locB);
+			assertEquals(0, locA.distance(locB), 1e-6);
+
+			assertTrue(expected.getFiducialToCamera(i, a));
+			assertTrue(alg.getFiducialToCamera(i, b));
+
+			assertEquals(0, a.T.distance(b.T), 1e-6);
+			assertTrue(MatrixFeatures_DDRM.isIdentical(a.R, b.R, 1e-6));
+		}
+	}
+
+	/**
+	 * The pose of a rotated fiducial should be found correctly
+	 */
+	@Test
+	public void rotatedFiducial() {
+		CameraPinholeRadial intrinsic = new CameraPinholeRadial(500, 500, 0, 320, 240, 640, 480).fsetRadial(-0.2,0.05);
+		LensDistortionRadialTangential distortion = new LensDistortionRadialTangential(intrinsic);
+
+		SquareBinary_to_FiducialDetector<GrayU8> expected = createDetector();
+		expected.setLensDistortion(distortion);
+		TrackingFiducialDetector<GrayU8> alg = new TrackingFiducialDetector<>(createDetector());
+		alg.setLensDistortion(distortion);
+
+		// each fiducial is rotated by 90 degrees
+		GrayU8 rotated = render(values, 0, true);
+		expected.detect(rotated);
+		alg.detect(rotated);
+		alg.detect(rotated);
+		assertFalse(alg.isFullScan());
+		assertEquals(expected.totalFound(), alg.totalFound());
+
+		Se3_F64 a = new Se3_F64();
+		Se3_F64 b = new Se3_F64();
+		for (int i = 0; i < expected.totalFound(); i++) {
+			assertTrue(expected.getFiducialToCamera(i, a));
+			assertTrue(alg.getFiducialToCamera(i, b));
+
+			assertEquals(0, a.T.distance(b.T), 1e-6);
+			assertTrue(MatrixFeatures_DDRM.isIdentical(a.R, b.R, 1e-6));
+		}
+	}
+
+	@Test
+	public void fullScanPeriod() {
+		GrayU8 image = render(values, 0);
+
+		TrackingFiducialDetector<GrayU8> alg = new TrackingFiducialDetector<>(createDetector());
+		alg.setFullScanPeriod(3);
+
+		boolean expected[] = new boolean[]{true,false,false,true,false,false,true};
+		for (int i = 0; i < expected.length; i++) {
+			alg.detect(image);
+			assertEquals(expected[i], alg.isFullScan());
+			assertEquals(values.length, alg.totalFound());
+		}
+	}
+
+	/**
+	 * If a fiducial is lost then the next frame should be a full scan
+	 */
+	@Test
+	public void lostFiducial() {
+		TrackingFiducialDetector<GrayU8> alg = new TrackingFiducialDetector<>(createDetector());
+
+		alg.detect(render(values, 0));
+		assertTrue(alg.isFullScan());
+
+		alg.detect(render(new int[]{314,20}, 0));
+		assertFalse(alg.isFullScan());
+		assertEquals(2, alg.totalFound());
+
+		// the lost fiducial came back and should be found by a full scan
+		alg.detect(render(values, 0));
+		assertTrue(alg.isFullScan());
+		assertEquals(3, alg.totalFound());
+
+		alg.detect(render(values, 0));
+		assertFalse(alg.isFullScan());
+		assertEquals(3, alg.totalFound());
+	}
+
+	/**
+	 * Regions which overlap should be merged and the fiducials inside only found once
+	 */
+	@Test
+	public void mergeOverlappingRegions() {
+		TrackingFiducialDetector<GrayU8> alg = new TrackingFiducialDetector<>(createDetector());
+		alg.setRegionExpansion(0.5);
+
+		GrayU8 image = render(values, 0);
+		alg.detect(image);
+		alg.detect(image);
+
+		assertFalse(alg.isFullScan());
+		assertEquals(1, alg.getRegions().size);
+		assertEquals(values.length, alg.totalFound());
+	}
+
+	@Test
+	public void reset() {
+		GrayU8 image = render(values, 0);
+		TrackingFiducialDetector<GrayU8> alg = new TrackingFiducialDetector<>(createDetector());
+		alg.detect(image);
+		alg.reset();
+		assertEquals(0, alg.totalFound());
+		alg.detect(image);
+		assertTrue(alg.isFullScan());
+	}
+
+	private SquareBinary_to_FiducialDetector<GrayU8> createDetector() {
+		return FactoryFiducial.squareBinary(new ConfigFiducialBinary(1), ConfigThreshold.fixed(50), GrayU8.class);
+	}
+
+	/**
+	 * Renders binary fiducials in a row
+	 */
+	private GrayU8 render( int values[] , int offset ) {
+		return render(values, offset, false);
+	}
+
+	private GrayU8 render( int values[] , int offset , boolean rotate ) {
+		GrayU8 image = new GrayU8(640,480);
+		ImageMiscOps.fill(image,255);
+
+		for (int i = 0; i < values.length; i++) {
+			GrayF32 fiducial = TestDetectFiducialSquareBinary.create(20, values[i]);
+			GrayU8 fiducialU8 = new GrayU8(fiducial.width,fiducial.height);
+			ConvertImage.convert(fiducial,fiducialU8);
+			if( rotate )
+				ImageMiscOps.rotateCW(fiducialU8);
+
+			int x = 20 + i*210 + offset;
+			int y = 150 + offset;
+			image.subimage(x,y,x+fiducial.width,y+fiducial.height,null).setTo(fiducialU8);
+		}
+		return image;
+	}
+}
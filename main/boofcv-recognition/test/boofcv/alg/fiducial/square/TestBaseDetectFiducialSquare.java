@@ -192,6 +192,32 @@ public class TestBaseDetectFiducialSquare {
 		assertEquals(0.5, found, 1e-8);
 	}
 
+	/**
+	 * Samples along the center of the border should be black for a fiducial and white if only the outline is black
+	 */
+	@Test
+	public void sampleFractionBoundary() {
+		Dummy alg = new Dummy();
+
+		// square is 100 pixels and the fiducial is 120 pixels in the image
+		DMatrixRMaj H = new DMatrixRMaj(3,3,true,1.2,0,200, 0,1.2,300, 0,0,1);
+		alg.workspace.setHomography(H);
+
+		GrayU8 image = new GrayU8(width,height);
+		ImageMiscOps.fill(image, 255);
+		GrayU8 pattern = createPattern(6*20, false);
+		image.subimage(200, 300, 200 + pattern.width, 300 + pattern.height, null).setTo(pattern);
+
+		assertEquals(1.0, alg.sampleFractionBoundary(alg.workspace, image, 100), 1e-8);
+
+		// only a thin outline is black
+		ImageMiscOps.fill(image, 255);
+		ImageMiscOps.fillRectangle(image, 0, 200, 300, 120, 120);
+		ImageMiscOps.fillRectangle(image, 255, 205, 305, 110, 110);
+
+		assertEquals(0.0, alg.sampleFractionBoundary(alg.workspace, image, 100), 1e-8);
+	}
+
 	/**
 	 * See if it can handle the situations where intrinsic camera parameters was not set.  Should just
 	 * detect its location and
@@ -21,6 +21,8 @@ package boofcv.alg.fiducial.square;
 import boofcv.abst.filter.binary.InputToBinary;
 import boofcv.alg.misc.ImageMiscOps;
 import boofcv.alg.shapes.polygon.BinaryPolygonDetector;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.core.image.ConvertImage;
 import boofcv.factory.filter.binary.FactoryThresholdBinary;
 import boofcv.factory.shape.ConfigPolygonDetector;
 import boofcv.factory.shape.FactoryShapeDetector;
@@ -85,6 +87,58 @@ public class TestDetectFiducialSquareBinary {
 		assertFalse(alg.processSquare(input, result,0,0));
 	}
 
+	/**
+	 * Detect several fiducials in an image with and without concurrency.  Results should be identical.
+	 */
+	@Test
+	public void process_concurrent() {
+		GrayU8 image = new GrayU8(640,480);
+		ImageMiscOps.fill(image,255);
+
+		int values[] = new int[]{314,20,1000,4,2000,77};
+		for (int i = 0; i < values.length; i++) {
+			GrayF32 fiducial = create(DetectFiducialSquareBinary.w, values[i]);
+			GrayU8 fiducialU8 = new GrayU8(fiducial.width,fiducial.height);
+			ConvertImage.convert(fiducial,fiducialU8);
+
+			int x = 40 + (i%3)*200;
+			int y = 60 + (i/3)*200;
+			image.subimage(x,y,x+fiducial.width,y+fiducial.height,null).setTo(fiducialU8);
+		}
+
+		int original = BoofConcurrency.getMaxThreads();
+		try {
+			BoofConcurrency.setMaxThreads(3);
+
+			DetectFiducialSquareBinary<GrayU8> single = createDetector();
+			DetectFiducialSquareBinary<GrayU8> multi = createDetector();
+			multi.setConcurrent(true);
+
+			single.process(image);
+			multi.process(image);
+
+			assertEquals(values.length,single.getFound().size);
+			assertEquals(single.getFound().size,multi.getFound().size);
+			for (int i = 0; i < single.getFound().size; i++) {
+				FoundFiducial a = single.getFound().get(i);
+				FoundFiducial b = multi.getFound().get(i);
+
+				assertEquals(a.id,b.id);
+				for (int j = 0; j < 4; j++) {
+					assertEquals(0,a.distortedPixels.get(j).distance(b.distortedPixels.get(j)),0);
+				}
+			}
+		} finally {
+			BoofConcurrency.setMaxThreads(original);
+		}
+	}
+
+	private DetectFiducialSquareBinary<GrayU8> createDetector() {
+		return new DetectFiducialSquareBinary<>(gridWidth,borderWidth,blackBorderFraction,
+				FactoryThresholdBinary.globalFixed(50, true, GrayU8.class),
+				FactoryShapeDetector.polygon(new ConfigPolygonDetector(false, 4,4),GrayU8.class),GrayU8.class);
+	}
+
 	@Test
 	public void getNumberOfDistinctFiducials() {
 		DetectFiducialSquareBinary alg =
@@ -75,6 +75,7 @@ public class TestDetectFiducialSquareImage {
 		assertTrue(alg.processSquare(input, result,0,0));
 		assertEquals(0,result.which);
 		assertEquals(0,result.rotation);
+		assertEquals(0,result.matchDistance);
 		GrayF32 input2 = new GrayF32(input.width,input.height);
 		ImageMiscOps.rotateCCW(input,input2);
 		assertTrue(alg.processSquare(input2, result,0,0));
@@ -97,6 +98,49 @@ public class TestDetectFiducialSquareImage {
 		assertFalse(alg.processSquare(input, result,0,0));
 	}
 
+	/**
+	 * The index can't find the target because the coarse hash of every block is different, but it is within the
+	 * match threshold.  It should fall back to comparing against every target.
+	 */
+	@Test
+	public void processSquare_indexMiss() {
+		// the top half of every 8x8 block is white, which puts the count exactly at the hash threshold
+		GrayU8 pattern = new GrayU8(16*4,16*4);
+		for (int y = 0; y < pattern.height; y++) {
+			for (int x = 0; x < pattern.width; x++) {
+				pattern.set(x,y,y%8 < 4 ? 1 : 0);
+			}
+		}
+		// one more pixel in each block flips every bit in the hash
+		GrayU8 observed = pattern.clone();
+		for (int y = 0; y < pattern.height; y += 8) {
+			for (int x = 0; x < pattern.width; x += 8) {
+				observed.set(x,y+4,1);
+			}
+		}
+
+		DetectFiducialSquareImage<GrayU8> alg =
+				new DetectFiducialSquareImage<>(inputToBinary,squareDetector,0.25,0.65,0.1,GrayU8.class);
+		alg.setMinimumIndexSize(0);
+		alg.addPattern(pattern, 1.0);
+
+		FiducialImageHashIndex index = alg.getIndex();
+		assertTrue(index.lookup(observed, 1000, index.createQuery()) < 0);
+
+		// add a border around it
+		GrayU8 border = new GrayU8(16*8,16*8);
+		PixelMath.multiply(observed,255,observed);
+		border.subimage(16*2,16*2,16*6,16*6,null).setTo(observed);
+		GrayF32 input = new GrayF32(border.width,border.height);
+		ConvertImage.convert(border,input);
+
+		BaseDetectFiducialSquare.Result result = new BaseDetectFiducialSquare.Result();
+		assertTrue(alg.processSquare(input, result,0,0));
+		assertEquals(0,result.which);
+		assertEquals(0,result.rotation);
+		assertEquals(64,result.matchDistance);
+	}
+
 	@Test
 	public void addPattern() {
 		GrayU8 image = new GrayU8(16*8,16*4);
@@ -115,10 +159,19 @@ public class TestDetectFiducialSquareImage {
 
 		List<DetectFiducialSquareImage.FiducialDef> defs = alg.getTargets();
 		assertEquals(1,defs.size());
-
+		assertEquals(1.0,defs.get(0).lengthSide,1e-8);
+
+		// each orientation is saved in the index.  Only the pixel in a single corner should be set
+		FiducialImageHashIndex index = alg.getIndex();
+		assertEquals(4,index.size());
+		int N = index.getLength();
+		checkSinglePixel(index.getDescription(0),0);
+		checkSinglePixel(index.getDescription(1),(N-1)*N);
+		checkSinglePixel(index.getDescription(2),N*N-1);
+		checkSinglePixel(index.getDescription(3),N-1);
+
+		// the deprecated description should be the same
 		DetectFiducialSquareImage.FiducialDef def = defs.get(0);
-
-		// manually construct the descriptor in each corner
 		short desc[] = new short[16*16];
 		Arrays.fill(desc,(short)0x0000);
 		desc[0] = (short)0x0001;
@@ -183,6 +236,13 @@ public class TestDetectFiducialSquareImage {
 		assertEquals(expected, found);
 	}
 
+	private void checkSinglePixel( long[] desc , int pixel ) {
+		for (int i = 0; i < desc.length*64; i++) {
+			long expected = i == pixel ? 1 : 0;
+			assertEquals("pixel = "+i,expected,(desc[i/64] >> (i%64)) & 1L);
+		}
+	}
+
 	/**
 	 * See if it can process a border that isn't 0.25
 	 */
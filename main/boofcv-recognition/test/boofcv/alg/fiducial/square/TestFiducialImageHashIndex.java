@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.fiducial.square;
+
+import boofcv.alg.misc.ImageMiscOps;
+import boofcv.struct.image.GrayU8;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestFiducialImageHashIndex {
+
+	private Random rand = new Random(234);
+	private int length = 64;
+
+	/**
+	 * Compare against exhaustive search using noisy versions of images in the index
+	 */
+	@Test
+	public void lookup_compareToExhaustive() {
+		FiducialImageHashIndex alg = new FiducialImageHashIndex(length);
+
+		int N = 400;
+		GrayU8[] images = new GrayU8[N];
+		for (int i = 0; i < N; i++) {
+			images[i] = createPattern(rand,length,8);
+			assertEquals(i,alg.add(images[i]));
+		}
+
+		FiducialImageHashIndex.Query query = alg.createQuery();
+		int maxDistance = length*length/10;
+		for (int trial = 0; trial < 50; trial++) {
+			int target = rand.nextInt(N);
+			GrayU8 noisy = addNoise(rand,images[target],0.03);
+
+			int expected = alg.lookupExhaustive(noisy,maxDistance,query);
+			int expectedDistance = query.distance;
+			int found = alg.lookup(noisy,maxDistance,query);
+
+			assertEquals(target,expected);
+			assertEquals(expected,found);
+			assertEquals(expectedDistance,query.distance);
+		}
+	}
+
+	/**
+	 * Nothing should be returned if no image is within the distance
+	 */
+	@Test
+	public void lookup_noMatch() {
+		FiducialImageHashIndex alg = new FiducialImageHashIndex(length);
+		for (int i = 0; i < 20; i++) {
+			alg.add(createPattern(rand,length,8));
+		}
+
+		FiducialImageHashIndex.Query query = alg.createQuery();
+		GrayU8 image = createPattern(rand,length,8);
+		assertEquals(-1,alg.lookup(image,10,query));
+		assertEquals(-1,query.distance);
+		assertEquals(-1,alg.lookupExhaustive(image,10,query));
+	}
+
+	/**
+	 * Images added after a lookup should be found by the next lookup
+	 */
+	@Test
+	public void lookup_addAfterBuild() {
+		FiducialImageHashIndex alg = new FiducialImageHashIndex(length);
+		GrayU8 a = createPattern(rand,length,8);
+		GrayU8 b = createPattern(rand,length,8);
+		alg.add(a);
+
+		FiducialImageHashIndex.Query query = alg.createQuery();
+		assertEquals(0,alg.lookup(a,0,query));
+		assertEquals(-1,alg.lookup(b,0,query));
+
+		alg.add(b);
+		assertEquals(1,alg.lookup(b,0,query));
+		assertEquals(0,query.distance);
+	}
+
+	@Test
+	public void pack() {
+		GrayU8 image = new GrayU8(8,16);
+		ImageMiscOps.fillUniform(image,rand,0,2);
+
+		long[] desc = new long[2];
+		FiducialImageHashIndex.pack(image,desc);
+
+		for (int i = 0; i < 128; i++) {
+			assertEquals(image.data[i], (desc[i/64] >> (i%64)) & 1);
+		}
+	}
+
+	@Test
+	public void computeHash() {
+		GrayU8 image = new GrayU8(length,length);
+		int block = length/8;
+
+		// majority of pixels set
+		ImageMiscOps.fillRectangle(image,1,block*2,block*3,block,block/2+1);
+		// exactly half set
+		ImageMiscOps.fillRectangle(image,1,block*5,0,block,block/2);
+
+		long hash = FiducialImageHashIndex.computeHash(image);
+		assertEquals(1L << (3*8+2), hash);
+	}
+
+	@Test
+	public void hamming() {
+		long[] a = new long[3];
+		long[] b = new long[3];
+		int expected = 0;
+		for (int i = 0; i < 3; i++) {
+			a[i] = rand.nextLong();
+			b[i] = rand.nextLong();
+			for (int j = 0; j < 64; j++) {
+				if( ((a[i] >> j) & 1) != ((b[i] >> j) & 1) )
+					expected++;
+			}
+		}
+		assertEquals(expected,FiducialImageHashIndex.hamming(a,b));
+	}
+
+	/**
+	 * Creates a random pattern composed of square cells
+	 */
+	public static GrayU8 createPattern( Random rand , int length , int cellLength ) {
+		GrayU8 image = new GrayU8(length,length);
+		for (int y = 0; y < length; y += cellLength) {
+			for (int x = 0; x < length; x += cellLength) {
+				if( rand.nextBoolean() )
+					ImageMiscOps.fillRectangle(image,1,x,y,cellLength,cellLength);
+			}
+		}
+		return image;
+	}
+
+	/**
+	 * Randomly flips pixels
+	 */
+	public static GrayU8 addNoise( Random rand , GrayU8 image , double probability ) {
+		GrayU8 out = image.clone();
+		for (int i = 0; i < out.data.length; i++) {
+			if( rand.nextDouble() < probability )
+				out.data[i] = (byte)(1-out.data[i]);
+		}
+		return out;
+	}
+}
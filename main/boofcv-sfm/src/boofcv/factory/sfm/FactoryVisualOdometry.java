@@ -38,6 +38,7 @@ import boofcv.abst.sfm.d3.*;
 import boofcv.alg.feature.associate.AssociateMaxDistanceNaive;
 import boofcv.alg.feature.associate.AssociateStereo2D;
 import boofcv.alg.geo.DistanceModelMonoPixels;
+import boofcv.alg.geo.robust.RansacProsacSprt;
 import boofcv.alg.geo.pose.*;
 import boofcv.alg.sfm.DepthSparse3D;
 import boofcv.alg.sfm.StereoSparse3D;
@@ -63,6 +64,9 @@ import georegression.fitting.se.ModelManagerSe2_F64;
 import georegression.fitting.se.ModelManagerSe3_F64;
 import georegression.struct.se.Se2_F64;
 import georegression.struct.se.Se3_F64;
+import org.ddogleg.fitting.modelset.DistanceFromModel;
+import org.ddogleg.fitting.modelset.ModelGenerator;
+import org.ddogleg.fitting.modelset.ModelManager;
 import org.ddogleg.fitting.modelset.ModelMatcher;
 import org.ddogleg.fitting.modelset.ransac.Ransac;
 
@@ -97,6 +101,27 @@ public class FactoryVisualOdometry {
 													  double inlierPixelTol,
 													  int ransacIterations,
 
+													  PointTracker<T> tracker,
+													  ImageType<T> imageType) {
+		return monoPlaneInfinity(thresholdAdd, thresholdRetire, inlierPixelTol, ransacIterations, false,
+				tracker, imageType);
+	}
+
+	/**
+	 * Same as {@link #monoPlaneInfinity(int, int, double, int, PointTracker, ImageType)} but can optionally
+	 * use adaptive RANSAC.
+	 *
+	 * @param adaptiveRansac If true {@link RansacProsacSprt} is used for motion estimation and ransacIterations
+	 *                       is an upper limit.  It stops once enough hypotheses have been generated.
+	 */
+	public static <T extends ImageGray<T>>
+	MonocularPlaneVisualOdometry<T> monoPlaneInfinity(int thresholdAdd,
+													  int thresholdRetire,
+
+													  double inlierPixelTol,
+													  int ransacIterations,
+													  boolean adaptiveRansac,
+
 													  PointTracker<T> tracker,
 													  ImageType<T> imageType) {
 
@@ -108,7 +133,7 @@ public class FactoryVisualOdometry {
 		GenerateSe2_PlanePtPixel generator = new GenerateSe2_PlanePtPixel();
 
 		ModelMatcher<Se2_F64, PlanePtPixel> motion =
-				new Ransac<>(2323, manager, generator, distance, ransacIterations, ransacTOL);
+				createRansac(manager, generator, distance, ransacIterations, ransacTOL, adaptiveRansac);
 
 		VisOdomMonoPlaneInfinity<T> alg =
 				new VisOdomMonoPlaneInfinity<>(thresholdAdd, thresholdRetire, inlierPixelTol, motion, tracker);
@@ -191,6 +216,28 @@ public class FactoryVisualOdometry {
 										StereoDisparitySparse<T> sparseDisparity,
 										PointTrackerTwoPass<T> tracker ,
 										Class<T> imageType) {
+		return stereoDepth(inlierPixelTol, thresholdAdd, thresholdRetire, ransacIterations, false,
+				refineIterations, doublePass, sparseDisparity, tracker, imageType);
+	}
+
+	/**
+	 * Same as {@link #stereoDepth(double, int, int, int, int, boolean, StereoDisparitySparse, PointTrackerTwoPass, Class)}
+	 * but can optionally use adaptive RANSAC.
+	 *
+	 * @param adaptiveRansac If true {@link RansacProsacSprt} is used for motion estimation and ransacIterations
+	 *                       is an upper limit.  It stops once enough hypotheses have been generated.
+	 */
+	public static <T extends ImageGray<T>>
+	StereoVisualOdometry<T> stereoDepth(double inlierPixelTol,
+										int thresholdAdd,
+										int thresholdRetire ,
+										int ransacIterations ,
+										boolean adaptiveRansac ,
+										int refineIterations ,
+										boolean doublePass ,
+										StereoDisparitySparse<T> sparseDisparity,
+										PointTrackerTwoPass<T> tracker ,
+										Class<T> imageType) {
 
 		// Range from sparse disparity
 		StereoSparse3D<T> pixelTo3D = new StereoSparse3D<>(sparseDisparity, imageType);
@@ -206,7 +253,7 @@ public class FactoryVisualOdometry {
 		double ransacTOL = inlierPixelTol * inlierPixelTol;
 
 		ModelMatcher<Se3_F64, Point2D3D> motion =
-				new Ransac<>(2323, manager, generator, distance, ransacIterations, ransacTOL);
+				createRansac(manager, generator, distance, ransacIterations, ransacTOL, adaptiveRansac);
 
 		RefinePnP refine = null;
 
@@ -244,6 +291,28 @@ public class FactoryVisualOdometry {
 												 DepthSparse3D<Depth> sparseDepth,
 												 PointTrackerTwoPass<Vis> tracker ,
 												 Class<Vis> visualType , Class<Depth> depthType ) {
+		return depthDepthPnP(inlierPixelTol, thresholdAdd, thresholdRetire, ransacIterations, false,
+				refineIterations, doublePass, sparseDepth, tracker, visualType, depthType);
+	}
+
+	/**
+	 * Same as {@link #depthDepthPnP(double, int, int, int, int, boolean, DepthSparse3D, PointTrackerTwoPass, Class, Class)}
+	 * but can optionally use adaptive RANSAC.
+	 *
+	 * @param adaptiveRansac If true {@link RansacProsacSprt} is used for motion estimation and ransacIterations
+	 *                       is an upper limit.  It stops once enough hypotheses have been generated.
+	 */
+	public static <Vis extends ImageGray<Vis>, Depth extends ImageGray<Depth>>
+	DepthVisualOdometry<Vis,Depth> depthDepthPnP(double inlierPixelTol,
+												 int thresholdAdd,
+												 int thresholdRetire ,
+												 int ransacIterations ,
+												 boolean adaptiveRansac ,
+												 int refineIterations ,
+												 boolean doublePass ,
+												 DepthSparse3D<Depth> sparseDepth,
+												 PointTrackerTwoPass<Vis> tracker ,
+												 Class<Vis> visualType , Class<Depth> depthType ) {
 
 		// Range from sparse disparity
 		ImagePixelTo3D pixelTo3D = new DepthSparse3D_to_PixelTo3D<>(sparseDepth);
@@ -258,7 +327,7 @@ public class FactoryVisualOdometry {
 		double ransacTOL = inlierPixelTol * inlierPixelTol;
 
 		ModelMatcher<Se3_F64, Point2D3D> motion =
-				new Ransac<>(2323, manager, generator, distance, ransacIterations, ransacTOL);
+				createRansac(manager, generator, distance, ransacIterations, ransacTOL, adaptiveRansac);
 
 		RefinePnP refine = null;
 
@@ -298,6 +367,28 @@ public class FactoryVisualOdometry {
 												 PointTracker<T> trackerLeft, PointTracker<T> trackerRight,
 												 DescribeRegionPoint<T,Desc> descriptor,
 												 Class<T> imageType)
+	{
+		return stereoDualTrackerPnP(thresholdAdd, thresholdRetire, inlierPixelTol, epipolarPixelTol,
+				ransacIterations, false, refineIterations, trackerLeft, trackerRight, descriptor, imageType);
+	}
+
+	/**
+	 * Same as {@link #stereoDualTrackerPnP(int, int, double, double, int, int, PointTracker, PointTracker, DescribeRegionPoint, Class)}
+	 * but can optionally use adaptive RANSAC.
+	 *
+	 * @param adaptiveRansac If true {@link RansacProsacSprt} is used for motion estimation and ransacIterations
+	 *                       is an upper limit.  It stops once enough hypotheses have been generated.
+	 */
+	public static <T extends ImageGray<T>, Desc extends TupleDesc>
+	StereoVisualOdometry<T> stereoDualTrackerPnP(int thresholdAdd, int thresholdRetire,
+												 double inlierPixelTol,
+												 double epipolarPixelTol,
+												 int ransacIterations,
+												 boolean adaptiveRansac,
+												 int refineIterations,
+												 PointTracker<T> trackerLeft, PointTracker<T> trackerRight,
+												 DescribeRegionPoint<T,Desc> descriptor,
+												 Class<T> imageType)
 	{
 		EstimateNofPnP pnp = FactoryMultiView.computePnP_N(EnumPNP.P3P_FINSTERWALDER, -1);
 		DistanceModelMonoPixels<Se3_F64,Point2D3D> distanceMono = new PnPDistanceReprojectionSq();
@@ -311,7 +402,7 @@ public class FactoryVisualOdometry {
 		double ransacTOL = 2*inlierPixelTol * inlierPixelTol;
 
 		ModelMatcher<Se3_F64, Stereo2D3D> motion =
-				new Ransac<>(2323, manager, generator, distanceStereo, ransacIterations, ransacTOL);
+				createRansac(manager, generator, distanceStereo, ransacIterations, ransacTOL, adaptiveRansac);
 
 		RefinePnPStereo refinePnP = null;
 
@@ -352,6 +443,28 @@ public class FactoryVisualOdometry {
 										   int refineIterations ,
 										   DetectDescribeMulti<T,Desc> detector,
 										   Class<T> imageType )
+	{
+		return stereoQuadPnP(inlierPixelTol, epipolarPixelTol, maxDistanceF2F, maxAssociationError,
+				ransacIterations, false, refineIterations, detector, imageType);
+	}
+
+	/**
+	 * Same as {@link #stereoQuadPnP(double, double, double, double, int, int, DetectDescribeMulti, Class)}
+	 * but can optionally use adaptive RANSAC.
+	 *
+	 * @param adaptiveRansac If true {@link RansacProsacSprt} is used for motion estimation and ransacIterations
+	 *                       is an upper limit.  It stops once enough hypotheses have been generated.
+	 */
+	public static <T extends ImageGray<T>,Desc extends TupleDesc>
+	StereoVisualOdometry<T> stereoQuadPnP( double inlierPixelTol ,
+										   double epipolarPixelTol ,
+										   double maxDistanceF2F,
+										   double maxAssociationError,
+										   int ransacIterations ,
+										   boolean adaptiveRansac ,
+										   int refineIterations ,
+										   DetectDescribeMulti<T,Desc> detector,
+										   Class<T> imageType )
 	{
 		EstimateNofPnP pnp = FactoryMultiView.computePnP_N(EnumPNP.P3P_FINSTERWALDER, -1);
 		DistanceModelMonoPixels<Se3_F64,Point2D3D> distanceMono = new PnPDistanceReprojectionSq();
@@ -365,7 +478,7 @@ public class FactoryVisualOdometry {
 		double ransacTOL = 2*inlierPixelTol * inlierPixelTol;
 
 		ModelMatcher<Se3_F64, Stereo2D3D> motion =
-				new Ransac<>(2323, manager, generator, distanceStereo, ransacIterations, ransacTOL);
+				createRansac(manager, generator, distanceStereo, ransacIterations, ransacTOL, adaptiveRansac);
 
 		RefinePnPStereo refinePnP = null;
 
@@ -393,6 +506,23 @@ public class FactoryVisualOdometry {
 		return new WrapVisOdomQuadPnP<>(alg, refinePnP, associateStereo, distanceStereo, distanceMono, imageType);
 	}
 
+	/**
+	 * Creates the robust estimator used for motion estimation.  If adaptive then {@link RansacProsacSprt} is used,
+	 * which rejects bad hypotheses early with SPRT and stops once enough hypotheses have been generated for
+	 * 99% confidence.  ransacIterations is then the upper limit.  Tracks are not sorted by quality, so the
+	 * speed up comes from early termination and not the PROSAC sampling order.  Otherwise {@link Ransac} is used.
+	 */
+	static <Model,Point> ModelMatcher<Model,Point> createRansac( ModelManager<Model> manager ,
+																 ModelGenerator<Model,Point> generator ,
+																 DistanceFromModel<Model,Point> distance ,
+																 int ransacIterations , double threshold ,
+																 boolean adaptive ) {
+		if( adaptive )
+			return new RansacProsacSprt<>(2323, manager, generator, distance, ransacIterations, threshold);
+		else
+			return new Ransac<>(2323, manager, generator, distance, ransacIterations, threshold);
+	}
+
 	/**
 	 * Wraps around a {@link StereoVisualOdometry} instance and will rescale the input images and adjust the cameras
 	 * intrinsic parameters automatically.  Rescaling input images is often an easy way to improve runtime performance
@@ -26,12 +26,15 @@ import boofcv.factory.feature.disparity.FactoryStereoDisparity;
 import boofcv.factory.feature.tracker.FactoryPointTrackerTwoPass;
 import boofcv.factory.sfm.FactoryVisualOdometry;
 import boofcv.struct.image.GrayF32;
+import org.junit.Test;
 
 /**
  * @author Peter Abeles
  */
 public class TestWrapVisOdomPixelDepthPnP extends CheckVisualOdometryStereoSim<GrayF32> {
 
+	boolean adaptiveRansac = false;
+
 	public TestWrapVisOdomPixelDepthPnP() {
 		super(GrayF32.class);
 	}
@@ -50,7 +53,13 @@ public class TestWrapVisOdomPixelDepthPnP extends CheckVisualOdometryStereoSim<G
 		PointTrackerTwoPass<GrayF32> tracker = FactoryPointTrackerTwoPass.klt(config, configDetector,
 				GrayF32.class, GrayF32.class);
 
-		return FactoryVisualOdometry.stereoDepth(1.5,40,2,200,50,false,disparity,tracker,GrayF32.class);
+		return FactoryVisualOdometry.stereoDepth(1.5,40,2,200,adaptiveRansac,50,false,disparity,tracker,GrayF32.class);
+	}
+
+	@Test
+	public void moveForward_adaptiveRansac() {
+		adaptiveRansac = true;
+		moveForward();
 	}
 
 }